@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jmh;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.instance.impl.HazelcastInstanceProxy;
+import com.hazelcast.internal.util.UuidUtil;
+import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.spi.properties.ClusterProperty;
+
+/**
+ * Starts the embedded, single-JVM members the benchmarks run against.
+ * <p>
+ * Every member gets its own cluster name and has all the discovery
+ * mechanisms disabled, so benchmarks running concurrently on the same
+ * host never form a cluster with each other.
+ */
+public final class BenchmarkMembers {
+
+    private BenchmarkMembers() {
+    }
+
+    /**
+     * @return a config for a standalone member that never tries to join
+     * other members
+     */
+    public static Config standaloneConfig() {
+        Config config = new Config();
+        config.setClusterName("jmh-" + UuidUtil.newUnsecureUUID());
+        config.setProperty(ClusterProperty.PHONE_HOME_ENABLED.getName(), "false");
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getMulticastConfig().setEnabled(false);
+        join.getTcpIpConfig().setEnabled(false);
+        join.getAutoDetectionConfig().setEnabled(false);
+        return config;
+    }
+
+    /**
+     * Starts a member with the given config.
+     */
+    public static HazelcastInstance newMember(Config config) {
+        return Hazelcast.newHazelcastInstance(config);
+    }
+
+    /**
+     * Returns the node engine of a member started in this JVM.
+     */
+    public static NodeEngineImpl getNodeEngine(HazelcastInstance instance) {
+        return ((HazelcastInstanceProxy) instance).getOriginal().node.getNodeEngine();
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jmh.map;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.jmh.BenchmarkMembers;
+import com.hazelcast.map.IMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures IMap get/put/set through the member-side proxy. Compared to
+ * {@link RecordStoreBenchmark} this includes the operation creation, the
+ * hand-off to the partition thread and the response handling, so the
+ * difference between the two shows the cost of the operation pipeline.
+ * <p>
+ * Run with {@code -t <n>} to see how the pipeline scales with the number
+ * of calling threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class IMapBenchmark {
+
+    private static final String MAP_NAME = "imapBenchmark";
+
+    @Param({"10000"})
+    int entryCount;
+
+    @Param({"100"})
+    int valueSize;
+
+    private HazelcastInstance member;
+    private IMap<Integer, byte[]> map;
+    private byte[] value;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Config config = BenchmarkMembers.standaloneConfig();
+        member = BenchmarkMembers.newMember(config);
+        map = member.getMap(MAP_NAME);
+        value = new byte[valueSize];
+        for (int i = 0; i < entryCount; i++) {
+            map.set(i, value);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        member.getLifecycleService().terminate();
+    }
+
+    @Benchmark
+    public byte[] get() {
+        return map.get(randomKey());
+    }
+
+    @Benchmark
+    public byte[] put() {
+        return map.put(randomKey(), value);
+    }
+
+    @Benchmark
+    public void set() {
+        map.set(randomKey(), value);
+    }
+
+    private Integer randomKey() {
+        return ThreadLocalRandom.current().nextInt(entryCount);
+    }
+}
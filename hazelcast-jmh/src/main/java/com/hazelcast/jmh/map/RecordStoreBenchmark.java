@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jmh.map;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.jmh.BenchmarkMembers;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.memory.MemorySize;
+import com.hazelcast.memory.MemoryUnit;
+import com.hazelcast.spi.impl.NodeEngineImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.map.impl.record.Record.UNSET;
+
+/**
+ * Measures {@code DefaultRecordStore} get/put/set directly, without the
+ * proxy, the operation and the partition-thread hand-off in front of it.
+ * <p>
+ * A record store may only be touched by the thread owning its partition.
+ * The benchmark is therefore single threaded and the benchmark thread
+ * takes the role of the partition thread: nothing else in the embedded
+ * member touches the benchmark map. With {@code NATIVE} in-memory format
+ * the benchmark also disposes the deferred native blocks after each
+ * mutation, as the map operations do.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+public class RecordStoreBenchmark {
+
+    private static final String MAP_NAME = "recordStoreBenchmark";
+    private static final int PARTITION_ID = 0;
+    private static final int NATIVE_MEMORY_SIZE_GB = 1;
+
+    @Param({"1000", "100000"})
+    int entryCount;
+
+    @Param({"BINARY", "OBJECT", "NATIVE"})
+    InMemoryFormat inMemoryFormat;
+
+    @Param({"100"})
+    int valueSize;
+
+    private HazelcastInstance member;
+    private RecordStore recordStore;
+    private Data[] keys;
+    private Data value;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Config config = BenchmarkMembers.standaloneConfig();
+        config.getMapConfig(MAP_NAME).setInMemoryFormat(inMemoryFormat);
+        config.getNativeMemoryConfig()
+                .setEnabled(inMemoryFormat == InMemoryFormat.NATIVE)
+                .setSize(new MemorySize(NATIVE_MEMORY_SIZE_GB, MemoryUnit.GIGABYTES));
+        member = BenchmarkMembers.newMember(config);
+
+        NodeEngineImpl nodeEngine = BenchmarkMembers.getNodeEngine(member);
+        SerializationService ss = nodeEngine.getSerializationService();
+        MapService mapService = nodeEngine.getService(MapService.SERVICE_NAME);
+        MapServiceContext mapServiceContext = mapService.getMapServiceContext();
+        recordStore = mapServiceContext.getRecordStore(PARTITION_ID, MAP_NAME);
+
+        value = ss.toData(new byte[valueSize]);
+        keys = new Data[entryCount];
+        for (int i = 0; i < entryCount; i++) {
+            keys[i] = ss.toData("key-" + i);
+            recordStore.put(keys[i], value, UNSET, UNSET);
+        }
+        recordStore.disposeDeferredBlocks();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        member.getLifecycleService().terminate();
+    }
+
+    @Benchmark
+    public Object get() {
+        return recordStore.get(nextKey(), false, null);
+    }
+
+    @Benchmark
+    public Object put() {
+        Object oldValue = recordStore.put(nextKey(), value, UNSET, UNSET);
+        recordStore.disposeDeferredBlocks();
+        return oldValue;
+    }
+
+    @Benchmark
+    public Object set() {
+        Object oldValue = recordStore.set(nextKey(), value, UNSET, UNSET);
+        recordStore.disposeDeferredBlocks();
+        return oldValue;
+    }
+
+    private Data nextKey() {
+        int i = index;
+        index = i + 1 == keys.length ? 0 : i + 1;
+        return keys[i];
+    }
+}
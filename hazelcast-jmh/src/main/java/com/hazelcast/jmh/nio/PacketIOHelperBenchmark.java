@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jmh.nio;
+
+import com.hazelcast.internal.nio.Packet;
+import com.hazelcast.internal.nio.PacketIOHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the framing of {@link Packet}s by {@link PacketIOHelper}, which
+ * is what the {@code PacketEncoder} and {@code PacketDecoder} do for every
+ * member-to-member packet. Packets larger than the buffer are written and
+ * read in multiple steps, just like they are when the socket buffer fills
+ * up.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PacketIOHelperBenchmark {
+
+    @Param({"64", "1024", "65536", "1048576"})
+    int payloadSize;
+
+    @Param({"131072"})
+    int bufferSize;
+
+    @Param({"true", "false"})
+    boolean directBuffer;
+
+    private final PacketIOHelper writer = new PacketIOHelper();
+    private final PacketIOHelper reader = new PacketIOHelper();
+
+    private Packet packet;
+    private ByteBuffer writeBuffer;
+    private ByteBuffer readBuffer;
+    private byte[] frame;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        packet = new Packet(new byte[payloadSize], 1);
+        writeBuffer = allocate(bufferSize);
+
+        ByteBuffer framed = ByteBuffer.allocate(payloadSize + bufferSize);
+        if (!new PacketIOHelper().writeTo(packet, framed)) {
+            throw new IllegalStateException("Packet did not fit into the frame buffer");
+        }
+        framed.flip();
+        frame = new byte[framed.remaining()];
+        framed.get(frame);
+        readBuffer = allocate(bufferSize);
+    }
+
+    @Benchmark
+    public int write() {
+        int written = 0;
+        for (; ; ) {
+            writeBuffer.clear();
+            boolean complete = writer.writeTo(packet, writeBuffer);
+            written += writeBuffer.position();
+            if (complete) {
+                return written;
+            }
+        }
+    }
+
+    @Benchmark
+    public Packet read() {
+        int offset = 0;
+        for (; ; ) {
+            readBuffer.clear();
+            int length = Math.min(readBuffer.remaining(), frame.length - offset);
+            readBuffer.put(frame, offset, length);
+            offset += length;
+            readBuffer.flip();
+            Packet result = reader.readFrom(readBuffer);
+            if (result != null) {
+                return result;
+            }
+        }
+    }
+
+    private ByteBuffer allocate(int size) {
+        return directBuffer ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jmh.operationexecutor;
+
+import com.hazelcast.internal.util.concurrent.MPSCArrayQueue;
+import com.hazelcast.internal.util.concurrent.MPSCQueue;
+import com.hazelcast.spi.impl.operationexecutor.impl.OperationQueue;
+import com.hazelcast.spi.impl.operationexecutor.impl.OperationQueueImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the hand-off of tasks from the calling threads (the IO and
+ * user threads in a member) to a single consuming thread through an
+ * {@link OperationQueue}, the way tasks reach a partition thread.
+ * <p>
+ * {@link #handoff()} measures the full round trip of a single task:
+ * enqueue, wake-up of the consumer and the consumer taking it, and is
+ * meant to be looked at in the sample-time mode for its percentiles.
+ * {@link #offer()} measures the enqueue throughput of many producers,
+ * with the backlog bounded so the queue does not grow without limit.
+ * <p>
+ * The {@code queueType} parameter matches the values of the
+ * {@code hazelcast.operation.partitionthread.queue.type} property: the
+ * linked {@link MPSCQueue} allocates a node per task, the {@link MPSCArrayQueue}
+ * doesn't. Run with {@code -prof gc} to compare the allocation rates and
+ * with {@code -bm sample} to compare the hand-off percentiles; no results
+ * are recorded here, they depend on the hardware.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class OperationQueueBenchmark {
+
+    private static final Object TASK = new Object();
+    private static final Object POISON_PILL = new Object();
+    private static final int CAPACITY = 16384;
+
+    @Param({"linked", "array"})
+    String queueType;
+
+    @Param({"1024"})
+    int maxBacklog;
+
+    private final AtomicLong consumed = new AtomicLong();
+
+    private OperationQueue queue;
+    private Thread consumer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        consumer = new Thread(this::consume, "operation-queue-benchmark-consumer");
+        BlockingQueue<Object> normalQueue;
+        if ("array".equals(queueType)) {
+            MPSCArrayQueue<Object> arrayQueue = new MPSCArrayQueue<>(CAPACITY, null);
+            arrayQueue.setConsumerThread(consumer);
+            normalQueue = arrayQueue;
+        } else {
+            MPSCQueue<Object> linkedQueue = new MPSCQueue<>(null);
+            linkedQueue.setConsumerThread(consumer);
+            normalQueue = linkedQueue;
+        }
+        queue = new OperationQueueImpl(normalQueue, new ConcurrentLinkedQueue<>());
+        consumer.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        queue.add(POISON_PILL, false);
+        consumer.join();
+    }
+
+    @Benchmark
+    public long handoff(ProducerState producer) {
+        queue.add(producer.task, false);
+        while (!producer.task.taken) {
+            Thread.yield();
+        }
+        producer.task.taken = false;
+        return consumed.get();
+    }
+
+    @Benchmark
+    public void offer() {
+        while (queue.normalSize() > maxBacklog) {
+            Thread.yield();
+        }
+        queue.add(TASK, false);
+    }
+
+    private void consume() {
+        try {
+            for (; ; ) {
+                Object task = queue.take(false);
+                if (task == POISON_PILL) {
+                    return;
+                }
+                if (task instanceof RoundTripTask) {
+                    ((RoundTripTask) task).taken = true;
+                }
+                consumed.lazySet(consumed.get() + 1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The per-thread task used to measure the round trip of a single hand-off.
+     */
+    @State(Scope.Thread)
+    public static class ProducerState {
+        final RoundTripTask task = new RoundTripTask();
+    }
+
+    static final class RoundTripTask {
+        volatile boolean taken;
+    }
+}
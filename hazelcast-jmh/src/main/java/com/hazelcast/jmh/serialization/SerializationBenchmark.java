@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jmh.serialization;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code AbstractSerializationService.toData} and
+ * {@code toObject} for the value types that dominate typical IMap
+ * payloads. The serialization service is shared by all benchmark
+ * threads, like it is in a member, so the buffer pooling is measured
+ * under contention when run with more than one thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"LONG", "STRING", "BYTE_ARRAY", "LONG_ARRAY"})
+    ValueType valueType;
+
+    @Param({"100"})
+    int valueSize;
+
+    private InternalSerializationService serializationService;
+    private Object value;
+    private Data data;
+
+    /**
+     * The kinds of values being serialized.
+     */
+    public enum ValueType {
+        /**
+         * A boxed {@code long}
+         */
+        LONG,
+        /**
+         * An ASCII string of {@code valueSize} characters
+         */
+        STRING,
+        /**
+         * A {@code byte[]} of {@code valueSize} elements
+         */
+        BYTE_ARRAY,
+        /**
+         * A {@code long[]} of {@code valueSize} elements
+         */
+        LONG_ARRAY
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        serializationService = new DefaultSerializationServiceBuilder().build();
+        value = createValue();
+        data = serializationService.toData(value);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        serializationService.dispose();
+    }
+
+    @Benchmark
+    public Data toData() {
+        return serializationService.toData(value);
+    }
+
+    @Benchmark
+    public Object toObject() {
+        return serializationService.toObject(data);
+    }
+
+    @Benchmark
+    public Object roundTrip() {
+        return serializationService.toObject(serializationService.toData(value));
+    }
+
+    private Object createValue() {
+        switch (valueType) {
+            case LONG:
+                return (long) valueSize;
+            case STRING:
+                char[] chars = new char[valueSize];
+                Arrays.fill(chars, 'x');
+                return new String(chars);
+            case BYTE_ARRAY:
+                return new byte[valueSize];
+            case LONG_ARRAY:
+                return new long[valueSize];
+            default:
+                throw new IllegalArgumentException("Unknown value type: " + valueType);
+        }
+    }
+}
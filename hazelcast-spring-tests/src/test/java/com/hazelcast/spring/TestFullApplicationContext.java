@@ -1615,6 +1615,7 @@ public class TestFullApplicationContext extends HazelcastTestSupport {
         assertEquals(2048, edgeConfig.getQueueSize());
         assertEquals(15000, edgeConfig.getPacketSizeLimit());
         assertEquals(4, edgeConfig.getReceiveWindowMultiplier());
+        assertTrue(edgeConfig.isCompressionEnabled());
     }
 
     @Test
@@ -19,6 +19,8 @@ package com.hazelcast.jet.sql.impl;
 import com.hazelcast.function.ComparatorEx;
 import com.hazelcast.function.FunctionEx;
 import com.hazelcast.function.PredicateEx;
+import com.hazelcast.jet.sql.impl.expression.codegen.CompiledExpression;
+import com.hazelcast.jet.sql.impl.expression.codegen.ExpressionCompiler;
 import com.hazelcast.jet.sql.impl.opt.FieldCollation;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
@@ -149,31 +151,44 @@ public final class ExpressionUtil {
         }
     }
 
+    /**
+     * Returns a function evaluating the projections. The projections are
+     * compiled, the function is meant to be created on the member executing
+     * it.
+     */
     public static FunctionEx<JetSqlRow, JetSqlRow> projectionFn(
             @Nonnull List<Expression<?>> projections,
             @Nonnull ExpressionEvalContext context
     ) {
+        List<CompiledExpression> compiledProjections = ExpressionCompiler.compile(projections);
         return row0 -> {
             Row row = row0.getRow();
-            Object[] result = new Object[projections.size()];
-            for (int i = 0; i < projections.size(); i++) {
-                result[i] = evaluate(projections.get(i), row, context);
+            Object[] result = new Object[compiledProjections.size()];
+            for (int i = 0; i < compiledProjections.size(); i++) {
+                result[i] = compiledProjections.get(i).eval(row, context);
             }
             return new JetSqlRow(context.getSerializationService(), result);
         };
     }
 
+    /**
+     * Returns a function evaluating the predicate and the projections. The
+     * expressions are compiled, the function is meant to be created on the
+     * member executing it.
+     */
     public static FunctionEx<JetSqlRow, JetSqlRow> calcFn(
             @Nonnull List<Expression<?>> projections,
             @Nonnull Expression<Boolean> predicate,
             @Nonnull ExpressionEvalContext context
     ) {
+        List<CompiledExpression> compiledProjections = ExpressionCompiler.compile(projections);
+        CompiledExpression compiledPredicate = ExpressionCompiler.compile(predicate);
         return row0 -> {
             Row row = row0.getRow();
-            if (Boolean.TRUE.equals(evaluate(predicate, row, context))) {
-                Object[] result = new Object[projections.size()];
-                for (int i = 0; i < projections.size(); i++) {
-                    result[i] = evaluate(projections.get(i), row, context);
+            if (Boolean.TRUE.equals(compiledPredicate.eval(row, context))) {
+                Object[] result = new Object[compiledProjections.size()];
+                for (int i = 0; i < compiledProjections.size(); i++) {
+                    result[i] = compiledProjections.get(i).eval(row, context);
                 }
                 return new JetSqlRow(context.getSerializationService(), result);
             } else {
@@ -268,6 +283,28 @@ public final class ExpressionUtil {
         return new JetSqlRow(context.getSerializationService(), result);
     }
 
+    /**
+     * Evaluate compiled projection&predicate for a single row. Returns {@code
+     * null} if the row is rejected by the predicate.
+     */
+    @Nullable
+    public static JetSqlRow evaluate(
+            @Nullable CompiledExpression predicate,
+            @Nonnull List<CompiledExpression> projection,
+            @Nonnull Row row,
+            @Nonnull ExpressionEvalContext context
+    ) {
+        if (predicate != null && !Boolean.TRUE.equals(predicate.eval(row, context))) {
+            return null;
+        }
+
+        Object[] result = new Object[projection.size()];
+        for (int i = 0; i < projection.size(); i++) {
+            result[i] = projection.get(i).eval(row, context);
+        }
+        return new JetSqlRow(context.getSerializationService(), result);
+    }
+
     public static Object evaluate(
             @Nonnull Expression<?> expression,
             @Nonnull Row row,
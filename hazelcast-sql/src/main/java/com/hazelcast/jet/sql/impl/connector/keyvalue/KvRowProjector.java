@@ -18,11 +18,12 @@ package com.hazelcast.jet.sql.impl.connector.keyvalue;
 
 import com.hazelcast.internal.serialization.Data;
 import com.hazelcast.jet.sql.impl.JetSqlSerializerHook;
+import com.hazelcast.jet.sql.impl.expression.codegen.CompiledExpression;
+import com.hazelcast.jet.sql.impl.expression.codegen.ExpressionCompiler;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 import com.hazelcast.query.impl.getters.Extractors;
-import com.hazelcast.sql.impl.expression.ConstantExpression;
 import com.hazelcast.sql.impl.expression.Expression;
 import com.hazelcast.sql.impl.expression.ExpressionEvalContext;
 import com.hazelcast.sql.impl.extract.QueryExtractor;
@@ -37,7 +38,6 @@ import java.io.IOException;
 import java.util.List;
 
 import static com.hazelcast.internal.util.Preconditions.checkTrue;
-import static com.hazelcast.jet.sql.impl.ExpressionUtil.evaluate;
 
 /**
  * A utility to convert a key-value entry represented as {@code
@@ -53,18 +53,17 @@ public class KvRowProjector implements Row {
     private final QueryTarget valueTarget;
     private final QueryExtractor[] extractors;
 
-    private final Expression<Boolean> predicate;
-    private final List<Expression<?>> projections;
+    private final CompiledExpression predicate;
+    private final List<CompiledExpression> projections;
     private final ExpressionEvalContext evalContext;
 
-    @SuppressWarnings("unchecked")
     KvRowProjector(
             QueryPath[] paths,
             QueryDataType[] types,
             QueryTarget keyTarget,
             QueryTarget valueTarget,
-            Expression<Boolean> predicate,
-            List<Expression<?>> projections,
+            CompiledExpression predicate,
+            List<CompiledExpression> projections,
             ExpressionEvalContext evalContext
     ) {
         checkTrue(paths.length == types.length, "paths.length != types.length");
@@ -72,8 +71,7 @@ public class KvRowProjector implements Row {
         this.valueTarget = valueTarget;
         this.extractors = createExtractors(paths, types, keyTarget, valueTarget);
 
-        this.predicate = predicate != null ? predicate
-                : (Expression<Boolean>) ConstantExpression.create(true, QueryDataType.BOOLEAN);
+        this.predicate = predicate;
         this.projections = projections;
         this.evalContext = evalContext;
     }
@@ -108,13 +106,13 @@ public class KvRowProjector implements Row {
         keyTarget.setTarget(key, keyData);
         valueTarget.setTarget(value, valueData);
 
-        if (!Boolean.TRUE.equals(evaluate(predicate, this, evalContext))) {
+        if (predicate != null && !Boolean.TRUE.equals(predicate.eval(this, evalContext))) {
             return null;
         }
 
         Object[] row = new Object[projections.size()];
         for (int i = 0; i < projections.size(); i++) {
-            row[i] = evaluate(projections.get(i), this, evalContext);
+            row[i] = projections.get(i).eval(this, evalContext);
         }
         return new JetSqlRow(evalContext.getSerializationService(), row);
     }
@@ -152,6 +150,8 @@ public class KvRowProjector implements Row {
         private Expression<Boolean> predicate;
         private List<Expression<?>> projections;
 
+        private transient Compiled compiled;
+
         @SuppressWarnings("unused")
         public Supplier() {
         }
@@ -181,13 +181,21 @@ public class KvRowProjector implements Row {
         }
 
         public KvRowProjector get(ExpressionEvalContext evalContext, Extractors extractors) {
+            Compiled compiled = this.compiled;
+            if (compiled == null) {
+                compiled = new Compiled(
+                        predicate != null ? ExpressionCompiler.compile(predicate) : null,
+                        ExpressionCompiler.compile(projections)
+                );
+                this.compiled = compiled;
+            }
             return new KvRowProjector(
                     paths,
                     types,
                     keyDescriptor.create(evalContext.getSerializationService(), extractors, true),
                     valueDescriptor.create(evalContext.getSerializationService(), extractors, false),
-                    predicate,
-                    projections,
+                    compiled.predicate,
+                    compiled.projections,
                     evalContext
             );
         }
@@ -233,5 +241,20 @@ public class KvRowProjector implements Row {
         public int getClassId() {
             return JetSqlSerializerHook.KV_ROW_PROJECTOR_SUPPLIER;
         }
+
+        /**
+         * The predicate and the projections compiled on first use. Published
+         * without synchronization, the compilation is idempotent and the
+         * fields are final.
+         */
+        private static final class Compiled {
+            private final CompiledExpression predicate;
+            private final List<CompiledExpression> projections;
+
+            private Compiled(CompiledExpression predicate, List<CompiledExpression> projections) {
+                this.predicate = predicate;
+                this.projections = projections;
+            }
+        }
     }
 }
@@ -29,6 +29,8 @@ import com.hazelcast.jet.core.Processor;
 import com.hazelcast.jet.core.ProcessorSupplier;
 import com.hazelcast.jet.impl.connector.AbstractIndexReader;
 import com.hazelcast.jet.sql.impl.ExpressionUtil;
+import com.hazelcast.jet.sql.impl.expression.codegen.CompiledExpression;
+import com.hazelcast.jet.sql.impl.expression.codegen.ExpressionCompiler;
 import com.hazelcast.map.impl.operation.MapFetchIndexOperation;
 import com.hazelcast.map.impl.operation.MapFetchIndexOperation.MapFetchIndexOperationResult;
 import com.hazelcast.map.impl.operation.MapFetchIndexOperation.MissingPartitionException;
@@ -49,6 +51,8 @@ import com.hazelcast.sql.impl.exec.scan.MapIndexScanMetadata;
 import com.hazelcast.sql.impl.exec.scan.MapScanRow;
 import com.hazelcast.sql.impl.exec.scan.index.IndexFilter;
 import com.hazelcast.sql.impl.expression.ExpressionEvalContext;
+import com.hazelcast.sql.impl.expression.vector.ColumnBatch;
+import com.hazelcast.sql.impl.expression.vector.VectorizedEvaluator;
 import com.hazelcast.sql.impl.row.JetSqlRow;
 
 import javax.annotation.Nonnull;
@@ -103,6 +107,10 @@ final class MapIndexScanP extends AbstractProcessor {
 
     private final ArrayList<Split> splits = new ArrayList<>();
     private MapScanRow row;
+    private VectorizedEvaluator vectorizedEvaluator;
+    private ColumnBatch columnBatch;
+    private CompiledExpression remainingFilter;
+    private List<CompiledExpression> projection;
     private JetSqlRow pendingItem;
     private boolean isIndexSorted;
 
@@ -133,6 +141,19 @@ final class MapIndexScanP extends AbstractProcessor {
                         .build(),
                 evalContext.getSerializationService()
         );
+        vectorizedEvaluator = VectorizedEvaluator.create(
+                metadata.getRemainingFilter(),
+                metadata.getProjection(),
+                metadata.getFieldPaths().size()
+        );
+        if (vectorizedEvaluator != null) {
+            columnBatch = vectorizedEvaluator.createBatch();
+        } else {
+            remainingFilter = metadata.getRemainingFilter() != null
+                    ? ExpressionCompiler.compile(metadata.getRemainingFilter())
+                    : null;
+            projection = ExpressionCompiler.compile(metadata.getProjection());
+        }
         isIndexSorted = metadata.getComparator() != null;
     }
 
@@ -229,6 +250,44 @@ final class MapIndexScanP extends AbstractProcessor {
         }
     }
 
+    /**
+     * Filters and projects a fetched batch of entries. The whole batch is
+     * evaluated at once by the {@link VectorizedEvaluator} if the filter and
+     * the projection can be vectorized, otherwise row by row by their compiled
+     * form.
+     * <p>
+     * Sometimes scan query may not include indexed field.
+     * So, additional projection is required to ability to merge-sort an output.
+     */
+    private List<JetSqlRow> projectAndFilter(@Nonnull List<QueryableEntry<?, ?>> entries) {
+        List<JetSqlRow> rows = new ArrayList<>(entries.size());
+
+        if (vectorizedEvaluator != null) {
+            columnBatch.clear();
+            for (QueryableEntry<?, ?> entry : entries) {
+                setKeyValue(entry);
+                columnBatch.load(row);
+            }
+            vectorizedEvaluator.evaluate(columnBatch, evalContext, rows);
+        } else {
+            for (QueryableEntry<?, ?> entry : entries) {
+                setKeyValue(entry);
+                JetSqlRow projected = ExpressionUtil.evaluate(remainingFilter, projection, row, evalContext);
+                if (projected != null) {
+                    rows.add(projected);
+                }
+            }
+        }
+        return rows;
+    }
+
+    private void setKeyValue(@Nonnull QueryableEntry<?, ?> entry) {
+        row.setKeyValue(
+                entry.getKeyIfPresent(), entry.getKeyDataIfPresent(),
+                entry.getValueIfPresent(), entry.getValueDataIfPresent()
+        );
+    }
+
     /**
      * Perform splitting of a {@link Split} after receiving {@link MissingPartitionException}
      * or various cluster state exceptions like {@link MemberLeftException}.
@@ -282,7 +341,7 @@ final class MapIndexScanP extends AbstractProcessor {
         private final PartitionIdSet partitions;
         private final Address owner;
         private IndexIterationPointer[] pointers;
-        private List<QueryableEntry<?, ?>> currentBatch = emptyList();
+        private List<JetSqlRow> currentBatch = emptyList();
         private JetSqlRow currentRow;
         private int currentBatchPosition;
         private CompletableFuture<MapFetchIndexOperationResult> future;
@@ -334,20 +393,15 @@ final class MapIndexScanP extends AbstractProcessor {
                 } catch (InterruptedException e) {
                     throw new RuntimeException(e);
                 }
-                currentBatch = reader.toRecordSet(result);
+                currentBatch = projectAndFilter(reader.toRecordSet(result));
                 currentBatchPosition = 0;
                 pointers = result.getPointers();
                 future = null;
             }
 
-            // project the next item
-            while (currentRow == null && currentBatchPosition < currentBatch.size()) {
-                // Sometimes scan query may not include indexed field.
-                // So, additional projection is required to ability to merge-sort an output.
-                currentRow = projectAndFilter(currentBatch.get(currentBatchPosition));
-                if (currentRow == null) {
-                    currentBatchPosition++;
-                }
+            // take the next projected item
+            if (currentRow == null && currentBatchPosition < currentBatch.size()) {
+                currentRow = currentBatch.get(currentBatchPosition);
             }
         }
 
@@ -373,14 +427,6 @@ final class MapIndexScanP extends AbstractProcessor {
             return null;
         }
 
-        private JetSqlRow projectAndFilter(@Nonnull QueryableEntry<?, ?> entry) {
-            row.setKeyValue(
-                    entry.getKeyIfPresent(), entry.getKeyDataIfPresent(),
-                    entry.getValueIfPresent(), entry.getValueDataIfPresent()
-            );
-            return ExpressionUtil.evaluate(metadata.getRemainingFilter(), metadata.getProjection(), row, evalContext);
-        }
-
         private void remove() {
             currentBatchPosition++;
             currentRow = null;
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2021 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.sql.impl.expression.codegen;
+
+import com.hazelcast.sql.impl.QueryException;
+import com.hazelcast.sql.impl.SqlErrorCode;
+
+/**
+ * Runtime support methods called by the generated expression classes.
+ */
+public final class CodegenSupport {
+
+    private CodegenSupport() {
+        // No-op.
+    }
+
+    public static long addExact(long left, long right) {
+        try {
+            return Math.addExact(left, right);
+        } catch (ArithmeticException e) {
+            throw overflow('+');
+        }
+    }
+
+    public static long subtractExact(long left, long right) {
+        try {
+            return Math.subtractExact(left, right);
+        } catch (ArithmeticException e) {
+            throw overflow('-');
+        }
+    }
+
+    public static long multiplyExact(long left, long right) {
+        try {
+            return Math.multiplyExact(left, right);
+        } catch (ArithmeticException e) {
+            throw overflow('*');
+        }
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public static int compare(Object left, Object right) {
+        return ((Comparable) left).compareTo(right);
+    }
+
+    private static QueryException overflow(char operator) {
+        return QueryException.error(SqlErrorCode.DATA_EXCEPTION,
+                "BIGINT overflow in '" + operator + "' operator (consider adding explicit CAST to DECIMAL)");
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2021 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.sql.impl.expression.codegen;
+
+import com.hazelcast.sql.impl.expression.ExpressionEvalContext;
+import com.hazelcast.sql.impl.row.Row;
+
+/**
+ * An expression tree turned into a specialized class by the {@link
+ * ExpressionCompiler}.
+ * <p>
+ * Implementations are stateless and may be shared between threads.
+ */
+public interface CompiledExpression {
+    /**
+     * Evaluates the expression on the given row. The result is the same as of
+     * {@link com.hazelcast.sql.impl.expression.Expression#evalTop} of the
+     * compiled expression.
+     *
+     * @param row     the row to evaluate the expression on.
+     * @param context the context to evaluate the expression in.
+     * @return the result produced by the evaluation.
+     */
+    Object eval(Row row, ExpressionEvalContext context);
+}
@@ -0,0 +1,536 @@
+/*
+ * Copyright 2021 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.sql.impl.expression.codegen;
+
+import com.hazelcast.sql.impl.expression.BiExpression;
+import com.hazelcast.sql.impl.expression.ColumnExpression;
+import com.hazelcast.sql.impl.expression.ConstantExpression;
+import com.hazelcast.sql.impl.expression.Expression;
+import com.hazelcast.sql.impl.expression.ParameterExpression;
+import com.hazelcast.sql.impl.expression.UniExpression;
+import com.hazelcast.sql.impl.expression.math.MinusFunction;
+import com.hazelcast.sql.impl.expression.math.MultiplyFunction;
+import com.hazelcast.sql.impl.expression.math.PlusFunction;
+import com.hazelcast.sql.impl.expression.predicate.AndPredicate;
+import com.hazelcast.sql.impl.expression.predicate.ComparisonPredicate;
+import com.hazelcast.sql.impl.expression.predicate.IsFalsePredicate;
+import com.hazelcast.sql.impl.expression.predicate.IsNotFalsePredicate;
+import com.hazelcast.sql.impl.expression.predicate.IsNotNullPredicate;
+import com.hazelcast.sql.impl.expression.predicate.IsNotTruePredicate;
+import com.hazelcast.sql.impl.expression.predicate.IsNullPredicate;
+import com.hazelcast.sql.impl.expression.predicate.IsTruePredicate;
+import com.hazelcast.sql.impl.expression.predicate.NotPredicate;
+import com.hazelcast.sql.impl.expression.predicate.OrPredicate;
+import com.hazelcast.sql.impl.type.QueryDataTypeFamily;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates the source of a {@link CompiledExpression} class for an
+ * expression tree.
+ * <p>
+ * Every node is translated to a block computing two local variables: {@code
+ * n<id>}, which is {@code true} if the result is {@code NULL}, and {@code
+ * v<id>}, which holds the value. Integer, approximate numeric and boolean
+ * values are kept in primitive {@code long}, {@code double} and {@code
+ * boolean} variables, so they are boxed only when the result is returned.
+ * Operands are evaluated in the same order and with the same short-circuiting
+ * as by the interpreted expressions.
+ * <p>
+ * Nodes without a translation, including all nodes of the {@code OBJECT}
+ * type, are referenced from the generated code and evaluated by the
+ * interpreter. Constants are referenced too, rather than
+ * inlined as literals, so the source only depends on the shape and the types
+ * of the tree and the generated class can be reused for trees which differ in
+ * constant values only.
+ */
+final class ExpressionCodeGenerator {
+
+    static final String CLASS_NAME = "GeneratedExpression";
+
+    private final StringBuilder fields = new StringBuilder();
+    private final StringBuilder constructor = new StringBuilder();
+    private final StringBuilder body = new StringBuilder();
+    private final List<Object> references = new ArrayList<>();
+
+    private int nextId;
+    private int compiledNodeCount;
+
+    /**
+     * Generates the source of the class.
+     */
+    String generate(Expression<?> expression) {
+        int id = emit(expression);
+
+        StringBuilder source = new StringBuilder();
+        source.append("public final class ").append(CLASS_NAME)
+                .append(" implements ").append(CompiledExpression.class.getName()).append(" {\n")
+                .append("private final Object[] refs;\n")
+                .append(fields)
+                .append("public ").append(CLASS_NAME).append("(Object[] refs) {\n")
+                .append("this.refs = refs;\n")
+                .append(constructor)
+                .append("}\n")
+                .append("public Object eval(com.hazelcast.sql.impl.row.Row row, ")
+                .append("com.hazelcast.sql.impl.expression.ExpressionEvalContext context) {\n")
+                .append(body)
+                .append("return n").append(id).append(" ? null : ")
+                .append(box(expression.getType().getTypeFamily(), "v" + id)).append(";\n")
+                .append("}\n")
+                .append("}\n");
+        return source.toString();
+    }
+
+    /**
+     * Returns the objects referenced by the generated class, to be passed to
+     * its constructor.
+     */
+    Object[] references() {
+        return references.toArray();
+    }
+
+    /**
+     * Returns the number of nodes translated to code, as opposed to the ones
+     * evaluated by the interpreter.
+     */
+    int compiledNodeCount() {
+        return compiledNodeCount;
+    }
+
+    @SuppressWarnings({"checkstyle:CyclomaticComplexity", "checkstyle:ReturnCount"})
+    private int emit(Expression<?> expression) {
+        QueryDataTypeFamily family = expression.getType().getTypeFamily();
+        if (family == QueryDataTypeFamily.OBJECT) {
+            return emitInterpreted(expression);
+        }
+
+        if (expression instanceof ColumnExpression) {
+            return emitColumn((ColumnExpression<?>) expression);
+        }
+
+        if (expression instanceof ParameterExpression) {
+            return emitParameter((ParameterExpression<?>) expression);
+        }
+
+        if (expression instanceof ConstantExpression) {
+            return emitConstant((ConstantExpression<?>) expression);
+        }
+
+        if (expression instanceof ComparisonPredicate) {
+            return emitComparison((ComparisonPredicate) expression);
+        }
+
+        if (expression instanceof AndPredicate) {
+            return emitLogic(((AndPredicate) expression).getOperands(), true);
+        }
+
+        if (expression instanceof OrPredicate) {
+            return emitLogic(((OrPredicate) expression).getOperands(), false);
+        }
+
+        if (expression instanceof UniExpression) {
+            return emitUnaryPredicate((UniExpression<?>) expression);
+        }
+
+        if (expression instanceof BiExpression) {
+            return emitArithmetic((BiExpression<?>) expression);
+        }
+
+        return emitInterpreted(expression);
+    }
+
+    private int emitInterpreted(Expression<?> expression) {
+        int reference = reference(expression);
+
+        return emitValue(expression, "((" + Expression.class.getName() + ") refs[" + reference + "]).eval(row, context)");
+    }
+
+    private int emitColumn(ColumnExpression<?> expression) {
+        compiledNodeCount++;
+        return emitValue(expression, "row.get(" + expression.getIndex() + ")");
+    }
+
+    private int emitParameter(ParameterExpression<?> expression) {
+        compiledNodeCount++;
+        return emitValue(expression, "context.getArgument(" + expression.getIndex() + ")");
+    }
+
+    private int emitValue(Expression<?> expression, String source) {
+        int id = nextId++;
+        Representation representation = Representation.of(expression.getType().getTypeFamily());
+
+        declare(id, representation);
+        body.append("{\n")
+                .append("Object o").append(id).append(" = ").append(source).append(";\n")
+                .append("if (o").append(id).append(" != null) {\n")
+                .append("n").append(id).append(" = false;\n")
+                .append("v").append(id).append(" = ").append(representation.unbox("o" + id)).append(";\n")
+                .append("}\n")
+                .append("}\n");
+        return id;
+    }
+
+    private int emitConstant(ConstantExpression<?> expression) {
+        int id = nextId++;
+        Representation representation = Representation.of(expression.getType().getTypeFamily());
+
+        declare(id, representation);
+        if (expression.getValue() != null) {
+            int reference = reference(expression.getValue());
+
+            fields.append("private final ").append(representation.javaType).append(" c").append(id).append(";\n");
+            constructor.append("c").append(id).append(" = ").append(representation.unbox("refs[" + reference + "]"))
+                    .append(";\n");
+            body.append("n").append(id).append(" = false;\n")
+                    .append("v").append(id).append(" = c").append(id).append(";\n");
+        }
+        compiledNodeCount++;
+        return id;
+    }
+
+    private int emitComparison(ComparisonPredicate expression) {
+        QueryDataTypeFamily family = expression.getOperand1().getType().getTypeFamily();
+        if (family == QueryDataTypeFamily.OBJECT) {
+            // OBJECT values are compared only after the class checks done by the interpreter
+            return emitInterpreted(expression);
+        }
+
+        Representation representation = Representation.of(family);
+        String operator = comparisonOperator(expression);
+
+        int id = nextId++;
+        declare(id, Representation.BOOLEAN);
+        body.append("{\n");
+        int left = emit(expression.getOperand1());
+        body.append("if (!n").append(left).append(") {\n");
+        int right = emit(expression.getOperand2());
+        body.append("if (!n").append(right).append(") {\n")
+                .append("n").append(id).append(" = false;\n")
+                .append("v").append(id).append(" = ")
+                .append(representation.compare("v" + left, "v" + right)).append(' ').append(operator).append(" 0;\n")
+                .append("}\n")
+                .append("}\n")
+                .append("}\n");
+        compiledNodeCount++;
+        return id;
+    }
+
+    private int emitLogic(Expression<?>[] operands, boolean and) {
+        // AND is decided by the first FALSE operand, OR by the first TRUE one
+        String undecided = and ? "v" : "!v";
+        String decisive = and ? "!v" : "v";
+
+        int id = nextId++;
+        body.append("boolean n").append(id).append(" = false;\n")
+                .append("boolean v").append(id).append(" = ").append(and).append(";\n")
+                .append("boolean u").append(id).append(" = false;\n");
+
+        for (int i = 0; i < operands.length; i++) {
+            if (i > 0) {
+                body.append("if (").append(undecided).append(id).append(") {\n");
+            }
+            int operand = emit(operands[i]);
+            body.append("if (n").append(operand).append(") {\n")
+                    .append("u").append(id).append(" = true;\n")
+                    .append("} else if (").append(decisive).append(operand).append(") {\n")
+                    .append("v").append(id).append(" = ").append(!and).append(";\n")
+                    .append("}\n");
+        }
+        for (int i = 1; i < operands.length; i++) {
+            body.append("}\n");
+        }
+
+        body.append("if (").append(undecided).append(id).append(" && u").append(id).append(") {\n")
+                .append("n").append(id).append(" = true;\n")
+                .append("}\n");
+        compiledNodeCount++;
+        return id;
+    }
+
+    private int emitUnaryPredicate(UniExpression<?> expression) {
+        String result = unaryPredicateResult(expression);
+        if (result == null) {
+            return emitInterpreted(expression);
+        }
+
+        int id = nextId++;
+        declare(id, Representation.BOOLEAN);
+        body.append("{\n");
+        int operand = emit(expression.getOperand());
+        body.append("n").append(id).append(" = ").append(expression instanceof NotPredicate ? "n" + operand : "false")
+                .append(";\n")
+                .append("v").append(id).append(" = ").append(result.replace("#", Integer.toString(operand))).append(";\n")
+                .append("}\n");
+        compiledNodeCount++;
+        return id;
+    }
+
+    private int emitArithmetic(BiExpression<?> expression) {
+        String operation = arithmeticOperation(expression);
+        if (operation == null) {
+            return emitInterpreted(expression);
+        }
+
+        int id = nextId++;
+        declare(id, Representation.of(expression.getType().getTypeFamily()));
+        body.append("{\n");
+        int left = emit(expression.getOperand1());
+        body.append("if (!n").append(left).append(") {\n");
+        int right = emit(expression.getOperand2());
+        body.append("if (!n").append(right).append(") {\n")
+                .append("n").append(id).append(" = false;\n")
+                .append("v").append(id).append(" = ")
+                .append(operation.replace("#1", "v" + left).replace("#2", "v" + right)).append(";\n")
+                .append("}\n")
+                .append("}\n")
+                .append("}\n");
+        compiledNodeCount++;
+        return id;
+    }
+
+    private void declare(int id, Representation representation) {
+        body.append("boolean n").append(id).append(" = true;\n")
+                .append(representation.javaType).append(" v").append(id).append(" = ")
+                .append(representation.defaultValue).append(";\n");
+    }
+
+    private int reference(Object object) {
+        references.add(object);
+        return references.size() - 1;
+    }
+
+    private static String comparisonOperator(ComparisonPredicate expression) {
+        switch (expression.getMode()) {
+            case EQUALS:
+                return "==";
+
+            case NOT_EQUALS:
+                return "!=";
+
+            case GREATER_THAN:
+                return ">";
+
+            case GREATER_THAN_OR_EQUAL:
+                return ">=";
+
+            case LESS_THAN:
+                return "<";
+
+            case LESS_THAN_OR_EQUAL:
+                return "<=";
+
+            default:
+                throw new IllegalStateException("unexpected comparison mode: " + expression.getMode());
+        }
+    }
+
+    /**
+     * Returns the code of the value of a unary predicate, with {@code #}
+     * standing for the operand id, or {@code null} if the predicate has no
+     * translation.
+     */
+    @SuppressWarnings("checkstyle:ReturnCount")
+    private static String unaryPredicateResult(UniExpression<?> expression) {
+        if (expression instanceof NotPredicate) {
+            return "!v#";
+        }
+        if (expression instanceof IsNullPredicate) {
+            return "n#";
+        }
+        if (expression instanceof IsNotNullPredicate) {
+            return "!n#";
+        }
+        if (expression instanceof IsTruePredicate) {
+            return "!n# && v#";
+        }
+        if (expression instanceof IsFalsePredicate) {
+            return "!n# && !v#";
+        }
+        if (expression instanceof IsNotTruePredicate) {
+            return "n# || !v#";
+        }
+        if (expression instanceof IsNotFalsePredicate) {
+            return "n# || v#";
+        }
+        return null;
+    }
+
+    /**
+     * Returns the code of a numeric operation, with {@code #1} and {@code #2}
+     * standing for the operands, or {@code null} if the expression has no
+     * translation. Overflow behaviour of every result type matches the
+     * interpreted functions.
+     */
+    private static String arithmeticOperation(BiExpression<?> expression) {
+        char operator;
+        if (expression instanceof PlusFunction) {
+            operator = '+';
+        } else if (expression instanceof MinusFunction) {
+            operator = '-';
+        } else if (expression instanceof MultiplyFunction) {
+            operator = '*';
+        } else {
+            return null;
+        }
+
+        Representation left = Representation.of(expression.getOperand1().getType().getTypeFamily());
+        Representation right = Representation.of(expression.getOperand2().getType().getTypeFamily());
+        boolean integerOperands = left == Representation.LONG && right == Representation.LONG;
+        boolean numericOperands = (left == Representation.LONG || left == Representation.DOUBLE)
+                && (right == Representation.LONG || right == Representation.DOUBLE);
+
+        switch (expression.getType().getTypeFamily()) {
+            case TINYINT:
+                return integerOperands ? "(byte) (#1 " + operator + " #2)" : null;
+
+            case SMALLINT:
+                return integerOperands ? "(short) (#1 " + operator + " #2)" : null;
+
+            case INTEGER:
+                return integerOperands ? "(int) (#1 " + operator + " #2)" : null;
+
+            case BIGINT:
+                return integerOperands ? CodegenSupport.class.getName() + '.' + exactMethod(operator) + "(#1, #2)" : null;
+
+            case REAL:
+                return numericOperands ? "(double) ((float) #1 " + operator + " (float) #2)" : null;
+
+            case DOUBLE:
+                return numericOperands ? "(double) #1 " + operator + " (double) #2" : null;
+
+            default:
+                // DECIMAL and temporal arithmetic
+                return null;
+        }
+    }
+
+    private static String exactMethod(char operator) {
+        switch (operator) {
+            case '+':
+                return "addExact";
+
+            case '-':
+                return "subtractExact";
+
+            default:
+                return "multiplyExact";
+        }
+    }
+
+    private static String box(QueryDataTypeFamily family, String value) {
+        switch (family) {
+            case TINYINT:
+                return "Byte.valueOf((byte) " + value + ")";
+
+            case SMALLINT:
+                return "Short.valueOf((short) " + value + ")";
+
+            case INTEGER:
+                return "Integer.valueOf((int) " + value + ")";
+
+            case BIGINT:
+                return "Long.valueOf(" + value + ")";
+
+            case REAL:
+                return "Float.valueOf((float) " + value + ")";
+
+            case DOUBLE:
+                return "Double.valueOf(" + value + ")";
+
+            case BOOLEAN:
+                return "Boolean.valueOf(" + value + ")";
+
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * Java representation of the values of a type family in the generated code.
+     */
+    private enum Representation {
+        LONG("long", "0L"),
+        DOUBLE("double", "0.0d"),
+        BOOLEAN("boolean", "false"),
+        OBJECT("Object", "null");
+
+        private final String javaType;
+        private final String defaultValue;
+
+        Representation(String javaType, String defaultValue) {
+            this.javaType = javaType;
+            this.defaultValue = defaultValue;
+        }
+
+        String unbox(String value) {
+            switch (this) {
+                case LONG:
+                    return "((Number) " + value + ").longValue()";
+
+                case DOUBLE:
+                    return "((Number) " + value + ").doubleValue()";
+
+                case BOOLEAN:
+                    return "((Boolean) " + value + ").booleanValue()";
+
+                default:
+                    return value;
+            }
+        }
+
+        /**
+         * Returns the code comparing two values with the semantics of {@link
+         * Comparable#compareTo} of their boxed counterparts.
+         */
+        String compare(String left, String right) {
+            switch (this) {
+                case LONG:
+                    return "Long.compare(" + left + ", " + right + ")";
+
+                case DOUBLE:
+                    return "Double.compare(" + left + ", " + right + ")";
+
+                case BOOLEAN:
+                    return "Boolean.compare(" + left + ", " + right + ")";
+
+                default:
+                    return CodegenSupport.class.getName() + ".compare(" + left + ", " + right + ")";
+            }
+        }
+
+        static Representation of(QueryDataTypeFamily family) {
+            switch (family) {
+                case TINYINT:
+                case SMALLINT:
+                case INTEGER:
+                case BIGINT:
+                    return LONG;
+
+                case REAL:
+                case DOUBLE:
+                    return DOUBLE;
+
+                case BOOLEAN:
+                    return BOOLEAN;
+
+                default:
+                    return OBJECT;
+            }
+        }
+    }
+}
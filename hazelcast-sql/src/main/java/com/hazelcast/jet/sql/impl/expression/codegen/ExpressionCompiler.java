@@ -0,0 +1,113 @@
+/*
+ * Copyright 2021 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.sql.impl.expression.codegen;
+
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+import com.hazelcast.sql.impl.expression.ColumnExpression;
+import com.hazelcast.sql.impl.expression.Expression;
+import org.codehaus.janino.SimpleCompiler;
+
+import javax.annotation.Nonnull;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Compiles expression trees to specialized classes to remove the overhead of
+ * interpreting them node by node: the virtual dispatch per node, the boxing
+ * of intermediate values and the repeated type checks.
+ * <p>
+ * The source is generated by the {@link ExpressionCodeGenerator} and compiled
+ * by Janino. Generated classes are cached by their source, which depends only
+ * on the shape and the types of the tree, so that every execution of a plan,
+ * every processor of a job and every tree differing only in constant values
+ * reuse the same class. If the cache is full, the tree has nothing to compile
+ * or the compilation fails, the tree is interpreted.
+ */
+public final class ExpressionCompiler {
+
+    /** Maximum number of generated classes kept. */
+    static final int MAX_CACHED_CLASSES = 1024;
+
+    private static final ILogger LOGGER = Logger.getLogger(ExpressionCompiler.class);
+
+    private static final ConcurrentMap<String, Optional<Constructor<?>>> CLASSES = new ConcurrentHashMap<>();
+
+    private ExpressionCompiler() {
+    }
+
+    @Nonnull
+    public static CompiledExpression compile(@Nonnull Expression<?> expression) {
+        if (expression instanceof ColumnExpression) {
+            // Nothing to gain, and a top-level OBJECT column is passed through without deserialization
+            return new InterpretedExpression(expression);
+        }
+
+        ExpressionCodeGenerator generator = new ExpressionCodeGenerator();
+        String source = generator.generate(expression);
+
+        if (generator.compiledNodeCount() == 0) {
+            return new InterpretedExpression(expression);
+        }
+
+        Optional<Constructor<?>> constructor = CLASSES.get(source);
+        if (constructor == null) {
+            if (CLASSES.size() >= MAX_CACHED_CLASSES) {
+                return new InterpretedExpression(expression);
+            }
+            constructor = CLASSES.computeIfAbsent(source, ExpressionCompiler::load);
+        }
+
+        if (!constructor.isPresent()) {
+            return new InterpretedExpression(expression);
+        }
+
+        try {
+            return (CompiledExpression) constructor.get().newInstance((Object) generator.references());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to instantiate the compiled expression: " + expression, e);
+        }
+    }
+
+    @Nonnull
+    public static List<CompiledExpression> compile(@Nonnull List<Expression<?>> expressions) {
+        List<CompiledExpression> compiled = new ArrayList<>(expressions.size());
+        for (Expression<?> expression : expressions) {
+            compiled.add(compile(expression));
+        }
+        return compiled;
+    }
+
+    private static Optional<Constructor<?>> load(String source) {
+        try {
+            SimpleCompiler compiler = new SimpleCompiler();
+            compiler.setParentClassLoader(ExpressionCompiler.class.getClassLoader());
+            compiler.cook(source);
+
+            Class<?> clazz = compiler.getClassLoader().loadClass(ExpressionCodeGenerator.CLASS_NAME);
+            return Optional.of(clazz.getConstructor(Object[].class));
+        } catch (Exception e) {
+            LOGGER.warning("Failed to compile an expression, it will be interpreted", e);
+            LOGGER.fine("Expression source:\n" + source);
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2021 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.sql.impl.expression.codegen;
+
+import com.hazelcast.sql.impl.expression.Expression;
+import com.hazelcast.sql.impl.expression.ExpressionEvalContext;
+import com.hazelcast.sql.impl.row.Row;
+
+/**
+ * Adapter evaluating an expression tree without compilation.
+ */
+final class InterpretedExpression implements CompiledExpression {
+
+    private final Expression<?> expression;
+
+    InterpretedExpression(Expression<?> expression) {
+        this.expression = expression;
+    }
+
+    @Override
+    public Object eval(Row row, ExpressionEvalContext context) {
+        return expression.evalTop(row, context);
+    }
+
+    @Override
+    public String toString() {
+        return "InterpretedExpression{expression=" + expression + '}';
+    }
+}
@@ -20,6 +20,7 @@ import com.hazelcast.internal.serialization.Data;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
 import com.hazelcast.jet.sql.SqlTestSupport;
+import com.hazelcast.jet.sql.impl.expression.codegen.ExpressionCompiler;
 import com.hazelcast.sql.impl.row.JetSqlRow;
 import com.hazelcast.sql.impl.expression.ColumnExpression;
 import com.hazelcast.sql.impl.expression.ConstantExpression;
@@ -60,10 +61,10 @@ public class KvRowProjectorTest {
                 new IdentityTarget(),
                 new IdentityTarget(),
                 null,
-                asList(
+                ExpressionCompiler.compile(asList(
                         MultiplyFunction.create(ColumnExpression.create(0, INT), ConstantExpression.create(2, INT), INT),
                         DivideFunction.create(ColumnExpression.create(1, INT), ConstantExpression.create(2, INT), INT)
-                ),
+                )),
                 mock(ExpressionEvalContext.class)
         );
 
@@ -82,10 +83,10 @@ public class KvRowProjectorTest {
                 new GenericQueryTarget(serializationService, null, true),
                 new GenericQueryTarget(serializationService, null, false),
                 null,
-                asList(
+                ExpressionCompiler.compile(asList(
                         MultiplyFunction.create(ColumnExpression.create(0, INT), ConstantExpression.create(2, INT), INT),
                         DivideFunction.create(ColumnExpression.create(1, INT), ConstantExpression.create(2, INT), INT)
-                ),
+                )),
                 SqlTestSupport.createExpressionEvalContext()
         );
 
@@ -102,7 +103,7 @@ public class KvRowProjectorTest {
                 new QueryDataType[]{INT, INT},
                 new IdentityTarget(),
                 new IdentityTarget(),
-                (Expression<Boolean>) ConstantExpression.create(Boolean.FALSE, BOOLEAN),
+                ExpressionCompiler.compile((Expression<Boolean>) ConstantExpression.create(Boolean.FALSE, BOOLEAN)),
                 emptyList(),
                 mock(ExpressionEvalContext.class)
         );
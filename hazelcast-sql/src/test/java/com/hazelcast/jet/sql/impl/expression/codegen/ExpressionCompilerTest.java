@@ -0,0 +1,251 @@
+/*
+ * Copyright 2021 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.sql.impl.expression.codegen;
+
+import com.hazelcast.sql.impl.QueryException;
+import com.hazelcast.sql.impl.expression.ColumnExpression;
+import com.hazelcast.sql.impl.expression.ConstantExpression;
+import com.hazelcast.sql.impl.expression.Expression;
+import com.hazelcast.sql.impl.expression.ExpressionEvalContext;
+import com.hazelcast.sql.impl.expression.ParameterExpression;
+import com.hazelcast.sql.impl.expression.math.AbsFunction;
+import com.hazelcast.sql.impl.expression.math.MinusFunction;
+import com.hazelcast.sql.impl.expression.math.MultiplyFunction;
+import com.hazelcast.sql.impl.expression.math.PlusFunction;
+import com.hazelcast.sql.impl.expression.predicate.AndPredicate;
+import com.hazelcast.sql.impl.expression.predicate.ComparisonMode;
+import com.hazelcast.sql.impl.expression.predicate.ComparisonPredicate;
+import com.hazelcast.sql.impl.expression.predicate.IsFalsePredicate;
+import com.hazelcast.sql.impl.expression.predicate.IsNotFalsePredicate;
+import com.hazelcast.sql.impl.expression.predicate.IsNotNullPredicate;
+import com.hazelcast.sql.impl.expression.predicate.IsNotTruePredicate;
+import com.hazelcast.sql.impl.expression.predicate.IsNullPredicate;
+import com.hazelcast.sql.impl.expression.predicate.IsTruePredicate;
+import com.hazelcast.sql.impl.expression.predicate.NotPredicate;
+import com.hazelcast.sql.impl.expression.predicate.OrPredicate;
+import com.hazelcast.sql.impl.row.HeapRow;
+import com.hazelcast.sql.impl.row.Row;
+import com.hazelcast.sql.impl.type.QueryDataType;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.hazelcast.jet.sql.SqlTestSupport.createExpressionEvalContext;
+import static com.hazelcast.sql.impl.type.QueryDataType.BIGINT;
+import static com.hazelcast.sql.impl.type.QueryDataType.BOOLEAN;
+import static com.hazelcast.sql.impl.type.QueryDataType.DECIMAL;
+import static com.hazelcast.sql.impl.type.QueryDataType.DOUBLE;
+import static com.hazelcast.sql.impl.type.QueryDataType.INT;
+import static com.hazelcast.sql.impl.type.QueryDataType.OBJECT;
+import static com.hazelcast.sql.impl.type.QueryDataType.REAL;
+import static com.hazelcast.sql.impl.type.QueryDataType.SMALLINT;
+import static com.hazelcast.sql.impl.type.QueryDataType.TINYINT;
+import static com.hazelcast.sql.impl.type.QueryDataType.VARCHAR;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class ExpressionCompilerTest extends HazelcastTestSupport {
+
+    private static final int ROW_COUNT = 200;
+
+    private static final int TINYINT_COLUMN = 0;
+    private static final int INT_COLUMN = 1;
+    private static final int BIGINT_COLUMN = 2;
+    private static final int REAL_COLUMN = 3;
+    private static final int DOUBLE_COLUMN = 4;
+    private static final int VARCHAR_COLUMN = 5;
+    private static final int BOOLEAN_COLUMN = 6;
+    private static final int DECIMAL_COLUMN = 7;
+    private static final int OBJECT_COLUMN = 8;
+    private static final int COLUMN_COUNT = 9;
+
+    private final ExpressionEvalContext context = createExpressionEvalContext(10, "m", null);
+    private final List<Row> rows = rows(new Random(42));
+
+    @Test
+    public void test_comparisons() {
+        for (ComparisonMode mode : ComparisonMode.values()) {
+            check(comparison(column(TINYINT_COLUMN, TINYINT), column(TINYINT_COLUMN, TINYINT), mode));
+            check(comparison(column(INT_COLUMN, INT), ParameterExpression.create(0, INT), mode));
+            check(comparison(column(BIGINT_COLUMN, BIGINT), ConstantExpression.create(50L, BIGINT), mode));
+            check(comparison(column(REAL_COLUMN, REAL), ConstantExpression.create(0.5f, REAL), mode));
+            check(comparison(column(DOUBLE_COLUMN, DOUBLE), ConstantExpression.create(-0.0d, DOUBLE), mode));
+            check(comparison(column(VARCHAR_COLUMN, VARCHAR), ParameterExpression.create(1, VARCHAR), mode));
+            check(comparison(column(BOOLEAN_COLUMN, BOOLEAN), ConstantExpression.create(true, BOOLEAN), mode));
+            check(comparison(column(DECIMAL_COLUMN, DECIMAL), ConstantExpression.create(BigDecimal.TEN, DECIMAL), mode));
+            check(comparison(column(INT_COLUMN, INT), ConstantExpression.create(null, INT), mode));
+            check(comparison(column(INT_COLUMN, INT), ParameterExpression.create(2, INT), mode));
+        }
+    }
+
+    @Test
+    public void test_predicates() {
+        Expression<?> intGreater = comparison(column(INT_COLUMN, INT), ParameterExpression.create(0, INT),
+                ComparisonMode.GREATER_THAN);
+        Expression<?> stringLess = comparison(column(VARCHAR_COLUMN, VARCHAR), ConstantExpression.create("f", VARCHAR),
+                ComparisonMode.LESS_THAN);
+        Expression<?> bool = column(BOOLEAN_COLUMN, BOOLEAN);
+
+        check(AndPredicate.create(intGreater, stringLess, bool));
+        check(OrPredicate.create(intGreater, stringLess, bool));
+        check(AndPredicate.create(OrPredicate.create(intGreater, bool), NotPredicate.create(stringLess)));
+        check(NotPredicate.create(bool));
+        check(IsNullPredicate.create(column(BIGINT_COLUMN, BIGINT)));
+        check(IsNotNullPredicate.create(intGreater));
+        check(IsTruePredicate.create(bool));
+        check(IsFalsePredicate.create(bool));
+        check(IsNotTruePredicate.create(bool));
+        check(IsNotFalsePredicate.create(bool));
+    }
+
+    @Test
+    public void test_arithmetic() {
+        Expression<?> tinyint = column(TINYINT_COLUMN, TINYINT);
+        Expression<?> integer = column(INT_COLUMN, INT);
+
+        for (QueryDataType type : asList(TINYINT, SMALLINT, INT, BIGINT, REAL, DOUBLE)) {
+            check(PlusFunction.create(tinyint, integer, type));
+            check(MinusFunction.create(integer, tinyint, type));
+            check(MultiplyFunction.create(integer, integer, type));
+        }
+
+        Expression<?> real = column(REAL_COLUMN, REAL);
+        Expression<?> doubleColumn = column(DOUBLE_COLUMN, DOUBLE);
+        check(PlusFunction.create(real, real, REAL));
+        check(MultiplyFunction.create(real, integer, REAL));
+        check(MinusFunction.create(real, doubleColumn, DOUBLE));
+        check(MultiplyFunction.create(doubleColumn, column(BIGINT_COLUMN, BIGINT), DOUBLE));
+        check(MultiplyFunction.create(column(BIGINT_COLUMN, BIGINT), column(BIGINT_COLUMN, BIGINT), BIGINT));
+    }
+
+    @Test
+    public void test_interpretedNodes() {
+        Expression<?> abs = AbsFunction.create(column(INT_COLUMN, INT), INT);
+        Expression<?> decimalPlus = PlusFunction.create(column(DECIMAL_COLUMN, DECIMAL),
+                column(DECIMAL_COLUMN, DECIMAL), DECIMAL);
+
+        check(comparison(abs, ConstantExpression.create(5, INT), ComparisonMode.LESS_THAN));
+        check(comparison(decimalPlus, ConstantExpression.create(BigDecimal.ONE, DECIMAL), ComparisonMode.GREATER_THAN));
+
+        assertTrue(ExpressionCompiler.compile(abs) instanceof InterpretedExpression);
+        assertTrue(ExpressionCompiler.compile(column(OBJECT_COLUMN, OBJECT)) instanceof InterpretedExpression);
+    }
+
+    @Test
+    public void test_classReusedForDifferentConstants() {
+        CompiledExpression first = ExpressionCompiler.compile(
+                comparison(column(INT_COLUMN, INT), ConstantExpression.create(1, INT), ComparisonMode.EQUALS));
+        CompiledExpression second = ExpressionCompiler.compile(
+                comparison(column(INT_COLUMN, INT), ConstantExpression.create(2, INT), ComparisonMode.EQUALS));
+
+        assertFalse(first instanceof InterpretedExpression);
+        assertSame(first.getClass(), second.getClass());
+        assertEquals(true, first.eval(new HeapRow(new Object[]{null, 1}), context));
+        assertEquals(false, second.eval(new HeapRow(new Object[]{null, 1}), context));
+    }
+
+    @Test
+    public void test_shortCircuitSkipsOverflow() {
+        Expression<?> bigint = column(0, BIGINT);
+        Expression<?> filter = AndPredicate.create(
+                comparison(bigint, ConstantExpression.create(10L, BIGINT), ComparisonMode.LESS_THAN),
+                comparison(PlusFunction.create(bigint, ConstantExpression.create(1L, BIGINT), BIGINT),
+                        ConstantExpression.create(0L, BIGINT), ComparisonMode.GREATER_THAN)
+        );
+        CompiledExpression compiled = ExpressionCompiler.compile(filter);
+
+        assertEquals(false, compiled.eval(new HeapRow(new Object[]{Long.MAX_VALUE}), context));
+        assertEquals(true, compiled.eval(new HeapRow(new Object[]{5L}), context));
+
+        CompiledExpression overflowing = ExpressionCompiler.compile(PlusFunction.create(bigint, bigint, BIGINT));
+        try {
+            overflowing.eval(new HeapRow(new Object[]{Long.MAX_VALUE}), context);
+            fail();
+        } catch (QueryException e) {
+            assertEquals("BIGINT overflow in '+' operator (consider adding explicit CAST to DECIMAL)", e.getMessage());
+        }
+    }
+
+    private void check(Expression<?> expression) {
+        CompiledExpression compiled = ExpressionCompiler.compile(expression);
+        assertFalse(expression.toString(), compiled instanceof InterpretedExpression);
+
+        for (Row row : rows) {
+            Object expected;
+            try {
+                expected = expression.evalTop(row, context);
+            } catch (QueryException e) {
+                expected = e.getMessage();
+            }
+
+            Object actual;
+            try {
+                actual = compiled.eval(row, context);
+            } catch (QueryException e) {
+                actual = e.getMessage();
+            }
+
+            assertEquals(expression.toString(), expected, actual);
+        }
+    }
+
+    private static List<Row> rows(Random random) {
+        List<Row> rows = new ArrayList<>(ROW_COUNT);
+
+        for (int i = 0; i < ROW_COUNT; i++) {
+            Object[] values = new Object[COLUMN_COUNT];
+            values[TINYINT_COLUMN] = nullOr(random, (byte) random.nextInt());
+            values[INT_COLUMN] = nullOr(random, random.nextBoolean() ? random.nextInt() : random.nextInt(41) - 20);
+            values[BIGINT_COLUMN] = nullOr(random, random.nextBoolean() ? random.nextLong() : (long) random.nextInt(100));
+            values[REAL_COLUMN] = nullOr(random, random.nextBoolean() ? random.nextFloat() : Float.NaN);
+            values[DOUBLE_COLUMN] = nullOr(random, random.nextBoolean() ? random.nextGaussian() : 0.0d);
+            values[VARCHAR_COLUMN] = nullOr(random, String.valueOf((char) ('a' + random.nextInt(26))));
+            values[BOOLEAN_COLUMN] = nullOr(random, random.nextBoolean());
+            values[DECIMAL_COLUMN] = nullOr(random, BigDecimal.valueOf(random.nextInt(20)));
+            values[OBJECT_COLUMN] = nullOr(random, asList(i, "object"));
+            rows.add(new HeapRow(values));
+        }
+        return rows;
+    }
+
+    private static Object nullOr(Random random, Object value) {
+        return random.nextInt(10) == 0 ? null : value;
+    }
+
+    private static Expression<?> column(int index, QueryDataType type) {
+        return ColumnExpression.create(index, type);
+    }
+
+    private static Expression<?> comparison(Expression<?> left, Expression<?> right, ComparisonMode mode) {
+        return ComparisonPredicate.create(left, right, mode);
+    }
+}
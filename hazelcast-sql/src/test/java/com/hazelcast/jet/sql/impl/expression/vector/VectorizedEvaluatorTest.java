@@ -0,0 +1,302 @@
+/*
+ * Copyright 2021 Hazelcast Inc.
+ *
+ * Licensed under the Hazelcast Community License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://hazelcast.com/hazelcast-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.sql.impl.expression.vector;
+
+import com.hazelcast.jet.sql.impl.ExpressionUtil;
+import com.hazelcast.sql.impl.QueryException;
+import com.hazelcast.sql.impl.expression.ColumnExpression;
+import com.hazelcast.sql.impl.expression.ConstantExpression;
+import com.hazelcast.sql.impl.expression.Expression;
+import com.hazelcast.sql.impl.expression.ExpressionEvalContext;
+import com.hazelcast.sql.impl.expression.ParameterExpression;
+import com.hazelcast.sql.impl.expression.math.AbsFunction;
+import com.hazelcast.sql.impl.expression.math.MinusFunction;
+import com.hazelcast.sql.impl.expression.math.MultiplyFunction;
+import com.hazelcast.sql.impl.expression.math.PlusFunction;
+import com.hazelcast.sql.impl.expression.predicate.AndPredicate;
+import com.hazelcast.sql.impl.expression.predicate.ComparisonMode;
+import com.hazelcast.sql.impl.expression.predicate.ComparisonPredicate;
+import com.hazelcast.sql.impl.expression.predicate.IsNotNullPredicate;
+import com.hazelcast.sql.impl.expression.predicate.IsNullPredicate;
+import com.hazelcast.sql.impl.expression.predicate.NotPredicate;
+import com.hazelcast.sql.impl.expression.predicate.OrPredicate;
+import com.hazelcast.sql.impl.expression.vector.ColumnBatch;
+import com.hazelcast.sql.impl.expression.vector.VectorizedEvaluator;
+import com.hazelcast.sql.impl.row.HeapRow;
+import com.hazelcast.sql.impl.row.JetSqlRow;
+import com.hazelcast.sql.impl.row.Row;
+import com.hazelcast.sql.impl.type.QueryDataType;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static com.hazelcast.jet.sql.SqlTestSupport.createExpressionEvalContext;
+import static com.hazelcast.sql.impl.type.QueryDataType.BIGINT;
+import static com.hazelcast.sql.impl.type.QueryDataType.BOOLEAN;
+import static com.hazelcast.sql.impl.type.QueryDataType.DECIMAL;
+import static com.hazelcast.sql.impl.type.QueryDataType.DOUBLE;
+import static com.hazelcast.sql.impl.type.QueryDataType.INT;
+import static com.hazelcast.sql.impl.type.QueryDataType.OBJECT;
+import static com.hazelcast.sql.impl.type.QueryDataType.REAL;
+import static com.hazelcast.sql.impl.type.QueryDataType.SMALLINT;
+import static com.hazelcast.sql.impl.type.QueryDataType.TINYINT;
+import static com.hazelcast.sql.impl.type.QueryDataType.VARCHAR;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class VectorizedEvaluatorTest extends HazelcastTestSupport {
+
+    private static final int ROW_COUNT = 300;
+
+    private static final int TINYINT_COLUMN = 0;
+    private static final int INT_COLUMN = 1;
+    private static final int BIGINT_COLUMN = 2;
+    private static final int REAL_COLUMN = 3;
+    private static final int DOUBLE_COLUMN = 4;
+    private static final int VARCHAR_COLUMN = 5;
+    private static final int BOOLEAN_COLUMN = 6;
+    private static final int OBJECT_COLUMN = 7;
+    private static final int COLUMN_COUNT = 8;
+
+    private final ExpressionEvalContext context = createExpressionEvalContext(10, "m");
+
+    @Test
+    public void test_comparisons() {
+        for (ComparisonMode mode : ComparisonMode.values()) {
+            checkFilter(comparison(column(INT_COLUMN, INT), ConstantExpression.create(10, INT), mode));
+            checkFilter(comparison(column(BIGINT_COLUMN, BIGINT), column(BIGINT_COLUMN, BIGINT), mode));
+            checkFilter(comparison(column(REAL_COLUMN, REAL), ConstantExpression.create(0.5f, REAL), mode));
+            checkFilter(comparison(column(DOUBLE_COLUMN, DOUBLE), ConstantExpression.create(-0.0d, DOUBLE), mode));
+            checkFilter(comparison(column(VARCHAR_COLUMN, VARCHAR), ParameterExpression.create(1, VARCHAR), mode));
+            checkFilter(comparison(column(BOOLEAN_COLUMN, BOOLEAN), ConstantExpression.create(true, BOOLEAN), mode));
+        }
+    }
+
+    @Test
+    public void test_logic() {
+        Expression<Boolean> intGreater = comparison(column(INT_COLUMN, INT), ParameterExpression.create(0, INT),
+                ComparisonMode.GREATER_THAN);
+        Expression<Boolean> stringLess = comparison(column(VARCHAR_COLUMN, VARCHAR), ConstantExpression.create("f", VARCHAR),
+                ComparisonMode.LESS_THAN);
+        Expression<Boolean> bool = column(BOOLEAN_COLUMN, BOOLEAN);
+
+        checkFilter(AndPredicate.create(intGreater, stringLess, bool));
+        checkFilter(OrPredicate.create(intGreater, stringLess, bool));
+        checkFilter(NotPredicate.create(OrPredicate.create(intGreater, NotPredicate.create(bool))));
+        checkFilter(AndPredicate.create(IsNullPredicate.create(column(BIGINT_COLUMN, BIGINT)), bool));
+        checkFilter(OrPredicate.create(IsNotNullPredicate.create(column(DOUBLE_COLUMN, DOUBLE)), intGreater));
+        checkFilter(IsNullPredicate.create(intGreater));
+    }
+
+    @Test
+    public void test_arithmetic() {
+        for (QueryDataType type : asList(TINYINT, SMALLINT, INT, BIGINT, REAL, DOUBLE)) {
+            Expression<?> tinyint = column(TINYINT_COLUMN, TINYINT);
+            Expression<?> integer = column(INT_COLUMN, INT);
+
+            checkProjection(PlusFunction.create(tinyint, integer, type));
+            checkProjection(MinusFunction.create(integer, tinyint, type));
+            checkProjection(MultiplyFunction.create(integer, integer, type));
+        }
+
+        Expression<?> real = column(REAL_COLUMN, REAL);
+        Expression<?> doubleColumn = column(DOUBLE_COLUMN, DOUBLE);
+        checkProjection(PlusFunction.create(real, real, REAL));
+        checkProjection(MultiplyFunction.create(real, column(INT_COLUMN, INT), REAL));
+        checkProjection(MinusFunction.create(real, doubleColumn, DOUBLE));
+        checkProjection(MultiplyFunction.create(doubleColumn, column(BIGINT_COLUMN, BIGINT), DOUBLE));
+    }
+
+    @Test
+    public void test_filterAndProjection() {
+        Expression<Boolean> filter = comparison(
+                PlusFunction.create(column(INT_COLUMN, INT), ConstantExpression.create(5, INT), INT),
+                ConstantExpression.create(0, INT),
+                ComparisonMode.GREATER_THAN_OR_EQUAL
+        );
+        List<Expression<?>> projection = asList(
+                column(OBJECT_COLUMN, OBJECT),
+                column(VARCHAR_COLUMN, VARCHAR),
+                MultiplyFunction.create(column(DOUBLE_COLUMN, DOUBLE), ConstantExpression.create(2d, DOUBLE), DOUBLE)
+        );
+
+        check(filter, projection, rows(new Random(42)));
+    }
+
+    @Test
+    public void test_unsupported() {
+        Expression<?> abs = AbsFunction.create(column(INT_COLUMN, INT), INT);
+        Expression<?> decimal = PlusFunction.create(ConstantExpression.create(BigDecimal.ONE, DECIMAL),
+                ConstantExpression.create(BigDecimal.ONE, DECIMAL), DECIMAL);
+
+        assertNull(VectorizedEvaluator.create(null, singletonList(abs), COLUMN_COUNT));
+        assertNull(VectorizedEvaluator.create(null, singletonList(decimal), COLUMN_COUNT));
+        assertNull(VectorizedEvaluator.create(
+                comparison(column(OBJECT_COLUMN, OBJECT), column(OBJECT_COLUMN, OBJECT), ComparisonMode.EQUALS),
+                singletonList(column(INT_COLUMN, INT)),
+                COLUMN_COUNT
+        ));
+        assertNotNull(VectorizedEvaluator.create(null, singletonList(column(OBJECT_COLUMN, OBJECT)), COLUMN_COUNT));
+    }
+
+    @Test
+    public void test_shortCircuitSkipsOverflow() {
+        Expression<?> bigint = column(0, BIGINT);
+        Expression<Boolean> filter = AndPredicate.create(
+                comparison(bigint, ConstantExpression.create(10L, BIGINT), ComparisonMode.LESS_THAN),
+                comparison(PlusFunction.create(bigint, ConstantExpression.create(1L, BIGINT), BIGINT),
+                        ConstantExpression.create(0L, BIGINT), ComparisonMode.GREATER_THAN)
+        );
+        List<Row> rows = asList(new HeapRow(new Object[]{5L}), new HeapRow(new Object[]{Long.MAX_VALUE}));
+
+        assertEquals(1, evaluateVectorized(filter, singletonList(bigint), rows).size());
+
+        Expression<Boolean> overflowing = OrPredicate.create(filter, comparison(
+                PlusFunction.create(bigint, bigint, BIGINT), ConstantExpression.create(0L, BIGINT), ComparisonMode.EQUALS));
+        assertThatThrownBy(() -> evaluateVectorized(overflowing, singletonList(bigint), rows))
+                .isInstanceOf(QueryException.class)
+                .hasMessageContaining("BIGINT overflow in '+' operator");
+    }
+
+    @Test
+    public void test_extractionFailureOfUnaccessedValueIgnored() {
+        Expression<Boolean> filter = OrPredicate.create(
+                comparison(column(0, INT), ConstantExpression.create(0, INT), ComparisonMode.GREATER_THAN),
+                comparison(column(1, INT), ConstantExpression.create(0, INT), ComparisonMode.GREATER_THAN)
+        );
+        List<Expression<?>> projection = singletonList(column(0, INT));
+
+        assertEquals(1, evaluateVectorized(filter, projection, singletonList(new FailingRow(1, 1))).size());
+        assertThatThrownBy(() -> evaluateVectorized(filter, projection, singletonList(new FailingRow(0, 1))))
+                .isInstanceOf(QueryException.class)
+                .hasMessageContaining("column 1");
+    }
+
+    private void checkFilter(Expression<Boolean> filter) {
+        check(filter, asList(column(INT_COLUMN, INT), column(VARCHAR_COLUMN, VARCHAR)), rows(new Random(filter.hashCode())));
+    }
+
+    private void checkProjection(Expression<?> projection) {
+        check(null, singletonList(projection), rows(new Random(projection.hashCode())));
+    }
+
+    private void check(Expression<Boolean> filter, List<Expression<?>> projection, List<Row> rows) {
+        List<JetSqlRow> expected = new ArrayList<>();
+        for (Row row : rows) {
+            JetSqlRow projected = ExpressionUtil.evaluate(filter, projection, row, context);
+            if (projected != null) {
+                expected.add(projected);
+            }
+        }
+
+        assertEquals(expected, evaluateVectorized(filter, projection, rows));
+    }
+
+    private List<JetSqlRow> evaluateVectorized(Expression<Boolean> filter, List<Expression<?>> projection, List<Row> rows) {
+        VectorizedEvaluator evaluator = VectorizedEvaluator.create(filter, projection, COLUMN_COUNT);
+        assertNotNull(evaluator);
+
+        ColumnBatch batch = evaluator.createBatch();
+        List<JetSqlRow> result = new ArrayList<>();
+
+        // two batches to check that the batch is reused correctly
+        int half = rows.size() / 2;
+        for (List<Row> part : asList(rows.subList(0, half), rows.subList(half, rows.size()))) {
+            batch.clear();
+            for (Row row : part) {
+                batch.load(row);
+            }
+            evaluator.evaluate(batch, context, result);
+        }
+        return result;
+    }
+
+    private static List<Row> rows(Random random) {
+        List<Row> rows = new ArrayList<>(ROW_COUNT);
+
+        for (int i = 0; i < ROW_COUNT; i++) {
+            Object[] values = new Object[COLUMN_COUNT];
+            values[TINYINT_COLUMN] = nullOr(random, (byte) random.nextInt());
+            values[INT_COLUMN] = nullOr(random, random.nextInt(41) - 20);
+            values[BIGINT_COLUMN] = nullOr(random, random.nextBoolean() ? random.nextLong() : (long) random.nextInt(100));
+            values[REAL_COLUMN] = nullOr(random, random.nextBoolean() ? random.nextFloat() : Float.NaN);
+            values[DOUBLE_COLUMN] = nullOr(random, random.nextBoolean() ? random.nextGaussian() : 0.0d);
+            values[VARCHAR_COLUMN] = nullOr(random, String.valueOf((char) ('a' + random.nextInt(26))));
+            values[BOOLEAN_COLUMN] = nullOr(random, random.nextBoolean());
+            values[OBJECT_COLUMN] = nullOr(random, Arrays.asList(i, "object"));
+            rows.add(new HeapRow(values));
+        }
+        return rows;
+    }
+
+    private static Object nullOr(Random random, Object value) {
+        return random.nextInt(10) == 0 ? null : value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Expression<T> column(int index, QueryDataType type) {
+        return (Expression<T>) ColumnExpression.create(index, type);
+    }
+
+    private static ComparisonPredicate comparison(Expression<?> left, Expression<?> right, ComparisonMode mode) {
+        return ComparisonPredicate.create(left, right, mode);
+    }
+
+    /**
+     * A row with {@code INT} columns, one of which fails to be extracted.
+     */
+    private static final class FailingRow implements Row {
+
+        private final int value;
+        private final int failingColumn;
+
+        private FailingRow(int value, int failingColumn) {
+            this.value = value;
+            this.failingColumn = failingColumn;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public <T> T get(int index) {
+            if (index == failingColumn) {
+                throw QueryException.error("Cannot extract column " + index);
+            }
+            return (T) (Integer) value;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return 2;
+        }
+    }
+}
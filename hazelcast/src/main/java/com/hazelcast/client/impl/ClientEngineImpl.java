@@ -26,10 +26,12 @@ import com.hazelcast.client.impl.protocol.MessageTaskFactory;
 import com.hazelcast.client.impl.protocol.task.AbstractPartitionMessageTask;
 import com.hazelcast.client.impl.protocol.task.AuthenticationBaseMessageTask;
 import com.hazelcast.client.impl.protocol.task.BlockingMessageTask;
+import com.hazelcast.client.impl.protocol.task.ClientInvocationBatchTask;
 import com.hazelcast.client.impl.protocol.task.MessageTask;
 import com.hazelcast.client.impl.protocol.task.TransactionalMessageTask;
 import com.hazelcast.client.impl.protocol.task.UrgentMessageTask;
 import com.hazelcast.client.impl.protocol.task.map.AbstractMapQueryMessageTask;
+import com.hazelcast.client.impl.protocol.util.ClientInvocationBatchCodec;
 import com.hazelcast.client.impl.statistics.ClientStatistics;
 import com.hazelcast.cluster.Address;
 import com.hazelcast.cluster.Member;
@@ -68,6 +70,7 @@ import javax.security.auth.login.LoginException;
 import java.net.InetSocketAddress;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
@@ -219,7 +222,46 @@ public class ClientEngineImpl implements ClientEngine, CoreService,
 
     public void accept(ClientMessage clientMessage) {
         Connection connection = clientMessage.getConnection();
-        MessageTask messageTask = messageTaskFactory.create(clientMessage, connection);
+        if (clientMessage.getMessageType() == ClientInvocationBatchCodec.REQUEST_MESSAGE_TYPE) {
+            acceptBatch(clientMessage, connection);
+            return;
+        }
+        execute(messageTaskFactory.create(clientMessage, connection));
+    }
+
+    /**
+     * Executes the messages of a batch like separately received messages,
+     * except that the partition messages targeting the same partition are run
+     * by a single {@link ClientInvocationBatchTask}. An empty batch is the
+     * client asking whether batches are supported, it gets an empty response.
+     */
+    private void acceptBatch(ClientMessage batch, Connection connection) {
+        List<ClientMessage> clientMessages = ClientInvocationBatchCodec.decodeRequest(batch);
+        if (clientMessages.isEmpty()) {
+            ClientMessage response = ClientInvocationBatchCodec.encodeResponse();
+            response.setCorrelationId(batch.getCorrelationId());
+            connection.write(response);
+            return;
+        }
+        Map<Integer, ClientInvocationBatchTask> partitionBatches = new HashMap<>();
+        for (ClientMessage clientMessage : clientMessages) {
+            clientMessage.setConnection(connection);
+            MessageTask messageTask = messageTaskFactory.create(clientMessage, connection);
+            if (messageTask instanceof AbstractPartitionMessageTask && !isUrgent(messageTask)) {
+                AbstractPartitionMessageTask partitionTask = (AbstractPartitionMessageTask) messageTask;
+                partitionBatches.computeIfAbsent(partitionTask.getPartitionId(), ClientInvocationBatchTask::new)
+                                .add(partitionTask);
+            } else {
+                execute(messageTask);
+            }
+        }
+        OperationServiceImpl operationService = nodeEngine.getOperationService();
+        for (ClientInvocationBatchTask partitionBatch : partitionBatches.values()) {
+            operationService.execute(partitionBatch);
+        }
+    }
+
+    private void execute(MessageTask messageTask) {
         OperationServiceImpl operationService = nodeEngine.getOperationService();
         if (isUrgent(messageTask)) {
             operationService.execute((UrgentMessageTask) messageTask);
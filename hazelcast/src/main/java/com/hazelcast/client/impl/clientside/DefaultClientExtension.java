@@ -28,6 +28,7 @@ import com.hazelcast.client.map.impl.nearcache.NearCachedClientMapProxy;
 import com.hazelcast.config.InstanceTrackingConfig;
 import com.hazelcast.config.InstanceTrackingConfig.InstanceMode;
 import com.hazelcast.config.InstanceTrackingConfig.InstanceProductName;
+import com.hazelcast.config.NativeMemoryConfig;
 import com.hazelcast.config.NearCacheConfig;
 import com.hazelcast.config.SSLConfig;
 import com.hazelcast.config.SerializationConfig;
@@ -37,6 +38,7 @@ import com.hazelcast.instance.BuildInfo;
 import com.hazelcast.instance.BuildInfoProvider;
 import com.hazelcast.internal.memory.DefaultMemoryStats;
 import com.hazelcast.internal.memory.MemoryStats;
+import com.hazelcast.internal.memory.impl.UnsafeMallocMemoryManager;
 import com.hazelcast.internal.nearcache.NearCacheManager;
 import com.hazelcast.internal.nearcache.impl.DefaultNearCacheManager;
 import com.hazelcast.internal.networking.ChannelInitializer;
@@ -81,10 +83,16 @@ public class DefaultClientExtension implements ClientExtension {
     protected JetClientInstanceImpl jetClient;
 
     private final MemoryStats memoryStats = new DefaultMemoryStats();
+    private UnsafeMallocMemoryManager nearCacheMemoryManager;
 
     @Override
     public void beforeStart(HazelcastClientInstanceImpl client) {
         this.client = client;
+        NativeMemoryConfig nativeMemoryConfig = client.getClientConfig().getNativeMemoryConfig();
+        if (nativeMemoryConfig.isEnabled()) {
+            // shared by the NATIVE Near Caches of all the services
+            this.nearCacheMemoryManager = new UnsafeMallocMemoryManager(nativeMemoryConfig.getSize().bytes());
+        }
     }
 
     @Override
@@ -226,7 +234,7 @@ public class DefaultClientExtension implements ClientExtension {
         ClassLoader classLoader = client.getClientConfig().getClassLoader();
         HazelcastProperties properties = client.getProperties();
 
-        return new DefaultNearCacheManager(ss, taskScheduler, classLoader, properties);
+        return new DefaultNearCacheManager(ss, taskScheduler, classLoader, properties, nearCacheMemoryManager);
     }
 
     @Override
@@ -30,6 +30,9 @@ import static com.hazelcast.internal.util.JVMUtil.upcast;
 public final class ClientMessageReader {
 
     private static final int INT_MASK = 0xffff;
+    // begin, end and null frames carry no content, they all share this array
+    private static final byte[] EMPTY_CONTENT = new byte[0];
+
     private int readOffset = -1;
     private ClientMessage clientMessage;
     private int sumUntrustedMessageLength;
@@ -57,9 +60,15 @@ public final class ClientMessageReader {
         return clientMessage;
     }
 
+    /**
+     * Prepares the reader for the next message. The message read so far is
+     * not touched, it is owned by whoever obtained it from {@link
+     * #getClientMessage()}.
+     */
     public void reset() {
         readOffset = -1;
         clientMessage = null;
+        sumUntrustedMessageLength = 0;
     }
 
     private boolean readFrame(ByteBuffer src, boolean trusted) {
@@ -95,7 +104,7 @@ public final class ClientMessageReader {
             upcast(src).position(src.position() + Bits.SHORT_SIZE_IN_BYTES);
 
             int size = frameLength - SIZE_OF_FRAME_LENGTH_AND_FLAGS;
-            byte[] bytes = new byte[size];
+            byte[] bytes = size == 0 ? EMPTY_CONTENT : new byte[size];
             ClientMessage.Frame frame = new ClientMessage.Frame(bytes, flags);
             if (clientMessage == null) {
                 clientMessage = ClientMessage.createForDecode(frame);
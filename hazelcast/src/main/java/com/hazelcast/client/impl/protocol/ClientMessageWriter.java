@@ -24,11 +24,46 @@ import static com.hazelcast.client.impl.protocol.ClientMessage.IS_FINAL_FLAG;
 import static com.hazelcast.client.impl.protocol.ClientMessage.SIZE_OF_FRAME_LENGTH_AND_FLAGS;
 import static com.hazelcast.internal.util.JVMUtil.upcast;
 
+/**
+ * Writes the frames of a {@link ClientMessage} to a {@link ByteBuffer}.
+ * <p>
+ * If gathering is enabled, the content of a frame that doesn't fit in the
+ * buffer behind its length and flags is not copied into it. Only the length
+ * and flags are written and the content is handed over, see
+ * {@link #takeHandedOverContent()}. The following frames are written by the
+ * next {@link #writeTo(ByteBuffer, ClientMessage)} call.
+ */
 public class ClientMessageWriter {
 
     private transient ClientMessage.Frame currentFrame;
     //-1 means length is not written yet
     private transient int writeOffset = -1;
+    private transient boolean gatheringEnabled;
+    private transient ByteBuffer handedOverContent;
+
+    /**
+     * Enables or disables handing over the content of the frames which
+     * don't fit in the buffer.
+     *
+     * @param enabled {@code true} to enable, {@code false} to disable.
+     */
+    public void setGatheringEnabled(boolean enabled) {
+        this.gatheringEnabled = enabled;
+    }
+
+    /**
+     * Returns the content of the frame handed over by the last
+     * {@link #writeTo(ByteBuffer, ClientMessage)} call. The content must be
+     * written right behind the buffer, before anything else is written.
+     *
+     * @return the content in reading mode or {@code null} if nothing was
+     * handed over.
+     */
+    public ByteBuffer takeHandedOverContent() {
+        ByteBuffer content = handedOverContent;
+        handedOverContent = null;
+        return content;
+    }
 
     public boolean writeTo(ByteBuffer dst, ClientMessage clientMessage) {
         if (currentFrame == null) {
@@ -77,6 +112,13 @@ public class ClientMessageWriter {
             return true;
         }
 
+        if (gatheringEnabled && writeOffset == 0 && frameContentLength > bytesWritable) {
+            // the content is written behind dst, the frame counts as written once the next frame is asked for
+            handedOverContent = ByteBuffer.wrap(frame.content);
+            writeOffset = frameContentLength;
+            return false;
+        }
+
         // the number of bytes that need to be written
         int bytesNeeded = frameContentLength - writeOffset;
 
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.impl.protocol.task;
+
+import com.hazelcast.client.impl.protocol.util.ClientInvocationBatchCodec;
+import com.hazelcast.spi.impl.PartitionSpecificRunnable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the partition message tasks of a {@link ClientInvocationBatchCodec
+ * batch} that target the same partition one after the other on the
+ * partition thread, so they take a single slot in its queue.
+ */
+public class ClientInvocationBatchTask implements PartitionSpecificRunnable {
+
+    private final int partitionId;
+    private final List<AbstractPartitionMessageTask> tasks = new ArrayList<>();
+
+    public ClientInvocationBatchTask(int partitionId) {
+        this.partitionId = partitionId;
+    }
+
+    public void add(AbstractPartitionMessageTask task) {
+        assert task.getPartitionId() == partitionId;
+        tasks.add(task);
+    }
+
+    @Override
+    public int getPartitionId() {
+        return partitionId;
+    }
+
+    @Override
+    public void run() {
+        // each task handles its own failures by responding to its invocation
+        for (AbstractPartitionMessageTask task : tasks) {
+            task.run();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ClientInvocationBatchTask{partitionId=" + partitionId + ", size=" + tasks.size() + '}';
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.impl.protocol.util;
+
+import com.hazelcast.client.impl.protocol.ClientMessage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static com.hazelcast.client.impl.protocol.ClientMessage.BEGIN_FRAME;
+import static com.hazelcast.client.impl.protocol.ClientMessage.END_FRAME;
+import static com.hazelcast.client.impl.protocol.ClientMessage.PARTITION_ID_FIELD_OFFSET;
+import static com.hazelcast.client.impl.protocol.ClientMessage.RESPONSE_BACKUP_ACKS_FIELD_OFFSET;
+import static com.hazelcast.client.impl.protocol.ClientMessage.TYPE_FIELD_OFFSET;
+import static com.hazelcast.client.impl.protocol.ClientMessage.UNFRAGMENTED_MESSAGE;
+import static com.hazelcast.client.impl.protocol.codec.builtin.CodecUtil.nextFrameIsDataStructureEndFrame;
+import static com.hazelcast.client.impl.protocol.codec.builtin.FixedSizeTypesCodec.BYTE_SIZE_IN_BYTES;
+import static com.hazelcast.client.impl.protocol.codec.builtin.FixedSizeTypesCodec.INT_SIZE_IN_BYTES;
+import static com.hazelcast.client.impl.protocol.codec.builtin.FixedSizeTypesCodec.encodeInt;
+
+/**
+ * Carries a batch of complete request messages, each with its own
+ * correlation id. The member handles the requests as if they were received
+ * one by one and responds to each of them; a batch with requests has no
+ * response of its own.
+ * <p>
+ * A batch without requests is answered with an empty response. The client
+ * sends one on each connection and batches only after it got that response;
+ * members which don't know the message answer with an error instead.
+ * <p>
+ * This message is not part of the client protocol definitions, which is
+ * why the codec lives outside of the generated codec package. Its message
+ * type follows the last message of the Client service there and has to be
+ * reserved in the definitions before they use it for anything else.
+ */
+public final class ClientInvocationBatchCodec {
+    //hex: 0x001600
+    public static final int REQUEST_MESSAGE_TYPE = 5632;
+    //hex: 0x001601
+    public static final int RESPONSE_MESSAGE_TYPE = 5633;
+    private static final int REQUEST_INITIAL_FRAME_SIZE = PARTITION_ID_FIELD_OFFSET + INT_SIZE_IN_BYTES;
+    private static final int RESPONSE_INITIAL_FRAME_SIZE = RESPONSE_BACKUP_ACKS_FIELD_OFFSET + BYTE_SIZE_IN_BYTES;
+
+    private ClientInvocationBatchCodec() {
+    }
+
+    /**
+     * Encodes the messages into a batch. The frames of the messages are
+     * shared, but the messages themselves are not modified, so they can be
+     * sent again on their own.
+     */
+    public static ClientMessage encodeRequest(Collection<ClientMessage> messages) {
+        ClientMessage clientMessage = ClientMessage.createForEncode();
+        clientMessage.setRetryable(false);
+        clientMessage.setOperationName("Client.InvocationBatch");
+        ClientMessage.Frame initialFrame = new ClientMessage.Frame(new byte[REQUEST_INITIAL_FRAME_SIZE], UNFRAGMENTED_MESSAGE);
+        encodeInt(initialFrame.content, TYPE_FIELD_OFFSET, REQUEST_MESSAGE_TYPE);
+        encodeInt(initialFrame.content, PARTITION_ID_FIELD_OFFSET, -1);
+        clientMessage.add(initialFrame);
+        clientMessage.add(BEGIN_FRAME.copy());
+        for (ClientMessage message : messages) {
+            clientMessage.add(BEGIN_FRAME.copy());
+            ClientMessage.ForwardFrameIterator iterator = message.frameIterator();
+            while (iterator.hasNext()) {
+                clientMessage.add(iterator.next().copy());
+            }
+            clientMessage.add(END_FRAME.copy());
+        }
+        clientMessage.add(END_FRAME.copy());
+        return clientMessage;
+    }
+
+    /**
+     * Decodes the messages of the batch. The frames of the batch are moved to
+     * the decoded messages, so the batch can't be decoded again.
+     */
+    public static List<ClientMessage> decodeRequest(ClientMessage clientMessage) {
+        ClientMessage.ForwardFrameIterator iterator = clientMessage.frameIterator();
+        //initial frame
+        iterator.next();
+        List<ClientMessage> messages = new ArrayList<>();
+        //begin frame, list
+        iterator.next();
+        while (!nextFrameIsDataStructureEndFrame(iterator)) {
+            //begin frame, message
+            iterator.next();
+            ClientMessage message = ClientMessage.createForEncode();
+            int depth = 0;
+            while (depth > 0 || !nextFrameIsDataStructureEndFrame(iterator)) {
+                ClientMessage.Frame frame = iterator.next();
+                if (frame.isBeginFrame()) {
+                    depth++;
+                } else if (frame.isEndFrame()) {
+                    depth--;
+                }
+                message.add(frame);
+            }
+            //end frame, message
+            iterator.next();
+            messages.add(message);
+        }
+        //end frame, list
+        iterator.next();
+        return messages;
+    }
+
+    public static ClientMessage encodeResponse() {
+        ClientMessage clientMessage = ClientMessage.createForEncode();
+        ClientMessage.Frame initialFrame = new ClientMessage.Frame(new byte[RESPONSE_INITIAL_FRAME_SIZE], UNFRAGMENTED_MESSAGE);
+        encodeInt(initialFrame.content, TYPE_FIELD_OFFSET, RESPONSE_MESSAGE_TYPE);
+        clientMessage.add(initialFrame);
+        return clientMessage;
+    }
+}
@@ -50,7 +50,7 @@ public class ClientMessageDecoder extends InboundHandlerWithCounters<ByteBuffer,
 
     final Long2ObjectHashMap<ClientMessage> builderBySessionIdMap = new Long2ObjectHashMap<>();
     private final Connection connection;
-    private ClientMessageReader activeReader;
+    private final ClientMessageReader activeReader;
 
     private boolean clientIsTrusted;
     private final int maxMessageLength;
@@ -105,7 +105,7 @@ public class ClientMessageDecoder extends InboundHandlerWithCounters<ByteBuffer,
                     }
                 }
 
-                activeReader = new ClientMessageReader(maxMessageLength);
+                activeReader.reset();
             }
 
             return CLEAN;
@@ -18,6 +18,7 @@ package com.hazelcast.client.impl.protocol.util;
 
 import com.hazelcast.client.impl.protocol.ClientMessage;
 import com.hazelcast.client.impl.protocol.ClientMessageWriter;
+import com.hazelcast.internal.networking.GatheringOutboundHandler;
 import com.hazelcast.internal.networking.HandlerStatus;
 import com.hazelcast.internal.networking.OutboundHandler;
 
@@ -31,21 +32,44 @@ import static com.hazelcast.internal.util.JVMUtil.upcast;
 
 /**
  * A {@link OutboundHandler} for the new-client. It writes ClientMessages to the ByteBuffer.
+ *
+ * If gathering is enabled, the content of a frame that doesn't fit in the
+ * {@link ByteBuffer} is not copied into it, but handed over to the pipeline.
  */
-public class ClientMessageEncoder extends OutboundHandler<Supplier<ClientMessage>, ByteBuffer> {
+public class ClientMessageEncoder extends OutboundHandler<Supplier<ClientMessage>, ByteBuffer>
+        implements GatheringOutboundHandler {
 
     private ClientMessage message;
     private final ClientMessageWriter clientMessageWriter = new ClientMessageWriter();
+    private ByteBuffer payload;
 
     @Override
     public void handlerAdded() {
         initDstBuffer();
     }
 
+    @Override
+    public void setGatheringEnabled(boolean enabled) {
+        clientMessageWriter.setGatheringEnabled(enabled);
+    }
+
+    @Override
+    public ByteBuffer payload() {
+        return payload;
+    }
+
     @Override
     public HandlerStatus onWrite() {
         compactOrClear(dst);
         try {
+            if (payload != null) {
+                if (payload.hasRemaining()) {
+                    // the pipeline didn't manage to write the payload yet
+                    return DIRTY;
+                }
+                payload = null;
+            }
+
             for (; ; ) {
                 if (message == null) {
                     message = src.get();
@@ -60,7 +84,9 @@ public class ClientMessageEncoder extends OutboundHandler<Supplier<ClientMessage
                     // message got written, lets see if another message can be written
                     message = null;
                 } else {
-                    // the message didn't get written completely, so we are done.
+                    // the message didn't get written completely, so we are done. If the content of a frame
+                    // got handed over, the pipeline writes it behind dst before the rest of the message
+                    payload = clientMessageWriter.takeHandedOverContent();
                     return DIRTY;
                 }
             }
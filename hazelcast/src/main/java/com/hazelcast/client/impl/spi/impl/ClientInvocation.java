@@ -66,6 +66,7 @@ public class ClientInvocation extends BaseInvocation implements Runnable {
     private final int partitionId;
     private final Connection connection;
     private final long startTimeMillis;
+    private final long startTimeNanos;
     private final long retryPauseMillis;
     private final Object objectName;
     private final boolean isSmartRoutingEnabled;
@@ -104,6 +105,7 @@ public class ClientInvocation extends BaseInvocation implements Runnable {
         this.uuid = uuid;
         this.connection = connection;
         this.startTimeMillis = System.currentTimeMillis();
+        this.startTimeNanos = System.nanoTime();
         this.retryPauseMillis = invocationService.getInvocationRetryPauseMillis();
         this.callIdSequence = invocationService.getCallIdSequence();
         this.clientInvocationFuture = new ClientInvocationFuture(this, clientMessage, logger, callIdSequence);
@@ -287,12 +289,14 @@ public class ClientInvocation extends BaseInvocation implements Runnable {
     protected void complete(Object response) {
         clientInvocationFuture.complete(response);
         invocationService.deRegisterInvocation(clientMessage.getCorrelationId());
+        invocationService.recordLatency(startTimeNanos);
     }
 
     @Override
     protected void completeExceptionally(Throwable t) {
         clientInvocationFuture.completeExceptionally(t);
         invocationService.deRegisterInvocation(clientMessage.getCorrelationId());
+        invocationService.recordLatency(startTimeNanos);
     }
 
     protected boolean shouldFailOnIndeterminateOperationState() {
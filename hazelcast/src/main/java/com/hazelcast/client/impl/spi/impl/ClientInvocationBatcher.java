@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.impl.spi.impl;
+
+import com.hazelcast.client.impl.connection.ClientConnection;
+import com.hazelcast.client.impl.protocol.ClientMessage;
+import com.hazelcast.client.impl.protocol.util.ClientInvocationBatchCodec;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.spi.impl.executionservice.TaskScheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Coalesces the invocations sent to the same connection within a short delay
+ * into a single {@link ClientInvocationBatchCodec batch} message.
+ * <p>
+ * The first invocation added to an empty batch schedules its flush after the
+ * delay; a batch that reaches the maximum size is flushed by the thread
+ * adding the last invocation.
+ * <p>
+ * Batches are only sent to members which confirmed that they support them.
+ * The first invocation for a connection sends an empty batch to the member,
+ * which answers it if it supports batches and fails it otherwise. Until the
+ * member answers, and for good if it fails the empty batch, the invocations
+ * are written one by one.
+ */
+class ClientInvocationBatcher {
+
+    private final ConcurrentMap<ClientConnection, Batch> batches = new ConcurrentHashMap<>();
+    private final ClientInvocationServiceImpl invocationService;
+    private final TaskScheduler scheduler;
+    private final ILogger logger;
+    private final long delayNanos;
+    private final int maxSize;
+
+    ClientInvocationBatcher(ClientInvocationServiceImpl invocationService, TaskScheduler scheduler,
+                            long delayNanos, int maxSize) {
+        this.invocationService = invocationService;
+        this.scheduler = scheduler;
+        this.delayNanos = delayNanos;
+        this.maxSize = maxSize;
+        this.logger = invocationService.client.getLoggingService().getLogger(ClientInvocationBatcher.class);
+    }
+
+    void add(ClientInvocation invocation, ClientConnection connection) {
+        Batch batch = batches.computeIfAbsent(connection, Batch::new);
+        if (batch.isSupported()) {
+            batch.add(invocation);
+        } else {
+            invocationService.onWrite(invocation, connection, connection.write(invocation.getClientMessage()));
+        }
+    }
+
+    void onConnectionClose(ClientConnection connection) {
+        Batch batch = batches.remove(connection);
+        if (batch != null) {
+            batch.flush();
+        }
+    }
+
+    private enum Support {
+        UNKNOWN, PROBING, SUPPORTED, UNSUPPORTED
+    }
+
+    private final class Batch implements Runnable {
+        private final ClientConnection connection;
+        private final AtomicReference<Support> support = new AtomicReference<>(Support.UNKNOWN);
+        private List<ClientInvocation> invocations = new ArrayList<>();
+
+        private Batch(ClientConnection connection) {
+            this.connection = connection;
+        }
+
+        boolean isSupported() {
+            Support current = support.get();
+            if (current == Support.UNKNOWN && support.compareAndSet(Support.UNKNOWN, Support.PROBING)) {
+                probe();
+                current = support.get();
+            }
+            return current == Support.SUPPORTED;
+        }
+
+        private void probe() {
+            ClientMessage request = ClientInvocationBatchCodec.encodeRequest(Collections.emptyList());
+            new ClientInvocation(invocationService.client, request, null, connection).invoke()
+                    .whenComplete((response, t) -> {
+                        if (t != null && logger.isFineEnabled()) {
+                            logger.fine("Not batching invocations sent to " + connection.getRemoteAddress(), t);
+                        }
+                        support.set(t == null ? Support.SUPPORTED : Support.UNSUPPORTED);
+                    });
+        }
+
+        void add(ClientInvocation invocation) {
+            List<ClientInvocation> full = null;
+            synchronized (this) {
+                invocations.add(invocation);
+                if (invocations.size() >= maxSize) {
+                    full = invocations;
+                    invocations = new ArrayList<>();
+                } else if (invocations.size() == 1) {
+                    scheduler.schedule(this, delayNanos, NANOSECONDS);
+                }
+            }
+            if (full != null) {
+                write(full);
+            }
+        }
+
+        @Override
+        public void run() {
+            flush();
+        }
+
+        void flush() {
+            List<ClientInvocation> pending;
+            synchronized (this) {
+                if (invocations.isEmpty()) {
+                    return;
+                }
+                pending = invocations;
+                invocations = new ArrayList<>();
+            }
+            write(pending);
+        }
+
+        private void write(List<ClientInvocation> pending) {
+            if (pending.size() == 1) {
+                ClientInvocation invocation = pending.get(0);
+                invocationService.onWrite(invocation, connection, connection.write(invocation.getClientMessage()));
+                return;
+            }
+
+            List<ClientMessage> messages = new ArrayList<>(pending.size());
+            for (ClientInvocation invocation : pending) {
+                messages.add(invocation.getClientMessage());
+            }
+            boolean written = connection.write(ClientInvocationBatchCodec.encodeRequest(messages));
+            if (!written && !connection.isAlive()) {
+                // the batch may have been created after the connection got closed
+                batches.remove(connection, this);
+            }
+            for (ClientInvocation invocation : pending) {
+                invocationService.onWrite(invocation, connection, written);
+            }
+        }
+    }
+}
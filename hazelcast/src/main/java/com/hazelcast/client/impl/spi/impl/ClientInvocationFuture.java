@@ -39,6 +39,9 @@ import static com.hazelcast.spi.impl.operationservice.impl.InvocationFuture.retu
 
 public class ClientInvocationFuture extends AbstractInvocationFuture<ClientMessage> {
 
+    // set while the response fast path completes invocations on an IO thread
+    private static final ThreadLocal<Executor> IO_THREAD_OFFLOAD_EXECUTOR = new ThreadLocal<>();
+
     private final ClientMessage request;
     private final ClientInvocation invocation;
     private final CallIdSequence callIdSequence;
@@ -53,6 +56,25 @@ public class ClientInvocationFuture extends AbstractInvocationFuture<ClientMessa
         this.callIdSequence = callIdSequence;
     }
 
+    /**
+     * Runs the given action, which completes invocations on an IO thread.
+     * The dependent actions of these completions which would run on the
+     * IO thread run on the given executor instead.
+     */
+    static void runOnIoThread(Executor offloadExecutor, Runnable action) {
+        IO_THREAD_OFFLOAD_EXECUTOR.set(offloadExecutor);
+        try {
+            action.run();
+        } finally {
+            IO_THREAD_OFFLOAD_EXECUTOR.remove();
+        }
+    }
+
+    @Override
+    protected Executor completingThreadOffloadExecutor() {
+        return IO_THREAD_OFFLOAD_EXECUTOR.get();
+    }
+
     @Override
     protected String invocationToString() {
         return request.toString();
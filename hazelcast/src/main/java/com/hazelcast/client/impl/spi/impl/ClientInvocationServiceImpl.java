@@ -26,7 +26,11 @@ import com.hazelcast.client.impl.spi.ClientInvocationService;
 import com.hazelcast.client.impl.spi.ClientListenerService;
 import com.hazelcast.client.impl.spi.ClientPartitionService;
 import com.hazelcast.client.impl.spi.EventHandler;
+import com.hazelcast.internal.metrics.DynamicMetricsProvider;
+import com.hazelcast.internal.metrics.MetricDescriptor;
+import com.hazelcast.internal.metrics.MetricsCollectionContext;
 import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.LatencyDistribution;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.spi.exception.TargetDisconnectedException;
 import com.hazelcast.spi.impl.executionservice.TaskScheduler;
@@ -43,18 +47,30 @@ import java.util.function.Consumer;
 
 import static com.hazelcast.client.properties.ClientProperty.BACKPRESSURE_BACKOFF_TIMEOUT_MILLIS;
 import static com.hazelcast.client.properties.ClientProperty.FAIL_ON_INDETERMINATE_OPERATION_STATE;
+import static com.hazelcast.client.properties.ClientProperty.INVOCATION_BATCHING_DELAY_MICROS;
+import static com.hazelcast.client.properties.ClientProperty.INVOCATION_BATCHING_MAX_SIZE;
+import static com.hazelcast.client.properties.ClientProperty.INVOCATION_LATENCY_METRICS_ENABLED;
 import static com.hazelcast.client.properties.ClientProperty.INVOCATION_RETRY_PAUSE_MILLIS;
 import static com.hazelcast.client.properties.ClientProperty.INVOCATION_TIMEOUT_SECONDS;
 import static com.hazelcast.client.properties.ClientProperty.MAX_CONCURRENT_INVOCATIONS;
 import static com.hazelcast.client.properties.ClientProperty.OPERATION_BACKUP_TIMEOUT_MILLIS;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.CLIENT_DISCRIMINATOR_INVOCATIONS_LATENCY_BUCKET;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.CLIENT_METRIC_INVOCATIONS_LATENCY_COUNT;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.CLIENT_METRIC_INVOCATIONS_LATENCY_MAX;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.CLIENT_METRIC_INVOCATIONS_LATENCY_TOTAL;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.CLIENT_METRIC_INVOCATIONS_MAX_CURRENT_INVOCATIONS;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.CLIENT_METRIC_INVOCATIONS_PENDING_CALLS;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.CLIENT_METRIC_INVOCATIONS_STARTED_INVOCATIONS;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.CLIENT_PREFIX_INVOCATIONS;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.CLIENT_PREFIX_INVOCATIONS_LATENCY;
+import static com.hazelcast.internal.metrics.ProbeLevel.INFO;
 import static com.hazelcast.internal.metrics.ProbeLevel.MANDATORY;
+import static com.hazelcast.internal.metrics.ProbeUnit.COUNT;
+import static com.hazelcast.internal.metrics.ProbeUnit.US;
+import static com.hazelcast.internal.util.LatencyDistribution.LATENCY_KEYS;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
-public class ClientInvocationServiceImpl implements ClientInvocationService {
+public class ClientInvocationServiceImpl implements ClientInvocationService, DynamicMetricsProvider {
 
     private static final ListenerMessageCodec BACKUP_LISTENER = new ListenerMessageCodec() {
         @Override
@@ -97,6 +113,9 @@ public class ClientInvocationServiceImpl implements ClientInvocationService {
     private final ClientConnectionManager connectionManager;
     private final ClientPartitionService partitionService;
     private final boolean isSmartRoutingEnabled;
+    private final ClientInvocationBatcher batcher;
+    // null if the latency metrics are disabled
+    private final LatencyDistribution invocationLatency;
 
     public ClientInvocationServiceImpl(HazelcastClientInstanceImpl client) {
         this.client = client;
@@ -117,6 +136,20 @@ public class ClientInvocationServiceImpl implements ClientInvocationService {
         this.isBackupAckToClientEnabled = isSmartRoutingEnabled && client.getClientConfig().isBackupAckToClientEnabled();
         this.connectionManager = client.getConnectionManager();
         this.partitionService = client.getClientPartitionService();
+        this.batcher = createBatcher(properties);
+        this.invocationLatency = properties.getBoolean(INVOCATION_LATENCY_METRICS_ENABLED) ? new LatencyDistribution() : null;
+        if (invocationLatency != null) {
+            client.getMetricsRegistry().registerDynamicMetricsProvider(this);
+        }
+    }
+
+    private ClientInvocationBatcher createBatcher(HazelcastProperties properties) {
+        long batchingDelayNanos = properties.getNanos(INVOCATION_BATCHING_DELAY_MICROS);
+        int batchingMaxSize = properties.getInteger(INVOCATION_BATCHING_MAX_SIZE);
+        if (batchingDelayNanos <= 0 || batchingMaxSize <= 1) {
+            return null;
+        }
+        return new ClientInvocationBatcher(this, client.getTaskScheduler(), batchingDelayNanos, batchingMaxSize);
     }
 
     private long initInvocationRetryPauseMillis() {
@@ -137,6 +170,28 @@ public class ClientInvocationServiceImpl implements ClientInvocationService {
         return callIdSequence.getMaxConcurrentInvocations();
     }
 
+    void recordLatency(long startTimeNanos) {
+        if (invocationLatency != null) {
+            invocationLatency.done(startTimeNanos);
+        }
+    }
+
+    @Override
+    public void provideDynamicMetrics(MetricDescriptor descriptor, MetricsCollectionContext context) {
+        MetricDescriptor latencyDescriptor = descriptor.withPrefix(CLIENT_PREFIX_INVOCATIONS_LATENCY);
+        context.collect(latencyDescriptor.copy(), CLIENT_METRIC_INVOCATIONS_LATENCY_COUNT, INFO, COUNT,
+                invocationLatency.count());
+        context.collect(latencyDescriptor.copy(), CLIENT_METRIC_INVOCATIONS_LATENCY_TOTAL, INFO, US,
+                invocationLatency.totalMicros());
+        context.collect(latencyDescriptor.copy(), CLIENT_METRIC_INVOCATIONS_LATENCY_MAX, INFO, US,
+                invocationLatency.maxMicros());
+        for (int k = 0; k < invocationLatency.bucketCount(); k++) {
+            context.collect(latencyDescriptor.copy()
+                            .withDiscriminator(CLIENT_DISCRIMINATOR_INVOCATIONS_LATENCY_BUCKET, LATENCY_KEYS[k]),
+                    CLIENT_METRIC_INVOCATIONS_LATENCY_COUNT, INFO, COUNT, invocationLatency.bucket(k));
+        }
+    }
+
     public long getInvocationTimeoutMillis() {
         return invocationTimeoutMillis;
     }
@@ -215,6 +270,9 @@ public class ClientInvocationServiceImpl implements ClientInvocationService {
 
     @Override
     public void onConnectionClose(ClientConnection connection) {
+        if (batcher != null) {
+            batcher.onConnectionClose(connection);
+        }
         for (ClientInvocation invocation : invocations.values()) {
             if (invocation.getPermissionToNotifyForDeadConnection(connection)) {
                 Exception ex = new TargetDisconnectedException(connection.getCloseReason(), connection.getCloseCause());
@@ -244,17 +302,30 @@ public class ClientInvocationServiceImpl implements ClientInvocationService {
         //Connection could be closed. From this point on, we need to reacquire the permission to notify if needed.
         invocation.setSentConnection(connection);
 
-        if (!connection.write(clientMessage)) {
+        if (batcher != null && isBatchable(invocation)) {
+            batcher.add(invocation, connection);
+        } else {
+            onWrite(invocation, connection, connection.write(clientMessage));
+        }
+
+        return true;
+    }
+
+    // only partition-bound invocations are batched, others may be urgent or long-running
+    private static boolean isBatchable(ClientInvocation invocation) {
+        return invocation.getClientMessage().getPartitionId() != -1 && invocation.getEventHandler() == null;
+    }
+
+    void onWrite(ClientInvocation invocation, ClientConnection connection, boolean written) {
+        if (!written) {
             if (invocation.getPermissionToNotifyForDeadConnection(connection)) {
                 IOException exception = new IOException("Packet not sent to " + connection.getRemoteAddress() + " "
-                        + clientMessage);
+                        + invocation.getClientMessage());
                 invocation.notifyExceptionWithOwnedPermission(exception);
             }
         } else {
             invocation.invoked();
         }
-
-        return true;
     }
 
     // package-visible for tests
@@ -20,6 +20,7 @@ import com.hazelcast.client.impl.clientside.HazelcastClientInstanceImpl;
 import com.hazelcast.client.impl.protocol.ClientMessage;
 import com.hazelcast.client.impl.spi.impl.listener.ClientListenerServiceImpl;
 import com.hazelcast.internal.util.ConcurrencyDetection;
+import com.hazelcast.internal.util.ConcurrencyUtil;
 import com.hazelcast.internal.util.MutableInteger;
 import com.hazelcast.internal.util.ThreadAffinity;
 import com.hazelcast.internal.util.concurrent.MPSCQueue;
@@ -35,6 +36,7 @@ import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import static com.hazelcast.client.impl.protocol.codec.builtin.ErrorsCodec.EXCEPTION_MESSAGE_TYPE;
+import static com.hazelcast.client.properties.ClientProperty.RESPONSE_FAST_PATH_ENABLED;
 import static com.hazelcast.client.properties.ClientProperty.RESPONSE_THREAD_COUNT;
 import static com.hazelcast.client.properties.ClientProperty.RESPONSE_THREAD_DYNAMIC;
 import static com.hazelcast.instance.impl.OutOfMemoryErrorDispatcher.onOutOfMemory;
@@ -54,6 +56,10 @@ import static com.hazelcast.spi.impl.operationservice.impl.InboundResponseHandle
  * <li>a multi threaded ClientResponseHandler that offloads the response processing
  * to a pool of ResponseThreads.</li>
  * </ol>
+ * The offloading handlers can be wrapped by a handler that completes the
+ * invocations on the IO thread and passes the callbacks which would run on it
+ * to the default async executor; it hands only the backup events over to the
+ * wrapped handler.
  * <p>
  * {@see InboundResponseHandlerSupplier}.
  */
@@ -106,6 +112,9 @@ public class ClientResponseHandlerSupplier implements Supplier<Consumer<ClientMe
 
         if (responseThreadCount == 0) {
             this.responseHandler = new SyncResponseHandler();
+        } else if (properties.getBoolean(RESPONSE_FAST_PATH_ENABLED)) {
+            this.responseHandler = new FastPathResponseHandler(
+                    responseThreadsDynamic ? new DynamicResponseHandler() : new AsyncResponseHandler());
         } else if (responseThreadsDynamic) {
             this.responseHandler = new DynamicResponseHandler();
         } else {
@@ -160,8 +169,12 @@ public class ClientResponseHandlerSupplier implements Supplier<Consumer<ClientMe
             return;
         }
 
+        notify(invocation, message);
+    }
+
+    private void notify(ClientInvocation invocation, ClientMessage message) {
         if (EXCEPTION_MESSAGE_TYPE == message.getMessageType()) {
-            invocation.notifyException(correlationId , client.getClientExceptionFactory().createException(message));
+            invocation.notifyException(message.getCorrelationId(), client.getClientExceptionFactory().createException(message));
         } else {
             invocation.notify(message);
         }
@@ -238,6 +251,35 @@ public class ClientResponseHandlerSupplier implements Supplier<Consumer<ClientMe
         }
     }
 
+    // processes the response on the io thread, the callbacks which would run on
+    // the io thread when the invocation future completes are offloaded to the
+    // default async executor. Backup events are offloaded to the given handler.
+    class FastPathResponseHandler implements Consumer<ClientMessage> {
+        private final Consumer<ClientMessage> offloadingHandler;
+
+        FastPathResponseHandler(Consumer<ClientMessage> offloadingHandler) {
+            this.offloadingHandler = offloadingHandler;
+        }
+
+        @Override
+        public void accept(ClientMessage message) {
+            if (!ClientMessage.isFlagSet(message.getHeaderFlags(), ClientMessage.BACKUP_EVENT_FLAG)) {
+                ClientInvocation invocation = invocationService.getInvocation(message.getCorrelationId());
+                if (invocation != null) {
+                    try {
+                        ClientInvocationFuture.runOnIoThread(ConcurrencyUtil.getDefaultAsyncExecutor(),
+                                () -> ClientResponseHandlerSupplier.this.notify(invocation, message));
+                    } catch (Exception e) {
+                        logger.severe("Failed to process response: " + message
+                                + " on IO thread: " + Thread.currentThread().getName(), e);
+                    }
+                    return;
+                }
+            }
+            offloadingHandler.accept(message);
+        }
+    }
+
     // dynamically switches between direct processing on io thread and processing on
 // response thread based on if concurrency is detected
     class DynamicResponseHandler implements Consumer<ClientMessage> {
@@ -21,6 +21,7 @@ import com.hazelcast.config.MetricsJmxConfig;
 import com.hazelcast.core.IndeterminateOperationStateException;
 import com.hazelcast.spi.properties.HazelcastProperty;
 
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -82,6 +83,29 @@ public final class ClientProperty {
     public static final HazelcastProperty INVOCATION_RETRY_PAUSE_MILLIS
             = new HazelcastProperty("hazelcast.client.invocation.retry.pause.millis", 1000, MILLISECONDS);
 
+    /**
+     * The time in microseconds partition-bound invocations (like {@code IMap.get},
+     * {@code put} or {@code set}) wait to be sent together with other invocations to the
+     * same member, as a single message. It trades a bit of latency for fewer messages,
+     * packets and syscalls when many threads invoke concurrently.
+     * <p>
+     * Invocations are batched only for the members which confirmed that they
+     * support it when the client connected to them. The invocations sent to
+     * other members are sent one by one.
+     * <p>
+     * The default value is 0, which disables batching.
+     */
+    public static final HazelcastProperty INVOCATION_BATCHING_DELAY_MICROS
+            = new HazelcastProperty("hazelcast.client.invocation.batching.delay.micros", 0, MICROSECONDS);
+
+    /**
+     * The maximum number of invocations sent in a single batch, see
+     * {@link #INVOCATION_BATCHING_DELAY_MICROS}. A batch that reaches this size is
+     * sent right away.
+     */
+    public static final HazelcastProperty INVOCATION_BATCHING_MAX_SIZE
+            = new HazelcastProperty("hazelcast.client.invocation.batching.max.size", 64);
+
     /**
      * The maximum number of concurrent invocations allowed.
      * <p>
@@ -157,6 +181,17 @@ public final class ClientProperty {
     public static final HazelcastProperty IO_WRITE_THROUGH_ENABLED
             = new HazelcastProperty("hazelcast.client.io.write.through", true);
 
+    /**
+     * Optimization that lets the frames of client messages which don't fit in
+     * the socket send buffer be written to the socket straight from the frame
+     * content using a gathering write, instead of being copied through the
+     * send buffer. Has no effect on TLS connections.
+     * <p>
+     * It is disabled by default.
+     */
+    public static final HazelcastProperty IO_WRITE_GATHERING_ENABLED
+            = new HazelcastProperty("hazelcast.client.io.write.gathering", false);
+
     /**
      * Property needed for concurrency detection so that write through and dynamic response handling
      * can be done correctly. This property sets the window the concurrency detection will signalling
@@ -201,6 +236,36 @@ public final class ClientProperty {
     public static final HazelcastProperty RESPONSE_THREAD_DYNAMIC
             = new HazelcastProperty("hazelcast.client.response.thread.dynamic", true);
 
+    /**
+     * Enables completing the invocation futures directly on the IO threads,
+     * without running any callback on them.
+     * <p>
+     * The future of every response is completed on the IO thread that read
+     * the response. Threads blocked on the future are woken up from there. The
+     * callbacks that would run on the completing thread are passed to the
+     * default async executor at the moment of completion, and the callbacks
+     * registered after it run on the thread registering them. Backup
+     * acknowledgements are handed over to the response threads as usual. This
+     * removes a thread hop from the latency of blocking calls, while user
+     * callbacks and internal callbacks never delay the IO threads.
+     * <p>
+     * Has no effect when {@link #RESPONSE_THREAD_COUNT} is 0, since then all
+     * the responses are already handled on the IO threads.
+     */
+    public static final HazelcastProperty RESPONSE_FAST_PATH_ENABLED
+            = new HazelcastProperty("hazelcast.client.response.fastpath.enabled", false);
+
+    /**
+     * Enables the {@code invocations.latency} metrics: a distribution of the
+     * time between starting an invocation and completing its future, in
+     * power of two microsecond buckets.
+     * <p>
+     * Disabled by default, since recording the latency of every invocation
+     * adds contended updates on shared counters.
+     */
+    public static final HazelcastProperty INVOCATION_LATENCY_METRICS_ENABLED
+            = new HazelcastProperty("hazelcast.client.invocation.latency.metrics.enabled", false);
+
     /**
      * Token to use when discovering cluster via hazelcast.cloud
      */
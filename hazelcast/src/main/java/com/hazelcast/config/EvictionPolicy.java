@@ -35,7 +35,16 @@ public enum EvictionPolicy {
     /**
      * Randomly
      */
-    RANDOM(3);
+    RANDOM(3),
+    /**
+     * TinyLFU: entries are evicted by their access frequency which is
+     * estimated by a compact sketch that decays over time, entries with
+     * equal frequencies are evicted in LRU order. Unlike {@link #LFU}, the
+     * frequency is not stored in the entries and it is remembered for
+     * evicted entries, so a scan over rarely used keys does not evict the
+     * frequently used ones.
+     */
+    TINY_LFU(4);
 
     private static final EvictionPolicy[] VALUES = values();
 
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal.persistence;
+
+import com.hazelcast.cp.CPMember;
+import com.hazelcast.cp.internal.RaftGroupId;
+import com.hazelcast.internal.nio.BufferObjectDataInput;
+import com.hazelcast.internal.nio.BufferObjectDataOutput;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.readFile;
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.writeFileAtomically;
+
+/**
+ * Keeps the CP identity of the local member, the active CP members and the
+ * METADATA group id in files of a directory. Each of them is replaced
+ * atomically on update.
+ */
+public class OnDiskCPMetadataStore implements CPMetadataStore {
+
+    static final String CP_MEMBER_FILE = "cp-member";
+    static final String AP_MEMBER_FILE = "ap-member";
+    static final String ACTIVE_MEMBERS_FILE = "active-members";
+    static final String METADATA_GROUP_ID_FILE = "metadata-group-id";
+
+    private final File dir;
+    private final InternalSerializationService serializationService;
+
+    public OnDiskCPMetadataStore(@Nonnull File dir, @Nonnull InternalSerializationService serializationService) {
+        this.dir = dir;
+        this.serializationService = serializationService;
+    }
+
+    @Override
+    public boolean isMarkedAPMember() {
+        return new File(dir, AP_MEMBER_FILE).exists();
+    }
+
+    @Override
+    public synchronized boolean tryMarkAPMember() throws IOException {
+        if (containsLocalMemberFile()) {
+            return false;
+        }
+        if (!isMarkedAPMember()) {
+            writeFileAtomically(dir, AP_MEMBER_FILE, new byte[0]);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean containsLocalMemberFile() {
+        return new File(dir, CP_MEMBER_FILE).exists();
+    }
+
+    @Override
+    public synchronized void persistLocalCPMember(CPMember member) throws IOException {
+        if (isMarkedAPMember()) {
+            throw new IllegalStateException("Local member is already marked as AP member in " + dir);
+        }
+        writeObject(CP_MEMBER_FILE, member);
+    }
+
+    @Override
+    public CPMember readLocalCPMember() throws IOException {
+        return readObject(CP_MEMBER_FILE);
+    }
+
+    @Override
+    public void persistActiveCPMembers(Collection<? extends CPMember> members, long commitIndex) throws IOException {
+        BufferObjectDataOutput out = serializationService.createObjectDataOutput();
+        out.writeLong(commitIndex);
+        out.writeInt(members.size());
+        for (CPMember member : members) {
+            out.writeObject(member);
+        }
+        writeFileAtomically(dir, ACTIVE_MEMBERS_FILE, out.toByteArray());
+    }
+
+    @Override
+    public long readActiveCPMembers(Collection<CPMember> members) throws IOException {
+        byte[] payload = readFile(dir, ACTIVE_MEMBERS_FILE);
+        if (payload == null) {
+            return 0;
+        }
+        BufferObjectDataInput in = serializationService.createObjectDataInput(payload);
+        long commitIndex = in.readLong();
+        int memberCount = in.readInt();
+        for (int i = 0; i < memberCount; i++) {
+            members.add(in.readObject());
+        }
+        return commitIndex;
+    }
+
+    @Override
+    public void persistMetadataGroupId(RaftGroupId groupId) throws IOException {
+        writeObject(METADATA_GROUP_ID_FILE, groupId);
+    }
+
+    @Override
+    public RaftGroupId readMetadataGroupId() throws IOException {
+        return readObject(METADATA_GROUP_ID_FILE);
+    }
+
+    private void writeObject(String fileName, Object object) throws IOException {
+        BufferObjectDataOutput out = serializationService.createObjectDataOutput();
+        out.writeObject(object);
+        writeFileAtomically(dir, fileName, out.toByteArray());
+    }
+
+    private <T> T readObject(String fileName) throws IOException {
+        byte[] payload = readFile(dir, fileName);
+        return payload != null ? serializationService.createObjectDataInput(payload).readObject() : null;
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal.persistence;
+
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.cp.CPMember;
+import com.hazelcast.cp.internal.CPMemberInfo;
+import com.hazelcast.cp.internal.MetadataRaftGroupManager;
+import com.hazelcast.cp.internal.RaftGroupId;
+import com.hazelcast.cp.internal.RaftService;
+import com.hazelcast.cp.internal.raft.impl.persistence.LogFileStructure;
+import com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateLoader;
+import com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateStore;
+import com.hazelcast.cp.internal.raft.impl.persistence.RaftStateStore;
+import com.hazelcast.cp.internal.raft.impl.persistence.RestoredRaftState;
+import com.hazelcast.instance.impl.Node;
+import com.hazelcast.internal.nio.BufferObjectDataOutput;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.util.DirectoryLock;
+import com.hazelcast.internal.util.UuidUtil;
+import com.hazelcast.logging.ILogger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.readFile;
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.writeFileAtomically;
+import static com.hazelcast.internal.nio.IOUtil.delete;
+import static com.hazelcast.internal.util.DirectoryLock.lockForDirectory;
+import static com.hazelcast.internal.util.EmptyStatement.ignore;
+import static com.hazelcast.internal.util.ExceptionUtil.rethrow;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Persists the CP state of the local member in a directory under
+ * {@link com.hazelcast.config.cp.CPSubsystemConfig#getBaseDir()}: the CP
+ * metadata is kept by an {@link OnDiskCPMetadataStore} and the state of each
+ * Raft node by an {@link OnDiskRaftStateStore} in its own directory.
+ * It is used only when {@link com.hazelcast.spi.properties.ClusterProperty#CP_LOCAL_PERSISTENCE_ENABLED}
+ * is set, otherwise CP persistence remains an Enterprise feature.
+ * <p>
+ * Members may share the base directory. Each member locks a directory of
+ * its own and records its address in it, a restarted member continues with
+ * the directory recorded for its address. The directory is chosen on first
+ * use since the address isn't known when this service is created.
+ * <p>
+ * {@link #restore(RaftService)} must be called before the member joins the
+ * cluster, it restores the CP identity of the local member and its Raft nodes.
+ */
+public class OnDiskCPPersistenceService implements CPPersistenceService {
+
+    static final String ADDRESS_FILE = "address";
+    static final String GROUPS_DIR = "groups";
+    static final String RAFT_DIR = "raft";
+    static final String GROUP_ID_FILE = "group-id";
+
+    private final Node node;
+    private final File baseDir;
+    private final ILogger logger;
+
+    // guarded by this
+    private DirectoryLock dirLock;
+    private OnDiskCPMetadataStore metadataStore;
+
+    public OnDiskCPPersistenceService(@Nonnull Node node) {
+        this.node = node;
+        this.baseDir = node.getConfig().getCPSubsystemConfig().getBaseDir().getAbsoluteFile();
+        this.logger = node.getLogger(getClass());
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public synchronized CPMetadataStore getCPMetadataStore() {
+        if (metadataStore == null) {
+            metadataStore = new OnDiskCPMetadataStore(memberDir(), serializationService());
+        }
+        return metadataStore;
+    }
+
+    @Override
+    public RaftStateStore createRaftStateStore(@Nonnull RaftGroupId groupId, @Nullable LogFileStructure logFileStructure) {
+        File groupDir = groupDir(groupId);
+        File raftDir = new File(groupDir, RAFT_DIR);
+        mkdirs(raftDir);
+        try {
+            BufferObjectDataOutput out = serializationService().createObjectDataOutput();
+            out.writeObject(groupId);
+            writeFileAtomically(groupDir, GROUP_ID_FILE, out.toByteArray());
+        } catch (IOException e) {
+            throw rethrow(e);
+        }
+        return new OnDiskRaftStateStore(raftDir, serializationService(), logFileStructure);
+    }
+
+    @Override
+    public void removeRaftStateStore(@Nonnull RaftGroupId groupId) {
+        delete(groupDir(groupId));
+    }
+
+    @Override
+    public void reset() {
+        File[] files = memberDir().listFiles((dir, name) -> !name.equals(DirectoryLock.FILE_NAME)
+                && !name.equals(ADDRESS_FILE));
+        if (files != null) {
+            for (File file : files) {
+                delete(file);
+            }
+        }
+    }
+
+    /**
+     * Restores the CP identity of the local member and its Raft nodes from
+     * the disk. Does nothing if the local member has no persisted CP identity.
+     */
+    public void restore(RaftService raftService) throws IOException {
+        CPMetadataStore store = getCPMetadataStore();
+        CPMemberInfo localMember = (CPMemberInfo) store.readLocalCPMember();
+        if (localMember == null) {
+            return;
+        }
+
+        MetadataRaftGroupManager metadataGroupManager = raftService.getMetadataGroupManager();
+        RaftGroupId metadataGroupId = store.readMetadataGroupId();
+        if (metadataGroupId != null) {
+            metadataGroupManager.restoreMetadataGroupId(metadataGroupId);
+        }
+        metadataGroupManager.restoreLocalCPMember(localMember);
+
+        List<CPMember> activeMembers = new ArrayList<>();
+        long membersCommitIndex = store.readActiveCPMembers(activeMembers);
+        if (!activeMembers.isEmpty()) {
+            raftService.updateInvocationManagerMembers(metadataGroupManager.getMetadataGroupId().getSeed(),
+                    membersCommitIndex, activeMembers);
+        }
+
+        File[] groupDirs = new File(memberDir(), GROUPS_DIR).listFiles(File::isDirectory);
+        if (groupDirs == null) {
+            return;
+        }
+        for (File groupDir : groupDirs) {
+            byte[] groupIdBytes = readFile(groupDir, GROUP_ID_FILE);
+            if (groupIdBytes == null) {
+                logger.warning("Skipping " + groupDir + " since it doesn't contain a CP group id");
+                continue;
+            }
+            RaftGroupId groupId = serializationService().createObjectDataInput(groupIdBytes).readObject();
+            OnDiskRaftStateLoader loader = new OnDiskRaftStateLoader(new File(groupDir, RAFT_DIR), serializationService());
+            RestoredRaftState restoredState = loader.load();
+            raftService.restoreRaftNode(groupId, restoredState, loader.logFileStructure());
+        }
+        logger.info("Restored CP member " + localMember + " from " + memberDir());
+    }
+
+    /**
+     * Releases the member directory. Called after the Raft nodes are terminated.
+     */
+    public synchronized void shutdown() {
+        if (dirLock != null) {
+            dirLock.release();
+        }
+    }
+
+    synchronized File memberDir() {
+        if (dirLock == null) {
+            dirLock = lockMemberDir();
+            logger.info("Using " + dirLock.getDir() + " for CP persistence");
+        }
+        return dirLock.getDir();
+    }
+
+    private DirectoryLock lockMemberDir() {
+        mkdirs(baseDir);
+        String address = node.getThisAddress().toString();
+        File[] dirs = baseDir.listFiles(File::isDirectory);
+        if (dirs != null) {
+            Arrays.sort(dirs);
+            for (File dir : dirs) {
+                try {
+                    byte[] dirAddress = readFile(dir, ADDRESS_FILE);
+                    if (dirAddress != null && address.equals(new String(dirAddress, UTF_8))) {
+                        return lockForDirectory(dir, logger);
+                    }
+                } catch (IOException | HazelcastException e) {
+                    // unreadable or used by another member
+                    ignore(e);
+                }
+            }
+        }
+        File dir = new File(baseDir, UuidUtil.newUnsecureUuidString());
+        mkdirs(dir);
+        DirectoryLock lock = lockForDirectory(dir, logger);
+        try {
+            writeFileAtomically(dir, ADDRESS_FILE, address.getBytes(UTF_8));
+        } catch (IOException e) {
+            lock.release();
+            throw rethrow(e);
+        }
+        return lock;
+    }
+
+    private File groupDir(RaftGroupId groupId) {
+        return new File(new File(memberDir(), GROUPS_DIR), groupId.getSeed() + "-" + groupId.getId());
+    }
+
+    private InternalSerializationService serializationService() {
+        return node.getSerializationService();
+    }
+
+    private static void mkdirs(File dir) {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IllegalStateException("Could not create " + dir);
+        }
+    }
+}
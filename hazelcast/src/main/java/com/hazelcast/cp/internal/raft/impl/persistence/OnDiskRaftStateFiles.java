@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal.raft.impl.persistence;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+import static com.hazelcast.internal.util.EmptyStatement.ignore;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * File layout and record format shared by {@link OnDiskRaftStateStore},
+ * {@link OnDiskRaftStateLoader} and the on-disk CP metadata store.
+ * <p>
+ * Every file is a sequence of records, a record is the length and the CRC32
+ * of its payload followed by the payload itself. A record that is cut short
+ * or whose checksum doesn't match marks the end of the valid part of a file,
+ * it is the trace of a write that didn't complete before a crash.
+ */
+public final class OnDiskRaftStateFiles {
+
+    static final String MEMBERS_FILE = "members";
+    static final String TERM_FILE = "term";
+    static final String SEGMENT_FILE_PREFIX = "raftlog-";
+    static final String SNAPSHOT_FILE_PREFIX = "snapshot-";
+    static final String TMP_FILE_SUFFIX = ".tmp";
+
+    /**
+     * Size of the record header: payload length and checksum
+     */
+    static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+
+    private static final String NAME_FORMAT = "%016x";
+    private static final int NAME_RADIX = 16;
+
+    private OnDiskRaftStateFiles() {
+    }
+
+    static String segmentFileName(long sequence) {
+        return SEGMENT_FILE_PREFIX + String.format(NAME_FORMAT, sequence);
+    }
+
+    static String snapshotFileName(long snapshotIndex) {
+        return SNAPSHOT_FILE_PREFIX + String.format(NAME_FORMAT, snapshotIndex);
+    }
+
+    /**
+     * Returns the sequence number of a segment file or the index of a
+     * snapshot file, or -1 if the name is not such a file name.
+     */
+    static long parseFileNumber(String fileName, String prefix) {
+        if (!fileName.startsWith(prefix) || fileName.endsWith(TMP_FILE_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseUnsignedLong(fileName.substring(prefix.length()), NAME_RADIX);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    static void writeRecord(DataOutputStream out, byte[] payload) throws IOException {
+        out.writeInt(payload.length);
+        out.writeInt(checksum(payload));
+        out.write(payload);
+    }
+
+    /**
+     * Reads the next record from the given stream.
+     *
+     * @param remaining the number of bytes left in the stream
+     * @return the payload of the record or {@code null} if there is no
+     * complete and valid record left
+     */
+    static byte[] readRecord(DataInputStream in, long remaining) throws IOException {
+        if (remaining < RECORD_HEADER_SIZE) {
+            return null;
+        }
+        int length = in.readInt();
+        int checksum = in.readInt();
+        if (length < 0 || length > remaining - RECORD_HEADER_SIZE) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        try {
+            in.readFully(payload);
+        } catch (EOFException e) {
+            return null;
+        }
+        return checksum(payload) == checksum ? payload : null;
+    }
+
+    /**
+     * Reads the payload length from the header of the record at the given
+     * position of the channel.
+     */
+    static int readRecordLength(FileChannel channel, long position) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+        readFully(channel, header, position);
+        return header.getInt(0);
+    }
+
+    static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of file at " + offset);
+            }
+            offset += read;
+        }
+    }
+
+    /**
+     * Writes the given payload as the single record of the file in a way that
+     * either the previous or the new contents of the file survive a crash.
+     * When this method returns, the new contents are durable.
+     */
+    public static void writeFileAtomically(File dir, String fileName, byte[] payload) throws IOException {
+        Path tmp = dir.toPath().resolve(fileName + TMP_FILE_SUFFIX);
+        try (FileChannel channel = FileChannel.open(tmp, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length);
+            buffer.putInt(payload.length).putInt(checksum(payload)).put(payload).flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, dir.toPath().resolve(fileName), ATOMIC_MOVE, REPLACE_EXISTING);
+        fsyncDirectory(dir);
+    }
+
+    /**
+     * Reads the single record of a file written by {@link
+     * #writeFileAtomically}. Returns {@code null} if the file doesn't exist.
+     */
+    public static byte[] readFile(File dir, String fileName) throws IOException {
+        File file = new File(dir, fileName);
+        if (!file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file.toPath()))) {
+            byte[] payload = readRecord(in, file.length());
+            if (payload == null) {
+                throw new IOException("Corrupted file: " + file);
+            }
+            return payload;
+        }
+    }
+
+    /**
+     * Makes the creation, renaming and deletion of the files in the given
+     * directory durable.
+     */
+    static void fsyncDirectory(File dir) {
+        try (FileChannel channel = FileChannel.open(dir.toPath(), READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+            // some platforms (e.g. Windows) can't open a directory, there
+            // the file system makes the directory changes durable itself
+            ignore(ignored);
+        }
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal.raft.impl.persistence;
+
+import com.hazelcast.cp.internal.raft.impl.RaftEndpoint;
+import com.hazelcast.cp.internal.raft.impl.log.LogEntry;
+import com.hazelcast.cp.internal.raft.impl.log.SnapshotEntry;
+import com.hazelcast.internal.nio.BufferObjectDataInput;
+import com.hazelcast.internal.nio.BufferObjectDataOutput;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.MEMBERS_FILE;
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.RECORD_HEADER_SIZE;
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.SEGMENT_FILE_PREFIX;
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.SNAPSHOT_FILE_PREFIX;
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.TERM_FILE;
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.fsyncDirectory;
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.parseFileNumber;
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.readFile;
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.readRecord;
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.segmentFileName;
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.snapshotFileName;
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.writeRecord;
+import static com.hazelcast.internal.nio.IOUtil.deleteQuietly;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Restores the Raft state persisted by {@link OnDiskRaftStateStore}.
+ * <p>
+ * The log segments are replayed in order. An entry replaces the entries
+ * with the same or higher index read before it, so the segments left behind
+ * by a crash in the middle of rolling the log are restored correctly. The
+ * log is then compacted into a single segment and its structure is exposed
+ * via {@link #logFileStructure()} so that a new {@link OnDiskRaftStateStore}
+ * can continue appending to it.
+ */
+public class OnDiskRaftStateLoader implements RaftStateLoader {
+
+    private final File dir;
+    private final InternalSerializationService serializationService;
+
+    private LogFileStructure logFileStructure;
+
+    public OnDiskRaftStateLoader(@Nonnull File dir, @Nonnull InternalSerializationService serializationService) {
+        this.dir = dir;
+        this.serializationService = serializationService;
+    }
+
+    @Nonnull
+    @Override
+    public RestoredRaftState load() throws IOException {
+        byte[] members = readFile(dir, MEMBERS_FILE);
+        if (members == null) {
+            throw new IOException("No persisted Raft members found in " + dir);
+        }
+        BufferObjectDataInput in = serializationService.createObjectDataInput(members);
+        RaftEndpoint localEndpoint = in.readObject();
+        int memberCount = in.readInt();
+        List<RaftEndpoint> initialMembers = new ArrayList<>(memberCount);
+        for (int i = 0; i < memberCount; i++) {
+            initialMembers.add(in.readObject());
+        }
+
+        int term = 0;
+        RaftEndpoint votedFor = null;
+        byte[] termAndVote = readFile(dir, TERM_FILE);
+        if (termAndVote != null) {
+            in = serializationService.createObjectDataInput(termAndVote);
+            term = in.readInt();
+            votedFor = in.readObject();
+        }
+
+        SnapshotEntry snapshot = loadSnapshot();
+        long snapshotIndex = snapshot != null ? snapshot.index() : 0;
+        List<LogEntry> entries = loadEntries(snapshotIndex);
+
+        return new RestoredRaftState(localEndpoint, initialMembers, term, votedFor, snapshot,
+                entries.toArray(new LogEntry[0]));
+    }
+
+    /**
+     * Returns the structure of the log segment to continue appending to.
+     * Available after {@link #load()} returns.
+     */
+    @Nullable
+    public LogFileStructure logFileStructure() {
+        return logFileStructure;
+    }
+
+    private SnapshotEntry loadSnapshot() throws IOException {
+        NavigableMap<Long, String> snapshotFiles = listFiles(SNAPSHOT_FILE_PREFIX);
+        if (snapshotFiles.isEmpty()) {
+            return null;
+        }
+        SnapshotEntry snapshot = null;
+        for (Long index : snapshotFiles.descendingKeySet()) {
+            if (snapshot == null) {
+                snapshot = serializationService.createObjectDataInput(readFile(dir, snapshotFileName(index))).readObject();
+            } else {
+                deleteQuietly(new File(dir, snapshotFileName(index)));
+            }
+        }
+        return snapshot;
+    }
+
+    private List<LogEntry> loadEntries(long snapshotIndex) throws IOException {
+        NavigableMap<Long, String> segmentFiles = listFiles(SEGMENT_FILE_PREFIX);
+        List<LogEntry> entries = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
+        for (String fileName : segmentFiles.values()) {
+            offsets.clear();
+            File file = new File(dir, fileName);
+            long remaining = file.length();
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+                for (byte[] payload; (payload = readRecord(in, remaining)) != null; ) {
+                    LogEntry entry = serializationService.createObjectDataInput(payload).readObject();
+                    while (!entries.isEmpty() && entries.get(entries.size() - 1).index() >= entry.index()) {
+                        entries.remove(entries.size() - 1);
+                    }
+                    entries.add(entry);
+                    offsets.add(file.length() - remaining);
+                    remaining -= RECORD_HEADER_SIZE + payload.length;
+                }
+            }
+        }
+        entries.removeIf(entry -> entry.index() <= snapshotIndex);
+
+        long lastSequence = segmentFiles.isEmpty() ? -1 : segmentFiles.lastKey();
+        if (segmentFiles.size() == 1 && offsets.size() == entries.size()) {
+            logFileStructure = newLogFileStructure(segmentFiles.get(lastSequence), offsets, entries);
+        } else {
+            compact(lastSequence + 1, entries, segmentFiles);
+        }
+        return entries;
+    }
+
+    /**
+     * Writes the given entries to a new segment and deletes the given
+     * segments.
+     */
+    private void compact(long sequence, List<LogEntry> entries, Map<Long, String> segmentFiles) throws IOException {
+        String fileName = segmentFileName(sequence);
+        List<Long> offsets = new ArrayList<>(entries.size());
+        long offset = 0;
+        BufferObjectDataOutput recordOutput = serializationService.createObjectDataOutput();
+        try (FileChannel channel = FileChannel.open(new File(dir, fileName).toPath(), CREATE, WRITE, TRUNCATE_EXISTING);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+            for (LogEntry entry : entries) {
+                recordOutput.clear();
+                recordOutput.writeObject(entry);
+                byte[] payload = recordOutput.toByteArray();
+                writeRecord(out, payload);
+                offsets.add(offset);
+                offset += RECORD_HEADER_SIZE + payload.length;
+            }
+            out.flush();
+            channel.force(false);
+        }
+        fsyncDirectory(dir);
+        for (String segmentFile : segmentFiles.values()) {
+            deleteQuietly(new File(dir, segmentFile));
+        }
+        logFileStructure = newLogFileStructure(fileName, offsets, entries);
+    }
+
+    private NavigableMap<Long, String> listFiles(String prefix) {
+        NavigableMap<Long, String> files = new TreeMap<>();
+        String[] fileNames = dir.list();
+        if (fileNames != null) {
+            for (String fileName : fileNames) {
+                long number = parseFileNumber(fileName, prefix);
+                if (number >= 0) {
+                    files.put(number, fileName);
+                }
+            }
+        }
+        return files;
+    }
+
+    private static LogFileStructure newLogFileStructure(String fileName, List<Long> offsets, List<LogEntry> entries) {
+        long[] tailEntryOffsets = offsets.stream().mapToLong(Long::longValue).toArray();
+        long indexOfFirstTailEntry = entries.isEmpty() ? 0 : entries.get(0).index();
+        return new LogFileStructure(fileName, tailEntryOffsets, indexOfFirstTailEntry);
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal.raft.impl.persistence;
+
+import com.hazelcast.cp.internal.raft.impl.RaftEndpoint;
+import com.hazelcast.cp.internal.raft.impl.log.LogEntry;
+import com.hazelcast.cp.internal.raft.impl.log.SnapshotEntry;
+import com.hazelcast.internal.nio.BufferObjectDataOutput;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.MEMBERS_FILE;
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.RECORD_HEADER_SIZE;
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.SEGMENT_FILE_PREFIX;
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.SNAPSHOT_FILE_PREFIX;
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.TERM_FILE;
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.fsyncDirectory;
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.parseFileNumber;
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.readFully;
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.readRecordLength;
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.segmentFileName;
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.snapshotFileName;
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.writeFileAtomically;
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.writeRecord;
+import static com.hazelcast.internal.nio.IOUtil.closeResource;
+import static com.hazelcast.internal.nio.IOUtil.deleteQuietly;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * {@link RaftStateStore} that keeps the Raft state of a single Raft node in
+ * files of a directory.
+ * <p>
+ * The local endpoint, initial members, term and vote are small and rarely
+ * change, each of them is written to its own file which is replaced
+ * atomically. Log entries are appended to a log segment file. Appends are
+ * buffered and {@link #flushLogs()} makes all appends since the previous
+ * flush durable with a single fsync. Since Raft flushes once per batch of
+ * appended entries (and the leader coalesces its flushes), many entries
+ * share the cost of one fsync.
+ * <p>
+ * When a snapshot is flushed, it is written to its own file and the log
+ * rolls to a new segment which starts with the entries following the
+ * snapshot. Then the previous segment and snapshot are deleted. So the
+ * active segment holds every entry that can be deleted by {@link
+ * #deleteEntriesFrom(long)}, which truncates the segment file, and the
+ * size of a segment is bounded by the snapshotting interval.
+ * <p>
+ * The persisted state is read back with {@link OnDiskRaftStateLoader}. To
+ * continue appending to the restored log, create the store with the {@link
+ * LogFileStructure} returned by the loader.
+ */
+public class OnDiskRaftStateStore implements RaftStateStore {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int INITIAL_OFFSETS_CAPACITY = 1024;
+
+    private final File dir;
+    private final InternalSerializationService serializationService;
+    private final LogFileStructure logFileStructure;
+
+    private BufferObjectDataOutput recordOutput;
+    private FileChannel segmentChannel;
+    private DataOutputStream segmentOutput;
+    private long segmentSequence;
+    private long segmentSize;
+    // file offsets of the entries in the active segment
+    private long[] entryOffsets = new long[INITIAL_OFFSETS_CAPACITY];
+    private int entryCount;
+    private long firstEntryIndex;
+    private long pendingSnapshotIndex = -1;
+    private byte[] pendingSnapshot;
+
+    /**
+     * @param dir                  the directory of the Raft node's files
+     * @param serializationService used to serialize the Raft state
+     * @param logFileStructure     the structure of the log segment to continue
+     *                             appending to, or {@code null} to start with
+     *                             an empty state
+     */
+    public OnDiskRaftStateStore(
+            @Nonnull File dir,
+            @Nonnull InternalSerializationService serializationService,
+            @Nullable LogFileStructure logFileStructure
+    ) {
+        this.dir = dir;
+        this.serializationService = serializationService;
+        this.logFileStructure = logFileStructure;
+    }
+
+    @Override
+    public void open() throws IOException {
+        Files.createDirectories(dir.toPath());
+        recordOutput = serializationService.createObjectDataOutput();
+        if (logFileStructure == null) {
+            deleteFiles(Long.MAX_VALUE, Long.MAX_VALUE);
+            deleteQuietly(new File(dir, MEMBERS_FILE));
+            deleteQuietly(new File(dir, TERM_FILE));
+            openSegment(0, true);
+            fsyncDirectory(dir);
+            return;
+        }
+
+        String fileName = logFileStructure.filename();
+        long[] offsets = logFileStructure.tailEntryOffsets();
+        openSegment(parseFileNumber(fileName, SEGMENT_FILE_PREFIX), false);
+        entryOffsets = Arrays.copyOf(offsets, Math.max(offsets.length, INITIAL_OFFSETS_CAPACITY));
+        entryCount = offsets.length;
+        firstEntryIndex = logFileStructure.indexOfFirstTailEntry();
+        // drop a partially written record after the last entry, if any
+        long end = entryCount > 0
+                ? offsets[entryCount - 1] + RECORD_HEADER_SIZE + readRecordLength(segmentChannel, offsets[entryCount - 1])
+                : 0;
+        truncateSegment(end);
+    }
+
+    @Override
+    public void persistInitialMembers(
+            @Nonnull RaftEndpoint localMember, @Nonnull Collection<RaftEndpoint> initialMembers
+    ) throws IOException {
+        recordOutput.clear();
+        recordOutput.writeObject(localMember);
+        recordOutput.writeInt(initialMembers.size());
+        for (RaftEndpoint member : initialMembers) {
+            recordOutput.writeObject(member);
+        }
+        writeFileAtomically(dir, MEMBERS_FILE, recordOutput.toByteArray());
+    }
+
+    @Override
+    public void persistTerm(int term, @Nullable RaftEndpoint votedFor) throws IOException {
+        recordOutput.clear();
+        recordOutput.writeInt(term);
+        recordOutput.writeObject(votedFor);
+        writeFileAtomically(dir, TERM_FILE, recordOutput.toByteArray());
+    }
+
+    @Override
+    public void persistEntry(@Nonnull LogEntry entry) throws IOException {
+        if (entryCount == 0) {
+            firstEntryIndex = entry.index();
+        } else if (entry.index() != firstEntryIndex + entryCount) {
+            throw new IllegalArgumentException("Expected entry index: " + (firstEntryIndex + entryCount)
+                    + ", but got " + entry);
+        }
+        if (entryCount == entryOffsets.length) {
+            entryOffsets = Arrays.copyOf(entryOffsets, entryCount * 2);
+        }
+
+        recordOutput.clear();
+        recordOutput.writeObject(entry);
+        byte[] payload = recordOutput.toByteArray();
+        writeRecord(segmentOutput, payload);
+        entryOffsets[entryCount++] = segmentSize;
+        segmentSize += RECORD_HEADER_SIZE + payload.length;
+    }
+
+    @Override
+    public void persistSnapshot(@Nonnull SnapshotEntry entry) throws IOException {
+        recordOutput.clear();
+        recordOutput.writeObject(entry);
+        pendingSnapshot = recordOutput.toByteArray();
+        pendingSnapshotIndex = entry.index();
+    }
+
+    @Override
+    public void deleteEntriesFrom(long startIndexInclusive) throws IOException {
+        long deleteFrom = startIndexInclusive - firstEntryIndex;
+        if (deleteFrom >= entryCount) {
+            return;
+        }
+        segmentOutput.flush();
+        int newEntryCount = (int) Math.max(deleteFrom, 0);
+        truncateSegment(newEntryCount > 0 ? entryOffsets[newEntryCount] : 0);
+        entryCount = newEntryCount;
+    }
+
+    @Override
+    public void flushLogs() throws IOException {
+        segmentOutput.flush();
+        segmentChannel.force(false);
+        if (pendingSnapshot != null) {
+            writeFileAtomically(dir, snapshotFileName(pendingSnapshotIndex), pendingSnapshot);
+            rollSegment(pendingSnapshotIndex);
+            pendingSnapshot = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (segmentOutput != null) {
+            segmentOutput.flush();
+        }
+        closeResource(segmentChannel);
+        closeResource(recordOutput);
+    }
+
+    /**
+     * Starts a new segment with the entries of the active segment following
+     * the given snapshot index and deletes the files made obsolete by the
+     * snapshot.
+     */
+    private void rollSegment(long snapshotIndex) throws IOException {
+        int keepFrom = (int) Math.min(Math.max(snapshotIndex + 1 - firstEntryIndex, 0), entryCount);
+        long copyFrom = keepFrom < entryCount ? entryOffsets[keepFrom] : segmentSize;
+        ByteBuffer tail = ByteBuffer.allocate((int) (segmentSize - copyFrom));
+        readFully(segmentChannel, tail, copyFrom);
+        tail.flip();
+
+        long previousSequence = segmentSequence;
+        segmentChannel.close();
+        openSegment(previousSequence + 1, true);
+        while (tail.hasRemaining()) {
+            segmentChannel.write(tail);
+        }
+        segmentChannel.force(false);
+        segmentSize = tail.limit();
+
+        entryCount -= keepFrom;
+        for (int i = 0; i < entryCount; i++) {
+            entryOffsets[i] = entryOffsets[keepFrom + i] - copyFrom;
+        }
+        firstEntryIndex = entryCount > 0 ? firstEntryIndex + keepFrom : snapshotIndex + 1;
+
+        fsyncDirectory(dir);
+        deleteFiles(segmentSequence, snapshotIndex);
+    }
+
+    /**
+     * Opens the segment with the given sequence. A new segment is truncated,
+     * a file left over by a crashed run may already have its name.
+     */
+    private void openSegment(long sequence, boolean newSegment) throws IOException {
+        segmentSequence = sequence;
+        Path path = new File(dir, segmentFileName(sequence)).toPath();
+        segmentChannel = newSegment
+                ? FileChannel.open(path, CREATE, TRUNCATE_EXISTING, READ, WRITE)
+                : FileChannel.open(path, CREATE, READ, WRITE);
+        segmentSize = segmentChannel.size();
+        segmentChannel.position(segmentSize);
+        segmentOutput = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(segmentChannel), BUFFER_SIZE));
+    }
+
+    private void truncateSegment(long size) throws IOException {
+        segmentChannel.truncate(size);
+        segmentChannel.position(size);
+        segmentSize = size;
+    }
+
+    /**
+     * Deletes the segments before the given sequence and the snapshots
+     * before the given index.
+     */
+    private void deleteFiles(long segmentSequenceExclusive, long snapshotIndexExclusive) {
+        String[] fileNames = dir.list();
+        if (fileNames == null) {
+            return;
+        }
+        for (String fileName : fileNames) {
+            long segment = parseFileNumber(fileName, SEGMENT_FILE_PREFIX);
+            long snapshot = parseFileNumber(fileName, SNAPSHOT_FILE_PREFIX);
+            if ((segment >= 0 && segment < segmentSequenceExclusive) || (snapshot >= 0 && snapshot < snapshotIndexExclusive)) {
+                deleteQuietly(new File(dir, fileName));
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "OnDiskRaftStateStore{dir=" + dir + ", segment=" + segmentFileName(segmentSequence) + '}';
+    }
+}
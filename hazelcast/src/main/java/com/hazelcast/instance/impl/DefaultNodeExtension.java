@@ -35,8 +35,10 @@ import com.hazelcast.config.SymmetricEncryptionConfig;
 import com.hazelcast.config.cp.CPSubsystemConfig;
 import com.hazelcast.core.HazelcastInstanceAware;
 import com.hazelcast.core.HazelcastInstanceNotActiveException;
+import com.hazelcast.cp.internal.RaftService;
 import com.hazelcast.cp.internal.persistence.CPPersistenceService;
 import com.hazelcast.cp.internal.persistence.NopCPPersistenceService;
+import com.hazelcast.cp.internal.persistence.OnDiskCPPersistenceService;
 import com.hazelcast.hotrestart.HotRestartService;
 import com.hazelcast.instance.BuildInfo;
 import com.hazelcast.instance.BuildInfoProvider;
@@ -79,6 +81,8 @@ import com.hazelcast.internal.networking.ChannelInitializer;
 import com.hazelcast.internal.networking.InboundHandler;
 import com.hazelcast.internal.networking.OutboundHandler;
 import com.hazelcast.internal.nio.ClassLoaderUtil;
+import com.hazelcast.internal.nio.PacketCompressionStats;
+import com.hazelcast.internal.nio.PacketCompressor;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.internal.serialization.SerializationServiceBuilder;
 import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
@@ -106,12 +110,14 @@ import com.hazelcast.spi.impl.NodeEngineImpl;
 import com.hazelcast.spi.impl.eventservice.impl.EventServiceImpl;
 import com.hazelcast.spi.impl.servicemanager.ServiceManager;
 import com.hazelcast.spi.properties.ClusterProperty;
+import com.hazelcast.spi.properties.HazelcastProperties;
 import com.hazelcast.version.MemberVersion;
 import com.hazelcast.version.Version;
 import com.hazelcast.wan.impl.WanReplicationService;
 import com.hazelcast.wan.impl.WanReplicationServiceImpl;
 
 import javax.annotation.Nullable;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -126,11 +132,14 @@ import static com.hazelcast.config.InstanceTrackingConfig.InstanceTrackingProper
 import static com.hazelcast.config.InstanceTrackingConfig.InstanceTrackingProperties.PRODUCT;
 import static com.hazelcast.config.InstanceTrackingConfig.InstanceTrackingProperties.START_TIMESTAMP;
 import static com.hazelcast.config.InstanceTrackingConfig.InstanceTrackingProperties.VERSION;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.TCP_PREFIX_COMPRESSION;
 import static com.hazelcast.internal.util.ExceptionUtil.rethrow;
 import static com.hazelcast.internal.util.InstanceTrackingUtil.writeInstanceTrackingFile;
 import static com.hazelcast.jet.impl.util.Util.JET_IS_DISABLED_MESSAGE;
 import static com.hazelcast.jet.impl.util.Util.checkJetIsEnabled;
 import static com.hazelcast.map.impl.MapServiceConstructor.getDefaultMapServiceConstructor;
+import static com.hazelcast.spi.properties.ClusterProperty.IO_COMPRESSION_ENABLED;
+import static com.hazelcast.spi.properties.ClusterProperty.IO_COMPRESSION_THRESHOLD;
 
 @SuppressWarnings({"checkstyle:methodcount", "checkstyle:classfanoutcomplexity", "checkstyle:classdataabstractioncoupling"})
 public class DefaultNodeExtension implements NodeExtension {
@@ -151,8 +160,10 @@ public class DefaultNodeExtension implements NodeExtension {
     protected PhoneHome phoneHome;
     protected JetServiceBackend jetServiceBackend;
     protected IntegrityChecker integrityChecker;
+    protected CPPersistenceService cpPersistenceService;
 
     private final MemoryStats memoryStats = new DefaultMemoryStats();
+    private final PacketCompressionStats packetCompressionStats = new PacketCompressionStats();
 
     public DefaultNodeExtension(Node node) {
         this.node = node;
@@ -161,6 +172,7 @@ public class DefaultNodeExtension implements NodeExtension {
         this.systemLogger = node.getLogger("com.hazelcast.system");
         checkSecurityAllowed();
         checkPersistenceAllowed();
+        cpPersistenceService = createCPPersistenceService();
         checkLosslessRestartAllowed();
         createAndSetPhoneHome();
         checkDynamicConfigurationPersistenceAllowed();
@@ -174,18 +186,25 @@ public class DefaultNodeExtension implements NodeExtension {
 
     private void checkPersistenceAllowed() {
         PersistenceConfig persistenceConfig = node.getConfig().getPersistenceConfig();
-        if (persistenceConfig != null && persistenceConfig.isEnabled()) {
+        if (persistenceConfig != null && persistenceConfig.isEnabled()
+                && !node.getProperties().getBoolean(ClusterProperty.MAP_LOCAL_PERSISTENCE_ENABLED)) {
             if (!BuildInfoProvider.getBuildInfo().isEnterprise()) {
                 throw new IllegalStateException("Hot Restart requires Hazelcast Enterprise Edition");
             }
         }
+    }
 
+    private CPPersistenceService createCPPersistenceService() {
         CPSubsystemConfig cpSubsystemConfig = node.getConfig().getCPSubsystemConfig();
         if (cpSubsystemConfig != null && cpSubsystemConfig.isPersistenceEnabled()) {
+            if (node.getProperties().getBoolean(ClusterProperty.CP_LOCAL_PERSISTENCE_ENABLED)) {
+                return new OnDiskCPPersistenceService(node);
+            }
             if (!BuildInfoProvider.getBuildInfo().isEnterprise()) {
                 throw new IllegalStateException("CP persistence requires Hazelcast Enterprise Edition");
             }
         }
+        return NopCPPersistenceService.INSTANCE;
     }
 
     private void checkSecurityAllowed() {
@@ -248,6 +267,20 @@ public class DefaultNodeExtension implements NodeExtension {
         }
     }
 
+    @Override
+    public void beforeJoin() {
+        if (cpPersistenceService instanceof OnDiskCPPersistenceService) {
+            // the restored Raft nodes must be in place before the member starts
+            // serving CP requests, which happens once it joins the cluster
+            RaftService raftService = node.getNodeEngine().getService(RaftService.SERVICE_NAME);
+            try {
+                ((OnDiskCPPersistenceService) cpPersistenceService).restore(raftService);
+            } catch (IOException e) {
+                throw rethrow(e);
+            }
+        }
+    }
+
     @Override
     public void printNodeInfo() {
         BuildInfo buildInfo = node.getBuildInfo();
@@ -311,6 +344,7 @@ public class DefaultNodeExtension implements NodeExtension {
 
     @Override
     public void afterStart() {
+        node.nodeEngine.getMetricsRegistry().registerStaticMetrics(packetCompressionStats, TCP_PREFIX_COMPRESSION);
         if (jetServiceBackend != null) {
             jetServiceBackend.startScanningForJobs();
         }
@@ -445,14 +479,18 @@ public class DefaultNodeExtension implements NodeExtension {
     public InboundHandler[] createInboundHandlers(EndpointQualifier qualifier,
                                                   ServerConnection connection, ServerContext serverContext) {
         NodeEngineImpl nodeEngine = node.nodeEngine;
-        PacketDecoder decoder = new PacketDecoder(connection, nodeEngine.getPacketDispatcher());
+        PacketDecoder decoder = new PacketDecoder(connection, nodeEngine.getPacketDispatcher(), packetCompressionStats);
         return new InboundHandler[]{decoder};
     }
 
     @Override
     public OutboundHandler[] createOutboundHandlers(EndpointQualifier qualifier,
                                                     ServerConnection connection, ServerContext serverContext) {
-        return new OutboundHandler[]{new PacketEncoder()};
+        HazelcastProperties properties = node.getProperties();
+        PacketCompressor compressor = properties.getBoolean(IO_COMPRESSION_ENABLED)
+                ? new PacketCompressor(properties.getInteger(IO_COMPRESSION_THRESHOLD), packetCompressionStats)
+                : null;
+        return new OutboundHandler[]{new PacketEncoder(compressor)};
     }
 
     @Override
@@ -481,6 +519,9 @@ public class DefaultNodeExtension implements NodeExtension {
         if (phoneHome != null) {
             phoneHome.shutdown();
         }
+        if (cpPersistenceService instanceof OnDiskCPPersistenceService) {
+            ((OnDiskCPPersistenceService) cpPersistenceService).shutdown();
+        }
     }
 
     @Override
@@ -645,7 +686,7 @@ public class DefaultNodeExtension implements NodeExtension {
 
     @Override
     public CPPersistenceService getCPPersistenceService() {
-        return NopCPPersistenceService.INSTANCE;
+        return cpPersistenceService;
     }
 
     protected void createAndSetPhoneHome() {
@@ -63,6 +63,7 @@ import static com.hazelcast.config.EvictionPolicy.LFU;
 import static com.hazelcast.config.EvictionPolicy.LRU;
 import static com.hazelcast.config.EvictionPolicy.NONE;
 import static com.hazelcast.config.EvictionPolicy.RANDOM;
+import static com.hazelcast.config.EvictionPolicy.TINY_LFU;
 import static com.hazelcast.config.InMemoryFormat.NATIVE;
 import static com.hazelcast.config.MaxSizePolicy.ENTRY_COUNT;
 import static com.hazelcast.config.MaxSizePolicy.FREE_HEAP_PERCENTAGE;
@@ -97,8 +98,12 @@ public final class ConfigValidator {
     private static final EnumSet<MaxSizePolicy> NEAR_CACHE_SUPPORTED_ON_HEAP_MAX_SIZE_POLICIES
             = EnumSet.of(MaxSizePolicy.ENTRY_COUNT);
 
+    private static final EnumSet<MaxSizePolicy> NEAR_CACHE_SUPPORTED_NATIVE_MAX_SIZE_POLICIES
+            = EnumSet.of(MaxSizePolicy.ENTRY_COUNT, USED_NATIVE_MEMORY_PERCENTAGE,
+            FREE_NATIVE_MEMORY_PERCENTAGE, USED_NATIVE_MEMORY_SIZE, FREE_NATIVE_MEMORY_SIZE);
+
     private static final EnumSet<EvictionPolicy> MAP_SUPPORTED_EVICTION_POLICIES
-            = EnumSet.of(LRU, LFU, RANDOM, NONE);
+            = EnumSet.of(LRU, LFU, RANDOM, NONE, TINY_LFU);
 
     private static final EnumSet<MaxSizePolicy> MAP_SUPPORTED_NATIVE_MAX_SIZE_POLICIES
             = EnumSet.of(PER_NODE, PER_PARTITION, USED_NATIVE_MEMORY_PERCENTAGE,
@@ -128,12 +133,13 @@ public final class ConfigValidator {
                                       SplitBrainMergePolicyProvider mergePolicyProvider,
                                       HazelcastProperties properties, ILogger logger) {
 
-        checkNotNativeWhenOpenSource(mapConfig.getInMemoryFormat());
         checkNotBitmapIndexWhenNativeMemory(mapConfig.getInMemoryFormat(), mapConfig.getIndexConfigs());
         checkNotTieredStoreWhenOpenSource(mapConfig.getTieredStoreConfig());
 
         if (getBuildInfo().isEnterprise()) {
             checkMapNativeConfig(mapConfig, nativeMemoryConfig);
+        } else {
+            checkMapNativeConfigWhenOpenSource(mapConfig, nativeMemoryConfig);
         }
 
         checkMapEvictionConfig(mapConfig.getEvictionConfig());
@@ -216,6 +222,26 @@ public final class ConfigValidator {
         checkMapNativeMaxSizePolicy(mapConfig);
     }
 
+    /**
+     * Checks the map config of a map with {@link InMemoryFormat#NATIVE} in
+     * Hazelcast OS, which keeps the records of such maps in native memory
+     * allocated by the C runtime: native memory must be enabled, it gives
+     * the capacity of that memory.
+     *
+     * @param mapConfig          the mapConfig
+     * @param nativeMemoryConfig the nativeMemoryConfig
+     */
+    private static void checkMapNativeConfigWhenOpenSource(MapConfig mapConfig, NativeMemoryConfig nativeMemoryConfig) {
+        if (NATIVE != mapConfig.getInMemoryFormat()) {
+            return;
+        }
+        if (!nativeMemoryConfig.isEnabled()) {
+            throw new InvalidConfigurationException(format("Enable native memory config to use NATIVE"
+                    + " in-memory-format for the map [%s]", mapConfig.getName()));
+        }
+        checkMapNativeMaxSizePolicy(mapConfig);
+    }
+
     private static void checkMapNativeMaxSizePolicy(MapConfig mapConfig) {
         MaxSizePolicy maxSizePolicy = mapConfig.getEvictionConfig().getMaxSizePolicy();
         if (!MAP_SUPPORTED_NATIVE_MAX_SIZE_POLICIES.contains(maxSizePolicy)) {
@@ -312,14 +338,18 @@ public final class ConfigValidator {
      */
     public static void checkNearCacheConfig(String mapName, NearCacheConfig nearCacheConfig,
                                             NativeMemoryConfig nativeMemoryConfig, boolean isClient) {
-        checkNotNativeWhenOpenSource(nearCacheConfig.getInMemoryFormat());
+        if (!isClient) {
+            // clients have an open-source NATIVE Near Cache
+            checkNotNativeWhenOpenSource(nearCacheConfig.getInMemoryFormat());
+        }
         checkLocalUpdatePolicy(mapName, nearCacheConfig.getLocalUpdatePolicy());
         EvictionConfig evictionConfig = nearCacheConfig.getEvictionConfig();
         checkNearCacheEvictionConfig(evictionConfig.getEvictionPolicy(),
                 evictionConfig.getComparatorClassName(), evictionConfig.getComparator());
         checkOnHeapNearCacheMaxSizePolicy(nearCacheConfig);
+        checkNativeNearCacheMaxSizePolicy(nearCacheConfig);
         checkNearCacheNativeMemoryConfig(nearCacheConfig.getInMemoryFormat(),
-                nativeMemoryConfig, getBuildInfo().isEnterprise());
+                nativeMemoryConfig, isClient || getBuildInfo().isEnterprise());
 
         if (isClient && nearCacheConfig.isCacheLocalEntries()) {
             throw new InvalidConfigurationException("The Near Cache option `cache-local-entries` is not supported in "
@@ -384,6 +414,19 @@ public final class ConfigValidator {
         }
     }
 
+    private static void checkNativeNearCacheMaxSizePolicy(NearCacheConfig nearCacheConfig) {
+        if (nearCacheConfig.getInMemoryFormat() != NATIVE) {
+            return;
+        }
+
+        MaxSizePolicy maxSizePolicy = nearCacheConfig.getEvictionConfig().getMaxSizePolicy();
+        if (!NEAR_CACHE_SUPPORTED_NATIVE_MAX_SIZE_POLICIES.contains(maxSizePolicy)) {
+            throw new InvalidConfigurationException(format("Near Cache maximum size policy %s cannot be used with NATIVE"
+                            + " storage. Supported maximum size policies are: %s",
+                    maxSizePolicy, NEAR_CACHE_SUPPORTED_NATIVE_MAX_SIZE_POLICIES));
+        }
+    }
+
     /**
      * Checks precondition to use {@link InMemoryFormat#NATIVE}.
      *
@@ -3199,6 +3199,8 @@ public class MemberDomConfigProcessor extends AbstractDomConfigProcessor {
             } else if (matches("receive-window-multiplier", nodeName)) {
                 edgeConfig.setReceiveWindowMultiplier(
                         getIntegerValue("receive-window-multiplier", getTextContent(child)));
+            } else if (matches("compression-enabled", nodeName)) {
+                edgeConfig.setCompressionEnabled(getBooleanValue(getTextContent(child)));
             }
         }
     }
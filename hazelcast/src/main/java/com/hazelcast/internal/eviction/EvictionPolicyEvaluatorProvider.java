@@ -20,6 +20,7 @@ import com.hazelcast.config.EvictionPolicy;
 import com.hazelcast.internal.eviction.impl.comparator.LFUEvictionPolicyComparator;
 import com.hazelcast.internal.eviction.impl.comparator.LRUEvictionPolicyComparator;
 import com.hazelcast.internal.eviction.impl.comparator.RandomEvictionPolicyComparator;
+import com.hazelcast.internal.eviction.impl.comparator.TinyLFUEvictionPolicyComparator;
 import com.hazelcast.internal.eviction.impl.evaluator.EvictionPolicyEvaluator;
 import com.hazelcast.internal.nio.ClassLoaderUtil;
 import com.hazelcast.spi.eviction.EvictionPolicyComparator;
@@ -95,6 +96,9 @@ public final class EvictionPolicyEvaluatorProvider {
                 return LFUEvictionPolicyComparator.INSTANCE;
             case RANDOM:
                 return RandomEvictionPolicyComparator.INSTANCE;
+            case TINY_LFU:
+                // stateful, so each caller gets its own instance
+                return new TinyLFUEvictionPolicyComparator();
             case NONE:
                 return null;
             default:
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.eviction.impl.comparator;
+
+import com.hazelcast.internal.util.QuickMath;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A probabilistic estimate of the access frequency of keys, used by the
+ * {@link com.hazelcast.config.EvictionPolicy#TINY_LFU} eviction policy.
+ * <p>
+ * This is a count-min sketch with a depth of 4 and 4-bit counters, so a
+ * frequency is capped at {@value #MAX_FREQUENCY}. Sixteen counters are
+ * packed into a {@code long}, the sketch needs 8 bytes per expected entry
+ * regardless of the key and value sizes and nothing is stored in the
+ * records themselves. Since the sketch is independent of the stored
+ * records, it also remembers the frequency of keys which are not present
+ * at the moment.
+ * <p>
+ * To let the sketch adapt to a changing workload, all counters are halved
+ * once the number of recorded accesses reaches 10 times the capacity, so
+ * the history of old accesses decays exponentially.
+ * <p>
+ * The sketch is thread-safe but lossy: an increment which races with
+ * another update of the same counter word may be dropped, which is
+ * acceptable for a frequency estimate and keeps the increments cheap.
+ */
+public final class FrequencySketch {
+
+    static final int MAX_FREQUENCY = 15;
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final int SAMPLE_FACTOR = 10;
+    private static final int DEPTH = 4;
+    private static final int HALF_INT_BITS = Integer.SIZE / 2;
+    private static final long COUNTER_MASK = 0xfL;
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L,
+    };
+    private static final int SPREAD_MULTIPLIER = 0x45d9f3b;
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private volatile AtomicLongArray table;
+    private volatile int sampleSize;
+
+    public FrequencySketch() {
+        this(MIN_CAPACITY);
+    }
+
+    public FrequencySketch(long expectedSize) {
+        resize(expectedSize);
+    }
+
+    /**
+     * Grows the sketch if it has less capacity than the expected number
+     * of entries. The collected frequencies are kept: since the counters
+     * are addressed by the low bits of the hash, each counter word is
+     * copied to all the words it is split into.
+     *
+     * @param expectedSize the expected number of entries
+     */
+    public void ensureCapacity(long expectedSize) {
+        if (expectedSize > table.length() && table.length() < MAX_CAPACITY) {
+            resize(expectedSize);
+        }
+    }
+
+    /**
+     * @return the number of entries this sketch is sized for
+     */
+    public int capacity() {
+        return table.length();
+    }
+
+    /**
+     * Returns the estimated number of accesses of the key with the given
+     * hash since it was recorded, capped at {@value #MAX_FREQUENCY}.
+     *
+     * @param keyHash the hash of the key
+     */
+    public int frequency(int keyHash) {
+        AtomicLongArray table = this.table;
+        int hash = spread(keyHash);
+        int start = (hash & (DEPTH - 1)) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            int offset = (start + i) << 2;
+            int count = (int) ((table.get(indexOf(table, hash, i)) >>> offset) & COUNTER_MASK);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Records an access of the key with the given hash.
+     *
+     * @param keyHash the hash of the key
+     */
+    public void increment(int keyHash) {
+        AtomicLongArray table = this.table;
+        int hash = spread(keyHash);
+        int start = (hash & (DEPTH - 1)) << 2;
+        boolean added = false;
+        for (int i = 0; i < DEPTH; i++) {
+            added |= incrementAt(table, indexOf(table, hash, i), (start + i) << 2);
+        }
+        if (added && size.incrementAndGet() == sampleSize) {
+            reset(table);
+        }
+    }
+
+    private void resize(long expectedSize) {
+        int capacity = (int) QuickMath.nextPowerOfTwo(Math.min(Math.max(expectedSize, MIN_CAPACITY), MAX_CAPACITY));
+        AtomicLongArray oldTable = table;
+        AtomicLongArray newTable = new AtomicLongArray(capacity);
+        if (oldTable != null) {
+            int oldMask = oldTable.length() - 1;
+            for (int i = 0; i < capacity; i++) {
+                newTable.set(i, oldTable.get(i & oldMask));
+            }
+        }
+        sampleSize = capacity * SAMPLE_FACTOR;
+        table = newTable;
+    }
+
+    private static boolean incrementAt(AtomicLongArray table, int index, int offset) {
+        long mask = COUNTER_MASK << offset;
+        long word = table.get(index);
+        return (word & mask) != mask && table.compareAndSet(index, word, word + (1L << offset));
+    }
+
+    /**
+     * Halves all counters and adjusts the size for the counters which
+     * were truncated by the integer division.
+     */
+    private void reset(AtomicLongArray table) {
+        int truncated = 0;
+        for (int i = 0; i < table.length(); i++) {
+            long word;
+            do {
+                word = table.get(i);
+            } while (!table.compareAndSet(i, word, (word >>> 1) & RESET_MASK));
+            truncated += Long.bitCount(word & ONE_MASK);
+        }
+        size.set((sampleSize >>> 1) - (truncated >>> 2));
+    }
+
+    private static int indexOf(AtomicLongArray table, int hash, int depth) {
+        long h = (hash + SEEDS[depth]) * SEEDS[depth];
+        h += h >>> Integer.SIZE;
+        return ((int) h) & (table.length() - 1);
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> HALF_INT_BITS) ^ x) * SPREAD_MULTIPLIER;
+        x = ((x >>> HALF_INT_BITS) ^ x) * SPREAD_MULTIPLIER;
+        return (x >>> HALF_INT_BITS) ^ x;
+    }
+
+    @Override
+    public String toString() {
+        return "FrequencySketch{capacity=" + table.length() + ", size=" + size.get() + '}';
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.eviction.impl.comparator;
+
+import com.hazelcast.internal.serialization.SerializableByConvention;
+import com.hazelcast.internal.util.SampleableConcurrentHashMap.SamplingEntry;
+import com.hazelcast.spi.eviction.EvictableEntryView;
+import com.hazelcast.spi.eviction.EvictionPolicyComparator;
+
+/**
+ * {@link com.hazelcast.config.EvictionPolicy#TINY_LFU}
+ * policy based {@link EvictionPolicyComparator}.
+ * <p>
+ * The entry with the lower estimated access frequency in the {@link
+ * FrequencySketch} is evicted first. Entries with equal frequencies are
+ * evicted in LRU order, so newly added entries, which have been seen only
+ * once, form an LRU window in which they compete among themselves until
+ * they are accessed often enough to be kept over the established entries.
+ * <p>
+ * Unlike the other out-of-the-box comparators, an instance of this
+ * comparator is stateful and must not be shared between data structures.
+ */
+@SerializableByConvention
+public class TinyLFUEvictionPolicyComparator
+        implements EvictionPolicyComparator<Object, Object, EvictableEntryView<Object, Object>> {
+
+    private final transient FrequencySketch frequencySketch;
+
+    public TinyLFUEvictionPolicyComparator() {
+        this(new FrequencySketch());
+    }
+
+    public TinyLFUEvictionPolicyComparator(FrequencySketch frequencySketch) {
+        this.frequencySketch = frequencySketch;
+    }
+
+    public FrequencySketch getFrequencySketch() {
+        return frequencySketch;
+    }
+
+    @Override
+    public int compare(EvictableEntryView e1, EvictableEntryView e2) {
+        return compare(frequencySketch, e1, keyHash(e1), e2, keyHash(e2));
+    }
+
+    /**
+     * Compares the entries using the given sketch.
+     *
+     * @param keyHash1 the hash of the key of {@code e1} as it was recorded in the sketch
+     * @param keyHash2 the hash of the key of {@code e2} as it was recorded in the sketch
+     * @return a negative value if {@code e1} should be evicted
+     * before {@code e2}, a positive value if {@code e2} should be
+     * evicted before {@code e1} and zero if they are equal
+     */
+    public static int compare(FrequencySketch frequencySketch, EvictableEntryView e1, int keyHash1,
+                              EvictableEntryView e2, int keyHash2) {
+        int result = Integer.compare(frequencySketch.frequency(keyHash1), frequencySketch.frequency(keyHash2));
+        if (result != 0) {
+            return result;
+        }
+        long time1 = Math.max(e1.getCreationTime(), e1.getLastAccessTime());
+        long time2 = Math.max(e2.getCreationTime(), e2.getLastAccessTime());
+        return Long.compare(time1, time2);
+    }
+
+    private static int keyHash(EvictableEntryView entry) {
+        // sampled entries expose the key as it is stored,
+        // which is the form the accesses are recorded with
+        Object key = entry instanceof SamplingEntry ? ((SamplingEntry) entry).getEntryKey() : entry.getKey();
+        return key == null ? 0 : key.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "TinyLFUEvictionPolicyComparator{" + frequencySketch + "} ";
+    }
+}
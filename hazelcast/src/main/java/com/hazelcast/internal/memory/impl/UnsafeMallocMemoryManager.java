@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.memory.impl;
+
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.memory.MemoryAllocator;
+import com.hazelcast.internal.memory.MemoryManager;
+import com.hazelcast.memory.NativeOutOfMemoryError;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.internal.memory.GlobalMemoryAccessorRegistry.MEM;
+import static com.hazelcast.internal.memory.GlobalMemoryAccessorRegistry.MEM_AVAILABLE;
+import static com.hazelcast.internal.memory.impl.UnsafeUtil.UNSAFE;
+import static com.hazelcast.internal.memory.impl.UnsafeUtil.UNSAFE_AVAILABLE;
+import static com.hazelcast.internal.util.Preconditions.checkPositive;
+
+/**
+ * {@link MemoryManager} which allocates blocks outside of the Java heap with
+ * {@code Unsafe.allocateMemory()}, i.e. with the {@code malloc()} of the C
+ * runtime. The total size of the allocated blocks is bounded by the capacity
+ * given at construction time; exceeding it fails the allocation with a
+ * {@link NativeOutOfMemoryError}.
+ * <p>
+ * The memory manager is thread-safe and can be shared by all the partition
+ * threads. It doesn't track the allocated blocks, so {@link #dispose()} does
+ * not free them: the owners of the blocks are responsible for that.
+ */
+public final class UnsafeMallocMemoryManager implements MemoryManager {
+
+    private final long capacity;
+    private final AtomicLong usedMemory = new AtomicLong();
+    private final MemoryAllocator allocator = new Allocator();
+
+    public UnsafeMallocMemoryManager(long capacity) {
+        if (!UNSAFE_AVAILABLE || !MEM_AVAILABLE) {
+            throw new UnsupportedOperationException("Native memory cannot be used, sun.misc.Unsafe is not available");
+        }
+        this.capacity = checkPositive("capacity", capacity);
+    }
+
+    @Override
+    public MemoryAllocator getAllocator() {
+        return allocator;
+    }
+
+    @Override
+    public MemoryAccessor getAccessor() {
+        return MEM;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public long getUsedMemory() {
+        return usedMemory.get();
+    }
+
+    public long getFreeMemory() {
+        return capacity - usedMemory.get();
+    }
+
+    @Override
+    public void dispose() {
+        // NOP: the blocks are freed by their owners
+    }
+
+    private void reserve(long size) {
+        for (; ; ) {
+            long used = usedMemory.get();
+            long newUsed = used + size;
+            if (newUsed > capacity) {
+                throw new NativeOutOfMemoryError("Cannot allocate " + size + " bytes of native memory. Capacity: "
+                        + capacity + ", used: " + used);
+            }
+            if (usedMemory.compareAndSet(used, newUsed)) {
+                return;
+            }
+        }
+    }
+
+    private final class Allocator implements MemoryAllocator {
+
+        @Override
+        public long allocate(long size) {
+            reserve(size);
+            long address;
+            try {
+                address = UNSAFE.allocateMemory(size);
+            } catch (OutOfMemoryError e) {
+                usedMemory.addAndGet(-size);
+                throw new NativeOutOfMemoryError("Cannot allocate " + size + " bytes of native memory", e);
+            }
+            UNSAFE.setMemory(address, size, (byte) 0);
+            return address;
+        }
+
+        @Override
+        public long reallocate(long address, long currentSize, long newSize) {
+            long diff = newSize - currentSize;
+            if (diff > 0) {
+                reserve(diff);
+            }
+            long newAddress;
+            try {
+                newAddress = UNSAFE.reallocateMemory(address, newSize);
+            } catch (OutOfMemoryError e) {
+                if (diff > 0) {
+                    usedMemory.addAndGet(-diff);
+                }
+                throw new NativeOutOfMemoryError("Cannot reallocate " + newSize + " bytes of native memory", e);
+            }
+            if (diff > 0) {
+                UNSAFE.setMemory(newAddress + currentSize, diff, (byte) 0);
+            } else {
+                usedMemory.addAndGet(diff);
+            }
+            return newAddress;
+        }
+
+        @Override
+        public void free(long address, long size) {
+            UNSAFE.freeMemory(address);
+            usedMemory.addAndGet(-size);
+        }
+
+        @Override
+        public void dispose() {
+            // NOP: the blocks are freed by their owners
+        }
+    }
+}
@@ -57,6 +57,7 @@ public final class MetricDescriptorConstants {
     // ===[CLIENT]======================================================
     public static final String CLIENT_PREFIX_ENDPOINT = "client.endpoint";
     public static final String CLIENT_PREFIX_INVOCATIONS = "invocations";
+    public static final String CLIENT_PREFIX_INVOCATIONS_LATENCY = "invocations.latency";
     public static final String CLIENT_PREFIX_LISTENERS = "listeners";
     public static final String CLIENT_PREFIX_MEMORY = "memory";
     public static final String CLIENT_PREFIX_MEMORY_MANAGER = "memorymanager";
@@ -71,6 +72,10 @@ public final class MetricDescriptorConstants {
     public static final String CLIENT_METRIC_INVOCATIONS_MAX_CURRENT_INVOCATIONS = "maxCurrentInvocations";
     public static final String CLIENT_METRIC_LISTENER_SERVICE_EVENT_QUEUE_SIZE = "eventQueueSize";
     public static final String CLIENT_METRIC_LISTENER_SERVICE_EVENTS_PROCESSED = "eventsProcessed";
+    public static final String CLIENT_METRIC_INVOCATIONS_LATENCY_COUNT = "count";
+    public static final String CLIENT_METRIC_INVOCATIONS_LATENCY_TOTAL = "total";
+    public static final String CLIENT_METRIC_INVOCATIONS_LATENCY_MAX = "max";
+    public static final String CLIENT_DISCRIMINATOR_INVOCATIONS_LATENCY_BUCKET = "bucket";
     // ===[/CLIENT]=====================================================
 
     // ===[CLUSTER]=====================================================
@@ -198,9 +203,16 @@ public final class MetricDescriptorConstants {
     public static final String MAP_PREFIX_INDEX = "map.index";
     public static final String MAP_PREFIX_NEARCACHE = "map.nearcache";
     public static final String MAP_PREFIX_ENTRY_PROCESSOR_OFFLOADABLE_EXECUTOR = "map.entry.processor.offloadable.executor";
+    public static final String MAP_PREFIX_WRITE_BEHIND = "map.writebehind";
     public static final String MAP_DISCRIMINATOR_NAME = "name";
     public static final String MAP_TAG_PARTITION = "partition";
     public static final String MAP_TAG_INDEX = "index";
+    public static final String MAP_METRIC_WRITE_BEHIND_STORE_BATCH_COUNT = "storeBatchCount";
+    public static final String MAP_METRIC_WRITE_BEHIND_STORED_ENTRY_COUNT = "storedEntryCount";
+    public static final String MAP_METRIC_WRITE_BEHIND_MAX_STORE_BATCH_SIZE = "maxStoreBatchSize";
+    public static final String MAP_METRIC_WRITE_BEHIND_AVG_STORE_BATCH_SIZE = "avgStoreBatchSize";
+    public static final String MAP_METRIC_WRITE_BEHIND_STORE_TIME = "storeTime";
+    public static final String MAP_METRIC_WRITE_BEHIND_OLDEST_ENTRY_AGE = "oldestEntryAge";
     public static final String MAP_METRIC_LAST_ACCESS_TIME = "lastAccessTime";
     public static final String MAP_METRIC_LAST_UPDATE_TIME = "lastUpdateTime";
     public static final String MAP_METRIC_HITS = "hits";
@@ -320,6 +332,8 @@ public final class MetricDescriptorConstants {
     public static final String NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_WRITE_QUEUE_SIZE = "writeQueueSize";
     public static final String NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_PRIORITY_WRITE_QUEUE_SIZE = "priorityWriteQueueSize";
     public static final String NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_BYTES_WRITTEN = "bytesWritten";
+    public static final String NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_COPIED_BYTES_WRITTEN = "copiedBytesWritten";
+    public static final String NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_ZERO_COPY_BYTES_WRITTEN = "zeroCopyBytesWritten";
     public static final String NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_NORMAL_FRAMES_WRITTEN = "normalFramesWritten";
     public static final String NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_PRIORITY_FRAMES_WRITTEN = "priorityFramesWritten";
     public static final String NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_WRITE_QUEUE_PENDING_BYTES = "writeQueuePendingBytes";
@@ -525,6 +539,7 @@ public final class MetricDescriptorConstants {
     public static final String TCP_PREFIX = "tcp";
     public static final String TCP_PREFIX_ACCEPTOR = "tcp.acceptor";
     public static final String TCP_PREFIX_BALANCER = "tcp.balancer";
+    public static final String TCP_PREFIX_COMPRESSION = "tcp.compression";
     public static final String TCP_PREFIX_CONNECTION = "tcp.connection";
     public static final String TCP_PREFIX_CONNECTION_IN = "tcp.connection.in";
     public static final String TCP_PREFIX_CONNECTION_OUT = "tcp.connection.out";
@@ -550,6 +565,14 @@ public final class MetricDescriptorConstants {
     public static final String TCP_METRIC_ENDPOINT_MANAGER_ACCEPTED_SOCKET_COUNT = "acceptedSocketCount";
     public static final String TCP_METRIC_CLIENT_COUNT = "clientCount";
     public static final String TCP_METRIC_TEXT_COUNT = "textCount";
+    public static final String TCP_METRIC_COMPRESSION_COMPRESSED_PACKETS = "compressedPackets";
+    public static final String TCP_METRIC_COMPRESSION_INCOMPRESSIBLE_PACKETS = "incompressiblePackets";
+    public static final String TCP_METRIC_COMPRESSION_UNCOMPRESSED_BYTES = "uncompressedBytes";
+    public static final String TCP_METRIC_COMPRESSION_COMPRESSED_BYTES = "compressedBytes";
+    public static final String TCP_METRIC_COMPRESSION_RATIO = "compressionRatio";
+    public static final String TCP_METRIC_COMPRESSION_COMPRESSION_TIME_NANOS = "compressionTimeNanos";
+    public static final String TCP_METRIC_COMPRESSION_DECOMPRESSED_PACKETS = "decompressedPackets";
+    public static final String TCP_METRIC_COMPRESSION_DECOMPRESSION_TIME_NANOS = "decompressionTimeNanos";
     // ===[/TCP]========================================================
 
     // ===[TOPIC]=======================================================
@@ -113,6 +113,12 @@ public interface NearCacheRecord<V> extends Expirable, Evictable<V> {
      */
     void setInvalidationSequence(long sequence);
 
+    /**
+     * @return last known UUID of invalidation
+     * source at time of this records' creation
+     */
+    UUID getUuid();
+
     /**
      * @param uuid last known UUID of invalidation
      *             source at time of this records' creation
@@ -19,9 +19,11 @@ package com.hazelcast.internal.nearcache.impl;
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.NearCacheConfig;
 import com.hazelcast.internal.adapter.DataStructureAdapter;
+import com.hazelcast.internal.memory.impl.UnsafeMallocMemoryManager;
 import com.hazelcast.internal.nearcache.NearCache;
 import com.hazelcast.internal.nearcache.NearCacheRecordStore;
 import com.hazelcast.internal.nearcache.impl.store.NearCacheDataRecordStore;
+import com.hazelcast.internal.nearcache.impl.store.NearCacheNativeRecordStore;
 import com.hazelcast.internal.nearcache.impl.store.NearCacheObjectRecordStore;
 import com.hazelcast.internal.serialization.Data;
 import com.hazelcast.internal.serialization.SerializationService;
@@ -50,6 +52,7 @@ public class DefaultNearCache<K, V> implements NearCache<K, V> {
 
     private final boolean serializeKeys;
     private final HazelcastProperties properties;
+    private final UnsafeMallocMemoryManager memoryManager;
 
     private volatile boolean preloadDone;
 
@@ -60,10 +63,31 @@ public class DefaultNearCache<K, V> implements NearCache<K, V> {
                 serializationService, scheduler, classLoader, properties);
     }
 
+    public DefaultNearCache(String name, NearCacheConfig nearCacheConfig,
+                            SerializationService serializationService, TaskScheduler scheduler,
+                            ClassLoader classLoader, HazelcastProperties properties,
+                            UnsafeMallocMemoryManager memoryManager) {
+        this(name, nearCacheConfig, null,
+                serializationService, scheduler, classLoader, properties, memoryManager);
+    }
+
     public DefaultNearCache(String name, NearCacheConfig nearCacheConfig,
                             NearCacheRecordStore<K, V> nearCacheRecordStore,
                             SerializationService serializationService, TaskScheduler scheduler,
                             ClassLoader classLoader, HazelcastProperties properties) {
+        this(name, nearCacheConfig, nearCacheRecordStore,
+                serializationService, scheduler, classLoader, properties, null);
+    }
+
+    /**
+     * @param memoryManager the memory manager of the {@link InMemoryFormat#NATIVE
+     *                      NATIVE} Near Caches, {@code null} if there is none
+     */
+    public DefaultNearCache(String name, NearCacheConfig nearCacheConfig,
+                            NearCacheRecordStore<K, V> nearCacheRecordStore,
+                            SerializationService serializationService, TaskScheduler scheduler,
+                            ClassLoader classLoader, HazelcastProperties properties,
+                            UnsafeMallocMemoryManager memoryManager) {
         this.name = name;
         this.nearCacheConfig = nearCacheConfig;
         this.serializationService = serializationService;
@@ -72,6 +96,7 @@ public class DefaultNearCache<K, V> implements NearCache<K, V> {
         this.nearCacheRecordStore = nearCacheRecordStore;
         this.serializeKeys = nearCacheConfig.isSerializeKeys();
         this.properties = properties;
+        this.memoryManager = memoryManager;
     }
 
     @Override
@@ -94,6 +119,13 @@ public class DefaultNearCache<K, V> implements NearCache<K, V> {
                 return new NearCacheDataRecordStore<K, V>(name, nearCacheConfig, serializationService, classLoader);
             case OBJECT:
                 return new NearCacheObjectRecordStore<K, V>(name, nearCacheConfig, serializationService, classLoader);
+            case NATIVE:
+                if (memoryManager == null) {
+                    throw new IllegalArgumentException("Enable native memory config to use NATIVE in-memory-format"
+                            + " for Near Cache " + name);
+                }
+                return new NearCacheNativeRecordStore<K, V>(name, nearCacheConfig, serializationService, classLoader,
+                        memoryManager);
             default:
                 throw new IllegalArgumentException("Invalid in memory format: " + inMemoryFormat);
         }
@@ -20,6 +20,7 @@ import com.hazelcast.config.NearCacheConfig;
 import com.hazelcast.config.NearCacheConfigAccessor;
 import com.hazelcast.config.NearCachePreloaderConfig;
 import com.hazelcast.internal.adapter.DataStructureAdapter;
+import com.hazelcast.internal.memory.impl.UnsafeMallocMemoryManager;
 import com.hazelcast.internal.nearcache.NearCache;
 import com.hazelcast.internal.nearcache.NearCacheManager;
 import com.hazelcast.internal.serialization.SerializationService;
@@ -45,6 +46,7 @@ public class DefaultNearCacheManager implements NearCacheManager {
     protected final ClassLoader classLoader;
     protected final HazelcastProperties properties;
     protected final SerializationService serializationService;
+    protected final UnsafeMallocMemoryManager memoryManager;
 
     private final Object mutex = new Object();
     private final Queue<ScheduledFuture> preloadTaskFutures = new ConcurrentLinkedQueue<>();
@@ -53,6 +55,15 @@ public class DefaultNearCacheManager implements NearCacheManager {
 
     public DefaultNearCacheManager(SerializationService ss, TaskScheduler es,
                                    ClassLoader classLoader, HazelcastProperties properties) {
+        this(ss, es, classLoader, properties, null);
+    }
+
+    /**
+     * @param memoryManager the memory manager of the {@link com.hazelcast.config.InMemoryFormat#NATIVE
+     *                      NATIVE} Near Caches, {@code null} if they are not supported
+     */
+    public DefaultNearCacheManager(SerializationService ss, TaskScheduler es, ClassLoader classLoader,
+                                   HazelcastProperties properties, UnsafeMallocMemoryManager memoryManager) {
         assert ss != null;
         assert es != null;
 
@@ -60,6 +71,7 @@ public class DefaultNearCacheManager implements NearCacheManager {
         this.scheduler = es;
         this.classLoader = classLoader;
         this.properties = properties;
+        this.memoryManager = memoryManager;
     }
 
     @Override
@@ -92,7 +104,7 @@ public class DefaultNearCacheManager implements NearCacheManager {
     protected <K, V> NearCache<K, V> createNearCache(String name, NearCacheConfig nearCacheConfig) {
         NearCacheConfig copy = NearCacheConfigAccessor.copyWithInitializedDefaultMaxSizeForOnHeapMaps(nearCacheConfig);
         return new DefaultNearCache<>(name, copy, serializationService,
-                scheduler, classLoader, properties);
+                scheduler, classLoader, properties, memoryManager);
     }
 
     @Override
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.nearcache.impl.maxsize;
+
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.internal.eviction.EvictionChecker;
+import com.hazelcast.internal.memory.impl.UnsafeMallocMemoryManager;
+
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+import static com.hazelcast.memory.MemoryUnit.MEGABYTES;
+
+/**
+ * Near Cache max-size policy implementation for the Near Caches with {@link
+ * com.hazelcast.config.InMemoryFormat#NATIVE NATIVE} in-memory format.
+ * <p>
+ * Supports {@link MaxSizePolicy#ENTRY_COUNT} and the native memory policies.
+ * The used memory policies compare the native memory used by the records of
+ * the Near Cache, the free memory policies the free memory of the native
+ * memory manager shared by all the Near Caches of the client.
+ *
+ * @see EvictionChecker
+ */
+public class NativeMemoryNearCacheEvictionChecker
+        implements EvictionChecker {
+
+    private static final int ONE_HUNDRED = 100;
+
+    private final MaxSizePolicy maxSizePolicy;
+    private final int maxSize;
+    private final UnsafeMallocMemoryManager memoryManager;
+    private final IntSupplier entryCount;
+    private final LongSupplier usedMemory;
+
+    public NativeMemoryNearCacheEvictionChecker(MaxSizePolicy maxSizePolicy, int size,
+                                                UnsafeMallocMemoryManager memoryManager,
+                                                IntSupplier entryCount, LongSupplier usedMemory) {
+        this.maxSizePolicy = maxSizePolicy;
+        this.maxSize = size;
+        this.memoryManager = memoryManager;
+        this.entryCount = entryCount;
+        this.usedMemory = usedMemory;
+    }
+
+    /**
+     * @return {@code true} if the given max-size policy can be used
+     * for Near Caches with {@code NATIVE} in-memory format
+     */
+    public static boolean isSupported(MaxSizePolicy maxSizePolicy) {
+        switch (maxSizePolicy) {
+            case ENTRY_COUNT:
+            case USED_NATIVE_MEMORY_SIZE:
+            case USED_NATIVE_MEMORY_PERCENTAGE:
+            case FREE_NATIVE_MEMORY_SIZE:
+            case FREE_NATIVE_MEMORY_PERCENTAGE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public boolean isEvictionRequired() {
+        switch (maxSizePolicy) {
+            case ENTRY_COUNT:
+                return entryCount.getAsInt() >= maxSize;
+            case USED_NATIVE_MEMORY_SIZE:
+                return usedMemory.getAsLong() > MEGABYTES.toBytes(maxSize);
+            case USED_NATIVE_MEMORY_PERCENTAGE:
+                return usedMemory.getAsLong() * ONE_HUNDRED / memoryManager.getCapacity() > maxSize;
+            case FREE_NATIVE_MEMORY_SIZE:
+                return memoryManager.getFreeMemory() < MEGABYTES.toBytes(maxSize);
+            case FREE_NATIVE_MEMORY_PERCENTAGE:
+                return memoryManager.getFreeMemory() * ONE_HUNDRED / memoryManager.getCapacity() < maxSize;
+            default:
+                throw new IllegalArgumentException("Not an appropriate max size policy [" + maxSizePolicy + ']');
+        }
+    }
+}
@@ -18,42 +18,65 @@ package com.hazelcast.internal.nearcache.impl.preloader;
 
 import com.hazelcast.config.NearCachePreloaderConfig;
 import com.hazelcast.internal.adapter.DataStructureAdapter;
+import com.hazelcast.internal.monitor.impl.NearCacheStatsImpl;
+import com.hazelcast.internal.nearcache.NearCacheRecord;
+import com.hazelcast.internal.nearcache.NearCacheRecordStore;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.internal.serialization.impl.HeapData;
-import com.hazelcast.internal.util.BufferingInputStream;
+import com.hazelcast.internal.util.Clock;
 import com.hazelcast.internal.util.Timer;
 import com.hazelcast.internal.util.collection.InflatableSet;
 import com.hazelcast.internal.util.collection.InflatableSet.Builder;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.logging.Logger;
 import com.hazelcast.memory.MemoryUnit;
-import com.hazelcast.internal.monitor.impl.NearCacheStatsImpl;
-import com.hazelcast.internal.serialization.Data;
-import com.hazelcast.internal.serialization.SerializationService;
 
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.HashSet;
 import java.util.Iterator;
-
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.hazelcast.internal.nearcache.NearCache.UpdateSemantic.READ_UPDATE;
+import static com.hazelcast.internal.nearcache.NearCacheRecord.NOT_RESERVED;
+import static com.hazelcast.internal.nearcache.NearCacheRecord.READ_PERMITTED;
+import static com.hazelcast.internal.nio.Bits.BYTE_SIZE_IN_BYTES;
 import static com.hazelcast.internal.nio.Bits.INT_SIZE_IN_BYTES;
-import static com.hazelcast.internal.nio.Bits.readIntB;
-import static com.hazelcast.internal.nio.Bits.writeIntB;
+import static com.hazelcast.internal.nio.Bits.LONG_SIZE_IN_BYTES;
 import static com.hazelcast.internal.nio.IOUtil.closeResource;
 import static com.hazelcast.internal.nio.IOUtil.deleteQuietly;
 import static com.hazelcast.internal.nio.IOUtil.getPath;
-import static com.hazelcast.internal.nio.IOUtil.readFullyOrNothing;
 import static com.hazelcast.internal.nio.IOUtil.rename;
 import static com.hazelcast.internal.nio.IOUtil.toFileName;
-import static com.hazelcast.internal.util.JVMUtil.upcast;
+import static com.hazelcast.internal.serialization.impl.HeapData.HEAP_DATA_OVERHEAD;
 import static com.hazelcast.internal.util.StringUtil.isNullOrEmpty;
 import static java.lang.String.format;
-import static java.nio.ByteBuffer.allocate;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
 
 /**
- * Loads and stores the keys from a Near Cache into a file.
+ * Loads and stores the entries of a Near Cache into a file.
+ * <p>
+ * The file is an append-only log of the keys, values and invalidation
+ * metadata of the Near Cache records. Each persistence appends only the
+ * records which changed since the previous one, and the file is compacted
+ * when the overwritten and removed entries outnumber the live ones.
+ * <p>
+ * On startup the file is memory-mapped. The log is deduplicated into the
+ * file offsets of the last put entry of every key, then the stored values
+ * whose invalidation metadata still matches the one of their partition are
+ * read from the mapping and put into the Near Cache directly, the other
+ * keys are fetched again.
  *
  * @param <K> type of the {@link com.hazelcast.internal.nearcache.NearCacheRecord} keys
  */
@@ -63,7 +86,14 @@ public class NearCachePreloader<K> {
      * File format for the file header.
      */
     private enum FileFormat {
-        INTERLEAVED_LENGTH_FIELD
+        /**
+         * Keys only, each one prefixed with its length.
+         */
+        INTERLEAVED_LENGTH_FIELD,
+        /**
+         * Put and remove entries, the last entry of a key wins.
+         */
+        ENTRY_LOG
     }
 
     /**
@@ -72,13 +102,22 @@ public class NearCachePreloader<K> {
     private static final int MAGIC_BYTES = 0xEA3CAC4E;
 
     /**
-     * Base-2 logarithm of buffer size.
+     * Entry type of a stored key with its value and invalidation metadata.
+     */
+    private static final byte PUT_ENTRY = 1;
+    /**
+     * Entry type of a key which is no longer stored.
      */
-    private static final int LOG_OF_BUFFER_SIZE = 16;
+    private static final byte REMOVE_ENTRY = 2;
     /**
-     * Buffer size used for file I/O. Invariant: buffer size is a power of two.
+     * Size of the invalidation sequence, the partition UUID and the value length of a put entry.
      */
-    private static final int BUFFER_SIZE = 1 << LOG_OF_BUFFER_SIZE;
+    private static final int PUT_ENTRY_METADATA_SIZE = 3 * LONG_SIZE_IN_BYTES + INT_SIZE_IN_BYTES;
+
+    /**
+     * Buffer size used for file I/O.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
 
     /**
      * Batch size for the pre-loader.
@@ -86,9 +125,9 @@ public class NearCachePreloader<K> {
     private static final int LOAD_BATCH_SIZE = 100;
 
     private final ILogger logger = Logger.getLogger(NearCachePreloader.class);
-    private final byte[] tmpBytes = new byte[INT_SIZE_IN_BYTES];
 
     private final String nearCacheName;
+    private final boolean serializeKeys;
     private final NearCacheStatsImpl nearCacheStats;
     private final SerializationService serializationService;
 
@@ -96,13 +135,22 @@ public class NearCachePreloader<K> {
     private final File storeFile;
     private final File tmpStoreFile;
 
-    private ByteBuffer buf;
-    private int lastWrittenBytes;
-    private int lastKeyCount;
+    private final Set<K> dirtyKeys = ConcurrentHashMap.newKeySet();
+    private volatile boolean trackingChanges;
+    private volatile boolean rewriteRequired;
+
+    // only accessed by the thread which stores the keys
+    private Set<K> storedKeys;
+    private long storedEntryCount;
 
-    public NearCachePreloader(String nearCacheName, NearCachePreloaderConfig preloaderConfig,
+    /**
+     * @param serializeKeys {@code true} if the keys of the Near Cache are
+     *                      {@link Data}, {@code false} if they are objects
+     */
+    public NearCachePreloader(String nearCacheName, NearCachePreloaderConfig preloaderConfig, boolean serializeKeys,
                               NearCacheStatsImpl nearCacheStats, SerializationService serializationService) {
         this.nearCacheName = nearCacheName;
+        this.serializeKeys = serializeKeys;
         this.nearCacheStats = nearCacheStats;
         this.serializationService = serializationService;
 
@@ -117,11 +165,35 @@ public class NearCachePreloader<K> {
     }
 
     /**
-     * Loads the values via a stored key file into the supplied {@link DataStructureAdapter}.
+     * Marks the key as changed, so that its record is stored with the next persistence.
      *
-     * @param adapter the {@link DataStructureAdapter} to load the values from
+     * @param key the key of the added, updated or removed record
+     */
+    public void markDirty(K key) {
+        // all keys are written with the first persistence anyway
+        if (trackingChanges) {
+            dirtyKeys.add(key);
+        }
+    }
+
+    /**
+     * Marks all keys as changed, so that the next persistence rewrites the file.
      */
-    public void loadKeys(DataStructureAdapter<Object, ?> adapter) {
+    public void markCleared() {
+        rewriteRequired = true;
+    }
+
+    /**
+     * Loads the entries of the stored file into the supplied {@link NearCacheRecordStore}.
+     * <p>
+     * The values of the keys which were stored without a value or whose
+     * invalidation metadata is stale are loaded via the supplied
+     * {@link DataStructureAdapter}.
+     *
+     * @param adapter     the {@link DataStructureAdapter} to load the values from
+     * @param recordStore the {@link NearCacheRecordStore} to put the fresh stored values to
+     */
+    public void loadKeys(DataStructureAdapter<Object, ?> adapter, NearCacheRecordStore<K, ?> recordStore) {
         if (!storeFile.exists()) {
             logger.info(format("Skipped loading keys of Near Cache %s since storage file doesn't exist (%s)", nearCacheName,
                     storeFile.getAbsolutePath()));
@@ -129,166 +201,305 @@ public class NearCachePreloader<K> {
         }
 
         long startedNanos = Timer.nanos();
-        BufferingInputStream bis = null;
+        FileChannel channel = null;
         try {
-            bis = new BufferingInputStream(new FileInputStream(storeFile), BUFFER_SIZE);
-            if (!checkHeader(bis)) {
+            channel = FileChannel.open(storeFile.toPath(), READ);
+            MappedFileReader reader = new MappedFileReader(channel);
+            FileFormat fileFormat = readHeader(reader);
+            if (fileFormat == null) {
                 return;
             }
 
-            int loadedKeys = loadKeySet(bis, adapter);
+            Map<Data, Long> entries = fileFormat == FileFormat.ENTRY_LOG
+                    ? readEntryLog(reader) : readKeySet(reader);
+            int putKeys = loadEntries(entries, reader, adapter, recordStore);
 
             long elapsedMillis = Timer.millisElapsed(startedNanos);
-            logger.info(format("Loaded %d keys of Near Cache %s in %d ms", loadedKeys, nearCacheName, elapsedMillis));
+            logger.info(format("Loaded %d keys of Near Cache %s in %d ms (%d stored values, %d fetched values)",
+                    entries.size(), nearCacheName, elapsedMillis, putKeys, entries.size() - putKeys));
         } catch (Exception e) {
             logger.warning(format("Could not pre-load Near Cache %s (%s)", nearCacheName, storeFile.getAbsolutePath()), e);
         } finally {
-            closeResource(bis);
+            closeResource(channel);
         }
     }
 
-    private boolean checkHeader(BufferingInputStream bis) throws IOException {
-        int magicBytes = readInt(bis);
-        if (magicBytes != MAGIC_BYTES) {
+    private FileFormat readHeader(MappedFileReader reader) throws IOException {
+        if (!reader.ensure(2 * INT_SIZE_IN_BYTES) || reader.buffer().getInt() != MAGIC_BYTES) {
             logger.warning(format("Found invalid header for Near Cache %s (%s)", nearCacheName, storeFile.getAbsolutePath()));
-            return false;
+            return null;
         }
-        int fileFormat = readInt(bis);
+        int fileFormat = reader.buffer().getInt();
         if (fileFormat < 0 || fileFormat > FileFormat.values().length - 1) {
             logger.warning(format("Found invalid file format for Near Cache %s (%s)", nearCacheName,
                     storeFile.getAbsolutePath()));
+            return null;
+        }
+        return FileFormat.values()[fileFormat];
+    }
+
+    private static Map<Data, Long> readKeySet(MappedFileReader reader) throws IOException {
+        Map<Data, Long> entries = new LinkedHashMap<>();
+        while (reader.ensure(INT_SIZE_IN_BYTES)) {
+            Data key = reader.readData();
+            if (key == null) {
+                break;
+            }
+            entries.put(key, null);
+        }
+        return entries;
+    }
+
+    /**
+     * @return the stored keys mapped to the file offset of the invalidation
+     * metadata and the value of their last put entry
+     */
+    private Map<Data, Long> readEntryLog(MappedFileReader reader) throws IOException {
+        Map<Data, Long> entries = new LinkedHashMap<>();
+        while (reader.ensure(BYTE_SIZE_IN_BYTES + INT_SIZE_IN_BYTES)) {
+            byte entryType = reader.buffer().get();
+            Data key = entryType == PUT_ENTRY || entryType == REMOVE_ENTRY ? reader.readData() : null;
+            if (key == null) {
+                break;
+            }
+            if (entryType == REMOVE_ENTRY) {
+                entries.remove(key);
+                continue;
+            }
+            long offset = reader.position();
+            if (!reader.ensure(PUT_ENTRY_METADATA_SIZE)) {
+                break;
+            }
+            reader.skip(PUT_ENTRY_METADATA_SIZE - INT_SIZE_IN_BYTES);
+            if (!reader.skipData()) {
+                break;
+            }
+            // the entry is re-inserted, so that the keys stay in the order they were stored last
+            entries.remove(key);
+            entries.put(key, offset);
+        }
+        if (reader.hasRemaining()) {
+            // e.g. an entry which was partially written during a crash
+            logger.warning(format("Skipped the invalid end of the storage file of Near Cache %s (%s)", nearCacheName,
+                    storeFile.getAbsolutePath()));
+        }
+        return entries;
+    }
+
+    private int loadEntries(Map<Data, Long> entries, MappedFileReader reader, DataStructureAdapter<Object, ?> adapter,
+                            NearCacheRecordStore<K, ?> recordStore) throws IOException {
+        int putKeys = 0;
+        Builder<Object> builder = InflatableSet.newBuilder(LOAD_BATCH_SIZE);
+        for (Map.Entry<Data, Long> entry : entries.entrySet()) {
+            Data key = entry.getKey();
+            Long offset = entry.getValue();
+            StoredEntry storedEntry = offset != null ? readStoredEntry(reader, offset) : null;
+            if (storedEntry != null && putIfFresh(recordStore, key, storedEntry)) {
+                putKeys++;
+                continue;
+            }
+            builder.add(serializationService.toObject(key));
+            if (builder.size() == LOAD_BATCH_SIZE) {
+                adapter.getAll(builder.build());
+                builder = InflatableSet.newBuilder(LOAD_BATCH_SIZE);
+            }
+        }
+        if (builder.size() > 0) {
+            adapter.getAll(builder.build());
+        }
+        return putKeys;
+    }
+
+    /**
+     * @return the invalidation metadata and the value at the given file offset,
+     * {@code null} if they are truncated
+     */
+    private static StoredEntry readStoredEntry(MappedFileReader reader, long offset) throws IOException {
+        reader.seek(offset);
+        if (!reader.ensure(PUT_ENTRY_METADATA_SIZE)) {
+            return null;
+        }
+        long sequence = reader.buffer().getLong();
+        UUID uuid = new UUID(reader.buffer().getLong(), reader.buffer().getLong());
+        Data value = reader.readData();
+        return value == null ? null : new StoredEntry(value, sequence, uuid);
+    }
+
+    /**
+     * Puts the stored value into the Near Cache, if no invalidation has been
+     * seen for its partition since it was stored.
+     * <p>
+     * The record is reserved before its invalidation metadata is compared,
+     * so that an invalidation which arrives in between removes the reservation.
+     *
+     * @return {@code true} if the stored value was put, {@code false} if it has to be fetched
+     */
+    @SuppressWarnings("unchecked")
+    private boolean putIfFresh(NearCacheRecordStore<K, ?> recordStore, Data keyData, StoredEntry storedEntry) {
+        NearCacheRecordStore<K, Object> store = (NearCacheRecordStore<K, Object>) recordStore;
+        K key = serializeKeys ? (K) keyData : serializationService.toObject(keyData);
+
+        store.doEviction(false);
+        long reservationId = store.tryReserveForUpdate(key, keyData, READ_UPDATE);
+        if (reservationId == NOT_RESERVED) {
+            return false;
+        }
+        NearCacheRecord record = store.getRecord(key);
+        if (record == null || record.getReservationId() != reservationId) {
             return false;
         }
+        if (!record.hasSameUuid(storedEntry.uuid) || record.getInvalidationSequence() > storedEntry.sequence) {
+            store.invalidate(key);
+            return false;
+        }
+        store.tryPublishReserved(key, storedEntry.value, reservationId, false);
         return true;
     }
 
     /**
-     * Stores the Near Cache keys from the supplied iterator.
+     * Stores the records of the Near Cache which changed since the last persistence.
      *
-     * @param iterator {@link Iterator} over the key set of a {@link com.hazelcast.internal.nearcache.NearCacheRecordStore}
+     * @param iterator    {@link Iterator} over the key set of the supplied {@link NearCacheRecordStore},
+     *                    used when the whole file is rewritten
+     * @param recordStore the {@link NearCacheRecordStore} to read the records from
      */
-    public void storeKeys(Iterator<K> iterator) {
+    public void storeKeys(Iterator<K> iterator, NearCacheRecordStore<K, ?> recordStore) {
         long startedNanos = Timer.nanos();
-        FileOutputStream fos = null;
         try {
-            buf = allocate(BUFFER_SIZE);
-            lastWrittenBytes = 0;
-            lastKeyCount = 0;
-
-            fos = new FileOutputStream(tmpStoreFile, false);
-
-            // write header and keys
-            writeInt(fos, MAGIC_BYTES);
-            writeInt(fos, FileFormat.INTERLEAVED_LENGTH_FIELD.ordinal());
-            writeKeySet(fos, fos.getChannel(), iterator);
-
-            // cleanup if no keys have been written
-            if (lastKeyCount == 0) {
-                deleteQuietly(storeFile);
-                updatePersistenceStats(startedNanos);
-                return;
-            }
-
-            fos.flush();
-            closeResource(fos);
-            rename(tmpStoreFile, storeFile);
+            int writtenKeys = isRewriteRequired()
+                    ? rewrite(iterator, recordStore)
+                    : appendChanges(recordStore);
 
-            updatePersistenceStats(startedNanos);
+            updatePersistenceStats(startedNanos, writtenKeys);
         } catch (Exception e) {
             logger.warning(format("Could not store keys of Near Cache %s (%s)", nearCacheName, storeFile.getAbsolutePath()), e);
 
+            // the file might end with a partially written entry, so it's rewritten with the next persistence
+            trackingChanges = false;
+            storedKeys = null;
+            dirtyKeys.clear();
             nearCacheStats.addPersistenceFailure(e);
-        } finally {
-            closeResource(fos);
-            deleteQuietly(tmpStoreFile);
         }
     }
 
-    private void updatePersistenceStats(long startedNanos) {
-        long elapsedMillis = Timer.millisElapsed(startedNanos);
-        nearCacheStats.addPersistence(elapsedMillis, lastWrittenBytes, lastKeyCount);
-
-        logger.info(format("Stored %d keys of Near Cache %s in %d ms (%d kB)", lastKeyCount, nearCacheName, elapsedMillis,
-                MemoryUnit.BYTES.toKiloBytes(lastWrittenBytes)));
+    private boolean isRewriteRequired() {
+        // the first persistence rewrites the file, since it can contain keys which have not been loaded
+        return storedKeys == null
+                || rewriteRequired
+                || !storeFile.exists()
+                || storedEntryCount - storedKeys.size() > storedKeys.size();
     }
 
-    private int loadKeySet(BufferingInputStream bis, DataStructureAdapter<Object, ?> adapter) throws IOException {
-        int loadedKeys = 0;
+    private int rewrite(Iterator<K> iterator, NearCacheRecordStore<K, ?> recordStore) throws IOException {
+        rewriteRequired = false;
+        dirtyKeys.clear();
+        trackingChanges = true;
 
-        Builder<Object> builder = InflatableSet.newBuilder(LOAD_BATCH_SIZE);
-        while (readFullyOrNothing(bis, tmpBytes)) {
-            int dataSize = readIntB(tmpBytes, 0);
-            byte[] payload = new byte[dataSize];
-            if (!readFullyOrNothing(bis, payload)) {
-                break;
+        Set<K> keys = new HashSet<>();
+        DataOutputStream out = null;
+        try {
+            out = newOutputStream(tmpStoreFile, false);
+            out.writeInt(MAGIC_BYTES);
+            out.writeInt(FileFormat.ENTRY_LOG.ordinal());
+            while (iterator.hasNext()) {
+                K key = iterator.next();
+                if (writePutEntry(out, key, recordStore)) {
+                    keys.add(key);
+                }
             }
-            Data key = new HeapData(payload);
-            builder.add(serializationService.toObject(key));
-            if (builder.size() == LOAD_BATCH_SIZE) {
-                adapter.getAll(builder.build());
-                builder = InflatableSet.newBuilder(LOAD_BATCH_SIZE);
+            out.flush();
+            closeResource(out);
+
+            // cleanup if no keys have been written
+            if (keys.isEmpty()) {
+                deleteQuietly(storeFile);
+            } else {
+                rename(tmpStoreFile, storeFile);
             }
-            loadedKeys++;
-        }
-        if (builder.size() > 0) {
-            adapter.getAll(builder.build());
+        } finally {
+            closeResource(out);
+            deleteQuietly(tmpStoreFile);
         }
-        return loadedKeys;
+        storedKeys = keys;
+        storedEntryCount = keys.size();
+        return keys.size();
     }
 
-    private void writeKeySet(FileOutputStream fos, FileChannel outChannel, Iterator<K> iterator) throws IOException {
-        while (iterator.hasNext()) {
-            K key = iterator.next();
-            Data dataKey = serializationService.toData(key);
-            if (dataKey != null) {
-                int dataSize = dataKey.totalSize();
-                writeInt(fos, dataSize);
-
-                int position = 0;
-                int remaining = dataSize;
-                while (remaining > 0) {
-                    int transferredCount = Math.min(BUFFER_SIZE - buf.position(), remaining);
-                    ensureBufHasRoom(fos, transferredCount);
-                    buf.put(dataKey.toByteArray(), position, transferredCount);
-                    position += transferredCount;
-                    remaining -= transferredCount;
+    private int appendChanges(NearCacheRecordStore<K, ?> recordStore) throws IOException {
+        if (dirtyKeys.isEmpty()) {
+            return 0;
+        }
+        int writtenKeys = 0;
+        DataOutputStream out = null;
+        try {
+            out = newOutputStream(storeFile, true);
+            Iterator<K> iterator = dirtyKeys.iterator();
+            while (iterator.hasNext()) {
+                K key = iterator.next();
+                // removed before the record is read, so a concurrent change marks the key again
+                iterator.remove();
+                if (writePutEntry(out, key, recordStore)) {
+                    storedKeys.add(key);
+                } else if (storedKeys.remove(key)) {
+                    out.writeByte(REMOVE_ENTRY);
+                    writeData(out, serializationService.toData(key));
+                } else {
+                    continue;
                 }
-
-                lastWrittenBytes += INT_SIZE_IN_BYTES + dataSize;
-                lastKeyCount++;
+                storedEntryCount++;
+                writtenKeys++;
             }
-            flushLocalBuffer(outChannel);
+            out.flush();
+        } finally {
+            closeResource(out);
         }
+        return writtenKeys;
     }
 
-    private int readInt(BufferingInputStream bis) throws IOException {
-        readFullyOrNothing(bis, tmpBytes);
-        return readIntB(tmpBytes, 0);
+    /**
+     * @return {@code true} if a put entry was written, {@code false} if the key has no readable value
+     */
+    private boolean writePutEntry(DataOutputStream out, K key, NearCacheRecordStore<K, ?> recordStore) throws IOException {
+        NearCacheRecord record = recordStore.getRecord(key);
+        if (record == null || record.isExpiredAt(Clock.currentTimeMillis())) {
+            return false;
+        }
+        if (record.getReservationId() != READ_PERMITTED) {
+            // the record is being updated, so its new value is stored with the next persistence
+            dirtyKeys.add(key);
+            return false;
+        }
+        Object value = record.getValue();
+        if (value == null) {
+            return false;
+        }
+        UUID uuid = record.getUuid();
+        out.writeByte(PUT_ENTRY);
+        writeData(out, serializationService.toData(key));
+        out.writeLong(record.getInvalidationSequence());
+        out.writeLong(uuid == null ? 0 : uuid.getMostSignificantBits());
+        out.writeLong(uuid == null ? 0 : uuid.getLeastSignificantBits());
+        writeData(out, serializationService.toData(value));
+        return true;
     }
 
-    private void writeInt(FileOutputStream fos, int dataSize) throws IOException {
-        ensureBufHasRoom(fos, INT_SIZE_IN_BYTES);
-        writeIntB(tmpBytes, 0, dataSize);
-        buf.put(tmpBytes);
+    private void updatePersistenceStats(long startedNanos, int writtenKeys) {
+        long elapsedMillis = Timer.millisElapsed(startedNanos);
+        int keyCount = storedKeys.size();
+        int fileSize = (int) Math.min(storeFile.length(), Integer.MAX_VALUE);
+        nearCacheStats.addPersistence(elapsedMillis, fileSize, keyCount);
+
+        logger.info(format("Stored %d changed keys of Near Cache %s in %d ms (%d keys, %d kB)", writtenKeys, nearCacheName,
+                elapsedMillis, keyCount, MemoryUnit.BYTES.toKiloBytes(fileSize)));
     }
 
-    private void ensureBufHasRoom(FileOutputStream fos, int expectedSize) throws IOException {
-        if (buf.position() < BUFFER_SIZE - expectedSize) {
-            return;
-        }
-        fos.write(buf.array());
-        upcast(buf).position(0);
+    private static DataOutputStream newOutputStream(File file, boolean append) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, append), BUFFER_SIZE));
     }
 
-    private void flushLocalBuffer(FileChannel outChannel) throws IOException {
-        if (buf.position() == 0) {
-            return;
-        }
-        upcast(buf).flip();
-        while (buf.hasRemaining()) {
-            outChannel.write(buf);
-        }
-        upcast(buf).clear();
+    private static void writeData(DataOutputStream out, Data data) throws IOException {
+        out.writeInt(data.totalSize());
+        out.write(data.toByteArray());
     }
 
     private static String getFilename(String directory, String nearCacheName) {
@@ -298,4 +509,127 @@ public class NearCachePreloader<K> {
         }
         return getPath(directory, filename);
     }
+
+    /**
+     * A value with the invalidation metadata it was stored with.
+     */
+    private static final class StoredEntry {
+
+        private final Data value;
+        private final long sequence;
+        private final UUID uuid;
+
+        StoredEntry(Data value, long sequence, UUID uuid) {
+            this.value = value;
+            this.sequence = sequence;
+            this.uuid = uuid;
+        }
+    }
+
+    /**
+     * Reads a file sequentially via read-only mappings, remapping the file
+     * from the current position when the next field exceeds the mapped region.
+     */
+    private static final class MappedFileReader {
+
+        private final FileChannel channel;
+        private final long size;
+
+        private long regionStart;
+        private MappedByteBuffer region;
+
+        MappedFileReader(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+        }
+
+        MappedByteBuffer buffer() {
+            return region;
+        }
+
+        boolean hasRemaining() {
+            return position() < size;
+        }
+
+        long position() {
+            return region == null ? 0 : regionStart + region.position();
+        }
+
+        /**
+         * Moves to the given position of the file, the mapped region is kept if it contains it.
+         */
+        void seek(long position) throws IOException {
+            if (region != null && position >= regionStart && position - regionStart <= region.limit()) {
+                region.position((int) (position - regionStart));
+                return;
+            }
+            regionStart = position;
+            region = channel.map(READ_ONLY, position, Math.min(size - position, Integer.MAX_VALUE));
+        }
+
+        /**
+         * Skips the given number of bytes, which must have been {@link #ensure(int) ensured}.
+         */
+        void skip(int length) {
+            region.position(region.position() + length);
+        }
+
+        /**
+         * @return {@code true} if the next {@code length} bytes can be read, {@code false} if the file ends before
+         */
+        boolean ensure(int length) throws IOException {
+            long position = position();
+            if (length < 0 || size - position < length) {
+                return false;
+            }
+            if (region == null || region.remaining() < length) {
+                regionStart = position;
+                region = channel.map(READ_ONLY, position, Math.min(size - position, Integer.MAX_VALUE));
+            }
+            return true;
+        }
+
+        /**
+         * @return the next length prefixed {@link Data}, {@code null} if it is truncated
+         */
+        Data readData() throws IOException {
+            int length = ensureData();
+            if (length < 0) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            region.get(payload);
+            return new HeapData(payload);
+        }
+
+        /**
+         * Skips the next length prefixed {@link Data} without copying it.
+         *
+         * @return {@code false} if it is truncated
+         */
+        boolean skipData() throws IOException {
+            int length = ensureData();
+            if (length < 0) {
+                return false;
+            }
+            skip(length);
+            return true;
+        }
+
+        /**
+         * Reads the length prefix of the next {@link Data} and ensures its payload can be read.
+         *
+         * @return the length of the payload, {@code -1} if it is truncated
+         */
+        private int ensureData() throws IOException {
+            if (!ensure(INT_SIZE_IN_BYTES)) {
+                return -1;
+            }
+            int length = region.getInt();
+            if (length > 0 && length < HEAP_DATA_OVERHEAD || !ensure(length)) {
+                return -1;
+            }
+            return length;
+        }
+    }
 }
@@ -0,0 +1,358 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.nearcache.impl.record;
+
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.nearcache.NearCacheRecord;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.impl.HeapData;
+
+import java.util.UUID;
+
+import static com.hazelcast.internal.memory.MemoryAllocator.NULL_ADDRESS;
+import static com.hazelcast.internal.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.internal.nio.Bits.LONG_SIZE_IN_BYTES;
+
+/**
+ * Flyweight {@link NearCacheRecord} over a block of native memory, used by
+ * Near Caches with {@link com.hazelcast.config.InMemoryFormat#NATIVE NATIVE}
+ * in-memory format.
+ * <p>
+ * The block holds the metadata of the record followed by the key blob; the
+ * value blob lives in a separate block which is owned by the record, so the
+ * record block never moves when its value is updated.
+ * <p>
+ * A flyweight is only valid while the lock guarding the block is held: the
+ * block may be freed as soon as the lock is released.
+ */
+@SuppressWarnings("checkstyle:methodcount")
+public final class NativeNearCacheRecord implements NearCacheRecord<Data> {
+
+    /**
+     * Allocates and frees the native memory blocks of the records.
+     */
+    public interface BlockAllocator {
+
+        MemoryAccessor getAccessor();
+
+        long allocate(long size);
+
+        void free(long address, long size);
+    }
+
+    static final int NEXT_OFFSET = 0;
+    static final int KEY_HASH_OFFSET = NEXT_OFFSET + LONG_SIZE_IN_BYTES;
+    static final int VALUE_ADDRESS_OFFSET = KEY_HASH_OFFSET + LONG_SIZE_IN_BYTES;
+    static final int CREATION_TIME_OFFSET = VALUE_ADDRESS_OFFSET + LONG_SIZE_IN_BYTES;
+    static final int EXPIRATION_TIME_OFFSET = CREATION_TIME_OFFSET + LONG_SIZE_IN_BYTES;
+    static final int LAST_ACCESS_TIME_OFFSET = EXPIRATION_TIME_OFFSET + LONG_SIZE_IN_BYTES;
+    static final int RESERVATION_ID_OFFSET = LAST_ACCESS_TIME_OFFSET + LONG_SIZE_IN_BYTES;
+    static final int SEQUENCE_OFFSET = RESERVATION_ID_OFFSET + LONG_SIZE_IN_BYTES;
+    static final int UUID_MSB_OFFSET = SEQUENCE_OFFSET + LONG_SIZE_IN_BYTES;
+    static final int UUID_LSB_OFFSET = UUID_MSB_OFFSET + LONG_SIZE_IN_BYTES;
+    static final int VALUE_SIZE_OFFSET = UUID_LSB_OFFSET + LONG_SIZE_IN_BYTES;
+    static final int KEY_SIZE_OFFSET = VALUE_SIZE_OFFSET + INT_SIZE_IN_BYTES;
+    static final int HITS_OFFSET = KEY_SIZE_OFFSET + INT_SIZE_IN_BYTES;
+    static final int PARTITION_ID_OFFSET = HITS_OFFSET + INT_SIZE_IN_BYTES;
+    static final int FLAGS_OFFSET = PARTITION_ID_OFFSET + INT_SIZE_IN_BYTES;
+    static final int KEY_OFFSET = FLAGS_OFFSET + INT_SIZE_IN_BYTES;
+
+    private static final int CACHED_AS_NULL_FLAG = 1;
+    private static final int HAS_UUID_FLAG = 2;
+
+    private final BlockAllocator allocator;
+    private final MemoryAccessor mem;
+    private final long address;
+
+    private NativeNearCacheRecord(BlockAllocator allocator, long address) {
+        this.allocator = allocator;
+        this.mem = allocator.getAccessor();
+        this.address = address;
+    }
+
+    /**
+     * Allocates a new record for the given key, without a value.
+     */
+    public static NativeNearCacheRecord newRecord(BlockAllocator allocator, Data key,
+                                                  long creationTime, long expirationTime) {
+        int keySize = key.totalSize();
+        long address = allocator.allocate(KEY_OFFSET + keySize);
+        MemoryAccessor mem = allocator.getAccessor();
+        mem.putLong(address + KEY_HASH_OFFSET, key.hash64());
+        mem.putLong(address + CREATION_TIME_OFFSET, creationTime);
+        mem.putLong(address + EXPIRATION_TIME_OFFSET, expirationTime);
+        mem.putLong(address + LAST_ACCESS_TIME_OFFSET, TIME_NOT_SET);
+        mem.putLong(address + RESERVATION_ID_OFFSET, READ_PERMITTED);
+        mem.putInt(address + KEY_SIZE_OFFSET, keySize);
+        byte[] bytes = key.toByteArray();
+        mem.copyFromByteArray(bytes, 0, address + KEY_OFFSET, keySize);
+        return new NativeNearCacheRecord(allocator, address);
+    }
+
+    /**
+     * Returns a flyweight for the record at the given address.
+     */
+    public static NativeNearCacheRecord recordAt(BlockAllocator allocator, long address) {
+        return new NativeNearCacheRecord(allocator, address);
+    }
+
+    public long address() {
+        return address;
+    }
+
+    /**
+     * Frees the record together with its value.
+     */
+    public void free() {
+        freeValue();
+        allocator.free(address, KEY_OFFSET + mem.getInt(address + KEY_SIZE_OFFSET));
+    }
+
+    /**
+     * @return the number of bytes of native memory used by this record
+     */
+    public long getCost() {
+        return KEY_OFFSET + mem.getInt(address + KEY_SIZE_OFFSET) + mem.getInt(address + VALUE_SIZE_OFFSET);
+    }
+
+    /**
+     * @return an on-heap copy of the key
+     */
+    public Data getKey() {
+        return readData(address + KEY_OFFSET, mem.getInt(address + KEY_SIZE_OFFSET));
+    }
+
+    /**
+     * @return the {@link Data#hash64()} of the key
+     */
+    public long getKeyHash() {
+        return mem.getLong(address + KEY_HASH_OFFSET);
+    }
+
+    public boolean keyEquals(Data key) {
+        int keySize = mem.getInt(address + KEY_SIZE_OFFSET);
+        if (getKeyHash() != key.hash64() || keySize != key.totalSize()) {
+            return false;
+        }
+        byte[] bytes = key.toByteArray();
+        long keyAddress = address + KEY_OFFSET;
+        for (int i = 0; i < keySize; i++) {
+            if (mem.getByte(keyAddress + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the address of the next record in the collision chain,
+     * {@code NULL_ADDRESS} if this is the last one
+     */
+    public long getNext() {
+        return mem.getLong(address + NEXT_OFFSET);
+    }
+
+    public void setNext(long next) {
+        mem.putLong(address + NEXT_OFFSET, next);
+    }
+
+    public boolean hasValue() {
+        return mem.getLong(address + VALUE_ADDRESS_OFFSET) != NULL_ADDRESS;
+    }
+
+    /**
+     * @return an on-heap copy of the value or {@code null} if there is no value
+     */
+    @Override
+    public Data getValue() {
+        long valueAddress = mem.getLong(address + VALUE_ADDRESS_OFFSET);
+        return valueAddress == NULL_ADDRESS ? null : readData(valueAddress, mem.getInt(address + VALUE_SIZE_OFFSET));
+    }
+
+    @Override
+    public void setValue(Data value) {
+        long valueAddress = NULL_ADDRESS;
+        int valueSize = 0;
+        if (value != null) {
+            // allocate first, so that a failed allocation leaves the record intact
+            valueSize = value.totalSize();
+            valueAddress = allocator.allocate(valueSize);
+            mem.copyFromByteArray(value.toByteArray(), 0, valueAddress, valueSize);
+        }
+        freeValue();
+        mem.putLong(address + VALUE_ADDRESS_OFFSET, valueAddress);
+        mem.putInt(address + VALUE_SIZE_OFFSET, valueSize);
+    }
+
+    @Override
+    public long getCreationTime() {
+        return mem.getLong(address + CREATION_TIME_OFFSET);
+    }
+
+    @Override
+    public void setCreationTime(long time) {
+        mem.putLong(address + CREATION_TIME_OFFSET, time);
+    }
+
+    @Override
+    public long getExpirationTime() {
+        return mem.getLong(address + EXPIRATION_TIME_OFFSET);
+    }
+
+    @Override
+    public void setExpirationTime(long time) {
+        mem.putLong(address + EXPIRATION_TIME_OFFSET, time);
+    }
+
+    @Override
+    public long getLastAccessTime() {
+        return mem.getLong(address + LAST_ACCESS_TIME_OFFSET);
+    }
+
+    @Override
+    public void setLastAccessTime(long time) {
+        mem.putLong(address + LAST_ACCESS_TIME_OFFSET, time);
+    }
+
+    @Override
+    public long getHits() {
+        return mem.getInt(address + HITS_OFFSET);
+    }
+
+    @Override
+    public void setHits(int hits) {
+        mem.putInt(address + HITS_OFFSET, hits);
+    }
+
+    @Override
+    public void incrementHits() {
+        mem.putInt(address + HITS_OFFSET, mem.getInt(address + HITS_OFFSET) + 1);
+    }
+
+    @Override
+    public long getReservationId() {
+        return mem.getLong(address + RESERVATION_ID_OFFSET);
+    }
+
+    @Override
+    public void setReservationId(long reservationId) {
+        mem.putLong(address + RESERVATION_ID_OFFSET, reservationId);
+    }
+
+    @Override
+    public int getPartitionId() {
+        return mem.getInt(address + PARTITION_ID_OFFSET);
+    }
+
+    @Override
+    public void setPartitionId(int partitionId) {
+        mem.putInt(address + PARTITION_ID_OFFSET, partitionId);
+    }
+
+    @Override
+    public long getInvalidationSequence() {
+        return mem.getLong(address + SEQUENCE_OFFSET);
+    }
+
+    @Override
+    public void setInvalidationSequence(long sequence) {
+        mem.putLong(address + SEQUENCE_OFFSET, sequence);
+    }
+
+    @Override
+    public void setUuid(UUID uuid) {
+        int flags = mem.getInt(address + FLAGS_OFFSET);
+        if (uuid == null) {
+            mem.putInt(address + FLAGS_OFFSET, flags & ~HAS_UUID_FLAG);
+            return;
+        }
+        mem.putLong(address + UUID_MSB_OFFSET, uuid.getMostSignificantBits());
+        mem.putLong(address + UUID_LSB_OFFSET, uuid.getLeastSignificantBits());
+        mem.putInt(address + FLAGS_OFFSET, flags | HAS_UUID_FLAG);
+    }
+
+    @Override
+    public UUID getUuid() {
+        if ((mem.getInt(address + FLAGS_OFFSET) & HAS_UUID_FLAG) == 0) {
+            return null;
+        }
+        return new UUID(mem.getLong(address + UUID_MSB_OFFSET), mem.getLong(address + UUID_LSB_OFFSET));
+    }
+
+    @Override
+    public boolean hasSameUuid(UUID uuid) {
+        return uuid != null
+                && (mem.getInt(address + FLAGS_OFFSET) & HAS_UUID_FLAG) != 0
+                && mem.getLong(address + UUID_MSB_OFFSET) == uuid.getMostSignificantBits()
+                && mem.getLong(address + UUID_LSB_OFFSET) == uuid.getLeastSignificantBits();
+    }
+
+    @Override
+    public boolean isCachedAsNull() {
+        return (mem.getInt(address + FLAGS_OFFSET) & CACHED_AS_NULL_FLAG) != 0;
+    }
+
+    @Override
+    public void setCachedAsNull(boolean valueCachedAsNull) {
+        int flags = mem.getInt(address + FLAGS_OFFSET);
+        mem.putInt(address + FLAGS_OFFSET, valueCachedAsNull ? flags | CACHED_AS_NULL_FLAG : flags & ~CACHED_AS_NULL_FLAG);
+    }
+
+    /**
+     * @return an on-heap copy of this record, which stays valid
+     * after the lock guarding this record is released
+     */
+    public NearCacheDataRecord copy() {
+        NearCacheDataRecord copy = copyWithoutValue();
+        copy.setValue(getValue());
+        return copy;
+    }
+
+    /**
+     * @return an on-heap copy of this record without the value, e.g. for
+     * the eviction comparators which only look at the access statistics
+     */
+    public NearCacheDataRecord copyWithoutValue() {
+        NearCacheDataRecord copy = new NearCacheDataRecord(null, getCreationTime(), getExpirationTime());
+        copy.setLastAccessTime(getLastAccessTime());
+        copy.setHits((int) getHits());
+        copy.setReservationId(getReservationId());
+        copy.setPartitionId(getPartitionId());
+        copy.setInvalidationSequence(getInvalidationSequence());
+        copy.setUuid(getUuid());
+        copy.setCachedAsNull(isCachedAsNull());
+        return copy;
+    }
+
+    private void freeValue() {
+        long valueAddress = mem.getLong(address + VALUE_ADDRESS_OFFSET);
+        if (valueAddress != NULL_ADDRESS) {
+            allocator.free(valueAddress, mem.getInt(address + VALUE_SIZE_OFFSET));
+        }
+    }
+
+    private Data readData(long dataAddress, int size) {
+        byte[] bytes = new byte[size];
+        mem.copyToByteArray(dataAddress, bytes, 0, size);
+        return new HeapData(bytes);
+    }
+
+    @Override
+    public String toString() {
+        return "NativeNearCacheRecord{address=" + address + '}';
+    }
+}
@@ -22,6 +22,8 @@ import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.NearCacheConfig;
 import com.hazelcast.internal.eviction.EvictionChecker;
 import com.hazelcast.internal.eviction.EvictionListener;
+import com.hazelcast.internal.eviction.impl.comparator.FrequencySketch;
+import com.hazelcast.internal.eviction.impl.comparator.TinyLFUEvictionPolicyComparator;
 import com.hazelcast.internal.eviction.impl.evaluator.EvictionPolicyEvaluator;
 import com.hazelcast.internal.eviction.impl.strategy.sampling.SamplingEvictionStrategy;
 import com.hazelcast.internal.monitor.impl.NearCacheStatsImpl;
@@ -35,6 +37,7 @@ import com.hazelcast.internal.serialization.Data;
 import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.internal.util.Clock;
 import com.hazelcast.nearcache.NearCacheStats;
+import com.hazelcast.spi.eviction.EvictionPolicyComparator;
 
 import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
@@ -79,6 +82,7 @@ public abstract class AbstractNearCacheRecordStore<K, V, KS, R extends NearCache
     protected EvictionChecker evictionChecker;
     protected SamplingEvictionStrategy<KS, R, NCRM> evictionStrategy;
     protected EvictionPolicyEvaluator<KS, R> evictionPolicyEvaluator;
+    protected FrequencySketch frequencySketch;
 
     protected volatile long reservationId;
     protected volatile StaleReadDetector staleReadDetector = ALWAYS_FRESH;
@@ -110,6 +114,10 @@ public abstract class AbstractNearCacheRecordStore<K, V, KS, R extends NearCache
         if (!evictionDisabled) {
             this.evictionStrategy = SamplingEvictionStrategy.INSTANCE;
             this.evictionPolicyEvaluator = getEvictionPolicyEvaluator(evictionConfig, classLoader);
+            EvictionPolicyComparator comparator = evictionPolicyEvaluator.getEvictionPolicyComparator();
+            if (comparator instanceof TinyLFUEvictionPolicyComparator) {
+                this.frequencySketch = ((TinyLFUEvictionPolicyComparator) comparator).getFrequencySketch();
+            }
         }
     }
 
@@ -225,6 +233,11 @@ public abstract class AbstractNearCacheRecordStore<K, V, KS, R extends NearCache
         R record = null;
         V value = null;
         try {
+            if (frequencySketch != null) {
+                // misses are recorded too, so that a key which is
+                // requested often gets admitted once it is cached
+                frequencySketch.increment(key.hashCode());
+            }
             record = getRecord(key);
 
             if (record == null) {
@@ -327,6 +340,11 @@ public abstract class AbstractNearCacheRecordStore<K, V, KS, R extends NearCache
         if (evictionDisabled) {
             return false;
         }
+        // runs before every put, the sketch grows with the
+        // Near Cache until eviction kicks in
+        if (frequencySketch != null) {
+            frequencySketch.ensureCapacity(records.size());
+        }
 
         EvictionChecker evictionChecker = withoutMaxSizeCheck ? null : this.evictionChecker;
         evictionStrategy.evict(records, evictionPolicyEvaluator, evictionChecker, this);
@@ -56,7 +56,8 @@ public abstract class BaseHeapNearCacheRecordStore<K, V, R extends NearCacheReco
 
         NearCachePreloaderConfig preloaderConfig = nearCacheConfig.getPreloaderConfig();
         this.nearCachePreloader = preloaderConfig.isEnabled()
-                ? new NearCachePreloader<>(name, preloaderConfig, nearCacheStats, serializationService) : null;
+                ? new NearCachePreloader<>(name, preloaderConfig, nearCacheConfig.isSerializeKeys(), nearCacheStats,
+                serializationService) : null;
     }
 
     @Override
@@ -100,6 +101,7 @@ public abstract class BaseHeapNearCacheRecordStore<K, V, R extends NearCacheReco
     public void onEvict(K key, R record, boolean wasExpired) {
         super.onEvict(key, record, wasExpired);
         nearCacheStats.decrementOwnedEntryMemoryCost(getTotalStorageMemoryCost(key, record));
+        markDirty(key);
     }
 
     @Override
@@ -117,14 +119,22 @@ public abstract class BaseHeapNearCacheRecordStore<K, V, R extends NearCacheReco
     @Override
     public void loadKeys(DataStructureAdapter<Object, ?> adapter) {
         if (nearCachePreloader != null) {
-            nearCachePreloader.loadKeys(adapter);
+            nearCachePreloader.loadKeys(adapter, this);
         }
     }
 
     @Override
     public void storeKeys() {
         if (nearCachePreloader != null) {
-            nearCachePreloader.storeKeys(records.keySet().iterator());
+            nearCachePreloader.storeKeys(records.keySet().iterator(), this);
+        }
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        if (nearCachePreloader != null) {
+            nearCachePreloader.markCleared();
         }
     }
 
@@ -141,6 +151,9 @@ public abstract class BaseHeapNearCacheRecordStore<K, V, R extends NearCacheReco
     public V tryPublishReserved(K key, V value, long reservationId, boolean deserialize) {
         R existingRecord = records.applyIfPresent(key,
                 (key1, reservedRecord) -> publishReservedRecord(key1, value, reservedRecord, reservationId));
+        if (existingRecord != null) {
+            markDirty(key);
+        }
 
         if (existingRecord == null || !deserialize) {
             return null;
@@ -193,10 +206,17 @@ public abstract class BaseHeapNearCacheRecordStore<K, V, R extends NearCacheReco
     @Override
     public void invalidate(K key) {
         records.applyIfPresent(key, invalidatorFunction);
+        markDirty(key);
 
         nearCacheStats.incrementInvalidationRequests();
     }
 
+    private void markDirty(K key) {
+        if (nearCachePreloader != null) {
+            nearCachePreloader.markDirty(key);
+        }
+    }
+
     private BiFunction<K, R, R> createInvalidatorFunction() {
         return (key, record) -> {
             if (canUpdateStats(record)) {
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.nearcache.impl.store;
+
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.memory.MemoryAllocator;
+import com.hazelcast.internal.memory.MemoryManager;
+import com.hazelcast.internal.nearcache.impl.record.NativeNearCacheRecord;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.util.hashslot.SlotAssignmentResult;
+import com.hazelcast.internal.util.hashslot.impl.HashSlotArray8byteKeyImpl;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static com.hazelcast.internal.memory.MemoryAllocator.NULL_ADDRESS;
+import static com.hazelcast.internal.nio.Bits.LONG_SIZE_IN_BYTES;
+import static com.hazelcast.internal.util.HashUtil.fastLongMix;
+
+/**
+ * Off-heap hash map of the records of a Near Cache with {@link
+ * com.hazelcast.config.InMemoryFormat#NATIVE NATIVE} in-memory format.
+ * <p>
+ * The map is split into segments by the hash of the serialized key. Each
+ * segment has a {@link HashSlotArray8byteKeyImpl} from the 64-bit hash of
+ * the key to the head of the chain of the {@link NativeNearCacheRecord}s
+ * whose keys have that hash, so neither the records nor the index which
+ * finds them live on the heap.
+ * <p>
+ * A segment must be locked by synchronizing on it while it is accessed, and
+ * the record flyweights it returns must not be used after it is unlocked.
+ */
+class NativeNearCacheRecordMap implements NativeNearCacheRecord.BlockAllocator {
+
+    static final int SEGMENT_COUNT_BITS = 4;
+    static final int SEGMENT_COUNT = 1 << SEGMENT_COUNT_BITS;
+
+    private final MemoryAllocator malloc;
+    private final MemoryAccessor mem;
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+    private final AtomicLong usedMemory = new AtomicLong();
+
+    NativeNearCacheRecordMap(MemoryManager memoryManager) {
+        this.malloc = memoryManager.getAllocator();
+        this.mem = memoryManager.getAccessor();
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(memoryManager);
+        }
+    }
+
+    Segment segmentFor(Data key) {
+        // the high bits, the index of the segment uses the low ones
+        return segments[(int) (fastLongMix(key.hash64()) >>> (Long.SIZE - SEGMENT_COUNT_BITS))];
+    }
+
+    Segment segment(int index) {
+        return segments[index];
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return the number of bytes of native memory used by the records
+     */
+    long getUsedMemory() {
+        return usedMemory.get();
+    }
+
+    @Override
+    public MemoryAccessor getAccessor() {
+        return mem;
+    }
+
+    @Override
+    public long allocate(long size) {
+        long address = malloc.allocate(size);
+        usedMemory.addAndGet(size);
+        return address;
+    }
+
+    @Override
+    public void free(long address, long size) {
+        malloc.free(address, size);
+        usedMemory.addAndGet(-size);
+    }
+
+    /**
+     * Frees all the records and the indexes. The segments
+     * are empty afterwards and records can't be added to them.
+     */
+    void dispose() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.dispose();
+            }
+        }
+    }
+
+    /**
+     * A part of the map with its own index and lock.
+     */
+    final class Segment {
+
+        private final RecordIndex index;
+        private int size;
+        private boolean disposed;
+
+        Segment(MemoryManager memoryManager) {
+            index = new RecordIndex(memoryManager);
+            index.gotoNew();
+        }
+
+        int size() {
+            return size;
+        }
+
+        NativeNearCacheRecord get(Data key) {
+            if (disposed) {
+                return null;
+            }
+            long headAddress = index.get(key.hash64());
+            if (headAddress == NULL_ADDRESS) {
+                return null;
+            }
+            for (long record = mem.getLong(headAddress); record != NULL_ADDRESS; ) {
+                NativeNearCacheRecord nativeRecord = recordAt(record);
+                if (nativeRecord.keyEquals(key)) {
+                    return nativeRecord;
+                }
+                record = nativeRecord.getNext();
+            }
+            return null;
+        }
+
+        /**
+         * Allocates and adds a new record without a value. There must be no
+         * record with the same key in the segment.
+         */
+        NativeNearCacheRecord add(Data key, long creationTime, long expirationTime) {
+            if (disposed) {
+                throw new IllegalStateException("Near Cache records are disposed");
+            }
+            NativeNearCacheRecord record = NativeNearCacheRecord.newRecord(NativeNearCacheRecordMap.this,
+                    key, creationTime, expirationTime);
+            SlotAssignmentResult slot;
+            try {
+                slot = index.ensure(key.hash64());
+            } catch (RuntimeException | Error e) {
+                record.free();
+                throw e;
+            }
+            record.setNext(slot.isNew() ? NULL_ADDRESS : mem.getLong(slot.address()));
+            mem.putLong(slot.address(), record.address());
+            size++;
+            return record;
+        }
+
+        /**
+         * Removes the given record of this segment and frees it.
+         */
+        void remove(NativeNearCacheRecord record) {
+            long hash = record.getKeyHash();
+            long headAddress = index.get(hash);
+            if (headAddress == NULL_ADDRESS) {
+                return;
+            }
+            long previous = NULL_ADDRESS;
+            for (long current = mem.getLong(headAddress); current != NULL_ADDRESS; ) {
+                long next = recordAt(current).getNext();
+                if (current == record.address()) {
+                    if (previous != NULL_ADDRESS) {
+                        recordAt(previous).setNext(next);
+                    } else if (next == NULL_ADDRESS) {
+                        index.remove(hash);
+                    } else {
+                        mem.putLong(headAddress, next);
+                    }
+                    record.free();
+                    size--;
+                    return;
+                }
+                previous = current;
+                current = next;
+            }
+        }
+
+        /**
+         * Calls the consumer with the records of this segment. The consumer
+         * must not add or remove records.
+         */
+        void forEach(Consumer<NativeNearCacheRecord> consumer) {
+            if (disposed) {
+                return;
+            }
+            long capacity = index.capacity();
+            for (long slot = 0; slot < capacity; slot++) {
+                for (long record = index.chainHead(slot); record != NULL_ADDRESS; ) {
+                    NativeNearCacheRecord nativeRecord = recordAt(record);
+                    record = nativeRecord.getNext();
+                    consumer.accept(nativeRecord);
+                }
+            }
+        }
+
+        /**
+         * Adds up to {@code count} records, starting from a random slot.
+         */
+        void sample(int count, List<NativeNearCacheRecord> samples) {
+            long capacity = index.capacity();
+            if (size == 0) {
+                return;
+            }
+            long start = ThreadLocalRandom.current().nextLong(capacity);
+            for (long i = 0; i < capacity && samples.size() < count; i++) {
+                long record = index.chainHead((start + i) & (capacity - 1));
+                while (record != NULL_ADDRESS && samples.size() < count) {
+                    NativeNearCacheRecord nativeRecord = recordAt(record);
+                    samples.add(nativeRecord);
+                    record = nativeRecord.getNext();
+                }
+            }
+        }
+
+        void clear() {
+            if (disposed) {
+                return;
+            }
+            forEach(NativeNearCacheRecord::free);
+            index.clear();
+            size = 0;
+        }
+
+        void dispose() {
+            clear();
+            index.dispose();
+            disposed = true;
+        }
+
+        private NativeNearCacheRecord recordAt(long address) {
+            return NativeNearCacheRecord.recordAt(NativeNearCacheRecordMap.this, address);
+        }
+    }
+
+    /**
+     * Maps the 64-bit hash of a key to the address of the head of the
+     * record chain. The null-sentinel is {@code NULL_ADDRESS}, which can't
+     * be the address of a record.
+     */
+    private static final class RecordIndex extends HashSlotArray8byteKeyImpl {
+
+        private static final int VALUE_OFFSET = LONG_SIZE_IN_BYTES;
+
+        RecordIndex(MemoryManager memoryManager) {
+            super(NULL_ADDRESS, memoryManager, LONG_SIZE_IN_BYTES);
+        }
+
+        long chainHead(long slot) {
+            long baseAddress = address();
+            return isAssigned(baseAddress, slot)
+                    ? mem().getLong(slotBase(baseAddress, slot) + VALUE_OFFSET)
+                    : NULL_ADDRESS;
+        }
+    }
+}
@@ -0,0 +1,639 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.nearcache.impl.store;
+
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.config.NearCachePreloaderConfig;
+import com.hazelcast.internal.adapter.DataStructureAdapter;
+import com.hazelcast.internal.eviction.EvictionCandidate;
+import com.hazelcast.internal.eviction.EvictionChecker;
+import com.hazelcast.internal.eviction.impl.comparator.FrequencySketch;
+import com.hazelcast.internal.eviction.impl.comparator.TinyLFUEvictionPolicyComparator;
+import com.hazelcast.internal.eviction.impl.evaluator.EvictionPolicyEvaluator;
+import com.hazelcast.internal.memory.impl.UnsafeMallocMemoryManager;
+import com.hazelcast.internal.monitor.impl.NearCacheStatsImpl;
+import com.hazelcast.internal.nearcache.NearCache;
+import com.hazelcast.internal.nearcache.NearCacheRecord;
+import com.hazelcast.internal.nearcache.NearCacheRecordStore;
+import com.hazelcast.internal.nearcache.impl.invalidation.MetaDataContainer;
+import com.hazelcast.internal.nearcache.impl.invalidation.StaleReadDetector;
+import com.hazelcast.internal.nearcache.impl.maxsize.NativeMemoryNearCacheEvictionChecker;
+import com.hazelcast.internal.nearcache.impl.preloader.NearCachePreloader;
+import com.hazelcast.internal.nearcache.impl.record.NativeNearCacheRecord;
+import com.hazelcast.internal.nearcache.impl.record.NearCacheDataRecord;
+import com.hazelcast.internal.nearcache.impl.store.NativeNearCacheRecordMap.Segment;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.util.Clock;
+import com.hazelcast.memory.NativeOutOfMemoryError;
+import com.hazelcast.nearcache.NearCacheStats;
+import com.hazelcast.spi.eviction.EvictionPolicyComparator;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.internal.eviction.EvictionPolicyEvaluatorProvider.getEvictionPolicyEvaluator;
+import static com.hazelcast.internal.nearcache.NearCache.CACHED_AS_NULL;
+import static com.hazelcast.internal.nearcache.NearCache.UpdateSemantic.READ_UPDATE;
+import static com.hazelcast.internal.nearcache.NearCache.UpdateSemantic.WRITE_UPDATE;
+import static com.hazelcast.internal.nearcache.NearCacheRecord.NOT_RESERVED;
+import static com.hazelcast.internal.nearcache.NearCacheRecord.READ_PERMITTED;
+import static com.hazelcast.internal.nearcache.NearCacheRecord.TIME_NOT_SET;
+import static com.hazelcast.internal.nearcache.impl.invalidation.StaleReadDetector.ALWAYS_FRESH;
+import static com.hazelcast.internal.nearcache.impl.store.NativeNearCacheRecordMap.SEGMENT_COUNT;
+import static java.lang.String.format;
+
+/**
+ * {@link NearCacheRecordStore} for Near Caches with {@link
+ * com.hazelcast.config.InMemoryFormat#NATIVE NATIVE} in-memory format.
+ * <p>
+ * The serialized keys and values, the record metadata and the hash index
+ * over them live in native memory of the given memory manager, so that a
+ * large Near Cache doesn't add to the heap and to the garbage collection
+ * pauses of the client. Only the values which are returned to the caller
+ * are copied to the heap.
+ * <p>
+ * The records are kept in a {@link NativeNearCacheRecordMap}, and each
+ * operation runs under the lock of the segment of its key. If the native
+ * memory runs out, the store evicts and doesn't cache the value.
+ *
+ * @param <K> the type of the key stored in Near Cache
+ * @param <V> the type of the value stored in Near Cache
+ */
+@SuppressWarnings({"checkstyle:methodcount", "checkstyle:classfanoutcomplexity"})
+public class NearCacheNativeRecordStore<K, V> implements NearCacheRecordStore<K, V> {
+
+    private static final long MILLI_SECONDS_IN_A_SECOND = 1000;
+    private static final int SAMPLE_COUNT = 15;
+
+    private final long timeToLiveMillis;
+    private final long maxIdleMillis;
+    private final boolean evictionDisabled;
+    private final ClassLoader classLoader;
+    private final NearCacheConfig nearCacheConfig;
+    private final NearCacheStatsImpl nearCacheStats = new NearCacheStatsImpl();
+    private final SerializationService serializationService;
+    private final UnsafeMallocMemoryManager memoryManager;
+    private final NearCachePreloader<Data> nearCachePreloader;
+    private final AtomicLong reservationIdGenerator = new AtomicLong();
+
+    private NativeNearCacheRecordMap records;
+    private EvictionChecker evictionChecker;
+    private EvictionPolicyEvaluator<Data, NearCacheDataRecord> evictionPolicyEvaluator;
+    private FrequencySketch frequencySketch;
+
+    private volatile StaleReadDetector staleReadDetector = ALWAYS_FRESH;
+
+    public NearCacheNativeRecordStore(String name, NearCacheConfig nearCacheConfig,
+                                      SerializationService serializationService, ClassLoader classLoader,
+                                      UnsafeMallocMemoryManager memoryManager) {
+        this.nearCacheConfig = nearCacheConfig;
+        this.timeToLiveMillis = nearCacheConfig.getTimeToLiveSeconds() * MILLI_SECONDS_IN_A_SECOND;
+        this.maxIdleMillis = nearCacheConfig.getMaxIdleSeconds() * MILLI_SECONDS_IN_A_SECOND;
+        this.serializationService = serializationService;
+        this.classLoader = classLoader;
+        this.memoryManager = memoryManager;
+        this.evictionDisabled = nearCacheConfig.getEvictionConfig().getEvictionPolicy() == EvictionPolicy.NONE;
+
+        NearCachePreloaderConfig preloaderConfig = nearCacheConfig.getPreloaderConfig();
+        this.nearCachePreloader = preloaderConfig.isEnabled()
+                ? new NearCachePreloader<>(name, preloaderConfig, true, nearCacheStats, serializationService) : null;
+    }
+
+    @Override
+    public void initialize() {
+        this.records = new NativeNearCacheRecordMap(memoryManager);
+        EvictionConfig evictionConfig = nearCacheConfig.getEvictionConfig();
+        this.evictionChecker = createNearCacheEvictionChecker(evictionConfig);
+        if (!evictionDisabled) {
+            this.evictionPolicyEvaluator = getEvictionPolicyEvaluator(evictionConfig, classLoader);
+            EvictionPolicyComparator comparator = evictionPolicyEvaluator.getEvictionPolicyComparator();
+            if (comparator instanceof TinyLFUEvictionPolicyComparator) {
+                this.frequencySketch = ((TinyLFUEvictionPolicyComparator) comparator).getFrequencySketch();
+            }
+        }
+    }
+
+    private EvictionChecker createNearCacheEvictionChecker(EvictionConfig evictionConfig) {
+        MaxSizePolicy maxSizePolicy = evictionConfig.getMaxSizePolicy();
+        if (!NativeMemoryNearCacheEvictionChecker.isSupported(maxSizePolicy)) {
+            throw new IllegalArgumentException(format("Invalid max-size policy (%s) for %s!",
+                    maxSizePolicy, getClass().getName()));
+        }
+        NativeNearCacheRecordMap records = this.records;
+        return new NativeMemoryNearCacheEvictionChecker(maxSizePolicy, evictionConfig.getSize(), memoryManager,
+                records::size, records::getUsedMemory);
+    }
+
+    @Override
+    public void setStaleReadDetector(StaleReadDetector staleReadDetector) {
+        this.staleReadDetector = staleReadDetector;
+    }
+
+    // only used for testing purposes
+    public StaleReadDetector getStaleReadDetector() {
+        return staleReadDetector;
+    }
+
+    @Override
+    public V get(K key) {
+        checkAvailable();
+
+        Data keyData = toData(key);
+        if (frequencySketch != null) {
+            frequencySketch.increment(keyData.hashCode());
+        }
+        Data value;
+        Segment segment = records.segmentFor(keyData);
+        synchronized (segment) {
+            NativeNearCacheRecord record = segment.get(keyData);
+            if (record == null
+                    || (record.getReservationId() != READ_PERMITTED && !record.isCachedAsNull() && !record.hasValue())) {
+                nearCacheStats.incrementMisses();
+                return null;
+            }
+            if (staleReadDetector.isStaleRead(key, record)) {
+                invalidate(segment, record);
+                nearCacheStats.incrementMisses();
+                return null;
+            }
+            if (isRecordExpired(record)) {
+                invalidate(segment, record);
+                nearCacheStats.incrementExpirations();
+                return null;
+            }
+            record.setLastAccessTime(Clock.currentTimeMillis());
+            record.incrementHits();
+            nearCacheStats.incrementHits();
+            value = record.getValue();
+        }
+        return value == null ? (V) CACHED_AS_NULL : toValue(value);
+    }
+
+    // only implemented for testing purposes
+    @Override
+    public void put(K key, Data keyData, V value, Data valueData) {
+        long reservationId = tryReserveForUpdate(key, keyData, READ_UPDATE);
+        if (reservationId != NOT_RESERVED) {
+            tryPublishReserved(key, value, reservationId, false);
+        }
+    }
+
+    @Override
+    public long tryReserveForUpdate(K key, Data keyData, NearCache.UpdateSemantic updateSemantic) {
+        checkAvailable();
+
+        Data dataKey = keyData != null ? keyData : toData(key);
+        // if there is no eviction configured we return if the Near Cache is full and it's a new key
+        // (we have to check the key, otherwise we might lose updates on existing keys)
+        if (evictionDisabled && evictionChecker.isEvictionRequired() && !containsRecordKey(dataKey)) {
+            return NOT_RESERVED;
+        }
+
+        long reservationId = reservationIdGenerator.incrementAndGet();
+        Segment segment = records.segmentFor(dataKey);
+        try {
+            synchronized (segment) {
+                NativeNearCacheRecord record = segment.get(dataKey);
+                if (record == null) {
+                    newReservationRecord(segment, dataKey, reservationId);
+                    return reservationId;
+                }
+                if (updateSemantic == WRITE_UPDATE) {
+                    if (record.getReservationId() == READ_PERMITTED) {
+                        record.setReservationId(reservationId);
+                        return reservationId;
+                    }
+                    // a previously reserved record is deleted on update, see
+                    // AbstractNearCacheRecordStore#reserveForWriteUpdate()
+                    segment.remove(record);
+                }
+                return NOT_RESERVED;
+            }
+        } catch (NativeOutOfMemoryError e) {
+            doEviction(true);
+            return NOT_RESERVED;
+        }
+    }
+
+    private boolean containsRecordKey(Data keyData) {
+        Segment segment = records.segmentFor(keyData);
+        synchronized (segment) {
+            return segment.get(keyData) != null;
+        }
+    }
+
+    private void newReservationRecord(Segment segment, Data keyData, long reservationId) {
+        long creationTime = Clock.currentTimeMillis();
+        long expirationTime = timeToLiveMillis > 0 ? creationTime + timeToLiveMillis : TIME_NOT_SET;
+        NativeNearCacheRecord record = segment.add(keyData, creationTime, expirationTime);
+        record.setReservationId(reservationId);
+        initInvalidationMetaData(record, keyData);
+    }
+
+    private void initInvalidationMetaData(NativeNearCacheRecord record, Data keyData) {
+        if (staleReadDetector == ALWAYS_FRESH) {
+            // means invalidation event creation is disabled for this Near Cache
+            return;
+        }
+
+        int partitionId = staleReadDetector.getPartitionId(keyData);
+        MetaDataContainer metaDataContainer = staleReadDetector.getMetaDataContainer(partitionId);
+        record.setPartitionId(partitionId);
+        record.setInvalidationSequence(metaDataContainer.getSequence());
+        record.setUuid(metaDataContainer.getUuid());
+    }
+
+    @Nullable
+    @Override
+    public V tryPublishReserved(K key, V value, long reservationId, boolean deserialize) {
+        checkAvailable();
+
+        Data keyData = toData(key);
+        Data valueData = toData(value);
+        Data cachedValue = null;
+        boolean outOfMemory = false;
+        Segment segment = records.segmentFor(keyData);
+        synchronized (segment) {
+            NativeNearCacheRecord record = segment.get(keyData);
+            if (record == null) {
+                return null;
+            }
+            if (record.getReservationId() == reservationId) {
+                outOfMemory = !publishReservedRecord(segment, record, valueData);
+            }
+            if (deserialize && !outOfMemory) {
+                cachedValue = record.getValue();
+            }
+        }
+        markDirty(keyData);
+        if (outOfMemory) {
+            // outside of the segment lock, since eviction locks other segments
+            doEviction(true);
+        }
+        return cachedValue == null ? null : toValue(cachedValue);
+    }
+
+    /**
+     * @return {@code false} if the value could not be stored
+     * for the lack of native memory, {@code true} otherwise
+     */
+    private boolean publishReservedRecord(Segment segment, NativeNearCacheRecord record, Data valueData) {
+        boolean update = record.hasValue() || record.isCachedAsNull();
+        if (update) {
+            nearCacheStats.decrementOwnedEntryMemoryCost(record.getCost());
+        }
+        try {
+            record.setValue(valueData);
+        } catch (NativeOutOfMemoryError e) {
+            if (update) {
+                nearCacheStats.decrementOwnedEntryCount();
+            }
+            segment.remove(record);
+            return false;
+        }
+        // TODO Add ICache/IMap config to allow cache as null
+        record.setCachedAsNull(valueData == null);
+        record.setReservationId(READ_PERMITTED);
+
+        nearCacheStats.incrementOwnedEntryMemoryCost(record.getCost());
+        if (!update) {
+            nearCacheStats.incrementOwnedEntryCount();
+        }
+        return true;
+    }
+
+    @Override
+    public void invalidate(K key) {
+        checkAvailable();
+
+        Data keyData = toData(key);
+        Segment segment = records.segmentFor(keyData);
+        synchronized (segment) {
+            NativeNearCacheRecord record = segment.get(keyData);
+            if (record != null) {
+                invalidate(segment, record);
+                return;
+            }
+        }
+        nearCacheStats.incrementInvalidationRequests();
+    }
+
+    private void invalidate(Segment segment, NativeNearCacheRecord record) {
+        if (canUpdateStats(record)) {
+            nearCacheStats.decrementOwnedEntryCount();
+            nearCacheStats.decrementOwnedEntryMemoryCost(record.getCost());
+            nearCacheStats.incrementInvalidations();
+        }
+        removeRecord(segment, record);
+        nearCacheStats.incrementInvalidationRequests();
+    }
+
+    private void removeRecord(Segment segment, NativeNearCacheRecord record) {
+        // the key is copied before the record is freed
+        Data key = nearCachePreloader != null ? record.getKey() : null;
+        segment.remove(record);
+        markDirty(key);
+    }
+
+    private void markDirty(Data keyData) {
+        if (nearCachePreloader != null) {
+            nearCachePreloader.markDirty(keyData);
+        }
+    }
+
+    @Override
+    public void clear() {
+        checkAvailable();
+
+        int size = 0;
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            Segment segment = records.segment(i);
+            synchronized (segment) {
+                size += segment.size();
+                segment.clear();
+            }
+        }
+        nearCacheStats.setOwnedEntryCount(0);
+        nearCacheStats.setOwnedEntryMemoryCost(0L);
+        nearCacheStats.incrementInvalidations(size);
+        nearCacheStats.incrementInvalidationRequests();
+        if (nearCachePreloader != null) {
+            nearCachePreloader.markCleared();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        clear();
+        records.dispose();
+        if (nearCachePreloader != null) {
+            nearCachePreloader.destroy();
+        }
+    }
+
+    @Override
+    public int size() {
+        checkAvailable();
+
+        return records.size();
+    }
+
+    /**
+     * @return an on-heap copy of the record of the given key,
+     * {@code null} if there is no such record
+     */
+    @Override
+    public NearCacheRecord getRecord(K key) {
+        checkAvailable();
+
+        Data keyData = toData(key);
+        Segment segment = records.segmentFor(keyData);
+        synchronized (segment) {
+            NativeNearCacheRecord record = segment.get(keyData);
+            return record == null ? null : record.copy();
+        }
+    }
+
+    @Override
+    public NearCacheStats getNearCacheStats() {
+        checkAvailable();
+
+        return nearCacheStats;
+    }
+
+    @Override
+    public void doExpiration() {
+        checkAvailable();
+
+        List<NativeNearCacheRecord> expiredRecords = new ArrayList<>();
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            Segment segment = records.segment(i);
+            synchronized (segment) {
+                segment.forEach(record -> {
+                    if (isRecordExpired(record)) {
+                        expiredRecords.add(record);
+                    }
+                });
+                for (NativeNearCacheRecord record : expiredRecords) {
+                    invalidate(segment, record);
+                    nearCacheStats.incrementExpirations();
+                }
+            }
+            expiredRecords.clear();
+        }
+    }
+
+    @Override
+    public boolean doEviction(boolean withoutMaxSizeCheck) {
+        checkAvailable();
+
+        if (evictionDisabled) {
+            return false;
+        }
+        // runs before every put, the sketch grows with the
+        // Near Cache until eviction kicks in
+        if (frequencySketch != null) {
+            frequencySketch.ensureCapacity(records.size());
+        }
+        if (!withoutMaxSizeCheck && !evictionChecker.isEvictionRequired()) {
+            return true;
+        }
+        // samples a single segment, starting from a random one, so that
+        // the selected candidate can be removed under the same lock
+        int start = ThreadLocalRandom.current().nextInt(SEGMENT_COUNT);
+        List<NativeNearCacheRecord> samples = new ArrayList<>(SAMPLE_COUNT);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            Segment segment = records.segment((start + i) % SEGMENT_COUNT);
+            synchronized (segment) {
+                segment.sample(SAMPLE_COUNT, samples);
+                if (!samples.isEmpty()) {
+                    evict(segment, samples);
+                    return true;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void evict(Segment segment, List<NativeNearCacheRecord> samples) {
+        List<EvictionCandidate<Data, NearCacheDataRecord>> candidates = new ArrayList<>(samples.size());
+        for (NativeNearCacheRecord record : samples) {
+            candidates.add(new NativeEvictionCandidate(record));
+        }
+        NativeEvictionCandidate selected = (NativeEvictionCandidate) evictionPolicyEvaluator.evaluate(candidates);
+        NativeNearCacheRecord record = selected.record;
+        if (canUpdateStats(record)) {
+            if (selected.getEvictable().isExpiredAt(Clock.currentTimeMillis())) {
+                nearCacheStats.incrementExpirations();
+            } else {
+                nearCacheStats.incrementEvictions();
+            }
+            nearCacheStats.decrementOwnedEntryCount();
+            nearCacheStats.decrementOwnedEntryMemoryCost(record.getCost());
+        }
+        removeRecord(segment, record);
+    }
+
+    @Override
+    public void loadKeys(DataStructureAdapter<Object, ?> adapter) {
+        if (nearCachePreloader != null) {
+            nearCachePreloader.loadKeys(adapter, withDataKeys());
+        }
+    }
+
+    @Override
+    public void storeKeys() {
+        if (nearCachePreloader != null) {
+            nearCachePreloader.storeKeys(new KeyIterator(), withDataKeys());
+        }
+    }
+
+    /**
+     * The preloader works with serialized keys, which
+     * all methods of this record store accept as well.
+     */
+    @SuppressWarnings("unchecked")
+    private NearCacheRecordStore<Data, V> withDataKeys() {
+        return (NearCacheRecordStore<Data, V>) (NearCacheRecordStore) this;
+    }
+
+    private void checkAvailable() {
+        if (records == null) {
+            throw new IllegalStateException(nearCacheConfig.getName() + " named Near Cache record store is not available");
+        }
+    }
+
+    private boolean isRecordExpired(NativeNearCacheRecord record) {
+        if (!canUpdateStats(record)) {
+            // A record can only be checked for expiry if its record state is
+            // READ_PERMITTED. We can't check reserved records for expiry.
+            return false;
+        }
+
+        long now = Clock.currentTimeMillis();
+        return record.isExpiredAt(now) || record.isIdleAt(maxIdleMillis, now);
+    }
+
+    private static boolean canUpdateStats(NativeNearCacheRecord record) {
+        return record.getReservationId() == READ_PERMITTED;
+    }
+
+    private Data toData(Object obj) {
+        return serializationService.toData(obj);
+    }
+
+    private V toValue(Object obj) {
+        return serializationService.toObject(obj);
+    }
+
+    /**
+     * On-heap view of a sampled record for the eviction policy comparator.
+     * The value is not copied, so {@link #getValue()} returns {@code null}.
+     */
+    private static final class NativeEvictionCandidate implements EvictionCandidate<Data, NearCacheDataRecord> {
+
+        private final NativeNearCacheRecord record;
+        private final Data key;
+        private final NearCacheDataRecord evictable;
+
+        NativeEvictionCandidate(NativeNearCacheRecord record) {
+            this.record = record;
+            this.key = record.getKey();
+            this.evictable = record.copyWithoutValue();
+        }
+
+        @Override
+        public Data getAccessor() {
+            return key;
+        }
+
+        @Override
+        public NearCacheDataRecord getEvictable() {
+            return evictable;
+        }
+
+        @Override
+        public Object getKey() {
+            return key;
+        }
+
+        @Override
+        public Object getValue() {
+            return null;
+        }
+
+        @Override
+        public long getCreationTime() {
+            return evictable.getCreationTime();
+        }
+
+        @Override
+        public long getLastAccessTime() {
+            return evictable.getLastAccessTime();
+        }
+
+        @Override
+        public long getHits() {
+            return evictable.getHits();
+        }
+    }
+
+    /**
+     * Iterates over on-heap copies of the keys, one segment at a time, so
+     * that only the keys of a single segment are copied to the heap at once.
+     */
+    private final class KeyIterator implements Iterator<Data> {
+
+        private int segmentIndex;
+        private Iterator<Data> segmentKeys = Collections.emptyIterator();
+
+        @Override
+        public boolean hasNext() {
+            while (!segmentKeys.hasNext() && segmentIndex < SEGMENT_COUNT) {
+                Segment segment = records.segment(segmentIndex++);
+                List<Data> keys = new ArrayList<>();
+                synchronized (segment) {
+                    segment.forEach(record -> {
+                        if (canUpdateStats(record)) {
+                            keys.add(record.getKey());
+                        }
+                    });
+                }
+                segmentKeys = keys.iterator();
+            }
+            return segmentKeys.hasNext();
+        }
+
+        @Override
+        public Data next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return segmentKeys.next();
+        }
+    }
+}
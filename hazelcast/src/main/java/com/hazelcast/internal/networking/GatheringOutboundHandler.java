@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.internal.networking;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An {@link OutboundHandler} that can hand a payload over to the
+ * {@link OutboundPipeline} instead of copying it into its dst buffer. The
+ * pipeline writes the payload to the socket right behind the content of the
+ * dst buffer using a single gathering write.
+ * <p>
+ * Only the last handler of a pipeline is asked to do so; a handler after it,
+ * e.g. TLS, needs every byte in its src buffer.
+ *
+ * @see java.nio.channels.GatheringByteChannel
+ */
+public interface GatheringOutboundHandler {
+
+    /**
+     * Enables or disables handing payloads over to the pipeline. A payload
+     * that has already been handed over is still returned by
+     * {@link #payload()} until it is written.
+     *
+     * @param enabled {@code true} to enable, {@code false} to disable.
+     */
+    void setGatheringEnabled(boolean enabled);
+
+    /**
+     * Returns the payload to be written behind the dst buffer. The buffer is
+     * in reading mode. As long as it has remaining bytes, the handler doesn't
+     * add anything to its dst buffer.
+     *
+     * @return the payload or {@code null} if there is none.
+     */
+    ByteBuffer payload();
+}
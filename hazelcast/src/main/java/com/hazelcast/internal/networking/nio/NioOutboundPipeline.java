@@ -19,6 +19,7 @@ package com.hazelcast.internal.networking.nio;
 import com.hazelcast.internal.metrics.Probe;
 import com.hazelcast.internal.networking.ChannelErrorHandler;
 import com.hazelcast.internal.networking.ChannelHandler;
+import com.hazelcast.internal.networking.GatheringOutboundHandler;
 import com.hazelcast.internal.networking.HandlerStatus;
 import com.hazelcast.internal.networking.OutboundFrame;
 import com.hazelcast.internal.networking.OutboundHandler;
@@ -39,6 +40,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_BYTES_WRITTEN;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_COPIED_BYTES_WRITTEN;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_IDLE_TIME_MILLIS;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_NORMAL_FRAMES_WRITTEN;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_PRIORITY_FRAMES_WRITTEN;
@@ -47,6 +49,7 @@ import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKIN
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_SCHEDULED;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_WRITE_QUEUE_PENDING_BYTES;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_WRITE_QUEUE_SIZE;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_ZERO_COPY_BYTES_WRITTEN;
 import static com.hazelcast.internal.metrics.ProbeLevel.DEBUG;
 import static com.hazelcast.internal.metrics.ProbeUnit.BYTES;
 import static com.hazelcast.internal.metrics.ProbeUnit.MS;
@@ -106,6 +109,10 @@ public final class NioOutboundPipeline
         RESCHEDULE
     }
 
+    // the maximum number of times the handlers are processed again within a single process call
+    // because a payload handed over by the last handler got written completely
+    private static final int MAX_GATHERING_ROUNDS = 16;
+
     @SuppressWarnings("checkstyle:visibilitymodifier")
     @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_WRITE_QUEUE_SIZE, level = DEBUG)
     public final Queue<OutboundFrame> writeQueue = new ConcurrentLinkedQueue<>();
@@ -115,10 +122,14 @@ public final class NioOutboundPipeline
 
     private OutboundHandler[] handlers = new OutboundHandler[0];
     private ByteBuffer sendBuffer;
+    private GatheringOutboundHandler gatheringHandler;
+    private final ByteBuffer[] gatheringBuffers = new ByteBuffer[2];
 
     private final AtomicReference<State> scheduled = new AtomicReference<>(State.SCHEDULED);
     @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_BYTES_WRITTEN, unit = BYTES, level = DEBUG)
     private final SwCounter bytesWritten = newSwCounter();
+    @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_ZERO_COPY_BYTES_WRITTEN, unit = BYTES, level = DEBUG)
+    private final SwCounter zeroCopyBytesWritten = newSwCounter();
     @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_NORMAL_FRAMES_WRITTEN, level = DEBUG)
     private final SwCounter normalFramesWritten = newSwCounter();
     @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_PRIORITY_FRAMES_WRITTEN, level = DEBUG)
@@ -133,6 +144,7 @@ public final class NioOutboundPipeline
     private final ConcurrencyDetection concurrencyDetection;
     private final boolean writeThroughEnabled;
     private final boolean selectionKeyWakeupEnabled;
+    private final boolean gatheringWritesEnabled;
 
     NioOutboundPipeline(NioChannel channel,
                         NioThread owner,
@@ -141,11 +153,13 @@ public final class NioOutboundPipeline
                         IOBalancer balancer,
                         ConcurrencyDetection concurrencyDetection,
                         boolean writeThroughEnabled,
-                        boolean selectionKeyWakeupEnabled) {
+                        boolean selectionKeyWakeupEnabled,
+                        boolean gatheringWritesEnabled) {
         super(channel, owner, errorHandler, OP_WRITE, logger, balancer);
         this.concurrencyDetection = concurrencyDetection;
         this.writeThroughEnabled = writeThroughEnabled;
         this.selectionKeyWakeupEnabled = selectionKeyWakeupEnabled;
+        this.gatheringWritesEnabled = gatheringWritesEnabled;
     }
 
     @Override
@@ -188,6 +202,11 @@ public final class NioOutboundPipeline
         return bytesPending;
     }
 
+    @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_COPIED_BYTES_WRITTEN, unit = BYTES, level = DEBUG)
+    private long copiedBytesWritten() {
+        return bytesWritten.get() - zeroCopyBytesWritten.get();
+    }
+
     @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_IDLE_TIME_MILLIS, unit = MS, level = DEBUG)
     private long idleTimeMillis() {
         return max(currentTimeMillis() - lastWriteTime, 0);
@@ -300,29 +319,16 @@ public final class NioOutboundPipeline
 
     // is never called concurrently!
     @Override
-    @SuppressWarnings("unchecked")
     public void process() throws Exception {
         processCount.inc();
 
-        OutboundHandler[] localHandlers = handlers;
-        HandlerStatus pipelineStatus = CLEAN;
-        for (int handlerIndex = 0; handlerIndex < localHandlers.length; handlerIndex++) {
-            OutboundHandler handler = localHandlers[handlerIndex];
-
-            HandlerStatus handlerStatus = handler.onWrite();
-
-            if (localHandlers != handlers) {
-                // change in the pipeline detected, therefor the loop is restarted.
-                localHandlers = handlers;
-                pipelineStatus = CLEAN;
-                handlerIndex = -1;
-            } else if (handlerStatus != CLEAN) {
-                pipelineStatus = handlerStatus;
-            }
+        HandlerStatus pipelineStatus = processHandlers();
+        // a payload handed over by the last handler blocks it until the payload is written. If the
+        // socket took all of it, the handlers are processed again instead of waiting for OP_WRITE.
+        for (int round = 1; flushToSocket() && pipelineStatus == DIRTY && round < MAX_GATHERING_ROUNDS; round++) {
+            pipelineStatus = processHandlers();
         }
 
-        flushToSocket();
-
         if (migrationRequested()) {
             startMigration();
             // we leave this method and the NioOutboundPipeline remains scheduled.
@@ -349,6 +355,27 @@ public final class NioOutboundPipeline
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private HandlerStatus processHandlers() throws Exception {
+        OutboundHandler[] localHandlers = handlers;
+        HandlerStatus pipelineStatus = CLEAN;
+        for (int handlerIndex = 0; handlerIndex < localHandlers.length; handlerIndex++) {
+            OutboundHandler handler = localHandlers[handlerIndex];
+
+            HandlerStatus handlerStatus = handler.onWrite();
+
+            if (localHandlers != handlers) {
+                // change in the pipeline detected, therefor the loop is restarted.
+                localHandlers = handlers;
+                pipelineStatus = CLEAN;
+                handlerIndex = -1;
+            } else if (handlerStatus != CLEAN) {
+                pipelineStatus = handlerStatus;
+            }
+        }
+        return pipelineStatus;
+    }
+
     private void postProcessBlocked() throws IOException {
         // pipeline is blocked; no point in receiving OP_WRITE events.
         unregisterOp(OP_WRITE);
@@ -434,11 +461,26 @@ public final class NioOutboundPipeline
         }
     }
 
-    private void flushToSocket() throws IOException {
+    // returns true if a payload handed over by the last handler got written completely
+    private boolean flushToSocket() throws IOException {
         lastWriteTime = currentTimeMillis();
-        int written = socketChannel.write(sendBuffer);
+        ByteBuffer payload = gatheringHandler == null ? null : gatheringHandler.payload();
+        if (payload == null || !payload.hasRemaining()) {
+            int written = socketChannel.write(sendBuffer);
+            bytesWritten.inc(written);
+            return false;
+        }
+
+        // the payload goes straight to the socket, behind whatever is in the send buffer
+        ByteBuffer[] buffers = gatheringBuffers;
+        buffers[0] = sendBuffer;
+        buffers[1] = payload;
+        int payloadRemaining = payload.remaining();
+        long written = socketChannel.write(buffers);
+        buffers[1] = null;
         bytesWritten.inc(written);
-        //System.out.println(channel + " bytes written:" + written);
+        zeroCopyBytesWritten.inc(payloadRemaining - payload.remaining());
+        return !payload.hasRemaining();
     }
 
     void drainWriteQueues() {
@@ -513,6 +555,7 @@ public final class NioOutboundPipeline
     private void updatePipeline(OutboundHandler[] newHandlers) {
         this.handlers = newHandlers;
         this.sendBuffer = newHandlers.length == 0 ? null : (ByteBuffer) newHandlers[newHandlers.length - 1].dst();
+        updateGatheringHandler(newHandlers.length == 0 ? null : newHandlers[newHandlers.length - 1]);
 
         OutboundHandler prev = null;
         for (OutboundHandler handler : handlers) {
@@ -528,6 +571,20 @@ public final class NioOutboundPipeline
         }
     }
 
+    // only the last handler writes to the send buffer, so only it can hand payloads over
+    private void updateGatheringHandler(OutboundHandler lastHandler) {
+        GatheringOutboundHandler newGatheringHandler = gatheringWritesEnabled && lastHandler instanceof GatheringOutboundHandler
+                ? (GatheringOutboundHandler) lastHandler
+                : null;
+        if (gatheringHandler != null && gatheringHandler != newGatheringHandler) {
+            gatheringHandler.setGatheringEnabled(false);
+        }
+        if (newGatheringHandler != null) {
+            newGatheringHandler.setGatheringEnabled(true);
+        }
+        gatheringHandler = newGatheringHandler;
+    }
+
     // useful for debugging
     private String pipelineToString() {
         StringBuilder sb = new StringBuilder("out-pipeline[");
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.nio;
+
+import static com.hazelcast.internal.nio.Bits.readIntL;
+
+/**
+ * A pure Java compressor for the LZ4 block format.
+ * <p>
+ * A block is a sequence of (literals, match) pairs. Each sequence starts with
+ * a token whose high nibble holds the literal length and whose low nibble
+ * holds the match length minus {@value #MIN_MATCH}; a nibble of 15 is followed
+ * by extra length bytes. The literals are followed by a little-endian 2 byte
+ * back-reference offset. The last sequence only contains literals.
+ * <p>
+ * The compressor favours speed over ratio: it uses a single hash table of the
+ * last position per 4 byte prefix and it accelerates over incompressible
+ * input. The hash table is reused across calls, so an instance is not
+ * thread-safe; {@link #decompress} is stateless.
+ */
+@SuppressWarnings("checkstyle:magicnumber")
+public final class Lz4BlockCompressor {
+
+    private static final int MIN_MATCH = 4;
+    // the last 5 bytes are always literals
+    private static final int LAST_LITERALS = 5;
+    // a match can't start in the last 12 bytes
+    private static final int MF_LIMIT = 12;
+    private static final int MAX_DISTANCE = (1 << 16) - 1;
+    private static final int ML_BITS = 4;
+    private static final int ML_MASK = (1 << ML_BITS) - 1;
+    private static final int RUN_MASK = ML_MASK;
+    private static final int HASH_LOG = 12;
+    // the search step grows by one every 2^SKIP_TRIGGER bytes without a match
+    private static final int SKIP_TRIGGER = 6;
+
+    private final int[] hashTable = new int[1 << HASH_LOG];
+
+    /**
+     * Returns the maximum size of the compressed form of {@code length} bytes.
+     */
+    public static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * Returns the maximum size of the original form of a block of {@code
+     * compressedLength} bytes. Each extra length byte of a sequence adds at
+     * most 255 bytes to the original.
+     */
+    public static long maxDecompressedLength(int compressedLength) {
+        return 255L * compressedLength + 16;
+    }
+
+    /**
+     * Compresses {@code src[srcOff, srcOff + srcLen)} into {@code dst} starting
+     * at {@code dstOff}. The {@code dst} array needs to have at least
+     * {@link #maxCompressedLength(int)} bytes available.
+     *
+     * @return the length of the compressed block
+     */
+    public int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff) {
+        int srcEnd = srcOff + srcLen;
+        int anchor = srcOff;
+        int dp = dstOff;
+
+        if (srcLen > MF_LIMIT) {
+            int mfLimit = srcEnd - MF_LIMIT;
+            int matchLimit = srcEnd - LAST_LITERALS;
+            int[] hashTable = this.hashTable;
+
+            hashTable[hash(readIntL(src, srcOff))] = srcOff;
+            int ip = srcOff + 1;
+            while (ip <= mfLimit) {
+                int sequence = readIntL(src, ip);
+                int h = hash(sequence);
+                int ref = hashTable[h];
+                hashTable[h] = ip;
+                // the table isn't cleared between calls, so a stale entry may point anywhere
+                if (ref < srcOff || ref >= ip || ip - ref > MAX_DISTANCE || readIntL(src, ref) != sequence) {
+                    ip += 1 + ((ip - anchor) >>> SKIP_TRIGGER);
+                    continue;
+                }
+
+                while (ip > anchor && ref > srcOff && src[ip - 1] == src[ref - 1]) {
+                    ip--;
+                    ref--;
+                }
+                int matchLen = MIN_MATCH;
+                while (ip + matchLen < matchLimit && src[ip + matchLen] == src[ref + matchLen]) {
+                    matchLen++;
+                }
+
+                dp = writeSequence(src, anchor, ip - anchor, ip - ref, matchLen, dst, dp);
+                ip += matchLen;
+                anchor = ip;
+            }
+        }
+
+        return writeLastLiterals(src, anchor, srcEnd - anchor, dst, dp) - dstOff;
+    }
+
+    /**
+     * Decompresses the block {@code src[srcOff, srcOff + srcLen)} into
+     * {@code dst[dstOff, dstOff + dstLen)}.
+     *
+     * @throws IllegalArgumentException if the block is malformed or doesn't
+     *                                  decompress to exactly {@code dstLen} bytes
+     */
+    @SuppressWarnings({"checkstyle:cyclomaticcomplexity", "checkstyle:npathcomplexity"})
+    public static void decompress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int dstLen) {
+        int srcEnd = srcOff + srcLen;
+        int dstEnd = dstOff + dstLen;
+        int sp = srcOff;
+        int dp = dstOff;
+
+        while (sp < srcEnd) {
+            int token = src[sp++] & 0xFF;
+
+            int literalLen = token >>> ML_BITS;
+            if (literalLen == RUN_MASK) {
+                for (int b = 0xFF; b == 0xFF; literalLen += b) {
+                    checkBlock(sp < srcEnd);
+                    b = src[sp++] & 0xFF;
+                }
+            }
+            checkBlock(literalLen >= 0 && literalLen <= srcEnd - sp && literalLen <= dstEnd - dp);
+            System.arraycopy(src, sp, dst, dp, literalLen);
+            sp += literalLen;
+            dp += literalLen;
+            if (sp == srcEnd) {
+                break;
+            }
+
+            checkBlock(srcEnd - sp >= 2);
+            int offset = (src[sp++] & 0xFF) | (src[sp++] & 0xFF) << 8;
+            int matchLen = token & ML_MASK;
+            if (matchLen == ML_MASK) {
+                for (int b = 0xFF; b == 0xFF; matchLen += b) {
+                    checkBlock(sp < srcEnd);
+                    b = src[sp++] & 0xFF;
+                }
+            }
+            matchLen += MIN_MATCH;
+            checkBlock(offset > 0 && offset <= dp - dstOff && matchLen >= MIN_MATCH && matchLen <= dstEnd - dp);
+
+            int ref = dp - offset;
+            if (offset >= matchLen) {
+                System.arraycopy(dst, ref, dst, dp, matchLen);
+                dp += matchLen;
+            } else {
+                // the match overlaps the bytes it produces, so it has to be copied byte by byte
+                for (int end = dp + matchLen; dp < end; ) {
+                    dst[dp++] = dst[ref++];
+                }
+            }
+        }
+
+        checkBlock(dp == dstEnd);
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (Integer.SIZE - HASH_LOG);
+    }
+
+    private static int writeSequence(byte[] src, int literalOff, int literalLen, int offset, int matchLen,
+                                     byte[] dst, int dp) {
+        int tokenPos = dp++;
+        int token;
+        if (literalLen >= RUN_MASK) {
+            token = RUN_MASK << ML_BITS;
+            dp = writeLength(literalLen - RUN_MASK, dst, dp);
+        } else {
+            token = literalLen << ML_BITS;
+        }
+        System.arraycopy(src, literalOff, dst, dp, literalLen);
+        dp += literalLen;
+
+        dst[dp++] = (byte) offset;
+        dst[dp++] = (byte) (offset >>> 8);
+
+        int matchLenCode = matchLen - MIN_MATCH;
+        if (matchLenCode >= ML_MASK) {
+            token |= ML_MASK;
+            dp = writeLength(matchLenCode - ML_MASK, dst, dp);
+        } else {
+            token |= matchLenCode;
+        }
+        dst[tokenPos] = (byte) token;
+        return dp;
+    }
+
+    private static int writeLastLiterals(byte[] src, int literalOff, int literalLen, byte[] dst, int dp) {
+        if (literalLen >= RUN_MASK) {
+            dst[dp++] = (byte) (RUN_MASK << ML_BITS);
+            dp = writeLength(literalLen - RUN_MASK, dst, dp);
+        } else {
+            dst[dp++] = (byte) (literalLen << ML_BITS);
+        }
+        System.arraycopy(src, literalOff, dst, dp, literalLen);
+        return dp + literalLen;
+    }
+
+    private static int writeLength(int length, byte[] dst, int dp) {
+        for (; length >= 0xFF; length -= 0xFF) {
+            dst[dp++] = (byte) 0xFF;
+        }
+        dst[dp++] = (byte) length;
+        return dp;
+    }
+
+    private static void checkBlock(boolean valid) {
+        if (!valid) {
+            throw new IllegalArgumentException("Malformed LZ4 block");
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.nio;
+
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.MwCounter;
+
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.TCP_METRIC_COMPRESSION_COMPRESSED_BYTES;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.TCP_METRIC_COMPRESSION_COMPRESSED_PACKETS;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.TCP_METRIC_COMPRESSION_COMPRESSION_TIME_NANOS;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.TCP_METRIC_COMPRESSION_DECOMPRESSED_PACKETS;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.TCP_METRIC_COMPRESSION_DECOMPRESSION_TIME_NANOS;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.TCP_METRIC_COMPRESSION_INCOMPRESSIBLE_PACKETS;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.TCP_METRIC_COMPRESSION_RATIO;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.TCP_METRIC_COMPRESSION_UNCOMPRESSED_BYTES;
+import static com.hazelcast.internal.metrics.ProbeUnit.BYTES;
+import static com.hazelcast.internal.metrics.ProbeUnit.NS;
+import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
+
+/**
+ * Statistics of the {@link PacketCompressor}s. A single instance is shared by
+ * all compressors of a member, so the counters are multi-writer.
+ */
+public class PacketCompressionStats {
+
+    @Probe(name = TCP_METRIC_COMPRESSION_COMPRESSED_PACKETS)
+    final MwCounter compressedPackets = newMwCounter();
+    @Probe(name = TCP_METRIC_COMPRESSION_INCOMPRESSIBLE_PACKETS)
+    final MwCounter incompressiblePackets = newMwCounter();
+    @Probe(name = TCP_METRIC_COMPRESSION_UNCOMPRESSED_BYTES, unit = BYTES)
+    final MwCounter uncompressedBytes = newMwCounter();
+    @Probe(name = TCP_METRIC_COMPRESSION_COMPRESSED_BYTES, unit = BYTES)
+    final MwCounter compressedBytes = newMwCounter();
+    @Probe(name = TCP_METRIC_COMPRESSION_COMPRESSION_TIME_NANOS, unit = NS)
+    final MwCounter compressionTimeNanos = newMwCounter();
+    @Probe(name = TCP_METRIC_COMPRESSION_DECOMPRESSED_PACKETS)
+    final MwCounter decompressedPackets = newMwCounter();
+    @Probe(name = TCP_METRIC_COMPRESSION_DECOMPRESSION_TIME_NANOS, unit = NS)
+    final MwCounter decompressionTimeNanos = newMwCounter();
+
+    /**
+     * Returns the number of packets sent compressed.
+     */
+    public long compressedPackets() {
+        return compressedPackets.get();
+    }
+
+    /**
+     * Returns the number of packets above the threshold that were sent
+     * uncompressed because compression didn't make them smaller.
+     */
+    public long incompressiblePackets() {
+        return incompressiblePackets.get();
+    }
+
+    /**
+     * Returns the total time spent compressing packets, in nanoseconds.
+     */
+    public long compressionTimeNanos() {
+        return compressionTimeNanos.get();
+    }
+
+    /**
+     * Returns the number of packets received compressed.
+     */
+    public long decompressedPackets() {
+        return decompressedPackets.get();
+    }
+
+    /**
+     * Returns the ratio between the payload sizes of the compressed packets
+     * before and after compression, or 0 if no packet has been compressed.
+     */
+    @Probe(name = TCP_METRIC_COMPRESSION_RATIO)
+    public double compressionRatio() {
+        long compressed = compressedBytes.get();
+        return compressed == 0 ? 0 : (double) uncompressedBytes.get() / compressed;
+    }
+}
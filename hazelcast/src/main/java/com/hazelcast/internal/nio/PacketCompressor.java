@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.nio;
+
+import java.util.Arrays;
+
+import static com.hazelcast.internal.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.internal.nio.Bits.readIntB;
+import static com.hazelcast.internal.nio.Bits.writeIntB;
+import static com.hazelcast.internal.nio.Lz4BlockCompressor.maxCompressedLength;
+import static com.hazelcast.internal.nio.Packet.FLAG_COMPRESSED;
+
+/**
+ * Compresses the payload of outgoing {@link Packet}s and decompresses the
+ * payload of incoming ones.
+ * <p>
+ * A compressed packet has the {@link Packet#FLAG_COMPRESSED} flag raised and
+ * its payload consists of the length of the original payload followed by an
+ * LZ4 block, see {@link Lz4BlockCompressor}. Only payloads of at least the
+ * threshold size are compressed, and only if compression makes them smaller.
+ * <p>
+ * Compression doesn't modify the given packet, since a packet can be shared
+ * by multiple connections. An instance is not thread-safe, it is owned by a
+ * single writer; decompression is stateless.
+ */
+public final class PacketCompressor {
+
+    // payloads larger than this are compressed into a throw-away buffer, so a
+    // single huge packet doesn't pin a huge buffer for the connection lifetime
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1 << 16;
+    // some VMs reserve header words in an array
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+    private final Lz4BlockCompressor compressor = new Lz4BlockCompressor();
+    private final int threshold;
+    private final PacketCompressionStats stats;
+    private byte[] buffer = new byte[0];
+
+    public PacketCompressor(int threshold, PacketCompressionStats stats) {
+        this.threshold = threshold;
+        this.stats = stats;
+    }
+
+    /**
+     * Returns a compressed copy of the packet, or the packet itself if its
+     * payload is below the threshold, already compressed or incompressible.
+     */
+    public Packet compress(Packet packet) {
+        byte[] payload = packet.toByteArray();
+        if (payload == null || payload.length < threshold || packet.isFlagRaised(FLAG_COMPRESSED)) {
+            return packet;
+        }
+
+        long startNanos = System.nanoTime();
+        byte[] dst = buffer(INT_SIZE_IN_BYTES + maxCompressedLength(payload.length));
+        int compressedLength = INT_SIZE_IN_BYTES
+                + compressor.compress(payload, 0, payload.length, dst, INT_SIZE_IN_BYTES);
+        if (compressedLength >= payload.length) {
+            stats.incompressiblePackets.inc();
+            stats.compressionTimeNanos.inc(System.nanoTime() - startNanos);
+            return packet;
+        }
+        writeIntB(dst, 0, payload.length);
+        Packet compressed = new Packet(Arrays.copyOf(dst, compressedLength), packet.getPartitionId())
+                .resetFlagsTo(packet.getFlags() | FLAG_COMPRESSED);
+
+        stats.compressedPackets.inc();
+        stats.uncompressedBytes.inc(payload.length);
+        stats.compressedBytes.inc(compressedLength);
+        stats.compressionTimeNanos.inc(System.nanoTime() - startNanos);
+        return compressed;
+    }
+
+    /**
+     * Returns a copy of the compressed packet with the original payload. The
+     * original length is read from the peer, so it is checked against the
+     * maximum LZ4 ratio before anything is allocated.
+     *
+     * @throws IllegalArgumentException if the payload isn't a valid compressed payload
+     */
+    public static Packet decompress(Packet packet, PacketCompressionStats stats) {
+        long startNanos = System.nanoTime();
+        byte[] payload = packet.toByteArray();
+        if (payload == null || payload.length < INT_SIZE_IN_BYTES) {
+            throw new IllegalArgumentException("Malformed compressed packet payload");
+        }
+        int length = readIntB(payload, 0);
+        if (length < 0 || length > MAX_ARRAY_LENGTH
+                || length > Lz4BlockCompressor.maxDecompressedLength(payload.length - INT_SIZE_IN_BYTES)) {
+            throw new IllegalArgumentException("Malformed compressed packet payload, invalid original length " + length
+                    + " for " + (payload.length - INT_SIZE_IN_BYTES) + " compressed bytes");
+        }
+        byte[] decompressed = new byte[length];
+        Lz4BlockCompressor.decompress(payload, INT_SIZE_IN_BYTES, payload.length - INT_SIZE_IN_BYTES,
+                decompressed, 0, length);
+        Packet result = new Packet(decompressed, packet.getPartitionId())
+                .resetFlagsTo(packet.getFlags() & ~FLAG_COMPRESSED);
+
+        stats.decompressedPackets.inc();
+        stats.decompressionTimeNanos.inc(System.nanoTime() - startNanos);
+        return result;
+    }
+
+    private byte[] buffer(int size) {
+        if (size > MAX_RETAINED_BUFFER_SIZE) {
+            return new byte[size];
+        }
+        if (buffer.length < size) {
+            buffer = new byte[size];
+        }
+        return buffer;
+    }
+}
@@ -58,12 +58,7 @@ public class PacketIOHelper {
                 return false;
             }
 
-            dst.put(VERSION);
-            dst.putChar(packet.getFlags());
-            dst.putInt(packet.getPartitionId());
-            size = packet.totalSize();
-            dst.putInt(size);
-            headerComplete = true;
+            writeHeader(packet, dst);
         }
 
         if (writeValue(packet, dst)) {
@@ -74,6 +69,39 @@ public class PacketIOHelper {
         }
     }
 
+    /**
+     * Writes only the header of the packet to the supplied {@code ByteBuffer} if the payload doesn't fit in the
+     * buffer behind it. The payload is then returned so it can be written straight after the buffer, without being
+     * copied into it. Nothing is written if the whole packet fits or if not even the header fits; the packet should
+     * then be written using {@link #writeTo(Packet, ByteBuffer)}.
+     * <p>
+     * Should not be called for a packet that is partially written.
+     *
+     * @param dst the destination byte buffer
+     * @return the payload of the packet in reading mode; {@code null} if nothing was written.
+     */
+    public ByteBuffer writeHeaderOnly(Packet packet, ByteBuffer dst) {
+        assert !headerComplete;
+
+        int remaining = dst.remaining();
+        if (remaining < HEADER_SIZE || packet.totalSize() <= remaining - HEADER_SIZE) {
+            return null;
+        }
+
+        writeHeader(packet, dst);
+        reset();
+        return ByteBuffer.wrap(packet.toByteArray());
+    }
+
+    private void writeHeader(Packet packet, ByteBuffer dst) {
+        dst.put(VERSION);
+        dst.putChar(packet.getFlags());
+        dst.putInt(packet.getPartitionId());
+        size = packet.totalSize();
+        dst.putInt(size);
+        headerComplete = true;
+    }
+
     private boolean writeValue(Packet packet, ByteBuffer dst) {
         if (size > 0) {
             // the number of bytes that can be written to the bb.
@@ -20,6 +20,8 @@ import com.hazelcast.internal.networking.InboundHandler;
 import com.hazelcast.internal.networking.HandlerStatus;
 import com.hazelcast.internal.networking.nio.InboundHandlerWithCounters;
 import com.hazelcast.internal.nio.Packet;
+import com.hazelcast.internal.nio.PacketCompressionStats;
+import com.hazelcast.internal.nio.PacketCompressor;
 import com.hazelcast.internal.nio.PacketIOHelper;
 import com.hazelcast.internal.server.ServerConnection;
 
@@ -28,6 +30,7 @@ import java.util.function.Consumer;
 
 import static com.hazelcast.internal.networking.HandlerStatus.CLEAN;
 import static com.hazelcast.internal.nio.IOUtil.compactOrClear;
+import static com.hazelcast.internal.nio.Packet.FLAG_COMPRESSED;
 import static com.hazelcast.internal.nio.Packet.FLAG_URGENT;
 import static com.hazelcast.internal.util.JVMUtil.upcast;
 
@@ -35,7 +38,9 @@ import static com.hazelcast.internal.util.JVMUtil.upcast;
  * The {@link InboundHandler} for member to member communication.
  *
  * It reads as many packets from the src {@link ByteBuffer} as possible, and
- * each of the Packets is send to the destination.
+ * each of the Packets is send to the destination. Compressed packets are
+ * decompressed first, regardless of whether this member compresses the
+ * packets it sends.
  *
  * @see Consumer
  * @see PacketEncoder
@@ -44,10 +49,16 @@ public class PacketDecoder extends InboundHandlerWithCounters<ByteBuffer, Consum
 
     protected final ServerConnection connection;
     private final PacketIOHelper packetReader = new PacketIOHelper();
+    private final PacketCompressionStats compressionStats;
 
     public PacketDecoder(ServerConnection connection, Consumer<Packet> dst) {
+        this(connection, dst, new PacketCompressionStats());
+    }
+
+    public PacketDecoder(ServerConnection connection, Consumer<Packet> dst, PacketCompressionStats compressionStats) {
         this.connection = connection;
         this.dst = dst;
+        this.compressionStats = compressionStats;
     }
 
     @Override
@@ -74,6 +85,10 @@ public class PacketDecoder extends InboundHandlerWithCounters<ByteBuffer, Consum
     }
 
     protected void onPacketComplete(Packet packet) {
+        if (packet.isFlagRaised(FLAG_COMPRESSED)) {
+            packet = PacketCompressor.decompress(packet, compressionStats);
+        }
+
         if (packet.isFlagRaised(FLAG_URGENT)) {
             priorityPacketsRead.inc();
         } else {
@@ -16,9 +16,11 @@
 
 package com.hazelcast.internal.server.tcp;
 
+import com.hazelcast.internal.networking.GatheringOutboundHandler;
 import com.hazelcast.internal.networking.OutboundHandler;
 import com.hazelcast.internal.networking.HandlerStatus;
 import com.hazelcast.internal.nio.Packet;
+import com.hazelcast.internal.nio.PacketCompressor;
 import com.hazelcast.internal.nio.PacketIOHelper;
 
 import java.nio.ByteBuffer;
@@ -38,23 +40,58 @@ import static com.hazelcast.internal.util.JVMUtil.upcast;
  * multiple connections. The flyweight contains the actual 'position' state of
  * what has been written.
  *
+ * If gathering is enabled, the payload of a packet that doesn't fit in the
+ * {@link ByteBuffer} is not copied into it, but handed over to the pipeline.
+ *
+ * If a {@link PacketCompressor} is set, the payload of large packets is
+ * compressed before it is written.
+ *
  * @see PacketDecoder
  */
-public class PacketEncoder extends OutboundHandler<Supplier<Packet>, ByteBuffer> {
+public class PacketEncoder extends OutboundHandler<Supplier<Packet>, ByteBuffer> implements GatheringOutboundHandler {
 
     private final PacketIOHelper packetWriter = new PacketIOHelper();
+    private final PacketCompressor compressor;
 
     private Packet packet;
+    private boolean gatheringEnabled;
+    private ByteBuffer payload;
+
+    public PacketEncoder() {
+        this(null);
+    }
+
+    public PacketEncoder(PacketCompressor compressor) {
+        this.compressor = compressor;
+    }
 
     @Override
     public void handlerAdded() {
         initDstBuffer();
     }
 
+    @Override
+    public void setGatheringEnabled(boolean enabled) {
+        this.gatheringEnabled = enabled;
+    }
+
+    @Override
+    public ByteBuffer payload() {
+        return payload;
+    }
+
     @Override
     public HandlerStatus onWrite() {
         compactOrClear(dst);
         try {
+            if (payload != null) {
+                if (payload.hasRemaining()) {
+                    // the pipeline didn't manage to write the payload yet
+                    return DIRTY;
+                }
+                payload = null;
+            }
+
             for (; ; ) {
                 if (packet == null) {
                     packet = src.get();
@@ -63,6 +100,19 @@ public class PacketEncoder extends OutboundHandler<Supplier<Packet>, ByteBuffer>
                         // everything is processed, so we are done
                         return CLEAN;
                     }
+
+                    if (compressor != null) {
+                        packet = compressor.compress(packet);
+                    }
+
+                    if (gatheringEnabled) {
+                        payload = packetWriter.writeHeaderOnly(packet, dst);
+                        if (payload != null) {
+                            // the pipeline writes the payload behind the header, nothing can be added until then
+                            packet = null;
+                            return DIRTY;
+                        }
+                    }
                 }
 
                 if (packetWriter.writeTo(packet, dst)) {
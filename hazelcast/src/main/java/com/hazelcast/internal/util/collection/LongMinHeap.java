@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.util.collection;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Binary min-heap of primitive {@code long} values. Doesn't box the
+ * values nor allocate anything except when it has to grow its backing
+ * array. Duplicate values are allowed.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class LongMinHeap {
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+    private long[] elements;
+    private int size;
+
+    public LongMinHeap() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public LongMinHeap(int initialCapacity) {
+        elements = new long[Math.max(1, initialCapacity)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds the value to the heap.
+     */
+    public void add(long value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size << 1);
+        }
+        int index = size++;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            long parentValue = elements[parent];
+            if (parentValue <= value) {
+                break;
+            }
+            elements[index] = parentValue;
+            index = parent;
+        }
+        elements[index] = value;
+    }
+
+    /**
+     * Returns the smallest value without removing it.
+     *
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public long peek() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return elements[0];
+    }
+
+    /**
+     * Removes and returns the smallest value.
+     *
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public long poll() {
+        long result = peek();
+        long last = elements[--size];
+        int index = 0;
+        int half = size >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            int right = child + 1;
+            if (right < size && elements[right] < elements[child]) {
+                child = right;
+            }
+            if (last <= elements[child]) {
+                break;
+            }
+            elements[index] = elements[child];
+            index = child;
+        }
+        elements[index] = last;
+        return result;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "LongMinHeap{size=" + size + '}';
+    }
+}
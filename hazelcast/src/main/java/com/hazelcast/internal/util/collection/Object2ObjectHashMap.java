@@ -0,0 +1,615 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.util.collection;
+
+import com.hazelcast.internal.util.QuickMath;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+import static com.hazelcast.internal.util.Preconditions.checkNotNull;
+import static com.hazelcast.internal.util.collection.Hashing.hash;
+
+/**
+ * {@link java.util.Map} implementation using open addressing and linear
+ * probing for cache efficient access. It is the object-keyed counterpart of
+ * {@link Long2ObjectHashMap}: keys and values are kept in two parallel arrays,
+ * so unlike {@link java.util.HashMap} there is no node allocated per entry,
+ * which keeps the footprint and the GC pressure of maps with many small
+ * entries low.
+ * <p>
+ * Like {@link java.util.HashMap}, it permits {@code null} keys and values:
+ * they are stored as a sentinel object, since an empty slot is one without a
+ * value. The iteration order differs from the one of {@link java.util.HashMap}.
+ *
+ * @param <K> keys stored in the {@link java.util.Map}
+ * @param <V> values stored in the {@link java.util.Map}
+ */
+public class Object2ObjectHashMap<K, V> implements Map<K, V> {
+
+    /** The default load factor for constructors not explicitly supplying it */
+    public static final double DEFAULT_LOAD_FACTOR = 0.6;
+    /** The default initial capacity for constructors not explicitly supplying it */
+    public static final int DEFAULT_INITIAL_CAPACITY = 8;
+
+    /** Stored in place of a {@code null} key or value */
+    private static final Object NULL = new Object();
+
+    private final double loadFactor;
+    private int resizeThreshold;
+    private int capacity;
+    private int mask;
+    private int size;
+
+    private Object[] keys;
+    private Object[] values;
+
+    // cached to avoid allocation
+    private final ValueCollection valueCollection = new ValueCollection();
+    private final KeySet keySet = new KeySet();
+    private final EntrySet entrySet = new EntrySet();
+
+    public Object2ObjectHashMap() {
+        this(DEFAULT_INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    public Object2ObjectHashMap(int initialCapacity) {
+        this(initialCapacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Construct a new map allowing a configuration for initial capacity and load factor.
+     *
+     * @param initialCapacity for the backing array
+     * @param loadFactor      limit for resizing on puts
+     */
+    public Object2ObjectHashMap(final int initialCapacity, final double loadFactor) {
+        this.loadFactor = loadFactor;
+        capacity = QuickMath.nextPowerOfTwo(initialCapacity);
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * loadFactor);
+
+        keys = new Object[capacity];
+        values = new Object[capacity];
+    }
+
+    /**
+     * Get the load factor beyond which the map will increase size.
+     *
+     * @return load factor for when the map should increase size.
+     */
+    public double loadFactor() {
+        return loadFactor;
+    }
+
+    /**
+     * Get the total capacity for the map to which the load factor with be a fraction of.
+     *
+     * @return the total capacity for the map.
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return 0 == size;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return -1 != indexOf(maskNull(key));
+    }
+
+    @Override
+    public boolean containsValue(final Object value) {
+        Object maskedValue = maskNull(value);
+        for (final Object v : values) {
+            if (null != v && maskedValue.equals(v)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(final Object key) {
+        int index = indexOf(maskNull(key));
+        return index == -1 ? null : (V) unmaskNull(values[index]);
+    }
+
+    /**
+     * Get a value for a given key, or if it does not exist then default the
+     * value via a {@link Function} and put it in the map. Unlike the default
+     * {@link Map#computeIfAbsent} it probes the table only once.
+     * <p>
+     * The mapping function must not modify this map.
+     *
+     * @param key             to search on.
+     * @param mappingFunction to provide a value if the get returns null.
+     * @return the value if found otherwise the default.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(final K key, final Function<? super K, ? extends V> mappingFunction) {
+        checkNotNull(mappingFunction, "mappingFunction cannot be null");
+        Object maskedKey = maskNull(key);
+        int index = hash(maskedKey, mask);
+        Object value;
+        while (null != (value = values[index])) {
+            if (isSameKey(maskedKey, keys[index])) {
+                if (value != NULL) {
+                    return (V) value;
+                }
+                // a key mapped to null counts as absent
+                V newValue = mappingFunction.apply(key);
+                if (newValue != null) {
+                    values[index] = newValue;
+                }
+                return newValue;
+            }
+            index = ++index & mask;
+        }
+        V newValue = mappingFunction.apply(key);
+        if (newValue != null) {
+            insert(index, maskedKey, newValue);
+        }
+        return newValue;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(final K key, final V value) {
+        Object maskedKey = maskNull(key);
+        Object maskedValue = maskNull(value);
+        int index = hash(maskedKey, mask);
+        Object oldValue;
+        while (null != (oldValue = values[index])) {
+            if (isSameKey(maskedKey, keys[index])) {
+                values[index] = maskedValue;
+                return (V) unmaskNull(oldValue);
+            }
+            index = ++index & mask;
+        }
+        insert(index, maskedKey, maskedValue);
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(final Object key) {
+        int index = indexOf(maskNull(key));
+        if (index == -1) {
+            return null;
+        }
+        Object value = values[index];
+        removeAt(index);
+        return (V) unmaskNull(value);
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        Arrays.fill(keys, null);
+        Arrays.fill(values, null);
+    }
+
+    /**
+     * Compact the {@link Map} backing arrays by rehashing with a capacity just larger than current size
+     * and giving consideration to the load factor.
+     */
+    public void compact() {
+        final int idealCapacity = (int) Math.round(size() * (1.0d / loadFactor));
+        rehash(QuickMath.nextPowerOfTwo(idealCapacity));
+    }
+
+    @Override
+    public void putAll(final Map<? extends K, ? extends V> map) {
+        for (final Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return keySet;
+    }
+
+    @Override
+    public Collection<V> values() {
+        return valueCollection;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The map doesn't store entry objects, the iterator of this set creates
+     * one on each call to its <code>next()</code> method. Its
+     * <code>setValue()</code> writes through to the map.
+     */
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return entrySet;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Map)) {
+            return false;
+        }
+        Map<?, ?> that = (Map<?, ?>) o;
+        if (size != that.size()) {
+            return false;
+        }
+        for (int i = 0; i < capacity; i++) {
+            Object value = values[i];
+            if (null == value) {
+                continue;
+            }
+            Object key = unmaskNull(keys[i]);
+            if (value == NULL) {
+                if (null != that.get(key) || !that.containsKey(key)) {
+                    return false;
+                }
+            } else if (!value.equals(that.get(key))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 0;
+        for (int i = 0; i < capacity; i++) {
+            Object value = values[i];
+            if (null != value) {
+                result += Objects.hashCode(unmaskNull(keys[i])) ^ Objects.hashCode(unmaskNull(value));
+            }
+        }
+        return result;
+    }
+
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append('{');
+        for (int i = 0; i < capacity; i++) {
+            Object value = values[i];
+            if (null != value) {
+                sb.append(unmaskNull(keys[i]));
+                sb.append('=');
+                sb.append(unmaskNull(value));
+                sb.append(", ");
+            }
+        }
+        if (sb.length() > 1) {
+            sb.setLength(sb.length() - 2);
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private static Object maskNull(Object o) {
+        return o == null ? NULL : o;
+    }
+
+    private static Object unmaskNull(Object o) {
+        return o == NULL ? null : o;
+    }
+
+    private static boolean isSameKey(Object key, Object storedKey) {
+        return key == storedKey || key.equals(storedKey);
+    }
+
+    private int indexOf(Object maskedKey) {
+        int index = hash(maskedKey, mask);
+        while (null != values[index]) {
+            if (isSameKey(maskedKey, keys[index])) {
+                return index;
+            }
+            index = ++index & mask;
+        }
+        return -1;
+    }
+
+    private void removeAt(int index) {
+        keys[index] = null;
+        values[index] = null;
+        --size;
+        compactChain(index);
+    }
+
+    private void insert(int index, Object key, Object value) {
+        ++size;
+        keys[index] = key;
+        values[index] = value;
+        if (size > resizeThreshold) {
+            increaseCapacity();
+        }
+    }
+
+    private void increaseCapacity() {
+        final int newCapacity = capacity << 1;
+        if (newCapacity < 0) {
+            throw new IllegalStateException("Max capacity reached at size=" + size);
+        }
+        rehash(newCapacity);
+    }
+
+    private void rehash(final int newCapacity) {
+        if (1 != Integer.bitCount(newCapacity)) {
+            throw new IllegalStateException("New capacity must be a power of two");
+        }
+        capacity = newCapacity;
+        mask = newCapacity - 1;
+        resizeThreshold = (int) (newCapacity * loadFactor);
+        final Object[] tempKeys = new Object[capacity];
+        final Object[] tempValues = new Object[capacity];
+        for (int i = 0, size = values.length; i < size; i++) {
+            final Object value = values[i];
+            if (null != value) {
+                final Object key = keys[i];
+                int newHash = hash(key, mask);
+                while (null != tempValues[newHash]) {
+                    newHash = ++newHash & mask;
+                }
+                tempKeys[newHash] = key;
+                tempValues[newHash] = value;
+            }
+        }
+        keys = tempKeys;
+        values = tempValues;
+    }
+
+    private void compactChain(int deleteIndex) {
+        int index = deleteIndex;
+        while (true) {
+            index = ++index & mask;
+            if (null == values[index]) {
+                return;
+            }
+            final int hash = hash(keys[index], mask);
+            if ((index < hash && (hash <= deleteIndex || deleteIndex <= index))
+                    || (hash <= deleteIndex && deleteIndex <= index)) {
+                keys[deleteIndex] = keys[index];
+                values[deleteIndex] = values[index];
+                keys[index] = null;
+                values[index] = null;
+                deleteIndex = index;
+            }
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // Internal Sets and Collections
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    private class KeySet extends AbstractSet<K> {
+
+        @Override
+        public int size() {
+            return Object2ObjectHashMap.this.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return Object2ObjectHashMap.this.isEmpty();
+        }
+
+        @Override
+        public boolean contains(final Object o) {
+            return Object2ObjectHashMap.this.containsKey(o);
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            return new KeyIterator();
+        }
+
+        @Override
+        public boolean remove(final Object o) {
+            int index = indexOf(maskNull(o));
+            if (index == -1) {
+                return false;
+            }
+            removeAt(index);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            Object2ObjectHashMap.this.clear();
+        }
+    }
+
+    private class ValueCollection extends AbstractCollection<V> {
+
+        @Override
+        public int size() {
+            return Object2ObjectHashMap.this.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return Object2ObjectHashMap.this.isEmpty();
+        }
+
+        @Override
+        public boolean contains(final Object o) {
+            return Object2ObjectHashMap.this.containsValue(o);
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            return new ValueIterator();
+        }
+
+        @Override
+        public void clear() {
+            Object2ObjectHashMap.this.clear();
+        }
+    }
+
+    private class EntrySet extends AbstractSet<Entry<K, V>> {
+
+        @Override
+        public int size() {
+            return Object2ObjectHashMap.this.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return Object2ObjectHashMap.this.isEmpty();
+        }
+
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public void clear() {
+            Object2ObjectHashMap.this.clear();
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // Iterators
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    private abstract class AbstractIterator<T> implements Iterator<T> {
+
+        protected final Object[] keys = Object2ObjectHashMap.this.keys;
+        protected final Object[] values = Object2ObjectHashMap.this.values;
+        private int posCounter;
+        private int stopCounter;
+        private boolean isPositionValid;
+
+        protected AbstractIterator() {
+            int i = capacity;
+            if (null != values[capacity - 1]) {
+                i = 0;
+                for (int size = capacity; i < size; i++) {
+                    if (null == values[i]) {
+                        break;
+                    }
+                }
+            }
+            stopCounter = i;
+            posCounter = i + capacity;
+        }
+
+        protected int getPosition() {
+            return posCounter & mask;
+        }
+
+        @Override
+        public boolean hasNext() {
+            for (int i = posCounter - 1; i >= stopCounter; i--) {
+                final int index = i & mask;
+                if (null != values[index]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        protected void findNext() {
+            isPositionValid = false;
+            for (int i = posCounter - 1; i >= stopCounter; i--) {
+                final int index = i & mask;
+                if (null != values[index]) {
+                    posCounter = i;
+                    isPositionValid = true;
+                    return;
+                }
+            }
+            throw new NoSuchElementException();
+        }
+
+        @Override
+        public abstract T next();
+
+        @Override
+        public void remove() {
+            if (isPositionValid) {
+                removeAt(getPosition());
+                isPositionValid = false;
+            } else {
+                throw new IllegalStateException();
+            }
+        }
+    }
+
+    private class ValueIterator extends AbstractIterator<V> {
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            findNext();
+            return (V) unmaskNull(values[getPosition()]);
+        }
+    }
+
+    private class KeyIterator extends AbstractIterator<K> {
+        @Override
+        @SuppressWarnings("unchecked")
+        public K next() {
+            findNext();
+            return (K) unmaskNull(keys[getPosition()]);
+        }
+    }
+
+    private class EntryIterator extends AbstractIterator<Entry<K, V>> {
+        @Override
+        @SuppressWarnings("unchecked")
+        public Entry<K, V> next() {
+            findNext();
+            int position = getPosition();
+            return new MapEntry((K) unmaskNull(keys[position]), (V) unmaskNull(values[position]));
+        }
+    }
+
+    private final class MapEntry extends SimpleEntry<K, V> {
+
+        MapEntry(K key, V value) {
+            super(key, value);
+        }
+
+        @Override
+        public V setValue(V value) {
+            Object2ObjectHashMap.this.put(getKey(), value);
+            return super.setValue(value);
+        }
+    }
+}
@@ -33,9 +33,8 @@ public final class ValueComparatorUtil {
             case OBJECT:
                 return ObjectValueComparator.INSTANCE;
             case NATIVE:
-                throw new IllegalArgumentException("Native storage format is supported "
-                        + "in Hazelcast Enterprise only. Make sure you have Hazelcast "
-                        + "Enterprise JARs on your classpath !");
+                // native records expose their values as on-heap Data copies
+                return BinaryValueComparator.INSTANCE;
             default:
                 throw new IllegalArgumentException("Invalid storage format: " + inMemoryFormat);
 
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.util.concurrent;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hazelcast.internal.util.Preconditions.checkNotNull;
+import static java.util.concurrent.locks.LockSupport.park;
+import static java.util.concurrent.locks.LockSupport.unpark;
+
+/**
+ * Multi producer single consumer blocking queue backed by a bounded array
+ * ({@link ManyToOneConcurrentArrayQueue}). Unlike the {@link MPSCQueue},
+ * offering an item doesn't allocate, producers only contend on a single
+ * CAS of the tail sequence.
+ * <p>
+ * The queue never rejects an item: when the array is full, the item is put
+ * on an unbounded overflow queue. As long as there are items on the overflow
+ * queue, the producers keep putting new items there; the consumer takes
+ * the overflow queue only once the array is drained. So the FIFO ordering
+ * of the items of a single producer is always retained.
+ * <p>
+ * If there is nothing to take, the consumer idles with the configured
+ * {@link IdleStrategy} or, if there is none, parks until a producer wakes
+ * it up. A producer only pays for the wake-up if the consumer is parked.
+ *
+ * @param <E> the type of elements held in this collection
+ */
+public final class MPSCArrayQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+    private final ManyToOneConcurrentArrayQueue<E> array;
+    private final Queue<E> overflow = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger overflowSize = new AtomicInteger();
+    private final IdleStrategy idleStrategy;
+
+    private volatile boolean consumerParked;
+    private Thread consumerThread;
+
+    /**
+     * Creates a new {@link MPSCArrayQueue}.
+     *
+     * @param capacity     the capacity of the array, rounded up to the next power of two
+     * @param idleStrategy the idleStrategy. If null, the consumer will block.
+     */
+    public MPSCArrayQueue(int capacity, IdleStrategy idleStrategy) {
+        this.array = new ManyToOneConcurrentArrayQueue<>(capacity);
+        this.idleStrategy = idleStrategy;
+    }
+
+    /**
+     * Sets the consumer thread.
+     *
+     * The consumer thread is needed for blocking, so that an offering thread
+     * knows which thread to wakeup. There can only be a single consumerThread
+     * and this method should be called before the queue is safely published.
+     * It will not provide a happens before relation on its own.
+     *
+     * @param consumerThread the consumer thread.
+     * @throws NullPointerException when consumerThread null.
+     */
+    public void setConsumerThread(Thread consumerThread) {
+        this.consumerThread = checkNotNull(consumerThread, "consumerThread can't be null");
+    }
+
+    /**
+     * @return the capacity of the array; items beyond it go to the overflow queue
+     */
+    public int capacity() {
+        return array.capacity();
+    }
+
+    @Override
+    public boolean offer(E item) {
+        checkNotNull(item, "item can't be null");
+
+        if (overflowSize.get() != 0 || !array.offer(item)) {
+            overflowSize.incrementAndGet();
+            overflow.offer(item);
+        }
+
+        if (consumerParked) {
+            unpark(consumerThread);
+        }
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        E item = array.poll();
+        if (item != null || overflowSize.get() == 0) {
+            return item;
+        }
+
+        // A producer publishes the array slot after claiming it. So the head
+        // of the overflow queue can only be taken once every slot claimed
+        // before it was added has been consumed; otherwise an earlier item
+        // of the same producer could still be on its way into the array.
+        if (overflow.peek() == null || array.size() != 0) {
+            return array.poll();
+        }
+
+        item = overflow.poll();
+        overflowSize.decrementAndGet();
+        return item;
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        for (long iteration = 0; ; iteration++) {
+            E item = poll();
+            if (item != null) {
+                return item;
+            }
+
+            if (consumerThread.isInterrupted()) {
+                throw new InterruptedException();
+            }
+
+            if (idleStrategy != null) {
+                idleStrategy.idle(iteration);
+                continue;
+            }
+
+            // publish the intent to park before checking for items for the
+            // last time: a producer either sees the flag or we see its item
+            consumerParked = true;
+            if (isEmpty()) {
+                park();
+            }
+            consumerParked = false;
+        }
+    }
+
+    @Override
+    public E peek() {
+        E item = array.peek();
+        return item != null ? item : overflow.peek();
+    }
+
+    /**
+     * {@inheritDoc}.
+     *
+     * Best effort implementation.
+     */
+    @Override
+    public int size() {
+        return array.size() + overflowSize.get();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public void put(E e) {
+        offer(e);
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit) {
+        return offer(e);
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        throw new UnsupportedOperationException();
+    }
+}
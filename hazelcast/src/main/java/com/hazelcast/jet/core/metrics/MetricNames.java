@@ -193,6 +193,70 @@ public final class MetricNames {
      */
     public static final String DISTRIBUTED_BYTES_OUT = "distributedBytesOut";
 
+    /**
+     * Tracks the data volume (bytes) of the packets which were compressed
+     * before going out over the network for DISTRIBUTED output {@link
+     * Edge}s, after compression, see {@link
+     * com.hazelcast.jet.config.EdgeConfig#setCompressionEnabled(boolean)}.
+     * The packets sent uncompressed, because compression is disabled or
+     * they are too small or incompressible, are not counted.
+     *
+     * @since 5.2
+     */
+    public static final String DISTRIBUTED_COMPRESSED_BYTES_OUT = "distributedCompressedBytesOut";
+
+    /**
+     * Tracks the time (in nanoseconds) spent compressing the data going out
+     * over the network for DISTRIBUTED output {@link Edge}s with {@link
+     * com.hazelcast.jet.config.EdgeConfig#setCompressionEnabled(boolean)
+     * compression} enabled.
+     *
+     * @since 5.2
+     */
+    public static final String DISTRIBUTED_COMPRESSION_TIME = "distributedCompressionTime";
+
+    /**
+     * Tracks the time (in nanoseconds) the sender of a DISTRIBUTED output
+     * {@link Edge} had data to send, but was not allowed to send it because
+     * it reached the receive window of the receiving member. A large value
+     * means the receiver or its window limits the throughput of the edge.
+     *
+     * @since 5.2
+     */
+    public static final String DISTRIBUTED_SEND_WINDOW_LIMITED_TIME = "distributedSendWindowLimitedTime";
+
+    /**
+     * Tracks the current receive window (bytes) of DISTRIBUTED input {@link
+     * Edge}s, that is how much data the sender can send ahead of the data
+     * processed by the receiver.
+     *
+     * @since 5.2
+     */
+    public static final String DISTRIBUTED_RECEIVE_WINDOW = "distributedReceiveWindow";
+
+    /**
+     * Tracks the minimum round-trip time (in nanoseconds) measured between a
+     * flow-control packet sent by the receiving member of a DISTRIBUTED input
+     * {@link Edge} and the arrival of the data it allowed to send. It's
+     * only measured when {@link
+     * com.hazelcast.spi.properties.ClusterProperty#JET_FLOW_CONTROL_ADAPTIVE_WINDOW}
+     * is enabled.
+     *
+     * @since 5.2
+     */
+    public static final String DISTRIBUTED_MIN_RTT = "distributedMinRtt";
+
+    /**
+     * Tracks the estimated bandwidth (bytes per second) of DISTRIBUTED input
+     * {@link Edge}s, the maximum rate at which the receiver recently
+     * processed the data. It's only measured when {@link
+     * com.hazelcast.spi.properties.ClusterProperty#JET_FLOW_CONTROL_ADAPTIVE_WINDOW}
+     * is enabled.
+     *
+     * @since 5.2
+     */
+    public static final String DISTRIBUTED_BANDWIDTH = "distributedBandwidth";
+
     /**
      * Number of jobs submitted to the Jet cluster.
      * <p>
@@ -22,6 +22,7 @@ import com.hazelcast.jet.Traverser;
 import com.hazelcast.jet.core.AbstractProcessor;
 import com.hazelcast.jet.core.BroadcastKey;
 import com.hazelcast.jet.impl.execution.BroadcastEntry;
+import com.hazelcast.jet.impl.execution.SnapshotChainValue;
 import com.hazelcast.jet.impl.execution.init.Contexts.ProcCtx;
 import com.hazelcast.jet.impl.util.AsyncSnapshotWriterImpl.SnapshotDataKey;
 import com.hazelcast.jet.impl.util.AsyncSnapshotWriterImpl.SnapshotDataValueTerminator;
@@ -37,11 +38,18 @@ import static com.hazelcast.jet.impl.util.Util.uncheckCall;
 public class ExplodeSnapshotP extends AbstractProcessor {
 
     private final Map<String, FlatMapper<byte[], Object>> vertexToFlatMapper = new HashMap<>();
-    private final long expectedSnapshotId;
+    private final long[] expectedSnapshotIds;
     private InternalSerializationService serializationService;
+    private long currentSnapshotId;
 
-    ExplodeSnapshotP(Map<String, Integer> vertexToOrdinal, long expectedSnapshotId) {
-        this.expectedSnapshotId = expectedSnapshotId;
+    /**
+     * @param expectedSnapshotIds the IDs of snapshots in the chain, the
+     *      data for {@code expectedSnapshotIds[i]} is received on ordinal
+     *      {@code i}. If there's more than one, values are wrapped in {@link
+     *      SnapshotChainValue}
+     */
+    ExplodeSnapshotP(Map<String, Integer> vertexToOrdinal, long[] expectedSnapshotIds) {
+        this.expectedSnapshotIds = expectedSnapshotIds;
         for (Entry<String, Integer> en : vertexToOrdinal.entrySet()) {
             Object oldValue = vertexToFlatMapper.put(en.getKey(), flatMapper(en.getValue(), this::traverser));
             assert oldValue == null : "Duplicate ordinal: " + en.getValue();
@@ -67,6 +75,10 @@ public class ExplodeSnapshotP extends AbstractProcessor {
                 return null;
             }
             Object value = in.readObject();
+            if (expectedSnapshotIds.length > 1) {
+                long lastSnapshotId = expectedSnapshotIds[expectedSnapshotIds.length - 1];
+                value = new SnapshotChainValue(currentSnapshotId, currentSnapshotId == lastSnapshotId, value);
+            }
             return key instanceof BroadcastKey
                     ? new BroadcastEntry(key, value)
                     : entry(key, value);
@@ -74,7 +86,7 @@ public class ExplodeSnapshotP extends AbstractProcessor {
     }
 
     @Override
-    protected boolean tryProcess0(@Nonnull Object item) {
+    protected boolean tryProcess(int ordinal, @Nonnull Object item) {
         if (((Entry) item).getKey() instanceof SnapshotValidationRecord.SnapshotValidationKey) {
             // ignore the validation record
             return true;
@@ -91,11 +103,12 @@ public class ExplodeSnapshotP extends AbstractProcessor {
             return true;
         }
         long snapshotId = castItem.getKey().snapshotId();
-        if (snapshotId != expectedSnapshotId) {
+        if (snapshotId != expectedSnapshotIds[ordinal]) {
             getLogger().warning("Data for unexpected snapshot ID encountered, ignoring. Expected="
-                    + expectedSnapshotId + ", found=" + snapshotId);
+                    + expectedSnapshotIds[ordinal] + ", found=" + snapshotId);
             return true;
         }
+        currentSnapshotId = snapshotId;
         return flatMapper.tryProcess(castItem.getValue());
     }
 }
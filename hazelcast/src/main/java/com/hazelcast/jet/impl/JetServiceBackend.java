@@ -21,6 +21,7 @@ import com.hazelcast.client.impl.ClientEngineImpl;
 import com.hazelcast.client.impl.protocol.ClientExceptionFactory;
 import com.hazelcast.cluster.ClusterState;
 import com.hazelcast.config.Config;
+import com.hazelcast.config.InvalidConfigurationException;
 import com.hazelcast.config.MapConfig;
 import com.hazelcast.instance.impl.Node;
 import com.hazelcast.instance.impl.NodeState;
@@ -41,6 +42,9 @@ import com.hazelcast.jet.impl.metrics.JobMetricsPublisher;
 import com.hazelcast.jet.impl.operation.NotifyMemberShutdownOperation;
 import com.hazelcast.jet.impl.operation.PrepareForPassiveClusterOperation;
 import com.hazelcast.jet.impl.serialization.DelegatingSerializationService;
+import com.hazelcast.jet.impl.snapshot.IMapSnapshotStore;
+import com.hazelcast.jet.impl.snapshot.LocalDiskSnapshotStore;
+import com.hazelcast.jet.impl.snapshot.SnapshotStore;
 import com.hazelcast.jet.impl.util.ExceptionUtil;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.spi.impl.NodeEngine;
@@ -52,6 +56,7 @@ import com.hazelcast.spi.merge.DiscardMergePolicy;
 import com.hazelcast.spi.properties.HazelcastProperties;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.CompletableFuture;
@@ -68,6 +73,8 @@ import static com.hazelcast.jet.impl.JobRepository.JOB_METRICS_MAP_NAME;
 import static com.hazelcast.jet.impl.JobRepository.JOB_RESULTS_MAP_NAME;
 import static com.hazelcast.jet.impl.util.ExceptionUtil.sneakyThrow;
 import static com.hazelcast.jet.impl.util.Util.memoizeConcurrent;
+import static com.hazelcast.spi.properties.ClusterProperty.JET_SNAPSHOT_STORE;
+import static com.hazelcast.spi.properties.ClusterProperty.JET_SNAPSHOT_STORE_DIRECTORY;
 import static com.hazelcast.spi.properties.ClusterProperty.JOB_RESULTS_TTL_SECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -93,6 +100,8 @@ public class JetServiceBackend implements ManagedService, MembershipAwareService
     private JobCoordinationService jobCoordinationService;
     private JobClassLoaderService jobClassLoaderService;
     private JobExecutionService jobExecutionService;
+    private SnapshotStore imapSnapshotStore;
+    private SnapshotStore snapshotStore;
 
     private final AtomicInteger numConcurrentAsyncOps = new AtomicInteger();
     private final Supplier<int[]> sharedPartitionKeys = memoizeConcurrent(this::computeSharedPartitionKeys);
@@ -115,6 +124,8 @@ public class JetServiceBackend implements ManagedService, MembershipAwareService
         jobCoordinationService = createJobCoordinationService();
         jobClassLoaderService = new JobClassLoaderService(nodeEngine, jobRepository);
         jobExecutionService = new JobExecutionService(nodeEngine, taskletExecutionService, jobClassLoaderService);
+        imapSnapshotStore = new IMapSnapshotStore(engine.getHazelcastInstance());
+        snapshotStore = createSnapshotStore();
 
         MetricsService metricsService = nodeEngine.getService(MetricsService.SERVICE_NAME);
         metricsService.registerPublisher(nodeEngine -> new JobMetricsPublisher(jobExecutionService,
@@ -134,6 +145,19 @@ public class JetServiceBackend implements ManagedService, MembershipAwareService
                 + jetConfig.getCooperativeThreadCount());
     }
 
+    private SnapshotStore createSnapshotStore() {
+        String storeName = nodeEngine.getProperties().getString(JET_SNAPSHOT_STORE);
+        if (LocalDiskSnapshotStore.STORE_NAME.equals(storeName)) {
+            return new LocalDiskSnapshotStore(nodeEngine,
+                    Paths.get(nodeEngine.getProperties().getString(JET_SNAPSHOT_STORE_DIRECTORY)));
+        }
+        if (!"imap".equals(storeName)) {
+            throw new InvalidConfigurationException("Unknown value of " + JET_SNAPSHOT_STORE.getName() + ": " + storeName
+                    + ", supported values are imap and " + LocalDiskSnapshotStore.STORE_NAME);
+        }
+        return imapSnapshotStore;
+    }
+
     public void configureJetInternalObjects(Config config, HazelcastProperties properties) {
         JetConfig jetConfig = config.getJetConfig();
         MapConfig internalMapConfig = new MapConfig(INTERNAL_JET_OBJECTS_PREFIX + '*')
@@ -205,6 +229,7 @@ public class JetServiceBackend implements ManagedService, MembershipAwareService
         taskletExecutionService.shutdown();
         taskletExecutionService.awaitWorkerTermination();
         networking.shutdown();
+        snapshotStore.shutdown();
     }
 
     @Override
@@ -236,6 +261,15 @@ public class JetServiceBackend implements ManagedService, MembershipAwareService
         return liveOperationRegistry;
     }
 
+    /**
+     * Returns the store for the snapshot data in the given map. Only the
+     * regular snapshots use the configured store, exported snapshots are
+     * always stored in the IMap.
+     */
+    public SnapshotStore snapshotStore(String mapName) {
+        return mapName.startsWith(JobRepository.SNAPSHOT_DATA_MAP_PREFIX) ? snapshotStore : imapSnapshotStore;
+    }
+
     public JobRepository getJobRepository() {
         return jobRepository;
     }
@@ -26,6 +26,9 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -43,6 +46,7 @@ import static com.hazelcast.jet.impl.util.Util.toLocalTime;
 public class JobExecutionRecord implements IdentifiedDataSerializable {
 
     public static final int NO_SNAPSHOT = -1;
+    private static final int[] NO_DATA_MAP_INDEXES = new int[0];
     /**
      * Timestamp to order async updates to the JobRecord. {@link
      * JobRepository#writeJobExecutionRecord}.
@@ -54,7 +58,9 @@ public class JobExecutionRecord implements IdentifiedDataSerializable {
     private volatile JobSuspensionCause suspensionCause;
     private volatile long snapshotId = NO_SNAPSHOT;
     private volatile int dataMapIndex = -1;
+    private volatile int[] incrementalDataMapIndexes = NO_DATA_MAP_INDEXES;
     private volatile long ongoingSnapshotId = NO_SNAPSHOT;
+    private volatile boolean ongoingSnapshotIncremental;
     private volatile long ongoingSnapshotStartTime = Long.MIN_VALUE;
     private volatile String exportedSnapshotMapName;
     @Nullable
@@ -121,9 +127,12 @@ public class JobExecutionRecord implements IdentifiedDataSerializable {
     @SuppressWarnings("NonAtomicOperationOnVolatileField")
     @SuppressFBWarnings(value = "VO_VOLATILE_INCREMENT",
             justification = "all updates to ongoingSnapshotId are synchronized")
-    public void startNewSnapshot(String exportedSnapshotMapName) {
+    public void startNewSnapshot(String exportedSnapshotMapName, boolean incremental) {
+        assert exportedSnapshotMapName == null || !incremental : "exported snapshot can't be incremental";
+        assert dataMapIndex >= 0 || !incremental : "incremental snapshot without a full one";
         ongoingSnapshotId++;
         ongoingSnapshotStartTime = Clock.currentTimeMillis();
+        ongoingSnapshotIncremental = incremental;
         this.exportedSnapshotMapName = exportedSnapshotMapName;
     }
 
@@ -136,11 +145,20 @@ public class JobExecutionRecord implements IdentifiedDataSerializable {
         );
         // switch dataMapIndex only if the snapshot was successful and it wasn't an exported one
         if (failureText == null && exportedSnapshotMapName == null) {
-            dataMapIndex = ongoingDataMapIndex();
+            int newDataMapIndex = ongoingDataMapIndex();
+            if (ongoingSnapshotIncremental) {
+                int[] newIndexes = Arrays.copyOf(incrementalDataMapIndexes, incrementalDataMapIndexes.length + 1);
+                newIndexes[newIndexes.length - 1] = newDataMapIndex;
+                incrementalDataMapIndexes = newIndexes;
+            } else {
+                dataMapIndex = newDataMapIndex;
+                incrementalDataMapIndexes = NO_DATA_MAP_INDEXES;
+            }
             snapshotId = ongoingSnapshotId;
             snapshotStats = res;
         }
         exportedSnapshotMapName = null;
+        ongoingSnapshotIncremental = false;
         ongoingSnapshotStartTime = Long.MIN_VALUE;
         return res;
     }
@@ -154,23 +172,51 @@ public class JobExecutionRecord implements IdentifiedDataSerializable {
     }
 
     /**
-     * The data map index of current successful snapshot (0 or 1) or -1, if
-     * there's no successful snapshot.
+     * The data map index of current successful full snapshot or -1, if
+     * there's no successful snapshot. Without incremental snapshots, it's
+     * always 0 or 1.
      */
     public int dataMapIndex() {
         return dataMapIndex;
     }
 
+    /**
+     * The data map indexes of the successful incremental snapshots taken
+     * after the full snapshot in {@link #dataMapIndex()}, in the order they
+     * were taken. The last one contains the current successful snapshot.
+     */
+    public int[] incrementalDataMapIndexes() {
+        return incrementalDataMapIndexes;
+    }
+
     /**
      * Returns the index of the data map into which the new snapshot will be
-     * written.
+     * written: the lowest index not used by the current successful full and
+     * incremental snapshots.
      */
     int ongoingDataMapIndex() {
-        assert dataMapIndex == 0 // we'll return 1
-                || dataMapIndex == 1 // we'll return 0
-                || dataMapIndex == -1 // we'll return 0
-                : "dataMapIndex=" + dataMapIndex;
-        return (dataMapIndex + 1) & 1;
+        int index = 0;
+        while (index == dataMapIndex || contains(incrementalDataMapIndexes, index)) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Returns true, if the data map with the given index contains the current
+     * successful full snapshot or one of the incremental snapshots after it.
+     */
+    boolean isDataMapIndexUsed(int index) {
+        return index == dataMapIndex || contains(incrementalDataMapIndexes, index);
+    }
+
+    private static boolean contains(int[] array, int value) {
+        for (int element : array) {
+            if (element == value) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -234,11 +280,21 @@ public class JobExecutionRecord implements IdentifiedDataSerializable {
         timestamp.updateAndGet(v -> Math.max(Clock.currentTimeMillis(), v + 1));
     }
 
-    String successfulSnapshotDataMapName(long jobId) {
+    /**
+     * Returns the names of the data maps to restore the current successful
+     * snapshot from: the full snapshot followed by the incremental ones.
+     */
+    List<String> successfulSnapshotDataMapNames(long jobId) {
         if (snapshotId() < 0) {
             throw new IllegalStateException("No successful snapshot");
         }
-        return snapshotDataMapName(jobId, dataMapIndex());
+        int[] incrementalIndexes = incrementalDataMapIndexes;
+        List<String> names = new ArrayList<>(1 + incrementalIndexes.length);
+        names.add(snapshotDataMapName(jobId, dataMapIndex()));
+        for (int index : incrementalIndexes) {
+            names.add(snapshotDataMapName(jobId, index));
+        }
+        return names;
     }
 
     @Override
@@ -266,6 +322,8 @@ public class JobExecutionRecord implements IdentifiedDataSerializable {
         out.writeObject(suspensionCause);
         out.writeBoolean(executed);
         out.writeLong(timestamp.get());
+        out.writeIntArray(incrementalDataMapIndexes);
+        out.writeBoolean(ongoingSnapshotIncremental);
     }
 
     @Override
@@ -282,6 +340,8 @@ public class JobExecutionRecord implements IdentifiedDataSerializable {
         suspensionCause = in.readObject();
         executed = in.readBoolean();
         timestamp.set(in.readLong());
+        incrementalDataMapIndexes = in.readIntArray();
+        ongoingSnapshotIncremental = in.readBoolean();
     }
 
     @Override
@@ -293,6 +353,7 @@ public class JobExecutionRecord implements IdentifiedDataSerializable {
                 ", suspended=" + (suspensionCause != null) +
                 ", executed=" + executed +
                 ", dataMapIndex=" + dataMapIndex +
+                ", incrementalDataMapIndexes=" + Arrays.toString(incrementalDataMapIndexes) +
                 ", snapshotId=" + snapshotId +
                 ", ongoingSnapshotId=" + ongoingSnapshotId +
                 ", ongoingSnapshotStartTime=" + toLocalTime(ongoingSnapshotStartTime) +
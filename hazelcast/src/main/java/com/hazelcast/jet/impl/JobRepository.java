@@ -83,6 +83,7 @@ import static com.hazelcast.jet.impl.util.IOUtil.fileNameFromUrl;
 import static com.hazelcast.jet.impl.util.IOUtil.packDirectoryIntoZip;
 import static com.hazelcast.jet.impl.util.IOUtil.packStreamIntoZip;
 import static com.hazelcast.jet.impl.util.LoggingUtil.logFine;
+import static com.hazelcast.jet.impl.util.Util.getNodeEngine;
 import static com.hazelcast.jet.impl.util.Util.memoizeConcurrent;
 import static com.hazelcast.map.impl.EntryRemovingProcessor.ENTRY_REMOVING_PROCESSOR;
 import static com.hazelcast.map.impl.MapService.SERVICE_NAME;
@@ -180,6 +181,7 @@ public class JobRepository {
     private final Supplier<IMap<Long, List<RawJobMetrics>>> jobMetrics;
     private final Supplier<IMap<String, SnapshotValidationRecord>> exportedSnapshotDetailsCache;
     private final Supplier<FlakeIdGenerator> idGenerator;
+    private final Supplier<JetServiceBackend> jetServiceBackend;
 
     private long resourcesExpirationMillis = DEFAULT_RESOURCES_EXPIRATION_MILLIS;
 
@@ -193,6 +195,7 @@ public class JobRepository {
         jobMetrics = memoizeConcurrent(() -> instance.getMap(JOB_METRICS_MAP_NAME));
         exportedSnapshotDetailsCache = memoizeConcurrent(() -> instance.getMap(EXPORTED_SNAPSHOTS_DETAIL_CACHE));
         idGenerator = memoizeConcurrent(() -> instance.getFlakeIdGenerator(RANDOM_ID_GENERATOR_NAME));
+        jetServiceBackend = memoizeConcurrent(() -> getNodeEngine(instance).getService(JetServiceBackend.SERVICE_NAME));
     }
 
     // for tests
@@ -450,7 +453,7 @@ public class JobRepository {
                 long id = jobIdFromPrefixedName(map.getName(), SNAPSHOT_DATA_MAP_PREFIX);
                 if (!activeJobs.contains(id)) {
                     logFine(logger, "Deleting snapshot data map '%s' because job already finished", map.getName());
-                    map.destroy();
+                    jetServiceBackend.get().snapshotStore(map.getName()).destroy(map.getName());
                 }
             } else if (map.getName().startsWith(RESOURCES_MAP_NAME_PREFIX)) {
                 deleteMap(activeJobs, map);
@@ -648,7 +651,7 @@ public class JobRepository {
     void clearSnapshotData(long jobId, int dataMapIndex) {
         String mapName = snapshotDataMapName(jobId, dataMapIndex);
         try {
-            instance.getMap(mapName).clear();
+            jetServiceBackend.get().snapshotStore(mapName).clear(mapName);
             logFine(logger, "Cleared snapshot data map %s", mapName);
         } catch (Exception logged) {
             logger.warning("Cannot delete old snapshot data  " + idToString(jobId), logged);
@@ -80,7 +80,7 @@ import static com.hazelcast.function.Functions.entryKey;
 import static com.hazelcast.jet.Util.entry;
 import static com.hazelcast.jet.Util.idToString;
 import static com.hazelcast.jet.config.ProcessingGuarantee.NONE;
-import static com.hazelcast.jet.core.Edge.between;
+import static com.hazelcast.jet.core.Edge.from;
 import static com.hazelcast.jet.core.JobStatus.COMPLETED;
 import static com.hazelcast.jet.core.JobStatus.FAILED;
 import static com.hazelcast.jet.core.JobStatus.NOT_RUNNING;
@@ -88,9 +88,9 @@ import static com.hazelcast.jet.core.JobStatus.RUNNING;
 import static com.hazelcast.jet.core.JobStatus.STARTING;
 import static com.hazelcast.jet.core.JobStatus.SUSPENDED;
 import static com.hazelcast.jet.core.JobStatus.SUSPENDED_EXPORTING_SNAPSHOT;
-import static com.hazelcast.jet.core.processor.SourceProcessors.readMapP;
 import static com.hazelcast.jet.datamodel.Tuple2.tuple2;
 import static com.hazelcast.jet.impl.JobClassLoaderService.JobPhase.COORDINATOR;
+import static com.hazelcast.jet.impl.JobExecutionRecord.NO_SNAPSHOT;
 import static com.hazelcast.jet.impl.JobRepository.EXPORTED_SNAPSHOTS_PREFIX;
 import static com.hazelcast.jet.impl.SnapshotValidator.validateSnapshot;
 import static com.hazelcast.jet.impl.TerminationMode.ActionAfterTerminate.RESTART;
@@ -110,6 +110,7 @@ import static com.hazelcast.jet.impl.util.Util.doWithClassLoader;
 import static com.hazelcast.jet.impl.util.Util.formatJobDuration;
 import static com.hazelcast.jet.impl.util.Util.toList;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static java.util.concurrent.CompletableFuture.completedFuture;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.stream.Collectors.partitioningBy;
@@ -211,12 +212,12 @@ public class MasterJobContext {
                 String dotRepresentation = dag.toDotString(defaultParallelism, defaultQueueSize);
                 long snapshotId = jobExecRec.snapshotId();
                 String snapshotName = mc.jobConfig().getInitialSnapshotName();
-                String mapName =
-                        snapshotId >= 0 ? jobExecRec.successfulSnapshotDataMapName(mc.jobId())
-                                : snapshotName != null ? EXPORTED_SNAPSHOTS_PREFIX + snapshotName
+                List<String> mapNames =
+                        snapshotId >= 0 ? jobExecRec.successfulSnapshotDataMapNames(mc.jobId())
+                                : snapshotName != null ? singletonList(EXPORTED_SNAPSHOTS_PREFIX + snapshotName)
                                 : null;
-                if (mapName != null) {
-                    rewriteDagWithSnapshotRestore(dag, snapshotId, mapName, snapshotName);
+                if (mapNames != null) {
+                    rewriteDagWithSnapshotRestore(dag, snapshotId, mapNames, snapshotName);
                 } else {
                     logger.info("Didn't find any snapshot to restore for " + mc.jobIdString());
                 }
@@ -382,21 +383,38 @@ public class MasterJobContext {
         return result;
     }
 
-    private void rewriteDagWithSnapshotRestore(DAG dag, long snapshotId, String mapName, String snapshotName) {
-        IMap<Object, Object> snapshotMap = mc.nodeEngine().getHazelcastInstance().getMap(mapName);
-        long resolvedSnapshotId = validateSnapshot(
-                snapshotId, snapshotMap, mc.jobIdString(), snapshotName);
+    /**
+     * Adds the vertices reading the snapshot to the DAG. The {@code mapNames}
+     * contain the full snapshot, followed by the incremental snapshots taken
+     * after it, if any. The {@code snapshotId} is the ID of the last one.
+     */
+    private void rewriteDagWithSnapshotRestore(DAG dag, long snapshotId, List<String> mapNames, String snapshotName) {
+        long[] resolvedSnapshotIds = new long[mapNames.size()];
+        for (int i = 0; i < mapNames.size(); i++) {
+            IMap<Object, Object> snapshotMap = mc.nodeEngine().getHazelcastInstance().getMap(mapNames.get(i));
+            boolean isLast = i == mapNames.size() - 1;
+            resolvedSnapshotIds[i] = validateSnapshot(isLast ? snapshotId : NO_SNAPSHOT, snapshotMap,
+                    mc.getJetServiceBackend().snapshotStore(mapNames.get(i)), mc.jobIdString(), snapshotName);
+            if (i > 0 && resolvedSnapshotIds[i] <= resolvedSnapshotIds[i - 1]) {
+                throw new JetException(String.format("%s: incremental snapshot %d in IMap '%s' is not newer than " +
+                        "the previous snapshot %d", mc.jobIdString(), resolvedSnapshotIds[i], mapNames.get(i),
+                        resolvedSnapshotIds[i - 1]));
+            }
+        }
         logger.info(String.format(
                 "About to restore the state of %s from snapshot %d, mapName = %s",
-                mc.jobIdString(), resolvedSnapshotId, mapName));
+                mc.jobIdString(), resolvedSnapshotIds[resolvedSnapshotIds.length - 1], String.join(", ", mapNames)));
         List<Vertex> originalVertices = new ArrayList<>();
         dag.iterator().forEachRemaining(originalVertices::add);
 
         Map<String, Integer> vertexToOrdinal = new HashMap<>();
-        Vertex readSnapshotVertex = dag.newVertex(SNAPSHOT_VERTEX_PREFIX + "read", readMapP(mapName));
         Vertex explodeVertex = dag.newVertex(SNAPSHOT_VERTEX_PREFIX + "explode",
-                () -> new ExplodeSnapshotP(vertexToOrdinal, resolvedSnapshotId));
-        dag.edge(between(readSnapshotVertex, explodeVertex).isolated());
+                () -> new ExplodeSnapshotP(vertexToOrdinal, resolvedSnapshotIds));
+        for (int i = 0; i < mapNames.size(); i++) {
+            Vertex readSnapshotVertex = dag.newVertex(SNAPSHOT_VERTEX_PREFIX + "read" + (i == 0 ? "" : "-" + i),
+                    mc.getJetServiceBackend().snapshotStore(mapNames.get(i)).readP(mapNames.get(i)));
+            dag.edge(from(readSnapshotVertex).to(explodeVertex, i).isolated());
+        }
 
         int index = 0;
         // add the edges
@@ -54,6 +54,7 @@ import static com.hazelcast.jet.impl.JobRepository.snapshotDataMapName;
 import static com.hazelcast.jet.impl.util.ExceptionUtil.withTryCatch;
 import static com.hazelcast.jet.impl.util.LoggingUtil.logFine;
 import static com.hazelcast.jet.impl.util.Util.jobNameAndExecutionId;
+import static com.hazelcast.spi.properties.ClusterProperty.JET_SNAPSHOT_MAX_INCREMENTAL_COUNT;
 import static java.util.concurrent.CompletableFuture.completedFuture;
 
 /**
@@ -129,6 +130,7 @@ class MasterSnapshotContext {
     void tryBeginSnapshot() {
         mc.coordinationService().submitToCoordinatorThread(() -> {
             boolean isTerminal;
+            boolean isIncremental;
             String snapshotMapName;
             CompletableFuture<Void> future;
             mc.lock();
@@ -156,7 +158,8 @@ class MasterSnapshotContext {
                 assert requestedSnapshot.f1() != null;
                 isTerminal = requestedSnapshot.f1();
                 future = requestedSnapshot.f2();
-                mc.jobExecutionRecord().startNewSnapshot(snapshotMapName);
+                isIncremental = snapshotMapName == null && isNextSnapshotIncremental();
+                mc.jobExecutionRecord().startNewSnapshot(snapshotMapName, isIncremental);
                 localExecutionId = mc.executionId();
             } finally {
                 mc.unlock();
@@ -165,10 +168,10 @@ class MasterSnapshotContext {
             mc.writeJobExecutionRecord(false);
             long newSnapshotId = mc.jobExecutionRecord().ongoingSnapshotId();
             boolean isExport = snapshotMapName != null;
-            int snapshotFlags = SnapshotFlags.create(isTerminal, isExport);
+            int snapshotFlags = SnapshotFlags.create(isTerminal, isExport, isIncremental);
             String finalMapName = isExport ? exportedSnapshotMapName(snapshotMapName)
                     : snapshotDataMapName(mc.jobId(), mc.jobExecutionRecord().ongoingDataMapIndex());
-            mc.nodeEngine().getHazelcastInstance().getMap(finalMapName).clear();
+            mc.getJetServiceBackend().snapshotStore(finalMapName).clear(finalMapName);
             logFine(logger, "Starting snapshot %d for %s, flags: %s, writing to: %s",
                     newSnapshotId, jobNameAndExecutionId(mc.jobName(), localExecutionId),
                     SnapshotFlags.toString(snapshotFlags), snapshotMapName);
@@ -186,6 +189,24 @@ class MasterSnapshotContext {
         });
     }
 
+    private void clearUnusedSnapshotData(int dataMapIndex, int ongoingDataMapIndex) {
+        if (dataMapIndex >= 0 && dataMapIndex != ongoingDataMapIndex
+                && !mc.jobExecutionRecord().isDataMapIndexUsed(dataMapIndex)) {
+            mc.jobRepository().clearSnapshotData(mc.jobId(), dataMapIndex);
+        }
+    }
+
+    /**
+     * Returns true, if the next regular snapshot should save only the changes
+     * since the current successful snapshot.
+     */
+    private boolean isNextSnapshotIncremental() {
+        JobExecutionRecord jobExecutionRecord = mc.jobExecutionRecord();
+        int maxIncrementalCount = mc.nodeEngine().getProperties().getInteger(JET_SNAPSHOT_MAX_INCREMENTAL_COUNT);
+        return jobExecutionRecord.dataMapIndex() >= 0
+                && jobExecutionRecord.incrementalDataMapIndexes().length < maxIncrementalCount;
+    }
+
     /**
      * @param responses collected responses from the members
      * @param snapshotMapName the IMap name to which the snapshot is written
@@ -303,7 +324,10 @@ class MasterSnapshotContext {
                 }
 
                 isSuccess = mergedResult.getError() == null;
-                stats = mc.jobExecutionRecord().ongoingSnapshotDone(
+                JobExecutionRecord jobExecutionRecord = mc.jobExecutionRecord();
+                int previousDataMapIndex = jobExecutionRecord.dataMapIndex();
+                int[] previousIncrementalDataMapIndexes = jobExecutionRecord.incrementalDataMapIndexes();
+                stats = jobExecutionRecord.ongoingSnapshotDone(
                         mergedResult.getNumBytes(), mergedResult.getNumKeys(), mergedResult.getNumChunks(),
                         mergedResult.getError());
 
@@ -327,7 +351,13 @@ class MasterSnapshotContext {
                     }
                 }
                 if (!SnapshotFlags.isExport(snapshotFlags)) {
-                    mc.jobRepository().clearSnapshotData(mc.jobId(), mc.jobExecutionRecord().ongoingDataMapIndex());
+                    int ongoingDataMapIndex = jobExecutionRecord.ongoingDataMapIndex();
+                    mc.jobRepository().clearSnapshotData(mc.jobId(), ongoingDataMapIndex);
+                    // after a successful full snapshot, the previous incremental snapshots aren't needed
+                    clearUnusedSnapshotData(previousDataMapIndex, ongoingDataMapIndex);
+                    for (int index : previousIncrementalDataMapIndexes) {
+                        clearUnusedSnapshotData(index, ongoingDataMapIndex);
+                    }
                 }
             } finally {
                 mc.unlock();
@@ -16,9 +16,8 @@
 
 package com.hazelcast.jet.impl;
 
-import com.hazelcast.aggregation.Aggregators;
 import com.hazelcast.jet.JetException;
-import com.hazelcast.jet.impl.util.AsyncSnapshotWriterImpl.SnapshotDataKey;
+import com.hazelcast.jet.impl.snapshot.SnapshotStore;
 import com.hazelcast.map.IMap;
 
 import static com.hazelcast.jet.impl.JobExecutionRecord.NO_SNAPSHOT;
@@ -34,13 +33,15 @@ final class SnapshotValidator {
      * @param snapshotId snapshot ID or {@link JobExecutionRecord#NO_SNAPSHOT}
      *                   if snapshot ID is not known
      * @param snapshotMap snapshot map to validate
+     * @param snapshotStore the store of the chunks of the snapshot
      * @param jobIdString name and ID of the job, for debug output
      * @param snapshotName user-supplied snapshot name for debug output,
      *                     null if it's not an exported snapshot
      * @return the snapshot ID of the snapshot being validated
      */
     static long validateSnapshot(
-            long snapshotId, IMap<Object, Object> snapshotMap, String jobIdString, String snapshotName
+            long snapshotId, IMap<Object, Object> snapshotMap, SnapshotStore snapshotStore, String jobIdString,
+            String snapshotName
     ) {
         SnapshotValidationRecord validationRecord =
                 (SnapshotValidationRecord) snapshotMap.get(SnapshotValidationRecord.KEY);
@@ -51,15 +52,13 @@ final class SnapshotValidator {
                     nameOrId, snapshotMap.getName(), snapshotMap.size(), jobIdString));
         }
         if (validationRecord.numChunks() != snapshotMap.size() - 1) {
-            // fallback validation that counts using aggregate(), ignoring different snapshot IDs
-            long filteredCount = snapshotMap.aggregate(
-                    Aggregators.count(),
-                    e -> e.getKey() instanceof SnapshotDataKey
-                            && ((SnapshotDataKey) e.getKey()).snapshotId() == snapshotId);
+            // fallback validation that counts the chunks in the store, ignoring different snapshot IDs.
+            // The IMap contains only the validation record if the chunks are stored elsewhere.
+            long filteredCount = snapshotStore.countChunks(snapshotMap.getName(), validationRecord.snapshotId());
             if (validationRecord.numChunks() != filteredCount) {
                 throw new JetException(String.format(
                         "State for %s in IMap '%s' is corrupted: it should have %,d entries, but has %,d",
-                        jobIdString, snapshotMap.getName(), validationRecord.numChunks(), snapshotMap.size() - 1));
+                        jobIdString, snapshotMap.getName(), validationRecord.numChunks(), filteredCount));
             }
         }
         if (snapshotId != NO_SNAPSHOT && snapshotId != validationRecord.snapshotId()) {
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import static com.hazelcast.jet.impl.execution.ReceiverTasklet.COMPRESSED_SEQ_UNIT_LOG2;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Sizes the receive window of a {@link ReceiverTasklet} similarly to the BBR
+ * congestion control. The window is the bandwidth-delay product multiplied
+ * by {@link #WINDOW_GAIN}, where:
+ * <ul><li>
+ *     the bandwidth is the maximum rate at which the receiver processed the
+ *     data in the last {@link #BANDWIDTH_FILTER_LENGTH} flow-control periods
+ * </li><li>
+ *     the delay is the minimum round-trip time measured in the last {@link
+ *     #MIN_RTT_FILTER_NANOS} plus one flow-control period, because the
+ *     receiver grants the window only once per period
+ * </li></ul>
+ * The window grows to the target immediately, but shrinks only halfway and
+ * only if the receiver is the bottleneck.
+ * <p>
+ * Not thread-safe except for the getters used for metrics: it's updated
+ * sequentially by a task scheduler.
+ */
+class AdaptiveReceiveWindow {
+
+    static final double WINDOW_GAIN = 2.0;
+    static final int BANDWIDTH_FILTER_LENGTH = 10;
+    static final long MIN_RTT_FILTER_NANOS = SECONDS.toNanos(10);
+    static final int MIN_RECEIVE_WINDOW_COMPRESSED = 2;
+    // keeps the sequence limits far from the int wrap-around
+    static final int MAX_RECEIVE_WINDOW_COMPRESSED = 1 << 24;
+
+    private final double flowControlPeriodNs;
+    // bytes per nanosecond, a ring buffer of the recent samples
+    private final double[] rateSamples = new double[BANDWIDTH_FILTER_LENGTH];
+    private int rateSamplesIndex;
+    private long minRttTimestamp;
+
+    // read by the metrics collector
+    private volatile double bandwidth;
+    private volatile long minRttNanos = -1;
+
+    AdaptiveReceiveWindow(double flowControlPeriodNs) {
+        this.flowControlPeriodNs = flowControlPeriodNs;
+    }
+
+    /**
+     * Adds a round-trip time sample. It replaces the current minimum if it's
+     * lower or if the minimum is older than {@link #MIN_RTT_FILTER_NANOS}.
+     */
+    void addRttSample(long rttNanos, long timestampNow) {
+        if (minRttNanos < 0 || rttNanos <= minRttNanos || timestampNow - minRttTimestamp > MIN_RTT_FILTER_NANOS) {
+            minRttNanos = rttNanos;
+            minRttTimestamp = timestampNow;
+        }
+    }
+
+    /**
+     * Adds the amount of data processed by the receiver since the previous
+     * call and returns the new receive window.
+     *
+     * @param processedBytes          bytes processed since the previous call
+     * @param timeDeltaNanos          time since the previous call
+     * @param receiveWindowCompressed the current receive window
+     * @param receiverIdle            whether nothing is waiting in the inbox of
+     *                                the receiver. The window isn't shrunk in
+     *                                that case, because it's the sender who
+     *                                doesn't send enough data.
+     */
+    int update(long processedBytes, long timeDeltaNanos, int receiveWindowCompressed, boolean receiverIdle) {
+        rateSamples[rateSamplesIndex] = timeDeltaNanos > 0 ? (double) processedBytes / timeDeltaNanos : 0;
+        rateSamplesIndex = (rateSamplesIndex + 1) % rateSamples.length;
+        double maxRate = 0;
+        for (double rate : rateSamples) {
+            maxRate = Math.max(maxRate, rate);
+        }
+        bandwidth = maxRate;
+
+        double delayNanos = Math.max(minRttNanos, 0) + flowControlPeriodNs;
+        double targetBytes = WINDOW_GAIN * maxRate * delayNanos;
+        int target = (int) Math.max(MIN_RECEIVE_WINDOW_COMPRESSED,
+                Math.min(MAX_RECEIVE_WINDOW_COMPRESSED, Math.round(targetBytes / (1 << COMPRESSED_SEQ_UNIT_LOG2))));
+        if (target >= receiveWindowCompressed) {
+            return target;
+        }
+        return receiverIdle ? receiveWindowCompressed : receiveWindowCompressed - (receiveWindowCompressed - target) / 2;
+    }
+
+    /**
+     * Returns the estimated bandwidth in bytes per second.
+     */
+    long bandwidthBytesPerSecond() {
+        return Math.round(bandwidth * SECONDS.toNanos(1));
+    }
+
+    /**
+     * Returns the minimum round-trip time or -1, if not measured yet.
+     */
+    long minRttNanos() {
+        return minRttNanos;
+    }
+}
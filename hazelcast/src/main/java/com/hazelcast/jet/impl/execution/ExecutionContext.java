@@ -64,6 +64,7 @@ import static com.hazelcast.jet.core.metrics.MetricNames.EXECUTION_COMPLETION_TI
 import static com.hazelcast.jet.core.metrics.MetricNames.EXECUTION_START_TIME;
 import static com.hazelcast.jet.impl.util.ExceptionUtil.withTryCatch;
 import static com.hazelcast.jet.impl.util.Util.doWithClassLoader;
+import static com.hazelcast.spi.properties.ClusterProperty.JET_SNAPSHOT_MAX_INCREMENTAL_COUNT;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.unmodifiableMap;
 
@@ -152,7 +153,8 @@ public class ExecutionContext implements DynamicMetricsProvider {
         // available to be completed in the case of init failure
         vertices = plan.getVertices();
         snapshotContext = new SnapshotContext(nodeEngine.getLogger(SnapshotContext.class), jobNameAndExecutionId(),
-                plan.lastSnapshotId(), jobConfig.getProcessingGuarantee());
+                plan.lastSnapshotId(), jobConfig.getProcessingGuarantee(),
+                nodeEngine.getProperties().getInteger(JET_SNAPSHOT_MAX_INCREMENTAL_COUNT) > 0);
 
         JetServiceBackend jetServiceBackend = nodeEngine.getService(JetServiceBackend.SERVICE_NAME);
         serializationService = jetServiceBackend.createSerializationService(jobConfig.getSerializerConfigs());
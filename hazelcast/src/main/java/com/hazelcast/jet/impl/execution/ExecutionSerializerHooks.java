@@ -166,4 +166,71 @@ class ExecutionSerializerHooks {
             return true;
         }
     }
+
+    public static final class SnapshotTombstoneHook implements SerializerHook<SnapshotTombstone> {
+
+        @Override
+        public Class<SnapshotTombstone> getSerializationType() {
+            return SnapshotTombstone.class;
+        }
+
+        @Override
+        public Serializer createSerializer() {
+            return new StreamSerializer<SnapshotTombstone>() {
+                @Override
+                public int getTypeId() {
+                    return SerializerHookConstants.SNAPSHOT_TOMBSTONE;
+                }
+
+                @Override
+                public void write(ObjectDataOutput out, SnapshotTombstone object) {
+                }
+
+                @Override
+                public SnapshotTombstone read(ObjectDataInput in) {
+                    return SnapshotTombstone.TOMBSTONE;
+                }
+            };
+        }
+
+        @Override
+        public boolean isOverwritable() {
+            return true;
+        }
+    }
+
+    public static final class SnapshotChainValueHook implements SerializerHook<SnapshotChainValue> {
+
+        @Override
+        public Class<SnapshotChainValue> getSerializationType() {
+            return SnapshotChainValue.class;
+        }
+
+        @Override
+        public Serializer createSerializer() {
+            return new StreamSerializer<SnapshotChainValue>() {
+                @Override
+                public int getTypeId() {
+                    return SerializerHookConstants.SNAPSHOT_CHAIN_VALUE;
+                }
+
+                @Override
+                public void write(ObjectDataOutput out, SnapshotChainValue object) throws IOException {
+                    out.writeLong(object.snapshotId());
+                    out.writeBoolean(object.isLatest());
+                    out.writeObject(object.value());
+                }
+
+                @Override
+                public SnapshotChainValue read(ObjectDataInput in) throws IOException {
+                    return new SnapshotChainValue(in.readLong(), in.readBoolean(), in.readObject());
+                }
+            };
+        }
+
+        @Override
+        public boolean isOverwritable() {
+            return true;
+        }
+    }
 }
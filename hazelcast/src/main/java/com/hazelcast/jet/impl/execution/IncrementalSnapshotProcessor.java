@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.jet.core.Processor;
+
+/**
+ * A {@link Processor} that can save only the state changed since the
+ * previous successful snapshot. Enabled by the {@link
+ * com.hazelcast.spi.properties.ClusterProperty#JET_SNAPSHOT_MAX_INCREMENTAL_COUNT}
+ * property.
+ * <p>
+ * In an incremental snapshot the processor saves the current value of the
+ * keys changed since the previous successful snapshot and a {@link
+ * SnapshotTombstone#TOMBSTONE} for the keys it removed. When restoring,
+ * the processor receives the latest value of each key across the full
+ * snapshot and the incremental snapshots taken after it; the keys whose
+ * latest value is a tombstone are not restored.
+ * <p>
+ * Items saved with a {@link com.hazelcast.jet.core.BroadcastKey} are
+ * restored only from the latest snapshot that contains them, all the items
+ * with such key from that snapshot are restored. The processor must save
+ * them in each snapshot.
+ * <p>
+ * Processors not implementing this interface always save their full state.
+ */
+public interface IncrementalSnapshotProcessor extends Processor {
+
+    /**
+     * Called after {@link #init} if incremental snapshots are enabled. The
+     * processor should start tracking the changed keys. If not called, it
+     * will never be asked for an incremental snapshot.
+     */
+    void trackChanges();
+
+    /**
+     * Called before {@link #saveToSnapshot()} is called for the first time
+     * for a snapshot. Not called for export-only snapshots, those always
+     * contain the full state.
+     *
+     * @param incremental if true, the processor should save only the
+     *      changes since the last successful snapshot
+     */
+    void beginSnapshot(boolean incremental);
+}
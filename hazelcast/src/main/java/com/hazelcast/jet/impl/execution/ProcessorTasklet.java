@@ -130,6 +130,7 @@ public class ProcessorTasklet implements Tasklet {
     private long pendingSnapshotId2;
 
     private SnapshotBarrier currentBarrier;
+    private SnapshotChainMerger snapshotChainMerger;
     private Watermark pendingWatermark;
 
     // Tells whether we are operating in exactly-once or at-least-once mode.
@@ -267,6 +268,20 @@ public class ProcessorTasklet implements Tasklet {
         } catch (Exception e) {
             throw sneakyThrow(e);
         }
+        IncrementalSnapshotProcessor incrementalProcessor = incrementalSnapshotProcessor();
+        if (incrementalProcessor != null && ssContext.isIncrementalSnapshotsEnabled()
+                && ssContext.processingGuarantee() != ProcessingGuarantee.NONE) {
+            doWithClassLoader(context.classLoader(), incrementalProcessor::trackChanges);
+        }
+    }
+
+    /**
+     * Returns the processor, if it's an {@link IncrementalSnapshotProcessor},
+     * or null otherwise.
+     */
+    private IncrementalSnapshotProcessor incrementalSnapshotProcessor() {
+        Processor p = processor instanceof ProcessorWrapper ? ((ProcessorWrapper) processor).getWrapped() : processor;
+        return p instanceof IncrementalSnapshotProcessor ? (IncrementalSnapshotProcessor) p : null;
     }
 
     @Override @Nonnull
@@ -329,6 +344,9 @@ public class ProcessorTasklet implements Tasklet {
                 return;
 
             case COMPLETE_EDGE:
+                if (isSnapshotInbox() && !restoreMergedSnapshotChain()) {
+                    return;
+                }
                 if (isSnapshotInbox()
                         ? doWithClassLoader(context.classLoader(), () -> processor.finishSnapshotRestore())
                         : doWithClassLoader(context.classLoader(), () -> processor.completeEdge(currInstream.ordinal()))) {
@@ -455,6 +473,10 @@ public class ProcessorTasklet implements Tasklet {
 
         if (inbox.isEmpty()) {
             fillInbox();
+            if (isSnapshotInbox() && inbox.peek() instanceof Map.Entry
+                    && ((Map.Entry<?, ?>) inbox.peek()).getValue() instanceof SnapshotChainValue) {
+                prepareSnapshotChainItems();
+            }
         }
         if (!inbox.isEmpty()) {
             if (isSnapshotInbox()) {
@@ -473,6 +495,7 @@ public class ProcessorTasklet implements Tasklet {
                     && receivedBarriers.cardinality() == numActiveOrdinals) {
                 // we have an empty inbox and received the current snapshot barrier from all active ordinals
                 state = SAVE_SNAPSHOT;
+                beginSnapshot();
             } else if (numActiveOrdinals == 0) {
                 progTracker.madeProgress();
                 state = COMPLETE;
@@ -482,6 +505,49 @@ public class ProcessorTasklet implements Tasklet {
         }
     }
 
+    private void beginSnapshot() {
+        IncrementalSnapshotProcessor incrementalProcessor = incrementalSnapshotProcessor();
+        if (incrementalProcessor != null && !ssContext.isExportOnly()) {
+            boolean incremental = ssContext.isIncrementalSnapshot();
+            doWithClassLoader(context.classLoader(), () -> incrementalProcessor.beginSnapshot(incremental));
+        }
+    }
+
+    /**
+     * Handles the items restored from a chain of a full and incremental
+     * snapshots. An {@link IncrementalSnapshotProcessor} receives the merged
+     * items after all are received, other processors save full state to each
+     * snapshot, so they receive only the items from the latest one.
+     */
+    private void prepareSnapshotChainItems() {
+        if (incrementalSnapshotProcessor() == null) {
+            SnapshotChainMerger.retainLatest(inbox.queue());
+            return;
+        }
+        if (snapshotChainMerger == null) {
+            snapshotChainMerger = new SnapshotChainMerger();
+        }
+        snapshotChainMerger.addAll(inbox.queue());
+    }
+
+    /**
+     * Passes the merged items from a snapshot chain to the processor.
+     *
+     * @return true, if all items were restored
+     */
+    private boolean restoreMergedSnapshotChain() {
+        if (snapshotChainMerger == null) {
+            return true;
+        }
+        if (inbox.isEmpty() && !snapshotChainMerger.drainTo(inbox.queue(), OUTBOX_BATCH_SIZE)) {
+            snapshotChainMerger = null;
+            return true;
+        }
+        doWithClassLoader(context.classLoader(), () -> processor.restoreFromSnapshot(inbox));
+        progTracker.madeProgress();
+        return false;
+    }
+
     private void complete() {
         // check ssContext to see if a snapshot phase should be executed
         if (pendingSnapshotId1 == pendingSnapshotId2) {
@@ -495,6 +561,7 @@ public class ProcessorTasklet implements Tasklet {
                 } else {
                     outbox.unblock();
                     state = SAVE_SNAPSHOT;
+                    beginSnapshot();
                     currentBarrier = new SnapshotBarrier(currSnapshotId1, ssContext.isTerminalSnapshot());
                     progTracker.madeProgress();
                     return;
@@ -84,6 +84,10 @@ public class ReceiverTasklet implements Tasklet {
      */
     private final int rwinMultiplier;
     private final double flowControlPeriodNs;
+    /**
+     * If not null, sizes the Receive Window instead of {@link #rwinMultiplier}.
+     */
+    private final AdaptiveReceiveWindow adaptiveReceiveWindow;
     private final ILogger logger;
 
     /* Used for metrics */
@@ -114,10 +118,23 @@ public class ReceiverTasklet implements Tasklet {
     private volatile int numWaitingInInbox;
     private volatile boolean connectionChanged;
 
+    // Round-trip time probe of the adaptive receive window: the time from
+    // granting a new send seq limit to the arrival of the first item past the
+    // previous limit. Started by the task scheduler when rttProbeActive is
+    // false, finished by the tasklet execution thread when it's true.
+    private volatile boolean rttProbeActive;
+    private volatile long rttSampleNanos = -1;
+    private int rttProbeSeqLimitCompressed;
+    private long rttProbeStartNanos;
+
+    // read and written by a tasklet execution thread
+    private long receivedSeq;
+
     // read and written by updateAndGetSendSeqLimitCompressed(), which is invoked sequentially by a task scheduler
     private int receiveWindowCompressed;
     private int prevAckedSeqCompressed;
     private long prevTimestamp;
+    private int prevSendSeqLimitCompressed;
 
     //                 END FLOW-CONTROL STATE
 
@@ -126,11 +143,23 @@ public class ReceiverTasklet implements Tasklet {
             int rwinMultiplier, int flowControlPeriodMs, LoggingService loggingService,
             Address sourceAddress, int ordinal, String destinationVertexName,
             Connection memberConnection, String jobPrefix
+    ) {
+        this(collector, serializationService, rwinMultiplier, flowControlPeriodMs, false, loggingService,
+                sourceAddress, ordinal, destinationVertexName, memberConnection, jobPrefix);
+    }
+
+    @SuppressWarnings("checkstyle:parameternumber")
+    public ReceiverTasklet(
+            OutboundCollector collector, InternalSerializationService serializationService,
+            int rwinMultiplier, int flowControlPeriodMs, boolean adaptiveReceiveWindow,
+            LoggingService loggingService, Address sourceAddress, int ordinal, String destinationVertexName,
+            Connection memberConnection, String jobPrefix
     ) {
         this.collector = collector;
         this.serializationService = serializationService;
         this.rwinMultiplier = rwinMultiplier;
         this.flowControlPeriodNs = (double) MILLISECONDS.toNanos(flowControlPeriodMs);
+        this.adaptiveReceiveWindow = adaptiveReceiveWindow ? new AdaptiveReceiveWindow(flowControlPeriodNs) : null;
         this.sourceAddressString = sourceAddress.toString();
         this.ordinalString = "" + ordinal;
         this.destinationVertexName = destinationVertexName;
@@ -211,6 +240,9 @@ public class ReceiverTasklet implements Tasklet {
      *     </li></ol>
      * </li><li>
      *     Define the <emph>target receive window</emph> as {@code 3 * seqsPerAckPeriod}.
+     *     With the adaptive receive window enabled, the target is computed by
+     *     {@link AdaptiveReceiveWindow} from the measured round-trip time and
+     *     processing rate instead.
      * </li><li>
      *     Adjust the current receive window halfway toward the target receive window.
      * </li><li>
@@ -237,7 +269,19 @@ public class ReceiverTasklet implements Tasklet {
         final int ackedSeqCompressedDelta = ackedSeqCompressed - prevAckedSeqCompressed;
         prevAckedSeqCompressed = ackedSeqCompressed;
 
-        if (hadPrevStats) {
+        if (hadPrevStats && adaptiveReceiveWindow != null) {
+            if (!rttProbeActive && rttSampleNanos >= 0) {
+                adaptiveReceiveWindow.addRttSample(rttSampleNanos, timestampNow);
+                rttSampleNanos = -1;
+            }
+            int newRwin = adaptiveReceiveWindow.update((long) ackedSeqCompressedDelta << COMPRESSED_SEQ_UNIT_LOG2,
+                    ackTimeDelta, receiveWindowCompressed, numWaitingInInbox == 0);
+            if (newRwin != receiveWindowCompressed) {
+                logFinest(logger, "receiveWindowCompressed changed by %d to %d",
+                        newRwin - receiveWindowCompressed, newRwin);
+            }
+            receiveWindowCompressed = newRwin;
+        } else if (hadPrevStats) {
             final double ackedSeqsPerAckPeriod = flowControlPeriodNs * ackedSeqCompressedDelta / ackTimeDelta;
             final int targetRwin = rwinMultiplier * (int) ceil(ackedSeqsPerAckPeriod);
             int rwinDiff = targetRwin - receiveWindowCompressed;
@@ -254,7 +298,15 @@ public class ReceiverTasklet implements Tasklet {
                 logFinest(logger, "receiveWindowCompressed changed by %d to %d", rwinDiff, receiveWindowCompressed);
             }
         }
-        return ackedSeqCompressed + receiveWindowCompressed;
+        final int sendSeqLimitCompressed = ackedSeqCompressed + receiveWindowCompressed;
+        if (adaptiveReceiveWindow != null && !rttProbeActive
+                && sendSeqLimitCompressed - prevSendSeqLimitCompressed > 0) {
+            rttProbeSeqLimitCompressed = prevSendSeqLimitCompressed;
+            rttProbeStartNanos = System.nanoTime();
+            rttProbeActive = true;
+        }
+        prevSendSeqLimitCompressed = sendSeqLimitCompressed;
+        return sendSeqLimitCompressed;
     }
 
     // Only one thread writes to ackedSeq
@@ -308,7 +360,12 @@ public class ReceiverTasklet implements Tasklet {
                     final Object item = input.readObject();
                     final int itemSize = input.position() - mark;
                     int partitionId = input.readInt();
-                    inbox.add(new ObjWithPtionIdAndSize(item, partitionId, itemSize));
+                    ObjWithPtionIdAndSize o = new ObjWithPtionIdAndSize(item, partitionId, itemSize);
+                    inbox.add(o);
+                    if (rttProbeActive) {
+                        finishRttProbe();
+                    }
+                    receivedSeq += o.estimatedMemoryFootprint;
                 }
                 totalItems += itemCount;
                 totalBytes += input.position();
@@ -321,6 +378,32 @@ public class ReceiverTasklet implements Tasklet {
         }
     }
 
+    /**
+     * The sender checks its limit before sending each item, the first item
+     * sent past the previous limit proves that the new one arrived.
+     */
+    private void finishRttProbe() {
+        if (compressSeq(receivedSeq) - rttProbeSeqLimitCompressed > 0) {
+            rttSampleNanos = System.nanoTime() - rttProbeStartNanos;
+            rttProbeActive = false;
+        }
+    }
+
+    @Probe(name = MetricNames.DISTRIBUTED_RECEIVE_WINDOW, unit = ProbeUnit.BYTES)
+    private long receiveWindowBytes() {
+        return (long) receiveWindowCompressed << COMPRESSED_SEQ_UNIT_LOG2;
+    }
+
+    @Probe(name = MetricNames.DISTRIBUTED_MIN_RTT, unit = ProbeUnit.NS)
+    private long minRttNanos() {
+        return adaptiveReceiveWindow != null ? adaptiveReceiveWindow.minRttNanos() : -1;
+    }
+
+    @Probe(name = MetricNames.DISTRIBUTED_BANDWIDTH, unit = ProbeUnit.BYTES)
+    private long bandwidthBytesPerSecond() {
+        return adaptiveReceiveWindow != null ? adaptiveReceiveWindow.bandwidthBytesPerSecond() : 0;
+    }
+
     public void initIncomingQueue(Queue<byte[]> incomingQueue) {
         incoming = incomingQueue;
     }
@@ -25,10 +25,13 @@ import com.hazelcast.internal.nio.Bits;
 import com.hazelcast.internal.nio.BufferObjectDataOutput;
 import com.hazelcast.internal.nio.Connection;
 import com.hazelcast.internal.nio.Packet;
+import com.hazelcast.internal.nio.PacketCompressionStats;
+import com.hazelcast.internal.nio.PacketCompressor;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.internal.util.counters.Counter;
 import com.hazelcast.internal.util.counters.SwCounter;
 import com.hazelcast.jet.RestartableException;
+import com.hazelcast.jet.config.EdgeConfig;
 import com.hazelcast.jet.core.metrics.MetricNames;
 import com.hazelcast.jet.core.metrics.MetricTags;
 import com.hazelcast.jet.impl.util.ObjectWithPartitionId;
@@ -48,6 +51,7 @@ import static com.hazelcast.jet.impl.execution.ReceiverTasklet.compressSeq;
 import static com.hazelcast.jet.impl.execution.ReceiverTasklet.estimatedMemoryFootprint;
 import static com.hazelcast.jet.impl.util.ExceptionUtil.rethrow;
 import static com.hazelcast.jet.impl.util.Util.uncheckRun;
+import static com.hazelcast.spi.properties.ClusterProperty.IO_COMPRESSION_THRESHOLD;
 
 /**
  * The tasklet that sends the data associated with a single edge through network.
@@ -63,6 +67,8 @@ public class SenderTasklet implements Tasklet {
     private final BufferObjectDataOutput outputBuffer;
     private final int bufPosPastHeader;
     private final int packetSizeLimit;
+    private final PacketCompressionStats compressionStats = new PacketCompressionStats();
+    private final PacketCompressor compressor;
 
     /* Used for metrics */
     private final String destinationAddressString;
@@ -75,9 +81,16 @@ public class SenderTasklet implements Tasklet {
     @Probe(name = MetricNames.DISTRIBUTED_BYTES_OUT, unit = ProbeUnit.BYTES)
     private final Counter bytesOutCounter = SwCounter.newSwCounter();
 
+    @Probe(name = MetricNames.DISTRIBUTED_COMPRESSED_BYTES_OUT, unit = ProbeUnit.BYTES)
+    private final Counter compressedBytesOutCounter = SwCounter.newSwCounter();
+
+    @Probe(name = MetricNames.DISTRIBUTED_SEND_WINDOW_LIMITED_TIME, unit = ProbeUnit.NS)
+    private final Counter windowLimitedNanosCounter = SwCounter.newSwCounter();
+
     private boolean instreamExhausted;
     // read and written by Jet thread
     private long sentSeq;
+    private long windowLimitedSince;
 
     // Written by HZ networking thread, read by Jet thread
     private volatile int sendSeqLimitCompressed;
@@ -88,7 +101,7 @@ public class SenderTasklet implements Tasklet {
             NodeEngine nodeEngine,
             Address destinationAddress,
             Connection connection,
-            int destinationVertexId, int packetSizeLimit, long executionId,
+            int destinationVertexId, EdgeConfig edgeConfig, long executionId,
             String sourceVertexName, int sourceOrdinal,
             InternalSerializationService serializationService
     ) {
@@ -96,7 +109,10 @@ public class SenderTasklet implements Tasklet {
         this.destinationAddressString = destinationAddress.toString();
         this.sourceVertexName = sourceVertexName;
         this.sourceOrdinalString = "" + sourceOrdinal;
-        this.packetSizeLimit = packetSizeLimit;
+        this.packetSizeLimit = edgeConfig.getPacketSizeLimit();
+        this.compressor = edgeConfig.isCompressionEnabled()
+                ? new PacketCompressor(nodeEngine.getProperties().getInteger(IO_COMPRESSION_THRESHOLD), compressionStats)
+                : null;
         // we use Connection directly because we rely on packets not being transparently skipped or reordered
         this.connection = connection;
         this.outputBuffer = serializationService.createObjectDataOutput(BUFFER_INITIAL_SIZE, BUFFER_FIRST_GROWTH_SIZE);
@@ -114,7 +130,15 @@ public class SenderTasklet implements Tasklet {
         }
         if (tryFillOutputBuffer()) {
             progTracker.madeProgress();
-            if (!connection.write(new Packet(outputBuffer.toByteArray()).setPacketType(Packet.Type.JET))) {
+            Packet packet = new Packet(outputBuffer.toByteArray()).setPacketType(Packet.Type.JET);
+            if (compressor != null) {
+                Packet compressed = compressor.compress(packet);
+                if (compressed != packet) {
+                    compressedBytesOutCounter.inc(compressed.totalSize());
+                    packet = compressed;
+                }
+            }
+            if (!connection.write(packet)) {
                 throw new RestartableException("Connection write failed in " + toString());
             }
         }
@@ -157,6 +181,7 @@ public class SenderTasklet implements Tasklet {
                 outputBuffer.writeInt(itemWithPId.getPartitionId());
             }
             outputBuffer.writeInt(bufPosPastHeader, writtenCount);
+            updateWindowLimited();
             bytesOutCounter.inc(outputBuffer.position());
             itemsOutCounter.inc(writtenCount);
             return writtenCount > 0;
@@ -165,6 +190,16 @@ public class SenderTasklet implements Tasklet {
         }
     }
 
+    private void updateWindowLimited() {
+        boolean windowLimited = !inbox.isEmpty() && !isWithinLimit(sentSeq, sendSeqLimitCompressed);
+        if (windowLimited && windowLimitedSince == 0) {
+            windowLimitedSince = System.nanoTime();
+        } else if (!windowLimited && windowLimitedSince != 0) {
+            windowLimitedNanosCounter.inc(System.nanoTime() - windowLimitedSince);
+            windowLimitedSince = 0;
+        }
+    }
+
     /**
      * Updates the upper limit on {@link #sentSeq}, which constrains how much more data this tasklet can send.
      *
@@ -177,6 +212,11 @@ public class SenderTasklet implements Tasklet {
         this.sendSeqLimitCompressed = sendSeqLimitCompressed;
     }
 
+    @Probe(name = MetricNames.DISTRIBUTED_COMPRESSION_TIME, unit = ProbeUnit.NS)
+    private long compressionTimeNanos() {
+        return compressionStats.compressionTimeNanos();
+    }
+
     @Override
     public String toString() {
         return "SenderTasklet{" +
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import static com.hazelcast.jet.Util.entry;
+
+/**
+ * Merges the entries restored from a chain of snapshots for an {@link
+ * IncrementalSnapshotProcessor}. For each key it keeps the values from the
+ * newest snapshot the key was found in.
+ * <p>
+ * The entries of the snapshots arrive interleaved, so a key's entries can't
+ * be passed on before all of them were seen: the merger holds the entries
+ * of every key on the heap until the whole chain is read. The entries of
+ * older snapshots are dropped as soon as a newer one arrives for the key.
+ * The resulting memory limit is documented on {@link
+ * com.hazelcast.spi.properties.ClusterProperty#JET_SNAPSHOT_MAX_INCREMENTAL_COUNT}.
+ */
+class SnapshotChainMerger {
+
+    private final Map<Object, List<Entry<Object, SnapshotChainValue>>> keyToEntries = new HashMap<>();
+    private Iterator<List<Entry<Object, SnapshotChainValue>>> drainIterator;
+
+    /**
+     * Removes all items from the given queue and merges them. The items must
+     * be entries with a {@link SnapshotChainValue} value.
+     */
+    @SuppressWarnings("unchecked")
+    void addAll(Deque<Object> queue) {
+        assert drainIterator == null : "already draining";
+        for (Object item; (item = queue.poll()) != null; ) {
+            Entry<Object, SnapshotChainValue> entry = (Entry<Object, SnapshotChainValue>) item;
+            List<Entry<Object, SnapshotChainValue>> entries =
+                    keyToEntries.computeIfAbsent(entry.getKey(), k -> new ArrayList<>(1));
+            long currentId = entries.isEmpty() ? Long.MIN_VALUE : entries.get(0).getValue().snapshotId();
+            long newId = entry.getValue().snapshotId();
+            if (newId > currentId) {
+                entries.clear();
+            }
+            if (newId >= currentId) {
+                entries.add(entry);
+            }
+        }
+    }
+
+    /**
+     * Adds at most about {@code maxItems} merged entries to the given queue,
+     * with the values unwrapped. The removed keys are skipped.
+     *
+     * @return false, if there are no more entries
+     */
+    boolean drainTo(Deque<Object> queue, int maxItems) {
+        if (drainIterator == null) {
+            drainIterator = keyToEntries.values().iterator();
+        }
+        int count = 0;
+        while (count < maxItems && drainIterator.hasNext()) {
+            for (Entry<Object, SnapshotChainValue> entry : drainIterator.next()) {
+                if (entry.getValue().value() != SnapshotTombstone.TOMBSTONE) {
+                    queue.add(unwrap(entry));
+                    count++;
+                }
+            }
+            drainIterator.remove();
+        }
+        return count > 0 || drainIterator.hasNext();
+    }
+
+    /**
+     * Removes the items not coming from the latest snapshot in the chain
+     * from the given queue and unwraps the rest. Used for processors not
+     * supporting incremental snapshots, they save full state to each
+     * snapshot.
+     */
+    @SuppressWarnings("unchecked")
+    static void retainLatest(Deque<Object> queue) {
+        for (int i = queue.size(); i > 0; i--) {
+            Entry<Object, SnapshotChainValue> entry = (Entry<Object, SnapshotChainValue>) queue.poll();
+            if (entry.getValue().isLatest()) {
+                queue.add(unwrap(entry));
+            }
+        }
+    }
+
+    private static Entry<Object, Object> unwrap(Entry<Object, SnapshotChainValue> entry) {
+        return entry instanceof BroadcastEntry
+                ? new BroadcastEntry<>(entry.getKey(), entry.getValue().value())
+                : entry(entry.getKey(), entry.getValue().value());
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+/**
+ * Wraps the value of an entry restored from a chain of snapshots: a full
+ * snapshot followed by incremental ones. The {@link ProcessorTasklet} uses
+ * it to choose which entries to pass to the processor and unwraps them.
+ */
+public final class SnapshotChainValue {
+
+    private final long snapshotId;
+    private final boolean isLatest;
+    private final Object value;
+
+    public SnapshotChainValue(long snapshotId, boolean isLatest, Object value) {
+        this.snapshotId = snapshotId;
+        this.isLatest = isLatest;
+        this.value = value;
+    }
+
+    /**
+     * ID of the snapshot the value was saved to.
+     */
+    public long snapshotId() {
+        return snapshotId;
+    }
+
+    /**
+     * Returns true, if the value was saved to the last snapshot in the chain.
+     */
+    public boolean isLatest() {
+        return isLatest;
+    }
+
+    public Object value() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "SnapshotChainValue{snapshotId=" + snapshotId + ", isLatest=" + isLatest + ", value=" + value + '}';
+    }
+}
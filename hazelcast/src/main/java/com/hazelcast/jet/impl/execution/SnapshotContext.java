@@ -37,6 +37,7 @@ public class SnapshotContext {
 
     private final String jobNameAndExecutionId;
     private final ProcessingGuarantee guarantee;
+    private final boolean incrementalSnapshotsEnabled;
 
     /**
      * Flags of the last begun snapshot.
@@ -132,10 +133,17 @@ public class SnapshotContext {
 
     public SnapshotContext(ILogger logger, String jobNameAndExecutionId, long activeSnapshotId,
                            ProcessingGuarantee guarantee
+    ) {
+        this(logger, jobNameAndExecutionId, activeSnapshotId, guarantee, false);
+    }
+
+    public SnapshotContext(ILogger logger, String jobNameAndExecutionId, long activeSnapshotId,
+                           ProcessingGuarantee guarantee, boolean incrementalSnapshotsEnabled
     ) {
         this.jobNameAndExecutionId = jobNameAndExecutionId;
         this.activeSnapshotIdPhase1 = activeSnapshotIdPhase2 = currentSnapshotId = activeSnapshotId;
         this.guarantee = guarantee;
+        this.incrementalSnapshotsEnabled = incrementalSnapshotsEnabled;
         this.logger = logger;
     }
 
@@ -173,6 +181,22 @@ public class SnapshotContext {
         return SnapshotFlags.isExportOnly(snapshotFlags);
     }
 
+    /**
+     * Returns true, if the current snapshot contains only the changes since
+     * the previous successful snapshot.
+     */
+    public boolean isIncrementalSnapshot() {
+        return SnapshotFlags.isIncremental(snapshotFlags);
+    }
+
+    /**
+     * Returns true, if the master can request incremental snapshots for this
+     * execution and processors should track their changes.
+     */
+    public boolean isIncrementalSnapshotsEnabled() {
+        return incrementalSnapshotsEnabled;
+    }
+
     boolean isLastPhase1Successful() {
         return lastPhase1Successful;
     }
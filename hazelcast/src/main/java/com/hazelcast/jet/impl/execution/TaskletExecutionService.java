@@ -59,6 +59,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.LockSupport;
 import java.util.function.Consumer;
 
+import static com.hazelcast.internal.metrics.ProbeUnit.NS;
 import static com.hazelcast.internal.util.executor.ExecutorType.CACHED;
 import static com.hazelcast.jet.impl.util.ExceptionUtil.peel;
 import static com.hazelcast.jet.impl.util.ExceptionUtil.sneakyThrow;
@@ -66,13 +67,16 @@ import static com.hazelcast.jet.impl.util.ExceptionUtil.withTryCatch;
 import static com.hazelcast.jet.impl.util.LoggingUtil.logFinest;
 import static com.hazelcast.jet.impl.util.Util.doWithClassLoader;
 import static com.hazelcast.jet.impl.util.Util.uncheckRun;
+import static com.hazelcast.spi.properties.ClusterProperty.JET_COOPERATIVE_WORK_STEALING;
 import static com.hazelcast.spi.properties.ClusterProperty.JET_IDLE_COOPERATIVE_MAX_MICROSECONDS;
 import static com.hazelcast.spi.properties.ClusterProperty.JET_IDLE_COOPERATIVE_MIN_MICROSECONDS;
 import static com.hazelcast.spi.properties.ClusterProperty.JET_IDLE_NONCOOPERATIVE_MAX_MICROSECONDS;
 import static com.hazelcast.spi.properties.ClusterProperty.JET_IDLE_NONCOOPERATIVE_MIN_MICROSECONDS;
+import static com.hazelcast.spi.properties.ClusterProperty.JET_NONCOOPERATIVE_VIRTUAL_THREADS;
 import static java.lang.Thread.currentThread;
 import static java.util.Collections.emptyList;
 import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.stream.Collectors.partitioningBy;
 import static java.util.stream.Collectors.toList;
@@ -81,7 +85,7 @@ public class TaskletExecutionService {
 
     public static final String TASKLET_INIT_CLOSE_EXECUTOR_NAME = "jet:tasklet_initClose";
 
-    private final ExecutorService blockingTaskletExecutor = newCachedThreadPool(new BlockingTaskThreadFactory());
+    private final ExecutorService blockingTaskletExecutor;
     private final ExecutionService hzExecutionService;
     private final CooperativeWorker[] cooperativeWorkers;
     private final Thread[] cooperativeThreadPool;
@@ -90,10 +94,16 @@ public class TaskletExecutionService {
     private int cooperativeThreadIndex;
     @Probe(name = "blockingWorkerCount")
     private final Counter blockingWorkerCount = MwCounter.newMwCounter();
+    @Probe(name = "virtualThreadPinnedCount")
+    private final Counter virtualThreadPinnedCount = SwCounter.newSwCounter();
+    @Probe(name = "virtualThreadPinnedTimeNanos", unit = NS)
+    private final Counter virtualThreadPinnedNanos = SwCounter.newSwCounter();
+    private AutoCloseable pinningMonitor;
     private volatile boolean isShutdown;
     private final Object lock = new Object();
     private final IdleStrategy idlerCooperative;
     private final IdleStrategy idlerNonCooperative;
+    private final boolean workStealing;
 
     public TaskletExecutionService(NodeEngineImpl nodeEngine, int threadCount, HazelcastProperties properties) {
         hzExecutionService = nodeEngine.getExecutionService();
@@ -110,6 +120,8 @@ public class TaskletExecutionService {
         idlerNonCooperative = createIdler(
             properties, JET_IDLE_NONCOOPERATIVE_MIN_MICROSECONDS, JET_IDLE_NONCOOPERATIVE_MAX_MICROSECONDS
         );
+        workStealing = properties.getBoolean(JET_COOPERATIVE_WORK_STEALING);
+        blockingTaskletExecutor = newCachedThreadPool(createBlockingThreadFactory(properties));
 
         Arrays.setAll(cooperativeWorkers, i -> new CooperativeWorker());
         Arrays.setAll(cooperativeThreadPool, i -> new Thread(cooperativeWorkers[i],
@@ -160,11 +172,44 @@ public class TaskletExecutionService {
         return executionTracker.future;
     }
 
+    /**
+     * Returns a factory of virtual threads for the non-cooperative tasklets,
+     * if they are enabled and the JVM supports them, otherwise a factory of
+     * platform threads. Starts monitoring the pinning of the virtual threads.
+     */
+    private ThreadFactory createBlockingThreadFactory(HazelcastProperties properties) {
+        if (!properties.getBoolean(JET_NONCOOPERATIVE_VIRTUAL_THREADS)) {
+            return new BlockingTaskThreadFactory();
+        }
+        String namePrefix = String.format("hz.%s.jet.blocking.virtual-thread-", hzInstanceName);
+        ThreadFactory virtualThreadFactory = VirtualThreads.newThreadFactory(namePrefix);
+        if (virtualThreadFactory == null) {
+            logger.warning(JET_NONCOOPERATIVE_VIRTUAL_THREADS.getName() + " is enabled, but the JVM doesn't support "
+                    + "virtual threads, non-cooperative tasklets will run on platform threads");
+            return new BlockingTaskThreadFactory();
+        }
+        logger.info("Non-cooperative tasklets will run on virtual threads");
+        pinningMonitor = VirtualThreads.monitorPinning(namePrefix, this::virtualThreadPinned, logger);
+        return virtualThreadFactory;
+    }
+
+    private void virtualThreadPinned(long durationNanos) {
+        virtualThreadPinnedCount.inc();
+        virtualThreadPinnedNanos.inc(durationNanos);
+    }
+
     public void shutdown() {
         isShutdown = true;
         Arrays.stream(cooperativeWorkers).forEach(thread -> thread.newTaskletSemaphore.release());
         blockingTaskletExecutor.shutdownNow();
         hzExecutionService.shutdownExecutor(TASKLET_INIT_CLOSE_EXECUTOR_NAME);
+        if (pinningMonitor != null) {
+            try {
+                pinningMonitor.close();
+            } catch (Exception e) {
+                logger.fine("Failed to stop monitoring the pinning of virtual threads", e);
+            }
+        }
     }
 
     private void submitBlockingTasklets(ExecutionTracker executionTracker, ClassLoader jobClassLoader,
@@ -334,11 +379,20 @@ public class TaskletExecutionService {
 
     private final class CooperativeWorker implements Runnable {
         private static final int COOPERATIVE_LOGGING_THRESHOLD = 5;
+        private static final long STEAL_INTERVAL_NANOS = MILLISECONDS.toNanos(1);
+        private static final long EMPTY_WORKER_STEAL_INTERVAL_MILLIS = 10;
+        private static final double VICTIM_MIN_BUSY_RATIO = 0.9;
 
         @Probe(name = "taskletCount")
         private final CopyOnWriteArrayList<TaskletTracker> trackers;
         @Probe(name = "iterationCount")
         private final Counter iterationCount = SwCounter.newSwCounter();
+        @Probe(name = "busyTimeNanos", unit = NS)
+        private final Counter busyNanos = SwCounter.newSwCounter();
+        @Probe(name = "idleTimeNanos", unit = NS)
+        private final Counter idleNanos = SwCounter.newSwCounter();
+        @Probe(name = "stolenTaskletCount")
+        private final Counter stolenTaskletCount = MwCounter.newMwCounter();
 
         private final ProgressTracker progressTracker = new ProgressTracker();
         // prevent lambda allocation on each iteration
@@ -346,6 +400,14 @@ public class TaskletExecutionService {
 
         private final Semaphore newTaskletSemaphore = new Semaphore(0);
 
+        // the worker which asked this worker to hand over one of its tasklets
+        private final AtomicReference<CooperativeWorker> stealRequest = new AtomicReference<>();
+        // busy times of all workers, as seen by the previous steal attempt of this worker
+        private final long[] lastBusyNanos = new long[cooperativeWorkers.length];
+        private long lastStealNanos;
+        // guarded by this worker
+        private boolean terminated;
+
         private boolean finestLogEnabled;
         private Thread myThread;
         private Contexts.Container contextContainer;
@@ -361,9 +423,14 @@ public class TaskletExecutionService {
 
             IdleStrategy idlerLocal = idlerCooperative;
             long idleCount = 0;
+            long iterationStartNanos = System.nanoTime();
+            lastStealNanos = iterationStartNanos;
 
             while (!isShutdown) {
                 finestLogEnabled = logger.isFinestEnabled();
+                if (workStealing) {
+                    handOverRequestedTasklet();
+                }
                 progressTracker.reset();
                 // garbage-free iteration -- relies on implementation in COWArrayList that doesn't use an Iterator
                 trackers.forEach(runTasklet);
@@ -371,31 +438,144 @@ public class TaskletExecutionService {
                 if (!progressTracker.isMadeProgress() && newTaskletSemaphore.drainPermits() > 0) {
                     progressTracker.madeProgress();
                 }
-                if (progressTracker.isMadeProgress()) {
+                boolean madeProgress = progressTracker.isMadeProgress();
+                if (madeProgress) {
                     idleCount = 0;
                 } else {
                     if (trackers.isEmpty()) {
-                        newTaskletSemaphore.drainPermits();
-                        if (trackers.isEmpty() && !isShutdown) {
-                            try {
-                                newTaskletSemaphore.acquire();
-                            } catch (InterruptedException e) {
-                                logger.severe("Cooperative worker interrupted", e);
-                                return;
-                            }
+                        if (!awaitNewTasklets()) {
+                            return;
                         }
                     } else {
+                        if (workStealing) {
+                            trySteal();
+                        }
                         idlerLocal.idle(++idleCount);
                     }
                 }
+                long iterationEndNanos = System.nanoTime();
+                (madeProgress ? busyNanos : idleNanos).inc(iterationEndNanos - iterationStartNanos);
+                iterationStartNanos = iterationEndNanos;
+            }
+            synchronized (this) {
+                terminated = true;
             }
             trackers.forEach(t -> t.executionTracker.taskletDone());
             trackers.clear();
         }
 
+        /**
+         * Blocks until this worker gets new tasklets. With work stealing
+         * enabled, wakes up periodically to steal a tasklet.
+         *
+         * @return {@code false} if the worker was interrupted
+         */
+        private boolean awaitNewTasklets() {
+            newTaskletSemaphore.drainPermits();
+            if (!trackers.isEmpty() || isShutdown) {
+                return true;
+            }
+            try {
+                if (!workStealing) {
+                    newTaskletSemaphore.acquire();
+                } else if (!newTaskletSemaphore.tryAcquire(EMPTY_WORKER_STEAL_INTERVAL_MILLIS, MILLISECONDS)) {
+                    trySteal();
+                }
+                return true;
+            } catch (InterruptedException e) {
+                logger.severe("Cooperative worker interrupted", e);
+                return false;
+            }
+        }
+
+        /**
+         * Asks the worker which was busy for the largest part of the time since
+         * the previous attempt, if it was busy almost all the time, to hand over
+         * one of its tasklets to this worker.
+         */
+        private void trySteal() {
+            long now = System.nanoTime();
+            long elapsedNanos = now - lastStealNanos;
+            if (elapsedNanos < STEAL_INTERVAL_NANOS) {
+                return;
+            }
+            lastStealNanos = now;
+            CooperativeWorker victim = null;
+            long victimBusyNanos = (long) (elapsedNanos * VICTIM_MIN_BUSY_RATIO);
+            for (int i = 0; i < cooperativeWorkers.length; i++) {
+                CooperativeWorker worker = cooperativeWorkers[i];
+                long busyNanos = worker.busyNanos.get();
+                long recentBusyNanos = busyNanos - lastBusyNanos[i];
+                lastBusyNanos[i] = busyNanos;
+                // a worker with a single tasklet would only swap places with this worker
+                if (worker != this && worker.trackers.size() > 1 && recentBusyNanos >= victimBusyNanos) {
+                    victim = worker;
+                    victimBusyNanos = recentBusyNanos;
+                }
+            }
+            if (victim != null) {
+                victim.stealRequest.compareAndSet(null, this);
+            }
+        }
+
+        /**
+         * Moves a tasklet to the worker which requested it. Called between
+         * the iterations, so that the tasklet is not running while it is moved
+         * and it is called by a single thread at any time.
+         */
+        private void handOverRequestedTasklet() {
+            CooperativeWorker thief = stealRequest.get();
+            if (thief == null) {
+                return;
+            }
+            stealRequest.set(null);
+            TaskletTracker tracker = selectTaskletToHandOver();
+            if (tracker == null) {
+                return;
+            }
+            synchronized (thief) {
+                if (thief.terminated) {
+                    return;
+                }
+                thief.trackers.add(tracker);
+                trackers.remove(tracker);
+            }
+            logFinest(logger, "Tasklet %s was stolen by another cooperative worker", tracker.tasklet);
+            thief.stolenTaskletCount.inc();
+            thief.newTaskletSemaphore.release();
+            LockSupport.unpark(thief.myThread);
+        }
+
+        /**
+         * Selects the tasklet whose busy time since the previous hand-over
+         * is the closest to half of the busy time of all tasklets of this
+         * worker, moving it evens out the two workers the most.
+         */
+        private TaskletTracker selectTaskletToHandOver() {
+            if (trackers.size() < 2) {
+                return null;
+            }
+            long totalBusyNanos = 0;
+            for (TaskletTracker t : trackers) {
+                totalBusyNanos += t.busyNanos - t.lastHandOverBusyNanos;
+            }
+            TaskletTracker selected = null;
+            long selectedDistance = Long.MAX_VALUE;
+            for (TaskletTracker t : trackers) {
+                long distance = Math.abs(2 * (t.busyNanos - t.lastHandOverBusyNanos) - totalBusyNanos);
+                t.lastHandOverBusyNanos = t.busyNanos;
+                if (distance < selectedDistance) {
+                    selected = t;
+                    selectedDistance = distance;
+                }
+            }
+            return selected;
+        }
+
         private void runTasklet(TaskletTracker t) {
+            boolean timed = finestLogEnabled || workStealing;
             long start = 0;
-            if (finestLogEnabled) {
+            if (timed) {
                 start = System.nanoTime();
             }
             try {
@@ -415,9 +595,11 @@ public class TaskletExecutionService {
                 dismissTasklet(t);
             }
 
-            if (finestLogEnabled) {
-                long elapsedMs = NANOSECONDS.toMillis((System.nanoTime() - start));
-                if (elapsedMs > COOPERATIVE_LOGGING_THRESHOLD) {
+            if (timed) {
+                long elapsedNanos = System.nanoTime() - start;
+                t.busyNanos += elapsedNanos;
+                long elapsedMs = NANOSECONDS.toMillis(elapsedNanos);
+                if (finestLogEnabled && elapsedMs > COOPERATIVE_LOGGING_THRESHOLD) {
                     logger.finest("Cooperative tasklet call of '" + t.tasklet + "' took more than "
                             + COOPERATIVE_LOGGING_THRESHOLD + " ms: " + elapsedMs + "ms");
                 }
@@ -436,6 +618,11 @@ public class TaskletExecutionService {
         final ExecutionTracker executionTracker;
         final ClassLoader jobClassLoader;
 
+        // the time spent in calls of the tasklet, measured only with work stealing
+        // enabled, accessed only by the worker which currently runs the tasklet
+        long busyNanos;
+        long lastHandOverBusyNanos;
+
         TaskletTracker(Tasklet tasklet, ExecutionTracker executionTracker, ClassLoader jobClassLoader) {
             this.tasklet = tasklet;
             this.executionTracker = executionTracker;
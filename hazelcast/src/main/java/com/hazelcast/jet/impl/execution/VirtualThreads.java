@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.logging.ILogger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+import static com.hazelcast.jet.impl.util.ExceptionUtil.sneakyThrow;
+
+/**
+ * Access to virtual threads and to the JFR events about their pinning. We
+ * compile for Java 8, so both are detected and used through reflection.
+ */
+final class VirtualThreads {
+
+    /**
+     * The JFR event emitted when a virtual thread blocks while it's pinned
+     * to its carrier thread, e.g. inside a {@code synchronized} block or a
+     * native call.
+     */
+    static final String PINNED_EVENT_NAME = "jdk.VirtualThreadPinned";
+
+    /**
+     * Pinning shorter than this is not reported, it's the JDK default.
+     */
+    static final Duration PINNED_EVENT_THRESHOLD = Duration.ofMillis(20);
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Returns a factory of virtual threads named {@code namePrefix<seq>}, or
+     * {@code null}, if the JVM doesn't support virtual threads.
+     */
+    @Nullable
+    static ThreadFactory newThreadFactory(@Nonnull String namePrefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Class<?> ofVirtualClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            builder = ofVirtualClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Thread.ofVirtual() doesn't exist before Java 19 and fails without --enable-preview before Java 21
+            return null;
+        }
+    }
+
+    /**
+     * Starts a JFR recording stream of the {@value #PINNED_EVENT_NAME} events
+     * and calls the {@code onPinned} with the duration in nanoseconds for the
+     * events of the threads whose name starts with the {@code
+     * threadNamePrefix}. Returns the stream to close, or {@code null}, if the
+     * JVM doesn't support JFR event streaming.
+     */
+    @Nullable
+    static AutoCloseable monitorPinning(
+            @Nonnull String threadNamePrefix, @Nonnull LongConsumer onPinned, @Nonnull ILogger logger
+    ) {
+        try {
+            Class<?> streamClass = Class.forName("jdk.jfr.consumer.RecordingStream");
+            Class<?> eventClass = Class.forName("jdk.jfr.consumer.RecordedEvent");
+            Method getThread = eventClass.getMethod("getThread");
+            Method getDuration = eventClass.getMethod("getDuration");
+            Method getJavaName = Class.forName("jdk.jfr.consumer.RecordedThread").getMethod("getJavaName");
+
+            AutoCloseable stream = (AutoCloseable) streamClass.getConstructor().newInstance();
+            Object settings = streamClass.getMethod("enable", String.class).invoke(stream, PINNED_EVENT_NAME);
+            Class.forName("jdk.jfr.EventSettings").getMethod("withThreshold", Duration.class)
+                 .invoke(settings, PINNED_EVENT_THRESHOLD);
+            Consumer<Object> handler = event -> {
+                try {
+                    Object thread = getThread.invoke(event);
+                    String name = thread != null ? (String) getJavaName.invoke(thread) : null;
+                    if (name != null && name.startsWith(threadNamePrefix)) {
+                        onPinned.accept(((Duration) getDuration.invoke(event)).toNanos());
+                    }
+                } catch (IllegalAccessException | InvocationTargetException e) {
+                    throw sneakyThrow(e);
+                }
+            };
+            streamClass.getMethod("onEvent", String.class, Consumer.class).invoke(stream, PINNED_EVENT_NAME, handler);
+            streamClass.getMethod("startAsync").invoke(stream);
+            return stream;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.warning("Failed to start monitoring the pinning of virtual threads, the pinning metrics "
+                    + "won't be available: " + e, e);
+            return null;
+        }
+    }
+}
@@ -89,6 +89,7 @@ import static com.hazelcast.jet.impl.util.PrefixedLogger.prefix;
 import static com.hazelcast.jet.impl.util.PrefixedLogger.prefixedLogger;
 import static com.hazelcast.jet.impl.util.Util.doWithClassLoader;
 import static com.hazelcast.jet.impl.util.Util.memoize;
+import static com.hazelcast.spi.properties.ClusterProperty.JET_FLOW_CONTROL_ADAPTIVE_WINDOW;
 import static java.util.Collections.unmodifiableList;
 import static java.util.stream.Collectors.toMap;
 
@@ -660,7 +661,7 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
                     adaptedComparator);
             SenderTasklet t = new SenderTasklet(inboundEdgeStream, nodeEngine, destAddr,
                     memberConnections.get(destAddr),
-                    destVertexId, edge.getConfig().getPacketSizeLimit(), executionId,
+                    destVertexId, edge.getConfig(), executionId,
                     edge.sourceVertex().name(), edge.sourceOrdinal(), jobSerializationService
             );
             senderMap.computeIfAbsent(destVertexId, xx -> new HashMap<>())
@@ -755,6 +756,7 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
                                 collector, jobSerializationService,
                                 edge.getConfig().getReceiveWindowMultiplier(),
                                 getJetConfig().getFlowControlPeriodMs(),
+                                nodeEngine.getProperties().getBoolean(JET_FLOW_CONTROL_ADAPTIVE_WINDOW),
                                 nodeEngine.getLoggingService(), addr, edge.destOrdinal(), edge.destVertex().name(),
                                 memberConnections.get(addr), jobPrefix);
                         addrToTasklet.put(addr, receiverTasklet);
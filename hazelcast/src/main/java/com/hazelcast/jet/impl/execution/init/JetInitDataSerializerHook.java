@@ -30,6 +30,8 @@ import com.hazelcast.jet.impl.SnapshotValidationRecord;
 import com.hazelcast.jet.impl.SqlSummary;
 import com.hazelcast.jet.impl.connector.WriteFileP;
 import com.hazelcast.jet.impl.operation.CheckLightJobsOperation;
+import com.hazelcast.jet.impl.operation.CountSnapshotChunksOperation;
+import com.hazelcast.jet.impl.operation.DeleteSnapshotChunksOperation;
 import com.hazelcast.jet.impl.operation.GetJobConfigOperation;
 import com.hazelcast.jet.impl.operation.GetJobIdsOperation;
 import com.hazelcast.jet.impl.operation.GetJobIdsOperation.GetJobIdsResult;
@@ -51,6 +53,7 @@ import com.hazelcast.jet.impl.operation.StartExecutionOperation;
 import com.hazelcast.jet.impl.operation.SubmitJobOperation;
 import com.hazelcast.jet.impl.operation.TerminateExecutionOperation;
 import com.hazelcast.jet.impl.operation.TerminateJobOperation;
+import com.hazelcast.jet.impl.operation.WriteSnapshotChunkBackupOperation;
 import com.hazelcast.jet.impl.processor.NoopP;
 import com.hazelcast.jet.impl.processor.ProcessorSupplierFromSimpleSupplier;
 import com.hazelcast.jet.impl.processor.SessionWindowP;
@@ -108,6 +111,9 @@ public final class JetInitDataSerializerHook implements DataSerializerHook {
     public static final int NOOP_PROCESSOR_SUPPLIER = 46;
     public static final int CHECK_LIGHT_JOBS_OP = 47;
     public static final int SQL_SUMMARY = 48;
+    public static final int WRITE_SNAPSHOT_CHUNK_BACKUP_OP = 49;
+    public static final int DELETE_SNAPSHOT_CHUNKS_OP = 50;
+    public static final int COUNT_SNAPSHOT_CHUNKS_OP = 51;
 
     public static final int FACTORY_ID = FactoryIdHelper.getFactoryId(JET_IMPL_DS_FACTORY, JET_IMPL_DS_FACTORY_ID);
 
@@ -210,6 +216,12 @@ public final class JetInitDataSerializerHook implements DataSerializerHook {
                     return new CheckLightJobsOperation();
                 case SQL_SUMMARY:
                     return new SqlSummary();
+                case WRITE_SNAPSHOT_CHUNK_BACKUP_OP:
+                    return new WriteSnapshotChunkBackupOperation();
+                case DELETE_SNAPSHOT_CHUNKS_OP:
+                    return new DeleteSnapshotChunksOperation();
+                case COUNT_SNAPSHOT_CHUNKS_OP:
+                    return new CountSnapshotChunksOperation();
                 default:
                     throw new IllegalArgumentException("Unknown type id " + typeId);
             }
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.memory;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.core.Processor;
+import com.hazelcast.jet.impl.execution.init.Contexts.ProcCtx;
+import com.hazelcast.spi.properties.ClusterProperty;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static com.hazelcast.internal.nio.IOUtil.closeResource;
+
+/**
+ * A temporary file to which a processor spills the items it can't keep
+ * on the heap. The items are written one after another, serialized and
+ * prefixed with their length; once writing is done, they can be read back
+ * in the same order. The file is deleted when closed.
+ * <p>
+ * Not thread-safe.
+ */
+public final class SpillFile implements Closeable {
+
+    /**
+     * The maximum number of items a processor writes to or reads from the
+     * spill files in one call. The processors are cooperative, so they do
+     * the IO in small steps, to not block their worker for long.
+     */
+    public static final int IO_BATCH_SIZE = 1024;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final File file;
+    private final InternalSerializationService serializationService;
+
+    private DataOutputStream out;
+    private DataInputStream in;
+    private long writtenCount;
+    private long readCount;
+
+    private SpillFile(File file, InternalSerializationService serializationService) throws IOException {
+        this.file = file;
+        this.serializationService = serializationService;
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+    }
+
+    /**
+     * Returns the directory the processor of the given context should spill
+     * to, or {@code null} if spilling is disabled by the {@link
+     * ClusterProperty#JET_SPILL_DIRECTORY} property.
+     */
+    @Nullable
+    public static File spillDirectory(@Nonnull Processor.Context context) {
+        if (!(context instanceof ProcCtx)) {
+            return null;
+        }
+        String directory = ((ProcCtx) context).nodeEngine().getProperties()
+                .getString(ClusterProperty.JET_SPILL_DIRECTORY);
+        return directory == null || directory.isEmpty() ? null : new File(directory);
+    }
+
+    /**
+     * Creates a new, empty spill file in the directory returned by {@link
+     * #spillDirectory}. The items are serialized with the job's
+     * serialization service.
+     */
+    @Nonnull
+    public static SpillFile create(@Nonnull Processor.Context context, @Nonnull File directory) {
+        try {
+            Files.createDirectories(directory.toPath());
+            File file = File.createTempFile("jet-spill-" + context.vertexName().replaceAll("\\W", "_") + '-', ".bin",
+                    directory);
+            return new SpillFile(file, ((ProcCtx) context).serializationService());
+        } catch (IOException e) {
+            throw new JetException("Failed to create a spill file in " + directory + ": " + e, e);
+        }
+    }
+
+    /**
+     * Appends the item to the file.
+     */
+    public void write(@Nonnull Object item) {
+        byte[] bytes = serializationService.toData(item).toByteArray();
+        try {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } catch (IOException e) {
+            throw new JetException("Failed to write to the spill file " + file + ": " + e, e);
+        }
+        writtenCount++;
+    }
+
+    /**
+     * Returns the number of items written to the file.
+     */
+    public long size() {
+        return writtenCount;
+    }
+
+    /**
+     * Returns the next item or {@code null} if all items were read. The
+     * first call finishes writing, no more items can be written after it.
+     */
+    @Nullable
+    public <T> T read() {
+        if (readCount == writtenCount) {
+            return null;
+        }
+        try {
+            if (in == null) {
+                out.close();
+                out = null;
+                in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+            }
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            readCount++;
+            return serializationService.toObject(new HeapData(bytes));
+        } catch (EOFException e) {
+            throw new JetException("Spill file " + file + " is truncated, read " + readCount + " of "
+                    + writtenCount + " items", e);
+        } catch (IOException e) {
+            throw new JetException("Failed to read from the spill file " + file + ": " + e, e);
+        }
+    }
+
+    /**
+     * Closes the file and deletes it.
+     */
+    @Override
+    public void close() {
+        closeResource(out);
+        closeResource(in);
+        out = null;
+        in = null;
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException ignored) {
+            file.deleteOnExit();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SpillFile{file=" + file + ", size=" + writtenCount + '}';
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.operation;
+
+import com.hazelcast.jet.impl.execution.init.JetInitDataSerializerHook;
+import com.hazelcast.jet.impl.snapshot.LocalDiskSnapshotStore;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Counts the chunks of a snapshot the target member would read from the
+ * {@link LocalDiskSnapshotStore} when restoring.
+ */
+public class CountSnapshotChunksOperation extends AsyncOperation {
+
+    private String mapName;
+    private long snapshotId;
+
+    // for deserialization
+    public CountSnapshotChunksOperation() {
+    }
+
+    public CountSnapshotChunksOperation(String mapName, long snapshotId) {
+        this.mapName = mapName;
+        this.snapshotId = snapshotId;
+    }
+
+    @Override
+    protected CompletableFuture<Long> doRun() {
+        return LocalDiskSnapshotStore.of(getJetServiceBackend(), mapName).countLocalAsync(mapName, snapshotId);
+    }
+
+    @Override
+    public int getClassId() {
+        return JetInitDataSerializerHook.COUNT_SNAPSHOT_CHUNKS_OP;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeString(mapName);
+        out.writeLong(snapshotId);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        mapName = in.readString();
+        snapshotId = in.readLong();
+    }
+}
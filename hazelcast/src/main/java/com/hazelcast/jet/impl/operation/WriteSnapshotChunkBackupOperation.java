@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.operation;
+
+import com.hazelcast.jet.impl.execution.init.JetInitDataSerializerHook;
+import com.hazelcast.jet.impl.snapshot.LocalDiskSnapshotStore;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Appends a copy of a snapshot chunk written by another member to the
+ * chunk files of the {@link LocalDiskSnapshotStore} on the target member.
+ */
+public class WriteSnapshotChunkBackupOperation extends AsyncOperation {
+
+    private String mapName;
+    private UUID writerUuid;
+    private byte[] key;
+    private byte[] chunk;
+
+    // for deserialization
+    public WriteSnapshotChunkBackupOperation() {
+    }
+
+    public WriteSnapshotChunkBackupOperation(String mapName, UUID writerUuid, byte[] key, byte[] chunk) {
+        this.mapName = mapName;
+        this.writerUuid = writerUuid;
+        this.key = key;
+        this.chunk = chunk;
+    }
+
+    @Override
+    protected CompletableFuture<Void> doRun() {
+        return LocalDiskSnapshotStore.of(getJetServiceBackend(), mapName).appendAsync(mapName, writerUuid, key, chunk);
+    }
+
+    @Override
+    public int getClassId() {
+        return JetInitDataSerializerHook.WRITE_SNAPSHOT_CHUNK_BACKUP_OP;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeString(mapName);
+        out.writeLong(writerUuid.getMostSignificantBits());
+        out.writeLong(writerUuid.getLeastSignificantBits());
+        out.writeByteArray(key);
+        out.writeByteArray(chunk);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        mapName = in.readString();
+        writerUuid = new UUID(in.readLong(), in.readLong());
+        key = in.readByteArray();
+        chunk = in.readByteArray();
+    }
+}
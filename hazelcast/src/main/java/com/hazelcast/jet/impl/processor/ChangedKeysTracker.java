@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.jet.impl.execution.IncrementalSnapshotProcessor;
+
+import java.util.HashSet;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import static com.hazelcast.jet.Traversers.traverseIterable;
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.impl.execution.SnapshotTombstone.TOMBSTONE;
+
+/**
+ * Tracks the keys updated and removed by an {@link
+ * IncrementalSnapshotProcessor} since the last successful snapshot.
+ * <p>
+ * When a snapshot begins, the changes so far are moved aside, the changes
+ * made while the snapshot is ongoing are tracked separately. If the
+ * snapshot fails, the set-aside changes are merged back, so that they are
+ * included in the next snapshot.
+ *
+ * @param <K> type of the key
+ */
+public final class ChangedKeysTracker<K> {
+
+    private Set<K> updated;
+    private Set<K> removed;
+    private Set<K> savedUpdated;
+    private Set<K> savedRemoved;
+    private boolean isIncremental;
+    private Traverser<Entry<K, Object>> removeAllTraverser;
+
+    /**
+     * Starts tracking the changes. Until called, all other methods are
+     * no-op.
+     */
+    public void enable() {
+        updated = new HashSet<>();
+        removed = new HashSet<>();
+    }
+
+    public boolean isEnabled() {
+        return updated != null;
+    }
+
+    /**
+     * Records that the value for the key was created or changed.
+     */
+    public void updated(K key) {
+        if (updated != null) {
+            updated.add(key);
+            removed.remove(key);
+        }
+    }
+
+    /**
+     * Records that the key was removed from the state.
+     */
+    public void removed(K key) {
+        if (updated != null) {
+            removed.add(key);
+            updated.remove(key);
+        }
+    }
+
+    /**
+     * Called when a snapshot begins. Sets aside the changes made so far, they
+     * are available from {@link #savedUpdated()} and {@link #savedRemoved()}.
+     */
+    public void beginSnapshot(boolean incremental) {
+        if (updated == null) {
+            return;
+        }
+        isIncremental = incremental;
+        removeAllTraverser = null;
+        if (savedUpdated == null) {
+            savedUpdated = updated;
+            savedRemoved = removed;
+        } else {
+            // the previous snapshot wasn't finished, treat it as failed
+            mergeNewer(savedUpdated, savedRemoved, updated, removed);
+        }
+        updated = new HashSet<>();
+        removed = new HashSet<>();
+    }
+
+    /**
+     * Returns true, if the current snapshot should contain only the changed
+     * keys.
+     */
+    public boolean isIncremental() {
+        return isIncremental;
+    }
+
+    /**
+     * Returns the keys updated before the current snapshot began.
+     */
+    public Set<K> savedUpdated() {
+        return savedUpdated;
+    }
+
+    /**
+     * Returns the keys removed before the current snapshot began.
+     */
+    public Set<K> savedRemoved() {
+        return savedRemoved;
+    }
+
+    /**
+     * Returns a traverser of tombstones for all keys the processor had since
+     * the last full snapshot: the given keys in the current state and all the
+     * changed keys. A processor saving no state in the completing phase must
+     * emit it to an incremental snapshot, otherwise the state from the older
+     * snapshots would be restored. Returns the same traverser until the next
+     * snapshot begins.
+     */
+    public Traverser<Entry<K, Object>> removeAllTraverser(Iterable<? extends K> stateKeys) {
+        if (removeAllTraverser == null) {
+            Set<K> keys = new HashSet<>(updated);
+            keys.addAll(removed);
+            keys.addAll(savedUpdated);
+            keys.addAll(savedRemoved);
+            stateKeys.forEach(keys::add);
+            removeAllTraverser = traverseIterable(keys).map(k -> entry(k, TOMBSTONE));
+        }
+        return removeAllTraverser;
+    }
+
+    /**
+     * Called when the current snapshot is committed or rolled back. After a
+     * failure, the set-aside changes are tracked again.
+     */
+    public void snapshotCommitFinish(boolean success) {
+        isIncremental = false;
+        if (savedUpdated == null) {
+            return;
+        }
+        if (!success) {
+            mergeNewer(savedUpdated, savedRemoved, updated, removed);
+            updated = savedUpdated;
+            removed = savedRemoved;
+        }
+        savedUpdated = null;
+        savedRemoved = null;
+    }
+
+    private static <K> void mergeNewer(Set<K> targetUpdated, Set<K> targetRemoved, Set<K> newerUpdated,
+                                       Set<K> newerRemoved) {
+        targetUpdated.removeAll(newerRemoved);
+        targetUpdated.addAll(newerUpdated);
+        targetRemoved.removeAll(newerUpdated);
+        targetRemoved.addAll(newerRemoved);
+    }
+}
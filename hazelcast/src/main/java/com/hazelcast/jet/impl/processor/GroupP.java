@@ -17,22 +17,27 @@
 package com.hazelcast.jet.impl.processor;
 
 import com.hazelcast.function.FunctionEx;
+import com.hazelcast.internal.util.collection.Object2ObjectHashMap;
 import com.hazelcast.jet.Traverser;
 import com.hazelcast.jet.aggregate.AggregateOperation;
 import com.hazelcast.jet.aggregate.AggregateOperation1;
 import com.hazelcast.jet.core.AbstractProcessor;
 import com.hazelcast.jet.core.Processor;
 import com.hazelcast.jet.impl.memory.AccumulationLimitExceededException;
+import com.hazelcast.jet.impl.memory.SpillFile;
 
 import javax.annotation.Nonnull;
-import java.util.HashMap;
+import java.io.File;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
+import static com.hazelcast.internal.nio.IOUtil.closeResource;
+import static com.hazelcast.internal.util.HashUtil.hashToIndex;
 import static com.hazelcast.internal.util.Preconditions.checkTrue;
 import static java.util.Collections.singletonList;
 
@@ -41,16 +46,35 @@ import static java.util.Collections.singletonList;
  * aggregate operation on each group. The items may originate from one or
  * more inbound edges. The supplied aggregate operation must have as many
  * accumulation functions as there are inbound edges.
+ * <p>
+ * If spilling is enabled, see {@link SpillFile#spillDirectory}, and the
+ * aggregate operation has a combining function, the processor doesn't fail
+ * once it accumulates {@code maxProcessorAccumulatedRecords} keys. It
+ * writes the accumulators to spill files partitioned by the key hash
+ * instead, and when it completes, it combines and emits one partition at a
+ * time. It writes and reads at most {@link SpillFile#IO_BATCH_SIZE} entries
+ * in one call.
  */
 public class GroupP<K, A, R, OUT> extends AbstractProcessor {
 
-    protected final Map<K, A> keyToAcc = new HashMap<>();
+    private static final int SPILL_PARTITION_COUNT = 64;
+
+    protected final Map<K, A> keyToAcc = new Object2ObjectHashMap<>();
 
     private final List<FunctionEx<?, ? extends K>> groupKeyFns;
     private final AggregateOperation<A, R> aggrOp;
     private final BiFunction<? super K, ? super R, OUT> mapToOutputFn;
 
+    private final Function<K, A> createAccFunction;
+
     private long maxEntries;
+    private Processor.Context context;
+    private File spillDirectory;
+    private SpillFile[] spillPartitions;
+    private Iterator<Entry<K, A>> spillIterator;
+    private int restoredPartition;
+    private boolean restoring;
+    private Iterator<Entry<K, A>> resultIterator;
     private Traverser<OUT> resultTraverser;
 
     public GroupP(
@@ -63,6 +87,7 @@ public class GroupP<K, A, R, OUT> extends AbstractProcessor {
         this.groupKeyFns = groupKeyFns;
         this.aggrOp = aggrOp;
         this.mapToOutputFn = mapToOutputFn;
+        this.createAccFunction = k -> aggrOp.createFn().get();
     }
 
     public <T> GroupP(
@@ -76,6 +101,10 @@ public class GroupP<K, A, R, OUT> extends AbstractProcessor {
     @Override
     protected void init(@Nonnull Processor.Context context) throws Exception {
         maxEntries = context.maxProcessorAccumulatedRecords();
+        if (aggrOp.combineFn() != null) {
+            this.context = context;
+            spillDirectory = SpillFile.spillDirectory(context);
+        }
     }
 
     @Override
@@ -83,13 +112,15 @@ public class GroupP<K, A, R, OUT> extends AbstractProcessor {
     protected boolean tryProcess(int ordinal, @Nonnull Object item) {
         Function<Object, ? extends K> keyFn = (Function<Object, ? extends K>) groupKeyFns.get(ordinal);
         K key = keyFn.apply(item);
-        A acc = keyToAcc.computeIfAbsent(key, k -> {
-            if (keyToAcc.size() == maxEntries) {
+        if (spillIterator != null || keyToAcc.size() == maxEntries && !keyToAcc.containsKey(key)) {
+            if (spillDirectory == null) {
                 throw new AccumulationLimitExceededException();
             }
-
-            return aggrOp.createFn().get();
-        });
+            if (!spill()) {
+                return false;
+            }
+        }
+        A acc = keyToAcc.computeIfAbsent(key, createAccFunction);
         aggrOp.accumulateFn(ordinal).accept(acc, item);
         return true;
     }
@@ -97,26 +128,119 @@ public class GroupP<K, A, R, OUT> extends AbstractProcessor {
     @Override
     public boolean complete() {
         if (resultTraverser == null) {
-            resultTraverser = new ResultTraverser()
+            // the rest of the accumulators is combined with the spilled ones
+            if (spillPartitions != null && !spill()) {
+                return false;
+            }
+            resultTraverser = ((Traverser<Entry<K, A>>) this::nextResult)
                     // reuse null filtering done by map()
                     .map(e -> mapToOutputFn.apply(e.getKey(), aggrOp.finishFn().apply(e.getValue())));
         }
-        return emitFromTraverser(resultTraverser);
+        // emit the accumulators, then restore the next spilled partition
+        while (true) {
+            if (!restoring) {
+                if (!emitFromTraverser(resultTraverser)) {
+                    return false;
+                }
+                if (spillPartitions == null || restoredPartition == SPILL_PARTITION_COUNT) {
+                    return true;
+                }
+                restoring = true;
+            }
+            if (!restorePartition()) {
+                return false;
+            }
+            restoring = false;
+        }
     }
 
-    private class ResultTraverser implements Traverser<Entry<K, A>> {
-        private final Iterator<Entry<K, A>> iter = keyToAcc.entrySet().iterator();
+    @Override
+    public void close() {
+        if (spillPartitions != null) {
+            for (SpillFile partition : spillPartitions) {
+                closeResource(partition);
+            }
+            spillPartitions = null;
+        }
+    }
 
-        @Override
-        public Entry<K, A> next() {
-            if (!iter.hasNext()) {
-                return null;
+    /**
+     * Writes the next batch of accumulators to the spill files.
+     *
+     * @return {@code true}, if all the accumulators were written
+     */
+    private boolean spill() {
+        if (spillPartitions == null) {
+            spillPartitions = new SpillFile[SPILL_PARTITION_COUNT];
+        }
+        if (spillIterator == null) {
+            spillIterator = keyToAcc.entrySet().iterator();
+        }
+        for (int i = 0; i < SpillFile.IO_BATCH_SIZE && spillIterator.hasNext(); i++) {
+            Entry<K, A> e = spillIterator.next();
+            int partition = hashToIndex(e.getKey().hashCode(), SPILL_PARTITION_COUNT);
+            if (spillPartitions[partition] == null) {
+                spillPartitions[partition] = SpillFile.create(context, spillDirectory);
+            }
+            spillPartitions[partition].write(e.getKey());
+            spillPartitions[partition].write(e.getValue());
+            spillIterator.remove();
+        }
+        if (spillIterator.hasNext()) {
+            return false;
+        }
+        spillIterator = null;
+        return true;
+    }
+
+    /**
+     * Combines the next batch of accumulators of the current spilled
+     * partition into {@link #keyToAcc}.
+     *
+     * @return {@code true}, if the whole partition was read
+     */
+    private boolean restorePartition() {
+        SpillFile file = spillPartitions[restoredPartition];
+        if (file == null) {
+            restoredPartition++;
+            return true;
+        }
+        BiConsumer<? super A, ? super A> combineFn = aggrOp.combineFn();
+        assert combineFn != null : "spilled without combineFn";
+        for (int i = 0; i < SpillFile.IO_BATCH_SIZE; i++) {
+            K key = file.read();
+            if (key == null) {
+                file.close();
+                spillPartitions[restoredPartition++] = null;
+                return true;
             }
-            try {
-                return iter.next();
-            } finally {
-                iter.remove();
+            A acc = file.read();
+            A existing = keyToAcc.get(key);
+            if (existing != null) {
+                combineFn.accept(existing, acc);
+            } else if (keyToAcc.size() == maxEntries) {
+                // the keys of a single partition don't fit in the limit
+                throw new AccumulationLimitExceededException();
+            } else {
+                keyToAcc.put(key, acc);
             }
         }
+        return false;
+    }
+
+    private Entry<K, A> nextResult() {
+        if (resultIterator == null) {
+            resultIterator = keyToAcc.entrySet().iterator();
+        }
+        if (!resultIterator.hasNext()) {
+            // the map is refilled from the next spilled partition
+            resultIterator = null;
+            return null;
+        }
+        try {
+            return resultIterator.next();
+        } finally {
+            resultIterator.remove();
+        }
     }
 }
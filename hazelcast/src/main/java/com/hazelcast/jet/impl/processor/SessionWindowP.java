@@ -18,6 +18,9 @@ package com.hazelcast.jet.impl.processor;
 
 import com.hazelcast.internal.metrics.Probe;
 import com.hazelcast.internal.util.QuickMath;
+import com.hazelcast.internal.util.collection.Long2ObjectHashMap;
+import com.hazelcast.internal.util.collection.LongMinHeap;
+import com.hazelcast.internal.util.collection.Object2ObjectHashMap;
 import com.hazelcast.internal.util.counters.Counter;
 import com.hazelcast.internal.util.counters.SwCounter;
 import com.hazelcast.jet.JetException;
@@ -29,6 +32,7 @@ import com.hazelcast.jet.core.AbstractProcessor;
 import com.hazelcast.jet.core.BroadcastKey;
 import com.hazelcast.jet.core.Watermark;
 import com.hazelcast.jet.core.function.KeyedWindowResultFunction;
+import com.hazelcast.jet.impl.execution.IncrementalSnapshotProcessor;
 import com.hazelcast.jet.impl.execution.init.JetInitDataSerializerHook;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
@@ -38,15 +42,11 @@ import javax.annotation.Nonnull;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.SortedMap;
 import java.util.StringJoiner;
-import java.util.TreeMap;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.function.ToLongFunction;
@@ -54,16 +54,17 @@ import java.util.stream.Stream;
 
 import static com.hazelcast.internal.util.Preconditions.checkTrue;
 import static com.hazelcast.jet.Traversers.traverseIterable;
-import static com.hazelcast.jet.Traversers.traverseStream;
 import static com.hazelcast.jet.Util.entry;
 import static com.hazelcast.jet.config.ProcessingGuarantee.EXACTLY_ONCE;
 import static com.hazelcast.jet.core.BroadcastKey.broadcastKey;
+import static com.hazelcast.jet.impl.execution.SnapshotTombstone.TOMBSTONE;
 import static com.hazelcast.jet.impl.util.LoggingUtil.logFine;
 import static com.hazelcast.jet.impl.util.Util.logLateEvent;
 import static com.hazelcast.jet.impl.util.Util.toLocalDateTime;
 import static java.lang.Math.min;
 import static java.lang.System.arraycopy;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.newSetFromMap;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
@@ -76,14 +77,19 @@ import static java.util.concurrent.TimeUnit.NANOSECONDS;
  * @param <A> type of the accumulator object
  * @param <R> type of the finished result
  */
-public class SessionWindowP<K, A, R, OUT> extends AbstractProcessor {
+public class SessionWindowP<K, A, R, OUT> extends AbstractProcessor implements IncrementalSnapshotProcessor {
     private static final Watermark COMPLETING_WM = new Watermark(Long.MAX_VALUE);
 
     // exposed for testing, to check for memory leaks
-    final Map<K, Windows<A>> keyToWindows = new HashMap<>();
-    final SortedMap<Long, Set<K>> deadlineToKeys = new TreeMap<>();
+    final Map<K, Windows<A>> keyToWindows = new Object2ObjectHashMap<>();
+    final Long2ObjectHashMap<Set<K>> deadlineToKeys = new Long2ObjectHashMap<>();
     long currentWatermark = Long.MIN_VALUE;
 
+    // The deadlines in deadlineToKeys, in ascending order. A deadline isn't
+    // removed when its keys are, so it can be stale or contained more than
+    // once; such entries are skipped once the watermark passes them.
+    private final LongMinHeap deadlines = new LongMinHeap();
+
     private final long sessionTimeout;
     @Nonnull
     private final List<ToLongFunction<Object>> timestampFns;
@@ -112,6 +118,7 @@ public class SessionWindowP<K, A, R, OUT> extends AbstractProcessor {
     private Traverser<OUT> earlyWinTraverser;
 
     private Traverser snapshotTraverser;
+    private final ChangedKeysTracker<K> changedKeys = new ChangedKeysTracker<>();
     private long minRestoredCurrentWatermark = Long.MAX_VALUE;
     private boolean inComplete;
 
@@ -179,6 +186,7 @@ public class SessionWindowP<K, A, R, OUT> extends AbstractProcessor {
         addItem(ordinal,
                 keyToWindows.computeIfAbsent(key, newWindowsFunction),
                 key, timestamp, item);
+        changedKeys.updated(key);
         return true;
     }
 
@@ -198,18 +206,24 @@ public class SessionWindowP<K, A, R, OUT> extends AbstractProcessor {
     }
 
     private Traverser<Object> traverseClosedWindows(Watermark wm) {
-        SortedMap<Long, Set<K>> windowsToClose = deadlineToKeys.headMap(wm.timestamp());
-
-        Stream<Object> closedWindows = windowsToClose
-                .values().stream()
-                .flatMap(Set::stream)
-                .map(key -> closeWindows(keyToWindows.get(key), key, wm.timestamp()))
-                .flatMap(List::stream);
-        Traverser<Object> result = traverseStream(closedWindows)
-                .onFirstNull(() -> {
-                    totalWindows.inc(-windowsToClose.values().stream().mapToInt(Set::size).sum());
-                    windowsToClose.clear();
-                });
+        long wmTimestamp = wm.timestamp();
+        List<K> keysToClose = null;
+        while (!deadlines.isEmpty() && deadlines.peek() < wmTimestamp) {
+            Set<K> keys = deadlineToKeys.remove(deadlines.poll());
+            if (keys != null) {
+                totalWindows.inc(-keys.size());
+                if (keysToClose == null) {
+                    keysToClose = new ArrayList<>(keys);
+                } else {
+                    keysToClose.addAll(keys);
+                }
+            }
+        }
+
+        Traverser<Object> result = keysToClose == null
+                ? Traversers.empty()
+                : traverseIterable(keysToClose)
+                        .flatMap(key -> traverseIterable(closeWindows(keyToWindows.get(key), key, wmTimestamp)));
         if (wm != COMPLETING_WM) {
             result = result.append(wm);
         }
@@ -217,7 +231,13 @@ public class SessionWindowP<K, A, R, OUT> extends AbstractProcessor {
     }
 
     private void addToDeadlines(K key, long deadline) {
-        if (deadlineToKeys.computeIfAbsent(deadline, x -> new HashSet<>()).add(key)) {
+        Set<K> keys = deadlineToKeys.get(deadline);
+        if (keys == null) {
+            keys = newSetFromMap(new Object2ObjectHashMap<>());
+            deadlineToKeys.put(deadline, keys);
+            deadlines.add(deadline);
+        }
+        if (keys.add(key)) {
             totalWindows.inc();
         }
     }
@@ -237,16 +257,47 @@ public class SessionWindowP<K, A, R, OUT> extends AbstractProcessor {
         if (inComplete) {
             // If we are in completing phase, we can have a half-emitted item. Instead of finishing it and
             // writing a snapshot, we finish the final items and save no state.
-            return complete();
+            return (!changedKeys.isIncremental()
+                    || emitFromTraverserToSnapshot(changedKeys.removeAllTraverser(keyToWindows.keySet())))
+                    && complete();
         }
         if (snapshotTraverser == null) {
-            snapshotTraverser = Traversers.<Object>traverseIterable(keyToWindows.entrySet())
+            snapshotTraverser = (changedKeys.isIncremental()
+                    ? changedKeysTraverser()
+                    : Traversers.<Object>traverseIterable(keyToWindows.entrySet()))
                     .append(entry(broadcastKey(Keys.CURRENT_WATERMARK), currentWatermark))
                     .onFirstNull(() -> snapshotTraverser = null);
         }
         return emitFromTraverserToSnapshot(snapshotTraverser);
     }
 
+    /**
+     * Traverses the keys changed since the last successful snapshot.
+     */
+    private Traverser<Object> changedKeysTraverser() {
+        return Traversers.traverseStream(Stream.concat(
+                changedKeys.savedUpdated().stream()
+                        .filter(keyToWindows::containsKey)
+                        .map(key -> entry(key, keyToWindows.get(key))),
+                changedKeys.savedRemoved().stream().map(key -> entry(key, TOMBSTONE))));
+    }
+
+    @Override
+    public void trackChanges() {
+        changedKeys.enable();
+    }
+
+    @Override
+    public void beginSnapshot(boolean incremental) {
+        changedKeys.beginSnapshot(incremental);
+    }
+
+    @Override
+    public boolean snapshotCommitFinish(boolean success) {
+        changedKeys.snapshotCommitFinish(success);
+        return true;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     protected void restoreFromSnapshot(@Nonnull Object key, @Nonnull Object value) {
@@ -322,9 +373,11 @@ public class SessionWindowP<K, A, R, OUT> extends AbstractProcessor {
         }
         if (i != w.size) {
             w.removeHead(i);
+            changedKeys.updated(key);
         } else {
             keyToWindows.remove(key);
             totalKeys.set(keyToWindows.size());
+            changedKeys.removed(key);
         }
         return results;
     }
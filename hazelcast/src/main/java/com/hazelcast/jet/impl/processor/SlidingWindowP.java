@@ -18,6 +18,7 @@ package com.hazelcast.jet.impl.processor;
 
 import com.hazelcast.internal.metrics.Probe;
 import com.hazelcast.internal.util.collection.Long2ObjectHashMap;
+import com.hazelcast.internal.util.collection.Object2ObjectHashMap;
 import com.hazelcast.internal.util.counters.Counter;
 import com.hazelcast.internal.util.counters.SwCounter;
 import com.hazelcast.jet.JetException;
@@ -31,6 +32,7 @@ import com.hazelcast.jet.core.SlidingWindowPolicy;
 import com.hazelcast.jet.core.Watermark;
 import com.hazelcast.jet.core.function.KeyedWindowResultFunction;
 import com.hazelcast.jet.core.processor.Processors;
+import com.hazelcast.jet.impl.execution.IncrementalSnapshotProcessor;
 import com.hazelcast.jet.impl.execution.init.JetInitDataSerializerHook;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
@@ -40,7 +42,6 @@ import com.hazelcast.partition.PartitionAware;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -67,6 +68,7 @@ import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.util.Collections.emptyMap;
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 /**
@@ -76,7 +78,7 @@ import static java.util.concurrent.TimeUnit.NANOSECONDS;
  * @param <A> type of the frame accumulator object
  * @param <R> type of the finished result
  */
-public class SlidingWindowP<K, A, R, OUT> extends AbstractProcessor {
+public class SlidingWindowP<K, A, R, OUT> extends AbstractProcessor implements IncrementalSnapshotProcessor {
 
     // package-visible for testing
     final Long2ObjectHashMap<Map<K, A>> tsToKeyToAcc = new Long2ObjectHashMap<>();
@@ -123,6 +125,8 @@ public class SlidingWindowP<K, A, R, OUT> extends AbstractProcessor {
 
     private Traverser<Object> flushTraverser;
     private Traverser<Entry> snapshotTraverser;
+    private final ChangedKeysTracker<SnapshotKey> changedKeys = new ChangedKeysTracker<>();
+    private Traverser<Entry> clearStateTraverser;
 
     // Tracks the upper bound for the keyset of tsToKeyToAcc. Serves as an
     // optimization that avoids a full scan over the entire keyset.
@@ -165,7 +169,7 @@ public class SlidingWindowP<K, A, R, OUT> extends AbstractProcessor {
         this.emptyAcc = aggrOp.createFn().get();
         this.createMapPerTsFunction = x -> {
             totalFrames.inc();
-            return new HashMap<>();
+            return new Object2ObjectHashMap<>();
         };
         this.createAccFunction = k -> {
             totalKeysInFrames.inc();
@@ -242,6 +246,9 @@ public class SlidingWindowP<K, A, R, OUT> extends AbstractProcessor {
                 .computeIfAbsent(key, createAccFunction);
         aggrOp.accumulateFn(ordinal).accept(acc, item);
         topTs = max(topTs, frameTs);
+        if (changedKeys.isEnabled()) {
+            changedKeys.updated(new SnapshotKey(frameTs, key));
+        }
         return true;
     }
 
@@ -258,13 +265,10 @@ public class SlidingWindowP<K, A, R, OUT> extends AbstractProcessor {
     @Override
     public boolean saveToSnapshot() {
         if (!isLastStage || flushTraverser != null) {
-            return flushBuffers();
+            return saveClearedState() && flushBuffers();
         }
         if (snapshotTraverser == null) {
-            snapshotTraverser = traverseIterable(tsToKeyToAcc.entrySet())
-                    .<Entry>flatMap(e -> traverseIterable(e.getValue().entrySet())
-                            .map(e2 -> entry(new SnapshotKey(e.getKey(), e2.getKey()), e2.getValue()))
-                    )
+            snapshotTraverser = (changedKeys.isIncremental() ? changedFramesTraverser() : framesTraverser())
                     .append(entry(broadcastKey(Keys.NEXT_WIN_TO_EMIT), nextWinToEmit))
                     .onFirstNull(() -> {
                         logFinest(getLogger(), "Saved nextWinToEmit: %s", nextWinToEmit);
@@ -274,6 +278,67 @@ public class SlidingWindowP<K, A, R, OUT> extends AbstractProcessor {
         return emitFromTraverserToSnapshot(snapshotTraverser);
     }
 
+    /**
+     * We save no state while flushing. An incremental snapshot must contain a
+     * tombstone for each key instead, otherwise the keys saved to the older
+     * snapshots in the chain would be restored.
+     */
+    private boolean saveClearedState() {
+        if (!changedKeys.isIncremental()) {
+            return true;
+        }
+        if (clearStateTraverser == null) {
+            List<SnapshotKey> frameKeys = tsToKeyToAcc.entrySet().stream()
+                    .flatMap(e -> e.getValue().keySet().stream().map(k -> new SnapshotKey(e.getKey(), k)))
+                    .collect(toList());
+            clearStateTraverser = changedKeys.removeAllTraverser(frameKeys)
+                    .<Entry>map(e -> e)
+                    .append(entry(broadcastKey(Keys.NEXT_WIN_TO_EMIT), nextWinToEmit));
+        }
+        return emitFromTraverserToSnapshot(clearStateTraverser);
+    }
+
+    private Traverser<Entry> framesTraverser() {
+        return traverseIterable(tsToKeyToAcc.entrySet())
+                .flatMap(e -> traverseIterable(e.getValue().entrySet())
+                        .map(e2 -> entry(new SnapshotKey(e.getKey(), e2.getKey()), e2.getValue())));
+    }
+
+    /**
+     * Traverses the keys changed since the last successful snapshot. We don't
+     * save tombstones for evicted frames, the frames older than {@code
+     * nextWinToEmit} are dropped when restoring.
+     */
+    @SuppressWarnings("unchecked")
+    private Traverser<Entry> changedFramesTraverser() {
+        return traverseIterable(changedKeys.savedUpdated())
+                .map(k -> {
+                    Map<K, A> keyToAcc = tsToKeyToAcc.get(k.timestamp);
+                    A acc = keyToAcc != null ? keyToAcc.get((K) k.key) : null;
+                    return acc != null ? entry(k, acc) : null;
+                });
+    }
+
+    @Override
+    public void trackChanges() {
+        // the first stage doesn't save any state
+        if (isLastStage) {
+            changedKeys.enable();
+        }
+    }
+
+    @Override
+    public void beginSnapshot(boolean incremental) {
+        changedKeys.beginSnapshot(incremental);
+        clearStateTraverser = null;
+    }
+
+    @Override
+    public boolean snapshotCommitFinish(boolean success) {
+        changedKeys.snapshotCommitFinish(success);
+        return true;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     protected void restoreFromSnapshot(@Nonnull Object key, @Nonnull Object value) {
@@ -403,7 +468,7 @@ public class SlidingWindowP<K, A, R, OUT> extends AbstractProcessor {
     }
 
     private Map<K, A> recomputeWindow(long frameTs) {
-        Map<K, A> window = new HashMap<>();
+        Map<K, A> window = new Object2ObjectHashMap<>();
         for (long ts = frameTs - winPolicy.windowSize() + winPolicy.frameSize();
              ts <= frameTs;
              ts += winPolicy.frameSize()
@@ -20,34 +20,61 @@ import com.hazelcast.jet.Traverser;
 import com.hazelcast.jet.core.AbstractProcessor;
 import com.hazelcast.jet.core.Processor;
 import com.hazelcast.jet.impl.memory.AccumulationLimitExceededException;
+import com.hazelcast.jet.impl.memory.SpillFile;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
 import java.util.PriorityQueue;
 
+import static com.hazelcast.internal.nio.IOUtil.closeResource;
+
+/**
+ * Batch processor that sorts its input. If spilling is enabled, see {@link
+ * SpillFile#spillDirectory}, it doesn't fail once it accumulates {@code
+ * maxProcessorAccumulatedRecords} items: it writes them to a sorted run on
+ * the disk instead, and merges the runs when it completes. It writes and
+ * reads at most {@link SpillFile#IO_BATCH_SIZE} items in one call.
+ */
 public class SortP<T> extends AbstractProcessor {
 
+    private final Comparator<T> comparator;
     private final PriorityQueue<T> priorityQueue;
-    private final Traverser<T> resultTraverser;
+    private final List<SpillFile> runs = new ArrayList<>();
 
+    private SpillFile spillingRun;
+    private Traverser<T> resultTraverser;
+    private MergingTraverser mergingTraverser;
     private long maxItems;
+    private Processor.Context context;
+    private File spillDirectory;
 
+    @SuppressWarnings("unchecked")
     public SortP(@Nullable Comparator<T> comparator) {
+        this.comparator = comparator != null ? comparator : (Comparator<T>) Comparator.naturalOrder();
         this.priorityQueue = new PriorityQueue<>(comparator);
-        this.resultTraverser = priorityQueue::poll;
     }
 
     @Override
     protected void init(@Nonnull Processor.Context context) throws Exception {
         maxItems = context.maxProcessorAccumulatedRecords();
+        this.context = context;
+        spillDirectory = SpillFile.spillDirectory(context);
     }
 
     @Override
     @SuppressWarnings("unchecked")
     protected boolean tryProcess0(@Nonnull Object item) {
-        if (priorityQueue.size() == maxItems) {
-            throw new AccumulationLimitExceededException();
+        if (spillingRun != null || priorityQueue.size() == maxItems) {
+            if (spillDirectory == null) {
+                throw new AccumulationLimitExceededException();
+            }
+            if (!spillRun()) {
+                return false;
+            }
         }
 
         priorityQueue.add((T) item);
@@ -56,6 +83,106 @@ public class SortP<T> extends AbstractProcessor {
 
     @Override
     public boolean complete() {
-        return emitFromTraverser(resultTraverser);
+        if (resultTraverser == null) {
+            if (runs.isEmpty()) {
+                resultTraverser = priorityQueue::poll;
+            } else {
+                resultTraverser = mergingTraverser = new MergingTraverser();
+            }
+        }
+        if (mergingTraverser == null) {
+            return emitFromTraverser(resultTraverser);
+        }
+        mergingTraverser.readBudget = SpillFile.IO_BATCH_SIZE;
+        return emitFromTraverser(resultTraverser) && mergingTraverser.done;
+    }
+
+    @Override
+    public void close() {
+        runs.forEach(SpillFile::close);
+        runs.clear();
+    }
+
+    /**
+     * Writes the next batch of items to the current sorted run.
+     *
+     * @return {@code true}, if the whole priority queue was written
+     */
+    private boolean spillRun() {
+        if (spillingRun == null) {
+            spillingRun = SpillFile.create(context, spillDirectory);
+            runs.add(spillingRun);
+        }
+        T item;
+        for (int i = 0; i < SpillFile.IO_BATCH_SIZE && (item = priorityQueue.poll()) != null; i++) {
+            spillingRun.write(item);
+        }
+        if (!priorityQueue.isEmpty()) {
+            return false;
+        }
+        getLogger().fine("Spilled a sorted run of " + spillingRun.size() + " items to " + spillingRun);
+        spillingRun = null;
+        return true;
+    }
+
+    /**
+     * Merges the sorted runs on the disk with the items still in the
+     * priority queue. Returns {@code null} also when it read {@link
+     * #readBudget} items in the current call, {@link #done} tells if it
+     * merged all the items.
+     */
+    private final class MergingTraverser implements Traverser<T> {
+
+        private final PriorityQueue<Cursor> cursors = new PriorityQueue<>(runs.size() + 1,
+                (c1, c2) -> comparator.compare(c1.head, c2.head));
+        // the run at index runs.size() is the priority queue
+        private int openedRuns;
+        private int readBudget;
+        private boolean done;
+
+        @Override
+        public T next() {
+            for (; openedRuns <= runs.size(); openedRuns++) {
+                if (readBudget-- == 0) {
+                    return null;
+                }
+                addIfNotDone(new Cursor(openedRuns < runs.size() ? runs.get(openedRuns) : null));
+            }
+            if (readBudget-- == 0) {
+                return null;
+            }
+            Cursor cursor = cursors.poll();
+            if (cursor == null) {
+                done = true;
+                close();
+                return null;
+            }
+            T item = cursor.head;
+            cursor.advance();
+            addIfNotDone(cursor);
+            return item;
+        }
+
+        private void addIfNotDone(Cursor cursor) {
+            if (cursor.head != null) {
+                cursors.add(cursor);
+            } else {
+                closeResource(cursor.run);
+            }
+        }
+    }
+
+    private final class Cursor {
+        private final SpillFile run;
+        private T head;
+
+        Cursor(@Nullable SpillFile run) {
+            this.run = run;
+            advance();
+        }
+
+        void advance() {
+            head = run != null ? run.read() : priorityQueue.poll();
+        }
     }
 }
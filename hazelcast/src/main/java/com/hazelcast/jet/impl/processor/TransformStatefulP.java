@@ -28,6 +28,7 @@ import com.hazelcast.jet.core.ResettableSingletonTraverser;
 import com.hazelcast.jet.core.Watermark;
 import com.hazelcast.jet.datamodel.TimestampedItem;
 import com.hazelcast.jet.function.TriFunction;
+import com.hazelcast.jet.impl.execution.IncrementalSnapshotProcessor;
 import com.hazelcast.jet.impl.memory.AccumulationLimitExceededException;
 import com.hazelcast.jet.impl.util.Util;
 
@@ -37,17 +38,20 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
 
 import static com.hazelcast.jet.Util.entry;
 import static com.hazelcast.jet.core.BroadcastKey.broadcastKey;
+import static com.hazelcast.jet.impl.execution.SnapshotTombstone.TOMBSTONE;
 import static com.hazelcast.jet.impl.util.Util.logLateEvent;
 import static java.lang.Math.max;
 import static java.lang.Math.min;
 
-public class TransformStatefulP<T, K, S, R> extends AbstractProcessor {
+public class TransformStatefulP<T, K, S, R> extends AbstractProcessor implements IncrementalSnapshotProcessor {
     private static final int HASH_MAP_INITIAL_CAPACITY = 16;
     private static final float HASH_MAP_LOAD_FACTOR = 0.75f;
     private static final Watermark FLUSHING_WATERMARK = new Watermark(Long.MAX_VALUE);
@@ -72,6 +76,7 @@ public class TransformStatefulP<T, K, S, R> extends AbstractProcessor {
 
     private long currentWm = Long.MIN_VALUE;
     private Traverser<? extends Entry<?, ?>> snapshotTraverser;
+    private final ChangedKeysTracker<K> changedKeys = new ChangedKeysTracker<>();
     private boolean inComplete;
 
     private long maxEntries;
@@ -120,6 +125,7 @@ public class TransformStatefulP<T, K, S, R> extends AbstractProcessor {
             return createIfAbsentFn.apply(k);
         });
         tsAndState.setTimestamp(max(tsAndState.timestamp(), timestamp));
+        changedKeys.updated(key);
         S state = tsAndState.item();
         return statefulFlatMapFn.apply(state, key, event);
     }
@@ -167,6 +173,7 @@ public class TransformStatefulP<T, K, S, R> extends AbstractProcessor {
                     break;
                 }
                 keyToStateIterator.remove();
+                changedKeys.removed(entry.getKey());
                 if (onEvictFn != null) {
                     return onEvictFn.apply(entry.getValue().item(), entry.getKey(), currentWm);
                 }
@@ -185,16 +192,50 @@ public class TransformStatefulP<T, K, S, R> extends AbstractProcessor {
         if (inComplete) {
             // If we are in completing phase, we can have a half-emitted item. Instead of finishing it and
             // writing a snapshot, we finish the final items and save no state.
-            return complete();
+            return (!changedKeys.isIncremental()
+                    || emitFromTraverserToSnapshot(changedKeys.removeAllTraverser(keyToState.keySet())))
+                    && complete();
         }
         if (snapshotTraverser == null) {
-            snapshotTraverser = Traversers.<Entry<?, ?>>traverseIterable(keyToState.entrySet())
+            snapshotTraverser = (changedKeys.isIncremental() ? changedStateTraverser() : stateTraverser())
                     .append(entry(broadcastKey(SnapshotKeys.WATERMARK), currentWm))
                     .onFirstNull(() -> snapshotTraverser = null);
         }
         return emitFromTraverserToSnapshot(snapshotTraverser);
     }
 
+    private Traverser<Entry<?, ?>> stateTraverser() {
+        return Traversers.traverseIterable(keyToState.entrySet());
+    }
+
+    /**
+     * Traverses the keys changed since the last successful snapshot. We
+     * iterate the whole state instead of looking up the changed keys, a
+     * lookup would change the access order of {@code keyToState}.
+     */
+    private Traverser<Entry<?, ?>> changedStateTraverser() {
+        Set<K> updated = changedKeys.savedUpdated();
+        return Traversers.traverseStream(Stream.<Entry<?, ?>>concat(
+                keyToState.entrySet().stream().filter(e -> updated.contains(e.getKey())),
+                changedKeys.savedRemoved().stream().map(k -> entry(k, TOMBSTONE))));
+    }
+
+    @Override
+    public void trackChanges() {
+        changedKeys.enable();
+    }
+
+    @Override
+    public void beginSnapshot(boolean incremental) {
+        changedKeys.beginSnapshot(incremental);
+    }
+
+    @Override
+    public boolean snapshotCommitFinish(boolean success) {
+        changedKeys.snapshotCommitFinish(success);
+        return true;
+    }
+
     @Override
     protected void restoreFromSnapshot(@Nonnull Object key, @Nonnull Object value) {
         if (key instanceof BroadcastKey) {
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.snapshot;
+
+import com.hazelcast.aggregation.Aggregators;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.impl.util.AsyncSnapshotWriterImpl.SnapshotDataKey;
+import com.hazelcast.map.IMap;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.CompletableFuture;
+
+import static com.hazelcast.jet.core.processor.SourceProcessors.readMapP;
+
+/**
+ * Stores the snapshot chunks in the {@code IMap} together with the
+ * validation record.
+ */
+public class IMapSnapshotStore implements SnapshotStore {
+
+    private final HazelcastInstance instance;
+
+    public IMapSnapshotStore(HazelcastInstance instance) {
+        this.instance = instance;
+    }
+
+    @Nonnull @Override
+    public CompletableFuture<?> writeChunk(@Nonnull String mapName, @Nonnull SnapshotDataKey key, @Nonnull Data chunk) {
+        // we put a Data instance to the map directly to avoid the serialization of the byte array
+        return instance.<SnapshotDataKey, Object>getMap(mapName).putAsync(key, chunk).toCompletableFuture();
+    }
+
+    @Override
+    public void clear(@Nonnull String mapName) {
+        instance.getMap(mapName).clear();
+    }
+
+    @Override
+    public void destroy(@Nonnull String mapName) {
+        instance.getMap(mapName).destroy();
+    }
+
+    @Override
+    public long countChunks(@Nonnull String mapName, long snapshotId) {
+        IMap<Object, Object> map = instance.getMap(mapName);
+        return map.aggregate(
+                Aggregators.count(),
+                e -> e.getKey() instanceof SnapshotDataKey
+                        && ((SnapshotDataKey) e.getKey()).snapshotId() == snapshotId);
+    }
+
+    @Nonnull @Override
+    public ProcessorMetaSupplier readP(@Nonnull String mapName) {
+        return readMapP(mapName);
+    }
+
+    @Override
+    public void shutdown() {
+    }
+}
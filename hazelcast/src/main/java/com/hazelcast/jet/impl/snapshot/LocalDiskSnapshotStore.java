@@ -0,0 +1,327 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.snapshot;
+
+import com.hazelcast.cluster.Address;
+import com.hazelcast.cluster.Member;
+import com.hazelcast.internal.nio.IOUtil;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.internal.util.executor.ExecutorType;
+import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.impl.JetServiceBackend;
+import com.hazelcast.jet.impl.operation.CountSnapshotChunksOperation;
+import com.hazelcast.jet.impl.operation.DeleteSnapshotChunksOperation;
+import com.hazelcast.jet.impl.operation.WriteSnapshotChunkBackupOperation;
+import com.hazelcast.jet.impl.util.AsyncSnapshotWriterImpl.SnapshotDataKey;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.spi.impl.operationservice.Operation;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static com.hazelcast.jet.impl.util.ExceptionUtil.isTopologyException;
+import static com.hazelcast.jet.impl.util.ExceptionUtil.peel;
+import static com.hazelcast.jet.impl.util.LoggingUtil.logFine;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Stores the snapshot chunks in files on the local disk of the members,
+ * only the validation record is stored in the {@code IMap}.
+ * <p>
+ * Each member appends the chunks it writes sequentially to the file {@code
+ * <directory>/<memberAddress>/<mapName>/<writerUuid>.chunks} and sends a
+ * copy to the next member in the member list, which appends it to the
+ * same-named file in its own directory. The write completes when both
+ * copies are written. When restoring, each member reads its own file and
+ * the copies of the files of the writers which are no longer members of
+ * the cluster.
+ * <p>
+ * All file modifications are done by a single thread, in the order in
+ * which they were submitted.
+ */
+public class LocalDiskSnapshotStore implements SnapshotStore {
+
+    public static final String STORE_NAME = "local-disk";
+
+    private static final String EXECUTOR_NAME = "hz:jet:snapshotStore";
+    private static final String CHUNK_FILE_SUFFIX = ".chunks";
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final NodeEngineImpl nodeEngine;
+    private final ILogger logger;
+    private final Path memberDirectory;
+    private final ExecutorService executor;
+
+    // accessed only from the executor thread
+    private final Map<Path, FileChannel> openFiles = new HashMap<>();
+
+    public LocalDiskSnapshotStore(NodeEngineImpl nodeEngine, Path directory) {
+        this.nodeEngine = nodeEngine;
+        this.logger = nodeEngine.getLogger(getClass());
+        Address address = nodeEngine.getThisAddress();
+        memberDirectory = directory.resolve((address.getHost() + '_' + address.getPort()).replaceAll("[^\\w.-]", "_"));
+        // the files left by a previous member with the same address are useless, the member UUID is different
+        IOUtil.delete(memberDirectory);
+        executor = nodeEngine.getExecutionService().register(EXECUTOR_NAME, 1, Integer.MAX_VALUE, ExecutorType.CACHED);
+        logger.info("Jet snapshot data will be stored in " + memberDirectory.toAbsolutePath());
+    }
+
+    /**
+     * Returns the local disk store used for the given map on this member.
+     *
+     * @throws JetException if the member is configured to use another store
+     */
+    @Nonnull
+    public static LocalDiskSnapshotStore of(@Nonnull JetServiceBackend jetServiceBackend, @Nonnull String mapName) {
+        SnapshotStore store = jetServiceBackend.snapshotStore(mapName);
+        if (!(store instanceof LocalDiskSnapshotStore)) {
+            throw new JetException("The snapshot store of " + mapName + " on member "
+                    + jetServiceBackend.getNodeEngine().getThisAddress() + " is not " + STORE_NAME
+                    + ", the snapshot store must be configured the same on all members");
+        }
+        return (LocalDiskSnapshotStore) store;
+    }
+
+    @Nonnull @Override
+    public CompletableFuture<?> writeChunk(@Nonnull String mapName, @Nonnull SnapshotDataKey key, @Nonnull Data chunk) {
+        SerializationService serializationService = nodeEngine.getSerializationService();
+        byte[] keyBytes = serializationService.toData(key).toByteArray();
+        byte[] chunkBytes = chunk.toByteArray();
+        UUID writerUuid = nodeEngine.getLocalMember().getUuid();
+        CompletableFuture<Void> localFuture = appendAsync(mapName, writerUuid, keyBytes, chunkBytes);
+        Member backupMember = backupMember();
+        if (backupMember == null) {
+            return localFuture;
+        }
+        Operation op = new WriteSnapshotChunkBackupOperation(mapName, writerUuid, keyBytes, chunkBytes);
+        CompletableFuture<Object> backupFuture = nodeEngine.getOperationService()
+                .invokeOnTarget(JetServiceBackend.SERVICE_NAME, op, backupMember.getAddress());
+        return CompletableFuture.allOf(localFuture, backupFuture);
+    }
+
+    /**
+     * Returns the member after the local member in the member list, or null
+     * if there's no other member.
+     */
+    @Nullable
+    private Member backupMember() {
+        List<Member> members = new ArrayList<>(nodeEngine.getClusterService().getMembers());
+        int localIndex = members.indexOf(nodeEngine.getLocalMember());
+        Member member = members.get((localIndex + 1) % members.size());
+        return member.localMember() ? null : member;
+    }
+
+    @Override
+    public void clear(@Nonnull String mapName) {
+        nodeEngine.getHazelcastInstance().getMap(mapName).clear();
+        deleteOnAllMembers(mapName);
+    }
+
+    @Override
+    public void destroy(@Nonnull String mapName) {
+        nodeEngine.getHazelcastInstance().getMap(mapName).destroy();
+        deleteOnAllMembers(mapName);
+    }
+
+    private void deleteOnAllMembers(String mapName) {
+        for (CompletableFuture<Object> future : invokeOnAllMembers(() -> new DeleteSnapshotChunksOperation(mapName))) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                // the files of a member which left the cluster don't need to be deleted
+                if (!isTopologyException(peel(e))) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @Override
+    public long countChunks(@Nonnull String mapName, long snapshotId) {
+        long count = 0;
+        for (CompletableFuture<Object> future :
+                invokeOnAllMembers(() -> new CountSnapshotChunksOperation(mapName, snapshotId))) {
+            count += (Long) future.join();
+        }
+        return count;
+    }
+
+    private List<CompletableFuture<Object>> invokeOnAllMembers(Supplier<Operation> operationSupplier) {
+        return nodeEngine.getClusterService().getMembers().stream()
+                         .map(member -> nodeEngine.getOperationService().<Object>invokeOnTarget(
+                                 JetServiceBackend.SERVICE_NAME, operationSupplier.get(), member.getAddress()))
+                         .collect(Collectors.toList());
+    }
+
+    @Nonnull @Override
+    public ProcessorMetaSupplier readP(@Nonnull String mapName) {
+        return ProcessorMetaSupplier.preferLocalParallelismOne(() -> new ReadSnapshotChunksP(mapName));
+    }
+
+    @Override
+    public void shutdown() {
+        // the files are closed by the executor thread, after the modifications submitted before
+        CompletableFuture<Void> closed = CompletableFuture.runAsync(() -> {
+            for (FileChannel channel : openFiles.values()) {
+                IOUtil.closeResource(channel);
+            }
+            openFiles.clear();
+            IOUtil.delete(memberDirectory);
+        }, executor);
+        try {
+            closed.get(SHUTDOWN_TIMEOUT_SECONDS, SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            logger.warning("Failed to close the snapshot chunk files in " + memberDirectory, e);
+        } finally {
+            nodeEngine.getExecutionService().shutdownExecutor(EXECUTOR_NAME);
+        }
+    }
+
+    /**
+     * Appends a chunk to the file of the given writer.
+     */
+    @Nonnull
+    public CompletableFuture<Void> appendAsync(
+            @Nonnull String mapName, @Nonnull UUID writerUuid, @Nonnull byte[] key, @Nonnull byte[] chunk
+    ) {
+        return CompletableFuture.runAsync(() -> {
+            Path file = chunkFile(mapName, writerUuid);
+            try {
+                FileChannel channel = openFiles.get(file);
+                if (channel == null) {
+                    Files.createDirectories(file.getParent());
+                    channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                            StandardOpenOption.APPEND);
+                    openFiles.put(file, channel);
+                }
+                SnapshotChunkFile.append(channel, key, chunk);
+            } catch (IOException e) {
+                throw new JetException("Failed to write snapshot chunk to " + file + ": " + e, e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Deletes all local chunk files of the map.
+     */
+    @Nonnull
+    public CompletableFuture<Void> deleteLocalAsync(@Nonnull String mapName) {
+        return CompletableFuture.runAsync(() -> {
+            Path mapDirectory = mapDirectory(mapName);
+            for (Iterator<Entry<Path, FileChannel>> it = openFiles.entrySet().iterator(); it.hasNext(); ) {
+                Entry<Path, FileChannel> entry = it.next();
+                if (entry.getKey().startsWith(mapDirectory)) {
+                    IOUtil.closeResource(entry.getValue());
+                    it.remove();
+                }
+            }
+            IOUtil.delete(mapDirectory);
+            logFine(logger, "Deleted snapshot chunk files in %s", mapDirectory);
+        }, executor);
+    }
+
+    /**
+     * Counts the chunks of the given snapshot in the files this member reads
+     * when restoring.
+     */
+    @Nonnull
+    public CompletableFuture<Long> countLocalAsync(@Nonnull String mapName, long snapshotId) {
+        return CompletableFuture.supplyAsync(() -> {
+            SerializationService serializationService = nodeEngine.getSerializationService();
+            long count = 0;
+            for (Path file : filesToRead(mapName)) {
+                try (SnapshotChunkFile.Reader reader = new SnapshotChunkFile.Reader(file)) {
+                    for (byte[] key; (key = reader.nextKey()) != null; ) {
+                        SnapshotDataKey dataKey = serializationService.toObject(new HeapData(key));
+                        if (dataKey.snapshotId() == snapshotId) {
+                            count++;
+                        }
+                        reader.skipChunk();
+                    }
+                } catch (IOException e) {
+                    throw new JetException("Failed to read snapshot chunks from " + file + ": " + e, e);
+                }
+            }
+            return count;
+        }, executor);
+    }
+
+    /**
+     * Returns the chunk files of the map this member reads when restoring:
+     * the file written by this member and the copies of the files of the
+     * members which left the cluster.
+     */
+    @Nonnull
+    public List<Path> filesToRead(@Nonnull String mapName) {
+        Path mapDirectory = mapDirectory(mapName);
+        List<Path> result = new ArrayList<>();
+        if (!Files.isDirectory(mapDirectory)) {
+            return result;
+        }
+        UUID localUuid = nodeEngine.getLocalMember().getUuid();
+        Set<UUID> memberUuids = nodeEngine.getClusterService().getMembers().stream()
+                                          .map(Member::getUuid)
+                                          .collect(Collectors.toSet());
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(mapDirectory, '*' + CHUNK_FILE_SUFFIX)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                UUID writerUuid = UUID.fromString(fileName.substring(0, fileName.length() - CHUNK_FILE_SUFFIX.length()));
+                if (writerUuid.equals(localUuid) || !memberUuids.contains(writerUuid)) {
+                    result.add(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new JetException("Failed to list snapshot chunk files in " + mapDirectory + ": " + e, e);
+        }
+        return result;
+    }
+
+    private Path mapDirectory(String mapName) {
+        return memberDirectory.resolve(mapName);
+    }
+
+    private Path chunkFile(String mapName, UUID writerUuid) {
+        return mapDirectory(mapName).resolve(writerUuid + CHUNK_FILE_SUFFIX);
+    }
+}
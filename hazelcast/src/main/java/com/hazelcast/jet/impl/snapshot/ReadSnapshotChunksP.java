@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.snapshot;
+
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.jet.core.AbstractProcessor;
+import com.hazelcast.jet.impl.JetServiceBackend;
+import com.hazelcast.jet.impl.util.AsyncSnapshotWriterImpl.SnapshotDataKey;
+import com.hazelcast.spi.impl.NodeEngineImpl;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map.Entry;
+
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.impl.util.Util.getNodeEngine;
+
+/**
+ * Reads the snapshot chunk files of the {@link LocalDiskSnapshotStore} on
+ * the local member and emits {@code Entry<SnapshotDataKey, byte[]>}.
+ */
+public class ReadSnapshotChunksP extends AbstractProcessor {
+
+    private final String mapName;
+
+    private SerializationService serializationService;
+    private Iterator<Path> files;
+    private Path currentFile;
+    private SnapshotChunkFile.Reader reader;
+    private final Traverser<Entry<SnapshotDataKey, byte[]>> traverser = this::nextEntry;
+
+    public ReadSnapshotChunksP(String mapName) {
+        this.mapName = mapName;
+    }
+
+    @Override
+    public boolean isCooperative() {
+        return false;
+    }
+
+    @Override
+    protected void init(@Nonnull Context context) {
+        NodeEngineImpl nodeEngine = getNodeEngine(context.hazelcastInstance());
+        serializationService = nodeEngine.getSerializationService();
+        JetServiceBackend jetServiceBackend = nodeEngine.getService(JetServiceBackend.SERVICE_NAME);
+        files = LocalDiskSnapshotStore.of(jetServiceBackend, mapName).filesToRead(mapName).iterator();
+    }
+
+    @Override
+    public boolean complete() {
+        return emitFromTraverser(traverser);
+    }
+
+    private Entry<SnapshotDataKey, byte[]> nextEntry() {
+        try {
+            while (true) {
+                if (reader == null) {
+                    if (!files.hasNext()) {
+                        return null;
+                    }
+                    currentFile = files.next();
+                    reader = new SnapshotChunkFile.Reader(currentFile);
+                }
+                byte[] key = reader.nextKey();
+                if (key != null) {
+                    SnapshotDataKey dataKey = serializationService.toObject(new HeapData(key));
+                    return entry(dataKey, serializationService.toObject(new HeapData(reader.nextChunk())));
+                }
+                reader.close();
+                reader = null;
+            }
+        } catch (IOException e) {
+            throw new JetException("Failed to read snapshot chunks from " + currentFile + ": " + e, e);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (reader != null) {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.snapshot;
+
+import com.hazelcast.internal.nio.Bits;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The format of the files written by the {@link LocalDiskSnapshotStore}. A
+ * file is a sequence of records, each record is a serialized {@link
+ * com.hazelcast.jet.impl.util.AsyncSnapshotWriterImpl.SnapshotDataKey}
+ * followed by the serialized chunk, both prefixed with their length:
+ * <pre>
+ *     [int keyLength][key bytes][int chunkLength][chunk bytes]
+ * </pre>
+ * The records are only appended to the file, it's never modified.
+ */
+public final class SnapshotChunkFile {
+
+    private SnapshotChunkFile() {
+    }
+
+    /**
+     * Appends a record to the end of the channel.
+     */
+    public static void append(@Nonnull FileChannel channel, @Nonnull byte[] key, @Nonnull byte[] chunk)
+            throws IOException {
+        ByteBuffer[] buffers = {
+                lengthBuffer(key.length), ByteBuffer.wrap(key),
+                lengthBuffer(chunk.length), ByteBuffer.wrap(chunk)
+        };
+        long remaining = Bits.INT_SIZE_IN_BYTES * 2L + key.length + chunk.length;
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+    }
+
+    private static ByteBuffer lengthBuffer(int length) {
+        ByteBuffer buffer = ByteBuffer.allocate(Bits.INT_SIZE_IN_BYTES);
+        buffer.putInt(length).flip();
+        return buffer;
+    }
+
+    /**
+     * Reads the records of a file sequentially. The file is memory-mapped in
+     * windows of {@value #WINDOW_SIZE} bytes, or larger if a record doesn't
+     * fit. Not thread-safe.
+     */
+    public static final class Reader implements Closeable {
+
+        static final int WINDOW_SIZE = 64 * 1024 * 1024;
+
+        private final FileChannel channel;
+        private final long fileSize;
+        private final int windowSize;
+        private MappedByteBuffer window;
+        private long windowStart;
+        private long position;
+
+        public Reader(@Nonnull Path file) throws IOException {
+            this(file, WINDOW_SIZE);
+        }
+
+        // for tests
+        Reader(@Nonnull Path file, int windowSize) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.fileSize = channel.size();
+            this.windowSize = windowSize;
+        }
+
+        /**
+         * Returns the key of the next record or {@code null}, if the end of
+         * the file was reached. After this method the chunk must be read using
+         * {@link #nextChunk()} or skipped using {@link #skipChunk()}.
+         */
+        @Nullable
+        public byte[] nextKey() throws IOException {
+            if (position == fileSize) {
+                return null;
+            }
+            return readBlock(true);
+        }
+
+        /**
+         * Returns the chunk of the record, whose key was returned by the last
+         * call to {@link #nextKey()}.
+         */
+        @Nonnull
+        public byte[] nextChunk() throws IOException {
+            return readBlock(true);
+        }
+
+        /**
+         * Skips the chunk of the record, whose key was returned by the last
+         * call to {@link #nextKey()}.
+         */
+        public void skipChunk() throws IOException {
+            readBlock(false);
+        }
+
+        private byte[] readBlock(boolean copy) throws IOException {
+            map(Bits.INT_SIZE_IN_BYTES);
+            int length = window.getInt((int) (position - windowStart));
+            position += Bits.INT_SIZE_IN_BYTES;
+            if (length < 0) {
+                throw new IOException("Corrupted snapshot chunk file, negative length " + length
+                        + " at offset " + (position - Bits.INT_SIZE_IN_BYTES));
+            }
+            byte[] result = null;
+            if (copy) {
+                map(length);
+                result = new byte[length];
+                ByteBuffer source = window.duplicate();
+                source.position((int) (position - windowStart));
+                source.get(result);
+            }
+            position += length;
+            return result;
+        }
+
+        /**
+         * Makes sure that the {@code length} bytes at the current position are
+         * in the mapped window.
+         */
+        private void map(int length) throws IOException {
+            if (position + length > fileSize) {
+                throw new IOException("Truncated snapshot chunk file, expected " + length + " bytes at offset "
+                        + position + ", but the file size is " + fileSize);
+            }
+            if (window != null && position >= windowStart && position + length <= windowStart + window.limit()) {
+                return;
+            }
+            long size = Math.min(fileSize - position, Math.max(windowSize, length));
+            window = channel.map(MapMode.READ_ONLY, position, size);
+            windowStart = position;
+        }
+
+        @Override
+        public void close() throws IOException {
+            window = null;
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.snapshot;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.impl.util.AsyncSnapshotWriterImpl.SnapshotDataKey;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Stores the chunks of snapshot data saved by the {@link
+ * com.hazelcast.jet.impl.util.AsyncSnapshotWriterImpl}. The {@link
+ * com.hazelcast.jet.impl.SnapshotValidationRecord} is always stored in the
+ * {@code IMap} with the given name, the chunks can be stored elsewhere.
+ */
+public interface SnapshotStore {
+
+    /**
+     * Stores a chunk of snapshot data. The returned future completes with
+     * {@code null} when the chunk is safely stored.
+     */
+    @Nonnull
+    CompletableFuture<?> writeChunk(@Nonnull String mapName, @Nonnull SnapshotDataKey key, @Nonnull Data chunk);
+
+    /**
+     * Deletes the chunks and the validation record of the snapshot on all
+     * members. Blocks until done.
+     */
+    void clear(@Nonnull String mapName);
+
+    /**
+     * Deletes the chunks and destroys the map of the snapshot. Blocks until
+     * done.
+     */
+    void destroy(@Nonnull String mapName);
+
+    /**
+     * Returns the number of chunks of the snapshot with the given ID stored
+     * for the map.
+     */
+    long countChunks(@Nonnull String mapName, long snapshotId);
+
+    /**
+     * Returns a processor which emits the stored chunks as {@code
+     * Entry<SnapshotDataKey, byte[]>}, the same items {@link
+     * com.hazelcast.jet.core.processor.SourceProcessors#readMapP} emits for
+     * the snapshot map.
+     */
+    @Nonnull
+    ProcessorMetaSupplier readP(@Nonnull String mapName);
+
+    /**
+     * Releases the resources held by the store, called when the member shuts
+     * down.
+     */
+    void shutdown();
+}
@@ -26,8 +26,8 @@ import com.hazelcast.internal.serialization.impl.SerializationConstants;
 import com.hazelcast.jet.impl.JetServiceBackend;
 import com.hazelcast.jet.impl.execution.SnapshotContext;
 import com.hazelcast.jet.impl.execution.init.JetInitDataSerializerHook;
+import com.hazelcast.jet.impl.snapshot.SnapshotStore;
 import com.hazelcast.logging.ILogger;
-import com.hazelcast.map.IMap;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
@@ -63,12 +63,13 @@ public class AsyncSnapshotWriterImpl implements AsyncSnapshotWriter {
     private final int[] partitionKeys;
     private int partitionSequence;
     private final ILogger logger;
-    private final NodeEngine nodeEngine;
     private final boolean useBigEndian;
     private final SnapshotContext snapshotContext;
     private final String vertexName;
     private final int memberCount;
-    private IMap<SnapshotDataKey, Object> currentMap;
+    private final JetServiceBackend jetServiceBackend;
+    private String currentMapName;
+    private SnapshotStore currentStore;
     private long currentSnapshotId;
     private final AtomicReference<Throwable> firstError = new AtomicReference<>();
     private final AtomicInteger numActiveFlushes = new AtomicInteger();
@@ -100,7 +101,6 @@ public class AsyncSnapshotWriterImpl implements AsyncSnapshotWriter {
         if (Integer.bitCount(chunkSize) != 1) {
             throw new IllegalArgumentException("chunkSize must be a power of two, but is " + chunkSize);
         }
-        this.nodeEngine = nodeEngine;
         this.partitionService = nodeEngine.getPartitionService();
         this.logger = nodeEngine.getLogger(getClass());
         this.snapshotContext = snapshotContext;
@@ -114,7 +114,7 @@ public class AsyncSnapshotWriterImpl implements AsyncSnapshotWriter {
                 useBigEndian);
 
         buffers = createAndInitBuffers(chunkSize, partitionService.getPartitionCount(), serializedByteArrayHeader);
-        JetServiceBackend jetServiceBackend = nodeEngine.getService(JetServiceBackend.SERVICE_NAME);
+        this.jetServiceBackend = nodeEngine.getService(JetServiceBackend.SERVICE_NAME);
         this.partitionKeys = jetServiceBackend.getSharedPartitionKeys();
         this.partitionSequence = memberIndex;
 
@@ -249,13 +249,12 @@ public class AsyncSnapshotWriterImpl implements AsyncSnapshotWriter {
             return false;
         }
         try {
-            // we put a Data instance to the map directly to avoid the serialization of the byte array
             Data data = dataSupplier.get();
             totalPayloadBytes += data.dataSize();
             totalChunks++;
-            CompletableFuture<Object> future = currentMap.putAsync(
+            CompletableFuture<?> future = currentStore.writeChunk(currentMapName,
                     new SnapshotDataKey(partitionKeys[partitionId], currentSnapshotId, vertexName, partitionSequence),
-                    data).toCompletableFuture();
+                    data);
             partitionSequence += memberCount;
             future.whenComplete(putResponseConsumer);
             numActiveFlushes.incrementAndGet();
@@ -266,12 +265,13 @@ public class AsyncSnapshotWriterImpl implements AsyncSnapshotWriter {
     }
 
     private boolean initCurrentMap() {
-        if (currentMap == null) {
+        if (currentMapName == null) {
             String mapName = snapshotContext.currentMapName();
             if (mapName == null) {
                 return false;
             }
-            currentMap = nodeEngine.getHazelcastInstance().getMap(mapName);
+            currentMapName = mapName;
+            currentStore = jetServiceBackend.snapshotStore(mapName);
             this.currentSnapshotId = snapshotContext.currentSnapshotId();
         }
         return true;
@@ -298,7 +298,8 @@ public class AsyncSnapshotWriterImpl implements AsyncSnapshotWriter {
         }
 
         // we're done
-        currentMap = null;
+        currentMapName = null;
+        currentStore = null;
         if (logger.isFineEnabled()) {
             logger.fine(String.format("Stats for %s: keys=%,d, chunks=%,d, bytes=%,d",
                     vertexName, totalKeys, totalChunks, totalPayloadBytes));
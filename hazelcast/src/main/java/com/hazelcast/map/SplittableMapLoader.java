@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+/**
+ * This is an extension to {@link MapLoader} for loaders which can split
+ * their key set into disjoint parts that can be loaded independently.
+ * <p>
+ * When the initial or a full load of a map backed by a
+ * {@code SplittableMapLoader} is started, Hazelcast does not call
+ * {@link #loadAllKeys()} on a single member. Instead, every data member
+ * loads one split of the keys by calling {@link #loadAllKeys(int, int)}
+ * and dispatches them to the partition owners for value loading, so the
+ * key loading is spread over the whole cluster.
+ * <p>
+ * The splits for a given {@code splitCount} must be disjoint and together
+ * they must contain exactly the keys returned by {@link #loadAllKeys()}.
+ * A typical implementation maps the split to a key range or to a hash
+ * bucket of the keys in the underlying store, for example
+ * {@code WHERE MOD(id, splitCount) = split}.
+ *
+ * See {@link MapLoader}.
+ *
+ * @param <K> type of the SplittableMapLoader key
+ * @param <V> type of the SplittableMapLoader value
+ */
+public interface SplittableMapLoader<K, V> extends MapLoader<K, V> {
+
+    /**
+     * Loads the keys of the given split. The rules for the returned
+     * iterable are the same as for {@link #loadAllKeys()}, including
+     * closing it if it implements {@link java.io.Closeable}.
+     *
+     * @param split      index of the split to load, between {@code 0}
+     *                   (inclusive) and {@code splitCount} (exclusive)
+     * @param splitCount total number of splits being loaded
+     * @return the keys of the split or {@code null} if it has no keys
+     */
+    Iterable<K> loadAllKeys(int split, int splitCount);
+}
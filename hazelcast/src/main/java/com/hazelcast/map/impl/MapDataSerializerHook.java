@@ -65,6 +65,7 @@ import com.hazelcast.map.impl.operation.IsPartitionLoadedOperationFactory;
 import com.hazelcast.map.impl.operation.KeyLoadStatusOperation;
 import com.hazelcast.map.impl.operation.KeyLoadStatusOperationFactory;
 import com.hazelcast.map.impl.operation.LoadAllOperation;
+import com.hazelcast.map.impl.operation.LoadKeySplitOperation;
 import com.hazelcast.map.impl.operation.LoadMapOperation;
 import com.hazelcast.map.impl.operation.MapChunk;
 import com.hazelcast.map.impl.operation.MapFetchEntriesOperation;
@@ -107,6 +108,8 @@ import com.hazelcast.map.impl.operation.PutFromLoadAllOperation;
 import com.hazelcast.map.impl.operation.PutIfAbsentOperation;
 import com.hazelcast.map.impl.operation.PutIfAbsentWithExpiryOperation;
 import com.hazelcast.map.impl.operation.PutOperation;
+import com.hazelcast.map.impl.operation.PutRestoredBackupOperation;
+import com.hazelcast.map.impl.operation.PutRestoredOperation;
 import com.hazelcast.map.impl.operation.PutTransientBackupOperation;
 import com.hazelcast.map.impl.operation.PutTransientOperation;
 import com.hazelcast.map.impl.operation.PutTransientWithExpiryOperation;
@@ -324,8 +327,11 @@ public final class MapDataSerializerHook implements DataSerializerHook {
     public static final int INDEX_ITERATION_POINTER = 156;
     public static final int MAP_FETCH_INDEX_OPERATION_RESULT = 157;
     public static final int MAP_CHUNK = 158;
+    public static final int LOAD_KEY_SPLIT = 159;
+    public static final int PUT_RESTORED = 160;
+    public static final int PUT_RESTORED_BACKUP = 161;
 
-    private static final int LEN = MAP_CHUNK + 1;
+    private static final int LEN = PUT_RESTORED_BACKUP + 1;
 
     @Override
     public int getFactoryId() {
@@ -491,6 +497,9 @@ public final class MapDataSerializerHook implements DataSerializerHook {
         constructors[INDEX_ITERATION_POINTER] = arg -> new IndexIterationPointer();
         constructors[MAP_FETCH_INDEX_OPERATION_RESULT] = arg -> new MapFetchIndexOperationResult();
         constructors[MAP_CHUNK] = arg -> new MapChunk();
+        constructors[LOAD_KEY_SPLIT] = arg -> new LoadKeySplitOperation();
+        constructors[PUT_RESTORED] = arg -> new PutRestoredOperation();
+        constructors[PUT_RESTORED_BACKUP] = arg -> new PutRestoredBackupOperation();
 
         return new ArrayDataSerializableFactory(constructors);
     }
@@ -30,9 +30,11 @@ import com.hazelcast.internal.util.concurrent.IdleStrategy;
 import com.hazelcast.internal.util.scheduler.CoalescingDelayedTrigger;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.map.MapLoader;
+import com.hazelcast.map.SplittableMapLoader;
 import com.hazelcast.map.impl.mapstore.MapStoreContext;
 import com.hazelcast.map.impl.operation.KeyLoadStatusOperation;
 import com.hazelcast.map.impl.operation.KeyLoadStatusOperationFactory;
+import com.hazelcast.map.impl.operation.LoadKeySplitOperation;
 import com.hazelcast.map.impl.operation.MapOperation;
 import com.hazelcast.map.impl.operation.MapOperationProvider;
 import com.hazelcast.map.impl.operation.TriggerLoadIfNeededOperation;
@@ -44,12 +46,15 @@ import com.hazelcast.spi.properties.ClusterProperty;
 import com.hazelcast.spi.properties.HazelcastProperty;
 
 import java.io.Closeable;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
@@ -57,6 +62,7 @@ import java.util.function.BiConsumer;
 import java.util.function.Function;
 
 import static com.hazelcast.internal.nio.IOUtil.closeResource;
+import static com.hazelcast.internal.util.ExceptionUtil.rethrow;
 import static com.hazelcast.internal.util.IterableUtil.limit;
 import static com.hazelcast.internal.util.IterableUtil.map;
 import static com.hazelcast.logging.Logger.getLogger;
@@ -65,7 +71,9 @@ import static com.hazelcast.map.impl.MapKeyLoaderUtil.toBatches;
 import static com.hazelcast.map.impl.MapKeyLoaderUtil.toPartition;
 import static com.hazelcast.map.impl.MapService.SERVICE_NAME;
 import static com.hazelcast.spi.impl.executionservice.ExecutionService.MAP_LOAD_ALL_KEYS_EXECUTOR;
+import static com.hazelcast.spi.impl.executionservice.ExecutionService.MAP_LOAD_KEY_SPLITS_EXECUTOR;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.Collections.singletonList;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
@@ -75,6 +83,8 @@ import static java.util.concurrent.TimeUnit.SECONDS;
  * It loads keys via {@link MapLoader#loadAllKeys} and sends
  * them to all map partitions. Matching values of these keys are
  * loaded in partition owner nodes via {@link MapLoader#loadAll}.
+ * If the map loader is a {@link SplittableMapLoader}, every data
+ * member loads and sends one split of the keys instead.
  */
 public class MapKeyLoader {
 
@@ -111,6 +121,13 @@ public class MapKeyLoader {
      * @see ClusterProperty#MAP_LOAD_CHUNK_SIZE
      */
     private int maxBatch;
+    /**
+     * The maximum number of key batches sent for value loading
+     * which have not been acknowledged by the partition owners
+     *
+     * @see ClusterProperty#MAP_LOAD_MAX_IN_FLIGHT_BATCHES
+     */
+    private int maxInFlightBatches = Integer.MAX_VALUE;
     private int mapNamePartition;
     private int partitionId;
     private boolean hasBackup;
@@ -421,12 +438,15 @@ public class MapKeyLoader {
      * many keys have been loaded from the map loader. If the keys returned from the
      * map loader are not equally distributed over all partitions, this may cause some nodes
      * to load more entries than others and exceed the configured policy.
+     * If the map loader is a {@link SplittableMapLoader}, the keys are loaded and
+     * sent by all data members, one split per member.
      *
      * @param mapStoreContext       the map store context for this map
      * @param replaceExistingValues if the existing entries for the loaded keys should be replaced
      * @throws Exception if there was an exception when notifying the record stores that the key
      *                   loading has finished
      * @see MapLoader#loadAllKeys()
+     * @see #sendKeySplits(boolean)
      */
     private void sendKeysInBatches(MapStoreContext mapStoreContext, boolean replaceExistingValues) throws Exception {
         if (logger.isFinestEnabled()) {
@@ -434,24 +454,105 @@ public class MapKeyLoader {
         }
 
         int clusterSize = partitionService.getMemberPartitionsMap().size();
-        Iterator<Object> keys = null;
         Throwable loadError = null;
 
         try {
-            Iterable<Object> allKeys = mapStoreContext.loadAllKeys();
-            keys = allKeys.iterator();
-            Iterator<Data> dataKeys = map(keys, toData);
-            int mapMaxSize = clusterSize * maxSizePerNode;
+            if (mapStoreContext.isSplittableMapLoader()) {
+                sendKeySplits(replaceExistingValues);
+            } else {
+                dispatchKeys(mapStoreContext.loadAllKeys(), clusterSize * maxSizePerNode, replaceExistingValues);
+            }
+        } catch (Exception caught) {
+            loadError = caught;
+        } finally {
+            sendKeyLoadCompleted(clusterSize, loadError);
+        }
+    }
+
+    /**
+     * Asks every data member to load one split of the keys from the
+     * {@link SplittableMapLoader} and to send them to the partition owners
+     * for value loading. This method will return after all splits have been
+     * loaded and dispatched, or failed.
+     * <p>
+     * The split of a member is loaded by the owner of the first partition
+     * of that member so that the loading follows the partition if it is
+     * migrated in the meantime.
+     *
+     * @param replaceExistingValues if the existing entries for the loaded keys should be replaced
+     * @throws Exception the first exception thrown while loading a split
+     * @see #loadKeySplit(MapStoreContext, int, int, boolean)
+     */
+    private void sendKeySplits(boolean replaceExistingValues) throws Exception {
+        Map<Address, List<Integer>> memberPartitions = partitionService.getMemberPartitionsMap();
+        int splitCount = memberPartitions.size();
+        List<Future> futures = new ArrayList<>(splitCount);
+        int split = 0;
+        for (List<Integer> partitions : memberPartitions.values()) {
+            Operation op = new LoadKeySplitOperation(mapName, split++, splitCount, replaceExistingValues);
+            futures.add(opService.invokeOnPartition(SERVICE_NAME, op, partitions.get(0)));
+        }
+
+        List<Throwable> failures = FutureUtil.waitUntilAllResponded(futures);
+        if (!failures.isEmpty()) {
+            Throwable failure = failures.get(0);
+            throw rethrow(failure instanceof ExecutionException ? failure.getCause() : failure);
+        }
+    }
+
+    /**
+     * Loads the keys of the given split from the {@link SplittableMapLoader}
+     * and sends them to the partition owners in batches for value loading.
+     * The actual loading is done on the
+     * {@link ExecutionService#MAP_LOAD_KEY_SPLITS_EXECUTOR} executor, as the
+     * threads of the {@link ExecutionService#MAP_LOAD_ALL_KEYS_EXECUTOR} may
+     * all be waiting for splits to be loaded.
+     * <p>
+     * If there is a configured max size policy per node, at most this many keys
+     * are loaded from a single split.
+     *
+     * @param mapStoreContext       the map store context for this map
+     * @param split                 the index of the split to load
+     * @param splitCount            the total number of splits
+     * @param replaceExistingValues if the existing entries for the loaded keys should be replaced
+     * @return a future representing pending completion of the loading and
+     * dispatching of the keys of the split
+     * @see SplittableMapLoader#loadAllKeys(int, int)
+     */
+    public InternalCompletableFuture<Object> loadKeySplit(MapStoreContext mapStoreContext, int split, int splitCount,
+                                                          boolean replaceExistingValues) {
+        Future<Object> sent = execService.submit(MAP_LOAD_KEY_SPLITS_EXECUTOR, () -> {
+            dispatchKeys(mapStoreContext.loadAllKeys(split, splitCount), maxSizePerNode, replaceExistingValues);
+            return null;
+        });
+        return execService.asCompletableFuture(sent);
+    }
 
-            if (mapMaxSize > 0) {
-                dataKeys = limit(dataKeys, mapMaxSize);
+    /**
+     * Sends the provided keys to the partition owners in batches for value
+     * loading. At most {@link #maxInFlightBatches} batches are sent without
+     * being acknowledged, after that the keys are pulled from the iterator
+     * only as fast as the partition owners acknowledge the batches. This
+     * method will return after all batches have been acknowledged.
+     *
+     * @param allKeys               the keys to send
+     * @param maxKeys               the maximum number of keys to send or a
+     *                              non-positive value if there is no limit
+     * @param replaceExistingValues if the existing entries for the loaded keys should be replaced
+     */
+    private void dispatchKeys(Iterable<Object> allKeys, int maxKeys, boolean replaceExistingValues) {
+        Iterator<Object> keys = allKeys.iterator();
+        try {
+            Iterator<Data> dataKeys = map(keys, toData);
+            if (maxKeys > 0) {
+                dataKeys = limit(dataKeys, maxKeys);
             }
 
             Iterator<Entry<Integer, Data>> partitionsAndKeys = map(dataKeys, toPartition(partitionService));
             Iterator<Map<Integer, List<Data>>> batches = toBatches(partitionsAndKeys, maxBatch, nodeWideLoadedKeyLimiter);
 
             int callCount = 0;
-            List<Future> futures = new ArrayList<>();
+            Deque<Future> futures = new ArrayDeque<>();
             while (batches.hasNext()) {
                 Map<Integer, List<Data>> batch = batches.next();
                 if (batch.isEmpty()) {
@@ -459,6 +560,9 @@ public class MapKeyLoader {
                 } else {
                     callCount = 0;
                     futures.addAll(sendBatch(batch, replaceExistingValues, nodeWideLoadedKeyLimiter));
+                    while (futures.size() > maxInFlightBatches) {
+                        FutureUtil.waitForever(singletonList(futures.poll()));
+                    }
                 }
             }
 
@@ -468,12 +572,7 @@ public class MapKeyLoader {
             // for all LoadAllOperation(s) to be ACKed by receivers and only then we send them the LoadStatusOperation
             // See https://github.com/hazelcast/hazelcast/issues/4024 for additional details
             FutureUtil.waitForever(futures);
-
-        } catch (Exception caught) {
-            loadError = caught;
         } finally {
-            sendKeyLoadCompleted(clusterSize, loadError);
-
             if (keys instanceof Closeable) {
                 closeResource((Closeable) keys);
             }
@@ -581,6 +680,16 @@ public class MapKeyLoader {
         this.maxBatch = maxBatch;
     }
 
+    /**
+     * Sets the maximum number of key batches sent for value loading
+     * which have not been acknowledged by the partition owners.
+     *
+     * @param maxInFlightBatches the maximum number of unacknowledged key batches
+     */
+    public void setMaxInFlightBatches(int maxInFlightBatches) {
+        this.maxInFlightBatches = maxInFlightBatches;
+    }
+
     /**
      * Sets the configured maximum entry count per node.
      *
@@ -48,6 +48,9 @@ import com.hazelcast.internal.services.TransactionalService;
 import com.hazelcast.internal.services.WanSupportingService;
 import com.hazelcast.map.LocalMapStats;
 import com.hazelcast.map.impl.event.MapEventPublishingService;
+import com.hazelcast.map.impl.mapstore.MapStoreManager;
+import com.hazelcast.map.impl.mapstore.writebehind.WriteBehindManager;
+import com.hazelcast.map.impl.mapstore.writebehind.WriteBehindStats;
 import com.hazelcast.map.impl.recordstore.RecordStore;
 import com.hazelcast.nearcache.NearCacheStats;
 import com.hazelcast.query.LocalIndexStats;
@@ -74,6 +77,7 @@ import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_PREFI
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_PREFIX_ENTRY_PROCESSOR_OFFLOADABLE_EXECUTOR;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_PREFIX_INDEX;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_PREFIX_NEARCACHE;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_PREFIX_WRITE_BEHIND;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_TAG_INDEX;
 
 /**
@@ -333,6 +337,15 @@ public class MapService implements ManagedService, ChunkedMigrationAwareService,
                 context.collect(nearCacheDescriptor, nearCacheStats);
             }
 
+            // write-behind
+            WriteBehindStats writeBehindStats = getWriteBehindStatsOrNull(mapName);
+            if (writeBehindStats != null) {
+                MetricDescriptor writeBehindDescriptor = descriptor
+                        .copy()
+                        .withPrefix(MAP_PREFIX_WRITE_BEHIND)
+                        .withDiscriminator(MAP_DISCRIMINATOR_NAME, mapName);
+                context.collect(writeBehindDescriptor, writeBehindStats);
+            }
         }
         // stats of offloaded-entry-processor's executor
         ExecutorStats executorStats = mapServiceContext.getOffloadedEntryProcessorExecutorStats();
@@ -345,6 +358,16 @@ public class MapService implements ManagedService, ChunkedMigrationAwareService,
         });
     }
 
+    private WriteBehindStats getWriteBehindStatsOrNull(String mapName) {
+        MapContainer mapContainer = mapServiceContext.getMapContainers().get(mapName);
+        if (mapContainer == null) {
+            return null;
+        }
+        MapStoreManager mapStoreManager = mapContainer.getMapStoreContext().getMapStoreManager();
+        return mapStoreManager instanceof WriteBehindManager
+                ? ((WriteBehindManager) mapStoreManager).getWriteBehindStats() : null;
+    }
+
     @Override
     public boolean shouldOffload() {
         return migrationAwareService.shouldOffload();
@@ -21,6 +21,7 @@ import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.MapConfig;
 import com.hazelcast.config.PartitioningStrategyConfig;
 import com.hazelcast.internal.eviction.ExpirationManager;
+import com.hazelcast.internal.memory.impl.UnsafeMallocMemoryManager;
 import com.hazelcast.internal.serialization.Data;
 import com.hazelcast.internal.util.collection.PartitionIdSet;
 import com.hazelcast.internal.util.comparators.ValueComparator;
@@ -30,6 +31,7 @@ import com.hazelcast.map.impl.journal.MapEventJournal;
 import com.hazelcast.map.impl.mapstore.writebehind.NodeWideUsedCapacityCounter;
 import com.hazelcast.map.impl.nearcache.MapNearCacheManager;
 import com.hazelcast.map.impl.operation.MapOperationProvider;
+import com.hazelcast.map.impl.persistence.MapPersistenceService;
 import com.hazelcast.map.impl.query.QueryEngine;
 import com.hazelcast.map.impl.query.QueryRunner;
 import com.hazelcast.map.impl.query.ResultProcessorRegistry;
@@ -205,6 +207,20 @@ public interface MapServiceContext extends MapServiceContextInterceptorSupport,
 
     Semaphore getNodeWideLoadedKeyLimiter();
 
+    /**
+     * @return the node-wide memory manager of the maps with {@link
+     * InMemoryFormat#NATIVE} in-memory format or {@code null} when native
+     * memory is not enabled on this member
+     */
+    UnsafeMallocMemoryManager getNativeMemoryManager();
+
+    /**
+     * @return the local persistence of map data or {@code null} when
+     * persistence or {@link com.hazelcast.spi.properties.ClusterProperty#MAP_LOCAL_PERSISTENCE_ENABLED}
+     * is not enabled on this member
+     */
+    MapPersistenceService getMapPersistenceService();
+
     /**
      * @return {@code true} when Merkle tree maintenance should be enabled for given {@code mapConfig},
      * otherwise {@code false}.
@@ -19,8 +19,10 @@ package com.hazelcast.map.impl;
 import com.hazelcast.cluster.ClusterState;
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.NativeMemoryConfig;
 import com.hazelcast.config.PartitioningStrategyConfig;
 import com.hazelcast.internal.eviction.ExpirationManager;
+import com.hazelcast.internal.memory.impl.UnsafeMallocMemoryManager;
 import com.hazelcast.internal.partition.IPartitionService;
 import com.hazelcast.internal.serialization.Data;
 import com.hazelcast.internal.serialization.DataType;
@@ -48,6 +50,7 @@ import com.hazelcast.map.impl.nearcache.MapNearCacheManager;
 import com.hazelcast.map.impl.operation.MapOperationProvider;
 import com.hazelcast.map.impl.operation.MapOperationProviders;
 import com.hazelcast.map.impl.operation.MapPartitionDestroyOperation;
+import com.hazelcast.map.impl.persistence.MapPersistenceService;
 import com.hazelcast.map.impl.query.AccumulationExecutor;
 import com.hazelcast.map.impl.query.AggregationResult;
 import com.hazelcast.map.impl.query.AggregationResultProcessor;
@@ -69,6 +72,7 @@ import com.hazelcast.map.impl.recordstore.DefaultRecordStore;
 import com.hazelcast.map.impl.recordstore.RecordStore;
 import com.hazelcast.map.listener.MapPartitionLostListener;
 import com.hazelcast.partition.PartitioningStrategy;
+import com.hazelcast.query.impl.BPlusTreeIndexProvider;
 import com.hazelcast.query.impl.DefaultIndexProvider;
 import com.hazelcast.query.impl.IndexCopyBehavior;
 import com.hazelcast.query.impl.IndexProvider;
@@ -78,6 +82,7 @@ import com.hazelcast.spi.impl.NodeEngine;
 import com.hazelcast.spi.impl.eventservice.EventFilter;
 import com.hazelcast.spi.impl.eventservice.EventRegistration;
 import com.hazelcast.spi.impl.eventservice.EventService;
+import com.hazelcast.spi.properties.ClusterProperty;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -139,6 +144,7 @@ class MapServiceContextImpl implements MapServiceContext {
     private final NodeWideUsedCapacityCounter nodeWideUsedCapacityCounter;
     private final ConstructorFunction<String, MapContainer> mapConstructor;
     private final IndexProvider indexProvider = new DefaultIndexProvider();
+    private final IndexProvider bPlusTreeIndexProvider = new BPlusTreeIndexProvider();
     private final ContextMutexFactory contextMutexFactory = new ContextMutexFactory();
     private final ConcurrentMap<String, MapContainer> mapContainers = new ConcurrentHashMap<>();
     private final ExecutorStats offloadedExecutorStats = new ExecutorStats();
@@ -148,6 +154,8 @@ class MapServiceContextImpl implements MapServiceContext {
      * @see {@link MapKeyLoader#DEFAULT_LOADED_KEY_LIMIT_PER_NODE}
      */
     private final Semaphore nodeWideLoadedKeyLimiter;
+    private final UnsafeMallocMemoryManager nativeMemoryManager;
+    private final MapPersistenceService mapPersistenceService;
 
     private MapService mapService;
 
@@ -178,6 +186,8 @@ class MapServiceContextImpl implements MapServiceContext {
         this.nodeWideUsedCapacityCounter = new NodeWideUsedCapacityCounter(nodeEngine.getProperties());
         this.nodeWideLoadedKeyLimiter = new Semaphore(checkPositive(PROP_LOADED_KEY_LIMITER_PER_NODE,
                 nodeEngine.getProperties().getInteger(LOADED_KEY_LIMITER_PER_NODE)));
+        this.nativeMemoryManager = createNativeMemoryManager(nodeEngine);
+        this.mapPersistenceService = createMapPersistenceService();
         this.logger = nodeEngine.getLogger(getClass());
     }
 
@@ -467,6 +477,9 @@ class MapServiceContextImpl implements MapServiceContext {
 
     @Override
     public void shutdown() {
+        if (mapPersistenceService != null) {
+            mapPersistenceService.shutdown();
+        }
         removeAllRecordStoresOfAllMaps(true, false);
         mapNearCacheManager.shutdown();
         mapContainers.clear();
@@ -782,6 +795,10 @@ class MapServiceContextImpl implements MapServiceContext {
 
     @Override
     public IndexProvider getIndexProvider(MapConfig mapConfig) {
+        if (mapConfig.getInMemoryFormat() == InMemoryFormat.NATIVE
+                || nodeEngine.getProperties().getBoolean(ClusterProperty.INDEX_BPLUS_TREE_ENABLED)) {
+            return bPlusTreeIndexProvider;
+        }
         return indexProvider;
     }
 
@@ -881,6 +898,32 @@ class MapServiceContextImpl implements MapServiceContext {
         return nodeWideLoadedKeyLimiter;
     }
 
+    @Override
+    public UnsafeMallocMemoryManager getNativeMemoryManager() {
+        return nativeMemoryManager;
+    }
+
+    private static UnsafeMallocMemoryManager createNativeMemoryManager(NodeEngine nodeEngine) {
+        NativeMemoryConfig nativeMemoryConfig = nodeEngine.getConfig().getNativeMemoryConfig();
+        if (!nativeMemoryConfig.isEnabled()) {
+            return null;
+        }
+        return new UnsafeMallocMemoryManager(nativeMemoryConfig.getSize().bytes());
+    }
+
+    @Override
+    public MapPersistenceService getMapPersistenceService() {
+        return mapPersistenceService;
+    }
+
+    private MapPersistenceService createMapPersistenceService() {
+        if (!nodeEngine.getConfig().getPersistenceConfig().isEnabled()
+                || !nodeEngine.getProperties().getBoolean(ClusterProperty.MAP_LOCAL_PERSISTENCE_ENABLED)) {
+            return null;
+        }
+        return new MapPersistenceService(this);
+    }
+
     public NodeWideUsedCapacityCounter getNodeWideUsedCapacityCounter() {
         return nodeWideUsedCapacityCounter;
     }
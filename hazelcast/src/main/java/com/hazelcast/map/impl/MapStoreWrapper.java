@@ -24,6 +24,7 @@ import com.hazelcast.map.MapLoader;
 import com.hazelcast.map.MapLoaderLifecycleSupport;
 import com.hazelcast.map.MapStore;
 import com.hazelcast.map.PostProcessingMapStore;
+import com.hazelcast.map.SplittableMapLoader;
 import com.hazelcast.spi.impl.NodeEngine;
 import com.hazelcast.spi.impl.NodeEngineImpl;
 
@@ -158,6 +159,27 @@ public class MapStoreWrapper implements MapStore, MapLoaderLifecycleSupport {
         return null;
     }
 
+    /**
+     * Returns an {@link Iterable} of the keys of the given split or
+     * {@code null} if the configured map loader is not a
+     * {@link SplittableMapLoader}.
+     *
+     * @see SplittableMapLoader#loadAllKeys(int, int)
+     */
+    public Iterable<Object> loadAllKeys(int split, int splitCount) {
+        if (isSplittableMapLoader()) {
+            return ((SplittableMapLoader) impl).loadAllKeys(split, splitCount);
+        }
+        return null;
+    }
+
+    /**
+     * @return {@code true} if the configured map loader can load its keys in splits
+     */
+    public boolean isSplittableMapLoader() {
+        return impl instanceof SplittableMapLoader;
+    }
+
     @Override
     public Object load(Object key) {
         if (isMapLoader()) {
@@ -99,6 +99,7 @@ public class PartitionContainer {
         MapKeyLoader keyLoader = new MapKeyLoader(name, opService, ps, nodeEngine.getClusterService(),
                 execService, mapContainer.toData(), serviceContext.getNodeWideLoadedKeyLimiter());
         keyLoader.setMaxBatch(hazelcastProperties.getInteger(ClusterProperty.MAP_LOAD_CHUNK_SIZE));
+        keyLoader.setMaxInFlightBatches(hazelcastProperties.getInteger(ClusterProperty.MAP_LOAD_MAX_IN_FLIGHT_BATCHES));
         keyLoader.setMaxSize(getMaxSizePerNode(mapConfig.getEvictionConfig()));
         keyLoader.setHasBackup(mapConfig.getTotalBackupCount() > 0);
         keyLoader.setMapOperationProvider(serviceContext.getMapOperationProvider(name));
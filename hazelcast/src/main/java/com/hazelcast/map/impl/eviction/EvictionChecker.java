@@ -19,6 +19,7 @@ package com.hazelcast.map.impl.eviction;
 import com.hazelcast.config.EvictionConfig;
 import com.hazelcast.config.MaxSizePolicy;
 import com.hazelcast.internal.cluster.ClusterService;
+import com.hazelcast.internal.memory.impl.UnsafeMallocMemoryManager;
 import com.hazelcast.internal.nearcache.NearCache;
 import com.hazelcast.internal.util.MemoryInfoAccessor;
 import com.hazelcast.logging.ILogger;
@@ -56,6 +57,7 @@ public class EvictionChecker {
     private final MemoryInfoAccessor memoryInfoAccessor;
     private final MapNearCacheManager mapNearCacheManager;
     private final AtomicBoolean misconfiguredPerNodeMaxSizeWarningLogged;
+    private final UnsafeMallocMemoryManager nativeMemoryManager;
 
     public EvictionChecker(MemoryInfoAccessor givenMemoryInfoAccessor, MapServiceContext mapServiceContext) {
         checkNotNull(givenMemoryInfoAccessor, "givenMemoryInfoAccessor cannot be null");
@@ -68,6 +70,7 @@ public class EvictionChecker {
         this.partitionCount = nodeEngine.getPartitionService().getPartitionCount();
         this.mapNearCacheManager = mapServiceContext.getMapNearCacheManager();
         this.memoryInfoAccessor = givenMemoryInfoAccessor;
+        this.nativeMemoryManager = mapServiceContext.getNativeMemoryManager();
 
         if (logger.isFinestEnabled()) {
             logger.finest("Used memoryInfoAccessor=" + this.memoryInfoAccessor.getClass().getCanonicalName());
@@ -101,6 +104,23 @@ public class EvictionChecker {
                 return (usedHeapInBytes(mapName) * ONE_HUNDRED / Math.max(maxMemoryInBytes(), 1)) > maxConfiguredSize;
             case FREE_HEAP_PERCENTAGE:
                 return (availableMemoryInBytes() * ONE_HUNDRED / Math.max(maxMemoryInBytes(), 1)) < maxConfiguredSize;
+            default:
+                return checkNativeMemoryEvictable(maximumSizePolicy, maxConfiguredSize, mapName);
+        }
+    }
+
+    private boolean checkNativeMemoryEvictable(MaxSizePolicy maximumSizePolicy, int maxConfiguredSize, String mapName) {
+        switch (maximumSizePolicy) {
+            case USED_NATIVE_MEMORY_SIZE:
+                return usedNativeMemoryInBytes(mapName) > MEGABYTES.toBytes(maxConfiguredSize);
+            case FREE_NATIVE_MEMORY_SIZE:
+                return nativeMemoryManager.getFreeMemory() < MEGABYTES.toBytes(maxConfiguredSize);
+            case USED_NATIVE_MEMORY_PERCENTAGE:
+                return (usedNativeMemoryInBytes(mapName) * ONE_HUNDRED / nativeMemoryManager.getCapacity())
+                        > maxConfiguredSize;
+            case FREE_NATIVE_MEMORY_PERCENTAGE:
+                return (nativeMemoryManager.getFreeMemory() * ONE_HUNDRED / nativeMemoryManager.getCapacity())
+                        < maxConfiguredSize;
             default:
                 throw new IllegalArgumentException("Not an appropriate max size policy [" + maximumSizePolicy + ']');
         }
@@ -154,6 +174,19 @@ public class EvictionChecker {
         return usedHeapInBytes;
     }
 
+    /**
+     * The owned entry cost of a map with {@link
+     * com.hazelcast.config.InMemoryFormat#NATIVE NATIVE} in-memory
+     * format is the native memory used by its records.
+     */
+    private long usedNativeMemoryInBytes(String mapName) {
+        long usedNativeMemoryInBytes = 0L;
+        for (int partitionId = 0; partitionId < partitionCount; partitionId++) {
+            usedNativeMemoryInBytes += getRecordStoreHeapCost(mapName, containers[partitionId]);
+        }
+        return usedNativeMemoryInBytes;
+    }
+
     private long getRecordStoreHeapCost(String mapName, PartitionContainer container) {
         RecordStore existingRecordStore = container.getExistingRecordStore(mapName);
         if (existingRecordStore == null) {
@@ -16,6 +16,7 @@
 
 package com.hazelcast.map.impl.eviction;
 
+import com.hazelcast.internal.eviction.impl.comparator.FrequencySketch;
 import com.hazelcast.map.impl.recordstore.RecordStore;
 import com.hazelcast.internal.serialization.Data;
 
@@ -85,4 +86,14 @@ public interface Evictor {
      */
     boolean checkEvictable(RecordStore recordStore);
 
+    /**
+     * Creates the sketch in which a record store records the key accesses
+     * if this evictor selects entries by their access frequency.
+     *
+     * @return a new sketch or {@code null} if this evictor does not use it
+     */
+    default FrequencySketch newFrequencySketch() {
+        return null;
+    }
+
 }
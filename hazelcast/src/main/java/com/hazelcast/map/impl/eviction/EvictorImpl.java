@@ -17,6 +17,8 @@
 package com.hazelcast.map.impl.eviction;
 
 import com.hazelcast.core.EntryView;
+import com.hazelcast.internal.eviction.impl.comparator.FrequencySketch;
+import com.hazelcast.internal.eviction.impl.comparator.TinyLFUEvictionPolicyComparator;
 import com.hazelcast.internal.partition.IPartition;
 import com.hazelcast.internal.partition.IPartitionService;
 import com.hazelcast.internal.serialization.Data;
@@ -67,6 +69,11 @@ public class EvictorImpl implements Evictor {
         }
     }
 
+    @Override
+    public FrequencySketch newFrequencySketch() {
+        return policy instanceof TinyLFUEvictionPolicyComparator ? new FrequencySketch() : null;
+    }
+
     @Override
     public void forceEvictByPercentage(RecordStore recordStore, double evictionPercentage) {
         // NOP.
@@ -77,7 +84,8 @@ public class EvictorImpl implements Evictor {
                                            long now, boolean backup) {
         EntryView excluded = null;
         EntryView selected = null;
-
+        int selectedKeyHash = 0;
+        FrequencySketch frequencySketch = recordStore.getFrequencySketch();
 
         for (EntryView current : getRandomSamples(recordStore)) {
             Data dataKey = getDataKeyFromEntryView(current);
@@ -93,7 +101,14 @@ public class EvictorImpl implements Evictor {
                 continue;
             }
 
-            if (selected == null
+            if (frequencySketch != null) {
+                int keyHash = dataKey.hashCode();
+                if (selected == null || TinyLFUEvictionPolicyComparator.compare(frequencySketch,
+                        current, keyHash, selected, selectedKeyHash) < 0) {
+                    selected = current;
+                    selectedKeyHash = keyHash;
+                }
+            } else if (selected == null
                     || policy.compare(current, selected) < 0) {
                 selected = current;
             }
@@ -75,6 +75,11 @@ final class BasicMapStoreContext implements MapStoreContext {
         return storeWrapper.isMapLoader();
     }
 
+    @Override
+    public boolean isSplittableMapLoader() {
+        return storeWrapper.isSplittableMapLoader();
+    }
+
     @Override
     public SerializationService getSerializationService() {
         return mapServiceContext.getNodeEngine().getSerializationService();
@@ -169,6 +174,11 @@ final class BasicMapStoreContext implements MapStoreContext {
         return IterableUtil.nullToEmpty(storeWrapper.loadAllKeys());
     }
 
+    @Override
+    public Iterable<Object> loadAllKeys(int split, int splitCount) {
+        return IterableUtil.nullToEmpty(storeWrapper.loadAllKeys(split, splitCount));
+    }
+
     void setMapStoreManager(MapStoreManager mapStoreManager) {
         this.mapStoreManager = mapStoreManager;
     }
@@ -18,6 +18,7 @@ package com.hazelcast.map.impl.mapstore;
 
 import com.hazelcast.config.MapStoreConfig;
 import com.hazelcast.map.MapLoader;
+import com.hazelcast.map.SplittableMapLoader;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.map.impl.MapServiceContext;
 import com.hazelcast.map.impl.MapStoreWrapper;
@@ -67,4 +68,18 @@ public interface MapStoreContext {
      * @return {@code true} if a {@link MapLoader} is configured for this map
      */
     boolean isMapLoader();
+
+    /**
+     * Returns an {@link Iterable} over the keys of the given split or an
+     * empty iterable if the map loader of this map cannot load its keys
+     * in splits.
+     *
+     * @see SplittableMapLoader#loadAllKeys(int, int)
+     */
+    Iterable<Object> loadAllKeys(int split, int splitCount);
+
+    /**
+     * @return {@code true} if a {@link SplittableMapLoader} is configured for this map
+     */
+    boolean isSplittableMapLoader();
 }
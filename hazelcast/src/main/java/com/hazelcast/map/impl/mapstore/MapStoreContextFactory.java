@@ -108,5 +108,15 @@ public final class MapStoreContextFactory {
         public boolean isMapLoader() {
             return false;
         }
+
+        @Override
+        public Iterable<Object> loadAllKeys(int split, int splitCount) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isSplittableMapLoader() {
+            return false;
+        }
     }
 }
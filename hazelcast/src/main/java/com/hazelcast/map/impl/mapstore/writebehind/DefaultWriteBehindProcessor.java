@@ -16,10 +16,13 @@
 
 package com.hazelcast.map.impl.mapstore.writebehind;
 
+import com.hazelcast.internal.util.Clock;
 import com.hazelcast.map.EntryLoader.MetadataAwareValue;
 import com.hazelcast.map.impl.mapstore.MapStoreContext;
 import com.hazelcast.map.impl.mapstore.writebehind.entry.DelayedEntry;
 import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.spi.impl.NodeEngine;
+import com.hazelcast.spi.impl.executionservice.ExecutionService;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -29,9 +32,16 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.hazelcast.internal.util.CollectionUtil.isNotEmpty;
+import static com.hazelcast.internal.util.ExceptionUtil.rethrow;
 import static com.hazelcast.internal.util.MapUtil.createHashMap;
+import static com.hazelcast.spi.impl.executionservice.ExecutionService.MAP_WRITE_BEHIND_EXECUTOR;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_WRITE_BEHIND_FLUSH_PARALLELISM;
 import static java.lang.Thread.currentThread;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -51,10 +61,21 @@ class DefaultWriteBehindProcessor extends AbstractWriteBehindProcessor<DelayedEn
     private static final int RETRY_STORE_AFTER_WAIT_SECONDS = 1;
 
     private final List<StoreListener> storeListeners;
+    private final WriteBehindStats stats = new WriteBehindStats();
+    private final ExecutionService executionService;
+    private final int flushParallelism;
 
     DefaultWriteBehindProcessor(MapStoreContext mapStoreContext) {
         super(mapStoreContext);
         this.storeListeners = new ArrayList<>(2);
+        NodeEngine nodeEngine = mapStoreContext.getMapServiceContext().getNodeEngine();
+        this.executionService = nodeEngine.getExecutionService();
+        this.flushParallelism = nodeEngine.getProperties().getInteger(MAP_WRITE_BEHIND_FLUSH_PARALLELISM);
+    }
+
+    @Override
+    public WriteBehindStats getStats() {
+        return stats;
     }
 
     @Override
@@ -74,6 +95,9 @@ class DefaultWriteBehindProcessor extends AbstractWriteBehindProcessor<DelayedEn
         if (delayedEntries == null || delayedEntries.isEmpty()) {
             return Collections.emptyMap();
         }
+        if (writeCoalescing) {
+            return processCoalesced(delayedEntries);
+        }
         final Map<Integer, List<DelayedEntry>> failuresByPartition = new HashMap<>();
         final List<DelayedEntry> entriesToProcess = new ArrayList<>();
         StoreOperationType operationType = null;
@@ -99,6 +123,30 @@ class DefaultWriteBehindProcessor extends AbstractWriteBehindProcessor<DelayedEn
         return failuresByPartition;
     }
 
+    /**
+     * With write-coalescing only the last store operation on a key is
+     * persisted, so the operations on different keys can be reordered.
+     * Instead of cutting a new batch at every switch between writes and
+     * deletes, all the writes are passed to a single batch write and all
+     * the deletes to a single batch delete.
+     */
+    private Map<Integer, List<DelayedEntry>> processCoalesced(List<DelayedEntry> delayedEntries) {
+        Map<Object, DelayedEntry> lastEntryPerKey = prepareBatchMap(delayedEntries.toArray(new DelayedEntry[0]));
+        List<DelayedEntry> writes = new ArrayList<>(lastEntryPerKey.size());
+        List<DelayedEntry> deletes = new ArrayList<>();
+        for (DelayedEntry entry : lastEntryPerKey.values()) {
+            if (entry.getValue() == null) {
+                deletes.add(entry);
+            } else {
+                writes.add(entry);
+            }
+        }
+        Map<Integer, List<DelayedEntry>> failuresByPartition = new HashMap<>();
+        addFailsTo(failuresByPartition, callHandler(writes, StoreOperationType.WRITE));
+        addFailsTo(failuresByPartition, callHandler(deletes, StoreOperationType.DELETE));
+        return failuresByPartition;
+    }
+
     private void addFailsTo(Map<Integer, List<DelayedEntry>> failsPerPartition, List<DelayedEntry> fails) {
         if (fails == null || fails.isEmpty()) {
             return;
@@ -280,6 +328,9 @@ class DefaultWriteBehindProcessor extends AbstractWriteBehindProcessor<DelayedEn
      * @return not-stored entries per partition.
      */
     private Map<Integer, List<DelayedEntry>> doStoreUsingBatchSize(List<DelayedEntry> sortedDelayedEntries) {
+        if (writeCoalescing && flushParallelism > 1 && sortedDelayedEntries.size() > writeBatchSize) {
+            return doStoreInParallel(sortedDelayedEntries);
+        }
         Map<Integer, List<DelayedEntry>> failsPerPartition = new HashMap<>();
         int page = 0;
         List<DelayedEntry> delayedEntryList;
@@ -293,6 +344,96 @@ class DefaultWriteBehindProcessor extends AbstractWriteBehindProcessor<DelayedEn
         return failsPerPartition;
     }
 
+    /**
+     * Stores the chunks of {@link #writeBatchSize} entries using up to
+     * {@link #flushParallelism} threads, the calling thread included. The
+     * coalesced write-behind queues hold a single entry per key, so the
+     * chunks don't depend on each other.
+     * <p>
+     * Returns only after all the helper threads are done, their entries
+     * being either stored or part of the returned failures.
+     */
+    private Map<Integer, List<DelayedEntry>> doStoreInParallel(List<DelayedEntry> sortedDelayedEntries) {
+        List<List<DelayedEntry>> chunks = new ArrayList<>();
+        int page = 0;
+        List<DelayedEntry> chunk;
+        while ((chunk = getBatchChunk(sortedDelayedEntries, writeBatchSize, page++)) != null) {
+            chunks.add(chunk);
+        }
+
+        AtomicInteger nextChunk = new AtomicInteger();
+        int helperCount = Math.min(flushParallelism, chunks.size()) - 1;
+        List<Future<Map<Integer, List<DelayedEntry>>>> futures = new ArrayList<>(helperCount);
+        Map<Integer, List<DelayedEntry>> failsPerPartition = new HashMap<>();
+        try {
+            for (int i = 0; i < helperCount; i++) {
+                try {
+                    futures.add(executionService.submit(MAP_WRITE_BEHIND_EXECUTOR, () -> storeChunks(chunks, nextChunk)));
+                } catch (RejectedExecutionException e) {
+                    // the calling thread stores the remaining chunks
+                    break;
+                }
+            }
+            mergeFails(failsPerPartition, storeChunks(chunks, nextChunk));
+        } finally {
+            // the helpers must not outlive this flush, or the entries they
+            // fail to store would never be retried
+            awaitHelpers(futures, failsPerPartition);
+        }
+        return failsPerPartition;
+    }
+
+    private void awaitHelpers(List<Future<Map<Integer, List<DelayedEntry>>>> futures,
+                              Map<Integer, List<DelayedEntry>> failsPerPartition) {
+        boolean interrupted = false;
+        Throwable failure = null;
+        for (Future<Map<Integer, List<DelayedEntry>>> future : futures) {
+            for (; ; ) {
+                try {
+                    mergeFails(failsPerPartition, future.get());
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw rethrow(failure);
+        }
+    }
+
+    private Map<Integer, List<DelayedEntry>> storeChunks(List<List<DelayedEntry>> chunks, AtomicInteger nextChunk) {
+        Map<Integer, List<DelayedEntry>> failsPerPartition = new HashMap<>();
+        int index;
+        while ((index = nextChunk.getAndIncrement()) < chunks.size()) {
+            List<DelayedEntry> chunk = chunks.get(index);
+            try {
+                mergeFails(failsPerPartition, processInternal(chunk));
+            } catch (Exception e) {
+                // the chunk is re-added to the write-behind queues like the
+                // entries which failed to store after the retries
+                logger.severe("Number of entries which could not be stored is = [" + chunk.size() + "]"
+                        + ", Hazelcast will indefinitely retry to store them", e);
+                addFailsTo(failsPerPartition, chunk);
+            }
+        }
+        return failsPerPartition;
+    }
+
+    private void mergeFails(Map<Integer, List<DelayedEntry>> failsPerPartition, Map<Integer, List<DelayedEntry>> fails) {
+        for (List<DelayedEntry> partitionFails : fails.values()) {
+            addFailsTo(failsPerPartition, partitionFails);
+        }
+    }
+
     private List<DelayedEntry> retryCall(RetryTask task) {
         boolean result = false;
         Exception exception = null;
@@ -376,6 +517,7 @@ class DefaultWriteBehindProcessor extends AbstractWriteBehindProcessor<DelayedEn
             callBeforeStoreListeners(entry);
             final Object key = toObject(entry.getKey());
             final Object value = toObject(entry.getValue());
+            long startMillis = Clock.currentTimeMillis();
             boolean result;
             // if value is null, then we have a DeletedDelayedEntry. We should not create
             // an EntryLoaderEntry for that
@@ -385,6 +527,7 @@ class DefaultWriteBehindProcessor extends AbstractWriteBehindProcessor<DelayedEn
             } else {
                 result = operationType.processSingle(key, value, mapStore);
             }
+            stats.recordStore(1, Clock.currentTimeMillis() - startMillis);
             callAfterStoreListeners(entry);
             return result;
         }
@@ -414,6 +557,7 @@ class DefaultWriteBehindProcessor extends AbstractWriteBehindProcessor<DelayedEn
         public boolean run() throws Exception {
             callBeforeStoreListeners(batchMap.values());
             final Map map = convertToObject(batchMap);
+            long startMillis = Clock.currentTimeMillis();
             boolean result;
             try {
                 result = operationType.processBatch(map, mapStore);
@@ -421,6 +565,7 @@ class DefaultWriteBehindProcessor extends AbstractWriteBehindProcessor<DelayedEn
                 batchMap.keySet().removeIf(o -> !map.containsKey(toObject(o)));
                 throw ex;
             }
+            stats.recordStore(batchMap.size(), Clock.currentTimeMillis() - startMillis);
             callAfterStoreListeners(batchMap.values());
             return result;
         }
@@ -121,6 +121,7 @@ public class StoreWorker implements Runnable {
 
         List<DelayedEntry> ownersList = null;
         List<DelayedEntry> backupsList = null;
+        long oldestOwnedStoreTime = Long.MAX_VALUE;
 
         for (int partitionId = 0; partitionId < partitionCount; partitionId++) {
             if (currentThread().isInterrupted()) {
@@ -140,9 +141,13 @@ public class StoreWorker implements Runnable {
             } else {
                 ownersList = initListIfNull(ownersList, partitionCount);
                 selectEntriesToStore(recordStore, ownersList, ownerHighestStoreTime);
+                oldestOwnedStoreTime = Math.min(oldestOwnedStoreTime, getOldestStoreTime(recordStore));
             }
         }
 
+        writeBehindProcessor.getStats().setOldestEntryAgeMillis(
+                oldestOwnedStoreTime == Long.MAX_VALUE ? 0 : Math.max(0, now - oldestOwnedStoreTime));
+
         if (!isEmpty(ownersList)) {
             Map<Integer, List<DelayedEntry>> failuresPerPartition = writeBehindProcessor.process(ownersList);
             removeFinishedStoreOperationsFromQueues(mapName, ownersList);
@@ -187,6 +192,16 @@ public class StoreWorker implements Runnable {
         return writeBehindQueue.size() != 0;
     }
 
+    /**
+     * Returns the store time of the entry at the head of the write-behind
+     * queue, which is the oldest one: coalesced queues keep the original
+     * store time and position of a key when it is updated.
+     */
+    private long getOldestStoreTime(RecordStore recordStore) {
+        DelayedEntry head = getWriteBehindQueue(recordStore).peek();
+        return head == null ? Long.MAX_VALUE : head.getStoreTime();
+    }
+
     private void notifyFlush() {
         for (int partitionId = 0; partitionId < partitionCount; partitionId++) {
             RecordStore recordStore = getRecordStoreOrNull(mapName, partitionId);
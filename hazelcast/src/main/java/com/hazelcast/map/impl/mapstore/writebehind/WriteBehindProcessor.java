@@ -55,4 +55,9 @@ public interface WriteBehindProcessor<E> {
      * @param key to be flushed.
      */
     void flush(E key);
+
+    /**
+     * Returns the statistics of the map store calls done by this processor.
+     */
+    WriteBehindStats getStats();
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.map.impl.mapstore.writebehind;
+
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.MwCounter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_WRITE_BEHIND_AVG_STORE_BATCH_SIZE;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_WRITE_BEHIND_MAX_STORE_BATCH_SIZE;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_WRITE_BEHIND_OLDEST_ENTRY_AGE;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_WRITE_BEHIND_STORED_ENTRY_COUNT;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_WRITE_BEHIND_STORE_BATCH_COUNT;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_WRITE_BEHIND_STORE_TIME;
+import static com.hazelcast.internal.metrics.ProbeUnit.MS;
+import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
+
+/**
+ * Write-behind statistics of a map on this member. Only the stores done
+ * by the partition owners are counted; backups don't call the map store.
+ * <p>
+ * The counters are multi-writer, since the batches of a map can be
+ * stored in parallel.
+ */
+public class WriteBehindStats {
+
+    @Probe(name = MAP_METRIC_WRITE_BEHIND_STORE_BATCH_COUNT)
+    private final MwCounter storeBatchCount = newMwCounter();
+    @Probe(name = MAP_METRIC_WRITE_BEHIND_STORED_ENTRY_COUNT)
+    private final MwCounter storedEntryCount = newMwCounter();
+    @Probe(name = MAP_METRIC_WRITE_BEHIND_MAX_STORE_BATCH_SIZE)
+    private final AtomicLong maxStoreBatchSize = new AtomicLong();
+    @Probe(name = MAP_METRIC_WRITE_BEHIND_STORE_TIME, unit = MS)
+    private final MwCounter storeTimeMillis = newMwCounter();
+    @Probe(name = MAP_METRIC_WRITE_BEHIND_OLDEST_ENTRY_AGE, unit = MS)
+    private volatile long oldestEntryAgeMillis;
+
+    /**
+     * Records a successful call to the map store, either for a single
+     * entry or for a batch of them.
+     */
+    void recordStore(int entryCount, long durationMillis) {
+        storeBatchCount.inc();
+        storedEntryCount.inc(entryCount);
+        storeTimeMillis.inc(durationMillis);
+        maxStoreBatchSize.accumulateAndGet(entryCount, Math::max);
+    }
+
+    /**
+     * Sets the time the oldest entry waiting in the write-behind queues of
+     * the owned partitions has spent in its queue, as seen by the last run
+     * of the {@link StoreWorker}.
+     */
+    void setOldestEntryAgeMillis(long oldestEntryAgeMillis) {
+        this.oldestEntryAgeMillis = oldestEntryAgeMillis;
+    }
+
+    @Probe(name = MAP_METRIC_WRITE_BEHIND_AVG_STORE_BATCH_SIZE)
+    public double getAvgStoreBatchSize() {
+        long batches = storeBatchCount.get();
+        return batches == 0 ? 0 : (double) storedEntryCount.get() / batches;
+    }
+
+    public long getStoreBatchCount() {
+        return storeBatchCount.get();
+    }
+
+    public long getStoredEntryCount() {
+        return storedEntryCount.get();
+    }
+
+    public long getMaxStoreBatchSize() {
+        return maxStoreBatchSize.get();
+    }
+
+    public long getOldestEntryAgeMillis() {
+        return oldestEntryAgeMillis;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.operation;
+
+import com.hazelcast.map.SplittableMapLoader;
+import com.hazelcast.map.impl.MapDataSerializerHook;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.spi.impl.operationservice.CallStatus;
+import com.hazelcast.spi.impl.operationservice.Offload;
+import com.hazelcast.spi.impl.operationservice.PartitionAwareOperation;
+
+import java.io.IOException;
+
+/**
+ * Triggers loading the keys of a single split from the defined
+ * {@link SplittableMapLoader} and sending them to the partition
+ * owners for value loading.
+ * <p>
+ * This operation is sent by the {@link com.hazelcast.map.impl.MapKeyLoader.Role#SENDER}
+ * to one partition of every data member. The keys are loaded on the
+ * {@link com.hazelcast.spi.impl.executionservice.ExecutionService#MAP_LOAD_KEY_SPLITS_EXECUTOR}
+ * executor and the response is sent once all keys of the split have
+ * been dispatched.
+ */
+public class LoadKeySplitOperation extends MapOperation implements PartitionAwareOperation {
+
+    private int split;
+    private int splitCount;
+    private boolean replaceExistingValues;
+
+    public LoadKeySplitOperation() {
+    }
+
+    public LoadKeySplitOperation(String name, int split, int splitCount, boolean replaceExistingValues) {
+        super(name);
+        this.split = split;
+        this.splitCount = splitCount;
+        this.replaceExistingValues = replaceExistingValues;
+    }
+
+    @Override
+    public CallStatus call() {
+        return new LoadKeySplitOffload();
+    }
+
+    @Override
+    public boolean returnsResponse() {
+        // the response is sent when the offloaded key loading completes
+        return false;
+    }
+
+    @Override
+    public void onExecutionFailure(Throwable e) {
+        // this is required since returnsResponse() returns false and the
+        // caller would otherwise never be notified about the failure
+        sendResponse(e);
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeInt(split);
+        out.writeInt(splitCount);
+        out.writeBoolean(replaceExistingValues);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        split = in.readInt();
+        splitCount = in.readInt();
+        replaceExistingValues = in.readBoolean();
+    }
+
+    @Override
+    public int getClassId() {
+        return MapDataSerializerHook.LOAD_KEY_SPLIT;
+    }
+
+    private final class LoadKeySplitOffload extends Offload {
+
+        private LoadKeySplitOffload() {
+            super(LoadKeySplitOperation.this);
+        }
+
+        @Override
+        public void start() {
+            recordStore.loadKeySplit(split, splitCount, replaceExistingValues)
+                    .whenCompleteAsync((response, throwable) -> sendResponse(throwable == null ? response : throwable));
+        }
+    }
+}
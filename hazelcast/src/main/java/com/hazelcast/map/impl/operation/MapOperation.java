@@ -31,12 +31,14 @@ import com.hazelcast.map.impl.eviction.Evictor;
 import com.hazelcast.map.impl.mapstore.MapDataStore;
 import com.hazelcast.map.impl.mapstore.writebehind.TxnReservedCapacityCounter;
 import com.hazelcast.map.impl.nearcache.MapNearCacheManager;
+import com.hazelcast.map.impl.persistence.MapPersistenceService;
 import com.hazelcast.map.impl.record.Record;
 import com.hazelcast.map.impl.recordstore.RecordStore;
 import com.hazelcast.map.impl.recordstore.expiry.ExpiryMetadata;
 import com.hazelcast.map.impl.wan.WanMapEntryView;
 import com.hazelcast.memory.NativeOutOfMemoryError;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.spi.exception.RetryableHazelcastException;
 import com.hazelcast.spi.impl.operationservice.AbstractNamedOperation;
 import com.hazelcast.spi.impl.operationservice.BackupOperation;
 import com.hazelcast.spi.tenantcontrol.TenantControl;
@@ -85,6 +87,8 @@ public abstract class MapOperation extends AbstractNamedOperation
         mapServiceContext = mapService.getMapServiceContext();
         mapEventPublisher = mapServiceContext.getMapEventPublisher();
 
+        checkPersistenceRestored();
+
         try {
             recordStore = getRecordStoreOrNull();
             if (recordStore == null) {
@@ -104,6 +108,24 @@ public abstract class MapOperation extends AbstractNamedOperation
         innerBeforeRun();
     }
 
+    /**
+     * Returns {@code true} if this operation must be retried while the map is
+     * still restoring its data from the local persistence of this member.
+     * Backup operations never wait, they follow their primary.
+     */
+    protected boolean waitsForPersistenceRestore() {
+        return !(this instanceof BackupOperation);
+    }
+
+    private void checkPersistenceRestored() {
+        MapPersistenceService persistenceService = mapServiceContext.getMapPersistenceService();
+        if (persistenceService != null && name != null
+                && waitsForPersistenceRestore() && persistenceService.isRestoring(name)) {
+            throw new RetryableHazelcastException("Map " + name
+                    + " is still restoring its data from the local persistence");
+        }
+    }
+
     protected void innerBeforeRun() throws Exception {
         if (recordStore != null) {
             recordStore.beforeOperation();
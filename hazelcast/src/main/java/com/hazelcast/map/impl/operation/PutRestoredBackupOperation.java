@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.operation;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.map.impl.MapDataSerializerHook;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.spi.impl.operationservice.BackupOperation;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import static com.hazelcast.map.impl.operation.PutRestoredOperation.putAbsent;
+import static com.hazelcast.map.impl.operation.PutRestoredOperation.readKeyValueSequence;
+import static com.hazelcast.map.impl.operation.PutRestoredOperation.writeKeyValueSequence;
+
+/**
+ * Runs on backups.
+ *
+ * @see PutRestoredOperation
+ */
+public class PutRestoredBackupOperation extends MapOperation implements BackupOperation {
+
+    private List<Data> keyValueSequence;
+
+    public PutRestoredBackupOperation() {
+        keyValueSequence = Collections.emptyList();
+    }
+
+    public PutRestoredBackupOperation(String name, List<Data> keyValueSequence) {
+        super(name);
+        this.keyValueSequence = keyValueSequence;
+    }
+
+    @Override
+    protected void runInternal() {
+        putAbsent(recordStore, keyValueSequence, false);
+    }
+
+    @Override
+    protected void afterRunInternal() {
+        evict(null);
+
+        super.afterRunInternal();
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        writeKeyValueSequence(out, keyValueSequence);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        keyValueSequence = readKeyValueSequence(in);
+    }
+
+    @Override
+    public int getClassId() {
+        return MapDataSerializerHook.PUT_RESTORED_BACKUP;
+    }
+}
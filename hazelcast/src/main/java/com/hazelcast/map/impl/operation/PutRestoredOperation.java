@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.operation;
+
+import com.hazelcast.internal.nio.IOUtil;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.util.Clock;
+import com.hazelcast.map.impl.MapDataSerializerHook;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.map.impl.recordstore.expiry.ExpiryMetadata;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.spi.impl.operationservice.BackupAwareOperation;
+import com.hazelcast.spi.impl.operationservice.MutatingOperation;
+import com.hazelcast.spi.impl.operationservice.Operation;
+import com.hazelcast.spi.impl.operationservice.PartitionAwareOperation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Puts the entries restored from the local persistence of a map. Only the
+ * keys that are not present are put and the entries are put like the
+ * replicated ones: no events are published, the {@code MapStore} and the
+ * interceptors are not called.
+ *
+ * @see com.hazelcast.map.impl.persistence.MapPersistenceService
+ */
+public class PutRestoredOperation extends MapOperation
+        implements PartitionAwareOperation, MutatingOperation, BackupAwareOperation {
+
+    private List<Data> keyValueSequence;
+
+    public PutRestoredOperation() {
+        keyValueSequence = Collections.emptyList();
+    }
+
+    public PutRestoredOperation(String name, List<Data> keyValueSequence) {
+        super(name);
+        this.keyValueSequence = keyValueSequence;
+    }
+
+    @Override
+    protected void runInternal() {
+        putAbsent(recordStore, keyValueSequence, true);
+    }
+
+    @Override
+    protected boolean waitsForPersistenceRestore() {
+        return false;
+    }
+
+    @Override
+    protected void afterRunInternal() {
+        evict(null);
+
+        super.afterRunInternal();
+    }
+
+    @Override
+    public Object getResponse() {
+        return true;
+    }
+
+    @Override
+    public boolean shouldBackup() {
+        return !keyValueSequence.isEmpty();
+    }
+
+    @Override
+    public int getAsyncBackupCount() {
+        return mapContainer.getAsyncBackupCount();
+    }
+
+    @Override
+    public int getSyncBackupCount() {
+        return mapContainer.getBackupCount();
+    }
+
+    @Override
+    public Operation getBackupOperation() {
+        return new PutRestoredBackupOperation(name, keyValueSequence);
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        writeKeyValueSequence(out, keyValueSequence);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        keyValueSequence = readKeyValueSequence(in);
+    }
+
+    @Override
+    public int getClassId() {
+        return MapDataSerializerHook.PUT_RESTORED;
+    }
+
+    static void putAbsent(RecordStore recordStore, List<Data> keyValueSequence, boolean populateIndexes) {
+        long now = Clock.currentTimeMillis();
+        for (int i = 0; i < keyValueSequence.size(); i += 2) {
+            Data key = keyValueSequence.get(i);
+            if (recordStore.getRecord(key) != null) {
+                // written after the restart, newer than the persisted value
+                continue;
+            }
+            Record record = recordStore.createRecord(key, keyValueSequence.get(i + 1), now);
+            recordStore.putOrUpdateReplicatedRecord(key, record, ExpiryMetadata.NULL, populateIndexes, now);
+        }
+    }
+
+    static void writeKeyValueSequence(ObjectDataOutput out, List<Data> keyValueSequence) throws IOException {
+        out.writeInt(keyValueSequence.size());
+        for (Data data : keyValueSequence) {
+            IOUtil.writeData(out, data);
+        }
+    }
+
+    static List<Data> readKeyValueSequence(ObjectDataInput in) throws IOException {
+        int size = in.readInt();
+        List<Data> keyValueSequence = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            keyValueSequence.add(IOUtil.readData(in));
+        }
+        return keyValueSequence;
+    }
+}
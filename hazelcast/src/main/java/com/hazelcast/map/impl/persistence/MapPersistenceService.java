@@ -0,0 +1,579 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.persistence;
+
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.PersistenceConfig;
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.core.LifecycleEvent;
+import com.hazelcast.core.LifecycleListener;
+import com.hazelcast.core.LifecycleService;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.util.DirectoryLock;
+import com.hazelcast.internal.util.UuidUtil;
+import com.hazelcast.internal.util.collection.Object2LongHashMap;
+import com.hazelcast.internal.util.executor.ExecutorType;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.operation.PutRestoredOperation;
+import com.hazelcast.spi.impl.NodeEngine;
+import com.hazelcast.spi.impl.PartitionSpecificRunnable;
+import com.hazelcast.spi.impl.executionservice.ExecutionService;
+import com.hazelcast.spi.impl.operationservice.OperationService;
+import com.hazelcast.spi.properties.ClusterProperty;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.hazelcast.internal.nio.IOUtil.delete;
+import static com.hazelcast.internal.util.DirectoryLock.lockForDirectory;
+import static com.hazelcast.internal.util.EmptyStatement.ignore;
+import static com.hazelcast.internal.util.ExceptionUtil.rethrow;
+import static com.hazelcast.spi.impl.executionservice.ExecutionService.IO_EXECUTOR;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Local persistence of the maps which have {@link MapConfig#getDataPersistenceConfig()
+ * data persistence} enabled, active when {@link PersistenceConfig persistence}
+ * is enabled on the member and {@link ClusterProperty#MAP_LOCAL_PERSISTENCE_ENABLED}
+ * is set. Without the property, persistence remains an Enterprise feature.
+ * <p>
+ * Members may share the base directory. Each member locks a directory of its
+ * own under {@code <base-dir>/maps} and records its address in it, a
+ * restarted member continues with the directory recorded for its address.
+ * The member fails to start if that directory is locked by another process.
+ * <p>
+ * Every partition replica of a persistent map held by this member writes its
+ * mutations to its own {@link PartitionLog} in the member directory.
+ * A periodic task makes the logs durable (unless they are fsync-ed on every
+ * mutation) and schedules the compaction of the logs with too much garbage.
+ * The live records are copied on an I/O thread, only the switch to the
+ * compacted log runs on the partition thread.
+ * <p>
+ * When the member starts, the logs of the previous run are moved aside and,
+ * once the member has started, replayed in the background with one thread
+ * per partition thread stripe. If a restore fails, its logs are kept and
+ * restored again on the next start, followed by the logs written since, so
+ * that the newer log wins for each key. The partition table is not
+ * persisted, so the restored entries are put to their current owners with a
+ * {@link PutRestoredOperation}: it puts only the keys which are not present,
+ * does not publish events and does not write to a {@code MapStore}. Until the
+ * restore is over, the other operations of the restored maps which run on
+ * this member are retried. The owners log the restored entries again, so
+ * the logs of the previous run are deleted once they are restored. Since
+ * every replica is logged, the data survives the loss of the disks of fewer
+ * members than the backup count plus one.
+ */
+public class MapPersistenceService implements LifecycleListener {
+
+    static final String MAPS_DIR = "maps";
+    static final String ADDRESS_FILE = "address";
+    static final String LOGS_DIR = "logs";
+    static final String RESTORING_DIR = "restoring";
+    static final String LOG_FILE_SUFFIX = ".log";
+
+    private static final String RESTORE_EXECUTOR = "hz:map-persistence-restore";
+    private static final int FLUSH_PERIOD_SECONDS = 1;
+    private static final int RESTORE_BATCH_SIZE = 1000;
+
+    private final NodeEngine nodeEngine;
+    private final ILogger logger;
+    private final DirectoryLock dirLock;
+    private final File dir;
+    private final File restoreDir;
+    private final int dataLoadTimeoutSeconds;
+    private final ConcurrentMap<String, AtomicReferenceArray<PartitionLog>> logs = new ConcurrentHashMap<>();
+    private final Set<String> restoringMaps = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean restoreFinished = new AtomicBoolean();
+    private final LifecycleService lifecycleService;
+    private final UUID lifecycleListenerId;
+    private final ScheduledFuture<?> flushTask;
+
+    private volatile boolean shutdown;
+
+    public MapPersistenceService(MapServiceContext mapServiceContext) {
+        this.nodeEngine = mapServiceContext.getNodeEngine();
+        this.logger = nodeEngine.getLogger(getClass());
+        PersistenceConfig persistenceConfig = nodeEngine.getConfig().getPersistenceConfig();
+        File baseDir = persistenceConfig.getBaseDir().getAbsoluteFile();
+        this.dirLock = lockMemberDir(new File(baseDir, MAPS_DIR));
+        this.dir = new File(dirLock.getDir(), LOGS_DIR);
+        this.restoreDir = new File(dirLock.getDir(), RESTORING_DIR);
+        this.dataLoadTimeoutSeconds = persistenceConfig.getDataLoadTimeoutSeconds();
+        try {
+            prepareRestore();
+        } catch (RuntimeException e) {
+            dirLock.release();
+            throw e;
+        }
+        logger.info("Using " + dirLock.getDir() + " for map persistence");
+
+        this.flushTask = nodeEngine.getExecutionService().getGlobalTaskScheduler()
+                .scheduleWithRepetition(this::flushAndCompact, FLUSH_PERIOD_SECONDS, FLUSH_PERIOD_SECONDS, SECONDS);
+        this.lifecycleService = nodeEngine.getHazelcastInstance().getLifecycleService();
+        this.lifecycleListenerId = lifecycleService.addLifecycleListener(this);
+    }
+
+    /**
+     * Locks the directory recorded for the address of this member, or a new
+     * one if there is none. Fails if the directory is already locked.
+     */
+    private DirectoryLock lockMemberDir(File mapsDir) {
+        String address = nodeEngine.getThisAddress().toString();
+        File[] memberDirs = mapsDir.listFiles(File::isDirectory);
+        if (memberDirs != null) {
+            for (File memberDir : memberDirs) {
+                File addressFile = new File(memberDir, ADDRESS_FILE);
+                try {
+                    if (addressFile.isFile() && address.equals(new String(Files.readAllBytes(addressFile.toPath()), UTF_8))) {
+                        return lockForDirectory(memberDir, logger);
+                    }
+                } catch (IOException e) {
+                    // written by a member which crashed before it started
+                    ignore(e);
+                }
+            }
+        }
+        File memberDir = new File(mapsDir, UuidUtil.newUnsecureUuidString());
+        if (!memberDir.mkdirs()) {
+            throw new HazelcastException("Could not create " + memberDir);
+        }
+        DirectoryLock lock = lockForDirectory(memberDir, logger);
+        try {
+            File tmpFile = new File(memberDir, ADDRESS_FILE + ".tmp");
+            Files.write(tmpFile.toPath(), address.getBytes(UTF_8));
+            Files.move(tmpFile.toPath(), new File(memberDir, ADDRESS_FILE).toPath(), ATOMIC_MOVE);
+        } catch (IOException e) {
+            lock.release();
+            throw new HazelcastException("Could not write the address of the member to " + memberDir, e);
+        }
+        return lock;
+    }
+
+    /**
+     * Returns {@code true} if the data of the given map should be persisted.
+     */
+    public static boolean isPersistent(MapConfig mapConfig) {
+        return mapConfig.getDataPersistenceConfig().isEnabled();
+    }
+
+    /**
+     * Returns {@code true} if the data of the given map persisted by the
+     * previous run of this member is not restored yet.
+     */
+    public boolean isRestoring(String mapName) {
+        return restoringMaps.contains(mapName);
+    }
+
+    /**
+     * Creates the log of the given map partition replica, discarding the
+     * previous contents if any. Returns {@code null} if the service is
+     * already shut down.
+     */
+    public PartitionLog createLog(String mapName, int partitionId, boolean fsync) {
+        if (shutdown) {
+            return null;
+        }
+        AtomicReferenceArray<PartitionLog> mapLogs = logs.computeIfAbsent(mapName, name -> {
+            File mapDir = new File(dir, encode(name));
+            if (!mapDir.isDirectory() && !mapDir.mkdirs()) {
+                throw new HazelcastException("Could not create " + mapDir);
+            }
+            return new AtomicReferenceArray<>(nodeEngine.getPartitionService().getPartitionCount());
+        });
+        try {
+            PartitionLog log = new PartitionLog(logFile(mapName, partitionId), partitionId, fsync);
+            PartitionLog previous = mapLogs.getAndSet(partitionId, log);
+            if (previous != null) {
+                previous.close();
+            }
+            return log;
+        } catch (IOException e) {
+            throw new HazelcastException("Could not create the log of partition " + partitionId + " of map " + mapName, e);
+        }
+    }
+
+    /**
+     * Deletes the log of the given map partition replica.
+     */
+    public void deleteLog(String mapName, PartitionLog log) {
+        AtomicReferenceArray<PartitionLog> mapLogs = logs.get(mapName);
+        if (mapLogs != null) {
+            mapLogs.compareAndSet(log.getPartitionId(), log, null);
+        }
+        try {
+            log.delete();
+        } catch (IOException e) {
+            throw new HazelcastException("Could not delete " + log, e);
+        }
+    }
+
+    @Override
+    public void stateChanged(LifecycleEvent event) {
+        switch (event.getState()) {
+            case STARTED:
+                startRestore();
+                break;
+            case SHUTTING_DOWN:
+                shutdown();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Closes all logs, so that the mutations made while the member shuts
+     * down (the partitions are cleared) are not persisted, and releases the
+     * member directory.
+     */
+    public void shutdown() {
+        if (shutdown) {
+            return;
+        }
+        shutdown = true;
+        flushTask.cancel(false);
+        lifecycleService.removeLifecycleListener(lifecycleListenerId);
+        for (AtomicReferenceArray<PartitionLog> mapLogs : logs.values()) {
+            for (int i = 0; i < mapLogs.length(); i++) {
+                PartitionLog log = mapLogs.get(i);
+                if (log == null) {
+                    continue;
+                }
+                try {
+                    log.flush();
+                    log.close();
+                } catch (IOException e) {
+                    logger.warning("Could not close " + log, e);
+                }
+            }
+        }
+        dirLock.release();
+    }
+
+    private void flushAndCompact() {
+        OperationService operationService = nodeEngine.getOperationService();
+        for (Map.Entry<String, AtomicReferenceArray<PartitionLog>> entry : logs.entrySet()) {
+            AtomicReferenceArray<PartitionLog> mapLogs = entry.getValue();
+            for (int i = 0; i < mapLogs.length(); i++) {
+                PartitionLog log = mapLogs.get(i);
+                if (log == null) {
+                    continue;
+                }
+                try {
+                    log.flush();
+                } catch (IOException e) {
+                    logger.warning("Could not flush " + log, e);
+                }
+                if (log.tryScheduleCompaction()) {
+                    operationService.execute(new CompactionTask(log));
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the logs of the previous run aside, as the newest generation of
+     * logs to restore. The generations left by a restore which failed are
+     * kept, they are restored before the newer ones.
+     */
+    private void prepareRestore() {
+        File[] generationDirs = restoreGenerations();
+        if (dir.exists()) {
+            File generationDir = new File(restoreDir, String.valueOf(generationDirs.length));
+            if (!restoreDir.isDirectory() && !restoreDir.mkdirs()) {
+                throw new HazelcastException("Could not create " + restoreDir);
+            }
+            if (!dir.renameTo(generationDir)) {
+                throw new HazelcastException("Could not move " + dir + " to " + generationDir);
+            }
+            generationDirs = restoreGenerations();
+        }
+        for (File generationDir : generationDirs) {
+            File[] mapDirs = generationDir.listFiles(File::isDirectory);
+            if (mapDirs != null) {
+                for (File mapDir : mapDirs) {
+                    restoringMaps.add(decode(mapDir.getName()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the directories of the generations of logs to restore, from
+     * the oldest to the newest.
+     */
+    private File[] restoreGenerations() {
+        File[] generationDirs = restoreDir.listFiles(File::isDirectory);
+        if (generationDirs == null) {
+            return new File[0];
+        }
+        Arrays.sort(generationDirs, Comparator.comparingInt(generationDir -> Integer.parseInt(generationDir.getName())));
+        return generationDirs;
+    }
+
+    /**
+     * Starts the restore of the persisted data on the restore threads, the
+     * lifecycle thread doesn't wait for it.
+     */
+    private void startRestore() {
+        if (restoringMaps.isEmpty()) {
+            delete(restoreDir);
+            return;
+        }
+
+        long start = System.nanoTime();
+        File[] generationDirs = restoreGenerations();
+        List<String> mapNames = new ArrayList<>(restoringMaps);
+        ExecutionService executionService = nodeEngine.getExecutionService();
+        int stripeCount = nodeEngine.getOperationService().getPartitionThreadCount();
+        executionService.register(RESTORE_EXECUTOR, stripeCount, stripeCount, ExecutorType.CONCRETE);
+        ScheduledFuture<?> timeout = executionService.schedule(() -> finishRestore(start, mapNames.size(),
+                new TimeoutException("Restore did not finish in " + dataLoadTimeoutSeconds + " seconds")),
+                dataLoadTimeoutSeconds, SECONDS);
+        AtomicInteger remainingStripes = new AtomicInteger(stripeCount);
+        for (int stripe = 0; stripe < stripeCount; stripe++) {
+            int stripeIndex = stripe;
+            executionService.execute(RESTORE_EXECUTOR, () -> {
+                try {
+                    if (restoreStripe(generationDirs, mapNames, stripeIndex, stripeCount)
+                            && remainingStripes.decrementAndGet() == 0) {
+                        timeout.cancel(false);
+                        finishRestore(start, mapNames.size(), null);
+                    }
+                } catch (Throwable t) {
+                    finishRestore(start, mapNames.size(), t);
+                }
+            });
+        }
+    }
+
+    /**
+     * Ends the restore, the first call wins. The restored logs are deleted
+     * only if the restore succeeded.
+     */
+    private void finishRestore(long start, int mapCount, Throwable failure) {
+        if (!restoreFinished.compareAndSet(false, true)) {
+            return;
+        }
+        nodeEngine.getExecutionService().shutdownExecutor(RESTORE_EXECUTOR);
+        restoringMaps.clear();
+        if (failure != null) {
+            if (!shutdown) {
+                logger.severe("Restoring the persisted map data from " + restoreDir + " failed, it will be restored"
+                        + " again on the next start", failure);
+            }
+            return;
+        }
+        delete(restoreDir);
+        logger.info("Restored the persisted map data of " + mapCount + " maps in "
+                + NANOSECONDS.toSeconds(System.nanoTime() - start) + " seconds");
+    }
+
+    /**
+     * Restores the partitions handled by the given partition thread stripe.
+     * Returns {@code false} if the restore was interrupted by the end of the
+     * restore or the shutdown of the member.
+     */
+    private boolean restoreStripe(File[] generationDirs, List<String> mapNames, int stripe, int stripeCount) {
+        int partitionCount = nodeEngine.getPartitionService().getPartitionCount();
+        for (int partitionId = stripe; partitionId < partitionCount; partitionId += stripeCount) {
+            for (String mapName : mapNames) {
+                if (restoreFinished.get() || shutdown) {
+                    return false;
+                }
+                List<File> files = new ArrayList<>(generationDirs.length);
+                for (File generationDir : generationDirs) {
+                    File file = new File(new File(generationDir, encode(mapName)), partitionId + LOG_FILE_SUFFIX);
+                    if (file.exists()) {
+                        files.add(file);
+                    }
+                }
+                if (!files.isEmpty()) {
+                    restorePartition(mapName, partitionId, files);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Restores a map partition from its logs, from the oldest to the newest.
+     * Reads the logs twice, like a {@link PartitionLog.Compaction}: to find
+     * the last record of each key, and to stream the live records to the
+     * record store in batches. Only the keys are kept on the heap.
+     */
+    private void restorePartition(String mapName, int partitionId, List<File> files) {
+        // the records are identified by their offset in the concatenation of the logs
+        Object2LongHashMap<Data> liveOffsets = new Object2LongHashMap<>(-1);
+        List<Data> keyValueSequence = new ArrayList<>(2 * RESTORE_BATCH_SIZE);
+        try {
+            long fileStart = 0;
+            for (File file : files) {
+                long start = fileStart;
+                PartitionLog.replay(file, (offset, key, value) -> {
+                    if (value != null) {
+                        liveOffsets.put(key, start + offset);
+                    } else {
+                        liveOffsets.removeKey(key);
+                    }
+                });
+                fileStart += file.length();
+            }
+
+            fileStart = 0;
+            for (File file : files) {
+                long start = fileStart;
+                PartitionLog.replay(file, (offset, key, value) -> {
+                    if (value != null && liveOffsets.getValue(key) == start + offset) {
+                        keyValueSequence.add(key);
+                        keyValueSequence.add(value);
+                        if (keyValueSequence.size() == 2 * RESTORE_BATCH_SIZE) {
+                            putRestored(mapName, partitionId, keyValueSequence);
+                        }
+                    }
+                });
+                fileStart += file.length();
+            }
+        } catch (IOException e) {
+            throw rethrow(e);
+        }
+        if (!keyValueSequence.isEmpty()) {
+            putRestored(mapName, partitionId, keyValueSequence);
+        }
+    }
+
+    /**
+     * Puts the given batch of restored entries and clears it.
+     */
+    private void putRestored(String mapName, int partitionId, List<Data> keyValueSequence) {
+        PutRestoredOperation op = new PutRestoredOperation(mapName, new ArrayList<>(keyValueSequence));
+        keyValueSequence.clear();
+        nodeEngine.getOperationService()
+                .invokeOnPartition(MapService.SERVICE_NAME, op, partitionId)
+                .joinInternal();
+    }
+
+    private File logFile(String mapName, int partitionId) {
+        return new File(new File(dir, encode(mapName)), partitionId + LOG_FILE_SUFFIX);
+    }
+
+    private static String encode(String mapName) {
+        try {
+            return URLEncoder.encode(mapName, UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw rethrow(e);
+        }
+    }
+
+    private static String decode(String dirName) {
+        try {
+            return URLDecoder.decode(dirName, UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw rethrow(e);
+        }
+    }
+
+    /**
+     * Starts the compaction of a log on its partition thread and copies its
+     * live records on an I/O thread.
+     */
+    private final class CompactionTask implements PartitionSpecificRunnable {
+
+        private final PartitionLog log;
+
+        CompactionTask(PartitionLog log) {
+            this.log = log;
+        }
+
+        @Override
+        public int getPartitionId() {
+            return log.getPartitionId();
+        }
+
+        @Override
+        public void run() {
+            PartitionLog.Compaction compaction = log.startCompaction();
+            if (compaction != null) {
+                nodeEngine.getExecutionService().execute(IO_EXECUTOR, () -> copyLiveRecords(compaction));
+            }
+        }
+
+        private void copyLiveRecords(PartitionLog.Compaction compaction) {
+            try {
+                compaction.copyLiveRecords();
+            } catch (IOException e) {
+                compaction.discard();
+                if (!log.isClosed()) {
+                    logger.warning("Could not compact " + log, e);
+                }
+                return;
+            }
+            nodeEngine.getOperationService().execute(new FinishCompactionTask(log, compaction));
+        }
+    }
+
+    /**
+     * Replaces a log with its compacted copy on its partition thread.
+     */
+    private final class FinishCompactionTask implements PartitionSpecificRunnable {
+
+        private final PartitionLog log;
+        private final PartitionLog.Compaction compaction;
+
+        FinishCompactionTask(PartitionLog log, PartitionLog.Compaction compaction) {
+            this.log = log;
+            this.compaction = compaction;
+        }
+
+        @Override
+        public int getPartitionId() {
+            return log.getPartitionId();
+        }
+
+        @Override
+        public void run() {
+            try {
+                log.finishCompaction(compaction);
+            } catch (IOException e) {
+                logger.warning("Could not compact " + log, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,464 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.persistence;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.internal.util.collection.Object2LongHashMap;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+import static com.hazelcast.internal.nio.IOUtil.closeResource;
+import static com.hazelcast.internal.nio.IOUtil.deleteQuietly;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Append-only log of the mutations of a single map partition.
+ * <p>
+ * A put appends the key and the new value, a remove appends the key only.
+ * The log keeps the offset of the latest put of each live key, so it knows
+ * how many of its records are garbage. Once the majority of the records are
+ * garbage, a {@link Compaction} rewrites the log with the live records only.
+ * The live records are copied on an I/O thread, the partition thread only
+ * copies the records appended meanwhile and switches to the new file.
+ * Clearing the partition truncates the log.
+ * <p>
+ * A record is the length and the CRC32 of its payload followed by the
+ * payload. Replaying stops at the first incomplete or corrupted record,
+ * which is the trace of a write interrupted by a crash.
+ * <p>
+ * Mutations, {@link #startCompaction()} and {@link #finishCompaction} must be
+ * called from the partition thread owning the partition. {@link #flush()}
+ * and {@link #close()} can be called from any thread. The mutations made
+ * after the log is closed are ignored.
+ */
+public class PartitionLog {
+
+    static final byte PUT = 1;
+    static final byte REMOVE = 2;
+
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int PAYLOAD_HEADER_SIZE = Byte.BYTES + Integer.BYTES;
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+    private static final int MIN_RECORD_COUNT_TO_COMPACT = 1024;
+    private static final String COMPACTION_FILE_SUFFIX = ".compacting";
+
+    private final File file;
+    private final int partitionId;
+    private final boolean fsync;
+    private final RecordWriter writer = new RecordWriter();
+    // mutations and flushes share the channel, closing and replacing it is exclusive
+    private final ReadWriteLock channelLock = new ReentrantReadWriteLock();
+
+    private Object2LongHashMap<Data> keyToOffset = new Object2LongHashMap<>(-1);
+    private FileChannel channel;
+    private long size;
+    private long recordCount;
+    private int clearCount;
+    private volatile boolean dirty;
+    private volatile boolean compactionScheduled;
+    private volatile boolean closed;
+
+    /**
+     * Creates an empty log, the existing contents of the file are discarded.
+     *
+     * @param fsync if the log should be made durable after each mutation
+     */
+    public PartitionLog(File file, int partitionId, boolean fsync) throws IOException {
+        this.file = file;
+        this.partitionId = partitionId;
+        this.fsync = fsync;
+        this.channel = FileChannel.open(file.toPath(), CREATE, READ, WRITE, TRUNCATE_EXISTING);
+    }
+
+    public int getPartitionId() {
+        return partitionId;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public void put(Data key, Data value) throws IOException {
+        channelLock.readLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            keyToOffset.put(key, size);
+            size += writer.write(channel, PUT, key, value);
+            recordCount++;
+            afterMutation();
+        } finally {
+            channelLock.readLock().unlock();
+        }
+    }
+
+    public void remove(Data key) throws IOException {
+        channelLock.readLock().lock();
+        try {
+            if (closed || keyToOffset.removeKey(key) == keyToOffset.missingValue()) {
+                return;
+            }
+            size += writer.write(channel, REMOVE, key, null);
+            recordCount++;
+            afterMutation();
+        } finally {
+            channelLock.readLock().unlock();
+        }
+    }
+
+    public void clear() throws IOException {
+        channelLock.readLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            channel.truncate(0);
+            channel.position(0);
+            keyToOffset.clear();
+            size = 0;
+            recordCount = 0;
+            clearCount++;
+            dirty = true;
+        } finally {
+            channelLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Makes the mutations appended since the previous flush durable.
+     */
+    public void flush() throws IOException {
+        channelLock.readLock().lock();
+        try {
+            if (dirty && !closed) {
+                // cleared before forcing, so that a mutation made meanwhile marks the log dirty again
+                dirty = false;
+                try {
+                    channel.force(false);
+                } catch (IOException e) {
+                    dirty = true;
+                    throw e;
+                }
+            }
+        } finally {
+            channelLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns {@code true} if most of the records are garbage and a
+     * compaction hasn't been scheduled yet. In that case the compaction is
+     * marked as scheduled.
+     */
+    public boolean tryScheduleCompaction() {
+        long garbage = recordCount - keyToOffset.size();
+        if (compactionScheduled || closed || recordCount < MIN_RECORD_COUNT_TO_COMPACT || garbage * 2 < recordCount) {
+            return false;
+        }
+        compactionScheduled = true;
+        return true;
+    }
+
+    /**
+     * Starts the compaction of the records appended so far. The returned
+     * compaction copies them with {@link Compaction#copyLiveRecords()},
+     * which can be called from any thread, and is then passed to {@link
+     * #finishCompaction}. Returns {@code null} if the log is closed.
+     */
+    public Compaction startCompaction() {
+        if (closed) {
+            compactionScheduled = false;
+            return null;
+        }
+        return new Compaction(size, clearCount);
+    }
+
+    /**
+     * Appends the records written since the compaction started to the
+     * compacted file and replaces the log with it. The compaction is
+     * discarded if the log was cleared or closed meanwhile.
+     *
+     * @return {@code true} if the log was replaced by the compacted file
+     */
+    public boolean finishCompaction(Compaction compaction) throws IOException {
+        compactionScheduled = false;
+        if (closed || compaction.clearCount != clearCount) {
+            compaction.discard();
+            return false;
+        }
+        long tailLength = size - compaction.size;
+        long[] tailRecordCount = new long[1];
+        try {
+            long position = compaction.size;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, compaction.channel);
+            }
+            try (FileChannel tailChannel = FileChannel.open(file.toPath(), READ)) {
+                tailChannel.position(compaction.size);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(tailChannel)));
+                replay(in, tailLength, (offset, key, value) -> {
+                    if (value != null) {
+                        compaction.keyToOffset.put(key, compaction.compactedSize + offset);
+                    } else {
+                        compaction.keyToOffset.removeKey(key);
+                    }
+                    tailRecordCount[0]++;
+                });
+            }
+            compaction.channel.force(false);
+        } catch (IOException e) {
+            compaction.discard();
+            throw e;
+        }
+        channelLock.writeLock().lock();
+        try {
+            if (closed) {
+                compaction.discard();
+                return false;
+            }
+            channel.close();
+            channel = compaction.channel;
+            Files.move(compaction.file.toPath(), file.toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+        } finally {
+            channelLock.writeLock().unlock();
+        }
+        keyToOffset = compaction.keyToOffset;
+        size = compaction.compactedSize + tailLength;
+        recordCount = compaction.keyCount + tailRecordCount[0];
+        return true;
+    }
+
+    /**
+     * Closes the log, waiting for the mutation or the flush in progress.
+     */
+    public void close() throws IOException {
+        channelLock.writeLock().lock();
+        try {
+            if (!closed) {
+                closed = true;
+                channel.close();
+            }
+        } finally {
+            channelLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Closes the log and deletes its file.
+     */
+    public void delete() throws IOException {
+        channelLock.writeLock().lock();
+        try {
+            close();
+            Files.deleteIfExists(file.toPath());
+        } finally {
+            channelLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the log in the given file and calls the consumer with the key
+     * and the value of each record, the value is {@code null} for removals.
+     */
+    public static void replay(File file, BiConsumer<Data, Data> consumer) throws IOException {
+        replay(file, (offset, key, value) -> consumer.accept(key, value));
+    }
+
+    /**
+     * Reads the log in the given file and calls the consumer with the offset,
+     * the key and the value of each record.
+     */
+    static void replay(File file, RecordConsumer consumer) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            replay(in, file.length(), consumer);
+        }
+    }
+
+    /**
+     * Replays the given number of bytes of records, the offsets passed to the
+     * consumer are relative to the start of the stream.
+     */
+    private static void replay(DataInputStream in, long length, RecordConsumer consumer) throws IOException {
+        CRC32 crc = new CRC32();
+        long offset = 0;
+        while (length - offset >= RECORD_HEADER_SIZE + PAYLOAD_HEADER_SIZE) {
+            int payloadLength = in.readInt();
+            int checksum = in.readInt();
+            if (payloadLength < PAYLOAD_HEADER_SIZE || payloadLength > length - offset - RECORD_HEADER_SIZE) {
+                return;
+            }
+            byte[] payload = new byte[payloadLength];
+            try {
+                in.readFully(payload);
+            } catch (EOFException e) {
+                return;
+            }
+            crc.reset();
+            crc.update(payload, 0, payloadLength);
+            if ((int) crc.getValue() != checksum) {
+                return;
+            }
+            ByteBuffer record = ByteBuffer.wrap(payload);
+            byte type = record.get();
+            byte[] key = new byte[record.getInt()];
+            record.get(key);
+            byte[] value = type == PUT ? new byte[record.remaining()] : null;
+            if (value != null) {
+                record.get(value);
+            }
+            consumer.accept(offset, new HeapData(key), value != null ? new HeapData(value) : null);
+            offset += RECORD_HEADER_SIZE + payloadLength;
+        }
+    }
+
+    private void afterMutation() throws IOException {
+        if (fsync) {
+            channel.force(false);
+        } else {
+            dirty = true;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PartitionLog{file=" + file + ", records=" + recordCount + ", liveRecords=" + keyToOffset.size() + '}';
+    }
+
+    /**
+     * Copy of the live records of the log, made without blocking the
+     * partition thread.
+     */
+    public final class Compaction {
+
+        private final long size;
+        private final int clearCount;
+        private final File file = new File(PartitionLog.this.file.getPath() + COMPACTION_FILE_SUFFIX);
+        private final Object2LongHashMap<Data> keyToOffset = new Object2LongHashMap<>(-1);
+        private FileChannel channel;
+        private long compactedSize;
+        private long keyCount;
+
+        private Compaction(long size, int clearCount) {
+            this.size = size;
+            this.clearCount = clearCount;
+        }
+
+        /**
+         * Copies the latest record of each key live at the start of the
+         * compaction to a new file. Reads the log twice: to find the latest
+         * records, and to copy them.
+         */
+        public void copyLiveRecords() throws IOException {
+            Object2LongHashMap<Data> liveOffsets = new Object2LongHashMap<>(-1);
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(
+                    PartitionLog.this.file.toPath())))) {
+                replay(in, size, (offset, key, value) -> {
+                    if (value != null) {
+                        liveOffsets.put(key, offset);
+                    } else {
+                        liveOffsets.removeKey(key);
+                    }
+                });
+            }
+
+            RecordWriter compactionWriter = new RecordWriter();
+            channel = FileChannel.open(file.toPath(), CREATE, READ, WRITE, TRUNCATE_EXISTING);
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(
+                    PartitionLog.this.file.toPath())))) {
+                replay(in, size, (offset, key, value) -> {
+                    if (value != null && liveOffsets.getValue(key) == offset) {
+                        keyToOffset.put(key, compactedSize);
+                        compactedSize += compactionWriter.write(channel, PUT, key, value);
+                        keyCount++;
+                    }
+                });
+                channel.force(false);
+            } catch (IOException e) {
+                discard();
+                throw e;
+            }
+        }
+
+        /**
+         * Deletes the compacted file, the log is left as it is.
+         */
+        public void discard() {
+            compactionScheduled = false;
+            closeResource(channel);
+            deleteQuietly(file);
+        }
+    }
+
+    /**
+     * Encodes records, one instance per writing thread.
+     */
+    private static final class RecordWriter {
+
+        private final CRC32 crc = new CRC32();
+        private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+        /**
+         * Appends a record to the channel and returns its length.
+         */
+        long write(FileChannel channel, byte type, Data key, Data value) throws IOException {
+            byte[] keyBytes = key.toByteArray();
+            byte[] valueBytes = value != null ? value.toByteArray() : null;
+            int payloadLength = PAYLOAD_HEADER_SIZE + keyBytes.length + (valueBytes != null ? valueBytes.length : 0);
+            if (buffer.capacity() < RECORD_HEADER_SIZE + payloadLength) {
+                buffer = ByteBuffer.allocate(Math.max(RECORD_HEADER_SIZE + payloadLength, buffer.capacity() * 2));
+            }
+
+            buffer.clear();
+            buffer.putInt(payloadLength).putInt(0).put(type).putInt(keyBytes.length).put(keyBytes);
+            if (valueBytes != null) {
+                buffer.put(valueBytes);
+            }
+            crc.reset();
+            crc.update(buffer.array(), RECORD_HEADER_SIZE, payloadLength);
+            buffer.putInt(Integer.BYTES, (int) crc.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            return RECORD_HEADER_SIZE + payloadLength;
+        }
+    }
+
+    @FunctionalInterface
+    interface RecordConsumer {
+        void accept(long offset, Data key, Data value) throws IOException;
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.record;
+
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.serialization.Data;
+
+import static com.hazelcast.internal.memory.MemoryAllocator.NULL_ADDRESS;
+import static com.hazelcast.internal.util.TimeStripUtil.recomputeWithBaseTime;
+import static com.hazelcast.internal.util.TimeStripUtil.stripBaseTime;
+import static com.hazelcast.map.impl.record.NativeRecordAllocator.CREATION_TIME_OFFSET;
+import static com.hazelcast.map.impl.record.NativeRecordAllocator.HITS_OFFSET;
+import static com.hazelcast.map.impl.record.NativeRecordAllocator.KEY_HASH_OFFSET;
+import static com.hazelcast.map.impl.record.NativeRecordAllocator.KEY_OFFSET;
+import static com.hazelcast.map.impl.record.NativeRecordAllocator.KEY_SIZE_OFFSET;
+import static com.hazelcast.map.impl.record.NativeRecordAllocator.LAST_ACCESS_TIME_OFFSET;
+import static com.hazelcast.map.impl.record.NativeRecordAllocator.LAST_STORED_TIME_OFFSET;
+import static com.hazelcast.map.impl.record.NativeRecordAllocator.LAST_UPDATE_TIME_OFFSET;
+import static com.hazelcast.map.impl.record.NativeRecordAllocator.NEXT_OFFSET;
+import static com.hazelcast.map.impl.record.NativeRecordAllocator.VALUE_ADDRESS_OFFSET;
+import static com.hazelcast.map.impl.record.NativeRecordAllocator.VALUE_SIZE_OFFSET;
+import static com.hazelcast.map.impl.record.NativeRecordAllocator.VERSION_OFFSET;
+import static com.hazelcast.map.impl.record.RecordReaderWriter.DATA_RECORD_WITH_STATS_READER_WRITER;
+
+/**
+ * Flyweight {@link Record} over a record block allocated by a {@link
+ * NativeRecordAllocator}. All the state lives in native memory, the
+ * flyweight itself only holds the address of the block.
+ * <p>
+ * {@link #getValue()} always returns an on-heap copy of the value, so the
+ * value can safely outlive the record, e.g. when it is sent in a response.
+ */
+@SuppressWarnings("checkstyle:methodcount")
+public final class NativeRecord implements Record<Data> {
+
+    private final NativeRecordAllocator allocator;
+    private final MemoryAccessor mem;
+    private final long address;
+
+    NativeRecord(NativeRecordAllocator allocator, long address) {
+        assert address != NULL_ADDRESS;
+        this.allocator = allocator;
+        this.mem = allocator.getAccessor();
+        this.address = address;
+    }
+
+    public long address() {
+        return address;
+    }
+
+    public long getKeyHash() {
+        return mem.getLong(address + KEY_HASH_OFFSET);
+    }
+
+    /**
+     * @return an on-heap copy of the key of this record
+     */
+    public Data getKey() {
+        return allocator.readData(address + KEY_OFFSET, mem.getInt(address + KEY_SIZE_OFFSET));
+    }
+
+    public boolean keyEquals(Data key) {
+        return getKeyHash() == key.hash64() && allocator.keyEquals(address, key);
+    }
+
+    /**
+     * @return the address of the next record in the collision chain of
+     * the storage, {@code NULL_ADDRESS} if this is the last one
+     */
+    public long getNext() {
+        return mem.getLong(address + NEXT_OFFSET);
+    }
+
+    public void setNext(long next) {
+        mem.putLong(address + NEXT_OFFSET, next);
+    }
+
+    @Override
+    public Data getValue() {
+        long valueAddress = mem.getLong(address + VALUE_ADDRESS_OFFSET);
+        if (valueAddress == NULL_ADDRESS) {
+            return null;
+        }
+        return allocator.readData(valueAddress, mem.getInt(address + VALUE_SIZE_OFFSET));
+    }
+
+    @Override
+    public void setValue(Data value) {
+        allocator.setValue(address, value);
+    }
+
+    @Override
+    public long getCost() {
+        return allocator.recordSize(address) + mem.getInt(address + VALUE_SIZE_OFFSET);
+    }
+
+    @Override
+    public int getVersion() {
+        return mem.getInt(address + VERSION_OFFSET);
+    }
+
+    @Override
+    public void setVersion(int version) {
+        mem.putInt(address + VERSION_OFFSET, version);
+    }
+
+    @Override
+    public long getLastAccessTime() {
+        return recomputeWithBaseTime(getRawLastAccessTime());
+    }
+
+    @Override
+    public void setLastAccessTime(long lastAccessTime) {
+        setRawLastAccessTime(stripBaseTime(lastAccessTime));
+    }
+
+    @Override
+    public long getLastUpdateTime() {
+        return recomputeWithBaseTime(getRawLastUpdateTime());
+    }
+
+    @Override
+    public void setLastUpdateTime(long lastUpdateTime) {
+        setRawLastUpdateTime(stripBaseTime(lastUpdateTime));
+    }
+
+    @Override
+    public long getCreationTime() {
+        return recomputeWithBaseTime(getRawCreationTime());
+    }
+
+    @Override
+    public void setCreationTime(long creationTime) {
+        setRawCreationTime(stripBaseTime(creationTime));
+    }
+
+    @Override
+    public long getLastStoredTime() {
+        int lastStoredTime = getRawLastStoredTime();
+        return lastStoredTime == UNSET ? 0L : recomputeWithBaseTime(lastStoredTime);
+    }
+
+    @Override
+    public void setLastStoredTime(long lastStoredTime) {
+        setRawLastStoredTime(stripBaseTime(lastStoredTime));
+    }
+
+    @Override
+    public int getHits() {
+        return mem.getInt(address + HITS_OFFSET);
+    }
+
+    @Override
+    public void setHits(int hits) {
+        mem.putInt(address + HITS_OFFSET, hits);
+    }
+
+    @Override
+    public RecordReaderWriter getMatchingRecordReaderWriter() {
+        return DATA_RECORD_WITH_STATS_READER_WRITER;
+    }
+
+    @Override
+    public int getRawCreationTime() {
+        return mem.getInt(address + CREATION_TIME_OFFSET);
+    }
+
+    @Override
+    public void setRawCreationTime(int creationTime) {
+        mem.putInt(address + CREATION_TIME_OFFSET, creationTime);
+    }
+
+    @Override
+    public int getRawLastAccessTime() {
+        return mem.getInt(address + LAST_ACCESS_TIME_OFFSET);
+    }
+
+    @Override
+    public void setRawLastAccessTime(int lastAccessTime) {
+        mem.putInt(address + LAST_ACCESS_TIME_OFFSET, lastAccessTime);
+    }
+
+    @Override
+    public int getRawLastUpdateTime() {
+        return mem.getInt(address + LAST_UPDATE_TIME_OFFSET);
+    }
+
+    @Override
+    public void setRawLastUpdateTime(int lastUpdateTime) {
+        mem.putInt(address + LAST_UPDATE_TIME_OFFSET, lastUpdateTime);
+    }
+
+    @Override
+    public int getRawLastStoredTime() {
+        return mem.getInt(address + LAST_STORED_TIME_OFFSET);
+    }
+
+    @Override
+    public void setRawLastStoredTime(int lastStoredTime) {
+        mem.putInt(address + LAST_STORED_TIME_OFFSET, lastStoredTime);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return address == ((NativeRecord) o).address;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(address);
+    }
+
+    @Override
+    public String toString() {
+        return "NativeRecord{address=" + address
+                + ", version=" + getVersion()
+                + ", hits=" + getHits()
+                + ", lastAccessTime=" + getRawLastAccessTime()
+                + ", lastUpdateTime=" + getRawLastUpdateTime()
+                + ", creationTime=" + getRawCreationTime()
+                + '}';
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.record;
+
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.memory.MemoryAllocator;
+import com.hazelcast.internal.memory.MemoryManager;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.internal.util.collection.Long2LongHashMap;
+
+import static com.hazelcast.internal.memory.MemoryAllocator.NULL_ADDRESS;
+import static com.hazelcast.internal.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.internal.nio.Bits.LONG_SIZE_IN_BYTES;
+
+/**
+ * Allocates and frees the native memory blocks of the {@link NativeRecord}s
+ * of a single partition.
+ * <p>
+ * A record is a fixed size block holding the record's metadata followed by
+ * the key blob; the value blob lives in a separate block, so the record block
+ * never moves when its value is updated.
+ * <p>
+ * Freeing is deferred until {@link #disposeDeferredBlocks()} is called at the
+ * end of the running operation, so the {@link NativeRecord} flyweights the
+ * operation obtained stay valid for all of its duration, even if it removed
+ * or updated the records they point to.
+ * <p>
+ * Not thread-safe, can only be used by the partition thread owning the partition.
+ */
+public class NativeRecordAllocator {
+
+    static final int NEXT_OFFSET = 0;
+    static final int VALUE_ADDRESS_OFFSET = NEXT_OFFSET + LONG_SIZE_IN_BYTES;
+    static final int KEY_HASH_OFFSET = VALUE_ADDRESS_OFFSET + LONG_SIZE_IN_BYTES;
+    static final int VALUE_SIZE_OFFSET = KEY_HASH_OFFSET + LONG_SIZE_IN_BYTES;
+    static final int KEY_SIZE_OFFSET = VALUE_SIZE_OFFSET + INT_SIZE_IN_BYTES;
+    static final int VERSION_OFFSET = KEY_SIZE_OFFSET + INT_SIZE_IN_BYTES;
+    static final int HITS_OFFSET = VERSION_OFFSET + INT_SIZE_IN_BYTES;
+    static final int CREATION_TIME_OFFSET = HITS_OFFSET + INT_SIZE_IN_BYTES;
+    static final int LAST_ACCESS_TIME_OFFSET = CREATION_TIME_OFFSET + INT_SIZE_IN_BYTES;
+    static final int LAST_UPDATE_TIME_OFFSET = LAST_ACCESS_TIME_OFFSET + INT_SIZE_IN_BYTES;
+    static final int LAST_STORED_TIME_OFFSET = LAST_UPDATE_TIME_OFFSET + INT_SIZE_IN_BYTES;
+    static final int KEY_OFFSET = LAST_STORED_TIME_OFFSET + INT_SIZE_IN_BYTES;
+
+    private final MemoryAllocator malloc;
+    private final MemoryAccessor mem;
+    /**
+     * Address to size of the blocks waiting to be freed.
+     */
+    private final Long2LongHashMap deferredBlocks = new Long2LongHashMap(NULL_ADDRESS);
+
+    private long usedMemory;
+
+    public NativeRecordAllocator(MemoryManager memoryManager) {
+        this.malloc = memoryManager.getAllocator();
+        this.mem = memoryManager.getAccessor();
+    }
+
+    public MemoryAccessor getAccessor() {
+        return mem;
+    }
+
+    /**
+     * Allocates a new record for the given key, without a value.
+     */
+    public NativeRecord newRecord(Data key) {
+        int keySize = key.totalSize();
+        long address = allocate(KEY_OFFSET + keySize);
+        mem.putLong(address + KEY_HASH_OFFSET, key.hash64());
+        mem.putInt(address + KEY_SIZE_OFFSET, keySize);
+        mem.putInt(address + CREATION_TIME_OFFSET, Record.UNSET);
+        mem.putInt(address + LAST_ACCESS_TIME_OFFSET, Record.UNSET);
+        mem.putInt(address + LAST_UPDATE_TIME_OFFSET, Record.UNSET);
+        mem.putInt(address + LAST_STORED_TIME_OFFSET, Record.UNSET);
+        write(key, address + KEY_OFFSET);
+        return new NativeRecord(this, address);
+    }
+
+    /**
+     * Allocates a new record holding the given key, and the value and the
+     * metadata of the given on-heap record.
+     */
+    public NativeRecord copyOf(Data key, Record<Data> record) {
+        NativeRecord nativeRecord = newRecord(key);
+        nativeRecord.setValue(record.getValue());
+        Records.copyMetadataFrom(record, nativeRecord);
+        return nativeRecord;
+    }
+
+    /**
+     * Returns a flyweight for the record at the given address.
+     */
+    public NativeRecord recordAt(long address) {
+        return new NativeRecord(this, address);
+    }
+
+    /**
+     * Defers freeing the record at the given address together with its value.
+     */
+    public void disposeRecord(long address) {
+        disposeValue(address);
+        dispose(address, recordSize(address));
+    }
+
+    /**
+     * Frees the record at the given address together with its value
+     * immediately. Only to be used when it is known that there are no
+     * flyweights of the record in use.
+     */
+    public void freeRecord(long address) {
+        long valueAddress = mem.getLong(address + VALUE_ADDRESS_OFFSET);
+        if (valueAddress != NULL_ADDRESS) {
+            free(valueAddress, mem.getInt(address + VALUE_SIZE_OFFSET));
+        }
+        free(address, recordSize(address));
+    }
+
+    /**
+     * Frees all the blocks whose disposal was deferred.
+     */
+    public void disposeDeferredBlocks() {
+        if (deferredBlocks.isEmpty()) {
+            return;
+        }
+        deferredBlocks.longForEach(this::free);
+        deferredBlocks.clear();
+    }
+
+    /**
+     * @return the number of bytes of native memory used by the records of
+     * the partition, including the blocks waiting to be freed
+     */
+    public long getUsedMemory() {
+        return usedMemory;
+    }
+
+    long recordSize(long address) {
+        return KEY_OFFSET + mem.getInt(address + KEY_SIZE_OFFSET);
+    }
+
+    void setValue(long address, Data value) {
+        disposeValue(address);
+        long valueAddress = NULL_ADDRESS;
+        int valueSize = 0;
+        if (value != null) {
+            valueSize = value.totalSize();
+            valueAddress = allocate(valueSize);
+            write(value, valueAddress);
+        }
+        mem.putLong(address + VALUE_ADDRESS_OFFSET, valueAddress);
+        mem.putInt(address + VALUE_SIZE_OFFSET, valueSize);
+    }
+
+    Data readData(long address, int size) {
+        byte[] bytes = new byte[size];
+        mem.copyToByteArray(address, bytes, 0, size);
+        return new HeapData(bytes);
+    }
+
+    boolean keyEquals(long address, Data key) {
+        int keySize = mem.getInt(address + KEY_SIZE_OFFSET);
+        if (keySize != key.totalSize()) {
+            return false;
+        }
+        byte[] bytes = key.toByteArray();
+        long keyAddress = address + KEY_OFFSET;
+        for (int i = 0; i < keySize; i++) {
+            if (mem.getByte(keyAddress + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void disposeValue(long address) {
+        long valueAddress = mem.getLong(address + VALUE_ADDRESS_OFFSET);
+        if (valueAddress != NULL_ADDRESS) {
+            dispose(valueAddress, mem.getInt(address + VALUE_SIZE_OFFSET));
+        }
+    }
+
+    private void write(Data data, long address) {
+        byte[] bytes = data.toByteArray();
+        mem.copyFromByteArray(bytes, 0, address, bytes.length);
+    }
+
+    private long allocate(long size) {
+        long address = malloc.allocate(size);
+        usedMemory += size;
+        return address;
+    }
+
+    private void dispose(long address, long size) {
+        deferredBlocks.put(address, size);
+    }
+
+    private void free(long address, long size) {
+        malloc.free(address, size);
+        usedMemory -= size;
+    }
+}
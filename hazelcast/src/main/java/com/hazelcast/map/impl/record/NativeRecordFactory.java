@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.record;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.memory.NativeOutOfMemoryError;
+
+/**
+ * Creates the {@link NativeRecord}s of a partition of a map with
+ * {@link com.hazelcast.config.InMemoryFormat#NATIVE NATIVE} in-memory format.
+ * <p>
+ * Native records always keep the per-entry statistics, there is no
+ * separate record type per eviction policy as their layout is fixed.
+ */
+public class NativeRecordFactory implements RecordFactory<Data> {
+
+    private final SerializationService ss;
+    private final NativeRecordAllocator recordAllocator;
+
+    public NativeRecordFactory(SerializationService ss, NativeRecordAllocator recordAllocator) {
+        this.ss = ss;
+        this.recordAllocator = recordAllocator;
+    }
+
+    @Override
+    public Record<Data> newRecord(Data key, Object value) {
+        NativeRecord record = recordAllocator.newRecord(key);
+        try {
+            record.setValue(ss.toData(value));
+        } catch (NativeOutOfMemoryError e) {
+            recordAllocator.freeRecord(record.address());
+            throw e;
+        }
+        return record;
+    }
+
+    public NativeRecordAllocator getRecordAllocator() {
+        return recordAllocator;
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.hazelcast.map.impl.record;
 
+import com.hazelcast.config.EvictionPolicy;
 import com.hazelcast.internal.serialization.Data;
 import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.map.impl.recordstore.expiry.ExpiryMetadata;
@@ -206,6 +207,14 @@ public final class Records {
         return object;
     }
 
+    /**
+     * TinyLFU keeps access frequencies in a sketch owned by the record
+     * store, so its records only need the last access time like LRU ones.
+     */
+    static boolean isRecencyOrdered(EvictionPolicy evictionPolicy) {
+        return evictionPolicy == EvictionPolicy.LRU || evictionPolicy == EvictionPolicy.TINY_LFU;
+    }
+
     static boolean shouldCache(Object value) {
         // For portables, we cannot extract information from the deserialized form.
         // For HazelcastJsonValue objects, if we pass the instanceof Data check, that
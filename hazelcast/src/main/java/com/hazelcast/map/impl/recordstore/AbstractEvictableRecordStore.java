@@ -20,6 +20,7 @@ import com.hazelcast.cluster.Address;
 import com.hazelcast.core.EntryEventType;
 import com.hazelcast.core.EntryView;
 import com.hazelcast.internal.eviction.ExpiredKey;
+import com.hazelcast.internal.eviction.impl.comparator.FrequencySketch;
 import com.hazelcast.internal.nearcache.impl.invalidation.InvalidationQueue;
 import com.hazelcast.internal.serialization.Data;
 import com.hazelcast.map.impl.MapContainer;
@@ -53,6 +54,7 @@ public abstract class AbstractEvictableRecordStore extends AbstractRecordStore {
     protected final EventService eventService;
     protected final MapEventPublisher mapEventPublisher;
     protected final ExpirySystem expirySystem;
+    protected final FrequencySketch frequencySketch;
 
     protected AbstractEvictableRecordStore(MapContainer mapContainer, int partitionId) {
         super(mapContainer, partitionId);
@@ -61,6 +63,7 @@ public abstract class AbstractEvictableRecordStore extends AbstractRecordStore {
         mapEventPublisher = mapServiceContext.getMapEventPublisher();
         thisAddress = nodeEngine.getThisAddress();
         expirySystem = createExpirySystem(mapContainer);
+        frequencySketch = mapContainer.getEvictor().newFrequencySketch();
     }
 
     @Override
@@ -68,6 +71,11 @@ public abstract class AbstractEvictableRecordStore extends AbstractRecordStore {
         return expirySystem;
     }
 
+    @Override
+    public FrequencySketch getFrequencySketch() {
+        return frequencySketch;
+    }
+
     @Nonnull
     protected ExpirySystem createExpirySystem(MapContainer mapContainer) {
         return new ExpirySystemImpl(this, mapContainer, mapServiceContext);
@@ -85,6 +93,12 @@ public abstract class AbstractEvictableRecordStore extends AbstractRecordStore {
 
     @Override
     public void evictEntries(Data excludedKey) {
+        // the key which was just added or updated counts as an access,
+        // the sketch grows with the store until eviction kicks in
+        if (frequencySketch != null && excludedKey != null) {
+            frequencySketch.ensureCapacity(size());
+            frequencySketch.increment(excludedKey.hashCode());
+        }
         if (shouldEvict()) {
             mapContainer.getEvictor().evict(this, excludedKey);
         }
@@ -168,6 +182,9 @@ public abstract class AbstractEvictableRecordStore extends AbstractRecordStore {
     @Override
     public void accessRecord(Data dataKey, Record record, long now) {
         record.onAccess(now);
+        if (frequencySketch != null) {
+            frequencySketch.increment(dataKey.hashCode());
+        }
         updateStatsOnGet(now);
         expirySystem.extendExpiryTime(dataKey, now);
     }
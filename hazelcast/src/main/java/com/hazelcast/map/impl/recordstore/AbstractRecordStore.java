@@ -36,6 +36,9 @@ import com.hazelcast.map.impl.MapServiceContext;
 import com.hazelcast.map.impl.MapStoreWrapper;
 import com.hazelcast.map.impl.mapstore.MapDataStore;
 import com.hazelcast.map.impl.mapstore.MapStoreContext;
+import com.hazelcast.map.impl.persistence.MapPersistenceService;
+import com.hazelcast.map.impl.record.NativeRecordAllocator;
+import com.hazelcast.map.impl.record.NativeRecordFactory;
 import com.hazelcast.map.impl.record.Record;
 import com.hazelcast.map.impl.record.RecordFactory;
 import com.hazelcast.map.impl.record.RecordReaderWriter;
@@ -96,6 +99,13 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
                     mapContainer, partitionId));
         }
 
+        // Add observer for local persistence
+        MapPersistenceService persistenceService = mapServiceContext.getMapPersistenceService();
+        if (persistenceService != null && MapPersistenceService.isPersistent(mapContainer.getMapConfig())) {
+            mutationObserver.add(new PersistenceMutationObserver(persistenceService, serializationService,
+                    mapContainer, partitionId));
+        }
+
         // Add observer for json metadata
         if (mapContainer.getMapConfig().getMetadataPolicy() == MetadataPolicy.CREATE_ON_UPDATE) {
             mutationObserver.add(new JsonMetadataMutationObserver(serializationService,
@@ -155,6 +165,11 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
     }
 
     public Storage createStorage(RecordFactory recordFactory, InMemoryFormat memoryFormat) {
+        if (memoryFormat == InMemoryFormat.NATIVE) {
+            NativeRecordAllocator recordAllocator = ((NativeRecordFactory) recordFactory).getRecordAllocator();
+            return new NativeStorage(mapServiceContext.getNativeMemoryManager(), recordAllocator,
+                    getExpirySystem(), serializationService);
+        }
         return new StorageImpl(memoryFormat, getExpirySystem(), serializationService);
     }
 
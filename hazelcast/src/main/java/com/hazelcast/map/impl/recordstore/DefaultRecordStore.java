@@ -53,6 +53,7 @@ import com.hazelcast.map.impl.recordstore.expiry.ExpiryMetadata;
 import com.hazelcast.map.impl.recordstore.expiry.ExpiryReason;
 import com.hazelcast.spi.exception.RetryableHazelcastException;
 import com.hazelcast.spi.impl.NodeEngine;
+import com.hazelcast.spi.impl.InternalCompletableFuture;
 import com.hazelcast.spi.merge.SplitBrainMergePolicy;
 import com.hazelcast.spi.merge.SplitBrainMergeTypes.MapMergeTypes;
 import com.hazelcast.wan.impl.CallerProvenance;
@@ -1300,6 +1301,11 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
         // Fixes https://github.com/hazelcast/hazelcast/issues/9255
     }
 
+    @Override
+    public InternalCompletableFuture<Object> loadKeySplit(int split, int splitCount, boolean replaceExistingValues) {
+        return keyLoader.loadKeySplit(mapStoreContext, split, splitCount, replaceExistingValues);
+    }
+
     @Override
     public void updateLoadStatus(boolean lastBatch, Throwable
             exception) {
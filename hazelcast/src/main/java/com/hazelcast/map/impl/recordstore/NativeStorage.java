@@ -0,0 +1,409 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.core.EntryView;
+import com.hazelcast.internal.iteration.IterationPointer;
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.memory.MemoryManager;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.util.hashslot.SlotAssignmentResult;
+import com.hazelcast.internal.util.hashslot.impl.HashSlotArray8byteKeyImpl;
+import com.hazelcast.map.impl.EntryCostEstimator;
+import com.hazelcast.map.impl.iterator.MapEntriesWithCursor;
+import com.hazelcast.map.impl.iterator.MapKeysWithCursor;
+import com.hazelcast.map.impl.record.NativeRecord;
+import com.hazelcast.map.impl.record.NativeRecordAllocator;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.recordstore.expiry.ExpirySystem;
+
+import javax.annotation.Nonnull;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
+
+import static com.hazelcast.internal.memory.MemoryAllocator.NULL_ADDRESS;
+import static com.hazelcast.internal.nio.Bits.LONG_SIZE_IN_BYTES;
+
+/**
+ * {@link Storage} of a map with {@link com.hazelcast.config.InMemoryFormat#NATIVE
+ * NATIVE} in-memory format. The records, including their keys and values,
+ * live in native memory (see {@link NativeRecordAllocator}) and so does the
+ * index which finds them: a {@link HashSlotArray8byteKeyImpl} from the
+ * 64-bit hash of the key to the head of the chain of the records whose keys
+ * have that hash. The heap usage of the storage is therefore independent
+ * of the number and size of its entries.
+ * <p>
+ * The storage hands out {@link NativeRecord} flyweights; records it removes
+ * are only freed by {@link #disposeDeferredBlocks()} at the end of the
+ * operation.
+ * <p>
+ * Not thread-safe, can only be used by the partition thread owning the partition.
+ *
+ * @param <R> the value type to be put in this storage.
+ */
+@SuppressWarnings("checkstyle:methodcount")
+public class NativeStorage<R extends Record> implements Storage<Data, R> {
+
+    private final NativeRecordAllocator recordAllocator;
+    private final MemoryAccessor mem;
+    private final RecordIndex index;
+    private final SerializationService serializationService;
+    private final ExpirySystem expirySystem;
+
+    private int size;
+    // not final for testing purposes.
+    private EntryCostEstimator entryCostEstimator = new NativeEntryCostEstimator();
+
+    public NativeStorage(MemoryManager memoryManager, NativeRecordAllocator recordAllocator,
+                         ExpirySystem expirySystem, SerializationService serializationService) {
+        this.recordAllocator = recordAllocator;
+        this.mem = memoryManager.getAccessor();
+        this.index = new RecordIndex(memoryManager);
+        this.index.gotoNew();
+        this.expirySystem = expirySystem;
+        this.serializationService = serializationService;
+    }
+
+    @Override
+    public void put(Data key, R record) {
+        NativeRecord nativeRecord = record instanceof NativeRecord
+                ? (NativeRecord) record
+                : recordAllocator.copyOf(key, record);
+
+        SlotAssignmentResult slot = index.ensure(key.hash64());
+        long head = NULL_ADDRESS;
+        if (!slot.isNew()) {
+            head = mem.getLong(slot.address());
+            if (find(head, key) == nativeRecord.address()) {
+                // the record is already stored
+                return;
+            }
+            head = unlink(head, key);
+        }
+        nativeRecord.setNext(head);
+        mem.putLong(slot.address(), nativeRecord.address());
+        size++;
+    }
+
+    @Override
+    public R updateRecordValue(Data key, R record, Object value) {
+        record.setValue(serializationService.toData(value));
+        return record;
+    }
+
+    @Override
+    public R get(Data key) {
+        long address = find(key);
+        return address == NULL_ADDRESS ? null : (R) recordAllocator.recordAt(address);
+    }
+
+    @Override
+    public R getIfSameKey(Data key) {
+        return get(key);
+    }
+
+    @Override
+    public void removeRecord(Data dataKey, @Nonnull R record) {
+        long hash = dataKey.hash64();
+        long headAddress = index.get(hash);
+        if (headAddress == NULL_ADDRESS) {
+            return;
+        }
+        long head = unlink(mem.getLong(headAddress), dataKey);
+        if (head == NULL_ADDRESS) {
+            index.remove(hash);
+        } else {
+            mem.putLong(headAddress, head);
+        }
+    }
+
+    @Override
+    public boolean containsKey(Data key) {
+        return find(key) != NULL_ADDRESS;
+    }
+
+    @Override
+    public Iterator<Map.Entry<Data, R>> mutationTolerantIterator() {
+        return new RecordIterator();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear(boolean isDuringShutdown) {
+        // the record store visits the records before clearing the
+        // storage, nothing uses them anymore: free them right away
+        for (long slot = 0; slot < index.capacity(); slot++) {
+            long record = index.chainHead(slot);
+            while (record != NULL_ADDRESS) {
+                long next = recordAllocator.recordAt(record).getNext();
+                recordAllocator.freeRecord(record);
+                record = next;
+            }
+        }
+        index.clear();
+        size = 0;
+        disposeDeferredBlocks();
+    }
+
+    @Override
+    public void destroy(boolean isDuringShutdown) {
+        clear(isDuringShutdown);
+        index.dispose();
+    }
+
+    @Override
+    public EntryCostEstimator getEntryCostEstimator() {
+        return entryCostEstimator;
+    }
+
+    @Override
+    public void setEntryCostEstimator(EntryCostEstimator entryCostEstimator) {
+        this.entryCostEstimator = entryCostEstimator;
+    }
+
+    @Override
+    public void disposeDeferredBlocks() {
+        recordAllocator.disposeDeferredBlocks();
+    }
+
+    @Override
+    public Iterable<EntryView> getRandomSamples(int sampleCount) {
+        List<EntryView> samples = new ArrayList<>(sampleCount);
+        long capacity = index.capacity();
+        if (size == 0 || capacity == 0) {
+            return samples;
+        }
+        long start = ThreadLocalRandom.current().nextLong(capacity);
+        for (long i = 0; i < capacity && samples.size() < sampleCount; i++) {
+            long record = index.chainHead((start + i) & (capacity - 1));
+            while (record != NULL_ADDRESS && samples.size() < sampleCount) {
+                NativeRecord nativeRecord = recordAllocator.recordAt(record);
+                Data key = nativeRecord.getKey();
+                samples.add(new LazyEvictableEntryView<>(key, nativeRecord,
+                        expirySystem.getExpiryMetadata(key), serializationService));
+                record = nativeRecord.getNext();
+            }
+        }
+        return samples;
+    }
+
+    @Override
+    public MapKeysWithCursor fetchKeys(IterationPointer[] pointers, int size) {
+        List<Data> keys = new ArrayList<>(size);
+        IterationPointer[] newPointers = fetchNext(pointers, size, (key, record) -> keys.add(key));
+        return new MapKeysWithCursor(keys, newPointers);
+    }
+
+    @Override
+    public MapEntriesWithCursor fetchEntries(IterationPointer[] pointers, int size) {
+        List<Map.Entry<Data, Data>> entries = new ArrayList<>(size);
+        IterationPointer[] newPointers = fetchNext(pointers, size,
+                (key, record) -> entries.add(new AbstractMap.SimpleEntry<>(key, record.getValue())));
+        return new MapEntriesWithCursor(entries, newPointers);
+    }
+
+    @Override
+    public Data extractDataKeyFromLazy(EntryView entryView) {
+        return ((LazyEvictableEntryView) entryView).getDataKey();
+    }
+
+    @Override
+    public Data toBackingDataKeyFormat(Data key) {
+        return key;
+    }
+
+    /**
+     * Walks the slots of the index from the last one to the first one,
+     * returning all the records of a visited slot. The index of the next
+     * slot to visit is kept in the single pointer. When the index has been
+     * resized since the previous fetch, the iteration starts over, so
+     * entries may be returned more than once in that case.
+     */
+    private IterationPointer[] fetchNext(IterationPointer[] pointers, int size, BiConsumer<Data, NativeRecord> consumer) {
+        int capacity = (int) index.capacity();
+        IterationPointer pointer = pointers[pointers.length - 1];
+        int slot = pointer.getSize() == capacity && pointer.getIndex() < capacity
+                ? pointer.getIndex()
+                : capacity - 1;
+        int count = 0;
+        while (slot >= 0 && count < size) {
+            long record = index.chainHead(slot--);
+            while (record != NULL_ADDRESS) {
+                NativeRecord nativeRecord = recordAllocator.recordAt(record);
+                consumer.accept(nativeRecord.getKey(), nativeRecord);
+                count++;
+                record = nativeRecord.getNext();
+            }
+        }
+        return new IterationPointer[]{new IterationPointer(slot, capacity)};
+    }
+
+    private long find(Data key) {
+        long headAddress = index.get(key.hash64());
+        return headAddress == NULL_ADDRESS ? NULL_ADDRESS : find(mem.getLong(headAddress), key);
+    }
+
+    private long find(long head, Data key) {
+        for (long record = head; record != NULL_ADDRESS; ) {
+            NativeRecord nativeRecord = recordAllocator.recordAt(record);
+            if (nativeRecord.keyEquals(key)) {
+                return record;
+            }
+            record = nativeRecord.getNext();
+        }
+        return NULL_ADDRESS;
+    }
+
+    /**
+     * Removes the record with the given key from the chain starting at
+     * {@code head} and defers its disposal.
+     *
+     * @return the new head of the chain
+     */
+    private long unlink(long head, Data key) {
+        long previous = NULL_ADDRESS;
+        for (long record = head; record != NULL_ADDRESS; ) {
+            NativeRecord nativeRecord = recordAllocator.recordAt(record);
+            long next = nativeRecord.getNext();
+            if (nativeRecord.keyEquals(key)) {
+                if (previous == NULL_ADDRESS) {
+                    head = next;
+                } else {
+                    recordAllocator.recordAt(previous).setNext(next);
+                }
+                recordAllocator.disposeRecord(record);
+                size--;
+                return head;
+            }
+            previous = record;
+            record = next;
+        }
+        return head;
+    }
+
+    /**
+     * Maps the 64-bit hash of a key to the address of the head of the
+     * record chain. The null-sentinel is {@code NULL_ADDRESS}, which can't
+     * be the address of a record.
+     */
+    private static final class RecordIndex extends HashSlotArray8byteKeyImpl {
+
+        private static final int VALUE_OFFSET = LONG_SIZE_IN_BYTES;
+
+        RecordIndex(MemoryManager memoryManager) {
+            super(NULL_ADDRESS, memoryManager, LONG_SIZE_IN_BYTES);
+        }
+
+        long chainHead(long slot) {
+            long baseAddress = address();
+            return isAssigned(baseAddress, slot)
+                    ? mem().getLong(slotBase(baseAddress, slot) + VALUE_OFFSET)
+                    : NULL_ADDRESS;
+        }
+    }
+
+    /**
+     * Walks the slots of the index downwards, starting below an unassigned
+     * slot and wrapping around from the first slot to the last one. The
+     * backward-shift removal of the index only moves a slot to a lower one
+     * (wrapping around the same way) within the same run of assigned slots,
+     * and no run contains the unassigned start slot. Removing the records
+     * during the iteration therefore never moves a slot which wasn't visited
+     * yet to a visited one.
+     */
+    private final class RecordIterator implements Iterator<Map.Entry<Data, R>> {
+
+        private final long mask = index.capacity() - 1;
+        private long slot = unassignedSlot();
+        private long remainingSlots = index.capacity();
+        private long nextRecord = NULL_ADDRESS;
+
+        @Override
+        public boolean hasNext() {
+            while (nextRecord == NULL_ADDRESS && remainingSlots > 0) {
+                slot = (slot - 1) & mask;
+                remainingSlots--;
+                nextRecord = index.chainHead(slot);
+            }
+            return nextRecord != NULL_ADDRESS;
+        }
+
+        @Override
+        public Map.Entry<Data, R> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            NativeRecord record = recordAllocator.recordAt(nextRecord);
+            nextRecord = record.getNext();
+            return new AbstractMap.SimpleImmutableEntry<>(record.getKey(), (R) record);
+        }
+
+        private long unassignedSlot() {
+            for (long slot = mask; slot >= 0; slot--) {
+                if (index.chainHead(slot) == NULL_ADDRESS) {
+                    return slot;
+                }
+            }
+            // the load factor keeps some slots unassigned, but the index may be empty
+            return 0;
+        }
+    }
+
+    private final class NativeEntryCostEstimator implements EntryCostEstimator<Data, Record> {
+
+        @Override
+        public long getEstimate() {
+            return recordAllocator.getUsedMemory();
+        }
+
+        @Override
+        public void adjustEstimateBy(long adjustment) {
+            // NOP: the allocator knows the exact cost
+        }
+
+        @Override
+        public long calculateValueCost(Record record) {
+            return record.getCost();
+        }
+
+        @Override
+        public long calculateEntryCost(Data key, Record record) {
+            return record.getCost();
+        }
+
+        @Override
+        public void reset() {
+            // NOP: the allocator knows the exact cost
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.map.impl.MapContainer;
+import com.hazelcast.map.impl.persistence.MapPersistenceService;
+import com.hazelcast.map.impl.persistence.PartitionLog;
+import com.hazelcast.map.impl.record.Record;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+
+import static com.hazelcast.internal.util.ToHeapDataConverter.toHeapData;
+
+/**
+ * Writes the mutations of a record store to its {@link PartitionLog}.
+ */
+public class PersistenceMutationObserver implements MutationObserver<Record> {
+
+    private final String mapName;
+    private final MapPersistenceService persistenceService;
+    private final SerializationService serializationService;
+    private final PartitionLog log;
+
+    public PersistenceMutationObserver(MapPersistenceService persistenceService,
+                                       SerializationService serializationService,
+                                       MapContainer mapContainer,
+                                       int partitionId) {
+        this.mapName = mapContainer.getName();
+        this.persistenceService = persistenceService;
+        this.serializationService = serializationService;
+        boolean fsync = mapContainer.getMapConfig().getDataPersistenceConfig().isFsync();
+        this.log = persistenceService.createLog(mapName, partitionId, fsync);
+    }
+
+    @Override
+    public void onPutRecord(@Nonnull Data key, Record record, Object oldValue, boolean backup) {
+        put(key, record);
+    }
+
+    @Override
+    public void onReplicationPutRecord(@Nonnull Data key, @Nonnull Record record, boolean populateIndex) {
+        put(key, record);
+    }
+
+    @Override
+    public void onUpdateRecord(@Nonnull Data key, @Nonnull Record record,
+                               Object oldValue, Object newValue, boolean backup) {
+        put(key, record);
+    }
+
+    @Override
+    public void onRemoveRecord(@Nonnull Data key, Record record) {
+        if (isActive()) {
+            try {
+                log.remove(toHeapData(key));
+            } catch (IOException e) {
+                throw new HazelcastException(e);
+            }
+        }
+    }
+
+    @Override
+    public void onEvictRecord(@Nonnull Data key, @Nonnull Record record) {
+        onRemoveRecord(key, record);
+    }
+
+    @Override
+    public void onLoadRecord(@Nonnull Data key, @Nonnull Record record, boolean backup) {
+        put(key, record);
+    }
+
+    @Override
+    public void onReset() {
+        clear();
+    }
+
+    @Override
+    public void onClear() {
+        clear();
+    }
+
+    @Override
+    public void onDestroy(boolean isDuringShutdown, boolean internal) {
+        if (log != null && !isDuringShutdown) {
+            persistenceService.deleteLog(mapName, log);
+        }
+    }
+
+    private void put(Data key, Record record) {
+        if (isActive()) {
+            try {
+                log.put(toHeapData(key), toHeapData(serializationService.toData(record.getValue())));
+            } catch (IOException e) {
+                throw new HazelcastException(e);
+            }
+        }
+    }
+
+    private void clear() {
+        if (isActive()) {
+            try {
+                log.clear();
+            } catch (IOException e) {
+                throw new HazelcastException(e);
+            }
+        }
+    }
+
+    /**
+     * The log is {@code null} if the member was already shutting down when
+     * the record store was created. The log is closed when the member shuts
+     * down, it ignores the mutations made by the shutdown.
+     */
+    private boolean isActive() {
+        return log != null;
+    }
+}
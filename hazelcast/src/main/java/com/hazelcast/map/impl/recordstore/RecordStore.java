@@ -24,6 +24,7 @@ import com.hazelcast.internal.iteration.IterationPointer;
 import com.hazelcast.internal.monitor.LocalRecordStoreStats;
 import com.hazelcast.internal.monitor.impl.LocalRecordStoreStatsImpl;
 import com.hazelcast.internal.nearcache.impl.invalidation.InvalidationQueue;
+import com.hazelcast.internal.eviction.impl.comparator.FrequencySketch;
 import com.hazelcast.internal.serialization.Data;
 import com.hazelcast.internal.util.comparators.ValueComparator;
 import com.hazelcast.map.IMap;
@@ -39,6 +40,7 @@ import com.hazelcast.map.impl.recordstore.expiry.ExpiryMetadata;
 import com.hazelcast.map.impl.recordstore.expiry.ExpiryReason;
 import com.hazelcast.map.impl.recordstore.expiry.ExpirySystem;
 import com.hazelcast.spi.exception.RetryableHazelcastException;
+import com.hazelcast.spi.impl.InternalCompletableFuture;
 import com.hazelcast.spi.merge.SplitBrainMergePolicy;
 import com.hazelcast.spi.merge.SplitBrainMergeTypes.MapMergeTypes;
 import com.hazelcast.wan.impl.CallerProvenance;
@@ -59,6 +61,13 @@ public interface RecordStore<R extends Record> {
 
     ExpirySystem getExpirySystem();
 
+    /**
+     * @return the sketch of key access frequencies used by the
+     * {@link com.hazelcast.config.EvictionPolicy#TINY_LFU} eviction
+     * policy or {@code null} if the map uses another policy
+     */
+    FrequencySketch getFrequencySketch();
+
     LocalRecordStoreStats getLocalRecordStoreStats();
 
     String getName();
@@ -593,6 +602,23 @@ public interface RecordStore<R extends Record> {
     void loadAllFromStore(List<Data> keys,
                           boolean replaceExistingValues);
 
+    /**
+     * Triggers loading the keys of the given split from the defined
+     * {@link com.hazelcast.map.SplittableMapLoader} and sending them to
+     * the partition owners for value loading.
+     * The keys will be loaded asynchronously and this method will
+     * return as soon as the key loading task has been offloaded
+     * to a different thread.
+     *
+     * @param split                 the index of the split to load
+     * @param splitCount            the total number of splits
+     * @param replaceExistingValues if the existing entries for the loaded keys
+     *                              should be replaced with the loaded values
+     * @return a future representing pending completion of the loading and
+     * dispatching of the keys of the split
+     */
+    InternalCompletableFuture<Object> loadKeySplit(int split, int splitCount, boolean replaceExistingValues);
+
     /**
      * Advances the state of the map key loader for this partition and sets the key
      * loading future result if the {@code lastBatch} is {@code true}.
@@ -0,0 +1,473 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.core.TypeConverter;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.IndexBPlusTree.Cursor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static com.hazelcast.query.impl.AbstractIndex.NULL;
+import static com.hazelcast.query.impl.IndexBPlusTree.AFTER_VALUE;
+import static com.hazelcast.query.impl.IndexBPlusTree.BEFORE_VALUE;
+import static java.util.Collections.emptyIterator;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singletonList;
+
+/**
+ * Sorted index store keeping the entries in a {@link IndexBPlusTree}.
+ * <p>
+ * Compared to {@link OrderedIndexStore} it doesn't allocate a skip list
+ * node per entry and a skip list per distinct value, the entries are
+ * stored in the arrays of the tree leaves. This significantly reduces the
+ * heap footprint of indexes on large maps and makes range scans read
+ * sequential memory.
+ * <p>
+ * The tree is guarded by the global lock of the store. Lookups collect
+ * their results into a new map under the read lock, so every
+ * {@link IndexCopyBehavior} is satisfied without additional copying.
+ * Iterators collect the entries of a few distinct values at a time and
+ * continue after the last collected value if the tree was modified in the
+ * meantime, providing the same weakly consistent view as the skip list.
+ */
+@SuppressWarnings("rawtypes")
+public class BPlusTreeIndexStore extends BaseSingleValueIndexStore {
+
+    /**
+     * The minimum number of entries an iterator collects under a single
+     * acquisition of the read lock.
+     */
+    private static final int ITERATOR_PREFETCH_SIZE = 128;
+
+    private final IndexBPlusTree tree;
+    private final IndexBPlusTree recordsWithNullValue;
+
+    public BPlusTreeIndexStore(IndexCopyBehavior copyOn) {
+        this(copyOn, IndexBPlusTree.DEFAULT_NODE_CAPACITY);
+    }
+
+    BPlusTreeIndexStore(IndexCopyBehavior copyOn, int nodeCapacity) {
+        super(copyOn, true);
+        this.tree = new IndexBPlusTree(nodeCapacity);
+        this.recordsWithNullValue = new IndexBPlusTree(nodeCapacity);
+    }
+
+    @Override
+    Object insertInternal(Comparable value, QueryableEntry record) {
+        return treeFor(value).put(value, record);
+    }
+
+    @Override
+    Object removeInternal(Comparable value, Data recordKey) {
+        return treeFor(value).remove(value, recordKey);
+    }
+
+    @Override
+    public Comparable canonicalizeQueryArgumentScalar(Comparable value) {
+        // see OrderedIndexStore: needed to support InPredicate queries
+        return Comparables.canonicalizeForHashLookup(value);
+    }
+
+    @Override
+    public Comparable canonicalizeScalarForStorage(Comparable value) {
+        return value;
+    }
+
+    @Override
+    public void clear() {
+        takeWriteLock();
+        try {
+            recordsWithNullValue.clear();
+            tree.clear();
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    @Override
+    public boolean isEvaluateOnly() {
+        return false;
+    }
+
+    @Override
+    public boolean canEvaluate(Class<? extends Predicate> predicateClass) {
+        return false;
+    }
+
+    @Override
+    public Set<QueryableEntry> evaluate(Predicate predicate, TypeConverter converter) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Iterator<QueryableEntry> getSqlRecordIterator(boolean descending) {
+        return new EntryIterator(getSqlRecordIteratorBatch(descending));
+    }
+
+    @Override
+    public Iterator<QueryableEntry> getSqlRecordIterator(Comparable value) {
+        return new EntryIterator(getSqlRecordIteratorBatch(value));
+    }
+
+    @Override
+    public Iterator<QueryableEntry> getSqlRecordIterator(Comparison comparison, Comparable value, boolean descending) {
+        return new EntryIterator(getSqlRecordIteratorBatch(comparison, value, descending));
+    }
+
+    @Override
+    public Iterator<QueryableEntry> getSqlRecordIterator(Comparable from, boolean fromInclusive,
+                                                         Comparable to, boolean toInclusive, boolean descending) {
+        return new EntryIterator(getSqlRecordIteratorBatch(from, fromInclusive, to, toInclusive, descending));
+    }
+
+    @Override
+    public Iterator<IndexKeyEntries> getSqlRecordIteratorBatch(Comparable value) {
+        if (value == NULL) {
+            List<QueryableEntry> entries = new ArrayList<>();
+            takeReadLock();
+            try {
+                Cursor cursor = recordsWithNullValue.cursor();
+                for (cursor.seekFirst(); cursor.hasEntry(); cursor.next()) {
+                    entries.add(cursor.entry());
+                }
+            } finally {
+                releaseReadLock();
+            }
+            return singletonList(new IndexKeyEntries(value, entries.iterator())).iterator();
+        }
+        return new BatchIterator(value, true, value, true, false, false);
+    }
+
+    @Override
+    public Iterator<IndexKeyEntries> getSqlRecordIteratorBatch(boolean descending) {
+        return new BatchIterator(null, false, null, false, descending, true);
+    }
+
+    @Override
+    public Iterator<IndexKeyEntries> getSqlRecordIteratorBatch(Comparison comparison, Comparable value, boolean descending) {
+        switch (comparison) {
+            case LESS:
+                return new BatchIterator(null, false, value, false, descending, false);
+            case LESS_OR_EQUAL:
+                return new BatchIterator(null, false, value, true, descending, false);
+            case GREATER:
+                return new BatchIterator(value, false, null, false, descending, false);
+            case GREATER_OR_EQUAL:
+                return new BatchIterator(value, true, null, false, descending, false);
+            default:
+                throw new IllegalArgumentException("Unrecognized comparison: " + comparison);
+        }
+    }
+
+    @Override
+    public Iterator<IndexKeyEntries> getSqlRecordIteratorBatch(Comparable from, boolean fromInclusive,
+                                                               Comparable to, boolean toInclusive, boolean descending) {
+        if (isEmptyRange(from, fromInclusive, to, toInclusive)) {
+            return emptyIterator();
+        }
+        return new BatchIterator(from, fromInclusive, to, toInclusive, descending, false);
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable value) {
+        Map<Data, QueryableEntry> records = new HashMap<>();
+        takeReadLock();
+        try {
+            if (value == NULL) {
+                collect(recordsWithNullValue, null, false, null, false, records);
+            } else {
+                collect(tree, value, true, value, true, records);
+            }
+        } finally {
+            releaseReadLock();
+        }
+        return new SingleResultSet(records);
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Set<Comparable> values) {
+        Map<Data, QueryableEntry> records = new HashMap<>();
+        takeReadLock();
+        try {
+            for (Comparable value : values) {
+                if (value == NULL) {
+                    collect(recordsWithNullValue, null, false, null, false, records);
+                } else {
+                    collect(tree, value, true, value, true, records);
+                }
+            }
+        } finally {
+            releaseReadLock();
+        }
+        return new SingleResultSet(records);
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparison comparison, Comparable value) {
+        Map<Data, QueryableEntry> records = new HashMap<>();
+        takeReadLock();
+        try {
+            switch (comparison) {
+                case LESS:
+                    collect(tree, null, false, value, false, records);
+                    break;
+                case LESS_OR_EQUAL:
+                    collect(tree, null, false, value, true, records);
+                    break;
+                case GREATER:
+                    collect(tree, value, false, null, false, records);
+                    break;
+                case GREATER_OR_EQUAL:
+                    collect(tree, value, true, null, false, records);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unrecognized comparison: " + comparison);
+            }
+        } finally {
+            releaseReadLock();
+        }
+        return new SingleResultSet(records);
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+        if (isEmptyRange(from, fromInclusive, to, toInclusive)) {
+            return emptySet();
+        }
+        Map<Data, QueryableEntry> records = new HashMap<>();
+        takeReadLock();
+        try {
+            collect(tree, from, fromInclusive, to, toInclusive, records);
+        } finally {
+            releaseReadLock();
+        }
+        return new SingleResultSet(records);
+    }
+
+    private IndexBPlusTree treeFor(Comparable value) {
+        return value == NULL ? recordsWithNullValue : tree;
+    }
+
+    private static boolean isEmptyRange(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+        int order = Comparables.compare(from, to);
+        return order > 0 || order == 0 && (!fromInclusive || !toInclusive);
+    }
+
+    /**
+     * Collects the entries having values in the given range, {@code null}
+     * bounds are unbounded.
+     */
+    private static void collect(IndexBPlusTree tree, Comparable from, boolean fromInclusive,
+                                Comparable to, boolean toInclusive, Map<Data, QueryableEntry> records) {
+        Cursor cursor = tree.cursor();
+        seekLowerBound(cursor, from, fromInclusive);
+        for (; cursor.hasEntry() && !isAboveUpperBound(cursor.value(), to, toInclusive); cursor.next()) {
+            QueryableEntry entry = cursor.entry();
+            records.put(entry.getKeyData(), entry);
+        }
+    }
+
+    private static void seekLowerBound(Cursor cursor, Comparable from, boolean fromInclusive) {
+        if (from == null) {
+            cursor.seekFirst();
+        } else {
+            cursor.seekCeiling(from, fromInclusive ? BEFORE_VALUE : AFTER_VALUE);
+        }
+    }
+
+    private static void seekUpperBound(Cursor cursor, Comparable to, boolean toInclusive) {
+        if (to == null) {
+            cursor.seekLast();
+        } else {
+            cursor.seekFloor(to, toInclusive ? AFTER_VALUE : BEFORE_VALUE);
+        }
+    }
+
+    private static boolean isAboveUpperBound(Comparable value, Comparable to, boolean toInclusive) {
+        if (to == null) {
+            return false;
+        }
+        int order = Comparables.compare(value, to);
+        return order > 0 || order == 0 && !toInclusive;
+    }
+
+    private static boolean isBelowLowerBound(Comparable value, Comparable from, boolean fromInclusive) {
+        if (from == null) {
+            return false;
+        }
+        int order = Comparables.compare(value, from);
+        return order < 0 || order == 0 && !fromInclusive;
+    }
+
+    /**
+     * Iterates over the distinct values in the given range together with
+     * their entries. The entries are collected under the read lock into a
+     * buffer; if the tree is modified between the refills, the iteration
+     * continues after the last collected value.
+     */
+    private final class BatchIterator implements Iterator<IndexKeyEntries> {
+
+        private final Comparable from;
+        private final boolean fromInclusive;
+        private final Comparable to;
+        private final boolean toInclusive;
+        private final boolean descending;
+        private final Cursor cursor = tree.cursor();
+        private final ArrayDeque<IndexKeyEntries> buffer = new ArrayDeque<>();
+
+        private boolean includeNulls;
+        private boolean started;
+        private boolean exhausted;
+        private Comparable lastValue;
+
+        BatchIterator(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive,
+                      boolean descending, boolean includeNulls) {
+            this.from = from;
+            this.fromInclusive = fromInclusive;
+            this.to = to;
+            this.toInclusive = toInclusive;
+            this.descending = descending;
+            this.includeNulls = includeNulls;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (buffer.isEmpty() && !exhausted) {
+                takeReadLock();
+                try {
+                    fill();
+                } finally {
+                    releaseReadLock();
+                }
+            }
+            return !buffer.isEmpty();
+        }
+
+        @Override
+        public IndexKeyEntries next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return buffer.poll();
+        }
+
+        private void fill() {
+            if (!started) {
+                started = true;
+                if (includeNulls && !descending) {
+                    addNullEntries();
+                }
+                seekStart();
+            } else if (!cursor.isValid()) {
+                seekAfterLastValue();
+            }
+
+            int collected = 0;
+            while (collected < ITERATOR_PREFETCH_SIZE && cursor.hasEntry() && !isPastEnd(cursor.value())) {
+                collected += addEntriesOfCurrentValue();
+            }
+            if (collected < ITERATOR_PREFETCH_SIZE) {
+                exhausted = true;
+                if (includeNulls && descending) {
+                    addNullEntries();
+                }
+            }
+        }
+
+        private void seekStart() {
+            if (descending) {
+                seekUpperBound(cursor, to, toInclusive);
+            } else {
+                seekLowerBound(cursor, from, fromInclusive);
+            }
+        }
+
+        private void seekAfterLastValue() {
+            if (descending) {
+                cursor.seekFloor(lastValue, BEFORE_VALUE);
+            } else {
+                cursor.seekCeiling(lastValue, AFTER_VALUE);
+            }
+        }
+
+        private boolean isPastEnd(Comparable value) {
+            return descending ? isBelowLowerBound(value, from, fromInclusive) : isAboveUpperBound(value, to, toInclusive);
+        }
+
+        private int addEntriesOfCurrentValue() {
+            Comparable value = cursor.value();
+            List<QueryableEntry> entries = new ArrayList<>();
+            do {
+                entries.add(cursor.entry());
+                if (descending) {
+                    cursor.previous();
+                } else {
+                    cursor.next();
+                }
+            } while (cursor.hasEntry() && Comparables.compare(cursor.value(), value) == 0);
+            buffer.add(new IndexKeyEntries(value, entries.iterator()));
+            lastValue = value;
+            return entries.size();
+        }
+
+        private void addNullEntries() {
+            includeNulls = false;
+            List<QueryableEntry> entries = new ArrayList<>();
+            Cursor nullCursor = recordsWithNullValue.cursor();
+            // like in OrderedIndexStore, the entries with null values come in ascending order only
+            for (nullCursor.seekFirst(); nullCursor.hasEntry(); nullCursor.next()) {
+                entries.add(nullCursor.entry());
+            }
+            buffer.add(new IndexKeyEntries(null, entries.iterator()));
+        }
+    }
+
+    private static final class EntryIterator implements Iterator<QueryableEntry> {
+
+        private final Iterator<IndexKeyEntries> batches;
+        private Iterator<QueryableEntry> entries = emptyIterator();
+
+        EntryIterator(Iterator<IndexKeyEntries> batches) {
+            this.batches = batches;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!entries.hasNext() && batches.hasNext()) {
+                entries = batches.next().getEntries();
+            }
+            return entries.hasNext();
+        }
+
+        @Override
+        public QueryableEntry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return entries.next();
+        }
+    }
+}
@@ -0,0 +1,552 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.internal.serialization.Data;
+
+import static com.hazelcast.query.impl.OrderedIndexStore.DATA_COMPARATOR;
+
+/**
+ * A B+tree of index entries ordered by the indexed attribute value and
+ * then by the entry key, so every (value, key) pair is unique.
+ * <p>
+ * Nodes keep their keys and children in plain arrays: a lookup does a
+ * binary search in a few wide nodes and a range scan reads the values and
+ * the entries of a leaf sequentially, instead of following a pointer per
+ * entry as a skip list does. Leaves are linked in both directions to
+ * support ascending and descending scans.
+ * <p>
+ * The tree is not thread-safe. Every modification increments the
+ * modification count, {@link Cursor}s use it to detect that their position
+ * might be stale.
+ */
+@SuppressWarnings("rawtypes")
+final class IndexBPlusTree {
+
+    /**
+     * Search bound positioned before all entries having the searched value.
+     */
+    static final int BEFORE_VALUE = -1;
+
+    /**
+     * Search bound positioned after all entries having the searched value.
+     */
+    static final int AFTER_VALUE = 1;
+
+    static final int DEFAULT_NODE_CAPACITY = 64;
+
+    private static final int MIN_NODE_CAPACITY = 4;
+
+    private final int capacity;
+    private final int minSize;
+
+    private Node root;
+    private Leaf firstLeaf;
+    private Leaf lastLeaf;
+    private int modCount;
+
+    // the result of the last insertion into a subtree
+    private QueryableEntry replacedEntry;
+    private Node splitNode;
+    private Comparable splitValue;
+    private Data splitKey;
+
+    IndexBPlusTree() {
+        this(DEFAULT_NODE_CAPACITY);
+    }
+
+    IndexBPlusTree(int capacity) {
+        assert capacity >= MIN_NODE_CAPACITY : capacity;
+        this.capacity = capacity;
+        this.minSize = capacity / 2;
+    }
+
+    /**
+     * Associates the given entry with the given value, replacing the
+     * entry having the same key if there is one.
+     *
+     * @return the replaced entry or {@code null} if there was none.
+     */
+    QueryableEntry put(Comparable value, QueryableEntry entry) {
+        modCount++;
+        if (root == null) {
+            Leaf leaf = new Leaf(capacity);
+            root = leaf;
+            firstLeaf = leaf;
+            lastLeaf = leaf;
+        }
+        replacedEntry = null;
+        splitNode = null;
+        insert(root, value, entry.getKeyData(), entry);
+        if (splitNode != null) {
+            Inner newRoot = new Inner(capacity);
+            newRoot.children[0] = root;
+            newRoot.children[1] = splitNode;
+            newRoot.values[0] = splitValue;
+            newRoot.keys[0] = splitKey;
+            newRoot.size = 2;
+            root = newRoot;
+            splitNode = null;
+        }
+        QueryableEntry replaced = replacedEntry;
+        replacedEntry = null;
+        return replaced;
+    }
+
+    /**
+     * Removes the entry having the given key from the given value.
+     *
+     * @return the removed entry or {@code null} if there was none.
+     */
+    QueryableEntry remove(Comparable value, Data key) {
+        if (root == null) {
+            return null;
+        }
+        modCount++;
+        QueryableEntry removed = delete(root, value, key);
+        if (root.size == 0) {
+            clear();
+        } else if (root.size == 1 && root instanceof Inner) {
+            root = ((Inner) root).children[0];
+        }
+        return removed;
+    }
+
+    void clear() {
+        modCount++;
+        root = null;
+        firstLeaf = null;
+        lastLeaf = null;
+    }
+
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    private void insert(Node node, Comparable value, Data key, QueryableEntry entry) {
+        if (node instanceof Leaf) {
+            insertIntoLeaf((Leaf) node, value, key, entry);
+            return;
+        }
+        Inner inner = (Inner) node;
+        int childIndex = inner.childIndex(value, key, 0);
+        insert(inner.children[childIndex], value, key, entry);
+        if (splitNode != null) {
+            inner.insertChild(childIndex + 1, splitValue, splitKey, splitNode);
+            splitNode = inner.size > capacity ? splitInner(inner) : null;
+        }
+    }
+
+    private void insertIntoLeaf(Leaf leaf, Comparable value, Data key, QueryableEntry entry) {
+        int position = leaf.lowerBound(value, key, 0);
+        if (position < leaf.size && leaf.compare(position, value, key, 0) == 0) {
+            replacedEntry = leaf.entries[position];
+            leaf.values[position] = value;
+            leaf.entries[position] = entry;
+            return;
+        }
+        leaf.insert(position, value, entry);
+        splitNode = leaf.size > capacity ? splitLeaf(leaf) : null;
+    }
+
+    private Leaf splitLeaf(Leaf leaf) {
+        Leaf right = new Leaf(capacity);
+        int leftSize = leaf.size / 2;
+        right.size = leaf.size - leftSize;
+        System.arraycopy(leaf.values, leftSize, right.values, 0, right.size);
+        System.arraycopy(leaf.entries, leftSize, right.entries, 0, right.size);
+        leaf.truncate(leftSize);
+
+        right.next = leaf.next;
+        right.prev = leaf;
+        if (leaf.next == null) {
+            lastLeaf = right;
+        } else {
+            leaf.next.prev = right;
+        }
+        leaf.next = right;
+
+        splitValue = right.values[0];
+        splitKey = right.entries[0].getKeyData();
+        return right;
+    }
+
+    private Inner splitInner(Inner inner) {
+        Inner right = new Inner(capacity);
+        int leftSize = inner.size / 2;
+        right.size = inner.size - leftSize;
+        System.arraycopy(inner.children, leftSize, right.children, 0, right.size);
+        System.arraycopy(inner.values, leftSize, right.values, 0, right.size - 1);
+        System.arraycopy(inner.keys, leftSize, right.keys, 0, right.size - 1);
+
+        splitValue = inner.values[leftSize - 1];
+        splitKey = inner.keys[leftSize - 1];
+        inner.truncate(leftSize);
+        return right;
+    }
+
+    private QueryableEntry delete(Node node, Comparable value, Data key) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int position = leaf.lowerBound(value, key, 0);
+            if (position == leaf.size || leaf.compare(position, value, key, 0) != 0) {
+                return null;
+            }
+            QueryableEntry removed = leaf.entries[position];
+            leaf.remove(position);
+            return removed;
+        }
+        Inner inner = (Inner) node;
+        int childIndex = inner.childIndex(value, key, 0);
+        QueryableEntry removed = delete(inner.children[childIndex], value, key);
+        if (removed != null && inner.children[childIndex].size < minSize && inner.size > 1) {
+            int leftIndex = childIndex + 1 < inner.size ? childIndex : childIndex - 1;
+            if (inner.children[leftIndex] instanceof Leaf) {
+                rebalanceLeaves(inner, leftIndex);
+            } else {
+                rebalanceInners(inner, leftIndex);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Merges the leaf at the given index with its right sibling if both fit
+     * into a single leaf, otherwise evenly redistributes their entries.
+     */
+    private void rebalanceLeaves(Inner parent, int leftIndex) {
+        Leaf left = (Leaf) parent.children[leftIndex];
+        Leaf right = (Leaf) parent.children[leftIndex + 1];
+        int total = left.size + right.size;
+        if (total <= capacity) {
+            System.arraycopy(right.values, 0, left.values, left.size, right.size);
+            System.arraycopy(right.entries, 0, left.entries, left.size, right.size);
+            left.size = total;
+            left.next = right.next;
+            if (right.next == null) {
+                lastLeaf = left;
+            } else {
+                right.next.prev = left;
+            }
+            parent.removeChild(leftIndex + 1);
+            return;
+        }
+        int leftSize = total / 2;
+        if (left.size < leftSize) {
+            int moved = leftSize - left.size;
+            System.arraycopy(right.values, 0, left.values, left.size, moved);
+            System.arraycopy(right.entries, 0, left.entries, left.size, moved);
+            left.size = leftSize;
+            right.removeFirst(moved);
+        } else {
+            int moved = left.size - leftSize;
+            right.prepend(left.values, left.entries, leftSize, moved);
+            left.truncate(leftSize);
+        }
+        parent.values[leftIndex] = right.values[0];
+        parent.keys[leftIndex] = right.entries[0].getKeyData();
+    }
+
+    /**
+     * Merges the inner node at the given index with its right sibling if
+     * both fit into a single node, otherwise evenly redistributes their
+     * children. The separator in the parent moves down into the combined
+     * sequence of separators.
+     */
+    private void rebalanceInners(Inner parent, int leftIndex) {
+        Inner left = (Inner) parent.children[leftIndex];
+        Inner right = (Inner) parent.children[leftIndex + 1];
+        int total = left.size + right.size;
+        Node[] children = new Node[total];
+        Comparable[] values = new Comparable[total - 1];
+        Data[] keys = new Data[total - 1];
+        System.arraycopy(left.children, 0, children, 0, left.size);
+        System.arraycopy(right.children, 0, children, left.size, right.size);
+        System.arraycopy(left.values, 0, values, 0, left.size - 1);
+        System.arraycopy(left.keys, 0, keys, 0, left.size - 1);
+        values[left.size - 1] = parent.values[leftIndex];
+        keys[left.size - 1] = parent.keys[leftIndex];
+        System.arraycopy(right.values, 0, values, left.size, right.size - 1);
+        System.arraycopy(right.keys, 0, keys, left.size, right.size - 1);
+
+        if (total <= capacity) {
+            left.assign(children, values, keys, 0, total);
+            parent.removeChild(leftIndex + 1);
+            return;
+        }
+        int leftSize = total / 2;
+        left.assign(children, values, keys, 0, leftSize);
+        right.assign(children, values, keys, leftSize, total - leftSize);
+        parent.values[leftIndex] = values[leftSize - 1];
+        parent.keys[leftIndex] = keys[leftSize - 1];
+    }
+
+    private Leaf findLeaf(Comparable value, int bound) {
+        Node node = root;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            node = inner.children[inner.childIndex(value, null, bound)];
+        }
+        return (Leaf) node;
+    }
+
+    /**
+     * Compares the given stored pair with the given searched pair. If the
+     * searched key is {@code null}, the searched pair is positioned before or
+     * after all pairs having the searched value according to the given bound.
+     */
+    static int compare(Comparable storedValue, Data storedKey, Comparable value, Data key, int bound) {
+        int order = storedValue == value ? 0 : Comparables.compare(storedValue, value);
+        if (order != 0) {
+            return order;
+        }
+        return key == null ? -bound : DATA_COMPARATOR.compare(storedKey, key);
+    }
+
+    private abstract static class Node {
+
+        final Comparable[] values;
+        int size;
+
+        Node(int length) {
+            this.values = new Comparable[length];
+        }
+    }
+
+    private static final class Leaf extends Node {
+
+        final QueryableEntry[] entries;
+        Leaf prev;
+        Leaf next;
+
+        Leaf(int capacity) {
+            // one extra slot to insert before splitting
+            super(capacity + 1);
+            this.entries = new QueryableEntry[capacity + 1];
+        }
+
+        int compare(int position, Comparable value, Data key, int bound) {
+            return IndexBPlusTree.compare(values[position], entries[position].getKeyData(), value, key, bound);
+        }
+
+        /**
+         * Returns the position of the first pair that is not less than the
+         * searched one.
+         */
+        int lowerBound(Comparable value, Data key, int bound) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(mid, value, key, bound) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        void insert(int position, Comparable value, QueryableEntry entry) {
+            System.arraycopy(values, position, values, position + 1, size - position);
+            System.arraycopy(entries, position, entries, position + 1, size - position);
+            values[position] = value;
+            entries[position] = entry;
+            size++;
+        }
+
+        void remove(int position) {
+            System.arraycopy(values, position + 1, values, position, size - position - 1);
+            System.arraycopy(entries, position + 1, entries, position, size - position - 1);
+            truncate(size - 1);
+        }
+
+        void removeFirst(int count) {
+            System.arraycopy(values, count, values, 0, size - count);
+            System.arraycopy(entries, count, entries, 0, size - count);
+            truncate(size - count);
+        }
+
+        void prepend(Comparable[] fromValues, QueryableEntry[] fromEntries, int from, int count) {
+            System.arraycopy(values, 0, values, count, size);
+            System.arraycopy(entries, 0, entries, count, size);
+            System.arraycopy(fromValues, from, values, 0, count);
+            System.arraycopy(fromEntries, from, entries, 0, count);
+            size += count;
+        }
+
+        void truncate(int newSize) {
+            for (int i = newSize; i < size; i++) {
+                values[i] = null;
+                entries[i] = null;
+            }
+            size = newSize;
+        }
+    }
+
+    /**
+     * An inner node having {@code size} children and {@code size - 1}
+     * separators. All pairs in the subtree of a child are less than the
+     * separator following the child and not less than the separator
+     * preceding it.
+     */
+    private static final class Inner extends Node {
+
+        final Data[] keys;
+        final Node[] children;
+
+        Inner(int capacity) {
+            super(capacity);
+            this.keys = new Data[capacity];
+            this.children = new Node[capacity + 1];
+        }
+
+        /**
+         * Returns the index of the child which subtree may contain the
+         * searched pair: the number of separators not greater than the pair.
+         */
+        int childIndex(Comparable value, Data key, int bound) {
+            int low = 0;
+            int high = size - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (IndexBPlusTree.compare(values[mid], keys[mid], value, key, bound) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        void insertChild(int index, Comparable value, Data key, Node child) {
+            System.arraycopy(children, index, children, index + 1, size - index);
+            System.arraycopy(values, index - 1, values, index, size - index);
+            System.arraycopy(keys, index - 1, keys, index, size - index);
+            children[index] = child;
+            values[index - 1] = value;
+            keys[index - 1] = key;
+            size++;
+        }
+
+        void removeChild(int index) {
+            System.arraycopy(children, index + 1, children, index, size - index - 1);
+            System.arraycopy(values, index, values, index - 1, size - index - 1);
+            System.arraycopy(keys, index, keys, index - 1, size - index - 1);
+            truncate(size - 1);
+        }
+
+        void assign(Node[] fromChildren, Comparable[] fromValues, Data[] fromKeys, int from, int count) {
+            truncate(0);
+            System.arraycopy(fromChildren, from, children, 0, count);
+            System.arraycopy(fromValues, from, values, 0, count - 1);
+            System.arraycopy(fromKeys, from, keys, 0, count - 1);
+            size = count;
+        }
+
+        void truncate(int newSize) {
+            for (int i = newSize; i < size; i++) {
+                children[i] = null;
+            }
+            for (int i = Math.max(newSize - 1, 0); i < size - 1; i++) {
+                values[i] = null;
+                keys[i] = null;
+            }
+            size = newSize;
+        }
+    }
+
+    /**
+     * A position in the tree. The position becomes stale as soon as the tree
+     * is modified, it should be checked with {@link #isValid()} before using
+     * it and re-established with one of the seek methods if needed.
+     */
+    final class Cursor {
+
+        private Leaf leaf;
+        private int position;
+        private int expectedModCount;
+
+        boolean isValid() {
+            return expectedModCount == modCount;
+        }
+
+        boolean hasEntry() {
+            return leaf != null;
+        }
+
+        Comparable value() {
+            return leaf.values[position];
+        }
+
+        QueryableEntry entry() {
+            return leaf.entries[position];
+        }
+
+        void seekFirst() {
+            reset(firstLeaf, 0);
+        }
+
+        void seekLast() {
+            reset(lastLeaf, lastLeaf == null ? 0 : lastLeaf.size - 1);
+        }
+
+        /**
+         * Positions the cursor at the first entry following the given bound.
+         */
+        void seekCeiling(Comparable value, int bound) {
+            Leaf found = root == null ? null : findLeaf(value, bound);
+            reset(found, found == null ? 0 : found.lowerBound(value, null, bound));
+            if (leaf != null && position == leaf.size) {
+                next();
+            }
+        }
+
+        /**
+         * Positions the cursor at the last entry preceding the given bound.
+         */
+        void seekFloor(Comparable value, int bound) {
+            Leaf found = root == null ? null : findLeaf(value, bound);
+            reset(found, found == null ? 0 : found.lowerBound(value, null, bound) - 1);
+            if (leaf != null && position < 0) {
+                previous();
+            }
+        }
+
+        void next() {
+            position++;
+            if (position >= leaf.size) {
+                leaf = leaf.next;
+                position = 0;
+            }
+        }
+
+        void previous() {
+            position--;
+            if (position < 0) {
+                leaf = leaf.prev;
+                position = leaf == null ? 0 : leaf.size - 1;
+            }
+        }
+
+        private void reset(Leaf leaf, int position) {
+            this.leaf = leaf;
+            this.position = position;
+            this.expectedModCount = modCount;
+        }
+    }
+}
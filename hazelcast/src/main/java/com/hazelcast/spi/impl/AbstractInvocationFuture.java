@@ -724,7 +724,7 @@ public abstract class AbstractInvocationFuture<V> extends InternalCompletableFut
             final Object oldState = state;
             if (compareAndSetState(oldState, value)) {
                 onComplete();
-                unblockAll(oldState, defaultExecutor());
+                unblockAllOnCompletion(oldState);
                 break;
             }
         }
@@ -746,6 +746,63 @@ public abstract class AbstractInvocationFuture<V> extends InternalCompletableFut
         return dependents;
     }
 
+    /**
+     * Returns the executor which must run the dependent actions of a
+     * completion made by the current thread, when some of them would
+     * otherwise run on it, or {@code null} if the current thread may run
+     * them. Called by the completing thread.
+     */
+    protected Executor completingThreadOffloadExecutor() {
+        return null;
+    }
+
+    /**
+     * Unblocks the waiters of the state replaced by a completion. The state
+     * is the exact set of dependents of the completion, the ones registered
+     * later run on their registering thread, so the decision to offload
+     * can't miss any of them.
+     */
+    private void unblockAllOnCompletion(Object oldState) {
+        Executor offloadExecutor = completingThreadOffloadExecutor();
+        if (offloadExecutor == null || isCompletionOffloaded(oldState)) {
+            unblockAll(oldState, defaultExecutor());
+            return;
+        }
+        try {
+            offloadExecutor.execute(() -> unblockAll(oldState, defaultExecutor()));
+        } catch (RejectedExecutionException e) {
+            // the dependents must run even if the executor is shut down
+            unblockAll(oldState, defaultExecutor());
+        }
+    }
+
+    /**
+     * Checks if unblocking the waiters of the given state runs no dependent
+     * action on the calling thread: threads blocked on the future are only
+     * unparked and the registered actions are handed over to the
+     * {@link #defaultExecutor() default executor}.
+     */
+    private boolean isCompletionOffloaded(Object state) {
+        Object current = state;
+        while (current instanceof WaitNode) {
+            WaitNode waitNode = (WaitNode) current;
+            if (!isOffloaded(waitNode.waiter, waitNode.executor)) {
+                return false;
+            }
+            current = waitNode.next;
+        }
+        return current == UNRESOLVED || isOffloaded(current, defaultExecutor());
+    }
+
+    private boolean isOffloaded(Object waiter, Executor executor) {
+        if (waiter instanceof Thread) {
+            return true;
+        }
+        // exceptionally() functions run on the completing thread, regardless of the executor
+        return waiter instanceof Waiter && !(waiter instanceof ExceptionallyNode)
+                && executor == defaultExecutor() && executor != ConcurrencyUtil.CALLER_RUNS;
+    }
+
     private void unblockAll(Object waiter, Executor executor) {
         while (waiter != null) {
             if (waiter instanceof Thread) {
@@ -1232,7 +1289,7 @@ public abstract class AbstractInvocationFuture<V> extends InternalCompletableFut
             }
             if (compareAndSetState(oldState, value)) {
                 onComplete();
-                unblockAll(oldState, defaultExecutor());
+                unblockAllOnCompletion(oldState);
                 return true;
             }
         }
@@ -99,6 +99,24 @@ public interface ExecutionService {
      */
     String MAP_LOAD_ALL_KEYS_EXECUTOR = "hz:map-loadAllKeys";
 
+    /**
+     * The name of the executor that loads a split of the entry keys and
+     * dispatches the keys to the partition owners for value loading. It is
+     * separate from {@link #MAP_LOAD_ALL_KEYS_EXECUTOR}, whose tasks wait for
+     * the splits to be loaded.
+     *
+     * @see com.hazelcast.map.SplittableMapLoader#loadAllKeys(int, int)
+     */
+    String MAP_LOAD_KEY_SPLITS_EXECUTOR = "hz:map-loadKeySplits";
+
+    /**
+     * Name of the executor that stores the write-behind batches of a map
+     * in parallel.
+     *
+     * @see com.hazelcast.spi.properties.ClusterProperty#MAP_WRITE_BEHIND_FLUSH_PARALLELISM
+     */
+    String MAP_WRITE_BEHIND_EXECUTOR = "hz:map-write-behind";
+
     /**
      * Name of the Management Center executor. Used to execute blocking tasks
      * related with operations run by Management Center.
@@ -24,6 +24,7 @@ import com.hazelcast.internal.metrics.StaticMetricsProvider;
 import com.hazelcast.internal.nio.Packet;
 import com.hazelcast.internal.util.ThreadAffinity;
 import com.hazelcast.internal.util.concurrent.IdleStrategy;
+import com.hazelcast.internal.util.concurrent.MPSCArrayQueue;
 import com.hazelcast.internal.util.concurrent.MPSCQueue;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.logging.LoggingService;
@@ -42,6 +43,7 @@ import com.hazelcast.spi.properties.HazelcastProperty;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import java.util.BitSet;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 
@@ -63,6 +65,8 @@ import static com.hazelcast.internal.util.ThreadUtil.createThreadPoolName;
 import static com.hazelcast.spi.impl.operationservice.impl.InboundResponseHandlerSupplier.getIdleStrategy;
 import static com.hazelcast.spi.properties.ClusterProperty.GENERIC_OPERATION_THREAD_COUNT;
 import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_COUNT;
+import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_OPERATION_QUEUE_CAPACITY;
+import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_OPERATION_QUEUE_TYPE;
 import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_OPERATION_THREAD_COUNT;
 import static com.hazelcast.spi.properties.ClusterProperty.PRIORITY_GENERIC_OPERATION_THREAD_COUNT;
 import static java.util.concurrent.TimeUnit.SECONDS;
@@ -159,19 +163,24 @@ public final class OperationExecutorImpl implements OperationExecutor, StaticMet
         }
 
         IdleStrategy idleStrategy = getIdleStrategy(properties, IDLE_STRATEGY);
+        boolean arrayQueue = useArrayQueue(properties);
+        int queueCapacity = properties.getInteger(PARTITION_OPERATION_QUEUE_CAPACITY);
         PartitionOperationThread[] threads = new PartitionOperationThread[threadCount];
         for (int threadId = 0; threadId < threads.length; threadId++) {
             String threadName = createThreadPoolName(hzName, "partition-operation") + threadId;
             // the normalQueue will be a blocking queue. We don't want to idle, because there are many operation threads.
-            MPSCQueue<Object> normalQueue = new MPSCQueue<>(idleStrategy);
-
-            OperationQueue operationQueue = new OperationQueueImpl(normalQueue, new ConcurrentLinkedQueue<>());
-
-            PartitionOperationThread partitionThread = new PartitionOperationThread(threadName, threadId, operationQueue, logger,
-                    nodeExtension, partitionOperationRunners, configClassLoader);
+            PartitionOperationThread partitionThread;
+            if (arrayQueue) {
+                MPSCArrayQueue<Object> normalQueue = new MPSCArrayQueue<>(queueCapacity, idleStrategy);
+                partitionThread = newPartitionThread(threadName, threadId, normalQueue, nodeExtension, configClassLoader);
+                normalQueue.setConsumerThread(partitionThread);
+            } else {
+                MPSCQueue<Object> normalQueue = new MPSCQueue<>(idleStrategy);
+                partitionThread = newPartitionThread(threadName, threadId, normalQueue, nodeExtension, configClassLoader);
+                normalQueue.setConsumerThread(partitionThread);
+            }
             partitionThread.setThreadAffinity(threadAffinity);
             threads[threadId] = partitionThread;
-            normalQueue.setConsumerThread(partitionThread);
         }
 
         // we need to assign the PartitionOperationThreads to all OperationRunners they own
@@ -185,6 +194,24 @@ public final class OperationExecutorImpl implements OperationExecutor, StaticMet
         return threads;
     }
 
+    private PartitionOperationThread newPartitionThread(String threadName, int threadId, BlockingQueue<Object> normalQueue,
+                                                        NodeExtension nodeExtension, ClassLoader configClassLoader) {
+        OperationQueue operationQueue = new OperationQueueImpl(normalQueue, new ConcurrentLinkedQueue<>());
+        return new PartitionOperationThread(threadName, threadId, operationQueue, logger,
+                nodeExtension, partitionOperationRunners, configClassLoader);
+    }
+
+    private static boolean useArrayQueue(HazelcastProperties properties) {
+        String queueType = properties.getString(PARTITION_OPERATION_QUEUE_TYPE);
+        if ("linked".equals(queueType)) {
+            return false;
+        } else if ("array".equals(queueType)) {
+            return true;
+        } else {
+            throw new IllegalStateException("Unrecognized " + PARTITION_OPERATION_QUEUE_TYPE.getName() + " value=" + queueType);
+        }
+    }
+
     static int getPartitionThreadId(int partitionId, int partitionThreadCount) {
         return partitionId % partitionThreadCount;
     }
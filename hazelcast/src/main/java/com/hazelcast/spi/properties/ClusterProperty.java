@@ -305,6 +305,44 @@ public final class ClusterProperty {
     public static final HazelcastProperty IO_WRITE_THROUGH_ENABLED
             = new HazelcastProperty("hazelcast.io.write.through", true);
 
+    /**
+     * Optimization that lets packets whose payload doesn't fit in the socket
+     * send buffer be written to the socket straight from the payload using a
+     * gathering write, instead of being copied through the send buffer. The
+     * same applies to the frames of the messages sent to clients. Has no
+     * effect on connections whose bytes are transformed before being
+     * written, e.g. TLS.
+     * <p>
+     * It is disabled by default.
+     */
+    public static final HazelcastProperty IO_WRITE_GATHERING_ENABLED
+            = new HazelcastProperty("hazelcast.io.write.gathering", false);
+
+    /**
+     * Enables the compression of the payload of packets sent to other
+     * members. Only payloads of at least {@link #IO_COMPRESSION_THRESHOLD}
+     * bytes are compressed, and only if compression makes them smaller. It
+     * trades CPU time for network bandwidth; the {@code tcp.compression}
+     * metrics show the achieved ratio and the time spent.
+     * <p>
+     * A member decompresses the packets it receives whether this property
+     * is enabled on it or not, but members of versions without compression
+     * support can't read them.
+     * <p>
+     * It is disabled by default.
+     */
+    public static final HazelcastProperty IO_COMPRESSION_ENABLED
+            = new HazelcastProperty("hazelcast.io.compression.enabled", false);
+
+    /**
+     * The minimum size in bytes of a packet payload to be compressed, see
+     * {@link #IO_COMPRESSION_ENABLED}. It also applies to Jet edges with
+     * {@link com.hazelcast.jet.config.EdgeConfig#setCompressionEnabled(boolean)
+     * compression} enabled.
+     */
+    public static final HazelcastProperty IO_COMPRESSION_THRESHOLD
+            = new HazelcastProperty("hazelcast.io.compression.threshold", 1024);
+
     /**
      * Property needed for concurrency detection so that write through can be
      * done correctly.
@@ -1063,6 +1101,18 @@ public final class ClusterProperty {
     public static final HazelcastProperty INDEX_COPY_BEHAVIOR
             = new HazelcastProperty("hazelcast.index.copy.behavior", IndexCopyBehavior.COPY_ON_READ.toString());
 
+    /**
+     * Makes the sorted indexes of maps store their entries in a B+tree with
+     * array-backed nodes instead of nested skip lists. This reduces the heap
+     * footprint of the indexes of large maps and speeds up range scans.
+     * Sorted indexes of maps with the {@code NATIVE} in-memory format
+     * always use the B+tree.
+     * <p>
+     * The default is {@code false}.
+     */
+    public static final HazelcastProperty INDEX_BPLUS_TREE_ENABLED
+            = new HazelcastProperty("hazelcast.index.bplustree.enabled", false);
+
     /**
      * The number of threads that the client engine has available for processing
      * requests that are related to the query engine.
@@ -1141,6 +1191,16 @@ public final class ClusterProperty {
     public static final HazelcastProperty MAP_LOAD_CHUNK_SIZE
             = new HazelcastProperty("hazelcast.map.load.chunk.size", 1000);
 
+    /**
+     * The maximum number of key batches a member dispatches to the partition
+     * owners for value loading without waiting for them to be acknowledged.
+     * Once this many batches are in flight, the member stops pulling keys
+     * from the {@link com.hazelcast.map.MapLoader} until the oldest batch
+     * is acknowledged.
+     */
+    public static final HazelcastProperty MAP_LOAD_MAX_IN_FLIGHT_BATCHES
+            = new HazelcastProperty("hazelcast.map.load.max.in.flight.batches", 100);
+
     /**
      * Scheduler delay for map tasks those are executed on backup members.
      */
@@ -1211,6 +1271,52 @@ public final class ClusterProperty {
     public static final HazelcastProperty MAP_WRITE_BEHIND_QUEUE_CAPACITY
             = new HazelcastProperty("hazelcast.map.write.behind.queue.capacity", 50000);
 
+    /**
+     * The maximum number of write-behind batches of a map that a member
+     * stores in parallel.
+     * <p>
+     * Only used for maps with {@code writeCoalescing} enabled and a
+     * {@code writeBatchSize} greater than 1. In that case, the entries
+     * collected by a write-behind run have distinct keys, so the batches
+     * can be stored in any order. The batches are stored on the
+     * {@code hz:map-write-behind} executor, which can be sized with an
+     * executor config of the same name.
+     * <p>
+     * The default value 1 stores the batches one after the other on the
+     * write-behind thread. Set it higher only if the {@code MapStore}
+     * implementation is thread-safe.
+     */
+    public static final HazelcastProperty MAP_WRITE_BEHIND_FLUSH_PARALLELISM
+            = new HazelcastProperty("hazelcast.map.write.behind.flush.parallelism", 1);
+
+    /**
+     * Enables the local persistence of the maps with data persistence
+     * enabled, when {@link com.hazelcast.config.PersistenceConfig persistence}
+     * is enabled on the member. The data of each partition replica is
+     * written to a log under {@code <base-dir>/maps} and restored in the
+     * background when the member restarts.
+     * <p>
+     * This is not Hot Restart: the partition table and the expiration
+     * metadata of the entries are not persisted. Without this property
+     * enabling persistence requires Hazelcast Enterprise Edition.
+     */
+    public static final HazelcastProperty MAP_LOCAL_PERSISTENCE_ENABLED
+            = new HazelcastProperty("hazelcast.map.local.persistence.enabled", false);
+
+    /**
+     * Enables the local persistence of the CP state of the member when
+     * {@link com.hazelcast.config.cp.CPSubsystemConfig#isPersistenceEnabled()
+     * CP persistence} is enabled. The CP identity, the CP metadata and the
+     * Raft state of each CP group are kept in a directory of the member under
+     * {@link com.hazelcast.config.cp.CPSubsystemConfig#getBaseDir()} and are
+     * restored before the member joins the cluster.
+     * <p>
+     * Without this property CP persistence requires Hazelcast Enterprise
+     * Edition.
+     */
+    public static final HazelcastProperty CP_LOCAL_PERSISTENCE_ENABLED
+            = new HazelcastProperty("hazelcast.cp.local.persistence.enabled", false);
+
     /*
      * INVOCATION / OPERATION SYSTEM PROPERTIES
      */
@@ -1352,6 +1458,34 @@ public final class ClusterProperty {
             = new HazelcastProperty("hazelcast.operation.thread.count",
             (Function<HazelcastProperties, Integer>) properties -> max(2, RuntimeAvailableProcessors.get()));
 
+    /**
+     * The type of the queue the partition operation threads take their
+     * operations from:
+     * <ul>
+     * <li>{@code linked}: an unbounded lock-free queue which allocates a node
+     * per operation. This is the default.</li>
+     * <li>{@code array}: a lock-free queue backed by a ring buffer of
+     * {@link #PARTITION_OPERATION_QUEUE_CAPACITY} slots, which doesn't
+     * allocate as long as the backlog of a thread fits the ring. Operations
+     * beyond the capacity are still accepted, they are kept in an
+     * unbounded overflow queue until the backlog is drained.</li>
+     * </ul>
+     * The {@code array} queue is experimental. No throughput, latency or
+     * allocation gain over the default has been measured yet; compare both
+     * with the {@code OperationQueueBenchmark} of the hazelcast-jmh module on
+     * the target hardware before switching.
+     */
+    public static final HazelcastProperty PARTITION_OPERATION_QUEUE_TYPE
+            = new HazelcastProperty("hazelcast.operation.partitionthread.queue.type", "linked");
+
+    /**
+     * The number of slots of the ring buffer of every partition operation
+     * thread when the {@code array} {@link #PARTITION_OPERATION_QUEUE_TYPE}
+     * is used. It is rounded up to the next power of two.
+     */
+    public static final HazelcastProperty PARTITION_OPERATION_QUEUE_CAPACITY
+            = new HazelcastProperty("hazelcast.operation.partitionthread.queue.capacity", 16384);
+
     /**
      * The number of generic operation handler threads per member.
      * <p>
@@ -1742,6 +1876,112 @@ public final class ClusterProperty {
             = new HazelcastProperty("hazelcast.jet.idle.noncooperative.max.microseconds", 5000, MICROSECONDS)
             .setDeprecatedName("jet.idle.noncooperative.max.microseconds");
 
+    /**
+     * Enables work stealing between the cooperative worker threads. A worker
+     * which is idle takes over a tasklet from a worker which is busy almost
+     * all the time and has more than one tasklet. This evens out the load
+     * when tasklets with very different costs were assigned to the same
+     * worker, at the cost of measuring the time of each tasklet call.
+     * <p>
+     * A tasklet is never called by two threads at the same time, but it can
+     * be called by a different thread than in the previous call, so the
+     * processors must not rely on thread-local state between the calls.
+     * The default value is {@code false}.
+     *
+     * @since 5.2
+     */
+    public static final HazelcastProperty JET_COOPERATIVE_WORK_STEALING
+            = new HazelcastProperty("hazelcast.jet.cooperative.work.stealing", false);
+
+    /**
+     * If enabled, Jet runs the non-cooperative tasklets on virtual threads
+     * instead of one platform thread per tasklet. This includes the
+     * non-cooperative sources and sinks and the {@code mapUsingService}
+     * stages with a non-cooperative service, so that a member can host
+     * thousands of blocking connectors. The member also reports how many
+     * times and for how long the virtual threads pinned their carrier
+     * thread, which blocks it for other virtual threads.
+     * <p>
+     * Virtual threads are detected at runtime, on a JVM without them the
+     * property is ignored and platform threads are used. The default value
+     * is {@code false}.
+     *
+     * @since 5.2
+     */
+    public static final HazelcastProperty JET_NONCOOPERATIVE_VIRTUAL_THREADS
+            = new HazelcastProperty("hazelcast.jet.noncooperative.virtual.threads", false);
+
+    /**
+     * If enabled, the receive window of the distributed Jet edges is sized
+     * from the measured round-trip time between the members and the rate at
+     * which the receiver processes the data, similarly to the BBR congestion
+     * control: the window is twice the bandwidth-delay product. Otherwise the
+     * window is sized from the processing rate only, multiplied by the {@link
+     * com.hazelcast.jet.config.EdgeConfig#setReceiveWindowMultiplier(int)
+     * receive window multiplier}, which is ignored when this property is
+     * enabled.
+     * <p>
+     * The property only affects the receiving side of the edges, the members
+     * of a cluster don't have to use the same value. The default value is
+     * {@code false}.
+     *
+     * @since 5.2
+     */
+    public static final HazelcastProperty JET_FLOW_CONTROL_ADAPTIVE_WINDOW
+            = new HazelcastProperty("hazelcast.jet.flow.control.adaptive.window", false);
+
+    /**
+     * The maximum number of incremental snapshots a Jet job takes after a full
+     * snapshot. The processors which support it (session and sliding window
+     * aggregation and stateful mapping) save only the keys changed since the
+     * previous successful snapshot into an incremental snapshot, other
+     * processors save their full state. When the limit is reached, the next
+     * snapshot is a full one and the older snapshots are deleted. The state
+     * is restored from the full snapshot and all incremental snapshots taken
+     * after it. Exported snapshots are always full.
+     * <p>
+     * The entries of a snapshot chain arrive in no particular order, so when
+     * restoring, a processor supporting incremental snapshots first holds on
+     * the heap the latest entries of each key from all snapshots of the
+     * chain, and only then gets them. Restoring can therefore temporarily
+     * need about as much additional memory as the restored state itself,
+     * plus the entries of the keys changed by the incremental snapshots.
+     * Keep this in mind when sizing the members of jobs with large state.
+     * <p>
+     * The default value {@code 0} disables incremental snapshots.
+     *
+     * @since 5.2
+     */
+    public static final HazelcastProperty JET_SNAPSHOT_MAX_INCREMENTAL_COUNT
+            = new HazelcastProperty("hazelcast.jet.snapshot.max.incremental.count", 0);
+
+    /**
+     * The store for the state of Jet jobs saved in regular snapshots. With the
+     * default value {@code imap} the state is stored in an {@code IMap}, with
+     * {@code local-disk} each member appends the chunks it saves to a file in
+     * the {@link #JET_SNAPSHOT_STORE_DIRECTORY} and copies them to one other
+     * member. The heap then contains only a small validation record for each
+     * snapshot. Exported snapshots are always stored in an {@code IMap}.
+     * <p>
+     * The value must be the same on all members.
+     *
+     * @since 5.2
+     */
+    public static final HazelcastProperty JET_SNAPSHOT_STORE
+            = new HazelcastProperty("hazelcast.jet.snapshot.store", "imap");
+
+    /**
+     * The directory where the {@code local-disk} {@link #JET_SNAPSHOT_STORE}
+     * writes the snapshot chunk files. Each member uses a subdirectory named
+     * after its address and deletes its contents when it starts.
+     * <p>
+     * The default value is {@code jet-snapshots} in the working directory.
+     *
+     * @since 5.2
+     */
+    public static final HazelcastProperty JET_SNAPSHOT_STORE_DIRECTORY
+            = new HazelcastProperty("hazelcast.jet.snapshot.store.directory", "jet-snapshots");
+
     /**
      * The directory containing jars, that can be used to specify custom classpath for
      * a stage in a pipeline.
@@ -1752,6 +1992,24 @@ public final class ClusterProperty {
     public static final HazelcastProperty PROCESSOR_CUSTOM_LIB_DIR
             = new HazelcastProperty("hazelcast.jet.custom.lib.dir", "custom-lib");
 
+    /**
+     * The directory to which the batch sorting and grouping processors spill
+     * their state once they accumulate {@link
+     * com.hazelcast.jet.config.JetConfig#setMaxProcessorAccumulatedRecords
+     * maxProcessorAccumulatedRecords} items. The state is written to
+     * temporary files, which are merged and deleted when the processor
+     * completes.
+     * <p>
+     * Grouping can only spill if the aggregate operation has a combining
+     * function.
+     * <p>
+     * Not set by default: a job exceeding the limit fails instead.
+     *
+     * @since 5.2
+     */
+    public static final HazelcastProperty JET_SPILL_DIRECTORY
+            = new HazelcastProperty("hazelcast.jet.spill.directory");
+
     /**
      * Controls whether cluster emojis can be used in log messages. This is just a hint for components calling the logging.
      *
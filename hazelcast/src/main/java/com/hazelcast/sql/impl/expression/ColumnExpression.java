@@ -81,6 +81,10 @@ public final class ColumnExpression<T> implements Expression<T>, IdentifiedDataS
         return (T) res;
     }
 
+    public int getIndex() {
+        return index;
+    }
+
     @Override
     public QueryDataType getType() {
         return type;
@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.expression.vector;
+
+import com.hazelcast.sql.impl.QueryException;
+import com.hazelcast.sql.impl.SqlErrorCode;
+import com.hazelcast.sql.impl.expression.ExpressionEvalContext;
+import com.hazelcast.sql.impl.type.QueryDataType;
+import com.hazelcast.sql.impl.type.QueryDataTypeFamily;
+
+/**
+ * Vectorized numeric {@link com.hazelcast.sql.impl.expression.math.PlusFunction},
+ * {@link com.hazelcast.sql.impl.expression.math.MinusFunction} and
+ * {@link com.hazelcast.sql.impl.expression.math.MultiplyFunction}.
+ * <p>
+ * The overflow behaviour of every result type matches the row-based functions:
+ * {@code TINYINT}, {@code SMALLINT} and {@code INTEGER} wrap around,
+ * {@code BIGINT} fails and {@code REAL} is computed with {@code float}
+ * precision.
+ */
+final class ArithmeticVectorExpression implements VectorExpression {
+
+    private final VectorExpression left;
+    private final VectorExpression right;
+    private final Operator operator;
+    private final QueryDataTypeFamily family;
+    private final ColumnVector result;
+    private final Selection nonNull;
+
+    ArithmeticVectorExpression(
+            VectorExpression left,
+            VectorExpression right,
+            Operator operator,
+            QueryDataType resultType,
+            int capacity
+    ) {
+        this.left = left;
+        this.right = right;
+        this.operator = operator;
+        this.family = resultType.getTypeFamily();
+        this.result = new ColumnVector(resultType, capacity);
+        this.nonNull = new Selection(capacity);
+    }
+
+    @Override
+    public ColumnVector eval(ColumnBatch batch, Selection selection, ExpressionEvalContext context) {
+        result.ensureCapacity(batch.size());
+
+        ColumnVector leftValues = left.eval(batch, selection, context);
+        VectorKernels.selectNonNull(leftValues, selection, nonNull, result);
+
+        ColumnVector rightValues = right.eval(batch, nonNull, context);
+
+        switch (family) {
+            case TINYINT:
+            case SMALLINT:
+            case INTEGER:
+                evalWrapping(leftValues, rightValues);
+                break;
+
+            case BIGINT:
+                evalExact(leftValues, rightValues);
+                break;
+
+            case REAL:
+                evalReal(leftValues, rightValues);
+                break;
+
+            case DOUBLE:
+                evalDouble(leftValues, rightValues);
+                break;
+
+            default:
+                throw new IllegalArgumentException("Unexpected result family: " + family);
+        }
+
+        return result;
+    }
+
+    private void evalWrapping(ColumnVector leftValues, ColumnVector rightValues) {
+        for (int i = 0; i < nonNull.size(); i++) {
+            int position = nonNull.get(i);
+
+            if (rightValues.isNull(position)) {
+                result.setNull(position);
+            } else {
+                // The low-order bits of a long operation are the same as of the narrower one
+                long value = operator.apply(leftValues.getLong(position), rightValues.getLong(position));
+                result.setLong(position, narrow(value));
+            }
+        }
+    }
+
+    private void evalExact(ColumnVector leftValues, ColumnVector rightValues) {
+        for (int i = 0; i < nonNull.size(); i++) {
+            int position = nonNull.get(i);
+
+            if (rightValues.isNull(position)) {
+                result.setNull(position);
+            } else {
+                result.setLong(position, operator.applyExact(leftValues.getLong(position), rightValues.getLong(position)));
+            }
+        }
+    }
+
+    private void evalReal(ColumnVector leftValues, ColumnVector rightValues) {
+        for (int i = 0; i < nonNull.size(); i++) {
+            int position = nonNull.get(i);
+
+            if (rightValues.isNull(position)) {
+                result.setNull(position);
+            } else {
+                float value = operator.apply(floatValue(leftValues, position), floatValue(rightValues, position));
+                result.setDouble(position, value);
+            }
+        }
+    }
+
+    private void evalDouble(ColumnVector leftValues, ColumnVector rightValues) {
+        for (int i = 0; i < nonNull.size(); i++) {
+            int position = nonNull.get(i);
+
+            if (rightValues.isNull(position)) {
+                result.setNull(position);
+            } else {
+                double value = operator.apply(doubleValue(leftValues, position), doubleValue(rightValues, position));
+                result.setDouble(position, value);
+            }
+        }
+    }
+
+    private long narrow(long value) {
+        switch (family) {
+            case TINYINT:
+                return (byte) value;
+
+            case SMALLINT:
+                return (short) value;
+
+            default:
+                return (int) value;
+        }
+    }
+
+    private static float floatValue(ColumnVector values, int position) {
+        return values.getRepresentation() == ColumnVector.Representation.LONG
+                ? (float) values.getLong(position)
+                : (float) values.getDouble(position);
+    }
+
+    private static double doubleValue(ColumnVector values, int position) {
+        return values.getRepresentation() == ColumnVector.Representation.LONG
+                ? (double) values.getLong(position)
+                : values.getDouble(position);
+    }
+
+    /**
+     * Supported arithmetic operators.
+     */
+    enum Operator {
+        PLUS('+'),
+        MINUS('-'),
+        MULTIPLY('*');
+
+        private final char symbol;
+
+        Operator(char symbol) {
+            this.symbol = symbol;
+        }
+
+        long apply(long left, long right) {
+            switch (this) {
+                case PLUS:
+                    return left + right;
+
+                case MINUS:
+                    return left - right;
+
+                default:
+                    return left * right;
+            }
+        }
+
+        long applyExact(long left, long right) {
+            try {
+                switch (this) {
+                    case PLUS:
+                        return Math.addExact(left, right);
+
+                    case MINUS:
+                        return Math.subtractExact(left, right);
+
+                    default:
+                        return Math.multiplyExact(left, right);
+                }
+            } catch (ArithmeticException e) {
+                throw QueryException.error(SqlErrorCode.DATA_EXCEPTION,
+                        "BIGINT overflow in '" + symbol + "' operator (consider adding explicit CAST to DECIMAL)");
+            }
+        }
+
+        float apply(float left, float right) {
+            switch (this) {
+                case PLUS:
+                    return left + right;
+
+                case MINUS:
+                    return left - right;
+
+                default:
+                    return left * right;
+            }
+        }
+
+        double apply(double left, double right) {
+            switch (this) {
+                case PLUS:
+                    return left + right;
+
+                case MINUS:
+                    return left - right;
+
+                default:
+                    return left * right;
+            }
+        }
+    }
+}
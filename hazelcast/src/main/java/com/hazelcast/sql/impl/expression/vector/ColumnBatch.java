@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.expression.vector;
+
+import com.hazelcast.sql.impl.row.Row;
+import com.hazelcast.sql.impl.type.QueryDataType;
+
+import java.util.Arrays;
+
+/**
+ * A batch of rows stored column by column.
+ * <p>
+ * Only the columns referenced by the expressions evaluated over the batch are
+ * materialized, the vectors of the other columns are {@code null}. The batch
+ * is filled row by row with {@link #load(Row)} and reused for the next batch
+ * after {@link #clear()}.
+ * <p>
+ * All referenced columns are extracted eagerly, while the row-based evaluation
+ * extracts a column only when an expression accesses it. An extraction failure
+ * is therefore recorded and rethrown only if the value is accessed.
+ */
+public final class ColumnBatch {
+
+    private final ColumnVector[] columns;
+    private final RuntimeException[][] errors;
+    private boolean hasErrors;
+    private int size;
+
+    ColumnBatch(QueryDataType[] columnTypes, int capacity) {
+        columns = new ColumnVector[columnTypes.length];
+        errors = new RuntimeException[columnTypes.length][];
+
+        for (int i = 0; i < columnTypes.length; i++) {
+            if (columnTypes[i] != null) {
+                columns[i] = new ColumnVector(columnTypes[i], capacity);
+            }
+        }
+    }
+
+    /**
+     * Appends the referenced columns of the given row to the batch.
+     */
+    public void load(Row row) {
+        int position = size;
+
+        for (int i = 0; i < columns.length; i++) {
+            ColumnVector column = columns[i];
+
+            if (column != null) {
+                column.ensureCapacity(position + 1);
+                try {
+                    column.set(position, row.get(i));
+                } catch (RuntimeException e) {
+                    column.setNull(position);
+                    addError(i, position, e);
+                }
+            }
+        }
+
+        size++;
+    }
+
+    public void clear() {
+        size = 0;
+
+        if (hasErrors) {
+            Arrays.fill(errors, null);
+            hasErrors = false;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    ColumnVector getColumn(int index) {
+        return columns[index];
+    }
+
+    /**
+     * Rethrows the first extraction failure of the column at the selected
+     * positions, if any.
+     */
+    void checkErrors(int index, Selection selection) {
+        RuntimeException[] columnErrors = hasErrors ? errors[index] : null;
+        if (columnErrors == null) {
+            return;
+        }
+
+        for (int i = 0; i < selection.size(); i++) {
+            int position = selection.get(i);
+
+            if (position < columnErrors.length && columnErrors[position] != null) {
+                throw columnErrors[position];
+            }
+        }
+    }
+
+    private void addError(int index, int position, RuntimeException error) {
+        RuntimeException[] columnErrors = errors[index];
+
+        if (columnErrors == null) {
+            columnErrors = new RuntimeException[Math.max(position + 1, columns[index].capacity())];
+            errors[index] = columnErrors;
+        } else if (columnErrors.length <= position) {
+            columnErrors = Arrays.copyOf(columnErrors, columns[index].capacity());
+            errors[index] = columnErrors;
+        }
+
+        columnErrors[position] = error;
+        hasErrors = true;
+    }
+}
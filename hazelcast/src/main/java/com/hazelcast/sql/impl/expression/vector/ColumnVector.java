@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.expression.vector;
+
+import com.hazelcast.sql.impl.type.QueryDataType;
+import com.hazelcast.sql.impl.type.QueryDataTypeFamily;
+
+import java.util.Arrays;
+
+/**
+ * A column of values of a single SQL type, stored by row position.
+ * <p>
+ * Integer types ({@code TINYINT} to {@code BIGINT}) are stored in a
+ * {@code long[]}, approximate numeric types ({@code REAL} and {@code DOUBLE})
+ * in a {@code double[]} and {@code BOOLEAN} in a {@code boolean[]}, so that
+ * kernels operating on them do not box. Values of all other types are stored
+ * as objects. {@code NULL} is tracked separately for every representation.
+ * <p>
+ * A vector is not thread-safe, it is reused between batches.
+ */
+public final class ColumnVector {
+
+    private final QueryDataType type;
+    private final Representation representation;
+
+    private boolean[] nulls;
+    private long[] longs;
+    private double[] doubles;
+    private boolean[] booleans;
+    private Object[] objects;
+
+    public ColumnVector(QueryDataType type, int capacity) {
+        this.type = type;
+        this.representation = Representation.of(type.getTypeFamily());
+
+        allocate(capacity);
+    }
+
+    public QueryDataType getType() {
+        return type;
+    }
+
+    Representation getRepresentation() {
+        return representation;
+    }
+
+    public int capacity() {
+        return nulls.length;
+    }
+
+    /**
+     * Ensures that the vector can hold at least the given number of rows,
+     * preserving the current content.
+     */
+    public void ensureCapacity(int capacity) {
+        if (nulls.length >= capacity) {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity, nulls.length << 1);
+
+        nulls = Arrays.copyOf(nulls, newCapacity);
+
+        switch (representation) {
+            case LONG:
+                longs = Arrays.copyOf(longs, newCapacity);
+                break;
+
+            case DOUBLE:
+                doubles = Arrays.copyOf(doubles, newCapacity);
+                break;
+
+            case BOOLEAN:
+                booleans = Arrays.copyOf(booleans, newCapacity);
+                break;
+
+            default:
+                objects = Arrays.copyOf(objects, newCapacity);
+        }
+    }
+
+    public boolean isNull(int position) {
+        return nulls[position];
+    }
+
+    public long getLong(int position) {
+        return longs[position];
+    }
+
+    public double getDouble(int position) {
+        return doubles[position];
+    }
+
+    public boolean getBoolean(int position) {
+        return booleans[position];
+    }
+
+    public Object getObject(int position) {
+        return objects[position];
+    }
+
+    public void setNull(int position) {
+        nulls[position] = true;
+    }
+
+    public void setLong(int position, long value) {
+        nulls[position] = false;
+        longs[position] = value;
+    }
+
+    public void setDouble(int position, double value) {
+        nulls[position] = false;
+        doubles[position] = value;
+    }
+
+    public void setBoolean(int position, boolean value) {
+        nulls[position] = false;
+        booleans[position] = value;
+    }
+
+    public void setObject(int position, Object value) {
+        nulls[position] = false;
+        objects[position] = value;
+    }
+
+    /**
+     * Stores a value in the Java representation used by row-based evaluation,
+     * i.e. the one returned by {@link com.hazelcast.sql.impl.type.converter.Converter#getNormalizedValueClass()}
+     * of the vector's type.
+     */
+    public void set(int position, Object value) {
+        if (value == null) {
+            nulls[position] = true;
+            if (objects != null) {
+                objects[position] = null;
+            }
+            return;
+        }
+
+        switch (representation) {
+            case LONG:
+                setLong(position, ((Number) value).longValue());
+                break;
+
+            case DOUBLE:
+                setDouble(position, ((Number) value).doubleValue());
+                break;
+
+            case BOOLEAN:
+                setBoolean(position, (Boolean) value);
+                break;
+
+            default:
+                setObject(position, value);
+        }
+    }
+
+    /**
+     * Returns the value at the given position in the Java representation used
+     * by row-based evaluation.
+     */
+    @SuppressWarnings("checkstyle:ReturnCount")
+    public Object get(int position) {
+        if (nulls[position]) {
+            return null;
+        }
+
+        switch (type.getTypeFamily()) {
+            case TINYINT:
+                return (byte) longs[position];
+
+            case SMALLINT:
+                return (short) longs[position];
+
+            case INTEGER:
+                return (int) longs[position];
+
+            case BIGINT:
+                return longs[position];
+
+            case REAL:
+                return (float) doubles[position];
+
+            case DOUBLE:
+                return doubles[position];
+
+            case BOOLEAN:
+                return booleans[position];
+
+            default:
+                return objects[position];
+        }
+    }
+
+    private void allocate(int capacity) {
+        nulls = new boolean[capacity];
+
+        switch (representation) {
+            case LONG:
+                longs = new long[capacity];
+                break;
+
+            case DOUBLE:
+                doubles = new double[capacity];
+                break;
+
+            case BOOLEAN:
+                booleans = new boolean[capacity];
+                break;
+
+            default:
+                objects = new Object[capacity];
+        }
+    }
+
+    /**
+     * Physical representation of the values of a vector.
+     */
+    enum Representation {
+        LONG,
+        DOUBLE,
+        BOOLEAN,
+        OBJECT;
+
+        static Representation of(QueryDataTypeFamily family) {
+            switch (family) {
+                case TINYINT:
+                case SMALLINT:
+                case INTEGER:
+                case BIGINT:
+                    return LONG;
+
+                case REAL:
+                case DOUBLE:
+                    return DOUBLE;
+
+                case BOOLEAN:
+                    return BOOLEAN;
+
+                default:
+                    return OBJECT;
+            }
+        }
+    }
+}
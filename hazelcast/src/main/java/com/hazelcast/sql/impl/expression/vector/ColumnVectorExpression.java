@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.expression.vector;
+
+import com.hazelcast.sql.impl.expression.ExpressionEvalContext;
+
+/**
+ * Column access, returns the vector of the column stored in the batch.
+ * Extraction failures of the selected values are rethrown.
+ */
+final class ColumnVectorExpression implements VectorExpression {
+
+    private final int index;
+
+    ColumnVectorExpression(int index) {
+        this.index = index;
+    }
+
+    @Override
+    public ColumnVector eval(ColumnBatch batch, Selection selection, ExpressionEvalContext context) {
+        batch.checkErrors(index, selection);
+
+        return batch.getColumn(index);
+    }
+}
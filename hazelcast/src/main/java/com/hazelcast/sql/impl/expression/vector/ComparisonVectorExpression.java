@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.expression.vector;
+
+import com.hazelcast.sql.impl.expression.ExpressionEvalContext;
+import com.hazelcast.sql.impl.expression.predicate.ComparisonMode;
+import com.hazelcast.sql.impl.type.QueryDataType;
+
+/**
+ * Vectorized {@link com.hazelcast.sql.impl.expression.predicate.ComparisonPredicate}.
+ * <p>
+ * Both operands have the same type, so they share the representation and the
+ * primitive ones are compared without boxing. The right operand is evaluated
+ * only on the rows the left operand is not {@code NULL} for.
+ */
+final class ComparisonVectorExpression implements VectorExpression {
+
+    private final VectorExpression left;
+    private final VectorExpression right;
+    private final ComparisonMode mode;
+    private final ColumnVector result;
+    private final Selection nonNull;
+
+    ComparisonVectorExpression(VectorExpression left, VectorExpression right, ComparisonMode mode, int capacity) {
+        this.left = left;
+        this.right = right;
+        this.mode = mode;
+        this.result = new ColumnVector(QueryDataType.BOOLEAN, capacity);
+        this.nonNull = new Selection(capacity);
+    }
+
+    @Override
+    public ColumnVector eval(ColumnBatch batch, Selection selection, ExpressionEvalContext context) {
+        result.ensureCapacity(batch.size());
+
+        ColumnVector leftValues = left.eval(batch, selection, context);
+        VectorKernels.selectNonNull(leftValues, selection, nonNull, result);
+
+        ColumnVector rightValues = right.eval(batch, nonNull, context);
+
+        switch (leftValues.getRepresentation()) {
+            case LONG:
+                compareLongs(leftValues, rightValues);
+                break;
+
+            case DOUBLE:
+                compareDoubles(leftValues, rightValues);
+                break;
+
+            case BOOLEAN:
+                compareBooleans(leftValues, rightValues);
+                break;
+
+            default:
+                compareObjects(leftValues, rightValues);
+        }
+
+        return result;
+    }
+
+    private void compareLongs(ColumnVector leftValues, ColumnVector rightValues) {
+        for (int i = 0; i < nonNull.size(); i++) {
+            int position = nonNull.get(i);
+
+            if (rightValues.isNull(position)) {
+                result.setNull(position);
+            } else {
+                int order = Long.compare(leftValues.getLong(position), rightValues.getLong(position));
+                result.setBoolean(position, matches(order));
+            }
+        }
+    }
+
+    private void compareDoubles(ColumnVector leftValues, ColumnVector rightValues) {
+        for (int i = 0; i < nonNull.size(); i++) {
+            int position = nonNull.get(i);
+
+            if (rightValues.isNull(position)) {
+                result.setNull(position);
+            } else {
+                // Same total order as Float.compareTo and Double.compareTo used by the row-based evaluation
+                int order = Double.compare(leftValues.getDouble(position), rightValues.getDouble(position));
+                result.setBoolean(position, matches(order));
+            }
+        }
+    }
+
+    private void compareBooleans(ColumnVector leftValues, ColumnVector rightValues) {
+        for (int i = 0; i < nonNull.size(); i++) {
+            int position = nonNull.get(i);
+
+            if (rightValues.isNull(position)) {
+                result.setNull(position);
+            } else {
+                int order = Boolean.compare(leftValues.getBoolean(position), rightValues.getBoolean(position));
+                result.setBoolean(position, matches(order));
+            }
+        }
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private void compareObjects(ColumnVector leftValues, ColumnVector rightValues) {
+        for (int i = 0; i < nonNull.size(); i++) {
+            int position = nonNull.get(i);
+
+            if (rightValues.isNull(position)) {
+                result.setNull(position);
+            } else {
+                int order = ((Comparable) leftValues.getObject(position)).compareTo(rightValues.getObject(position));
+                result.setBoolean(position, matches(order));
+            }
+        }
+    }
+
+    private boolean matches(int order) {
+        switch (mode) {
+            case EQUALS:
+                return order == 0;
+
+            case NOT_EQUALS:
+                return order != 0;
+
+            case GREATER_THAN:
+                return order > 0;
+
+            case GREATER_THAN_OR_EQUAL:
+                return order >= 0;
+
+            case LESS_THAN:
+                return order < 0;
+
+            case LESS_THAN_OR_EQUAL:
+                return order <= 0;
+
+            default:
+                throw new IllegalStateException("unexpected comparison mode: " + mode);
+        }
+    }
+}
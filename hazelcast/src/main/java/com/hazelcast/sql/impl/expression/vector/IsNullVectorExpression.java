@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.expression.vector;
+
+import com.hazelcast.sql.impl.expression.ExpressionEvalContext;
+import com.hazelcast.sql.impl.type.QueryDataType;
+
+/**
+ * Vectorized {@link com.hazelcast.sql.impl.expression.predicate.IsNullPredicate}
+ * and {@link com.hazelcast.sql.impl.expression.predicate.IsNotNullPredicate}.
+ */
+final class IsNullVectorExpression implements VectorExpression {
+
+    private final VectorExpression operand;
+    private final boolean negated;
+    private final ColumnVector result;
+
+    IsNullVectorExpression(VectorExpression operand, boolean negated, int capacity) {
+        this.operand = operand;
+        this.negated = negated;
+        this.result = new ColumnVector(QueryDataType.BOOLEAN, capacity);
+    }
+
+    @Override
+    public ColumnVector eval(ColumnBatch batch, Selection selection, ExpressionEvalContext context) {
+        result.ensureCapacity(batch.size());
+
+        ColumnVector values = operand.eval(batch, selection, context);
+
+        for (int i = 0; i < selection.size(); i++) {
+            int position = selection.get(i);
+
+            result.setBoolean(position, values.isNull(position) != negated);
+        }
+
+        return result;
+    }
+}
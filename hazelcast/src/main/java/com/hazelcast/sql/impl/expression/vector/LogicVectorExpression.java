@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.expression.vector;
+
+import com.hazelcast.sql.impl.expression.ExpressionEvalContext;
+import com.hazelcast.sql.impl.type.QueryDataType;
+
+/**
+ * Vectorized {@link com.hazelcast.sql.impl.expression.predicate.AndPredicate}
+ * and {@link com.hazelcast.sql.impl.expression.predicate.OrPredicate}.
+ * <p>
+ * Follows {@link com.hazelcast.sql.impl.expression.predicate.TernaryLogic}: an
+ * operand is evaluated only on the rows whose result is not decided by the
+ * previous operands yet.
+ */
+final class LogicVectorExpression implements VectorExpression {
+
+    private final VectorExpression[] operands;
+    private final boolean and;
+    private final ColumnVector result;
+    private final Selection undecided;
+    private final Selection next;
+
+    private boolean[] unknown;
+
+    LogicVectorExpression(VectorExpression[] operands, boolean and, int capacity) {
+        this.operands = operands;
+        this.and = and;
+        this.result = new ColumnVector(QueryDataType.BOOLEAN, capacity);
+        this.undecided = new Selection(capacity);
+        this.next = new Selection(capacity);
+        this.unknown = new boolean[capacity];
+    }
+
+    @Override
+    public ColumnVector eval(ColumnBatch batch, Selection selection, ExpressionEvalContext context) {
+        result.ensureCapacity(batch.size());
+        if (unknown.length < batch.size()) {
+            unknown = new boolean[result.capacity()];
+        }
+
+        undecided.copyFrom(selection);
+        for (int i = 0; i < undecided.size(); i++) {
+            unknown[undecided.get(i)] = false;
+        }
+
+        // AND is decided by the first FALSE operand, OR by the first TRUE one
+        boolean decisive = !and;
+
+        for (VectorExpression operand : operands) {
+            if (undecided.size() == 0) {
+                break;
+            }
+
+            ColumnVector values = operand.eval(batch, undecided, context);
+
+            next.clear();
+            for (int i = 0; i < undecided.size(); i++) {
+                int position = undecided.get(i);
+
+                if (values.isNull(position)) {
+                    unknown[position] = true;
+                    next.add(position);
+                } else if (values.getBoolean(position) == decisive) {
+                    result.setBoolean(position, decisive);
+                } else {
+                    next.add(position);
+                }
+            }
+            undecided.copyFrom(next);
+        }
+
+        for (int i = 0; i < undecided.size(); i++) {
+            int position = undecided.get(i);
+
+            if (unknown[position]) {
+                result.setNull(position);
+            } else {
+                result.setBoolean(position, and);
+            }
+        }
+
+        return result;
+    }
+}
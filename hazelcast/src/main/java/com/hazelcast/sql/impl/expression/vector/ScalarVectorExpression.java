@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.expression.vector;
+
+import com.hazelcast.sql.impl.expression.Expression;
+import com.hazelcast.sql.impl.expression.ExpressionEvalContext;
+import com.hazelcast.sql.impl.row.EmptyRow;
+
+/**
+ * Expression which doesn't depend on the row, such as a constant or a dynamic
+ * parameter. It is evaluated once per batch and its value is broadcast to the
+ * selected positions.
+ */
+final class ScalarVectorExpression implements VectorExpression {
+
+    private final Expression<?> expression;
+    private final ColumnVector result;
+
+    ScalarVectorExpression(Expression<?> expression, int capacity) {
+        this.expression = expression;
+        this.result = new ColumnVector(expression.getType(), capacity);
+    }
+
+    @Override
+    public ColumnVector eval(ColumnBatch batch, Selection selection, ExpressionEvalContext context) {
+        result.ensureCapacity(batch.size());
+
+        Object value = expression.eval(EmptyRow.INSTANCE, context);
+
+        for (int i = 0; i < selection.size(); i++) {
+            result.set(selection.get(i), value);
+        }
+
+        return result;
+    }
+}
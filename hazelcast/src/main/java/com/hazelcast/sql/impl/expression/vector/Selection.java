@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.expression.vector;
+
+import java.util.Arrays;
+
+/**
+ * An ordered set of row positions of a {@link ColumnBatch} an expression is
+ * evaluated on. Kernels evaluate operands on narrowed selections to preserve
+ * the short-circuiting behaviour of the row-based evaluation.
+ */
+final class Selection {
+
+    private int[] positions;
+    private int size;
+
+    Selection(int capacity) {
+        positions = new int[capacity];
+    }
+
+    void selectAll(int count) {
+        ensureCapacity(count);
+
+        for (int i = 0; i < count; i++) {
+            positions[i] = i;
+        }
+
+        size = count;
+    }
+
+    void copyFrom(Selection other) {
+        ensureCapacity(other.size);
+        System.arraycopy(other.positions, 0, positions, 0, other.size);
+        size = other.size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    void add(int position) {
+        ensureCapacity(size + 1);
+        positions[size++] = position;
+    }
+
+    int get(int index) {
+        return positions[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (positions.length < capacity) {
+            positions = Arrays.copyOf(positions, Math.max(capacity, positions.length << 1));
+        }
+    }
+}
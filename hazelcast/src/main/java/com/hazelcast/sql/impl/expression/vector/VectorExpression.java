@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.expression.vector;
+
+import com.hazelcast.sql.impl.expression.ExpressionEvalContext;
+
+/**
+ * Vectorized counterpart of an {@link com.hazelcast.sql.impl.expression.Expression}.
+ */
+interface VectorExpression {
+    /**
+     * Evaluates the expression on the selected rows of the batch.
+     * <p>
+     * The value at every selected position of the returned vector is set,
+     * values at other positions are undefined. The returned vector is owned by
+     * the expression and is only valid until its next evaluation.
+     *
+     * @param batch     the batch to evaluate the expression on.
+     * @param selection the positions of the rows to evaluate the expression on.
+     * @param context   the context to evaluate the expression in.
+     * @return the vector of results.
+     */
+    ColumnVector eval(ColumnBatch batch, Selection selection, ExpressionEvalContext context);
+}
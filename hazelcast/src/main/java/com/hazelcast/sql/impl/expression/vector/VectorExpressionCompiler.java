@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.expression.vector;
+
+import com.hazelcast.sql.impl.expression.BiExpression;
+import com.hazelcast.sql.impl.expression.ColumnExpression;
+import com.hazelcast.sql.impl.expression.ConstantExpression;
+import com.hazelcast.sql.impl.expression.Expression;
+import com.hazelcast.sql.impl.expression.ParameterExpression;
+import com.hazelcast.sql.impl.expression.math.MinusFunction;
+import com.hazelcast.sql.impl.expression.math.MultiplyFunction;
+import com.hazelcast.sql.impl.expression.math.PlusFunction;
+import com.hazelcast.sql.impl.expression.predicate.AndPredicate;
+import com.hazelcast.sql.impl.expression.predicate.ComparisonPredicate;
+import com.hazelcast.sql.impl.expression.predicate.IsNotNullPredicate;
+import com.hazelcast.sql.impl.expression.predicate.IsNullPredicate;
+import com.hazelcast.sql.impl.expression.predicate.NotPredicate;
+import com.hazelcast.sql.impl.expression.predicate.OrPredicate;
+import com.hazelcast.sql.impl.expression.vector.ArithmeticVectorExpression.Operator;
+import com.hazelcast.sql.impl.expression.vector.ColumnVector.Representation;
+import com.hazelcast.sql.impl.type.QueryDataType;
+import com.hazelcast.sql.impl.type.QueryDataTypeFamily;
+
+/**
+ * Translates {@link Expression} trees to {@link VectorExpression} trees and
+ * collects the types of the referenced columns.
+ * <p>
+ * Translation methods return {@code null} if the expression or any of its
+ * operands has no vectorized counterpart.
+ */
+final class VectorExpressionCompiler {
+
+    private final QueryDataType[] columnTypes;
+    private final int capacity;
+
+    VectorExpressionCompiler(int columnCount, int capacity) {
+        this.columnTypes = new QueryDataType[columnCount];
+        this.capacity = capacity;
+    }
+
+    QueryDataType[] getColumnTypes() {
+        return columnTypes;
+    }
+
+    /**
+     * Translates a top-level projection. Unlike nested expressions, it may
+     * access a column of the {@code OBJECT} type, whose value is only passed
+     * through.
+     */
+    VectorExpression compileProjection(Expression<?> expression) {
+        if (expression instanceof ColumnExpression) {
+            return column((ColumnExpression<?>) expression);
+        }
+
+        return compile(expression);
+    }
+
+    VectorExpression compile(Expression<?> expression) {
+        if (expression.getType().getTypeFamily() == QueryDataTypeFamily.OBJECT) {
+            return null;
+        }
+
+        if (expression instanceof ColumnExpression) {
+            return column((ColumnExpression<?>) expression);
+        }
+
+        if (expression instanceof ConstantExpression || expression instanceof ParameterExpression) {
+            return new ScalarVectorExpression(expression, capacity);
+        }
+
+        if (expression instanceof ComparisonPredicate) {
+            return comparison((ComparisonPredicate) expression);
+        }
+
+        if (expression instanceof PlusFunction) {
+            return arithmetic((PlusFunction<?>) expression, Operator.PLUS);
+        }
+
+        if (expression instanceof MinusFunction) {
+            return arithmetic((MinusFunction<?>) expression, Operator.MINUS);
+        }
+
+        if (expression instanceof MultiplyFunction) {
+            return arithmetic((MultiplyFunction<?>) expression, Operator.MULTIPLY);
+        }
+
+        return compilePredicate(expression);
+    }
+
+    private VectorExpression compilePredicate(Expression<?> expression) {
+        if (expression instanceof AndPredicate) {
+            return logic(((AndPredicate) expression).getOperands(), true);
+        }
+
+        if (expression instanceof OrPredicate) {
+            return logic(((OrPredicate) expression).getOperands(), false);
+        }
+
+        if (expression instanceof NotPredicate) {
+            VectorExpression operand = compile(((NotPredicate) expression).getOperand());
+            return operand != null ? new NotVectorExpression(operand, capacity) : null;
+        }
+
+        if (expression instanceof IsNullPredicate) {
+            VectorExpression operand = compile(((IsNullPredicate) expression).getOperand());
+            return operand != null ? new IsNullVectorExpression(operand, false, capacity) : null;
+        }
+
+        if (expression instanceof IsNotNullPredicate) {
+            VectorExpression operand = compile(((IsNotNullPredicate) expression).getOperand());
+            return operand != null ? new IsNullVectorExpression(operand, true, capacity) : null;
+        }
+
+        return null;
+    }
+
+    private VectorExpression column(ColumnExpression<?> expression) {
+        columnTypes[expression.getIndex()] = expression.getType();
+
+        return new ColumnVectorExpression(expression.getIndex());
+    }
+
+    private VectorExpression comparison(ComparisonPredicate expression) {
+        VectorExpression left = compile(expression.getOperand1());
+        VectorExpression right = compile(expression.getOperand2());
+
+        if (left == null || right == null) {
+            return null;
+        }
+
+        return new ComparisonVectorExpression(left, right, expression.getMode(), capacity);
+    }
+
+    private VectorExpression arithmetic(BiExpression<?> expression, Operator operator) {
+        Representation resultRepresentation = Representation.of(expression.getType().getTypeFamily());
+        if (resultRepresentation != Representation.LONG && resultRepresentation != Representation.DOUBLE) {
+            // DECIMAL and temporal arithmetic
+            return null;
+        }
+
+        Expression<?> operand1 = expression.getOperand1();
+        Expression<?> operand2 = expression.getOperand2();
+
+        if (!isNumericOperand(operand1, resultRepresentation) || !isNumericOperand(operand2, resultRepresentation)) {
+            return null;
+        }
+
+        VectorExpression left = compile(operand1);
+        VectorExpression right = compile(operand2);
+
+        if (left == null || right == null) {
+            return null;
+        }
+
+        return new ArithmeticVectorExpression(left, right, operator, expression.getType(), capacity);
+    }
+
+    private VectorExpression logic(Expression<?>[] operands, boolean and) {
+        VectorExpression[] vectorOperands = new VectorExpression[operands.length];
+
+        for (int i = 0; i < operands.length; i++) {
+            vectorOperands[i] = compile(operands[i]);
+
+            if (vectorOperands[i] == null) {
+                return null;
+            }
+        }
+
+        return new LogicVectorExpression(vectorOperands, and, capacity);
+    }
+
+    /**
+     * Integer results may only be computed from integer operands, approximate
+     * ones from any numeric operands except {@code DECIMAL}.
+     */
+    private static boolean isNumericOperand(Expression<?> operand, Representation resultRepresentation) {
+        Representation representation = Representation.of(operand.getType().getTypeFamily());
+
+        return representation == Representation.LONG
+                || representation == Representation.DOUBLE && resultRepresentation == Representation.DOUBLE;
+    }
+}
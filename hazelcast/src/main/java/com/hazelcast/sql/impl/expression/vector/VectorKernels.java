@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.expression.vector;
+
+/**
+ * Utility methods shared by the vectorized expressions.
+ */
+final class VectorKernels {
+
+    private VectorKernels() {
+        // No-op.
+    }
+
+    /**
+     * Collects the selected positions with a non-{@code NULL} value into the
+     * {@code target} selection and sets {@code NULL} in the {@code result} for
+     * the others.
+     */
+    static void selectNonNull(ColumnVector values, Selection selection, Selection target, ColumnVector result) {
+        target.clear();
+
+        for (int i = 0; i < selection.size(); i++) {
+            int position = selection.get(i);
+
+            if (values.isNull(position)) {
+                result.setNull(position);
+            } else {
+                target.add(position);
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.expression.vector;
+
+import com.hazelcast.sql.impl.LazyTarget;
+import com.hazelcast.sql.impl.expression.Expression;
+import com.hazelcast.sql.impl.expression.ExpressionEvalContext;
+import com.hazelcast.sql.impl.row.JetSqlRow;
+import com.hazelcast.sql.impl.type.QueryDataType;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * Evaluates a filter and a projection over a {@link ColumnBatch}, which is the
+ * vectorized counterpart of evaluating them with {@code ExpressionUtil.evaluate}
+ * row by row.
+ * <p>
+ * The filter is evaluated for all rows of the batch first, then the
+ * projections are evaluated for the rows that passed. Numeric, boolean and
+ * comparison kernels work on primitive arrays and dispatch once per batch
+ * instead of once per row and value. Only a subset of expressions has a
+ * vectorized counterpart, {@link #create} returns {@code null} if the filter
+ * or any of the projections contains an unsupported expression and the caller
+ * should fall back to the row-based evaluation.
+ * <p>
+ * Instances are not thread-safe, every processor should create its own.
+ */
+public final class VectorizedEvaluator {
+
+    /** Initial capacity of the vectors, they grow on demand. */
+    private static final int DEFAULT_CAPACITY = 128;
+
+    private final VectorExpression filter;
+    private final VectorExpression[] projections;
+    private final QueryDataType[] columnTypes;
+    private final Selection all = new Selection(DEFAULT_CAPACITY);
+    private final Selection selected = new Selection(DEFAULT_CAPACITY);
+
+    private VectorizedEvaluator(VectorExpression filter, VectorExpression[] projections, QueryDataType[] columnTypes) {
+        this.filter = filter;
+        this.projections = projections;
+        this.columnTypes = columnTypes;
+    }
+
+    /**
+     * Creates an evaluator for the given filter and projection.
+     *
+     * @param filter      the filter, or {@code null} if all rows pass.
+     * @param projection  the projection.
+     * @param columnCount the number of columns of the input rows.
+     * @return the evaluator, or {@code null} if the expressions can't be vectorized.
+     */
+    @Nullable
+    public static VectorizedEvaluator create(
+            @Nullable Expression<Boolean> filter,
+            @Nonnull List<Expression<?>> projection,
+            int columnCount
+    ) {
+        VectorExpressionCompiler compiler = new VectorExpressionCompiler(columnCount, DEFAULT_CAPACITY);
+
+        VectorExpression vectorFilter = null;
+        if (filter != null) {
+            vectorFilter = compiler.compile(filter);
+
+            if (vectorFilter == null) {
+                return null;
+            }
+        }
+
+        VectorExpression[] vectorProjections = new VectorExpression[projection.size()];
+        for (int i = 0; i < projection.size(); i++) {
+            vectorProjections[i] = compiler.compileProjection(projection.get(i));
+
+            if (vectorProjections[i] == null) {
+                return null;
+            }
+        }
+
+        return new VectorizedEvaluator(vectorFilter, vectorProjections, compiler.getColumnTypes());
+    }
+
+    /**
+     * Creates an empty batch holding the columns referenced by the filter and
+     * the projection.
+     */
+    public ColumnBatch createBatch() {
+        return new ColumnBatch(columnTypes, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Evaluates the filter and the projection for all rows of the batch and
+     * adds the projected rows, which passed the filter, to the output in the
+     * order of the batch.
+     */
+    public void evaluate(ColumnBatch batch, ExpressionEvalContext context, List<JetSqlRow> output) {
+        all.selectAll(batch.size());
+
+        Selection projected = all;
+        if (filter != null) {
+            ColumnVector passed = filter.eval(batch, all, context);
+
+            selected.clear();
+            for (int i = 0; i < all.size(); i++) {
+                int position = all.get(i);
+
+                if (!passed.isNull(position) && passed.getBoolean(position)) {
+                    selected.add(position);
+                }
+            }
+            projected = selected;
+        }
+
+        if (projected.size() == 0) {
+            return;
+        }
+
+        Object[][] values = new Object[projected.size()][projections.length];
+
+        for (int j = 0; j < projections.length; j++) {
+            ColumnVector column = projections[j].eval(batch, projected, context);
+
+            for (int i = 0; i < projected.size(); i++) {
+                values[i][j] = topValue(column.get(projected.get(i)));
+            }
+        }
+
+        for (Object[] row : values) {
+            output.add(new JetSqlRow(context.getSerializationService(), row));
+        }
+    }
+
+    /**
+     * Same as {@link com.hazelcast.sql.impl.expression.ColumnExpression#evalTop}
+     * for {@code OBJECT} columns passed through without deserialization.
+     */
+    private static Object topValue(Object value) {
+        if (value instanceof LazyTarget) {
+            LazyTarget lazyTarget = (LazyTarget) value;
+            return lazyTarget.getDeserialized() != null ? lazyTarget.getDeserialized() : lazyTarget.getSerialized();
+        }
+
+        return value;
+    }
+}
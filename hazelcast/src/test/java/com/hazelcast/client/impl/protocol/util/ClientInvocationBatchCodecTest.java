@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.client.impl.protocol.util;
+
+import com.hazelcast.client.impl.protocol.ClientMessage;
+import com.hazelcast.client.impl.protocol.codec.ClientPingCodec;
+import com.hazelcast.client.impl.protocol.codec.MapGetCodec;
+import com.hazelcast.client.impl.protocol.codec.MapPutCodec;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class ClientInvocationBatchCodecTest {
+
+    private final InternalSerializationService ss = new DefaultSerializationServiceBuilder().build();
+
+    @Test
+    public void testRoundTrip() {
+        Data key = ss.toData("key");
+        Data value = ss.toData("value");
+        ClientMessage put = MapPutCodec.encodeRequest("map", key, value, 1, -1);
+        put.setCorrelationId(1);
+        put.setPartitionId(7);
+        ClientMessage get = MapGetCodec.encodeRequest("map", key, 2);
+        get.setCorrelationId(2);
+        get.setPartitionId(7);
+        ClientMessage ping = ClientPingCodec.encodeRequest();
+        ping.setCorrelationId(3);
+
+        ClientMessage batch = ClientInvocationBatchCodec.encodeRequest(Arrays.asList(put, get, ping));
+        assertEquals(ClientInvocationBatchCodec.REQUEST_MESSAGE_TYPE, batch.getMessageType());
+        assertEquals(-1, batch.getPartitionId());
+
+        List<ClientMessage> messages = ClientInvocationBatchCodec.decodeRequest(batch);
+        assertEquals(3, messages.size());
+
+        ClientMessage decodedPut = messages.get(0);
+        assertEquals(MapPutCodec.REQUEST_MESSAGE_TYPE, decodedPut.getMessageType());
+        assertEquals(1, decodedPut.getCorrelationId());
+        assertEquals(7, decodedPut.getPartitionId());
+        MapPutCodec.RequestParameters putParameters = MapPutCodec.decodeRequest(decodedPut);
+        assertEquals("map", putParameters.name);
+        assertEquals(key, putParameters.key);
+        assertEquals(value, putParameters.value);
+        assertEquals(1, putParameters.threadId);
+
+        ClientMessage decodedGet = messages.get(1);
+        assertEquals(MapGetCodec.REQUEST_MESSAGE_TYPE, decodedGet.getMessageType());
+        assertEquals(2, decodedGet.getCorrelationId());
+        assertEquals(key, MapGetCodec.decodeRequest(decodedGet).key);
+
+        ClientMessage decodedPing = messages.get(2);
+        assertEquals(ClientPingCodec.REQUEST_MESSAGE_TYPE, decodedPing.getMessageType());
+        assertEquals(3, decodedPing.getCorrelationId());
+    }
+
+    @Test
+    public void testEncode_doesNotModifyMessages() {
+        ClientMessage get = MapGetCodec.encodeRequest("map", ss.toData("key"), 1);
+        get.setCorrelationId(42);
+        int frameLength = get.getFrameLength();
+
+        ClientMessage batch = ClientInvocationBatchCodec.encodeRequest(Collections.singletonList(get));
+        ClientInvocationBatchCodec.decodeRequest(batch);
+
+        assertEquals(42, get.getCorrelationId());
+        assertEquals(frameLength, get.getFrameLength());
+        assertEquals("map", MapGetCodec.decodeRequest(get).name);
+    }
+
+    @Test
+    public void testEmptyBatch() {
+        ClientMessage batch = ClientInvocationBatchCodec.encodeRequest(Collections.emptyList());
+
+        assertTrue(ClientInvocationBatchCodec.decodeRequest(batch).isEmpty());
+    }
+}
@@ -52,9 +52,11 @@ import static com.hazelcast.client.impl.protocol.ClientMessage.IS_FINAL_FLAG;
 import static com.hazelcast.client.impl.protocol.ClientMessage.UNFRAGMENTED_MESSAGE;
 import static com.hazelcast.client.impl.protocol.util.ClientMessageSplitter.getFragments;
 import static com.hazelcast.internal.networking.HandlerStatus.CLEAN;
+import static com.hazelcast.internal.networking.HandlerStatus.DIRTY;
 import static com.hazelcast.internal.util.JVMUtil.upcast;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 @RunWith(HazelcastParallelClassRunner.class)
 @Category({QuickTest.class, ParallelJVMTest.class})
@@ -132,6 +134,53 @@ public class ClientMessageEncoderDecoderTest extends HazelcastTestSupport {
         assertEquals("map", parameters.name);
     }
 
+    @Test
+    public void testPut_whenGatheringEnabled_andValueDoesNotFit() {
+        HeapData value = new HeapData(new byte[2000]);
+        ClientMessage message = MapPutCodec.encodeRequest("map", new HeapData(new byte[100]), value, 5, 10);
+        AtomicReference<ClientMessage> reference = new AtomicReference<>(message);
+
+        ClientMessageEncoder encoder = new ClientMessageEncoder();
+        encoder.src(() -> reference.getAndSet(null));
+        encoder.setGatheringEnabled(true);
+
+        ByteBuffer buffer = ByteBuffer.allocate(1000);
+        upcast(buffer).flip();
+        encoder.dst(buffer);
+
+        // the frames in front of the value are copied, the value is handed over
+        assertEquals(DIRTY, encoder.onWrite());
+        ByteBuffer payload = encoder.payload();
+        assertEquals(value.totalSize(), payload.remaining());
+
+        // nothing is added as long as the value isn't written
+        int written = buffer.remaining();
+        assertEquals(DIRTY, encoder.onWrite());
+        assertEquals(written, buffer.remaining());
+
+        ByteBuffer socket = ByteBuffer.allocate(message.getFrameLength());
+        socket.put(buffer).put(payload);
+
+        // once the value is written, the rest of the message follows
+        assertEquals(CLEAN, encoder.onWrite());
+        assertNull(encoder.payload());
+        socket.put(buffer);
+        upcast(socket).flip();
+
+        AtomicReference<ClientMessage> resultingMessage = new AtomicReference<>();
+        ClientMessageDecoder decoder = new ClientMessageDecoder(null, resultingMessage::set, null);
+        decoder.setNormalPacketsRead(SwCounter.newSwCounter());
+        upcast(socket).position(socket.limit());
+        decoder.src(socket);
+        decoder.onRead();
+
+        MapPutCodec.RequestParameters parameters = MapPutCodec.decodeRequest(resultingMessage.get());
+        assertEquals("map", parameters.name);
+        assertEquals(value, parameters.value);
+        assertEquals(5, parameters.threadId);
+        assertEquals(10, parameters.ttl);
+    }
+
     @Test
     public void testAuthenticationRequest() {
         Collection<String> labels = new LinkedList<>();
@@ -31,6 +31,7 @@ import java.util.Random;
 
 import static com.hazelcast.internal.util.JVMUtil.upcast;
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -198,6 +199,55 @@ public class ClientMessageReaderTest {
         assertFalse(iterator.hasNext());
     }
 
+    @Test
+    public void testReadEmptyFrames() {
+        ClientMessage message = ClientMessage.createForEncode();
+        message.add(createFrameWithRandomBytes(10));
+        message.add(ClientMessage.BEGIN_FRAME.copy());
+        message.add(ClientMessage.NULL_FRAME.copy());
+        message.add(ClientMessage.END_FRAME.copy());
+
+        ByteBuffer buffer = writeToBuffer(message);
+
+        ClientMessageReader reader = new ClientMessageReader(-1);
+        assertTrue(reader.readFrom(buffer, true));
+
+        ClientMessage.ForwardFrameIterator iterator = reader.getClientMessage().frameIterator();
+        iterator.next();
+        assertTrue(iterator.next().isBeginFrame());
+        assertTrue(iterator.next().isNullFrame());
+        ClientMessage.Frame frameRead = iterator.next();
+        assertTrue(frameRead.isEndFrame());
+        assertEquals(0, frameRead.content.length);
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testReadMultipleMessages_whenReaderIsReset() {
+        ClientMessage message1 = ClientMessage.createForEncode();
+        message1.add(createFrameWithRandomBytes(60));
+        ClientMessage message2 = ClientMessage.createForEncode();
+        message2.add(createFrameWithRandomBytes(80));
+
+        ByteBuffer buffer1 = writeToBuffer(message1);
+        ByteBuffer buffer2 = writeToBuffer(message2);
+        ByteBuffer buffer = ByteBuffer.allocate(buffer1.remaining() + buffer2.remaining());
+        buffer.put(buffer1).put(buffer2);
+        upcast(buffer).flip();
+
+        // each message fits in the limit, both together would not
+        ClientMessageReader reader = new ClientMessageReader(100);
+        assertTrue(reader.readFrom(buffer, false));
+        ClientMessage messageRead1 = reader.getClientMessage();
+        reader.reset();
+        assertTrue(reader.readFrom(buffer, false));
+        ClientMessage messageRead2 = reader.getClientMessage();
+
+        assertArrayEquals(message1.getStartFrame().content, messageRead1.getStartFrame().content);
+        assertArrayEquals(message2.getStartFrame().content, messageRead2.getStartFrame().content);
+        assertFalse(buffer.hasRemaining());
+    }
+
     private ClientMessage.Frame createFrameWithRandomBytes(int contentLength) {
         byte[] content = new byte[contentLength];
         random.nextBytes(content);
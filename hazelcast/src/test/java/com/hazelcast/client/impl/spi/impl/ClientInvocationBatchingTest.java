@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.client.impl.spi.impl;
+
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.client.impl.protocol.ClientMessage;
+import com.hazelcast.client.impl.protocol.util.ClientInvocationBatchCodec;
+import com.hazelcast.client.properties.ClientProperty;
+import com.hazelcast.client.test.ClientTestSupport;
+import com.hazelcast.client.test.TestHazelcastFactory;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class ClientInvocationBatchingTest extends ClientTestSupport {
+
+    private static final int ENTRY_COUNT = 1000;
+
+    private final TestHazelcastFactory hazelcastFactory = new TestHazelcastFactory();
+    private HazelcastInstance client;
+
+    @Before
+    public void setUp() {
+        hazelcastFactory.newHazelcastInstance();
+        hazelcastFactory.newHazelcastInstance();
+        ClientConfig config = new ClientConfig()
+                .setProperty(ClientProperty.INVOCATION_BATCHING_DELAY_MICROS.getName(), "100")
+                .setProperty(ClientProperty.INVOCATION_BATCHING_MAX_SIZE.getName(), "16");
+        client = hazelcastFactory.newHazelcastClient(config);
+    }
+
+    @After
+    public void cleanup() {
+        hazelcastFactory.terminateAll();
+    }
+
+    @Test
+    public void testAsyncOperations() {
+        IMap<Integer, Integer> map = client.getMap(randomMapName());
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            futures.add(map.putAsync(i, i).toCompletableFuture());
+        }
+        futures.forEach(CompletableFuture::join);
+        futures.clear();
+
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            futures.add(map.getAsync(i).toCompletableFuture());
+        }
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            assertEquals(i, (int) futures.get(i).join());
+        }
+        assertEquals(ENTRY_COUNT, map.size());
+    }
+
+    @Test
+    public void testSyncOperations() {
+        IMap<Integer, Integer> map = client.getMap(randomMapName());
+        for (int i = 0; i < 100; i++) {
+            map.set(i, i);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, (int) map.get(i));
+        }
+    }
+
+    @Test
+    public void testOperationsFromManyThreads() throws Exception {
+        IMap<Integer, Integer> map = client.getMap(randomMapName());
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            int offset = t * 100;
+            threads[t] = new Thread(() -> {
+                for (int i = offset; i < offset + 100; i++) {
+                    map.set(i, i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(threads.length * 100, map.size());
+        for (int i = 0; i < threads.length * 100; i++) {
+            assertEquals(i, (int) map.get(i));
+        }
+    }
+
+    @Test
+    public void testEmptyBatch_isAnswered() {
+        ClientMessage request = ClientInvocationBatchCodec.encodeRequest(Collections.emptyList());
+
+        ClientMessage response = new ClientInvocation(getHazelcastClientInstanceImpl(client), request, null).invoke().join();
+
+        assertEquals(ClientInvocationBatchCodec.RESPONSE_MESSAGE_TYPE, response.getMessageType());
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.client.impl.spi.impl;
+
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.client.impl.clientside.HazelcastClientInstanceImpl;
+import com.hazelcast.client.test.ClientTestSupport;
+import com.hazelcast.client.test.TestHazelcastFactory;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.metrics.MetricDescriptor;
+import com.hazelcast.internal.metrics.impl.CapturingCollector;
+import com.hazelcast.map.IMap;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.hazelcast.client.properties.ClientProperty.INVOCATION_LATENCY_METRICS_ENABLED;
+import static com.hazelcast.client.properties.ClientProperty.RESPONSE_FAST_PATH_ENABLED;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.CLIENT_METRIC_INVOCATIONS_LATENCY_COUNT;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.CLIENT_PREFIX_INVOCATIONS_LATENCY;
+import static com.hazelcast.internal.metrics.ProbeUnit.COUNT;
+import static com.hazelcast.internal.metrics.impl.DefaultMetricDescriptorSupplier.DEFAULT_DESCRIPTOR_SUPPLIER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class ClientResponseFastPathTest extends ClientTestSupport {
+
+    private final TestHazelcastFactory hazelcastFactory = new TestHazelcastFactory();
+    private HazelcastInstance client;
+
+    @Before
+    public void setUp() {
+        hazelcastFactory.newHazelcastInstance();
+        client = hazelcastFactory.newHazelcastClient(new ClientConfig()
+                .setProperty(RESPONSE_FAST_PATH_ENABLED.getName(), "true")
+                .setProperty(INVOCATION_LATENCY_METRICS_ENABLED.getName(), "true"));
+    }
+
+    @After
+    public void cleanup() {
+        hazelcastFactory.terminateAll();
+    }
+
+    @Test
+    public void testBlockingCalls() {
+        IMap<Integer, Integer> map = client.getMap(randomMapName());
+        for (int i = 0; i < 100; i++) {
+            map.set(i, i);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, (int) map.get(i));
+        }
+    }
+
+    @Test
+    public void testCallbackWithCustomExecutor_notRunOnIoThread() throws Exception {
+        IMap<Integer, Integer> map = client.getMap(randomMapName());
+        map.set(1, 1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            AtomicReference<String> threadName = new AtomicReference<>();
+            CountDownLatch latch = new CountDownLatch(1);
+            map.getAsync(1).thenAcceptAsync(v -> {
+                threadName.set(Thread.currentThread().getName());
+                latch.countDown();
+            }, executor);
+
+            assertOpenEventually(latch);
+            assertNotEquals(-1, threadName.get().indexOf("pool"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCallbacks() {
+        IMap<Integer, Integer> map = client.getMap(randomMapName());
+        map.set(1, 1);
+        CountDownLatch latch = new CountDownLatch(3);
+        map.getAsync(1).thenAccept(v -> latch.countDown());
+        map.getAsync(1).exceptionally(t -> null).thenRun(latch::countDown);
+        map.getAsync(1).whenComplete((v, t) -> latch.countDown());
+
+        assertOpenEventually(latch);
+    }
+
+    @Test
+    public void testLatencyMetrics() {
+        IMap<Integer, Integer> map = client.getMap(randomMapName());
+        for (int i = 0; i < 100; i++) {
+            map.set(i, i);
+        }
+
+        HazelcastClientInstanceImpl clientImpl = getHazelcastClientInstanceImpl(client);
+        CapturingCollector collector = new CapturingCollector();
+        clientImpl.getMetricsRegistry().collect(collector);
+        MetricDescriptor descriptor = DEFAULT_DESCRIPTOR_SUPPLIER.get()
+                .withPrefix(CLIENT_PREFIX_INVOCATIONS_LATENCY)
+                .withMetric(CLIENT_METRIC_INVOCATIONS_LATENCY_COUNT)
+                .withUnit(COUNT);
+        assertTrue(collector.isCaptured(descriptor));
+        assertTrue(collector.captures().get(descriptor).singleCapturedValue().longValue() >= 100);
+    }
+}
@@ -21,6 +21,7 @@ import com.hazelcast.client.impl.clientside.HazelcastClientInstanceImpl;
 import com.hazelcast.client.impl.protocol.ClientMessage;
 import com.hazelcast.client.impl.spi.impl.ClientResponseHandlerSupplier.AsyncResponseHandler;
 import com.hazelcast.client.impl.spi.impl.ClientResponseHandlerSupplier.DynamicResponseHandler;
+import com.hazelcast.client.impl.spi.impl.ClientResponseHandlerSupplier.FastPathResponseHandler;
 import com.hazelcast.client.impl.spi.impl.ClientResponseHandlerSupplier.SyncResponseHandler;
 import com.hazelcast.client.test.ClientTestSupport;
 import com.hazelcast.client.test.TestHazelcastFactory;
@@ -36,6 +37,7 @@ import org.junit.runner.RunWith;
 
 import java.util.function.Consumer;
 
+import static com.hazelcast.client.properties.ClientProperty.RESPONSE_FAST_PATH_ENABLED;
 import static com.hazelcast.client.properties.ClientProperty.RESPONSE_THREAD_COUNT;
 import static com.hazelcast.client.properties.ClientProperty.RESPONSE_THREAD_DYNAMIC;
 
@@ -89,11 +91,34 @@ public class ClientResponseHandlerSupplierTest extends ClientTestSupport {
         assertInstanceOf(DynamicResponseHandler.class, handler);
     }
 
+    @Test
+    public void whenZeroResponseThreads_andFastPath() {
+        Consumer<ClientMessage> handler = getResponseHandler(0, false, true);
+        assertInstanceOf(SyncResponseHandler.class, handler);
+    }
+
+    @Test
+    public void whenMultipleResponseThreads_andStatic_andFastPath() {
+        Consumer<ClientMessage> handler = getResponseHandler(2, false, true);
+        assertInstanceOf(FastPathResponseHandler.class, handler);
+    }
+
+    @Test
+    public void whenMultipleResponseThreads_andDynamic_andFastPath() {
+        Consumer<ClientMessage> handler = getResponseHandler(2, true, true);
+        assertInstanceOf(FastPathResponseHandler.class, handler);
+    }
+
     private Consumer<ClientMessage> getResponseHandler(int threadCount, boolean dynamic) {
+        return getResponseHandler(threadCount, dynamic, false);
+    }
+
+    private Consumer<ClientMessage> getResponseHandler(int threadCount, boolean dynamic, boolean fastPath) {
         HazelcastInstance client = hazelcastFactory.newHazelcastClient(
                 new ClientConfig()
                         .setProperty(RESPONSE_THREAD_COUNT.getName(), "" + threadCount)
-                        .setProperty(RESPONSE_THREAD_DYNAMIC.getName(), "" + dynamic));
+                        .setProperty(RESPONSE_THREAD_DYNAMIC.getName(), "" + dynamic)
+                        .setProperty(RESPONSE_FAST_PATH_ENABLED.getName(), "" + fastPath));
         HazelcastClientInstanceImpl clientInstanceImpl = getHazelcastClientInstanceImpl(client);
         ClientInvocationServiceImpl invocationService = (ClientInvocationServiceImpl) clientInstanceImpl.getInvocationService();
 
@@ -35,6 +35,8 @@ import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.map.IMap;
 import com.hazelcast.map.MapStoreAdapter;
 import com.hazelcast.map.impl.nearcache.NearCacheTestSupport;
+import com.hazelcast.memory.MemorySize;
+import com.hazelcast.memory.MemoryUnit;
 import com.hazelcast.nearcache.NearCacheStats;
 import com.hazelcast.spi.properties.ClusterProperty;
 import com.hazelcast.test.AssertTask;
@@ -1247,6 +1249,35 @@ public class ClientMapNearCacheTest extends NearCacheTestSupport {
         getNearCachedMapFromClient(nearCacheConfig);
     }
 
+    @Test
+    public void testNearCache_whenInMemoryFormatIsNative_andNativeMemoryEnabled() {
+        String mapName = randomMapName();
+        hazelcastFactory.newHazelcastInstance(newConfig());
+        NearCacheConfig nearCacheConfig = newInvalidationEnabledNearCacheConfig()
+                .setName(mapName)
+                .setInMemoryFormat(InMemoryFormat.NATIVE);
+        ClientConfig clientConfig = newClientConfig()
+                .addNearCacheConfig(nearCacheConfig);
+        clientConfig.getNativeMemoryConfig()
+                .setEnabled(true)
+                .setSize(new MemorySize(16, MemoryUnit.MEGABYTES));
+        HazelcastInstance client = hazelcastFactory.newHazelcastClient(clientConfig);
+        IMap<Integer, Integer> map = client.getMap(mapName);
+
+        populateMap(map, MAX_CACHE_SIZE);
+        populateNearCache(map, MAX_CACHE_SIZE);
+        for (int i = 0; i < MAX_CACHE_SIZE; i++) {
+            assertEquals(i, (int) map.get(i));
+        }
+        NearCacheStats stats = getNearCacheStats(map);
+        assertEquals(MAX_CACHE_SIZE, stats.getOwnedEntryCount());
+        assertEquals(MAX_CACHE_SIZE, stats.getHits());
+
+        map.put(0, -1);
+        assertTrueEventually(() -> assertEquals(MAX_CACHE_SIZE - 1, getNearCacheStats(map).getOwnedEntryCount()));
+        assertEquals(-1, (int) map.get(0));
+    }
+
     @Override
     protected NearCacheConfig newNearCacheConfigWithEntryCountEviction(EvictionPolicy evictionPolicy, int size) {
         return super.newNearCacheConfigWithEntryCountEviction(evictionPolicy, size)
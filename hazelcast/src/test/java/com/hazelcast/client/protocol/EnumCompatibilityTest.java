@@ -389,6 +389,7 @@ public class EnumCompatibilityTest {
         mappings.put(EvictionPolicy.LFU, "LFU");
         mappings.put(EvictionPolicy.NONE, "NONE");
         mappings.put(EvictionPolicy.RANDOM, "RANDOM");
+        mappings.put(EvictionPolicy.TINY_LFU, "TINY_LFU");
         verifyCompatibility(EvictionPolicy.values(), EvictionPolicy::name, mappings);
     }
 
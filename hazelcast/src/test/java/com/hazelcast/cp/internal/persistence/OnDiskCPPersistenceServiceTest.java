@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal.persistence;
+
+import com.hazelcast.cluster.Address;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.cp.IAtomicLong;
+import com.hazelcast.cp.internal.HazelcastRaftTestSupport;
+import com.hazelcast.spi.properties.ClusterProperty;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+
+import static com.hazelcast.test.Accessors.getNode;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class OnDiskCPPersistenceServiceTest extends HazelcastRaftTestSupport {
+
+    private static final int CP_MEMBER_COUNT = 3;
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void when_membersShareBaseDir_then_eachLocksItsOwnDirectory() {
+        HazelcastInstance[] instances = newInstances(new Address[CP_MEMBER_COUNT]);
+
+        assertEquals(tempFolder.getRoot(), memberDir(instances[0]).getParentFile());
+        File dir1 = memberDir(instances[0]);
+        File dir2 = memberDir(instances[1]);
+        File dir3 = memberDir(instances[2]);
+        assertNotEquals(dir1, dir2);
+        assertNotEquals(dir2, dir3);
+        assertNotEquals(dir1, dir3);
+    }
+
+    @Test
+    public void when_allCPMembersAreRestarted_then_cpStateIsRestored() {
+        Address[] addresses = new Address[CP_MEMBER_COUNT];
+        HazelcastInstance[] instances = newInstances(addresses);
+
+        IAtomicLong atomicLong = instances[0].getCPSubsystem().getAtomicLong("long@group");
+        atomicLong.set(42);
+        assertTrue(getCPPersistenceService(instances[0]).getCPMetadataStore().containsLocalMemberFile());
+
+        for (HazelcastInstance instance : instances) {
+            instance.getLifecycleService().terminate();
+        }
+
+        HazelcastInstance[] restartedInstances = newInstances(addresses);
+
+        assertEquals(42, restartedInstances[0].getCPSubsystem().getAtomicLong("long@group").get());
+    }
+
+    @Test
+    public void when_localPersistencePropertyNotSet_then_cpPersistenceRequiresEnterprise() {
+        Config config = createConfig(CP_MEMBER_COUNT, CP_MEMBER_COUNT);
+        config.getCPSubsystemConfig().setPersistenceEnabled(true).setBaseDir(tempFolder.getRoot());
+
+        assertThrows(IllegalStateException.class, () -> factory.newHazelcastInstance(config));
+    }
+
+    private HazelcastInstance[] newInstances(Address[] addresses) {
+        HazelcastInstance[] instances = new HazelcastInstance[addresses.length];
+        for (int i = 0; i < addresses.length; i++) {
+            if (addresses[i] == null) {
+                addresses[i] = factory.nextAddress();
+            }
+        }
+        for (int i = 0; i < addresses.length; i++) {
+            Config config = createConfig(CP_MEMBER_COUNT, CP_MEMBER_COUNT);
+            config.getCPSubsystemConfig().setPersistenceEnabled(true).setBaseDir(tempFolder.getRoot());
+            config.setProperty(ClusterProperty.CP_LOCAL_PERSISTENCE_ENABLED.getName(), "true");
+            instances[i] = factory.newHazelcastInstance(addresses[i], config);
+        }
+        assertClusterSizeEventually(addresses.length, instances);
+        waitUntilCPDiscoveryCompleted(instances);
+        return instances;
+    }
+
+    private static CPPersistenceService getCPPersistenceService(HazelcastInstance instance) {
+        return getNode(instance).getNodeExtension().getCPPersistenceService();
+    }
+
+    private static File memberDir(HazelcastInstance instance) {
+        return ((OnDiskCPPersistenceService) getCPPersistenceService(instance)).memberDir();
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal.raft.impl.persistence;
+
+import com.hazelcast.config.cp.RaftAlgorithmConfig;
+import com.hazelcast.cp.internal.raft.impl.RaftEndpoint;
+import com.hazelcast.cp.internal.raft.impl.RaftNodeImpl;
+import com.hazelcast.cp.internal.raft.impl.dataservice.ApplyRaftRunnable;
+import com.hazelcast.cp.internal.raft.impl.dataservice.RaftDataService;
+import com.hazelcast.cp.internal.raft.impl.log.LogEntry;
+import com.hazelcast.cp.internal.raft.impl.log.SnapshotEntry;
+import com.hazelcast.cp.internal.raft.impl.testing.LocalRaftGroup;
+import com.hazelcast.cp.internal.raft.impl.testing.LocalRaftGroup.LocalRaftGroupBuilder;
+import com.hazelcast.function.BiFunctionEx;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.hazelcast.cp.internal.raft.impl.RaftUtil.getCommitIndex;
+import static com.hazelcast.cp.internal.raft.impl.RaftUtil.newRaftMember;
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.SEGMENT_FILE_PREFIX;
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.SNAPSHOT_FILE_PREFIX;
+import static com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateFiles.segmentFileName;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class OnDiskRaftStateStoreTest extends HazelcastTestSupport {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private final InternalSerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+    private final RaftEndpoint localMember = newRaftMember(5701);
+    private final List<RaftEndpoint> initialMembers = Arrays.asList(localMember, newRaftMember(5702), newRaftMember(5703));
+
+    private File dir;
+    private OnDiskRaftStateStore store;
+    private LocalRaftGroup group;
+
+    @Before
+    public void setup() throws IOException {
+        dir = tempFolder.newFolder();
+        store = new OnDiskRaftStateStore(dir, serializationService, null);
+        store.open();
+        store.persistInitialMembers(localMember, initialMembers);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        store.close();
+        if (group != null) {
+            group.destroy();
+        }
+    }
+
+    @Test
+    public void when_membersAndTermArePersisted_then_restored() throws IOException {
+        store.persistTerm(3, initialMembers.get(1));
+
+        RestoredRaftState state = load();
+
+        assertEquals(localMember, state.localEndpoint());
+        assertEquals(initialMembers, state.initialMembers());
+        assertEquals(3, state.term());
+        assertEquals(initialMembers.get(1), state.votedFor());
+        assertNull(state.snapshot());
+        assertEquals(0, state.entries().length);
+    }
+
+    @Test
+    public void when_entriesAreFlushed_then_restored() throws IOException {
+        persistEntries(1, 10);
+        store.flushLogs();
+
+        assertEntries(load(), 1, 10);
+    }
+
+    @Test
+    public void when_entriesAreDeleted_then_notRestored() throws IOException {
+        persistEntries(1, 10);
+        store.deleteEntriesFrom(6);
+        persistEntries(6, 7);
+        store.flushLogs();
+
+        assertEntries(load(), 1, 7);
+    }
+
+    @Test
+    public void when_snapshotIsFlushed_then_logIsRolledOverAndFollowingEntriesRestored() throws IOException {
+        persistEntries(1, 10);
+        store.persistSnapshot(snapshot(7));
+        store.flushLogs();
+        persistEntries(11, 12);
+        store.flushLogs();
+
+        RestoredRaftState state = load();
+
+        assertEquals(7, state.snapshot().index());
+        assertEquals("snapshot", state.snapshot().operation());
+        assertEntries(state, 8, 12);
+        assertEquals(1, countFiles(SEGMENT_FILE_PREFIX));
+        assertEquals(1, countFiles(SNAPSHOT_FILE_PREFIX));
+    }
+
+    @Test
+    public void when_logRollsOverLeftoverSegment_then_leftoverContentIsDiscarded() throws IOException {
+        byte[] garbage = new byte[64 * 1024];
+        Arrays.fill(garbage, (byte) 42);
+        try (FileOutputStream out = new FileOutputStream(new File(dir, segmentFileName(1)))) {
+            out.write(garbage);
+        }
+        persistEntries(1, 10);
+        store.persistSnapshot(snapshot(7));
+        store.flushLogs();
+        persistEntries(11, 12);
+        store.flushLogs();
+
+        RestoredRaftState state = load();
+
+        assertEquals(7, state.snapshot().index());
+        assertEntries(state, 8, 12);
+        assertTrue(new File(dir, segmentFileName(1)).length() < garbage.length);
+    }
+
+    @Test
+    public void when_snapshotIsAheadOfEntries_then_noEntriesRestored() throws IOException {
+        persistEntries(1, 5);
+        store.persistSnapshot(snapshot(20));
+        store.flushLogs();
+        persistEntries(21, 22);
+        store.flushLogs();
+
+        RestoredRaftState state = load();
+
+        assertEquals(20, state.snapshot().index());
+        assertEntries(state, 21, 22);
+    }
+
+    @Test
+    public void when_storeIsReopened_then_itContinuesRestoredLog() throws IOException {
+        persistEntries(1, 10);
+        store.flushLogs();
+        store.close();
+
+        OnDiskRaftStateLoader loader = new OnDiskRaftStateLoader(dir, serializationService);
+        loader.load();
+        store = new OnDiskRaftStateStore(dir, serializationService, loader.logFileStructure());
+        store.open();
+        store.deleteEntriesFrom(9);
+        persistEntries(9, 15);
+        store.flushLogs();
+
+        assertEntries(load(), 1, 15);
+    }
+
+    @Test
+    public void when_logEndsWithPartialRecord_then_itIsIgnoredAndOverwritten() throws IOException {
+        persistEntries(1, 5);
+        store.flushLogs();
+        store.close();
+        File segment = dir.listFiles((d, name) -> name.startsWith(SEGMENT_FILE_PREFIX))[0];
+        try (FileOutputStream out = new FileOutputStream(segment, true)) {
+            out.write(new byte[]{0, 0, 1, 0, 42, 42});
+        }
+
+        OnDiskRaftStateLoader loader = new OnDiskRaftStateLoader(dir, serializationService);
+        assertEntries(loader.load(), 1, 5);
+        store = new OnDiskRaftStateStore(dir, serializationService, loader.logFileStructure());
+        store.open();
+        persistEntries(6, 8);
+        store.flushLogs();
+
+        assertEntries(load(), 1, 8);
+    }
+
+    @Test
+    public void when_raftNodeIsRestarted_then_itRestoresItsStateFromDisk() throws Exception {
+        RaftAlgorithmConfig config = new RaftAlgorithmConfig().setCommitIndexAdvanceCountToSnapshot(5);
+        BiFunctionEx<RaftEndpoint, RaftAlgorithmConfig, RaftStateStore> storeFactory = (endpoint, algorithmConfig) ->
+                new OnDiskRaftStateStore(new File(tempFolder.getRoot(), endpoint.getUuid().toString()),
+                        serializationService, null);
+        group = new LocalRaftGroupBuilder(3, config).setAppendNopEntryOnLeaderElection(true)
+                                                    .setRaftStateStoreFactory(storeFactory)
+                                                    .build();
+        group.start();
+
+        RaftNodeImpl leader = group.waitUntilLeaderElected();
+        int count = 12;
+        for (int i = 0; i < count; i++) {
+            leader.replicate(new ApplyRaftRunnable("val" + i)).get();
+        }
+
+        RaftNodeImpl follower = group.getNodesExcept(leader.getLocalMember())[0];
+        assertTrueEventually(() -> assertEquals(getCommitIndex(leader), getCommitIndex(follower)));
+        group.terminateNode(follower.getLocalMember());
+
+        File followerDir = new File(tempFolder.getRoot(), follower.getLocalMember().getUuid().toString());
+        OnDiskRaftStateLoader loader = new OnDiskRaftStateLoader(followerDir, serializationService);
+        RestoredRaftState restoredState = loader.load();
+        RaftStateStore restoredStore = new OnDiskRaftStateStore(followerDir, serializationService, loader.logFileStructure());
+        RaftNodeImpl restartedNode = group.createNewRaftNode(restoredState, restoredStore);
+
+        assertEquals(follower.getLocalMember(), restoredState.localEndpoint());
+        assertNotNull(restoredState.snapshot());
+        assertTrueEventually(() -> {
+            // the restarted node may trigger a new election, so the current leader is looked up on each attempt
+            RaftNodeImpl currentLeader = group.getLeaderNode();
+            assertNotNull(currentLeader);
+            assertEquals(getCommitIndex(currentLeader), getCommitIndex(restartedNode));
+            RaftDataService service = group.getService(restartedNode);
+            Object[] values = service.valuesArray();
+            assertEquals(count, values.length);
+            for (int i = 0; i < count; i++) {
+                assertEquals("val" + i, values[i]);
+            }
+        });
+    }
+
+    private RestoredRaftState load() throws IOException {
+        return new OnDiskRaftStateLoader(dir, serializationService).load();
+    }
+
+    private void persistEntries(long fromIndex, long toIndex) throws IOException {
+        for (long index = fromIndex; index <= toIndex; index++) {
+            store.persistEntry(new LogEntry(1, index, "op" + index));
+        }
+    }
+
+    private SnapshotEntry snapshot(long index) {
+        return new SnapshotEntry(1, index, "snapshot", 0, singletonList(localMember));
+    }
+
+    private int countFiles(String prefix) {
+        return dir.listFiles((d, name) -> name.startsWith(prefix)).length;
+    }
+
+    private static void assertEntries(RestoredRaftState state, long fromIndex, long toIndex) {
+        LogEntry[] entries = state.entries();
+        Object[] operations = new Object[entries.length];
+        long[] indices = new long[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            operations[i] = entries[i].operation();
+            indices[i] = entries[i].index();
+        }
+        long[] expectedIndices = new long[(int) (toIndex - fromIndex + 1)];
+        Object[] expectedOperations = new Object[expectedIndices.length];
+        for (int i = 0; i < expectedIndices.length; i++) {
+            expectedIndices[i] = fromIndex + i;
+            expectedOperations[i] = "op" + (fromIndex + i);
+        }
+        assertArrayEquals(expectedIndices, indices);
+        assertArrayEquals(expectedOperations, operations);
+    }
+}
@@ -94,13 +94,20 @@ public class ConfigValidatorTest extends HazelcastTestSupport {
     }
 
     /**
-     * Not supported in open source version, so test is expected to throw exception.
+     * Native memory is not enabled, so test is expected to throw exception.
      */
     @Test(expected = InvalidConfigurationException.class)
     public void checkMapConfig_NATIVE() {
         checkMapConfig(getMapConfig(NATIVE), nativeMemoryConfig, splitBrainMergePolicyProvider, properties, logger);
     }
 
+    @Test
+    public void checkMapConfig_NATIVE_whenNativeMemoryEnabled() {
+        nativeMemoryConfig.setEnabled(true);
+
+        checkMapConfig(getMapConfig(NATIVE), nativeMemoryConfig, splitBrainMergePolicyProvider, properties, logger);
+    }
+
     /**
      * Not supported in open source version, so test is expected to throw exception.
      */
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.eviction.impl.comparator;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.internal.eviction.impl.comparator.FrequencySketch.MAX_FREQUENCY;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class FrequencySketchTest {
+
+    @Test
+    public void frequency_isZero_whenNotIncremented() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+
+        assertEquals(0, sketch.frequency(42));
+    }
+
+    @Test
+    public void frequency_countsIncrements() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+
+        for (int i = 0; i < 5; i++) {
+            sketch.increment(42);
+        }
+
+        assertEquals(5, sketch.frequency(42));
+    }
+
+    @Test
+    public void frequency_isCapped() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+
+        for (int i = 0; i < 2 * MAX_FREQUENCY; i++) {
+            sketch.increment(42);
+        }
+
+        assertEquals(MAX_FREQUENCY, sketch.frequency(42));
+    }
+
+    @Test
+    public void frequency_distinguishesHotKeysFromColdKeys() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+
+        for (int key = 0; key < 1000; key++) {
+            sketch.increment(key);
+            if (key % 100 == 0) {
+                for (int i = 0; i < 10; i++) {
+                    sketch.increment(key);
+                }
+            }
+        }
+
+        for (int key = 0; key < 1000; key += 100) {
+            assertTrue(sketch.frequency(key) > sketch.frequency(key + 1));
+        }
+    }
+
+    @Test
+    public void counters_areHalved_whenSampleSizeIsReached() {
+        FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < 8; i++) {
+            sketch.increment(42);
+        }
+
+        // 10 times the capacity triggers the reset
+        for (int key = 1000; key < 1000 + 10 * sketch.capacity(); key++) {
+            sketch.increment(key);
+        }
+
+        assertTrue(sketch.frequency(42) < 8);
+    }
+
+    @Test
+    public void ensureCapacity_growsSketch_andKeepsFrequencies() {
+        FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < 5; i++) {
+            sketch.increment(42);
+        }
+
+        sketch.ensureCapacity(1000);
+
+        assertEquals(1024, sketch.capacity());
+        assertEquals(5, sketch.frequency(42));
+    }
+}
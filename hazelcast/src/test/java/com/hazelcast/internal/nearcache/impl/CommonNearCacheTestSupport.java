@@ -18,8 +18,10 @@ package com.hazelcast.internal.nearcache.impl;
 
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.internal.memory.impl.UnsafeMallocMemoryManager;
 import com.hazelcast.internal.nearcache.NearCacheRecordStore;
 import com.hazelcast.internal.nearcache.impl.store.NearCacheDataRecordStore;
+import com.hazelcast.internal.nearcache.impl.store.NearCacheNativeRecordStore;
 import com.hazelcast.internal.nearcache.impl.store.NearCacheObjectRecordStore;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.internal.serialization.SerializationService;
@@ -38,8 +40,11 @@ public abstract class CommonNearCacheTestSupport extends HazelcastTestSupport {
 
     static final int DEFAULT_RECORD_COUNT = 100;
     static final String DEFAULT_NEAR_CACHE_NAME = "TestNearCache";
+    static final long NATIVE_MEMORY_CAPACITY = 64L << 20;
 
     private List<ScheduledExecutorService> scheduledExecutorServices = new ArrayList<>();
+    private List<NearCacheRecordStore> nativeRecordStores = new ArrayList<>();
+    private UnsafeMallocMemoryManager memoryManager;
     private SerializationService ss = new DefaultSerializationServiceBuilder()
             .setVersion(InternalSerializationService.VERSION_1).build();
 
@@ -51,6 +56,21 @@ public abstract class CommonNearCacheTestSupport extends HazelcastTestSupport {
         scheduledExecutorServices.clear();
     }
 
+    @After
+    public final void destroyNativeRecordStores() {
+        for (NearCacheRecordStore recordStore : nativeRecordStores) {
+            recordStore.destroy();
+        }
+        nativeRecordStores.clear();
+    }
+
+    UnsafeMallocMemoryManager getMemoryManager() {
+        if (memoryManager == null) {
+            memoryManager = new UnsafeMallocMemoryManager(NATIVE_MEMORY_CAPACITY);
+        }
+        return memoryManager;
+    }
+
     NearCacheConfig createNearCacheConfig(String name, InMemoryFormat inMemoryFormat) {
         return new NearCacheConfig()
                 .setName(name)
@@ -66,6 +86,11 @@ public abstract class CommonNearCacheTestSupport extends HazelcastTestSupport {
             case OBJECT:
                 recordStore = new NearCacheObjectRecordStore<>(DEFAULT_NEAR_CACHE_NAME, nearCacheConfig, ss, null);
                 break;
+            case NATIVE:
+                recordStore = new NearCacheNativeRecordStore<>(DEFAULT_NEAR_CACHE_NAME, nearCacheConfig, ss, null,
+                        getMemoryManager());
+                nativeRecordStores.add(recordStore);
+                break;
             default:
                 throw new IllegalArgumentException("Unsupported in-memory format: " + inMemoryFormat);
         }
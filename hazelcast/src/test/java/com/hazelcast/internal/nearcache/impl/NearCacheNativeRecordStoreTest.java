@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.nearcache.impl;
+
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.internal.memory.impl.UnsafeMallocMemoryManager;
+import com.hazelcast.internal.nearcache.NearCacheRecord;
+import com.hazelcast.internal.nearcache.NearCacheRecordStore;
+import com.hazelcast.internal.nearcache.impl.store.NearCacheNativeRecordStore;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.config.InMemoryFormat.NATIVE;
+import static com.hazelcast.internal.nearcache.NearCache.UpdateSemantic.READ_UPDATE;
+import static com.hazelcast.internal.nearcache.NearCacheRecord.NOT_RESERVED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class NearCacheNativeRecordStoreTest extends NearCacheRecordStoreTestSupport {
+
+    @Test
+    public void putAndGetRecord() {
+        putAndGetRecord(NATIVE);
+    }
+
+    @Test
+    public void putAndRemoveRecord() {
+        putAndRemoveRecord(NATIVE);
+    }
+
+    @Test
+    public void clearRecords() {
+        clearRecordsOrDestroyStore(NATIVE, false);
+    }
+
+    @Test
+    public void destroyStore() {
+        clearRecordsOrDestroyStore(NATIVE, true);
+    }
+
+    @Test
+    public void statsCalculated() {
+        statsCalculated(NATIVE);
+    }
+
+    @Test
+    public void ttlEvaluated() {
+        ttlEvaluated(NATIVE);
+    }
+
+    @Test
+    public void maxIdleTimeEvaluatedSuccessfully() {
+        maxIdleTimeEvaluatedSuccessfully(NATIVE);
+    }
+
+    @Test
+    public void expiredRecordsCleanedUpSuccessfullyBecauseOfTTL() {
+        expiredRecordsCleanedUpSuccessfully(NATIVE, false);
+    }
+
+    @Test
+    public void expiredRecordsCleanedUpSuccessfullyBecauseOfIdleTime() {
+        expiredRecordsCleanedUpSuccessfully(NATIVE, true);
+    }
+
+    @Test
+    public void canCreateWithNativeMemoryMaxSizePolicies() {
+        createNearCacheWithMaxSizePolicy(NATIVE, MaxSizePolicy.ENTRY_COUNT, 1000);
+        createNearCacheWithMaxSizePolicy(NATIVE, MaxSizePolicy.USED_NATIVE_MEMORY_SIZE, 1);
+        createNearCacheWithMaxSizePolicy(NATIVE, MaxSizePolicy.FREE_NATIVE_MEMORY_SIZE, 1);
+        createNearCacheWithMaxSizePolicy(NATIVE, MaxSizePolicy.USED_NATIVE_MEMORY_PERCENTAGE, 99);
+        createNearCacheWithMaxSizePolicy(NATIVE, MaxSizePolicy.FREE_NATIVE_MEMORY_PERCENTAGE, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cannotCreateWithUsedHeapSizeMaxSizePolicy() {
+        createNearCacheWithMaxSizePolicy(NATIVE, MaxSizePolicy.USED_HEAP_SIZE, 1);
+    }
+
+    @Test
+    public void evictionTriggeredAndHandledSuccessfullyWithEntryCountMaxSizePolicyAndLRUEvictionPolicy() {
+        doEvictionWithEntryCountMaxSizePolicy(NATIVE, EvictionPolicy.LRU);
+    }
+
+    @Test
+    public void evictionTriggeredAndHandledSuccessfullyWithEntryCountMaxSizePolicyAndLFUEvictionPolicy() {
+        doEvictionWithEntryCountMaxSizePolicy(NATIVE, EvictionPolicy.LFU);
+    }
+
+    @Test
+    public void evictionTriggeredAndHandledSuccessfullyWithEntryCountMaxSizePolicyAndRandomEvictionPolicy() {
+        doEvictionWithEntryCountMaxSizePolicy(NATIVE, EvictionPolicy.RANDOM);
+    }
+
+    @Test
+    public void evictionTriggeredAndHandledSuccessfullyWithEntryCountMaxSizePolicyAndTinyLFUEvictionPolicy() {
+        doEvictionWithEntryCountMaxSizePolicy(NATIVE, EvictionPolicy.TINY_LFU);
+    }
+
+    @Test
+    public void evictionTriggeredAndHandledSuccessfullyWithUsedNativeMemorySizeMaxSizePolicy() {
+        EvictionConfig evictionConfig = new EvictionConfig()
+                .setMaxSizePolicy(MaxSizePolicy.USED_NATIVE_MEMORY_SIZE)
+                .setSize(1);
+        NearCacheConfig nearCacheConfig = createNearCacheConfig(DEFAULT_NEAR_CACHE_NAME, NATIVE)
+                .setEvictionConfig(evictionConfig);
+        NearCacheRecordStore<Integer, byte[]> nearCacheRecordStore = createNearCacheRecordStore(nearCacheConfig, NATIVE);
+
+        byte[] value = new byte[1024];
+        for (int i = 0; i < 4 * 1024; i++) {
+            nearCacheRecordStore.doEviction(false);
+            nearCacheRecordStore.put(i, null, value, null);
+        }
+
+        long ownedEntryMemoryCost = nearCacheRecordStore.getNearCacheStats().getOwnedEntryMemoryCost();
+        assertTrue("ownedEntryMemoryCost=" + ownedEntryMemoryCost, ownedEntryMemoryCost <= (1 << 20) + 2 * 1024);
+        assertTrue(nearCacheRecordStore.size() < 1024);
+    }
+
+    @Test
+    public void valuesAreStoredOutsideOfTheHeap() {
+        NearCacheConfig nearCacheConfig = createNearCacheConfig(DEFAULT_NEAR_CACHE_NAME, NATIVE);
+        UnsafeMallocMemoryManager memoryManager = getMemoryManager();
+        NearCacheRecordStore<Integer, String> nearCacheRecordStore = createNearCacheRecordStore(nearCacheConfig, NATIVE);
+        long usedMemoryWhenEmpty = memoryManager.getUsedMemory();
+
+        for (int i = 0; i < DEFAULT_RECORD_COUNT; i++) {
+            nearCacheRecordStore.put(i, null, "Record-" + i, null);
+        }
+        assertEquals(usedMemoryWhenEmpty + nearCacheRecordStore.getNearCacheStats().getOwnedEntryMemoryCost(),
+                memoryManager.getUsedMemory());
+
+        nearCacheRecordStore.clear();
+        assertEquals(usedMemoryWhenEmpty, memoryManager.getUsedMemory());
+
+        nearCacheRecordStore.destroy();
+        assertEquals(0, memoryManager.getUsedMemory());
+    }
+
+    @Test
+    public void getRecord_returnsCopyOfRecord() {
+        NearCacheConfig nearCacheConfig = createNearCacheConfig(DEFAULT_NEAR_CACHE_NAME, NATIVE);
+        NearCacheRecordStore<Integer, String> nearCacheRecordStore = createNearCacheRecordStore(nearCacheConfig, NATIVE);
+        nearCacheRecordStore.put(1, null, "value", null);
+        nearCacheRecordStore.get(1);
+
+        NearCacheRecord record = nearCacheRecordStore.getRecord(1);
+        nearCacheRecordStore.invalidate(1);
+
+        assertNotNull(record);
+        assertEquals(1, record.getHits());
+        SerializationService ss = new DefaultSerializationServiceBuilder()
+                .setVersion(InternalSerializationService.VERSION_1).build();
+        assertEquals("value", ss.toObject(record.getValue()));
+        assertNull(nearCacheRecordStore.getRecord(1));
+    }
+
+    @Test
+    public void valueIsNotCached_whenNativeMemoryIsExhausted() {
+        NearCacheConfig nearCacheConfig = createNearCacheConfig(DEFAULT_NEAR_CACHE_NAME, NATIVE);
+        nearCacheConfig.getEvictionConfig().setEvictionPolicy(EvictionPolicy.LRU);
+        NearCacheNativeRecordStore<Integer, byte[]> nearCacheRecordStore = new NearCacheNativeRecordStore<>(
+                DEFAULT_NEAR_CACHE_NAME, nearCacheConfig, new DefaultSerializationServiceBuilder().build(), null,
+                new UnsafeMallocMemoryManager(1 << 20));
+        nearCacheRecordStore.initialize();
+        try {
+            byte[] value = new byte[64 * 1024];
+            for (int i = 0; i < 32; i++) {
+                long reservationId = nearCacheRecordStore.tryReserveForUpdate(i, null, READ_UPDATE);
+                if (reservationId != NOT_RESERVED) {
+                    nearCacheRecordStore.tryPublishReserved(i, value, reservationId, false);
+                }
+            }
+
+            assertTrue(nearCacheRecordStore.size() < 32);
+            assertEquals(nearCacheRecordStore.size(), nearCacheRecordStore.getNearCacheStats().getOwnedEntryCount());
+        } finally {
+            nearCacheRecordStore.destroy();
+        }
+    }
+}
@@ -37,7 +37,8 @@ import org.junit.runners.Parameterized.UseParametersRunnerFactory;
 import java.util.Collection;
 
 import static java.util.Arrays.asList;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 
 @RunWith(HazelcastParametrizedRunner.class)
 @UseParametersRunnerFactory(HazelcastParallelParametersRunnerFactory.class)
@@ -146,27 +147,62 @@ public class NearCacheRecordStoreTest extends NearCacheRecordStoreTestSupport {
     }
 
     @Test
-    public void evictionTriggeredAndHandledSuccessfullyWithEntryCountMaxSizePolicyAndDefaultEvictionPolicy() {
-        doEvictionWithEntryCountMaxSizePolicy(inMemoryFormat, null);
+    public void evictionTriggeredAndHandledSuccessfullyWithEntryCountMaxSizePolicyAndTinyLFUEvictionPolicy() {
+        doEvictionWithEntryCountMaxSizePolicy(inMemoryFormat, EvictionPolicy.TINY_LFU);
     }
 
-    private void doEvictionWithEntryCountMaxSizePolicy(InMemoryFormat inMemoryFormat, EvictionPolicy evictionPolicy) {
+    @Test
+    public void frequentlyAccessedRecordsSurviveScanWithTinyLFUEvictionPolicy() {
         int maxSize = DEFAULT_RECORD_COUNT / 2;
+        int hotRecordCount = 5;
 
         EvictionConfig evictionConfig = new EvictionConfig()
                 .setMaxSizePolicy(MaxSizePolicy.ENTRY_COUNT)
                 .setSize(maxSize)
-                .setEvictionPolicy(evictionPolicy == null ? EvictionConfig.DEFAULT_EVICTION_POLICY : evictionPolicy);
-
+                .setEvictionPolicy(EvictionPolicy.TINY_LFU);
         NearCacheConfig nearCacheConfig = createNearCacheConfig(DEFAULT_NEAR_CACHE_NAME, inMemoryFormat)
                 .setEvictionConfig(evictionConfig);
+        NearCacheRecordStore<Integer, String> nearCacheRecordStore = createNearCacheRecordStore(nearCacheConfig, inMemoryFormat);
+
+        for (int i = 0; i < hotRecordCount; i++) {
+            nearCacheRecordStore.put(i, null, "Record-" + i, null);
+            for (int j = 0; j < 3; j++) {
+                assertNotNull(nearCacheRecordStore.get(i));
+            }
+        }
+        // a scan over keys which are requested only once, the hot records are
+        // requested less often than it would take to keep them in LRU order
+        for (int i = hotRecordCount; i < hotRecordCount + 100 * maxSize; i++) {
+            if (i % 20 == 0) {
+                assertNotNull(nearCacheRecordStore.get(i / 20 % hotRecordCount));
+            }
+            nearCacheRecordStore.get(i);
+            nearCacheRecordStore.put(i, null, "Record-" + i, null);
+            nearCacheRecordStore.doEviction(false);
+        }
+    }
 
+    @Test
+    public void tinyLFUEvictionPolicyWithMaxEntryCount_doesNotPresizeFrequencySketch() {
+        // the sketch for Integer.MAX_VALUE entries would not fit into the test heap
+        EvictionConfig evictionConfig = new EvictionConfig()
+                .setMaxSizePolicy(MaxSizePolicy.ENTRY_COUNT)
+                .setSize(Integer.MAX_VALUE)
+                .setEvictionPolicy(EvictionPolicy.TINY_LFU);
+        NearCacheConfig nearCacheConfig = createNearCacheConfig(DEFAULT_NEAR_CACHE_NAME, inMemoryFormat)
+                .setEvictionConfig(evictionConfig);
         NearCacheRecordStore<Integer, String> nearCacheRecordStore = createNearCacheRecordStore(nearCacheConfig, inMemoryFormat);
 
         for (int i = 0; i < DEFAULT_RECORD_COUNT; i++) {
-            nearCacheRecordStore.put(i, null, "Record-" + i, null);
             nearCacheRecordStore.doEviction(false);
-            assertTrue(maxSize >= nearCacheRecordStore.size());
+            nearCacheRecordStore.put(i, null, "Record-" + i, null);
         }
+
+        assertEquals(DEFAULT_RECORD_COUNT, nearCacheRecordStore.size());
+    }
+
+    @Test
+    public void evictionTriggeredAndHandledSuccessfullyWithEntryCountMaxSizePolicyAndDefaultEvictionPolicy() {
+        doEvictionWithEntryCountMaxSizePolicy(inMemoryFormat, null);
     }
 }
@@ -17,6 +17,7 @@
 package com.hazelcast.internal.nearcache.impl;
 
 import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.EvictionPolicy;
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.MaxSizePolicy;
 import com.hazelcast.config.NearCacheConfig;
@@ -241,4 +242,24 @@ abstract class NearCacheRecordStoreTestSupport extends CommonNearCacheTestSuppor
 
         createNearCacheRecordStore(nearCacheConfig, inMemoryFormat);
     }
+
+    void doEvictionWithEntryCountMaxSizePolicy(InMemoryFormat inMemoryFormat, EvictionPolicy evictionPolicy) {
+        int maxSize = DEFAULT_RECORD_COUNT / 2;
+
+        EvictionConfig evictionConfig = new EvictionConfig()
+                .setMaxSizePolicy(MaxSizePolicy.ENTRY_COUNT)
+                .setSize(maxSize)
+                .setEvictionPolicy(evictionPolicy == null ? EvictionConfig.DEFAULT_EVICTION_POLICY : evictionPolicy);
+
+        NearCacheConfig nearCacheConfig = createNearCacheConfig(DEFAULT_NEAR_CACHE_NAME, inMemoryFormat)
+                .setEvictionConfig(evictionConfig);
+
+        NearCacheRecordStore<Integer, String> nearCacheRecordStore = createNearCacheRecordStore(nearCacheConfig, inMemoryFormat);
+
+        for (int i = 0; i < DEFAULT_RECORD_COUNT; i++) {
+            nearCacheRecordStore.put(i, null, "Record-" + i, null);
+            nearCacheRecordStore.doEviction(false);
+            assertTrue(maxSize >= nearCacheRecordStore.size());
+        }
+    }
 }
@@ -0,0 +1,305 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.nearcache.impl.preloader;
+
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.internal.adapter.DataStructureAdapter;
+import com.hazelcast.internal.nearcache.NearCacheRecord;
+import com.hazelcast.internal.nearcache.impl.invalidation.MetaDataContainer;
+import com.hazelcast.internal.nearcache.impl.invalidation.StaleReadDetector;
+import com.hazelcast.internal.nearcache.impl.store.NearCacheDataRecordStore;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.hazelcast.internal.nio.IOUtil.deleteQuietly;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class NearCachePreloaderTest extends HazelcastTestSupport {
+
+    private static final int KEY_COUNT = 100;
+
+    private final InternalSerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+    private final MetaDataContainer metaDataContainer = new MetaDataContainer();
+    private final StaleReadDetector staleReadDetector = new TestStaleReadDetector();
+
+    @SuppressWarnings("unchecked")
+    private final DataStructureAdapter<Object, ?> adapter = mock(DataStructureAdapter.class);
+
+    private NearCacheConfig nearCacheConfig;
+    private File storeFile;
+    private NearCacheDataRecordStore<Integer, String> recordStore;
+
+    @Before
+    public void setUp() {
+        String name = randomName();
+        nearCacheConfig = new NearCacheConfig(name);
+        nearCacheConfig.getPreloaderConfig().setEnabled(true);
+        storeFile = new File("nearCache-" + name + ".store");
+
+        metaDataContainer.setUuid(UUID.randomUUID());
+        metaDataContainer.setSequence(23);
+    }
+
+    @After
+    public void tearDown() {
+        if (recordStore != null) {
+            recordStore.destroy();
+        }
+        deleteQuietly(storeFile);
+        deleteQuietly(new File(storeFile.getPath() + ".lock"));
+    }
+
+    @Test
+    public void testLoadKeys_whenMetadataIsUnchanged_thenStoredValuesArePut() {
+        populateAndStore(KEY_COUNT);
+
+        restartAndLoad();
+
+        assertEquals(KEY_COUNT, recordStore.size());
+        assertValues(KEY_COUNT, "value-");
+        verify(adapter, never()).getAll(any());
+    }
+
+    @Test
+    public void testLoadKeys_whenSequenceHasIncreased_thenKeysAreFetched() {
+        populateAndStore(KEY_COUNT);
+        metaDataContainer.setSequence(42);
+
+        restartAndLoad();
+
+        assertEquals(0, recordStore.size());
+        assertEquals(KEY_COUNT, getFetchedKeys().size());
+    }
+
+    @Test
+    public void testLoadKeys_whenUuidHasChanged_thenKeysAreFetched() {
+        populateAndStore(KEY_COUNT);
+        metaDataContainer.setUuid(UUID.randomUUID());
+
+        restartAndLoad();
+
+        assertEquals(0, recordStore.size());
+        assertEquals(KEY_COUNT, getFetchedKeys().size());
+    }
+
+    @Test
+    public void testLoadKeys_whenInvalidationsAreDisabled_thenKeysAreFetched() {
+        populateAndStore(KEY_COUNT);
+
+        recordStore.destroy();
+        recordStore = createRecordStore();
+        recordStore.loadKeys(adapter);
+
+        assertEquals(0, recordStore.size());
+        assertEquals(KEY_COUNT, getFetchedKeys().size());
+    }
+
+    @Test
+    public void testStoreKeys_appendsChangedKeysOnly() {
+        populateAndStore(KEY_COUNT);
+        long initialFileSize = storeFile.length();
+
+        update(1, "updated-1");
+        recordStore.invalidate(2);
+        recordStore.storeKeys();
+
+        long appendedBytes = storeFile.length() - initialFileSize;
+        assertTrue("Expected a few appended bytes, but was " + appendedBytes,
+                appendedBytes > 0 && appendedBytes < initialFileSize / 10);
+        assertEquals(KEY_COUNT - 1, recordStore.getNearCacheStats().getLastPersistenceKeyCount());
+
+        restartAndLoad();
+
+        assertEquals(KEY_COUNT - 1, recordStore.size());
+        assertEquals("updated-1", recordStore.get(1));
+        assertNull(recordStore.getRecord(2));
+        assertEquals("value-3", recordStore.get(3));
+    }
+
+    @Test
+    public void testStoreKeys_whenNothingChanged_thenFileIsNotWritten() {
+        populateAndStore(KEY_COUNT);
+        long fileSize = storeFile.length();
+
+        recordStore.storeKeys();
+
+        assertEquals(fileSize, storeFile.length());
+        assertEquals(KEY_COUNT, recordStore.getNearCacheStats().getLastPersistenceKeyCount());
+        assertEquals(2, recordStore.getNearCacheStats().getPersistenceCount());
+    }
+
+    @Test
+    public void testStoreKeys_whenMostEntriesAreOverwritten_thenFileIsCompacted() {
+        populateAndStore(KEY_COUNT);
+        long initialFileSize = storeFile.length();
+
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < KEY_COUNT; i++) {
+                update(i, "value-" + i);
+            }
+            recordStore.storeKeys();
+        }
+
+        assertTrue("Expected a compacted file of at most " + 2 * initialFileSize + " bytes, but was " + storeFile.length(),
+                storeFile.length() <= 2 * initialFileSize);
+        restartAndLoad();
+        assertValues(KEY_COUNT, "value-");
+    }
+
+    @Test
+    public void testStoreKeys_afterClear_thenFileIsRewritten() {
+        populateAndStore(KEY_COUNT);
+
+        recordStore.clear();
+        put(1, "value-1");
+        recordStore.storeKeys();
+
+        assertEquals(1, recordStore.getNearCacheStats().getLastPersistenceKeyCount());
+        restartAndLoad();
+        assertEquals(1, recordStore.size());
+        assertEquals("value-1", recordStore.get(1));
+    }
+
+    @Test
+    public void testStoreKeys_whenAllKeysAreRemoved_thenFileIsDeleted() {
+        populateAndStore(KEY_COUNT);
+
+        for (int i = 0; i < KEY_COUNT; i++) {
+            recordStore.invalidate(i);
+        }
+        recordStore.storeKeys();
+        // the removed entries outnumber the live ones
+        recordStore.storeKeys();
+
+        assertFalse(storeFile.exists());
+        assertEquals(0, recordStore.getNearCacheStats().getLastPersistenceKeyCount());
+        assertEquals(0, recordStore.getNearCacheStats().getLastPersistenceWrittenBytes());
+    }
+
+    @Test
+    public void testLoadKeys_whenFileIsTruncated_thenCompleteEntriesAreLoaded() throws Exception {
+        populateAndStore(KEY_COUNT);
+        try (RandomAccessFile file = new RandomAccessFile(storeFile, "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        restartAndLoad();
+
+        assertEquals(KEY_COUNT - 1, recordStore.size());
+        for (int i = 0; i < KEY_COUNT; i++) {
+            String value = recordStore.get(i);
+            assertTrue("Unexpected value " + value, value == null || value.equals("value-" + i));
+        }
+    }
+
+    private void populateAndStore(int keyCount) {
+        recordStore = createRecordStore();
+        recordStore.setStaleReadDetector(staleReadDetector);
+        for (int i = 0; i < keyCount; i++) {
+            put(i, "value-" + i);
+        }
+        recordStore.storeKeys();
+
+        assertTrue(storeFile.exists());
+        assertEquals(keyCount, recordStore.getNearCacheStats().getLastPersistenceKeyCount());
+    }
+
+    private void put(int key, String value) {
+        recordStore.put(key, serializationService.toData(key), value, serializationService.toData(value));
+    }
+
+    private void update(int key, String value) {
+        recordStore.invalidate(key);
+        put(key, value);
+    }
+
+    private void restartAndLoad() {
+        recordStore.destroy();
+        recordStore = createRecordStore();
+        recordStore.setStaleReadDetector(staleReadDetector);
+        recordStore.loadKeys(adapter);
+    }
+
+    private NearCacheDataRecordStore<Integer, String> createRecordStore() {
+        NearCacheDataRecordStore<Integer, String> recordStore = new NearCacheDataRecordStore<>(nearCacheConfig.getName(),
+                nearCacheConfig, serializationService, null);
+        recordStore.initialize();
+        return recordStore;
+    }
+
+    private void assertValues(int keyCount, String valuePrefix) {
+        for (int i = 0; i < keyCount; i++) {
+            assertEquals(valuePrefix + i, recordStore.get(i));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Object> getFetchedKeys() {
+        ArgumentCaptor<Set<Object>> captor = ArgumentCaptor.forClass(Set.class);
+        verify(adapter, atLeastOnce()).getAll(captor.capture());
+        Set<Object> keys = new HashSet<>();
+        for (Set<Object> batch : captor.getAllValues()) {
+            keys.addAll(batch);
+        }
+        return keys;
+    }
+
+    private class TestStaleReadDetector implements StaleReadDetector {
+
+        @Override
+        public boolean isStaleRead(Object key, NearCacheRecord record) {
+            return !record.hasSameUuid(metaDataContainer.getUuid())
+                    || record.getInvalidationSequence() < metaDataContainer.getStaleSequence();
+        }
+
+        @Override
+        public int getPartitionId(Object key) {
+            return 0;
+        }
+
+        @Override
+        public MetaDataContainer getMetaDataContainer(int partitionId) {
+            return metaDataContainer;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.nio;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static com.hazelcast.internal.nio.Lz4BlockCompressor.maxCompressedLength;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class Lz4BlockCompressorTest {
+
+    private final Lz4BlockCompressor compressor = new Lz4BlockCompressor();
+    private final Random random = new Random(42);
+
+    @Test
+    public void testEmpty() {
+        assertRoundTrip(new byte[0]);
+    }
+
+    @Test
+    public void testShorterThanMinimalMatchInput() {
+        assertRoundTrip("abcabcabcab".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testRandom() {
+        for (int length : new int[]{1, 13, 100, 1000, 100_000}) {
+            byte[] src = new byte[length];
+            random.nextBytes(src);
+            assertRoundTrip(src);
+        }
+    }
+
+    @Test
+    public void testCompressible() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            sb.append("{\"id\":").append(i).append(",\"name\":\"name-").append(i % 100).append("\"}");
+        }
+        byte[] src = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+        int compressedLength = assertRoundTrip(src);
+
+        assertTrue("compressed length: " + compressedLength, compressedLength < src.length / 3);
+    }
+
+    @Test
+    public void testLongRunsAndLongLiterals() {
+        byte[] src = new byte[200_000];
+        // long overlapping matches interleaved with long literal runs
+        for (int i = 0; i < src.length; i += 20_000) {
+            byte[] literals = new byte[1000];
+            random.nextBytes(literals);
+            System.arraycopy(literals, 0, src, i, literals.length);
+        }
+        assertRoundTrip(src);
+    }
+
+    @Test
+    public void testWithOffsets() {
+        byte[] src = new byte[5000];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = (byte) (i % 7);
+        }
+        byte[] dst = new byte[10 + maxCompressedLength(4000)];
+        int compressedLength = compressor.compress(src, 500, 4000, dst, 10);
+
+        byte[] decompressed = new byte[4010];
+        Lz4BlockCompressor.decompress(dst, 10, compressedLength, decompressed, 10, 4000);
+
+        assertArrayEquals(Arrays.copyOfRange(src, 500, 4500), Arrays.copyOfRange(decompressed, 10, 4010));
+    }
+
+    @Test
+    public void testCompressorReuse() {
+        byte[] src1 = new byte[10_000];
+        byte[] src2 = new byte[1000];
+        random.nextBytes(src2);
+        assertRoundTrip(src1);
+        assertRoundTrip(src2);
+        assertRoundTrip(src1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecompress_whenTruncated() {
+        byte[] src = new byte[1000];
+        byte[] compressed = compress(src);
+
+        Lz4BlockCompressor.decompress(compressed, 0, compressed.length - 1, new byte[src.length], 0, src.length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecompress_whenLengthMismatch() {
+        byte[] src = new byte[1000];
+        byte[] compressed = compress(src);
+
+        Lz4BlockCompressor.decompress(compressed, 0, compressed.length, new byte[src.length + 1], 0, src.length + 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecompress_whenOffsetOutOfBounds() {
+        // token: 1 literal and a match, offset 2 points before the output start
+        byte[] block = {0x10, 'a', 2, 0};
+
+        Lz4BlockCompressor.decompress(block, 0, block.length, new byte[5], 0, 5);
+    }
+
+    private int assertRoundTrip(byte[] src) {
+        byte[] compressed = compress(src);
+        byte[] decompressed = new byte[src.length];
+        Lz4BlockCompressor.decompress(compressed, 0, compressed.length, decompressed, 0, src.length);
+        assertArrayEquals(src, decompressed);
+        return compressed.length;
+    }
+
+    private byte[] compress(byte[] src) {
+        byte[] dst = new byte[maxCompressedLength(src.length)];
+        int length = compressor.compress(src, 0, src.length, dst, 0);
+        assertTrue(length <= maxCompressedLength(src.length));
+        return Arrays.copyOf(dst, length);
+    }
+}
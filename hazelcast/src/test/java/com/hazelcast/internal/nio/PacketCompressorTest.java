@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.nio;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+import static com.hazelcast.internal.nio.Packet.FLAG_COMPRESSED;
+import static com.hazelcast.internal.nio.Packet.FLAG_URGENT;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class PacketCompressorTest {
+
+    private final PacketCompressionStats stats = new PacketCompressionStats();
+    private final PacketCompressor compressor = new PacketCompressor(100, stats);
+
+    @Test
+    public void whenBelowThreshold_thenNotCompressed() {
+        Packet packet = new Packet(new byte[99]);
+
+        assertSame(packet, compressor.compress(packet));
+        assertEquals(0, stats.compressedPackets());
+        assertEquals(0, stats.incompressiblePackets());
+    }
+
+    @Test
+    public void whenIncompressible_thenNotCompressed() {
+        byte[] payload = new byte[1000];
+        new Random(42).nextBytes(payload);
+        Packet packet = new Packet(payload);
+
+        assertSame(packet, compressor.compress(packet));
+        assertEquals(0, stats.compressedPackets());
+        assertEquals(1, stats.incompressiblePackets());
+    }
+
+    @Test
+    public void whenAlreadyCompressed_thenNotCompressedAgain() {
+        Packet compressed = compressor.compress(new Packet(new byte[1000]));
+
+        assertSame(compressed, compressor.compress(compressed));
+        assertEquals(1, stats.compressedPackets());
+    }
+
+    @Test
+    public void whenCompressed_thenDecompressesToOriginal() {
+        Packet packet = new Packet(new byte[10_000], 42)
+                .setPacketType(Packet.Type.OPERATION)
+                .raiseFlags(FLAG_URGENT | Packet.FLAG_OP_RESPONSE);
+
+        Packet compressed = compressor.compress(packet);
+
+        assertNotSame(packet, compressed);
+        assertFalse("the original packet must not be modified", packet.isFlagRaised(FLAG_COMPRESSED));
+        assertTrue(compressed.isFlagRaised(FLAG_COMPRESSED));
+        assertTrue(compressed.totalSize() < packet.totalSize());
+        assertEquals(1, stats.compressedPackets());
+        assertTrue(stats.compressionRatio() > 1);
+
+        Packet decompressed = PacketCompressor.decompress(compressed, stats);
+
+        assertEquals(packet, decompressed);
+        assertArrayEquals(packet.toByteArray(), decompressed.toByteArray());
+        assertEquals(42, decompressed.getPartitionId());
+        assertEquals(packet.getFlags(), decompressed.getFlags());
+        assertEquals(1, stats.decompressedPackets());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenMalformedPayload_thenDecompressFails() {
+        Packet packet = new Packet(new byte[]{1, 2}).raiseFlags(FLAG_COMPRESSED);
+
+        PacketCompressor.decompress(packet, stats);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenNegativeOriginalLength_thenDecompressFails() {
+        byte[] payload = new byte[16];
+        Bits.writeIntB(payload, 0, -1);
+        Packet packet = new Packet(payload).raiseFlags(FLAG_COMPRESSED);
+
+        PacketCompressor.decompress(packet, stats);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenOriginalLengthAboveMaxRatio_thenDecompressFails() {
+        byte[] payload = new byte[16];
+        Bits.writeIntB(payload, 0, Integer.MAX_VALUE - 8);
+        Packet packet = new Packet(payload).raiseFlags(FLAG_COMPRESSED);
+
+        PacketCompressor.decompress(packet, stats);
+    }
+}
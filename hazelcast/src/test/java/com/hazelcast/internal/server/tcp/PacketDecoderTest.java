@@ -17,6 +17,8 @@
 package com.hazelcast.internal.server.tcp;
 
 import com.hazelcast.internal.nio.Packet;
+import com.hazelcast.internal.nio.PacketCompressionStats;
+import com.hazelcast.internal.nio.PacketCompressor;
 import com.hazelcast.internal.nio.PacketIOHelper;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
@@ -119,6 +121,26 @@ public class PacketDecoderTest extends HazelcastTestSupport {
         assertEquals(1, priorityPacketCounter.get());
     }
 
+    @Test
+    public void whenCompressedPacket() throws Exception {
+        PacketCompressionStats stats = new PacketCompressionStats();
+        decoder = new PacketDecoder(mock(TcpServerConnection.class), dispatcher, stats);
+        decoder.setNormalPacketsRead(normalPacketCounter);
+        decoder.setPriorityPacketsRead(priorityPacketCounter);
+
+        ByteBuffer src = ByteBuffer.allocate(1000);
+        Packet packet = new Packet(new byte[500], 5).setPacketType(Packet.Type.OPERATION);
+        Packet compressed = new PacketCompressor(0, new PacketCompressionStats()).compress(packet);
+        new PacketIOHelper().writeTo(compressed, src);
+
+        decoder.src(src);
+        decoder.onRead();
+
+        assertEquals(asList(packet), dispatcher.packets);
+        assertEquals(1, stats.decompressedPackets());
+        assertEquals(1, normalPacketCounter.get());
+    }
+
     class ConsumerStub implements Consumer<Packet> {
         private List<Packet> packets = new LinkedList<Packet>();
 
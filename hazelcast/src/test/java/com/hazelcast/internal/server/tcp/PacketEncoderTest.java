@@ -18,6 +18,8 @@ package com.hazelcast.internal.server.tcp;
 
 import com.hazelcast.internal.networking.HandlerStatus;
 import com.hazelcast.internal.nio.Packet;
+import com.hazelcast.internal.nio.PacketCompressionStats;
+import com.hazelcast.internal.nio.PacketCompressor;
 import com.hazelcast.internal.nio.PacketIOHelper;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
@@ -37,8 +39,11 @@ import java.util.function.Supplier;
 
 import static com.hazelcast.internal.networking.HandlerStatus.CLEAN;
 import static com.hazelcast.internal.networking.HandlerStatus.DIRTY;
+import static com.hazelcast.internal.nio.Packet.FLAG_COMPRESSED;
 import static com.hazelcast.internal.util.JVMUtil.upcast;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(HazelcastParallelClassRunner.class)
 @Category({QuickTest.class, ParallelJVMTest.class})
@@ -74,6 +79,29 @@ public class PacketEncoderTest extends HazelcastTestSupport {
         assertEquals(packet, resultPacket);
     }
 
+    @Test
+    public void whenCompressionEnabled() {
+        PacketCompressionStats stats = new PacketCompressionStats();
+        encoder = new PacketEncoder(new PacketCompressor(100, stats));
+        Packet packet = new Packet(serializationService.toBytes(new byte[1000]));
+        ByteBuffer dst = ByteBuffer.allocate(1000);
+        upcast(dst).flip();
+
+        PacketSupplier src = new PacketSupplier();
+        src.queue.add(packet);
+
+        encoder.dst(dst);
+        encoder.src(src);
+
+        HandlerStatus result = encoder.onWrite();
+
+        assertEquals(CLEAN, result);
+        assertEquals(1, stats.compressedPackets());
+        Packet resultPacket = new PacketIOHelper().readFrom(dst);
+        assertTrue(resultPacket.isFlagRaised(FLAG_COMPRESSED));
+        assertEquals(packet, PacketCompressor.decompress(resultPacket, stats));
+    }
+
     @Test
     public void whenNotEnoughSpace() {
         final Packet packet = new Packet(serializationService.toBytes(new byte[2000]));
@@ -91,6 +119,63 @@ public class PacketEncoderTest extends HazelcastTestSupport {
         assertEquals(DIRTY, result);
     }
 
+    @Test
+    public void whenGatheringEnabled_andPacketFits() {
+        Packet packet = new Packet(serializationService.toBytes("foobar"));
+        ByteBuffer dst = ByteBuffer.allocate(1000);
+        upcast(dst).flip();
+
+        PacketSupplier src = new PacketSupplier();
+        src.queue.add(packet);
+
+        encoder.dst(dst);
+        encoder.src(src);
+        encoder.setGatheringEnabled(true);
+
+        HandlerStatus result = encoder.onWrite();
+
+        assertEquals(CLEAN, result);
+        assertNull(encoder.payload());
+        assertEquals(packet, new PacketIOHelper().readFrom(dst));
+    }
+
+    @Test
+    public void whenGatheringEnabled_andPayloadDoesNotFit() {
+        Packet packet1 = new Packet(serializationService.toBytes(new byte[2000]));
+        Packet packet2 = new Packet(serializationService.toBytes("foobar"));
+        ByteBuffer dst = ByteBuffer.allocate(1000);
+        upcast(dst).flip();
+
+        PacketSupplier src = new PacketSupplier();
+        src.queue.add(packet1);
+        src.queue.add(packet2);
+
+        encoder.dst(dst);
+        encoder.src(src);
+        encoder.setGatheringEnabled(true);
+
+        // only the header is written, the payload is handed over
+        assertEquals(DIRTY, encoder.onWrite());
+        ByteBuffer payload = encoder.payload();
+        assertEquals(packet1.totalSize(), payload.remaining());
+        int headerSize = packet1.getFrameLength() - packet1.totalSize();
+        assertEquals(headerSize, dst.remaining());
+
+        // nothing is added as long as the payload isn't written
+        assertEquals(DIRTY, encoder.onWrite());
+        assertEquals(headerSize, dst.remaining());
+
+        ByteBuffer written = ByteBuffer.allocate(packet1.getFrameLength());
+        written.put(dst).put(payload);
+        upcast(written).flip();
+        assertEquals(packet1, new PacketIOHelper().readFrom(written));
+
+        // once the payload is written, the next packet follows
+        assertEquals(CLEAN, encoder.onWrite());
+        assertNull(encoder.payload());
+        assertEquals(packet2, new PacketIOHelper().readFrom(dst));
+    }
+
     static class PacketSupplier implements Supplier<Packet> {
         Queue<Packet> queue = new LinkedBlockingQueue<Packet>();
 
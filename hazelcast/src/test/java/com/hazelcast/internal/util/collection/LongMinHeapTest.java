@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.util.collection;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class LongMinHeapTest {
+
+    private final LongMinHeap heap = new LongMinHeap(2);
+
+    @Test(expected = NoSuchElementException.class)
+    public void peek_whenEmpty() {
+        heap.peek();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void poll_whenEmpty() {
+        heap.poll();
+    }
+
+    @Test
+    public void poll_returnsInAscendingOrder() {
+        heap.add(5);
+        heap.add(1);
+        heap.add(3);
+        heap.add(1);
+
+        assertEquals(4, heap.size());
+        assertEquals(1, heap.peek());
+        assertEquals(1, heap.poll());
+        assertEquals(1, heap.poll());
+        assertEquals(3, heap.poll());
+        assertEquals(5, heap.poll());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void clear() {
+        heap.add(1);
+
+        heap.clear();
+
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void shouldBehaveLikePriorityQueue() {
+        PriorityQueue<Long> expected = new PriorityQueue<>();
+        Random random = new Random();
+        for (int i = 0; i < 100_000; i++) {
+            if (expected.isEmpty() || random.nextInt(3) != 0) {
+                long value = random.nextInt(10_000) - 5_000;
+                expected.add(value);
+                heap.add(value);
+            } else {
+                assertEquals((long) expected.poll(), heap.poll());
+            }
+        }
+        while (!expected.isEmpty()) {
+            assertEquals((long) expected.poll(), heap.poll());
+        }
+        assertTrue(heap.isEmpty());
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.util.collection;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class Object2ObjectHashMapTest {
+
+    private final Object2ObjectHashMap<String, String> map = new Object2ObjectHashMap<>();
+
+    @Test
+    public void shouldDoPutAndThenGet() {
+        map.put("7", "Seven");
+
+        assertEquals("Seven", map.get("7"));
+        assertNull(map.get("8"));
+    }
+
+    @Test
+    public void shouldReplaceExistingValueForTheSameKey() {
+        map.put("7", "Seven");
+
+        String oldValue = map.put("7", "New Seven");
+
+        assertEquals("Seven", oldValue);
+        assertEquals("New Seven", map.get("7"));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void shouldAllowNullKey() {
+        assertNull(map.put(null, "value"));
+
+        assertEquals("value", map.get(null));
+        assertTrue(map.containsKey(null));
+        assertEquals("value", map.put(null, "other"));
+        assertEquals(1, map.size());
+        assertEquals("other", map.remove(null));
+        assertFalse(map.containsKey(null));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void shouldAllowNullValue() {
+        assertNull(map.put("key", null));
+
+        assertNull(map.get("key"));
+        assertTrue(map.containsKey("key"));
+        assertTrue(map.containsValue(null));
+        assertEquals(1, map.size());
+        assertTrue(map.keySet().remove("key"));
+        assertFalse(map.containsKey("key"));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void shouldIterateNullKeysAndValues() {
+        map.put(null, "value");
+        map.put("key", null);
+
+        Map<String, String> copy = new HashMap<>();
+        for (Entry<String, String> entry : map.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue());
+        }
+
+        assertEquals(copy, map);
+        assertEquals(map, copy);
+        assertEquals(copy.hashCode(), map.hashCode());
+    }
+
+    @Test
+    public void shouldComputeValueForKeyMappedToNull() {
+        map.put("7", null);
+
+        assertEquals("Seven", map.computeIfAbsent("7", k -> "Seven"));
+        assertEquals("Seven", map.get("7"));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void shouldGrowWhenThresholdExceeded() {
+        Object2ObjectHashMap<String, String> map = new Object2ObjectHashMap<>(32, 0.5d);
+        for (int i = 0; i < 17; i++) {
+            map.put(Integer.toString(i), Integer.toString(i));
+        }
+
+        assertEquals(64, map.capacity());
+        assertEquals(17, map.size());
+        for (int i = 0; i < 17; i++) {
+            assertEquals(Integer.toString(i), map.get(Integer.toString(i)));
+        }
+    }
+
+    @Test
+    public void shouldHandleCollisionAndThenLinearProbe() {
+        CollidingKey key = new CollidingKey(1);
+        CollidingKey collisionKey = new CollidingKey(2);
+        Object2ObjectHashMap<CollidingKey, String> map = new Object2ObjectHashMap<>();
+        map.put(key, "1");
+        map.put(collisionKey, "2");
+
+        assertEquals("1", map.get(key));
+        assertEquals("2", map.get(collisionKey));
+        assertEquals("1", map.remove(key));
+        assertEquals("2", map.get(collisionKey));
+    }
+
+    @Test
+    public void shouldComputeIfAbsentOnlyOnce() {
+        String value = map.computeIfAbsent("7", k -> "Seven");
+        String secondValue = map.computeIfAbsent("7", k -> "New Seven");
+
+        assertSame(value, secondValue);
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void shouldNotPutWhenComputedValueNull() {
+        assertNull(map.computeIfAbsent("7", k -> null));
+
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void shouldClearCollection() {
+        for (int i = 0; i < 15; i++) {
+            map.put(Integer.toString(i), Integer.toString(i));
+        }
+
+        map.clear();
+
+        assertEquals(0, map.size());
+        assertNull(map.get("1"));
+    }
+
+    @Test
+    public void shouldCompactCollection() {
+        for (int i = 0; i < 50; i++) {
+            map.put(Integer.toString(i), Integer.toString(i));
+        }
+        for (int i = 0; i < 46; i++) {
+            map.remove(Integer.toString(i));
+        }
+        int capacityBeforeCompaction = map.capacity();
+
+        map.compact();
+
+        assertTrue(map.capacity() < capacityBeforeCompaction);
+        assertEquals("49", map.get("49"));
+    }
+
+    @Test
+    public void shouldContainKeyAndValue() {
+        map.put("7", "Seven");
+
+        assertTrue(map.containsKey("7"));
+        assertFalse(map.containsKey("8"));
+        assertTrue(map.containsValue("Seven"));
+        assertFalse(map.containsValue("Eight"));
+    }
+
+    @Test
+    public void shouldIterateAndHandleRemove() {
+        int count = 100;
+        for (int i = 0; i < count; i++) {
+            map.put(Integer.toString(i), Integer.toString(i));
+        }
+
+        int visited = 0;
+        for (Iterator<Entry<String, String>> iter = map.entrySet().iterator(); iter.hasNext(); ) {
+            Entry<String, String> entry = iter.next();
+            assertEquals(entry.getKey(), entry.getValue());
+            iter.remove();
+            visited++;
+        }
+
+        assertEquals(count, visited);
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void shouldSetValueThroughEntry() {
+        map.put("7", "Seven");
+
+        for (Entry<String, String> entry : map.entrySet()) {
+            entry.setValue("Wibble");
+        }
+
+        assertEquals("Wibble", map.get("7"));
+    }
+
+    @Test
+    public void shouldBehaveLikeHashMap() {
+        Map<Integer, Integer> expected = new HashMap<>();
+        Object2ObjectHashMap<Integer, Integer> actual = new Object2ObjectHashMap<>();
+        Random random = new Random();
+        for (int i = 0; i < 100_000; i++) {
+            int k = random.nextInt(1001);
+            Integer key = k == 1000 ? null : k;
+            if (random.nextBoolean()) {
+                Integer value = random.nextInt(10) == 0 ? null : i;
+                assertEquals(expected.put(key, value), actual.put(key, value));
+            } else {
+                assertEquals(expected.remove(key), actual.remove(key));
+            }
+        }
+
+        assertEquals(expected, actual);
+        assertEquals(expected.hashCode(), actual.hashCode());
+    }
+
+    private static final class CollidingKey {
+
+        private final int id;
+
+        CollidingKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.util.concurrent;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class MPSCArrayQueueTest extends HazelcastTestSupport {
+
+    private static final int CAPACITY = 16;
+
+    private MPSCArrayQueue<String> queue;
+
+    @Before
+    public void setup() {
+        queue = new MPSCArrayQueue<>(CAPACITY, null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void setConsumerThread_whenNull() {
+        queue.setConsumerThread(null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void offer_whenNull() {
+        queue.offer(null);
+    }
+
+    @Test
+    public void poll() {
+        queue.offer("1");
+        queue.offer("2");
+
+        assertEquals("1", queue.poll());
+        assertEquals("2", queue.poll());
+        assertNull(queue.poll());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void pollWithTimeout_thenUnsupportedOperation() throws InterruptedException {
+        queue.poll(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void offer_whenArrayFull_thenOverflowRetainsOrder() {
+        int count = CAPACITY * 3;
+        for (int k = 0; k < count; k++) {
+            queue.offer("item" + k);
+        }
+        assertEquals(count, queue.size());
+
+        // the items offered while the overflow is not empty must not pass
+        // the items which are already on the overflow
+        for (int k = 0; k < CAPACITY / 2; k++) {
+            assertEquals("item" + k, queue.poll());
+        }
+        queue.offer("last");
+
+        for (int k = CAPACITY / 2; k < count; k++) {
+            assertEquals("item" + k, queue.poll());
+        }
+        assertEquals("last", queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void peek() {
+        assertNull(queue.peek());
+
+        queue.offer("1");
+
+        assertEquals("1", queue.peek());
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void take_whenItemAvailable() throws Exception {
+        queue.setConsumerThread(Thread.currentThread());
+        queue.offer("1");
+        queue.offer("2");
+
+        assertEquals("1", queue.take());
+        assertEquals("2", queue.take());
+    }
+
+    @Test
+    public void take_whenItemAvailableAfterSomeBlocking() throws Exception {
+        queue.setConsumerThread(Thread.currentThread());
+        spawn(() -> {
+            sleepSeconds(2);
+            queue.offer("1");
+        });
+
+        assertEquals("1", queue.take());
+    }
+
+    @Test(expected = InterruptedException.class)
+    public void take_whenInterruptedWhileWaiting() throws Exception {
+        Thread consumerThread = Thread.currentThread();
+        queue.setConsumerThread(consumerThread);
+        spawn(() -> {
+            sleepSeconds(2);
+            consumerThread.interrupt();
+        });
+
+        queue.take();
+    }
+
+    @Test
+    public void take_whenManyProducers_thenFifoPerProducer() throws Exception {
+        int producerCount = 4;
+        int itemsPerProducer = 100_000;
+        MPSCArrayQueue<long[]> queue = new MPSCArrayQueue<>(CAPACITY, null);
+        queue.setConsumerThread(Thread.currentThread());
+
+        Future[] producers = new Future[producerCount];
+        for (int p = 0; p < producerCount; p++) {
+            int producerId = p;
+            producers[p] = spawn(() -> {
+                for (long k = 0; k < itemsPerProducer; k++) {
+                    queue.offer(new long[]{producerId, k});
+                }
+            });
+        }
+
+        long[] expected = new long[producerCount];
+        for (int k = 0; k < producerCount * itemsPerProducer; k++) {
+            long[] item = queue.take();
+            int producerId = (int) item[0];
+            assertEquals(expected[producerId], item[1]);
+            expected[producerId]++;
+        }
+        for (Future producer : producers) {
+            producer.get();
+        }
+        assertTrue(queue.isEmpty());
+    }
+}
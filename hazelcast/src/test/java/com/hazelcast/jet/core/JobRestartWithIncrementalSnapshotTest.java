@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.core;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.SlowTest;
+import org.junit.Before;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.spi.properties.ClusterProperty.JET_SNAPSHOT_MAX_INCREMENTAL_COUNT;
+
+/**
+ * Runs the {@link JobRestartWithSnapshotTest} tests with incremental
+ * snapshots enabled, the job is restored from a chain of a full and
+ * incremental snapshots.
+ */
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({SlowTest.class, ParallelJVMTest.class})
+public class JobRestartWithIncrementalSnapshotTest extends JobRestartWithSnapshotTest {
+
+    @Before
+    @Override
+    public void setup() {
+        Config config = smallInstanceConfig();
+        config.getJetConfig().setCooperativeThreadCount(LOCAL_PARALLELISM);
+        config.setProperty(JET_SNAPSHOT_MAX_INCREMENTAL_COUNT.getName(), "2");
+
+        instance1 = createHazelcastInstance(config);
+        instance2 = createHazelcastInstance(config);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.core;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.jet.Job;
+import com.hazelcast.jet.config.JobConfig;
+import com.hazelcast.jet.impl.JobExecutionRecord;
+import com.hazelcast.jet.impl.JobRepository;
+import com.hazelcast.jet.impl.SnapshotValidationRecord;
+import com.hazelcast.map.IMap;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.SlowTest;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static com.hazelcast.jet.config.ProcessingGuarantee.EXACTLY_ONCE;
+import static com.hazelcast.jet.core.Edge.between;
+import static com.hazelcast.jet.core.TestUtil.throttle;
+import static com.hazelcast.jet.core.processor.Processors.noopP;
+import static com.hazelcast.spi.properties.ClusterProperty.JET_SNAPSHOT_STORE;
+import static com.hazelcast.spi.properties.ClusterProperty.JET_SNAPSHOT_STORE_DIRECTORY;
+import static java.util.Collections.singleton;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the {@link JobRestartWithSnapshotTest} tests with the snapshot data
+ * stored in the local-disk snapshot store.
+ */
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({SlowTest.class, ParallelJVMTest.class})
+public class JobRestartWithLocalDiskSnapshotStoreTest extends JobRestartWithSnapshotTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Before
+    @Override
+    public void setup() {
+        Config config = smallInstanceConfig();
+        config.getJetConfig().setCooperativeThreadCount(LOCAL_PARALLELISM);
+        config.setProperty(JET_SNAPSHOT_STORE.getName(), "local-disk");
+        config.setProperty(JET_SNAPSHOT_STORE_DIRECTORY.getName(), tempFolder.getRoot().getAbsolutePath());
+
+        instance1 = createHazelcastInstance(config);
+        instance2 = createHazelcastInstance(config);
+    }
+
+    @Test
+    public void when_snapshotTaken_then_mapContainsOnlyValidationRecordAndChunksAreInFiles() {
+        DAG dag = new DAG();
+        Vertex generator = dag.newVertex("generator",
+                throttle(() -> new SequencesInPartitionsGeneratorP(3, Integer.MAX_VALUE, false), 30))
+                              .localParallelism(1);
+        Vertex sink = dag.newVertex("sink", noopP());
+        dag.edge(between(generator, sink));
+
+        JobConfig config = new JobConfig();
+        config.setProcessingGuarantee(EXACTLY_ONCE);
+        config.setSnapshotIntervalMillis(100);
+        Job job = instance1.getJet().newJob(dag, config);
+        JobRepository repository = new JobRepository(instance1);
+
+        assertTrueEventually(() -> {
+            JobExecutionRecord record = repository.getJobExecutionRecord(job.getId());
+            assertNotNull("null JobExecutionRecord", record);
+            assertTrue("no snapshot yet", record.snapshotId() >= 0);
+            IMap<Object, Object> snapshotMap =
+                    instance1.getMap(JobRepository.snapshotDataMapName(job.getId(), record.dataMapIndex()));
+            assertEquals(singleton(SnapshotValidationRecord.KEY), snapshotMap.keySet());
+            assertTrue("no chunk files", countChunkFiles() > 0);
+        });
+
+        job.cancel();
+    }
+
+    private long countChunkFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(tempFolder.getRoot().toPath())) {
+            return files.filter(file -> file.toString().endsWith(".chunks")).count();
+        }
+    }
+}
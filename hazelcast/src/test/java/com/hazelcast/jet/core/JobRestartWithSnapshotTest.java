@@ -81,13 +81,13 @@ import static org.junit.Assert.assertTrue;
 @Category({SlowTest.class, ParallelJVMTest.class})
 public class JobRestartWithSnapshotTest extends JetTestSupport {
 
-    private static final int LOCAL_PARALLELISM = 4;
+    static final int LOCAL_PARALLELISM = 4;
 
     @Rule
     public ExpectedException expectedException = ExpectedException.none();
 
-    private HazelcastInstance instance1;
-    private HazelcastInstance instance2;
+    HazelcastInstance instance1;
+    HazelcastInstance instance2;
 
     @Before
     public void setup() {
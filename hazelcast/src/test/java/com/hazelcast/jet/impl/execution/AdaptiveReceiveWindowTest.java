@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.jet.impl.execution.AdaptiveReceiveWindow.BANDWIDTH_FILTER_LENGTH;
+import static com.hazelcast.jet.impl.execution.AdaptiveReceiveWindow.MIN_RECEIVE_WINDOW_COMPRESSED;
+import static com.hazelcast.jet.impl.execution.AdaptiveReceiveWindow.MIN_RTT_FILTER_NANOS;
+import static com.hazelcast.jet.impl.execution.ReceiverTasklet.COMPRESSED_SEQ_UNIT_LOG2;
+import static com.hazelcast.jet.impl.execution.ReceiverTasklet.INITIAL_RECEIVE_WINDOW_COMPRESSED;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class AdaptiveReceiveWindowTest {
+
+    private static final long PERIOD = MILLISECONDS.toNanos(100);
+    private static final long SEQS_PER_PERIOD = 1000L << COMPRESSED_SEQ_UNIT_LOG2;
+
+    private final AdaptiveReceiveWindow window = new AdaptiveReceiveWindow(PERIOD);
+
+    @Test
+    public void when_noRttSample_then_windowIsTwiceTheDataPerPeriod() {
+        int rwin = window.update(SEQS_PER_PERIOD, PERIOD, INITIAL_RECEIVE_WINDOW_COMPRESSED, false);
+
+        assertEquals(2000, rwin);
+        assertEquals(-1, window.minRttNanos());
+        assertEquals(SEQS_PER_PERIOD * 10, window.bandwidthBytesPerSecond());
+    }
+
+    @Test
+    public void when_rttSample_then_windowIsTwiceTheBandwidthDelayProduct() {
+        window.addRttSample(PERIOD, SECONDS.toNanos(1));
+
+        int rwin = window.update(SEQS_PER_PERIOD, PERIOD, INITIAL_RECEIVE_WINDOW_COMPRESSED, false);
+
+        assertEquals(4000, rwin);
+    }
+
+    @Test
+    public void when_higherRttSample_then_minRttKept() {
+        window.addRttSample(PERIOD, SECONDS.toNanos(1));
+        window.addRttSample(3 * PERIOD, SECONDS.toNanos(2));
+
+        assertEquals(PERIOD, window.minRttNanos());
+    }
+
+    @Test
+    public void when_minRttExpires_then_replacedByNewSample() {
+        long start = SECONDS.toNanos(1);
+        window.addRttSample(PERIOD, start);
+        window.addRttSample(3 * PERIOD, start + MIN_RTT_FILTER_NANOS + 1);
+
+        assertEquals(3 * PERIOD, window.minRttNanos());
+    }
+
+    @Test
+    public void when_rateDrops_then_bandwidthIsMaxOfRecentSamples() {
+        int rwin = window.update(SEQS_PER_PERIOD, PERIOD, INITIAL_RECEIVE_WINDOW_COMPRESSED, false);
+        for (int i = 1; i < BANDWIDTH_FILTER_LENGTH; i++) {
+            rwin = window.update(SEQS_PER_PERIOD / 2, PERIOD, rwin, true);
+            assertEquals(2000, rwin);
+        }
+        assertEquals(SEQS_PER_PERIOD * 10, window.bandwidthBytesPerSecond());
+
+        // the first sample leaves the filter
+        window.update(SEQS_PER_PERIOD / 2, PERIOD, rwin, true);
+        assertEquals(SEQS_PER_PERIOD * 5, window.bandwidthBytesPerSecond());
+    }
+
+    @Test
+    public void when_receiverIdle_then_windowNotShrunk() {
+        int rwin = INITIAL_RECEIVE_WINDOW_COMPRESSED;
+        for (int i = 0; i < 2 * BANDWIDTH_FILTER_LENGTH; i++) {
+            rwin = window.update(0, PERIOD, rwin, true);
+        }
+
+        assertEquals(INITIAL_RECEIVE_WINDOW_COMPRESSED, rwin);
+    }
+
+    @Test
+    public void when_receiverBusy_then_windowShrunkHalfwayToMinimum() {
+        int rwin = INITIAL_RECEIVE_WINDOW_COMPRESSED;
+        rwin = window.update(0, PERIOD, rwin, false);
+        assertEquals(MIN_RECEIVE_WINDOW_COMPRESSED + (INITIAL_RECEIVE_WINDOW_COMPRESSED - MIN_RECEIVE_WINDOW_COMPRESSED + 1) / 2,
+                rwin);
+
+        for (int i = 0; i < 20; i++) {
+            rwin = window.update(0, PERIOD, rwin, false);
+        }
+        assertEquals(MIN_RECEIVE_WINDOW_COMPRESSED + 1, rwin);
+    }
+}
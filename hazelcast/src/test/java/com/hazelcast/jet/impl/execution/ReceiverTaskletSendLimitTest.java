@@ -147,4 +147,29 @@ public class ReceiverTaskletSendLimitTest {
         final long rwin = seqLimitAfterRecover - ackedSeqCompressed;
         assertTrue(rwin >= RWIN_MULTIPLIER * ackedSeqsPerIterCompressed);
     }
+
+    @Test
+    public void when_adaptiveWindowAndSteadyFlow_then_rwinIsTwiceTheAckedSeqsPerPeriod() {
+        // Given
+        tasklet = new ReceiverTasklet(null,
+                new DefaultSerializationServiceBuilder().build(),
+                RWIN_MULTIPLIER, FLOW_CONTROL_PERIOD_MS, true,
+                new LoggingServiceImpl(null, null, BuildInfoProvider.getBuildInfo(), false, null),
+                new Address(), 0, "", null, "");
+        final int ackedSeqsPerIterCompressed = 1000;
+        final long ackedSeqsPerIter = ackedSeqsPerIterCompressed << COMPRESSED_SEQ_UNIT_LOG2;
+        final int iterCount = 15;
+        long seqLimitCompressed = 0;
+
+        // When
+        for (int i = 0; i < iterCount; i++) {
+            tasklet.ackItem(ackedSeqsPerIter);
+            seqLimitCompressed = tasklet.updateAndGetSendSeqLimitCompressed(START + i * ACK_PERIOD, null);
+        }
+
+        // Then
+        final long ackedSeqCompressed = (iterCount * ackedSeqsPerIter) >> COMPRESSED_SEQ_UNIT_LOG2;
+        final long rwin = seqLimitCompressed - ackedSeqCompressed;
+        assertEquals(2 * ackedSeqsPerIterCompressed, rwin);
+    }
 }
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.core.BroadcastKey.broadcastKey;
+import static com.hazelcast.jet.impl.execution.SnapshotTombstone.TOMBSTONE;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class SnapshotChainMergerTest {
+
+    private final SnapshotChainMerger merger = new SnapshotChainMerger();
+    private final Deque<Object> queue = new ArrayDeque<>();
+
+    @Test
+    public void when_keyInMoreSnapshots_then_newestValueRestored() {
+        // the order of snapshots in the input doesn't matter
+        queue.add(entry("a", new SnapshotChainValue(2, true, "a2")));
+        queue.add(entry("a", new SnapshotChainValue(0, false, "a0")));
+        queue.add(entry("b", new SnapshotChainValue(0, false, "b0")));
+        queue.add(entry("a", new SnapshotChainValue(1, false, "a1")));
+        merger.addAll(queue);
+        assertTrue(queue.isEmpty());
+
+        assertEquals(new HashSet<>(asList(entry("a", "a2"), entry("b", "b0"))), new HashSet<>(drainAll()));
+    }
+
+    @Test
+    public void when_newestValueIsTombstone_then_keyNotRestored() {
+        queue.add(entry("a", new SnapshotChainValue(0, false, "a0")));
+        queue.add(entry("a", new SnapshotChainValue(1, true, TOMBSTONE)));
+        queue.add(entry("b", new SnapshotChainValue(1, true, TOMBSTONE)));
+        merger.addAll(queue);
+
+        assertEquals(new ArrayList<>(), drainAll());
+    }
+
+    @Test
+    public void when_broadcastKey_then_allItemsFromNewestSnapshotRestored() {
+        Object key = broadcastKey("wm");
+        queue.add(new BroadcastEntry<>(key, new SnapshotChainValue(0, false, 10L)));
+        queue.add(new BroadcastEntry<>(key, new SnapshotChainValue(1, true, 20L)));
+        queue.add(new BroadcastEntry<>(key, new SnapshotChainValue(1, true, 21L)));
+        merger.addAll(queue);
+
+        List<Object> restored = drainAll();
+        assertEquals(new HashSet<>(asList(entry(key, 20L), entry(key, 21L))), new HashSet<>(restored));
+        assertTrue(restored.stream().allMatch(item -> item instanceof BroadcastEntry));
+    }
+
+    @Test
+    public void when_drainInBatches_then_allRestored() {
+        for (int i = 0; i < 10; i++) {
+            queue.add(entry(i, new SnapshotChainValue(0, true, i)));
+        }
+        merger.addAll(queue);
+
+        assertTrue(merger.drainTo(queue, 4));
+        assertEquals(4, queue.size());
+        queue.clear();
+        assertTrue(merger.drainTo(queue, 4));
+        assertTrue(merger.drainTo(queue, 4));
+        assertEquals(6, queue.size());
+        assertFalse(merger.drainTo(queue, 4));
+    }
+
+    @Test
+    public void when_retainLatest_then_onlyLatestUnwrapped() {
+        queue.add(entry("a", new SnapshotChainValue(0, false, "a0")));
+        queue.add(new BroadcastEntry<>("b", new SnapshotChainValue(1, true, "b1")));
+        queue.add(entry("c", new SnapshotChainValue(1, true, "c1")));
+
+        SnapshotChainMerger.retainLatest(queue);
+
+        assertEquals(asList(entry("b", "b1"), entry("c", "c1")), new ArrayList<>(queue));
+        assertTrue(queue.peek() instanceof BroadcastEntry);
+    }
+
+    private List<Object> drainAll() {
+        while (merger.drainTo(queue, 2)) { }
+        List<Object> result = new ArrayList<>(queue);
+        queue.clear();
+        return result;
+    }
+}
@@ -48,6 +48,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.LockSupport;
 import java.util.stream.Stream;
 
@@ -57,9 +58,12 @@ import static com.hazelcast.jet.impl.util.ExceptionUtil.sneakyThrow;
 import static com.hazelcast.jet.impl.util.ProgressState.DONE;
 import static com.hazelcast.jet.impl.util.ProgressState.MADE_PROGRESS;
 import static com.hazelcast.jet.impl.util.ProgressState.NO_PROGRESS;
+import static com.hazelcast.spi.properties.ClusterProperty.JET_COOPERATIVE_WORK_STEALING;
+import static com.hazelcast.spi.properties.ClusterProperty.JET_NONCOOPERATIVE_VIRTUAL_THREADS;
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -85,11 +89,12 @@ public class TaskletExecutionServiceTest extends JetTestSupport {
     private TaskletExecutionService tes;
     private ExecutorService executor;
     private ClassLoader classLoaderMock;
+    private NodeEngineImpl neMock;
 
     @Before
     public void before() {
         executor = Executors.newCachedThreadPool();
-        NodeEngineImpl neMock = mock(NodeEngineImpl.class);
+        neMock = mock(NodeEngineImpl.class);
 
         HazelcastInstance hzMock = mock(HazelcastInstance.class);
         when(neMock.getHazelcastInstance()).thenReturn(hzMock);
@@ -330,6 +335,45 @@ public class TaskletExecutionServiceTest extends JetTestSupport {
         // -- assertions are inside TaskletAssertingThreadLocal and will fail, if t1 and t2 are running on the same thread
     }
 
+    @Test
+    public void when_workStealingEnabledAndTwoHotTaskletsOnOneWorker_then_oneMovedToIdleWorker() {
+        // Given
+        tes.shutdown();
+        Properties properties = new Properties();
+        properties.setProperty(JET_COOPERATIVE_WORK_STEALING.getName(), "true");
+        tes = new TaskletExecutionService(neMock, THREAD_COUNT, new HazelcastProperties(properties));
+        AtomicBoolean moved = new AtomicBoolean();
+        // assigned round-robin, the hot tasklets end up on the same worker
+        List<Tasklet> tasklets = asList(new HotTasklet(moved), new IdleTasklet(moved), new IdleTasklet(moved),
+                new IdleTasklet(moved), new HotTasklet(moved));
+
+        // When
+        tes.beginExecute(tasklets, cancellationFuture, classLoaderMock).join();
+
+        // Then
+        assertTrue("no hot tasklet was moved to another worker", moved.get());
+    }
+
+    @Test
+    public void when_virtualThreadsEnabled_then_blockingTaskletRunsOnVirtualThreadIfSupported() {
+        // Given
+        tes.shutdown();
+        Properties properties = new Properties();
+        properties.setProperty(JET_NONCOOPERATIVE_VIRTUAL_THREADS.getName(), "true");
+        tes = new TaskletExecutionService(neMock, THREAD_COUNT, new HazelcastProperties(properties));
+        ThreadNameTasklet tasklet = new ThreadNameTasklet();
+
+        // When
+        tes.beginExecute(singletonList(tasklet), cancellationFuture, classLoaderMock).join();
+
+        // Then
+        boolean virtualThreadsSupported = VirtualThreads.newThreadFactory("test") != null;
+        String expectedPrefix = virtualThreadsSupported
+                ? "hz.test-hz-instance.jet.blocking.virtual-thread-"
+                : "hz.test-hz-instance.jet.blocking.thread-";
+        assertTrue("unexpected thread: " + tasklet.threadName, tasklet.threadName.startsWith(expectedPrefix));
+    }
+
     @Test
     public void when_tryCompleteOnReturnedFuture_then_fails() {
         // Given
@@ -493,6 +537,70 @@ public class TaskletExecutionServiceTest extends JetTestSupport {
         }
     }
 
+    private static class HotTasklet implements Tasklet {
+
+        private final AtomicBoolean moved;
+        private final AtomicBoolean running = new AtomicBoolean();
+        private final long deadline = System.nanoTime() + SECONDS.toNanos(ASSERT_TRUE_EVENTUALLY_TIMEOUT);
+        private Thread firstThread;
+
+        HotTasklet(AtomicBoolean moved) {
+            this.moved = moved;
+        }
+
+        @Nonnull
+        @Override
+        public ProgressState call() {
+            assertTrue("the tasklet was called concurrently", running.compareAndSet(false, true));
+            try {
+                if (firstThread == null) {
+                    firstThread = Thread.currentThread();
+                } else if (firstThread != Thread.currentThread()) {
+                    moved.set(true);
+                }
+                long end = System.nanoTime() + MILLISECONDS.toNanos(1);
+                while (System.nanoTime() < end) {
+                    // busy spin to occupy the worker
+                }
+                return moved.get() || System.nanoTime() > deadline ? DONE : MADE_PROGRESS;
+            } finally {
+                running.set(false);
+            }
+        }
+    }
+
+    private static class IdleTasklet implements Tasklet {
+
+        private final AtomicBoolean moved;
+
+        IdleTasklet(AtomicBoolean moved) {
+            this.moved = moved;
+        }
+
+        @Nonnull
+        @Override
+        public ProgressState call() {
+            return moved.get() ? DONE : NO_PROGRESS;
+        }
+    }
+
+    private static class ThreadNameTasklet implements Tasklet {
+
+        private volatile String threadName;
+
+        @Override
+        public boolean isCooperative() {
+            return false;
+        }
+
+        @Nonnull
+        @Override
+        public ProgressState call() {
+            threadName = Thread.currentThread().getName();
+            return DONE;
+        }
+    }
+
     private static class TaskletAssertingThreadLocal implements Tasklet {
 
         private static ThreadLocal<Integer> threadLocal = ThreadLocal.withInitial(() -> 0);
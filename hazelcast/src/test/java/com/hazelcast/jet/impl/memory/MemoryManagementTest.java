@@ -37,6 +37,7 @@ import static com.hazelcast.function.Functions.wholeItem;
 import static com.hazelcast.jet.Util.entry;
 import static com.hazelcast.jet.aggregate.AggregateOperations.counting;
 import static com.hazelcast.jet.pipeline.Sinks.noop;
+import static com.hazelcast.jet.pipeline.test.AssertionSinks.assertAnyOrder;
 import static com.hazelcast.jet.pipeline.test.AssertionSinks.assertOrdered;
 import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
@@ -72,7 +73,7 @@ public class MemoryManagementTest extends SimpleTestInClusterSupport {
         pipeline.readFrom(TestSources.items(list(MAX_PROCESSOR_ACCUMULATED_RECORDS)))
                 .groupingKey(wholeItem())
                 .aggregate(counting())
-                .writeTo(assertOrdered(cardinalities(MAX_PROCESSOR_ACCUMULATED_RECORDS)));
+                .writeTo(assertAnyOrder(cardinalities(MAX_PROCESSOR_ACCUMULATED_RECORDS)));
 
         instance().getJet().newJob(pipeline).join();
     }
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.memory;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.jet.SimpleTestInClusterSupport;
+import com.hazelcast.jet.aggregate.AggregateOperation1;
+import com.hazelcast.jet.aggregate.AggregateOperation;
+import com.hazelcast.jet.pipeline.Pipeline;
+import com.hazelcast.jet.pipeline.test.TestSources;
+import com.hazelcast.spi.properties.ClusterProperty;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static com.hazelcast.function.Functions.wholeItem;
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.aggregate.AggregateOperations.counting;
+import static com.hazelcast.jet.pipeline.Sinks.noop;
+import static com.hazelcast.jet.pipeline.test.AssertionSinks.assertAnyOrder;
+import static com.hazelcast.jet.pipeline.test.AssertionSinks.assertOrdered;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SpillingTest extends SimpleTestInClusterSupport {
+
+    // more than SpillFile.IO_BATCH_SIZE, so that spilling and restoring a
+    // run or partition takes several calls
+    private static final int MAX_PROCESSOR_ACCUMULATED_RECORDS = 3000;
+    private static final int ITEM_COUNT = 200_000;
+
+    private static File spillDirectory;
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        spillDirectory = Files.createTempDirectory("jet-spill-test").toFile();
+        Config config = smallInstanceConfig()
+                .setProperty(ClusterProperty.JET_SPILL_DIRECTORY.getName(), spillDirectory.getAbsolutePath());
+        config.getJetConfig()
+                .setCooperativeThreadCount(1)
+                .setMaxProcessorAccumulatedRecords(MAX_PROCESSOR_ACCUMULATED_RECORDS);
+
+        initialize(1, config);
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        File[] files = spillDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        spillDirectory.delete();
+    }
+
+    @Test
+    public void when_maxAccumulatedRecordsCountIsExceededWhileSorting_then_spills() {
+        List<Integer> items = IntStream.range(0, ITEM_COUNT).boxed().collect(toList());
+        List<Integer> shuffled = new ArrayList<>(items);
+        Collections.shuffle(shuffled, new Random(42));
+
+        Pipeline pipeline = Pipeline.create();
+        pipeline.readFrom(TestSources.items(shuffled))
+                .sort()
+                .writeTo(assertOrdered(items));
+
+        instance().getJet().newJob(pipeline).join();
+
+        assertNoSpillFilesLeft();
+    }
+
+    @Test
+    public void when_maxAccumulatedRecordsCountIsExceededWhileGrouping_then_spills() {
+        int keyCount = ITEM_COUNT / 2;
+        List<Integer> items = IntStream.range(0, ITEM_COUNT).map(i -> i % keyCount).boxed().collect(toList());
+        List<Entry<Integer, Long>> expected = IntStream.range(0, keyCount)
+                .mapToObj(i -> entry(i, 2L))
+                .collect(toList());
+
+        Pipeline pipeline = Pipeline.create();
+        pipeline.readFrom(TestSources.items(items))
+                .groupingKey(wholeItem())
+                .aggregate(counting())
+                .writeTo(assertAnyOrder(expected));
+
+        instance().getJet().newJob(pipeline).join();
+
+        assertNoSpillFilesLeft();
+    }
+
+    @Test
+    public void when_aggregateOperationCannotCombine_then_throws() {
+        AggregateOperation1<Object, long[], Long> countingWithoutCombine = AggregateOperation
+                .withCreate(() -> new long[1])
+                .andAccumulate((long[] acc, Object item) -> acc[0]++)
+                .andExportFinish(acc -> acc[0]);
+
+        Pipeline pipeline = Pipeline.create();
+        pipeline.readFrom(TestSources.items(IntStream.range(0, ITEM_COUNT).boxed().collect(toList())))
+                .groupingKey(wholeItem())
+                .aggregate(countingWithoutCombine)
+                .writeTo(noop());
+
+        assertThatThrownBy(() -> instance().getJet().newJob(pipeline).join())
+                .hasMessageContaining("Exception thrown to prevent an OutOfMemoryError on this Hazelcast instance");
+    }
+
+    private static void assertNoSpillFilesLeft() {
+        assertThat(spillDirectory.list()).isEmpty();
+    }
+}
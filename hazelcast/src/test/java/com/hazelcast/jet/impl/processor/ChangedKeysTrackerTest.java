@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashSet;
+import java.util.Map.Entry;
+
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.impl.execution.SnapshotTombstone.TOMBSTONE;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class ChangedKeysTrackerTest {
+
+    private final ChangedKeysTracker<String> tracker = new ChangedKeysTracker<>();
+
+    @Before
+    public void before() {
+        tracker.enable();
+    }
+
+    @Test
+    public void when_notEnabled_then_nothingTracked() {
+        ChangedKeysTracker<String> disabled = new ChangedKeysTracker<>();
+        disabled.updated("a");
+        disabled.beginSnapshot(true);
+
+        assertFalse(disabled.isEnabled());
+        assertFalse(disabled.isIncremental());
+        assertNull(disabled.savedUpdated());
+    }
+
+    @Test
+    public void when_updatedAndRemoved_then_lastChangeWins() {
+        tracker.updated("a");
+        tracker.updated("b");
+        tracker.removed("b");
+        tracker.removed("c");
+        tracker.updated("c");
+
+        tracker.beginSnapshot(true);
+
+        assertTrue(tracker.isIncremental());
+        assertEquals(new HashSet<>(asList("a", "c")), tracker.savedUpdated());
+        assertEquals(singleton("b"), tracker.savedRemoved());
+    }
+
+    @Test
+    public void when_snapshotSuccessful_then_savedChangesDropped() {
+        tracker.updated("a");
+        tracker.beginSnapshot(true);
+        tracker.updated("b");
+        tracker.snapshotCommitFinish(true);
+
+        assertFalse(tracker.isIncremental());
+        tracker.beginSnapshot(true);
+        assertEquals(singleton("b"), tracker.savedUpdated());
+    }
+
+    @Test
+    public void when_snapshotFailed_then_savedChangesMergedBack() {
+        tracker.updated("a");
+        tracker.updated("b");
+        tracker.beginSnapshot(true);
+        tracker.removed("a");
+        tracker.snapshotCommitFinish(false);
+
+        tracker.beginSnapshot(true);
+        assertEquals(singleton("b"), tracker.savedUpdated());
+        assertEquals(singleton("a"), tracker.savedRemoved());
+    }
+
+    @Test
+    public void when_removeAllTraverser_then_tombstonesForAllKeys() {
+        tracker.updated("a");
+        tracker.removed("b");
+        tracker.beginSnapshot(true);
+        tracker.updated("c");
+
+        Traverser<Entry<String, Object>> traverser = tracker.removeAllTraverser(asList("c", "d"));
+        HashSet<Object> tombstones = new HashSet<>();
+        for (Object item; (item = traverser.next()) != null; ) {
+            tombstones.add(item);
+        }
+
+        assertEquals(new HashSet<>(asList(
+                entry("a", TOMBSTONE), entry("b", TOMBSTONE), entry("c", TOMBSTONE), entry("d", TOMBSTONE))),
+                tombstones);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.snapshot;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class SnapshotChunkFileTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private Path file;
+
+    @Before
+    public void before() throws IOException {
+        file = tempFolder.newFile("test.chunks").toPath();
+    }
+
+    @Test
+    public void when_emptyFile_then_noRecords() throws IOException {
+        try (SnapshotChunkFile.Reader reader = new SnapshotChunkFile.Reader(file)) {
+            assertNull(reader.nextKey());
+        }
+    }
+
+    @Test
+    public void when_recordsAppended_then_readInOrder() throws IOException {
+        List<byte[]> keys = new ArrayList<>();
+        List<byte[]> chunks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, CREATE, WRITE, APPEND)) {
+            for (int i = 0; i < 100; i++) {
+                keys.add(bytes(i % 7, i));
+                chunks.add(bytes(i * 3, i + 1));
+                SnapshotChunkFile.append(channel, keys.get(i), chunks.get(i));
+            }
+        }
+
+        // a small window forces remapping, some records are larger than the window
+        try (SnapshotChunkFile.Reader reader = new SnapshotChunkFile.Reader(file, 64)) {
+            for (int i = 0; i < keys.size(); i++) {
+                assertArrayEquals(keys.get(i), reader.nextKey());
+                if (i % 2 == 0) {
+                    assertArrayEquals(chunks.get(i), reader.nextChunk());
+                } else {
+                    reader.skipChunk();
+                }
+            }
+            assertNull(reader.nextKey());
+        }
+    }
+
+    @Test
+    public void when_fileAppendedAfterReopening_then_allRecordsRead() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, CREATE, WRITE, APPEND)) {
+            SnapshotChunkFile.append(channel, bytes(1, 1), bytes(2, 2));
+        }
+        try (FileChannel channel = FileChannel.open(file, CREATE, WRITE, APPEND)) {
+            SnapshotChunkFile.append(channel, bytes(3, 3), bytes(4, 4));
+        }
+
+        int count = 0;
+        try (SnapshotChunkFile.Reader reader = new SnapshotChunkFile.Reader(file)) {
+            while (reader.nextKey() != null) {
+                reader.nextChunk();
+                count++;
+            }
+        }
+        assertEquals(2, count);
+    }
+
+    @Test(expected = IOException.class)
+    public void when_fileTruncated_then_fail() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, CREATE, WRITE, APPEND)) {
+            SnapshotChunkFile.append(channel, bytes(10, 1), bytes(100, 2));
+            channel.truncate(channel.size() - 1);
+        }
+
+        try (SnapshotChunkFile.Reader reader = new SnapshotChunkFile.Reader(file)) {
+            reader.nextKey();
+            reader.nextChunk();
+        }
+    }
+
+    private static byte[] bytes(int length, int seed) {
+        byte[] result = new byte[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = (byte) (seed + i);
+        }
+        return result;
+    }
+}
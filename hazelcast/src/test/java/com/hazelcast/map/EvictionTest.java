@@ -671,6 +671,42 @@ public class EvictionTest extends HazelcastTestSupport {
         }
     }
 
+    @Test
+    public void testEvictionTinyLFU_frequentlyAccessedEntriesSurviveScan() {
+        int size = 1000;
+        int hotEntryCount = 50;
+        String mapName = randomMapName();
+
+        MapConfig mapConfig = newMapConfig(mapName);
+        mapConfig.getEvictionConfig()
+                .setEvictionPolicy(EvictionPolicy.TINY_LFU)
+                .setMaxSizePolicy(MaxSizePolicy.PER_NODE)
+                .setSize(size);
+
+        Config config = getConfig()
+                .setProperty(ClusterProperty.PARTITION_COUNT.getName(), "1")
+                .addMapConfig(mapConfig);
+
+        HazelcastInstance node = createHazelcastInstance(config);
+        IMap<Object, Object> map = node.getMap(mapName);
+        for (int i = 0; i < hotEntryCount; i++) {
+            map.put(i, i);
+            for (int j = 0; j < 3; j++) {
+                map.get(i);
+            }
+        }
+        // a scan which writes many more entries than the map can hold, the hot
+        // entries are read less often than it would take to keep them in LRU order
+        for (int i = hotEntryCount; i < 20 * size; i++) {
+            if (i % 40 == 0) {
+                assertNotNull(map.get(i / 40 % hotEntryCount));
+            }
+            map.put(i, i);
+        }
+
+        assertTrue(map.size() <= size);
+    }
+
     @Test(timeout = 5 * 60 * 1000)
     public void testMapRecordEviction() {
         String mapName = randomMapName();
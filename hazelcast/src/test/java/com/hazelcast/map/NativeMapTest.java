@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.config.NativeMemoryConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.memory.impl.UnsafeMallocMemoryManager;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.memory.MemorySize;
+import com.hazelcast.memory.MemoryUnit;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.hazelcast.test.Accessors.getNodeEngineImpl;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class NativeMapTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 1000;
+
+    @Test
+    public void testBasicOperations() {
+        HazelcastInstance instance = createHazelcastInstance(getConfig());
+        IMap<Integer, String> map = instance.getMap(randomMapName());
+
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, "value-" + i);
+        }
+        map.replace(1, "newValue");
+        map.remove(2);
+        map.set(3, "a much longer value than the previous one");
+
+        assertEquals(ENTRY_COUNT - 1, map.size());
+        assertEquals("value-0", map.get(0));
+        assertEquals("newValue", map.get(1));
+        assertNull(map.get(2));
+        assertEquals("a much longer value than the previous one", map.get(3));
+        assertEquals(ENTRY_COUNT - 1, map.keySet().size());
+        assertEquals(ENTRY_COUNT - 1, map.entrySet().size());
+    }
+
+    @Test
+    public void testQueryAndEntryProcessor() {
+        HazelcastInstance instance = createHazelcastInstance(getConfig());
+        IMap<Integer, Integer> map = instance.getMap(randomMapName());
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, i);
+        }
+
+        map.executeOnEntries(entry -> {
+            entry.setValue(entry.getValue() + 1);
+            return null;
+        });
+
+        assertEquals(10, map.values(Predicates.between("this", 1, 10)).size());
+        assertEquals(ENTRY_COUNT, (int) map.get(ENTRY_COUNT - 1));
+    }
+
+    @Test
+    public void testIterator() {
+        HazelcastInstance instance = createHazelcastInstance(getConfig());
+        IMap<Integer, Integer> map = instance.getMap(randomMapName());
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, i);
+            expected.put(i, i);
+        }
+
+        Map<Integer, Integer> actual = new HashMap<>();
+        for (Map.Entry<Integer, Integer> entry : map) {
+            actual.put(entry.getKey(), entry.getValue());
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testBackupsSurviveMemberLoss() {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        HazelcastInstance instance1 = factory.newHazelcastInstance(getConfig());
+        HazelcastInstance instance2 = factory.newHazelcastInstance(getConfig());
+        String mapName = randomMapName();
+        IMap<Integer, Integer> map = instance1.getMap(mapName);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, i);
+        }
+
+        instance1.shutdown();
+
+        IMap<Integer, Integer> survivingMap = instance2.getMap(mapName);
+        assertEquals(ENTRY_COUNT, survivingMap.size());
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            assertEquals(i, (int) survivingMap.get(i));
+        }
+    }
+
+    @Test
+    public void testDestroy_releasesNativeMemory() {
+        HazelcastInstance instance = createHazelcastInstance(getConfig());
+        IMap<Integer, String> map = instance.getMap(randomMapName());
+        UnsafeMallocMemoryManager memoryManager = getMapServiceContext(instance).getNativeMemoryManager();
+        long usedMemoryBefore = memoryManager.getUsedMemory();
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, "value-" + i);
+        }
+        assertTrue(memoryManager.getUsedMemory() > usedMemoryBefore);
+
+        map.destroy();
+
+        assertTrueEventually(() -> assertEquals(usedMemoryBefore, memoryManager.getUsedMemory()));
+    }
+
+    @Test
+    public void testEviction_withUsedNativeMemorySize() {
+        Config config = getConfig();
+        config.getMapConfig("default").getEvictionConfig()
+                .setEvictionPolicy(EvictionPolicy.LRU)
+                .setMaxSizePolicy(MaxSizePolicy.USED_NATIVE_MEMORY_SIZE)
+                .setSize(1);
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, byte[]> map = instance.getMap(randomMapName());
+
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, new byte[2048]);
+        }
+
+        assertTrue(map.size() < ENTRY_COUNT);
+    }
+
+    @Override
+    protected Config getConfig() {
+        Config config = smallInstanceConfig();
+        config.setNativeMemoryConfig(new NativeMemoryConfig()
+                .setEnabled(true)
+                .setSize(new MemorySize(64, MemoryUnit.MEGABYTES)));
+        config.getMapConfig("default")
+                .setInMemoryFormat(InMemoryFormat.NATIVE);
+        return config;
+    }
+
+    private static MapServiceContext getMapServiceContext(HazelcastInstance instance) {
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        return mapService.getMapServiceContext();
+    }
+}
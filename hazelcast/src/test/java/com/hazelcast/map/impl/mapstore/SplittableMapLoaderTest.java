@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.mapstore;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.ExecutorConfig;
+import com.hazelcast.config.MapStoreConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.SplittableMapLoader;
+import com.hazelcast.spi.properties.ClusterProperty;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hazelcast.spi.impl.executionservice.ExecutionService.MAP_LOAD_ALL_KEYS_EXECUTOR;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class SplittableMapLoaderTest extends HazelcastTestSupport {
+
+    private static final int CLUSTER_SIZE = 3;
+    private static final int ENTRY_COUNT = 10000;
+
+    @Test
+    public void testInitialLoad_loadsEverySplitOnce() {
+        SplitCountingMapLoader loader = new SplitCountingMapLoader(ENTRY_COUNT, -1);
+        IMap<Integer, Integer> map = newMap(getConfig(loader));
+
+        assertEquals(ENTRY_COUNT, map.size());
+        assertEquals(0, loader.allKeysLoadCount.get());
+        assertEquals(asList(0, 1, 2), loader.loadedSplits());
+        assertEquals(CLUSTER_SIZE, loader.lastSplitCount);
+        for (int i = 0; i < ENTRY_COUNT; i += 1000) {
+            assertEquals(i, (int) map.get(i));
+        }
+    }
+
+    @Test
+    public void testLoadAll_loadsEverySplitAgain() {
+        SplitCountingMapLoader loader = new SplitCountingMapLoader(ENTRY_COUNT, -1);
+        IMap<Integer, Integer> map = newMap(getConfig(loader));
+        assertEquals(ENTRY_COUNT, map.size());
+
+        map.evictAll();
+        map.loadAll(true);
+
+        assertSizeEventually(ENTRY_COUNT, map);
+        assertEquals(0, loader.allKeysLoadCount.get());
+        assertEquals(asList(0, 0, 1, 1, 2, 2), loader.loadedSplits());
+    }
+
+    @Test
+    public void testInitialLoad_withSingleInFlightBatch() {
+        SplitCountingMapLoader loader = new SplitCountingMapLoader(ENTRY_COUNT, -1);
+        Config config = getConfig(loader)
+                .setProperty(ClusterProperty.MAP_LOAD_CHUNK_SIZE.getName(), "10")
+                .setProperty(ClusterProperty.MAP_LOAD_MAX_IN_FLIGHT_BATCHES.getName(), "1");
+        IMap<Integer, Integer> map = newMap(config);
+
+        assertEquals(ENTRY_COUNT, map.size());
+    }
+
+    @Test
+    public void testInitialLoad_ofManyMaps_withSingleLoadAllKeysThread() throws Exception {
+        SplitCountingMapLoader loader = new SplitCountingMapLoader(ENTRY_COUNT, -1);
+        Config config = getConfig(loader)
+                .addExecutorConfig(new ExecutorConfig(MAP_LOAD_ALL_KEYS_EXECUTOR, 1));
+        HazelcastInstance instance = newInstance(config);
+        List<Future<Integer>> sizes = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            IMap<Integer, Integer> map = instance.getMap("map" + i);
+            sizes.add(spawn(map::size));
+        }
+
+        for (Future<Integer> size : sizes) {
+            assertEquals(ENTRY_COUNT, (int) size.get(ASSERT_TRUE_EVENTUALLY_TIMEOUT, SECONDS));
+        }
+    }
+
+    @Test
+    public void testInitialLoad_whenSplitFails_thenExceptionPropagated() {
+        SplitCountingMapLoader loader = new SplitCountingMapLoader(ENTRY_COUNT, 1);
+        IMap<Integer, Integer> map = newMap(getConfig(loader));
+
+        Throwable exception = null;
+        try {
+            map.size();
+        } catch (Throwable e) {
+            exception = e;
+        }
+        assertNotNull("Exception wasn't propagated", exception);
+    }
+
+    private IMap<Integer, Integer> newMap(Config config) {
+        return newInstance(config).getMap("default");
+    }
+
+    private HazelcastInstance newInstance(Config config) {
+        HazelcastInstance[] instances = createHazelcastInstanceFactory(CLUSTER_SIZE).newInstances(config);
+        assertClusterSizeEventually(CLUSTER_SIZE, instances);
+        warmUpPartitions(instances);
+        return instances[0];
+    }
+
+    private Config getConfig(SplitCountingMapLoader loader) {
+        Config config = smallInstanceConfig();
+        config.getMapConfig("default")
+              .setMapStoreConfig(new MapStoreConfig().setImplementation(loader));
+        return config;
+    }
+
+    private static class SplitCountingMapLoader implements SplittableMapLoader<Integer, Integer> {
+
+        private final int size;
+        private final int failingSplit;
+        private final AtomicInteger allKeysLoadCount = new AtomicInteger();
+        private final ConcurrentMap<Integer, AtomicInteger> splitLoadCounts = new ConcurrentHashMap<>();
+        private volatile int lastSplitCount;
+
+        SplitCountingMapLoader(int size, int failingSplit) {
+            this.size = size;
+            this.failingSplit = failingSplit;
+        }
+
+        @Override
+        public Integer load(Integer key) {
+            return key;
+        }
+
+        @Override
+        public Map<Integer, Integer> loadAll(Collection<Integer> keys) {
+            Map<Integer, Integer> result = new HashMap<>();
+            for (Integer key : keys) {
+                result.put(key, key);
+            }
+            return result;
+        }
+
+        @Override
+        public Iterable<Integer> loadAllKeys() {
+            allKeysLoadCount.incrementAndGet();
+            return loadAllKeys(0, 1);
+        }
+
+        @Override
+        public Iterable<Integer> loadAllKeys(int split, int splitCount) {
+            splitLoadCounts.computeIfAbsent(split, k -> new AtomicInteger()).incrementAndGet();
+            lastSplitCount = splitCount;
+            if (split == failingSplit) {
+                throw new IllegalStateException("Intentional exception");
+            }
+            List<Integer> keys = new ArrayList<>();
+            for (int i = split; i < size; i += splitCount) {
+                keys.add(i);
+            }
+            return keys;
+        }
+
+        List<Integer> loadedSplits() {
+            List<Integer> splits = new ArrayList<>();
+            for (int split = 0; split < CLUSTER_SIZE; split++) {
+                AtomicInteger count = splitLoadCounts.get(split);
+                for (int i = 0; count != null && i < count.get(); i++) {
+                    splits.add(split);
+                }
+            }
+            return splits;
+        }
+    }
+}
@@ -53,6 +53,8 @@ public class TestMapUsingMapStoreBuilder<K, V> {
 
     private long writeBehindQueueCapacity;
 
+    private int writeBehindFlushParallelism;
+
     private TestHazelcastInstanceFactory instanceFactory;
 
     private TestMapUsingMapStoreBuilder() {
@@ -116,6 +118,11 @@ public class TestMapUsingMapStoreBuilder<K, V> {
         return this;
     }
 
+    public TestMapUsingMapStoreBuilder<K, V> withWriteBehindFlushParallelism(int writeBehindFlushParallelism) {
+        this.writeBehindFlushParallelism = writeBehindFlushParallelism;
+        return this;
+    }
+
     public TestMapUsingMapStoreBuilder<K, V> withMapStore(MapStore<K, V> mapStore) {
         this.mapStore = mapStore;
         return this;
@@ -164,6 +171,10 @@ public class TestMapUsingMapStoreBuilder<K, V> {
         if (writeBehindQueueCapacity > 0) {
             config.setProperty(ClusterProperty.MAP_WRITE_BEHIND_QUEUE_CAPACITY.getName(), String.valueOf(writeBehindQueueCapacity));
         }
+        if (writeBehindFlushParallelism > 0) {
+            config.setProperty(ClusterProperty.MAP_WRITE_BEHIND_FLUSH_PARALLELISM.getName(),
+                    String.valueOf(writeBehindFlushParallelism));
+        }
 
         config.setProperty(ClusterProperty.PARTITION_COUNT.getName(), String.valueOf(partitionCount));
         if (backupDelaySeconds > 0) {
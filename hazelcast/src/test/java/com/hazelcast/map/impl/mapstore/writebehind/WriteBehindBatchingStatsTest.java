@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.map.impl.mapstore.writebehind;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hazelcast.test.Accessors.getNodeEngineImpl;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class WriteBehindBatchingStatsTest extends HazelcastTestSupport {
+
+    @Test
+    public void testCoalescedWritesAndDeletes_areStoredInOneBatchEach() {
+        MapStoreWithCounter<Integer, Integer> mapStore = new MapStoreWithCounter<>();
+        TestMapUsingMapStoreBuilder<Integer, Integer> builder = newMapBuilder(mapStore);
+        IMap<Integer, Integer> map = builder.build();
+
+        for (int i = 0; i < 100; i++) {
+            map.set(i, i);
+        }
+        for (int i = 0; i < 100; i += 2) {
+            map.delete(i);
+        }
+        map.flush();
+
+        assertEquals(50, mapStore.size());
+        assertEquals(1, mapStore.getBatchOpCountMap().size());
+        assertEquals(50, (int) mapStore.getBatchOpCountMap().values().iterator().next());
+        assertEquals(50, mapStore.getDeleteOpCount());
+
+        WriteBehindStats stats = getWriteBehindStats(builder.getNodes()[0], map.getName());
+        assertEquals(2, stats.getStoreBatchCount());
+        assertEquals(100, stats.getStoredEntryCount());
+        assertEquals(50, stats.getMaxStoreBatchSize());
+        assertEquals(50, stats.getAvgStoreBatchSize(), 0);
+    }
+
+    @Test
+    public void testParallelFlush() {
+        int parallelism = 4;
+        ConcurrentBatchesMapStore mapStore = new ConcurrentBatchesMapStore(parallelism);
+        TestMapUsingMapStoreBuilder<Integer, Integer> builder = newMapBuilder(mapStore)
+                .withWriteBatchSize(10)
+                .withWriteBehindFlushParallelism(parallelism);
+        IMap<Integer, Integer> map = builder.build();
+
+        for (int i = 0; i < 1000; i++) {
+            map.set(i, i);
+        }
+        map.flush();
+
+        assertEquals(1000, mapStore.size());
+        assertTrue("Batches were not stored in parallel", mapStore.maxConcurrentBatches.get() > 1);
+        for (int batchSize : mapStore.getBatchOpCountMap().values()) {
+            assertEquals(10, batchSize);
+        }
+
+        WriteBehindStats stats = getWriteBehindStats(builder.getNodes()[0], map.getName());
+        assertEquals(100, stats.getStoreBatchCount());
+        assertEquals(1000, stats.getStoredEntryCount());
+        assertEquals(10, stats.getMaxStoreBatchSize());
+    }
+
+    @Test
+    public void testParallelFlush_whenBatchFails_thenWaitsForOtherBatches() {
+        int parallelism = 4;
+        FirstBatchFailingMapStore mapStore = new FirstBatchFailingMapStore();
+        TestMapUsingMapStoreBuilder<Integer, Integer> builder = newMapBuilder(mapStore)
+                .withWriteBatchSize(10)
+                .withWriteBehindFlushParallelism(parallelism);
+        IMap<Integer, Integer> map = builder.build();
+
+        for (int i = 0; i < 1000; i++) {
+            map.set(i, i);
+        }
+        try {
+            map.flush();
+        } catch (Throwable expected) {
+            ignore(expected);
+        }
+
+        assertEquals(990, mapStore.size());
+    }
+
+    @Test
+    public void testOldestEntryAge() {
+        MapStoreWithCounter<Integer, Integer> mapStore = new MapStoreWithCounter<>();
+        TestMapUsingMapStoreBuilder<Integer, Integer> builder = newMapBuilder(mapStore);
+        IMap<Integer, Integer> map = builder.build();
+        WriteBehindStats stats = getWriteBehindStats(builder.getNodes()[0], map.getName());
+
+        map.set(1, 1);
+
+        assertTrueEventually(() -> assertTrue(stats.getOldestEntryAgeMillis() >= 1000));
+
+        map.flush();
+
+        assertTrueEventually(() -> assertEquals(0, stats.getOldestEntryAgeMillis()));
+    }
+
+    private TestMapUsingMapStoreBuilder<Integer, Integer> newMapBuilder(MapStoreWithCounter<Integer, Integer> mapStore) {
+        return TestMapUsingMapStoreBuilder.<Integer, Integer>create()
+                .withMapStore(mapStore)
+                .withNodeCount(1)
+                .withNodeFactory(createHazelcastInstanceFactory(1))
+                .withPartitionCount(1)
+                .withWriteDelaySeconds(100)
+                .withWriteCoalescing(true);
+    }
+
+    private static WriteBehindStats getWriteBehindStats(HazelcastInstance instance, String mapName) {
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        MapServiceContext mapServiceContext = mapService.getMapServiceContext();
+        WriteBehindManager writeBehindManager = (WriteBehindManager) mapServiceContext.getMapContainer(mapName)
+                .getMapStoreContext().getMapStoreManager();
+        return writeBehindManager.getWriteBehindStats();
+    }
+
+    /**
+     * Fails the first batch with an error, which is not retried, and
+     * stores the others slowly.
+     */
+    private static class FirstBatchFailingMapStore extends MapStoreWithCounter<Integer, Integer> {
+
+        private final AtomicBoolean failed = new AtomicBoolean();
+
+        @Override
+        public void storeAll(Map<Integer, Integer> map) {
+            if (failed.compareAndSet(false, true)) {
+                throw new AssertionError("expected");
+            }
+            sleepMillis(10);
+            super.storeAll(map);
+        }
+    }
+
+    /**
+     * Holds each batch until another one is being stored concurrently, or
+     * a timeout passes.
+     */
+    private static class ConcurrentBatchesMapStore extends MapStoreWithCounter<Integer, Integer> {
+
+        private final CountDownLatch concurrentBatches;
+        private final AtomicInteger currentBatches = new AtomicInteger();
+        private final AtomicInteger maxConcurrentBatches = new AtomicInteger();
+
+        ConcurrentBatchesMapStore(int parallelism) {
+            this.concurrentBatches = new CountDownLatch(parallelism);
+        }
+
+        @Override
+        public void storeAll(Map<Integer, Integer> map) {
+            int current = currentBatches.incrementAndGet();
+            maxConcurrentBatches.accumulateAndGet(current, Math::max);
+            concurrentBatches.countDown();
+            try {
+                concurrentBatches.await(10, SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.storeAll(map);
+            currentBatches.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.persistence;
+
+import com.hazelcast.cluster.Address;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.util.DirectoryLock;
+import com.hazelcast.logging.Logger;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.operation.PutRestoredOperation;
+import com.hazelcast.spi.properties.ClusterProperty;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.internal.nio.IOUtil.copy;
+import static com.hazelcast.test.Accessors.getNodeEngineImpl;
+import static com.hazelcast.test.Accessors.getSerializationService;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class MapPersistenceTest extends HazelcastTestSupport {
+
+    private static final String PERSISTENT_MAP = "persistent";
+    private static final String TRANSIENT_MAP = "transient";
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private File baseDir;
+    private TestHazelcastInstanceFactory factory;
+    private Address address;
+
+    @Before
+    public void setup() throws IOException {
+        baseDir = tempFolder.newFolder();
+        factory = createHazelcastInstanceFactory();
+        address = factory.nextAddress();
+    }
+
+    @Test
+    public void testDataRestored_afterRestart() {
+        HazelcastInstance instance = factory.newHazelcastInstance(address, getConfig());
+        IMap<Integer, String> map = instance.getMap(PERSISTENT_MAP);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, "value-" + i);
+        }
+        map.remove(0);
+        map.set(1, "updated");
+        instance.getMap(TRANSIENT_MAP).put(1, 1);
+        instance.shutdown();
+
+        instance = startAndWaitUntilRestored();
+
+        map = instance.getMap(PERSISTENT_MAP);
+        assertEquals(999, map.size());
+        assertNull(map.get(0));
+        assertEquals("updated", map.get(1));
+        for (int i = 2; i < 1000; i++) {
+            assertEquals("value-" + i, map.get(i));
+        }
+        assertEquals(0, instance.getMap(TRANSIENT_MAP).size());
+    }
+
+    @Test
+    public void testDestroyedMap_notRestored() {
+        HazelcastInstance instance = factory.newHazelcastInstance(address, getConfig());
+        IMap<Integer, Integer> map = instance.getMap(PERSISTENT_MAP);
+        map.put(1, 1);
+        map.destroy();
+        instance.shutdown();
+
+        instance = startAndWaitUntilRestored();
+
+        assertEquals(0, instance.getMap(PERSISTENT_MAP).size());
+    }
+
+    @Test
+    public void testDataRestored_afterSecondRestart() {
+        HazelcastInstance instance = factory.newHazelcastInstance(address, getConfig());
+        instance.getMap(PERSISTENT_MAP).put(1, 1);
+        instance.shutdown();
+        instance = startAndWaitUntilRestored();
+        instance.getMap(PERSISTENT_MAP).put(2, 2);
+        instance.shutdown();
+
+        instance = startAndWaitUntilRestored();
+
+        IMap<Integer, Integer> map = instance.getMap(PERSISTENT_MAP);
+        assertEquals(2, map.size());
+        assertEquals(1, (int) map.get(1));
+        assertEquals(2, (int) map.get(2));
+    }
+
+    @Test
+    public void testRestoredEntries_doNotOverwritePresentKeys() {
+        HazelcastInstance instance = factory.newHazelcastInstance(address, getConfig());
+        IMap<Integer, String> map = instance.getMap(PERSISTENT_MAP);
+        map.put(1, "current");
+        SerializationService serializationService = getSerializationService(instance);
+        List<Data> keyValueSequence = asList(
+                serializationService.toData(1), serializationService.toData("restored"),
+                serializationService.toData(2), serializationService.toData("restored"));
+
+        putRestored(instance, keyValueSequence.subList(0, 2));
+        putRestored(instance, keyValueSequence.subList(2, 4));
+
+        assertEquals("current", map.get(1));
+        assertEquals("restored", map.get(2));
+    }
+
+    @Test
+    public void testFailedRestore_restoredBeforeNewerLogs() throws IOException {
+        HazelcastInstance instance = factory.newHazelcastInstance(address, getConfig());
+        IMap<Integer, String> map = instance.getMap(PERSISTENT_MAP);
+        map.put(1, "old");
+        map.put(2, "old");
+        instance.shutdown();
+        File memberDir = memberDir(address);
+        File oldLogs = tempFolder.newFolder();
+        copy(new File(memberDir, MapPersistenceService.LOGS_DIR), oldLogs);
+
+        instance = startAndWaitUntilRestored();
+        map = instance.getMap(PERSISTENT_MAP);
+        map.put(1, "new");
+        map.remove(2);
+        map.put(3, "new");
+        instance.shutdown();
+        // as if the restore of the previous run failed and left its logs
+        File restoringDir = new File(memberDir, MapPersistenceService.RESTORING_DIR);
+        assertTrue(restoringDir.mkdirs());
+        assertTrue(new File(oldLogs, MapPersistenceService.LOGS_DIR).renameTo(new File(restoringDir, "0")));
+
+        instance = startAndWaitUntilRestored();
+
+        map = instance.getMap(PERSISTENT_MAP);
+        assertEquals(2, map.size());
+        assertEquals("new", map.get(1));
+        assertNull(map.get(2));
+        assertEquals("new", map.get(3));
+    }
+
+    @Test
+    public void testMembersSharingBaseDir_restoreTheirOwnData() {
+        Address otherAddress = factory.nextAddress();
+        HazelcastInstance instance = factory.newHazelcastInstance(address, getConfig());
+        HazelcastInstance otherInstance = factory.newHazelcastInstance(otherAddress, getConfig());
+        assertClusterSizeEventually(2, instance, otherInstance);
+        IMap<Integer, Integer> map = instance.getMap(PERSISTENT_MAP);
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        instance.shutdown();
+        otherInstance.shutdown();
+
+        assertNotEquals(memberDir(address), memberDir(otherAddress));
+        instance = startAndWaitUntilRestored(address);
+        otherInstance = startAndWaitUntilRestored(otherAddress);
+        assertClusterSizeEventually(2, instance, otherInstance);
+
+        map = instance.getMap(PERSISTENT_MAP);
+        assertEquals(100, map.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, (int) map.get(i));
+        }
+    }
+
+    @Test
+    public void testLockedMemberDir_memberFailsToStart() {
+        HazelcastInstance instance = factory.newHazelcastInstance(address, getConfig());
+        instance.getMap(PERSISTENT_MAP).put(1, 1);
+        instance.shutdown();
+        DirectoryLock lock = DirectoryLock.lockForDirectory(memberDir(address), Logger.getLogger(getClass()));
+        try {
+            assertThrows(RuntimeException.class, () -> factory.newHazelcastInstance(address, getConfig()));
+        } finally {
+            lock.release();
+        }
+    }
+
+    @Test
+    public void testWithoutLocalPersistenceProperty_requiresEnterprise() {
+        Config config = getConfig();
+        config.setProperty(ClusterProperty.MAP_LOCAL_PERSISTENCE_ENABLED.getName(), "false");
+
+        assertThrows(IllegalStateException.class, () -> factory.newHazelcastInstance(address, config));
+    }
+
+    private HazelcastInstance startAndWaitUntilRestored() {
+        return startAndWaitUntilRestored(address);
+    }
+
+    private HazelcastInstance startAndWaitUntilRestored(Address address) {
+        HazelcastInstance instance = factory.newHazelcastInstance(address, getConfig());
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        MapPersistenceService persistenceService = mapService.getMapServiceContext().getMapPersistenceService();
+        File restoringDir = new File(memberDir(address), MapPersistenceService.RESTORING_DIR);
+        assertTrueEventually(() -> {
+            assertFalse(persistenceService.isRestoring(PERSISTENT_MAP));
+            assertFalse(restoringDir.exists());
+        });
+        return instance;
+    }
+
+    private File memberDir(Address address) {
+        File[] memberDirs = new File(baseDir, MapPersistenceService.MAPS_DIR).listFiles(File::isDirectory);
+        assertNotNull(memberDirs);
+        for (File memberDir : memberDirs) {
+            File addressFile = new File(memberDir, MapPersistenceService.ADDRESS_FILE);
+            try {
+                if (address.toString().equals(new String(Files.readAllBytes(addressFile.toPath()), UTF_8))) {
+                    return memberDir;
+                }
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        }
+        throw new AssertionError("No directory for " + address + " in " + baseDir);
+    }
+
+    private static void putRestored(HazelcastInstance instance, List<Data> keyValueSequence) {
+        int partitionId = getNodeEngineImpl(instance).getPartitionService().getPartitionId(keyValueSequence.get(0));
+        getNodeEngineImpl(instance).getOperationService()
+                .invokeOnPartition(MapService.SERVICE_NAME,
+                        new PutRestoredOperation(PERSISTENT_MAP, new ArrayList<>(keyValueSequence)), partitionId)
+                .joinInternal();
+    }
+
+    @Override
+    protected Config getConfig() {
+        Config config = smallInstanceConfig();
+        config.getPersistenceConfig()
+              .setEnabled(true)
+              .setBaseDir(baseDir);
+        config.setProperty(ClusterProperty.MAP_LOCAL_PERSISTENCE_ENABLED.getName(), "true");
+        MapConfig mapConfig = new MapConfig(PERSISTENT_MAP);
+        mapConfig.getDataPersistenceConfig().setEnabled(true);
+        config.addMapConfig(mapConfig);
+        return config;
+    }
+}
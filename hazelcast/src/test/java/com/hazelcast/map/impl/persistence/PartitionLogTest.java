@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.persistence;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class PartitionLogTest extends HazelcastTestSupport {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private final InternalSerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+
+    private File file;
+    private PartitionLog log;
+
+    @Before
+    public void setup() throws IOException {
+        file = new File(tempFolder.newFolder(), "0.log");
+        log = new PartitionLog(file, 0, false);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        log.close();
+    }
+
+    @Test
+    public void testReplay() throws IOException {
+        log.put(data("k1"), data("v1"));
+        log.put(data("k2"), data("v2"));
+        log.put(data("k1"), data("v3"));
+        log.remove(data("k2"));
+        log.flush();
+
+        Map<Object, Object> entries = replay();
+
+        assertEquals(1, entries.size());
+        assertEquals("v3", entries.get("k1"));
+    }
+
+    @Test
+    public void testReplay_afterClear() throws IOException {
+        log.put(data("k1"), data("v1"));
+        log.clear();
+        log.put(data("k2"), data("v2"));
+        log.flush();
+
+        Map<Object, Object> entries = replay();
+
+        assertEquals(1, entries.size());
+        assertEquals("v2", entries.get("k2"));
+    }
+
+    @Test
+    public void testReplay_stopsAtTornRecord() throws IOException {
+        log.put(data("k1"), data("v1"));
+        log.put(data("k2"), data("v2"));
+        log.close();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 1);
+        }
+
+        Map<Object, Object> entries = replay();
+
+        assertEquals(1, entries.size());
+        assertEquals("v1", entries.get("k1"));
+    }
+
+    @Test
+    public void testMutationsAfterClose_ignored() throws IOException {
+        log.put(data("k1"), data("v1"));
+        log.close();
+
+        log.put(data("k2"), data("v2"));
+        log.remove(data("k1"));
+        log.clear();
+        log.flush();
+
+        Map<Object, Object> entries = replay();
+        assertEquals(1, entries.size());
+        assertEquals("v1", entries.get("k1"));
+    }
+
+    @Test
+    public void testCompaction() throws IOException {
+        int keyCount = 100;
+        for (int i = 0; i < 20; i++) {
+            for (int k = 0; k < keyCount; k++) {
+                log.put(data(k), data(i));
+            }
+        }
+        log.remove(data(0));
+        long sizeBeforeCompaction = file.length();
+
+        assertTrue(log.tryScheduleCompaction());
+        assertFalse(log.tryScheduleCompaction());
+        compact();
+        log.put(data(keyCount), data(-1));
+        log.flush();
+
+        assertTrue(file.length() < sizeBeforeCompaction);
+        assertFalse(log.tryScheduleCompaction());
+        Map<Object, Object> entries = replay();
+        assertEquals(keyCount, entries.size());
+        for (int k = 1; k < keyCount; k++) {
+            assertEquals(19, entries.get(k));
+        }
+        assertEquals(-1, entries.get(keyCount));
+    }
+
+    @Test
+    public void testCompaction_keepsRecordsAppendedWhileCopying() throws IOException {
+        int keyCount = 100;
+        for (int i = 0; i < 20; i++) {
+            for (int k = 0; k < keyCount; k++) {
+                log.put(data(k), data(i));
+            }
+        }
+        assertTrue(log.tryScheduleCompaction());
+        PartitionLog.Compaction compaction = log.startCompaction();
+        log.put(data(0), data(-1));
+        log.remove(data(1));
+        log.put(data(keyCount), data(-1));
+
+        compaction.copyLiveRecords();
+        log.put(data(2), data(-2));
+        assertTrue(log.finishCompaction(compaction));
+        log.remove(data(3));
+        log.flush();
+
+        Map<Object, Object> entries = replay();
+        assertEquals(keyCount - 1, entries.size());
+        assertEquals(-1, entries.get(0));
+        assertFalse(entries.containsKey(1));
+        assertEquals(-2, entries.get(2));
+        assertFalse(entries.containsKey(3));
+        assertEquals(19, entries.get(4));
+        assertEquals(-1, entries.get(keyCount));
+        assertFalse(new File(file.getPath() + ".compacting").exists());
+    }
+
+    @Test
+    public void testCompaction_discardedWhenClearedWhileCopying() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            for (int k = 0; k < 100; k++) {
+                log.put(data(k), data(i));
+            }
+        }
+        assertTrue(log.tryScheduleCompaction());
+        PartitionLog.Compaction compaction = log.startCompaction();
+        compaction.copyLiveRecords();
+        log.clear();
+        log.put(data("k"), data("v"));
+
+        assertFalse(log.finishCompaction(compaction));
+        log.flush();
+
+        Map<Object, Object> entries = replay();
+        assertEquals(1, entries.size());
+        assertEquals("v", entries.get("k"));
+        assertFalse(new File(file.getPath() + ".compacting").exists());
+    }
+
+    @Test
+    public void testCompaction_notScheduledWithoutGarbage() throws IOException {
+        for (int k = 0; k < 2000; k++) {
+            log.put(data(k), data(k));
+        }
+
+        assertFalse(log.tryScheduleCompaction());
+    }
+
+    @Test
+    public void testDelete() throws IOException {
+        log.put(data("k1"), data("v1"));
+
+        log.delete();
+
+        assertTrue(log.isClosed());
+        assertFalse(file.exists());
+    }
+
+    private void compact() throws IOException {
+        PartitionLog.Compaction compaction = log.startCompaction();
+        compaction.copyLiveRecords();
+        assertTrue(log.finishCompaction(compaction));
+    }
+
+    private Data data(Object object) {
+        return serializationService.toData(object);
+    }
+
+    private Map<Object, Object> replay() throws IOException {
+        Map<Object, Object> entries = new HashMap<>();
+        PartitionLog.replay(file, (key, value) -> {
+            if (value == null) {
+                entries.remove(serializationService.toObject(key));
+            } else {
+                entries.put(serializationService.toObject(key), serializationService.toObject(value));
+            }
+        });
+        return entries;
+    }
+}
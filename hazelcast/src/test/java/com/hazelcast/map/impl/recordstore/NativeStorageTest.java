@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.core.EntryView;
+import com.hazelcast.internal.iteration.IterationPointer;
+import com.hazelcast.internal.memory.impl.UnsafeMallocMemoryManager;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.map.impl.iterator.MapKeysWithCursor;
+import com.hazelcast.map.impl.record.NativeRecordAllocator;
+import com.hazelcast.map.impl.record.NativeRecordFactory;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.recordstore.expiry.ExpirySystem;
+import com.hazelcast.memory.NativeOutOfMemoryError;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import static com.hazelcast.internal.util.HashUtil.fastLongMix;
+import static com.hazelcast.internal.util.hashslot.impl.CapacityUtil.DEFAULT_CAPACITY;
+import static com.hazelcast.internal.util.hashslot.impl.CapacityUtil.DEFAULT_LOAD_FACTOR;
+import static com.hazelcast.internal.util.hashslot.impl.CapacityUtil.roundCapacity;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class NativeStorageTest {
+
+    private static final int ENTRY_COUNT = 1000;
+    private static final int INITIAL_INDEX_CAPACITY = roundCapacity((int) (DEFAULT_CAPACITY / DEFAULT_LOAD_FACTOR));
+
+    private SerializationService ss;
+    private UnsafeMallocMemoryManager memoryManager;
+    private NativeRecordAllocator recordAllocator;
+    private NativeRecordFactory recordFactory;
+    private NativeStorage<Record> storage;
+
+    @Before
+    public void setUp() {
+        ss = new DefaultSerializationServiceBuilder().build();
+        memoryManager = new UnsafeMallocMemoryManager(1 << 24);
+        recordAllocator = new NativeRecordAllocator(memoryManager);
+        recordFactory = new NativeRecordFactory(ss, recordAllocator);
+        storage = new NativeStorage<>(memoryManager, recordAllocator, ExpirySystem.NULL, ss);
+    }
+
+    @After
+    public void tearDown() {
+        storage.destroy(false);
+        assertEquals(0, recordAllocator.getUsedMemory());
+        assertEquals(0, memoryManager.getUsedMemory());
+    }
+
+    @Test
+    public void testPutAndGet() {
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            put(i, "value-" + i);
+        }
+
+        assertEquals(ENTRY_COUNT, storage.size());
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            Data key = ss.toData(i);
+            assertTrue(storage.containsKey(key));
+            assertEquals("value-" + i, ss.toObject(storage.get(key).getValue()));
+        }
+        assertNull(storage.get(ss.toData(ENTRY_COUNT)));
+    }
+
+    @Test
+    public void testPut_replacesExistingRecord() {
+        put(1, "value");
+        put(1, "newValue");
+        storage.disposeDeferredBlocks();
+
+        assertEquals(1, storage.size());
+        assertEquals("newValue", ss.toObject(storage.get(ss.toData(1)).getValue()));
+    }
+
+    @Test
+    public void testUpdateRecordValue() {
+        Data key = ss.toData(1);
+        Record record = put(1, "value");
+
+        storage.updateRecordValue(key, record, "a much longer value than before");
+        storage.disposeDeferredBlocks();
+
+        assertEquals("a much longer value than before", ss.toObject(storage.get(key).getValue()));
+    }
+
+    @Test
+    public void testRemoveRecord() {
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            put(i, i);
+        }
+        long usedMemory = recordAllocator.getUsedMemory();
+
+        for (int i = 0; i < ENTRY_COUNT; i += 2) {
+            Data key = ss.toData(i);
+            storage.removeRecord(key, storage.get(key));
+        }
+        assertEquals(usedMemory, recordAllocator.getUsedMemory());
+        storage.disposeDeferredBlocks();
+
+        assertEquals(ENTRY_COUNT / 2, storage.size());
+        assertTrue(recordAllocator.getUsedMemory() < usedMemory);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            assertEquals(i % 2 == 1, storage.containsKey(ss.toData(i)));
+        }
+    }
+
+    @Test
+    public void testCollidingKeys() {
+        Data key1 = new CollidingData(ss.toData(1));
+        Data key2 = new CollidingData(ss.toData(2));
+        Data key3 = new CollidingData(ss.toData(3));
+        storage.put(key1, recordFactory.newRecord(key1, 1));
+        storage.put(key2, recordFactory.newRecord(key2, 2));
+        storage.put(key3, recordFactory.newRecord(key3, 3));
+
+        storage.removeRecord(key2, storage.get(key2));
+
+        assertEquals(2, storage.size());
+        assertEquals(1, (int) ss.toObject(storage.get(key1).getValue()));
+        assertNull(storage.get(key2));
+        assertEquals(3, (int) ss.toObject(storage.get(key3).getValue()));
+    }
+
+    @Test
+    public void testMutationTolerantIterator() {
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            put(i, i);
+        }
+
+        Set<Integer> keys = new HashSet<>();
+        Iterator<Map.Entry<Data, Record>> iterator = storage.mutationTolerantIterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Data, Record> entry = iterator.next();
+            int key = ss.toObject(entry.getKey());
+            assertEquals(key, (int) ss.toObject(entry.getValue().getValue()));
+            assertTrue(keys.add(key));
+        }
+        assertEquals(ENTRY_COUNT, keys.size());
+    }
+
+    @Test
+    public void testMutationTolerantIterator_removalAcrossWrapAround() {
+        // the first two keys go to the last slot and, by linear probing, to the first slot
+        long hash1 = hashOfSlot(INITIAL_INDEX_CAPACITY - 1, 0);
+        long hash2 = hashOfSlot(INITIAL_INDEX_CAPACITY - 1, hash1 + 1);
+        Map<Integer, Data> keys = new HashMap<>();
+        keys.put(1, new CollidingData(ss.toData(1), hash1));
+        keys.put(2, new CollidingData(ss.toData(2), hash2));
+        for (int i = 3; i < 8; i++) {
+            keys.put(i, ss.toData(i));
+        }
+        keys.forEach((key, dataKey) -> storage.put(dataKey, recordFactory.newRecord(dataKey, key)));
+
+        Set<Integer> visitedKeys = new HashSet<>();
+        Iterator<Map.Entry<Data, Record>> iterator = storage.mutationTolerantIterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Data, Record> entry = iterator.next();
+            int key = ss.toObject(entry.getKey());
+            assertTrue(visitedKeys.add(key));
+            storage.removeRecord(keys.get(key), entry.getValue());
+        }
+        storage.disposeDeferredBlocks();
+
+        assertEquals(keys.keySet(), visitedKeys);
+        assertTrue(storage.isEmpty());
+    }
+
+    @Test
+    public void testFetchKeys() {
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            put(i, i);
+        }
+
+        Set<Integer> keys = new HashSet<>();
+        IterationPointer[] pointers = {new IterationPointer(Integer.MAX_VALUE, -1)};
+        do {
+            MapKeysWithCursor batch = storage.fetchKeys(pointers, 100);
+            for (Data key : batch.getBatch()) {
+                assertTrue(keys.add(ss.toObject(key)));
+            }
+            pointers = batch.getIterationPointers();
+        } while (pointers[pointers.length - 1].getIndex() >= 0);
+
+        assertEquals(ENTRY_COUNT, keys.size());
+    }
+
+    @Test
+    public void testGetRandomSamples() {
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            put(i, i);
+        }
+
+        int sampleCount = 0;
+        for (EntryView sample : storage.getRandomSamples(15)) {
+            Data key = storage.extractDataKeyFromLazy(sample);
+            assertTrue(storage.containsKey(key));
+            sampleCount++;
+        }
+        assertEquals(15, sampleCount);
+    }
+
+    @Test
+    public void testClear() {
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            put(i, i);
+        }
+
+        storage.clear(false);
+
+        assertTrue(storage.isEmpty());
+        assertFalse(storage.containsKey(ss.toData(1)));
+        assertEquals(0, recordAllocator.getUsedMemory());
+    }
+
+    @Test
+    public void testOutOfMemory_doesNotLeakRecord() {
+        UnsafeMallocMemoryManager smallMemoryManager = new UnsafeMallocMemoryManager(128);
+        NativeRecordAllocator smallAllocator = new NativeRecordAllocator(smallMemoryManager);
+        NativeRecordFactory smallFactory = new NativeRecordFactory(ss, smallAllocator);
+
+        assertThrows(NativeOutOfMemoryError.class, () -> smallFactory.newRecord(ss.toData(1), new byte[128]));
+        assertEquals(0, smallMemoryManager.getUsedMemory());
+    }
+
+    private Record put(int key, Object value) {
+        Data dataKey = ss.toData(key);
+        Record record = recordFactory.newRecord(dataKey, value);
+        storage.put(dataKey, record);
+        return record;
+    }
+
+    private static long hashOfSlot(int slot, long from) {
+        long hash = from;
+        while ((fastLongMix(hash) & (INITIAL_INDEX_CAPACITY - 1)) != slot) {
+            hash++;
+        }
+        return hash;
+    }
+
+    private static final class CollidingData extends HeapData {
+
+        private final long hash64;
+
+        CollidingData(Data data) {
+            this(data, 42);
+        }
+
+        CollidingData(Data data, long hash64) {
+            super(data.toByteArray());
+            this.hash64 = hash64;
+        }
+
+        @Override
+        public long hash64() {
+            return hash64;
+        }
+    }
+}
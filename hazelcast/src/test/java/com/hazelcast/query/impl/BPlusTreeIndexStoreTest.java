@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.IMap;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.spi.properties.ClusterProperty;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static com.hazelcast.query.impl.AbstractIndex.NULL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+@SuppressWarnings("rawtypes")
+public class BPlusTreeIndexStoreTest extends HazelcastTestSupport {
+
+    private static final int KEY_COUNT = 2000;
+    private static final int VALUE_COUNT = 100;
+
+    private final InternalSerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+    private final Extractors extractors = Extractors.newBuilder(serializationService).build();
+    private final Random random = new Random();
+
+    // a small node capacity makes the tree deep and exercises splits and merges
+    private final BPlusTreeIndexStore store = new BPlusTreeIndexStore(IndexCopyBehavior.COPY_ON_READ, 4);
+    private final OrderedIndexStore expected = new OrderedIndexStore(IndexCopyBehavior.COPY_ON_READ);
+    private final Comparable[] values = new Comparable[KEY_COUNT];
+
+    @Test
+    public void testRandomUpdates_matchOrderedIndexStore() {
+        for (int i = 0; i < 20 * KEY_COUNT; i++) {
+            int key = random.nextInt(KEY_COUNT);
+            if (random.nextInt(3) == 0) {
+                remove(key);
+            } else {
+                put(key, random.nextInt(10) == 0 ? NULL : random.nextInt(VALUE_COUNT));
+            }
+        }
+        assertSameContents();
+
+        for (int key = 0; key < KEY_COUNT; key++) {
+            remove(key);
+        }
+        assertSameContents();
+    }
+
+    @Test
+    public void testClear() {
+        for (int key = 0; key < KEY_COUNT; key++) {
+            put(key, key % 2 == 0 ? NULL : key);
+        }
+
+        store.clear();
+
+        assertEquals(0, store.getRecords(NULL).size());
+        assertEquals(0, store.getRecords(Comparison.GREATER_OR_EQUAL, 0).size());
+        Iterator<IndexKeyEntries> iterator = store.getSqlRecordIteratorBatch(false);
+        assertTrue(iterator.hasNext());
+        assertTrue(!iterator.next().getEntries().hasNext());
+        assertTrue(!iterator.hasNext());
+    }
+
+    @Test
+    public void testIteration_continuesAfterConcurrentModification() {
+        for (int key = 0; key < KEY_COUNT; key++) {
+            put(key, key);
+        }
+
+        Iterator<QueryableEntry> iterator = store.getSqlRecordIterator(Comparison.GREATER_OR_EQUAL, 0, false);
+        int previous = -1;
+        int count = 0;
+        while (iterator.hasNext()) {
+            int value = (Integer) iterator.next().getValue();
+            assertTrue(value > previous);
+            previous = value;
+            count++;
+            if (value % 10 == 0) {
+                // removes the already visited and the upcoming entries
+                remove(value);
+                remove(KEY_COUNT - 1 - value);
+            }
+        }
+        assertTrue(count > KEY_COUNT * 8 / 10 && count < KEY_COUNT);
+    }
+
+    @Test
+    public void testSortedIndexQueries_whenEnabledByProperty() {
+        Config config = smallInstanceConfig().setProperty(ClusterProperty.INDEX_BPLUS_TREE_ENABLED.getName(), "true");
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, Integer> map = instance.getMap(randomMapName());
+        map.addIndex(IndexType.SORTED, "this");
+        for (int i = 0; i < KEY_COUNT; i++) {
+            map.put(i, i % VALUE_COUNT);
+        }
+
+        assertEquals(KEY_COUNT / VALUE_COUNT * 10, map.keySet(Predicates.between("this", 10, 19)).size());
+        assertEquals(KEY_COUNT / VALUE_COUNT * 10, map.keySet(Predicates.lessThan("this", 10)).size());
+        assertEquals(KEY_COUNT / VALUE_COUNT, map.keySet(Predicates.equal("this", 42)).size());
+    }
+
+    private void put(int key, Comparable value) {
+        remove(key);
+        QueryableEntry entry = new QueryEntry(serializationService, serializationService.toData(key),
+                value == NULL ? null : value, extractors);
+        store.insertInternal(value, entry);
+        expected.insertInternal(value, entry);
+        values[key] = value;
+    }
+
+    private void remove(int key) {
+        if (values[key] != null) {
+            Data keyData = serializationService.toData(key);
+            assertEquals(expected.removeInternal(values[key], keyData), store.removeInternal(values[key], keyData));
+            values[key] = null;
+        }
+    }
+
+    private void assertSameContents() {
+        assertEquals(keys(expected.getRecords(NULL)), keys(store.getRecords(NULL)));
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            int value = random.nextInt(VALUE_COUNT);
+            int other = random.nextInt(VALUE_COUNT);
+            boolean inclusive = random.nextBoolean();
+            Comparison comparison = Comparison.values()[random.nextInt(Comparison.values().length)];
+
+            assertEquals(keys(expected.getRecords(value)), keys(store.getRecords(value)));
+            assertEquals(keys(expected.getRecords(comparison, value)), keys(store.getRecords(comparison, value)));
+            assertEquals(keys(expected.getRecords(value, inclusive, other, !inclusive)),
+                    keys(store.getRecords(value, inclusive, other, !inclusive)));
+            assertEquals(batches(expected.getSqlRecordIteratorBatch(value)), batches(store.getSqlRecordIteratorBatch(value)));
+            assertEquals(batches(expected.getSqlRecordIteratorBatch(comparison, value, inclusive)),
+                    batches(store.getSqlRecordIteratorBatch(comparison, value, inclusive)));
+            assertEquals(batches(expected.getSqlRecordIteratorBatch(value, inclusive, other, true, !inclusive)),
+                    batches(store.getSqlRecordIteratorBatch(value, inclusive, other, true, !inclusive)));
+        }
+        assertEquals(batches(expected.getSqlRecordIteratorBatch(false)), batches(store.getSqlRecordIteratorBatch(false)));
+        assertEquals(batches(expected.getSqlRecordIteratorBatch(true)), batches(store.getSqlRecordIteratorBatch(true)));
+        assertEquals(batches(expected.getSqlRecordIteratorBatch(NULL)), batches(store.getSqlRecordIteratorBatch(NULL)));
+    }
+
+    private static Set<Data> keys(Set<QueryableEntry> entries) {
+        Set<Data> keys = new HashSet<>();
+        for (QueryableEntry entry : entries) {
+            keys.add(entry.getKeyData());
+        }
+        return keys;
+    }
+
+    /**
+     * Returns the index keys followed by their entry keys, in the iteration order.
+     */
+    private static List<Object> batches(Iterator<IndexKeyEntries> iterator) {
+        List<Object> result = new ArrayList<>();
+        while (iterator.hasNext()) {
+            IndexKeyEntries batch = iterator.next();
+            result.add(batch.getIndexKey());
+            batch.getEntries().forEachRemaining(entry -> result.add(entry.getKeyData()));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2008-2022, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.spi.impl;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static com.hazelcast.internal.util.ConcurrencyUtil.CALLER_RUNS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.mockito.Mockito.mock;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class AbstractInvocationFuture_CompletionOffloadTest extends AbstractInvocationFuture_AbstractTest {
+
+    private final AtomicInteger offloadCount = new AtomicInteger();
+    private final Executor offloadExecutor = Executors.newSingleThreadExecutor();
+
+    @Test
+    public void whenVoid_thenNotOffloaded() {
+        OffloadingFuture future = new OffloadingFuture();
+
+        future.complete(value);
+
+        assertEquals(0, offloadCount.get());
+    }
+
+    @Test
+    public void whenBlockingThread_thenNotOffloaded() {
+        OffloadingFuture future = new OffloadingFuture();
+        spawn(() -> future.get());
+        assertTrueEventually(() -> assertNotSame(AbstractInvocationFuture.UNRESOLVED, future.getState()));
+
+        future.complete(value);
+
+        assertEquals(0, offloadCount.get());
+    }
+
+    @Test
+    public void whenCallbacksWithoutCustomExecutor_thenNotOffloaded() {
+        OffloadingFuture future = new OffloadingFuture();
+        future.thenAccept(mock(Consumer.class));
+        future.whenComplete((v, t) -> { });
+
+        future.complete(value);
+
+        assertEquals(0, offloadCount.get());
+    }
+
+    @Test
+    public void whenCallbackWithCallerRunsExecutor_thenRunsOffCompletingThread() {
+        OffloadingFuture future = new OffloadingFuture();
+        AtomicReference<Thread> callbackThread = new AtomicReference<>();
+        future.thenAcceptAsync(v -> callbackThread.set(Thread.currentThread()), CALLER_RUNS);
+
+        future.complete(value);
+
+        assertTrueEventually(() -> assertNotNull(callbackThread.get()));
+        assertNotSame(Thread.currentThread(), callbackThread.get());
+        assertEquals(1, offloadCount.get());
+    }
+
+    @Test
+    public void whenExceptionally_thenRunsOffCompletingThread() {
+        OffloadingFuture future = new OffloadingFuture();
+        AtomicReference<Thread> callbackThread = new AtomicReference<>();
+        future.exceptionally(t -> {
+            callbackThread.set(Thread.currentThread());
+            return null;
+        });
+
+        future.completeExceptionally(new RuntimeException());
+
+        assertTrueEventually(() -> assertNotNull(callbackThread.get()));
+        assertNotSame(Thread.currentThread(), callbackThread.get());
+        assertEquals(1, offloadCount.get());
+    }
+
+    @Test
+    public void whenCallbackRegisteredConcurrentlyWithCompletion_thenNeverRunsOnCompletingThread() throws Exception {
+        for (int i = 0; i < 1000; i++) {
+            OffloadingFuture future = new OffloadingFuture();
+            AtomicReference<Thread> callbackThread = new AtomicReference<>();
+            CountDownLatch callbackRan = new CountDownLatch(1);
+            CyclicBarrier barrier = new CyclicBarrier(2);
+            Future registration = spawn(() -> {
+                barrier.await();
+                future.thenAcceptAsync(v -> {
+                    callbackThread.set(Thread.currentThread());
+                    callbackRan.countDown();
+                }, CALLER_RUNS);
+                return null;
+            });
+
+            barrier.await();
+            future.complete(value);
+
+            registration.get();
+            assertOpenEventually(callbackRan);
+            assertNotSame(Thread.currentThread(), callbackThread.get());
+        }
+    }
+
+    private class OffloadingFuture extends TestFuture {
+
+        @Override
+        protected Executor completingThreadOffloadExecutor() {
+            return command -> {
+                offloadCount.incrementAndGet();
+                offloadExecutor.execute(command);
+            };
+        }
+    }
+}
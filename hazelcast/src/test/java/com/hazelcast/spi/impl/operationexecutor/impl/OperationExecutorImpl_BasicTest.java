@@ -31,6 +31,8 @@ import java.util.concurrent.TimeUnit;
 import static com.hazelcast.spi.impl.operationservice.Operation.GENERIC_PARTITION_ID;
 import static com.hazelcast.spi.properties.ClusterProperty.GENERIC_OPERATION_THREAD_COUNT;
 import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_COUNT;
+import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_OPERATION_QUEUE_CAPACITY;
+import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_OPERATION_QUEUE_TYPE;
 import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_OPERATION_THREAD_COUNT;
 import static com.hazelcast.spi.properties.ClusterProperty.PRIORITY_GENERIC_OPERATION_THREAD_COUNT;
 import static org.junit.Assert.assertEquals;
@@ -156,6 +158,29 @@ public class OperationExecutorImpl_BasicTest extends OperationExecutorImpl_Abstr
         awaitBarrier(barrier);
     }
 
+    @Test
+    public void test_runOnAllPartitionThreads_whenArrayQueue() throws Exception {
+        config.setProperty(PARTITION_OPERATION_QUEUE_TYPE.getName(), "array");
+        // small enough for the tasks below to end up on the overflow queue
+        config.setProperty(PARTITION_OPERATION_QUEUE_CAPACITY.getName(), "2");
+        initExecutor();
+
+        int threadCount = executor.getPartitionThreadCount();
+        int taskCount = 100;
+        CountDownLatch completionLatch = new CountDownLatch(threadCount * taskCount);
+        for (int k = 0; k < taskCount; k++) {
+            executor.executeOnPartitionThreads(completionLatch::countDown);
+        }
+
+        assertOpenEventually(completionLatch);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testConstruction_whenUnrecognizedQueueType() {
+        config.setProperty(PARTITION_OPERATION_QUEUE_TYPE.getName(), "foo");
+        initExecutor();
+    }
+
     @Test
     public void genericPriorityTaskIsPickedUpEvenWhenAllGenericThreadsBusy() {
         initExecutor();